@@ -3,13 +3,18 @@ package client;
 import client.requests.RequestName;
 import client.requests.client.RequestSetServer;
 import client.requests.client.RequestHelp;
+import client.requests.dataStructures.bitmap.*;
+import client.requests.dataStructures.hash.*;
 import client.requests.dataStructures.list.*;
 import client.requests.dataStructures.set.*;
+import client.requests.dataStructures.zset.*;
 import client.requests.dataTypes.*;
+import client.requests.server.RequestInfo;
 import client.requests.exceptions.InvalidNbArgException;
 import client.requests.exceptions.NoTokensException;
 import server.RedisLikeServer;
 
+import java.nio.charset.StandardCharsets;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
@@ -33,8 +38,19 @@ public class Client {
     private final String EMPTY_STRING = "(empty string)";
     private final String EMPTY_LIST = "(empty list)";
     private final String ERROR_PARSE_INT = "(error) value is not an integer";
+    private final String ERROR_PARSE_FLOAT = "(error) value is not a valid float";
     private final String ERROR_WRONG_TYPE = "(error) Operation dagainst a key holding the wrong kind of value";
     private final String ERROR_NOT_LIST = "(error) not a list";
+    private final String ERROR_SYNTAX = "(error) syntax error";
+    private final String ERROR_INVALID_EXPIRE = "(error) invalid expire time in 'set' command";
+    private final String ERROR_TIMEOUT = "(error) timeout is not a float or out of range";
+    private final String ERROR_NEGATIVE_TIMEOUT = "(error) timeout is negative";
+    private final String ERROR_INVALID_MAXLEN = "(error) MAXLEN must be positive";
+    private final String ERROR_NEGATIVE_COUNT = "(error) value is out of range, must be positive";
+    private final String ERROR_MIN_MAX = "(error) min or max is not a float";
+    private final String ERROR_BIT_OFFSET = "(error) bit offset is not an integer or out of range";
+    private final String ERROR_BIT = "(error) bit is not an integer or out of range";
+    private final String ERROR_BITOP_NOT = "(error) BITOP NOT must be called with a single source key";
     private final String NIL = "(nil)";
 
     public static void main(String[] args) {
@@ -69,6 +85,8 @@ public class Client {
             doExit();
         } else if (cmd.equals(RequestName.getInstance().getSetServerCmd())) {
             doSetServer();
+        } else if (cmd.equals(RequestName.getInstance().getInfoCmd())) {
+            doInfo();
         } else if (cmd.equals(RequestName.getInstance().getGetCmd())) {
             doGet();
         } else if (cmd.equals(RequestName.getInstance().getSetCmd())) {
@@ -83,12 +101,32 @@ public class Client {
             doIncr();
         } else if (cmd.equals(RequestName.getInstance().getIncrByCmd())) {
             doIncrBy();
+        } else if (cmd.equals(RequestName.getInstance().getIncrByFloatCmd())) {
+            doIncrByFloat();
         } else if (cmd.equals(RequestName.getInstance().getDelCmd())) {
             doDel();
+        } else if (cmd.equals(RequestName.getInstance().getExpireCmd())) {
+            doExpire();
+        } else if (cmd.equals(RequestName.getInstance().getPExpireCmd())) {
+            doPExpire();
+        } else if (cmd.equals(RequestName.getInstance().getTTLCmd())) {
+            doTTL();
+        } else if (cmd.equals(RequestName.getInstance().getPTTLCmd())) {
+            doPTTL();
+        } else if (cmd.equals(RequestName.getInstance().getPersistCmd())) {
+            doPersist();
+        } else if (cmd.equals(RequestName.getInstance().getBLMoveCmd())) {
+            doBLMove();
+        } else if (cmd.equals(RequestName.getInstance().getBLPopCmd())) {
+            doBLPop();
+        } else if (cmd.equals(RequestName.getInstance().getBRPopCmd())) {
+            doBRPop();
         } else if (cmd.equals(RequestName.getInstance().getLIndexCmd())) {
             doLindex();
         } else if (cmd.equals(RequestName.getInstance().getLLenCmd())) {
             doLLen();
+        } else if (cmd.equals(RequestName.getInstance().getLMoveCmd())) {
+            doLMove();
         } else if (cmd.equals(RequestName.getInstance().getLPopCmd())) {
             doLPop();
         } else if (cmd.equals(RequestName.getInstance().getLPushCmd())) {
@@ -103,6 +141,8 @@ public class Client {
             doLTrim();
         } else if (cmd.equals(RequestName.getInstance().getRPopCmd())) {
             doRPop();
+        } else if (cmd.equals(RequestName.getInstance().getRPopLPushCmd())) {
+            doRPopLPush();
         } else if (cmd.equals(RequestName.getInstance().getRPushCmd())) {
             doRPush();
         } else if (cmd.equals(RequestName.getInstance().getSAddCmd())) {
@@ -133,6 +173,44 @@ public class Client {
             doSDiff();
         } else if (cmd.equals(RequestName.getInstance().getSDiffStoreCmd())) {
             doSDiffStore();
+        } else if (cmd.equals(RequestName.getInstance().getZAddCmd())) {
+            doZAdd();
+        } else if (cmd.equals(RequestName.getInstance().getZCardCmd())) {
+            doZCard();
+        } else if (cmd.equals(RequestName.getInstance().getZScoreCmd())) {
+            doZScore();
+        } else if (cmd.equals(RequestName.getInstance().getZRemCmd())) {
+            doZRem();
+        } else if (cmd.equals(RequestName.getInstance().getZRankCmd())) {
+            doZRank();
+        } else if (cmd.equals(RequestName.getInstance().getZRangeCmd())) {
+            doZRange();
+        } else if (cmd.equals(RequestName.getInstance().getZRangeByScoreCmd())) {
+            doZRangeByScore();
+        } else if (cmd.equals(RequestName.getInstance().getHSetCmd())) {
+            doHSet();
+        } else if (cmd.equals(RequestName.getInstance().getHMSetCmd())) {
+            doHMSet();
+        } else if (cmd.equals(RequestName.getInstance().getHGetCmd())) {
+            doHGet();
+        } else if (cmd.equals(RequestName.getInstance().getHMGetCmd())) {
+            doHMGet();
+        } else if (cmd.equals(RequestName.getInstance().getHIncrByCmd())) {
+            doHIncrBy();
+        } else if (cmd.equals(RequestName.getInstance().getHDelCmd())) {
+            doHDel();
+        } else if (cmd.equals(RequestName.getInstance().getHLenCmd())) {
+            doHLen();
+        } else if (cmd.equals(RequestName.getInstance().getSetBitCmd())) {
+            doSetBit();
+        } else if (cmd.equals(RequestName.getInstance().getGetBitCmd())) {
+            doGetBit();
+        } else if (cmd.equals(RequestName.getInstance().getBitCountCmd())) {
+            doBitCount();
+        } else if (cmd.equals(RequestName.getInstance().getBitPosCmd())) {
+            doBitPos();
+        } else if (cmd.equals(RequestName.getInstance().getBitOpCmd())) {
+            doBitOp();
         } else {
             doUndefinedCmd(cmd);
         }
@@ -225,6 +303,19 @@ public class Client {
         }
     }
 
+    private void doInfo() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                new RequestInfo(tokens);
+                System.out.println(info());
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
     private void doGet() {
         if (!isServerSet()) {
             printServerNotSet();
@@ -244,7 +335,11 @@ public class Client {
         } else {
             try {
                 RequestSet r = new RequestSet(tokens);
-                System.out.println(set(r.getKey(), r.getObject()));
+                if (r.getTimeout() == null) {
+                    System.out.println(set(r.getKey(), r.getObject()));
+                } else {
+                    System.out.println(set(r.getKey(), r.getObject(), r.getTimeoutUnit(), r.getTimeout()));
+                }
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -316,6 +411,19 @@ public class Client {
         }
     }
 
+    private void doIncrByFloat() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestIncrByFloat r = new RequestIncrByFloat(tokens);
+                System.out.println(incrByFloat(r.getKey(), r.getIncrement()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
     private void doDel() {
         if (!isServerSet()) {
             printServerNotSet();
@@ -329,6 +437,111 @@ public class Client {
         }
     }
 
+    private void doExpire() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestExpire r = new RequestExpire(tokens);
+                System.out.println(expire(r.getKey(), r.getSeconds()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doPExpire() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestPExpire r = new RequestPExpire(tokens);
+                System.out.println(pexpire(r.getKey(), r.getMilliseconds()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doTTL() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestTTL r = new RequestTTL(tokens);
+                System.out.println(ttl(r.getKey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doPTTL() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestPTTL r = new RequestPTTL(tokens);
+                System.out.println(pttl(r.getKey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doPersist() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestPersist r = new RequestPersist(tokens);
+                System.out.println(persist(r.getKey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBLMove() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBLMove r = new RequestBLMove(tokens);
+                System.out.println(blmove(r.getKey(), r.getDstkey(), r.getWherefrom(), r.getWhereto(),
+                                          r.getTimeout()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBLPop() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBLPop r = new RequestBLPop(tokens);
+                System.out.println(blpop(r.getKeys(), r.getTimeout()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBRPop() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBRPop r = new RequestBRPop(tokens);
+                System.out.println(brpop(r.getKeys(), r.getTimeout()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
     private void doLindex() {
         if (!isServerSet()) {
             printServerNotSet();
@@ -355,6 +568,19 @@ public class Client {
         }
     }
 
+    private void doLMove() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestLMove r = new RequestLMove(tokens);
+                System.out.println(lmove(r.getKey(), r.getDstkey(), r.getWherefrom(), r.getWhereto()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
     private void doLPop() {
         if (!isServerSet()) {
             printServerNotSet();
@@ -374,7 +600,11 @@ public class Client {
         } else {
             try {
                 RequestLPush r = new RequestLPush(tokens);
-                System.out.println(lpush(r.getKey(), r.getString()));
+                if (r.getMaxLength() == null) {
+                    System.out.println(lpush(r.getKey(), r.getStrings()));
+                } else {
+                    System.out.println(lpush(r.getKey(), r.getStrings(), r.getMaxLength()));
+                }
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -446,13 +676,30 @@ public class Client {
         }
     }
 
+    private void doRPopLPush() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestRPopLPush r = new RequestRPopLPush(tokens);
+                System.out.println(rpoplpush(r.getKey(), r.getDstkey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
     private void doRPush() {
         if (!isServerSet()) {
             printServerNotSet();
         } else {
             try {
                 RequestRPush r = new RequestRPush(tokens);
-                System.out.println(rpush(r.getKey(), r.getString()));
+                if (r.getMaxLength() == null) {
+                    System.out.println(rpush(r.getKey(), r.getStrings()));
+                } else {
+                    System.out.println(rpush(r.getKey(), r.getStrings(), r.getMaxLength()));
+                }
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -465,7 +712,7 @@ public class Client {
         } else {
             try {
                 RequestSAdd r = new RequestSAdd(tokens);
-                System.out.println(sadd(r.getKey(), r.getMember()));
+                System.out.println(sadd(r.getKey(), r.getMembers()));
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -491,7 +738,7 @@ public class Client {
         } else {
             try {
                 RequestSRem r = new RequestSRem(tokens);
-                System.out.println(srem(r.getKey(), r.getMember()));
+                System.out.println(srem(r.getKey(), r.getMembers()));
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -556,7 +803,11 @@ public class Client {
         } else {
             try {
                 RequestSPop r = new RequestSPop(tokens);
-                System.out.println(spop(r.getKey()));
+                if (r.getCount() == null) {
+                    System.out.println(spop(r.getKey()));
+                } else {
+                    System.out.println(spop(r.getKey(), r.getCount()));
+                }
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -569,7 +820,11 @@ public class Client {
         } else {
             try {
                 RequestSRandMember r = new RequestSRandMember(tokens);
-                System.out.println(srandmember(r.getKey()));
+                if (r.getCount() == null) {
+                    System.out.println(srandmember(r.getKey()));
+                } else {
+                    System.out.println(srandmember(r.getKey(), r.getCount()));
+                }
             } catch (InvalidNbArgException | NoTokensException e) {
                 System.out.println(e.getMessage());
             }
@@ -641,149 +896,823 @@ public class Client {
         }
     }
 
-    private void doUndefinedCmd(String cmd) {
-        System.out.println("(error) I'm sorry, I don't recognize that command. "
-                + "Did you mean \"" + RequestName.getInstance().findClosestCmdMatch(cmd) + "\"?");
+    private void doZAdd() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZAdd r = new RequestZAdd(tokens);
+                System.out.println(zadd(r.getKey(), r.getScores(), r.getMembers()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
     }
 
-    private boolean isServerSet() {
-        return !(server == null);
+    private void doZCard() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZCard r = new RequestZCard(tokens);
+                System.out.println(zcard(r.getKey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
     }
 
-    private void setServer(String ip, String name) throws RemoteException, NotBoundException {
-        Registry registry = LocateRegistry.getRegistry(ip);
-        server = (RedisLikeServer) registry.lookup(name);
+    private void doZScore() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZScore r = new RequestZScore(tokens);
+                System.out.println(zscore(r.getKey(), r.getMember()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
     }
 
-    private void printServerNotSet() {
-        System.out.println("Server is not set. Please add a server. Type \"help add_server\" if you need help.");
+    private void doZRem() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZRem r = new RequestZRem(tokens);
+                System.out.println(zrem(r.getKey(), r.getMembers()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
     }
 
-    private String get(String key) {
-        try {
-            Object o = server.get(key);
-            return o != null ? o.toString() : NIL;
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doZRank() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZRank r = new RequestZRank(tokens);
+                System.out.println(zrank(r.getKey(), r.getMember()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String set(String key, Object value) {
-        try {
-            server.set(key, value);
-            return OK;
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doZRange() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZRange r = new RequestZRange(tokens);
+                System.out.println(zrange(r.getKey(), r.getStart(), r.getStop(), r.getWithScores()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String type(String key) {
-        try {
-            return server.type(key);
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doZRangeByScore() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestZRangeByScore r = new RequestZRangeByScore(tokens);
+                System.out.println(zrangebyscore(r.getKey(), r.getMin(), r.getMax(), r.getWithScores(), r.getLimit(),
+                                                 r.getOffset(), r.getCount()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String decr(String key) {
-        try {
-            return String.valueOf(server.decr(key));
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doHSet() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHSet r = new RequestHSet(tokens);
+                System.out.println(hset(r.getKey(), r.getFields(), r.getValues()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String decrBy(String key, String integer) {
-        try {
-            int realInteger = Integer.parseInt(integer);
-            return String.valueOf(server.decrBy(key, realInteger));
-        } catch (NumberFormatException e) {
-            return ERROR_PARSE_INT;
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doHMSet() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHMSet r = new RequestHMSet(tokens);
+                System.out.println(hmset(r.getKey(), r.getFields(), r.getValues()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String incr(String key) {
-        try {
-            return String.valueOf(server.incr(key));
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doHGet() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHGet r = new RequestHGet(tokens);
+                System.out.println(hget(r.getKey(), r.getField()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String incrBy(String key, String integer) {
-        try {
-            int realInteger = Integer.parseInt(integer);
-            return String.valueOf(server.incrBy(key, realInteger));
-        } catch (NumberFormatException e) {
-            return ERROR_PARSE_INT;
-        } catch (RemoteException e) {
-            return e.getMessage();
+    private void doHMGet() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHMGet r = new RequestHMGet(tokens);
+                System.out.println(hmget(r.getKey(), r.getFields()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
         }
     }
 
-    private String del(String key) {
-        try {
+    private void doHIncrBy() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHIncrBy r = new RequestHIncrBy(tokens);
+                System.out.println(hincrby(r.getKey(), r.getField(), r.getIncrement()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doHDel() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHDel r = new RequestHDel(tokens);
+                System.out.println(hdel(r.getKey(), r.getFields()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doHLen() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestHLen r = new RequestHLen(tokens);
+                System.out.println(hlen(r.getKey()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doSetBit() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestSetBit r = new RequestSetBit(tokens);
+                System.out.println(setbit(r.getKey(), r.getOffset(), r.getValue()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doGetBit() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestGetBit r = new RequestGetBit(tokens);
+                System.out.println(getbit(r.getKey(), r.getOffset()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBitCount() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBitCount r = new RequestBitCount(tokens);
+                System.out.println(bitcount(r.getKey(), r.getStart(), r.getEnd()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBitPos() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBitPos r = new RequestBitPos(tokens);
+                System.out.println(bitpos(r.getKey(), r.getBit(), r.getStart(), r.getEnd()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doBitOp() {
+        if (!isServerSet()) {
+            printServerNotSet();
+        } else {
+            try {
+                RequestBitOp r = new RequestBitOp(tokens);
+                System.out.println(bitop(r.getOperation(), r.getKeys()));
+            } catch (InvalidNbArgException | NoTokensException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    private void doUndefinedCmd(String cmd) {
+        System.out.println("(error) I'm sorry, I don't recognize that command. "
+                + "Did you mean \"" + RequestName.getInstance().findClosestCmdMatch(cmd) + "\"?");
+    }
+
+    private boolean isServerSet() {
+        return !(server == null);
+    }
+
+    private void setServer(String ip, String name) throws RemoteException, NotBoundException {
+        Registry registry = LocateRegistry.getRegistry(ip);
+        server = (RedisLikeServer) registry.lookup(name);
+    }
+
+    private void printServerNotSet() {
+        System.out.println("Server is not set. Please add a server. Type \"help add_server\" if you need help.");
+    }
+
+    private String info() {
+        try {
+            return server.info();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String get(String key) {
+        try {
+            byte[] value = server.get(bytes(key));
+            return value != null ? new String(value, StandardCharsets.UTF_8) : NIL;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String set(String key, Object value) {
+        try {
+            server.set(bytes(key), bytes(value.toString()));
+            return OK;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String set(String key, Object value, String timeoutUnit, String timeout) {
+        long milliseconds;
+        try {
+            milliseconds = Long.parseLong(timeout);
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        }
+        if (milliseconds <= 0) {
+            return ERROR_INVALID_EXPIRE;
+        }
+        if (timeoutUnit.equalsIgnoreCase("EX")) {
+            milliseconds = milliseconds > Long.MAX_VALUE / 1000 ? Long.MAX_VALUE : milliseconds * 1000;
+        } else if (!timeoutUnit.equalsIgnoreCase("PX")) {
+            return ERROR_SYNTAX;
+        }
+        try {
+            server.set(bytes(key), bytes(value.toString()), milliseconds);
+            return OK;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Encode a string for the binary-safe commands of the server.
+     * @param s The string.
+     * @return The UTF-8 bytes of the string.
+     */
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String type(String key) {
+        try {
+            return server.type(key);
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String decr(String key) {
+        try {
+            return String.valueOf(server.decr(key));
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String decrBy(String key, String integer) {
+        try {
+            long realInteger = Long.parseLong(integer);
+            return String.valueOf(server.decrBy(key, realInteger));
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String incr(String key) {
+        try {
+            return String.valueOf(server.incr(key));
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String incrBy(String key, String integer) {
+        try {
+            long realInteger = Long.parseLong(integer);
+            return String.valueOf(server.incrBy(key, realInteger));
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String incrByFloat(String key, String increment) {
+        try {
+            double realIncrement = Double.parseDouble(increment);
+            if (Double.isNaN(realIncrement) || Double.isInfinite(realIncrement)) {
+                return ERROR_PARSE_FLOAT;
+            }
+            return String.valueOf(server.incrByFloat(key, realIncrement));
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_FLOAT;
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String del(String key) {
+        try {
             return server.del(key) ? OK : NOT_OK;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String lindex(String key, String index) {
+    private String expire(String key, String seconds) {
+        try {
+            long realSeconds = Long.parseLong(seconds);
+            return server.expire(key, realSeconds) ? OK : NOT_OK;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String pexpire(String key, String milliseconds) {
+        try {
+            long realMilliseconds = Long.parseLong(milliseconds);
+            return server.pexpire(key, realMilliseconds) ? OK : NOT_OK;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String ttl(String key) {
+        try {
+            return String.valueOf(server.ttl(key));
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String pttl(String key) {
+        try {
+            return String.valueOf(server.pttl(key));
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String persist(String key) {
+        try {
+            return server.persist(key) ? OK : NOT_OK;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Convert the timeout of a blocking command to milliseconds.
+     * @param timeout The timeout in seconds, possibly decimal, 0 to block forever.
+     * @return The timeout in milliseconds, rounded up so that a tiny timeout does not block forever, -1 if the
+     * timeout is negative.
+     * @throws NumberFormatException When the timeout is not a number.
+     */
+    private long timeoutMillis(String timeout) throws NumberFormatException {
+        double seconds = Double.parseDouble(timeout);
+        if (Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+            throw new NumberFormatException(timeout);
+        }
+        return seconds < 0 ? -1L : (long) Math.ceil(seconds * 1000);
+    }
+
+    private String blmove(String srckey, String dstkey, String wherefrom, String whereto, String timeout) {
+        boolean fromLeft = wherefrom.equalsIgnoreCase("LEFT");
+        boolean toLeft = whereto.equalsIgnoreCase("LEFT");
+        if ((!fromLeft && !wherefrom.equalsIgnoreCase("RIGHT")) || (!toLeft && !whereto.equalsIgnoreCase("RIGHT"))) {
+            return ERROR_SYNTAX;
+        }
+        try {
+            long milliseconds = timeoutMillis(timeout);
+            if (milliseconds < 0) {
+                return ERROR_NEGATIVE_TIMEOUT;
+            }
+            Object o = server.blmove(srckey, dstkey, fromLeft, toLeft, milliseconds);
+            return o == null ? NIL : o.toString();
+        } catch (NumberFormatException e) {
+            return ERROR_TIMEOUT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String blpop(String[] keys, String timeout) {
+        try {
+            long milliseconds = timeoutMillis(timeout);
+            if (milliseconds < 0) {
+                return ERROR_NEGATIVE_TIMEOUT;
+            }
+            return popped(server.blpop(keys, milliseconds));
+        } catch (NumberFormatException e) {
+            return ERROR_TIMEOUT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String brpop(String[] keys, String timeout) {
+        try {
+            long milliseconds = timeoutMillis(timeout);
+            if (milliseconds < 0) {
+                return ERROR_NEGATIVE_TIMEOUT;
+            }
+            return popped(server.brpop(keys, milliseconds));
+        } catch (NumberFormatException e) {
+            return ERROR_TIMEOUT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Format the result of a blocking pop.
+     * @param keyAndElement The key and the popped element, null if the timeout elapsed.
+     * @return The key and the element, one per line, or nil.
+     */
+    private String popped(List<Object> keyAndElement) {
+        if (keyAndElement == null) {
+            return NIL;
+        }
+        return "1) " + keyAndElement.get(0) + "\n" + "2) " + keyAndElement.get(1) + "\n";
+    }
+
+    private String lindex(String key, String index) {
+        try {
+            int realIndex = Integer.parseInt(index);
+            Object o = server.lindex(key, realIndex);
+            if (o == null) {
+                return NIL;
+            } else if (o.equals("")) {
+                return EMPTY_STRING;
+            } else {
+                return o.toString();
+            }
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String llen(String key) {
+        try {
+            int len = server.llen(key);
+            return len >= 0 ? String.valueOf(len) : ERROR_NOT_LIST;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lmove(String srckey, String dstkey, String wherefrom, String whereto) {
+        boolean fromLeft = wherefrom.equalsIgnoreCase("LEFT");
+        boolean toLeft = whereto.equalsIgnoreCase("LEFT");
+        if ((!fromLeft && !wherefrom.equalsIgnoreCase("RIGHT")) || (!toLeft && !whereto.equalsIgnoreCase("RIGHT"))) {
+            return ERROR_SYNTAX;
+        }
+        try {
+            Object o = server.lmove(srckey, dstkey, fromLeft, toLeft);
+            return o == null ? NIL : o.toString();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lpop(String key) {
+        try {
+            Object o = server.lpop(key);
+            if (o == null) {
+                return NIL;
+            } else {
+                return o.toString();
+            }
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lpush(String key, Object[] values) {
+        try {
+            int res = server.lpush(key, values);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lpush(String key, Object[] values, String maxLength) {
+        int realMaxLength;
+        try {
+            realMaxLength = Integer.parseInt(maxLength);
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        }
+        if (realMaxLength <= 0) {
+            return ERROR_INVALID_MAXLEN;
+        }
+        try {
+            int res = server.lpush(key, values, realMaxLength);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lrange(String key, String start, String end) {
+        try {
+            int realStart = Integer.parseInt(start);
+            int realEnd = Integer.parseInt(end);
+            ArrayList<Object> objects = server.lrange(key, realStart, realEnd);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
+            } else {
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
+            }
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lrem(String key, String count, String value) {
+        try {
+            int realCount = Integer.parseInt(count);
+            return String.valueOf(server.lrem(key, realCount, value));
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String lset(String key, String index, String value) {
+        try {
+            int realIndex = Integer.parseInt(index);
+            return server.lset(key, realIndex, value) ? OK : NOT_OK;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String ltrim(String key, String start, String end) {
+        try {
+            int realStart = Integer.parseInt(start);
+            int realEnd = Integer.parseInt(end);
+            return server.ltrim(key, realStart, realEnd) ? OK : NOT_OK;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String rpoplpush(String srckey, String dstkey) {
+        try {
+            Object o = server.rpoplpush(srckey, dstkey);
+            return o == null ? NIL : o.toString();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String rpush(String key, Object[] values) {
+        try {
+            int res = server.rpush(key, values);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String rpush(String key, Object[] values, String maxLength) {
+        int realMaxLength;
+        try {
+            realMaxLength = Integer.parseInt(maxLength);
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        }
+        if (realMaxLength <= 0) {
+            return ERROR_INVALID_MAXLEN;
+        }
+        try {
+            int res = server.rpush(key, values, realMaxLength);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String rpop(String key) {
+        try {
+            Object o = server.rpop(key);
+            return o != null ? o.toString(): NIL;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String sadd(String key, Object[] members) {
+        try {
+            int res = server.sadd(key, members);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String scard(String key) {
+        try {
+            int res = server.scard(key);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String srem(String key, Object[] members) {
+        try {
+            int res = server.srem(key, members);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String sismember(String key, Object member) {
+        try {
+            int res = server.sismember(key, member);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String smembers(String key) {
+        try {
+            List<Object> objects = server.smembers(key);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
+            } else {
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
+            }
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String sinter(String[] keys) {
         try {
-            int realIndex = Integer.parseInt(index);
-            Object o = server.lindex(key, realIndex);
-            if (o == null) {
-                return NIL;
-            } else if (o.equals("")) {
-                return EMPTY_STRING;
+            List<Object> objects = server.sinter(keys);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
             } else {
-                return o.toString();
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
             }
-        } catch (NumberFormatException e) {
-            return ERROR_PARSE_INT;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String llen(String key) {
+    private String sinterstore(String[] keys) {
         try {
-            int len = server.llen(key);
-            return len >= 0 ? String.valueOf(len) : ERROR_NOT_LIST;
+            int res = server.sinterstore(keys);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String lpop(String key) {
+    private String spop(String key) {
         try {
-            Object o = server.lpop(key);
-            if (o == null) {
-                return NIL;
-            } else {
-                return o.toString();
-            }
+            Object res = server.spop(key);
+            return res != null ? res.toString() : NIL;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String lpush(String key, Object value) {
+    private String srandmember(String key) {
         try {
-            return server.lpush(key, value) ? OK : ERROR_WRONG_TYPE;
+            Object res = server.srandmember(key);
+            return res != null ? res.toString() : NIL;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String lrange(String key, String start, String end) {
+    private String spop(String key, String count) {
         try {
-            int realStart = Integer.parseInt(start);
-            int realEnd = Integer.parseInt(end);
-            ArrayList<Object> objects = server.lrange(key, realStart, realEnd);
+            int realCount = Integer.parseInt(count);
+            if (realCount < 0) {
+                return ERROR_NEGATIVE_COUNT;
+            }
+            List<Object> objects = server.spop(key, realCount);
             if (objects == null) {
                 return ERROR_WRONG_TYPE;
             } else if (objects.isEmpty()) {
@@ -803,10 +1732,22 @@ public class Client {
         }
     }
 
-    private String lrem(String key, String count, String value) {
+    private String srandmember(String key, String count) {
         try {
             int realCount = Integer.parseInt(count);
-            return String.valueOf(server.lrem(key, realCount, value));
+            List<Object> objects = server.srandmember(key, realCount);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
+            } else {
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
+            }
         } catch (NumberFormatException e) {
             return ERROR_PARSE_INT;
         } catch (RemoteException e) {
@@ -814,85 +1755,137 @@ public class Client {
         }
     }
 
-    private String lset(String key, String index, String value) {
+    private String smove(String srckey, String dstkey, Object member) {
         try {
-            int realIndex = Integer.parseInt(index);
-            return server.lset(key, realIndex, value) ? OK : NOT_OK;
-        } catch (NumberFormatException e) {
-            return ERROR_PARSE_INT;
+            int res = server.smove(srckey, dstkey, member);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String ltrim(String key, String start, String end) {
+    private String sunion(String[] keys) {
         try {
-            int realStart = Integer.parseInt(start);
-            int realEnd = Integer.parseInt(end);
-            return server.ltrim(key, realStart, realEnd) ? OK : NOT_OK;
-        } catch (NumberFormatException e) {
-            return ERROR_PARSE_INT;
+            List<Object> objects = server.sunion(keys);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
+            } else {
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
+            }
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String rpush(String key, Object value) {
+    private String sunionstore(String[] keys) {
         try {
-            return server.rpush(key, value) ? OK : ERROR_WRONG_TYPE;
+            int res = server.sunionstore(keys);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String rpop(String key) {
+    private String sdiff(String[] keys) {
         try {
-            Object o = server.rpop(key);
-            return o != null ? o.toString(): NIL;
+            List<Object> objects = server.sdiff(keys);
+            if (objects == null) {
+                return ERROR_WRONG_TYPE;
+            } else if (objects.isEmpty()) {
+                return EMPTY_LIST;
+            } else {
+                int len = objects.size();
+                String res = "";
+                for (int i = 0; i < len; i++) {
+                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                }
+                return res;
+            }
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sadd(String key, Object member) {
+    private String sdiffstore(String[] keys) {
         try {
-            int res = server.sadd(key, member);
+            int res = server.sdiffstore(keys);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String scard(String key) {
+    private String zadd(String key, String[] scores, Object[] members) {
+        double[] realScores = new double[scores.length];
         try {
-            int res = server.scard(key);
+            for (int i = 0; i < scores.length; i++) {
+                realScores[i] = parseScore(scores[i]);
+            }
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_FLOAT;
+        }
+        try {
+            int res = server.zadd(key, realScores, members);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String srem(String key, Object member) {
+    private String zcard(String key) {
         try {
-            int res = server.srem(key, member);
+            int res = server.zcard(key);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sismember(String key, Object member) {
+    private String zscore(String key, Object member) {
         try {
-            int res = server.sismember(key, member);
+            Double res = server.zscore(key, member);
+            return res != null ? String.valueOf(res) : NIL;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String zrem(String key, Object[] members) {
+        try {
+            int res = server.zrem(key, members);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String smembers(String key) {
+    private String zrank(String key, Object member) {
         try {
-            List<Object> objects = server.smembers(key);
+            Integer res = server.zrank(key, member);
+            if (res == null) {
+                return NIL;
+            }
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String zrange(String key, String start, String stop, String withScores) {
+        if (withScores != null && !withScores.equalsIgnoreCase("WITHSCORES")) {
+            return ERROR_SYNTAX;
+        }
+        try {
+            int realStart = Integer.parseInt(start);
+            int realStop = Integer.parseInt(stop);
+            ArrayList<Object> objects = server.zrange(key, realStart, realStop, withScores != null);
             if (objects == null) {
                 return ERROR_WRONG_TYPE;
             } else if (objects.isEmpty()) {
@@ -905,14 +1898,45 @@ public class Client {
                 }
                 return res;
             }
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sinter(String[] keys) {
+    private String zrangebyscore(String key, String min, String max, String withScores, String limit, String offset,
+                                 String count) {
+        if ((withScores != null && !withScores.equalsIgnoreCase("WITHSCORES"))
+            || (limit != null && !limit.equalsIgnoreCase("LIMIT"))) {
+            return ERROR_SYNTAX;
+        }
+        double realMin;
+        double realMax;
+        boolean minExcluded = min.startsWith("(");
+        boolean maxExcluded = max.startsWith("(");
         try {
-            List<Object> objects = server.sinter(keys);
+            realMin = minExcluded ? parseScore(min.substring(1)) : parseScore(min);
+            realMax = maxExcluded ? parseScore(max.substring(1)) : parseScore(max);
+        } catch (NumberFormatException e) {
+            return ERROR_MIN_MAX;
+        }
+        try {
+            int realOffset = limit != null ? Integer.parseInt(offset) : 0;
+            int realCount = limit != null ? Integer.parseInt(count) : -1;
+            // nothing is above (+inf or below (-inf, and they cannot be excluded by moving to the next double
+            if (realOffset < 0 || (minExcluded && realMin == Double.POSITIVE_INFINITY)
+                || (maxExcluded && realMax == Double.NEGATIVE_INFINITY)) {
+                return EMPTY_LIST;
+            }
+            if (minExcluded) {
+                realMin = Math.nextUp(realMin);
+            }
+            if (maxExcluded) {
+                realMax = Math.nextDown(realMax);
+            }
+            ArrayList<Object> objects = server.zrangebyscore(key, realMin, realMax, withScores != null, realOffset,
+                                                             realCount);
             if (objects == null) {
                 return ERROR_WRONG_TYPE;
             } else if (objects.isEmpty()) {
@@ -925,59 +1949,51 @@ public class Client {
                 }
                 return res;
             }
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sinterstore(String[] keys) {
+    private String hset(String key, Object[] fields, Object[] values) {
         try {
-            int res = server.sinterstore(keys);
+            int res = server.hset(key, fields, values);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String spop(String key) {
+    private String hmset(String key, Object[] fields, Object[] values) {
         try {
-            Object res = server.spop(key);
-            return res != null ? res.toString() : NIL;
+            int res = server.hset(key, fields, values);
+            return res >= 0 ? OK : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String srandmember(String key) {
+    private String hget(String key, Object field) {
         try {
-            Object res = server.srandmember(key);
+            Object res = server.hget(key, field);
             return res != null ? res.toString() : NIL;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String smove(String srckey, String dstkey, Object member) {
-        try {
-            int res = server.smove(srckey, dstkey, member);
-            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
-        } catch (RemoteException e) {
-            return e.getMessage();
-        }
-    }
-
-    private String sunion(String[] keys) {
+    private String hmget(String key, Object[] fields) {
         try {
-            List<Object> objects = server.sunion(keys);
+            List<Object> objects = server.hmget(key, fields);
             if (objects == null) {
                 return ERROR_WRONG_TYPE;
-            } else if (objects.isEmpty()) {
-                return EMPTY_LIST;
             } else {
                 int len = objects.size();
                 String res = "";
                 for (int i = 0; i < len; i++) {
-                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
+                    Object o = objects.get(i);
+                    res += (i + 1) + ") " + (o != null ? o.toString() : NIL) + "\n";
                 }
                 return res;
             }
@@ -986,41 +2002,140 @@ public class Client {
         }
     }
 
-    private String sunionstore(String[] keys) {
+    private String hincrby(String key, Object field, String increment) {
         try {
-            int res = server.sunionstore(keys);
+            long realIncrement = Long.parseLong(increment);
+            Long res = server.hincrby(key, field, realIncrement);
+            return res != null ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (ArithmeticException e) {
+            return "(error) " + e.getMessage();
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String hdel(String key, Object[] fields) {
+        try {
+            int res = server.hdel(key, fields);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sdiff(String[] keys) {
+    private String hlen(String key) {
         try {
-            List<Object> objects = server.sdiff(keys);
-            if (objects == null) {
-                return ERROR_WRONG_TYPE;
-            } else if (objects.isEmpty()) {
-                return EMPTY_LIST;
+            int res = server.hlen(key);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String setbit(String key, String offset, String value) {
+        try {
+            long realOffset = Long.parseLong(offset);
+            int realValue = Integer.parseInt(value);
+            if (realOffset < 0 || realOffset >= 1L << 32) {
+                return ERROR_BIT_OFFSET;
+            }
+            if (realValue != 0 && realValue != 1) {
+                return ERROR_BIT;
+            }
+            int res = server.setbit(key, realOffset, realValue);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String getbit(String key, String offset) {
+        try {
+            long realOffset = Long.parseLong(offset);
+            if (realOffset < 0 || realOffset >= 1L << 32) {
+                return ERROR_BIT_OFFSET;
+            }
+            int res = server.getbit(key, realOffset);
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String bitcount(String key, String start, String end) {
+        try {
+            long res;
+            if (start != null) {
+                res = server.bitcount(key, Long.parseLong(start), Long.parseLong(end));
             } else {
-                int len = objects.size();
-                String res = "";
-                for (int i = 0; i < len; i++) {
-                    res += (i + 1) + ") " + objects.get(i).toString() + "\n";
-                }
-                return res;
+                res = server.bitcount(key);
             }
+            return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
 
-    private String sdiffstore(String[] keys) {
+    private String bitpos(String key, String bit, String start, String end) {
         try {
-            int res = server.sdiffstore(keys);
+            int realBit = Integer.parseInt(bit);
+            if (realBit != 0 && realBit != 1) {
+                return ERROR_BIT;
+            }
+            Long res;
+            if (start != null) {
+                res = server.bitpos(key, realBit, Long.parseLong(start), Long.parseLong(end));
+            } else {
+                res = server.bitpos(key, realBit);
+            }
+            return res != null ? String.valueOf(res) : ERROR_WRONG_TYPE;
+        } catch (NumberFormatException e) {
+            return ERROR_PARSE_INT;
+        } catch (RemoteException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String bitop(String operation, String[] keys) {
+        String op = operation.toUpperCase();
+        if (!op.equals("AND") && !op.equals("OR") && !op.equals("XOR") && !op.equals("NOT")) {
+            return ERROR_SYNTAX;
+        }
+        if (op.equals("NOT") && keys.length != 2) {
+            return ERROR_BITOP_NOT;
+        }
+        try {
+            long res = server.bitop(op, keys);
             return res >= 0 ? String.valueOf(res) : ERROR_WRONG_TYPE;
         } catch (RemoteException e) {
             return e.getMessage();
         }
     }
+
+    /**
+     * Parse the score of a sorted set member, or a bound of a range of scores.
+     * @param s The score, a float or inf, +inf and -inf in any case.
+     * @return The score.
+     * @throws NumberFormatException When s is not a float, or is NaN.
+     */
+    private static double parseScore(String s) throws NumberFormatException {
+        if (s.equalsIgnoreCase("inf") || s.equalsIgnoreCase("+inf")) {
+            return Double.POSITIVE_INFINITY;
+        } else if (s.equalsIgnoreCase("-inf")) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double score = Double.parseDouble(s);
+        if (Double.isNaN(score)) {
+            throw new NumberFormatException(s);
+        }
+        return score;
+    }
 }
\ No newline at end of file
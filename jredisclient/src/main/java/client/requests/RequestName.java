@@ -12,10 +12,15 @@ public class RequestName {
      */
     public enum Cmd {
         QUIT, EXIT, HELP, SET_SERVER,
-        GET, SET, TYPE, DECR, DECRBY, INCR, INCRBY, DEL,
-        LINDEX, LLEN, LPOP, LPUSH, LRANGE, LREM, LSET, LTRIM, RPOP, RPUSH,
+        INFO,
+        GET, SET, TYPE, DECR, DECRBY, INCR, INCRBY, INCRBYFLOAT, DEL, EXPIRE, PEXPIRE, TTL, PTTL, PERSIST,
+        BLMOVE, BLPOP, BRPOP, LINDEX, LLEN, LMOVE, LPOP, LPUSH, LRANGE, LREM, LSET, LTRIM, RPOP, RPOPLPUSH,
+            RPUSH,
         SADD, SCARD, SREM, SISMEMBER, SMEMBERS, SINTER, SINTERSTORE, SPOP, SRANDMEMBER, SMOVE, SUNION, SUNIONSTORE,
-            SDIFF, SDIFFSTORE
+            SDIFF, SDIFFSTORE,
+        ZADD, ZCARD, ZSCORE, ZREM, ZRANK, ZRANGE, ZRANGEBYSCORE,
+        HSET, HMSET, HGET, HMGET, HINCRBY, HDEL, HLEN,
+        SETBIT, GETBIT, BITCOUNT, BITPOS, BITOP
     }
 
     /**
@@ -29,9 +34,13 @@ public class RequestName {
     private RequestName() {
         cmds = new HashMap<>();
         addClientRequests();
+        addServerRequests();
         addDataTypesRequests();
         addListRequests();
         addSetRequests();
+        addZSetRequests();
+        addHashRequests();
+        addBitmapRequests();
 
         // All commands are upper case
         cmds.replaceAll((k,v) -> v.toUpperCase());
@@ -47,6 +56,13 @@ public class RequestName {
         cmds.put(Cmd.SET_SERVER, "set_server");
     }
 
+    /**
+     * Add requests related to the server itself.
+     */
+    private void addServerRequests() {
+        cmds.put(Cmd.INFO, "info");
+    }
+
     /**
      * Add requests related to data types.
      */
@@ -58,15 +74,25 @@ public class RequestName {
         cmds.put(Cmd.DECRBY, "decrby");
         cmds.put(Cmd.INCR, "incr");
         cmds.put(Cmd.INCRBY, "incrby");
+        cmds.put(Cmd.INCRBYFLOAT, "incrbyfloat");
         cmds.put(Cmd.DEL, "del");
+        cmds.put(Cmd.EXPIRE, "expire");
+        cmds.put(Cmd.PEXPIRE, "pexpire");
+        cmds.put(Cmd.TTL, "ttl");
+        cmds.put(Cmd.PTTL, "pttl");
+        cmds.put(Cmd.PERSIST, "persist");
     }
 
     /**
      * Add requests related to lists.
      */
     private void addListRequests() {
+        cmds.put(Cmd.BLMOVE, "blmove");
+        cmds.put(Cmd.BLPOP, "blpop");
+        cmds.put(Cmd.BRPOP, "brpop");
         cmds.put(Cmd.LINDEX, "lindex");
         cmds.put(Cmd.LLEN, "llen");
+        cmds.put(Cmd.LMOVE, "lmove");
         cmds.put(Cmd.LPOP, "lpop");
         cmds.put(Cmd.LPUSH, "lpush");
         cmds.put(Cmd.LRANGE, "lrange");
@@ -74,6 +100,7 @@ public class RequestName {
         cmds.put(Cmd.LSET, "lset");
         cmds.put(Cmd.LTRIM, "ltrim");
         cmds.put(Cmd.RPOP, "rpop");
+        cmds.put(Cmd.RPOPLPUSH, "rpoplpush");
         cmds.put(Cmd.RPUSH, "rpush");
     }
 
@@ -97,6 +124,43 @@ public class RequestName {
         cmds.put(Cmd.SDIFFSTORE, "sdiffstore");
     }
 
+    /**
+     * Add requests related to sorted sets.
+     */
+    private void addZSetRequests() {
+        cmds.put(Cmd.ZADD, "zadd");
+        cmds.put(Cmd.ZCARD, "zcard");
+        cmds.put(Cmd.ZSCORE, "zscore");
+        cmds.put(Cmd.ZREM, "zrem");
+        cmds.put(Cmd.ZRANK, "zrank");
+        cmds.put(Cmd.ZRANGE, "zrange");
+        cmds.put(Cmd.ZRANGEBYSCORE, "zrangebyscore");
+    }
+
+    /**
+     * Add requests related to hashes.
+     */
+    private void addHashRequests() {
+        cmds.put(Cmd.HSET, "hset");
+        cmds.put(Cmd.HMSET, "hmset");
+        cmds.put(Cmd.HGET, "hget");
+        cmds.put(Cmd.HMGET, "hmget");
+        cmds.put(Cmd.HINCRBY, "hincrby");
+        cmds.put(Cmd.HDEL, "hdel");
+        cmds.put(Cmd.HLEN, "hlen");
+    }
+
+    /**
+     * Add requests related to bitmaps.
+     */
+    private void addBitmapRequests() {
+        cmds.put(Cmd.SETBIT, "setbit");
+        cmds.put(Cmd.GETBIT, "getbit");
+        cmds.put(Cmd.BITCOUNT, "bitcount");
+        cmds.put(Cmd.BITPOS, "bitpos");
+        cmds.put(Cmd.BITOP, "bitop");
+    }
+
     /**
      * The instance representing the singleton.
      */
@@ -153,6 +217,14 @@ public class RequestName {
         return cmds.get(Cmd.SET_SERVER);
     }
 
+    /**
+     * Get the natural name of the INFO command.
+     * @return The natural name of the INFO command.
+     */
+    public String getInfoCmd() {
+        return cmds.get(Cmd.INFO);
+    }
+
     /**
      * Get the natural name of the GET command.
      * @return The natural name of the GET command.
@@ -209,6 +281,14 @@ public class RequestName {
         return cmds.get(Cmd.INCRBY);
     }
 
+    /**
+     * Get the natural name of the INCRBYFLOAT command.
+     * @return The natural name of the INCRBYFLOAT command.
+     */
+    public String getIncrByFloatCmd() {
+        return cmds.get(Cmd.INCRBYFLOAT);
+    }
+
     /**
      * Get the natural name of the DEL command.
      * @return The natural name of the DEL command.
@@ -217,6 +297,70 @@ public class RequestName {
         return cmds.get(Cmd.DEL);
     }
 
+    /**
+     * Get the natural name of the EXPIRE command.
+     * @return The natural name of the EXPIRE command.
+     */
+    public String getExpireCmd() {
+        return cmds.get(Cmd.EXPIRE);
+    }
+
+    /**
+     * Get the natural name of the PEXPIRE command.
+     * @return The natural name of the PEXPIRE command.
+     */
+    public String getPExpireCmd() {
+        return cmds.get(Cmd.PEXPIRE);
+    }
+
+    /**
+     * Get the natural name of the TTL command.
+     * @return The natural name of the TTL command.
+     */
+    public String getTTLCmd() {
+        return cmds.get(Cmd.TTL);
+    }
+
+    /**
+     * Get the natural name of the PTTL command.
+     * @return The natural name of the PTTL command.
+     */
+    public String getPTTLCmd() {
+        return cmds.get(Cmd.PTTL);
+    }
+
+    /**
+     * Get the natural name of the PERSIST command.
+     * @return The natural name of the PERSIST command.
+     */
+    public String getPersistCmd() {
+        return cmds.get(Cmd.PERSIST);
+    }
+
+    /**
+     * Get the natural name of the BLMOVE command.
+     * @return The natural name of the BLMOVE command.
+     */
+    public String getBLMoveCmd() {
+        return cmds.get(Cmd.BLMOVE);
+    }
+
+    /**
+     * Get the natural name of the BLPOP command.
+     * @return The natural name of the BLPOP command.
+     */
+    public String getBLPopCmd() {
+        return cmds.get(Cmd.BLPOP);
+    }
+
+    /**
+     * Get the natural name of the BRPOP command.
+     * @return The natural name of the BRPOP command.
+     */
+    public String getBRPopCmd() {
+        return cmds.get(Cmd.BRPOP);
+    }
+
     /**
      * Get the natural name of the LINDEX command.
      * @return The natural name of the LINDEX command.
@@ -233,6 +377,14 @@ public class RequestName {
         return cmds.get(Cmd.LLEN);
     }
 
+    /**
+     * Get the natural name of the LMOVE command.
+     * @return The natural name of the LMOVE command.
+     */
+    public String getLMoveCmd() {
+        return cmds.get(Cmd.LMOVE);
+    }
+
     /**
      * Get the natural name of the LPOP command.
      * @return The natural name of the LPOP command.
@@ -289,6 +441,14 @@ public class RequestName {
         return cmds.get(Cmd.RPOP);
     }
 
+    /**
+     * Get the natural name of the RPOPLPUSH command.
+     * @return The natural name of the RPOPLPUSH command.
+     */
+    public String getRPopLPushCmd() {
+        return cmds.get(Cmd.RPOPLPUSH);
+    }
+
     /**
      * Get the natural name of the RPUSH command.
      * @return The natural name of the RPUSH command.
@@ -409,6 +569,158 @@ public class RequestName {
         return cmds.get(Cmd.SDIFFSTORE);
     }
 
+    /**
+     * Get the natural name of the ZADD command.
+     * @return The natural name of the ZADD command.
+     */
+    public String getZAddCmd() {
+        return cmds.get(Cmd.ZADD);
+    }
+
+    /**
+     * Get the natural name of the ZCARD command.
+     * @return The natural name of the ZCARD command.
+     */
+    public String getZCardCmd() {
+        return cmds.get(Cmd.ZCARD);
+    }
+
+    /**
+     * Get the natural name of the ZSCORE command.
+     * @return The natural name of the ZSCORE command.
+     */
+    public String getZScoreCmd() {
+        return cmds.get(Cmd.ZSCORE);
+    }
+
+    /**
+     * Get the natural name of the ZREM command.
+     * @return The natural name of the ZREM command.
+     */
+    public String getZRemCmd() {
+        return cmds.get(Cmd.ZREM);
+    }
+
+    /**
+     * Get the natural name of the ZRANK command.
+     * @return The natural name of the ZRANK command.
+     */
+    public String getZRankCmd() {
+        return cmds.get(Cmd.ZRANK);
+    }
+
+    /**
+     * Get the natural name of the ZRANGE command.
+     * @return The natural name of the ZRANGE command.
+     */
+    public String getZRangeCmd() {
+        return cmds.get(Cmd.ZRANGE);
+    }
+
+    /**
+     * Get the natural name of the ZRANGEBYSCORE command.
+     * @return The natural name of the ZRANGEBYSCORE command.
+     */
+    public String getZRangeByScoreCmd() {
+        return cmds.get(Cmd.ZRANGEBYSCORE);
+    }
+
+    /**
+     * Get the natural name of the HSET command.
+     * @return The natural name of the HSET command.
+     */
+    public String getHSetCmd() {
+        return cmds.get(Cmd.HSET);
+    }
+
+    /**
+     * Get the natural name of the HMSET command.
+     * @return The natural name of the HMSET command.
+     */
+    public String getHMSetCmd() {
+        return cmds.get(Cmd.HMSET);
+    }
+
+    /**
+     * Get the natural name of the HGET command.
+     * @return The natural name of the HGET command.
+     */
+    public String getHGetCmd() {
+        return cmds.get(Cmd.HGET);
+    }
+
+    /**
+     * Get the natural name of the HMGET command.
+     * @return The natural name of the HMGET command.
+     */
+    public String getHMGetCmd() {
+        return cmds.get(Cmd.HMGET);
+    }
+
+    /**
+     * Get the natural name of the HINCRBY command.
+     * @return The natural name of the HINCRBY command.
+     */
+    public String getHIncrByCmd() {
+        return cmds.get(Cmd.HINCRBY);
+    }
+
+    /**
+     * Get the natural name of the HDEL command.
+     * @return The natural name of the HDEL command.
+     */
+    public String getHDelCmd() {
+        return cmds.get(Cmd.HDEL);
+    }
+
+    /**
+     * Get the natural name of the HLEN command.
+     * @return The natural name of the HLEN command.
+     */
+    public String getHLenCmd() {
+        return cmds.get(Cmd.HLEN);
+    }
+
+    /**
+     * Get the natural name of the SETBIT command.
+     * @return The natural name of the SETBIT command.
+     */
+    public String getSetBitCmd() {
+        return cmds.get(Cmd.SETBIT);
+    }
+
+    /**
+     * Get the natural name of the GETBIT command.
+     * @return The natural name of the GETBIT command.
+     */
+    public String getGetBitCmd() {
+        return cmds.get(Cmd.GETBIT);
+    }
+
+    /**
+     * Get the natural name of the BITCOUNT command.
+     * @return The natural name of the BITCOUNT command.
+     */
+    public String getBitCountCmd() {
+        return cmds.get(Cmd.BITCOUNT);
+    }
+
+    /**
+     * Get the natural name of the BITPOS command.
+     * @return The natural name of the BITPOS command.
+     */
+    public String getBitPosCmd() {
+        return cmds.get(Cmd.BITPOS);
+    }
+
+    /**
+     * Get the natural name of the BITOP command.
+     * @return The natural name of the BITOP command.
+     */
+    public String getBitOpCmd() {
+        return cmds.get(Cmd.BITOP);
+    }
+
     /**
      * Find the closest match of the given command using Levenshtein distance (e.g "DEL" for "dal".
      * @param cmd The command we want to find a match of.
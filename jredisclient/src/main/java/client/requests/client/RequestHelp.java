@@ -93,6 +93,8 @@ public class RequestHelp extends Request {
                 res.add(getHelpExit());
             } else if (cmd.equals(RequestName.getInstance().getSetServerCmd())) {
                 res.add(getHelpSetServer());
+            } else if (cmd.equals(RequestName.getInstance().getInfoCmd())) {
+                res.add(getHelpInfo());
             } else if (cmd.equals(RequestName.getInstance().getGetCmd())) {
                 res.add(getHelpGet());
             } else if (cmd.equals(RequestName.getInstance().getSetCmd())) {
@@ -105,14 +107,34 @@ public class RequestHelp extends Request {
                 res.add(getHelpIncr());
             } else if (cmd.equals(RequestName.getInstance().getIncrByCmd())) {
                 res.add(getHelpIncrBy());
+            } else if (cmd.equals(RequestName.getInstance().getIncrByFloatCmd())) {
+                res.add(getHelpIncrByFloat());
             } else if (cmd.equals(RequestName.getInstance().getTypeCmd())) {
                 res.add(getHelpType());
             } else if (cmd.equals(RequestName.getInstance().getDelCmd())) {
                 res.add(getHelpDel());
+            } else if (cmd.equals(RequestName.getInstance().getExpireCmd())) {
+                res.add(getHelpExpire());
+            } else if (cmd.equals(RequestName.getInstance().getPExpireCmd())) {
+                res.add(getHelpPExpire());
+            } else if (cmd.equals(RequestName.getInstance().getTTLCmd())) {
+                res.add(getHelpTTL());
+            } else if (cmd.equals(RequestName.getInstance().getPTTLCmd())) {
+                res.add(getHelpPTTL());
+            } else if (cmd.equals(RequestName.getInstance().getPersistCmd())) {
+                res.add(getHelpPersist());
+            } else if (cmd.equals(RequestName.getInstance().getBLMoveCmd())) {
+                res.add(getHelpBLMove());
+            } else if (cmd.equals(RequestName.getInstance().getBLPopCmd())) {
+                res.add(getHelpBLPop());
+            } else if (cmd.equals(RequestName.getInstance().getBRPopCmd())) {
+                res.add(getHelpBRPop());
             } else if (cmd.equals(RequestName.getInstance().getLIndexCmd())) {
                 res.add(getHelpLIndex());
             } else if (cmd.equals(RequestName.getInstance().getLLenCmd())) {
                 res.add(getHelpLLen());
+            } else if (cmd.equals(RequestName.getInstance().getLMoveCmd())) {
+                res.add(getHelpLMove());
             } else if (cmd.equals(RequestName.getInstance().getLPopCmd())) {
                 res.add(getHelpLPop());
             } else if (cmd.equals(RequestName.getInstance().getLPushCmd())) {
@@ -127,6 +149,8 @@ public class RequestHelp extends Request {
                 res.add(getHelpLTrim());
             } else if (cmd.equals(RequestName.getInstance().getRPopCmd())) {
                 res.add(getHelpRPop());
+            } else if (cmd.equals(RequestName.getInstance().getRPopLPushCmd())) {
+                res.add(getHelpRPopLPush());
             } else if (cmd.equals(RequestName.getInstance().getRPushCmd())) {
                 res.add(getHelpRPush());
             } else if (cmd.equals(RequestName.getInstance().getSAddCmd())) {
@@ -157,6 +181,44 @@ public class RequestHelp extends Request {
                 res.add(getHelpSDiff());
             } else if (cmd.equals(RequestName.getInstance().getSDiffStoreCmd())) {
                 res.add(getHelpSDiffStore());
+            } else if (cmd.equals(RequestName.getInstance().getZAddCmd())) {
+                res.add(getHelpZAdd());
+            } else if (cmd.equals(RequestName.getInstance().getZCardCmd())) {
+                res.add(getHelpZCard());
+            } else if (cmd.equals(RequestName.getInstance().getZScoreCmd())) {
+                res.add(getHelpZScore());
+            } else if (cmd.equals(RequestName.getInstance().getZRemCmd())) {
+                res.add(getHelpZRem());
+            } else if (cmd.equals(RequestName.getInstance().getZRankCmd())) {
+                res.add(getHelpZRank());
+            } else if (cmd.equals(RequestName.getInstance().getZRangeCmd())) {
+                res.add(getHelpZRange());
+            } else if (cmd.equals(RequestName.getInstance().getZRangeByScoreCmd())) {
+                res.add(getHelpZRangeByScore());
+            } else if (cmd.equals(RequestName.getInstance().getHSetCmd())) {
+                res.add(getHelpHSet());
+            } else if (cmd.equals(RequestName.getInstance().getHMSetCmd())) {
+                res.add(getHelpHMSet());
+            } else if (cmd.equals(RequestName.getInstance().getHGetCmd())) {
+                res.add(getHelpHGet());
+            } else if (cmd.equals(RequestName.getInstance().getHMGetCmd())) {
+                res.add(getHelpHMGet());
+            } else if (cmd.equals(RequestName.getInstance().getHIncrByCmd())) {
+                res.add(getHelpHIncrBy());
+            } else if (cmd.equals(RequestName.getInstance().getHDelCmd())) {
+                res.add(getHelpHDel());
+            } else if (cmd.equals(RequestName.getInstance().getHLenCmd())) {
+                res.add(getHelpHLen());
+            } else if (cmd.equals(RequestName.getInstance().getSetBitCmd())) {
+                res.add(getHelpSetBit());
+            } else if (cmd.equals(RequestName.getInstance().getGetBitCmd())) {
+                res.add(getHelpGetBit());
+            } else if (cmd.equals(RequestName.getInstance().getBitCountCmd())) {
+                res.add(getHelpBitCount());
+            } else if (cmd.equals(RequestName.getInstance().getBitPosCmd())) {
+                res.add(getHelpBitPos());
+            } else if (cmd.equals(RequestName.getInstance().getBitOpCmd())) {
+                res.add(getHelpBitOp());
             } else {
                 res.add(cmd.toUpperCase() + " : (error) I'm sorry, I don't recognize the command \"" +
                                             cmd.toUpperCase() + "\". " + "Did you mean \"" +
@@ -239,6 +301,21 @@ public class RequestHelp extends Request {
         return res;
     }
 
+    /**
+     * Get the help message of INFO.
+     * @return The help message of INFO.
+     */
+    public String getHelpInfo() {
+        String res = "";
+        res += "INFO" + "\n\n"
+
+            +  "DESCRIPTION: Return information about the server, such as the memory used by the stored values " +
+               "(used_memory, in bytes), the maximum memory they can use before keys get evicted (maxmemory), " +
+               "the number of keys evicted or expired so far and the number of keys, with or without a timeout.";
+
+        return res;
+    }
+
     /**
      * Get the help message of GET.
      * @return The help message of GET.
@@ -259,10 +336,12 @@ public class RequestHelp extends Request {
      */
     public String getHelpSet() {
         String res = "";
-        res += "SET key value" + "\n\n"
+        res += "SET key value [EX seconds | PX milliseconds]" + "\n\n"
 
             +  "DESCRIPTION: Set key to hold the value. If key already holds a value, it is overwritten, " +
-               "regardless of its type.";
+               "regardless of its type, and its timeout is cleared." + "\n\n"
+
+            +  "EX and PX set a timeout on the key, in seconds or milliseconds, like EXPIRE and PEXPIRE.";
 
         return res;
     }
@@ -339,6 +418,21 @@ public class RequestHelp extends Request {
         return res;
     }
 
+    /**
+     * Get the help message of INCRBYFLOAT.
+     * @return The help message of INCRBYFLOAT.
+     */
+    public String getHelpIncrByFloat() {
+        String res = "";
+        res += "INCRBYFLOAT key increment" + "\n\n"
+
+            +  "DESCRIPTION: Increment the number stored at key by a floating point increment (which can be " +
+               "negative). If the key does not exist or contains a value of a wrong type, set the key to the value " +
+               "of \"0\" before to perform the operation. An error is returned if the result is not a finite number.";
+
+        return res;
+    }
+
     /**
      * Get the help message of TYPE.
      * @return The help message of TYPE.
@@ -348,7 +442,7 @@ public class RequestHelp extends Request {
         res += "TYPE key" + "\n\n"
 
             + "Return the type of the value stored at key in form of a string. The type can be one of \"none\", " +
-              "\"string\", \"list\", \"set\". \"none\" is returned if the key does not exist.";
+              "\"string\", \"integer\", \"float\", \"list\", \"set\". \"none\" is returned if the key does not exist.";
 
         return res;
     }
@@ -367,6 +461,132 @@ public class RequestHelp extends Request {
         return res;
     }
 
+    /**
+     * Get the help message of EXPIRE.
+     * @return The help message of EXPIRE.
+     */
+    public String getHelpExpire() {
+        String res = "";
+        res += "EXPIRE key seconds" + "\n\n"
+
+            +  "DESCRIPTION: Set a timeout on key, after which the key is automatically deleted. " +
+               "A timeout <= 0 deletes the key right away. The timeout is cleared when the key is overwritten " +
+               "(SET, DEL), but not when its value is modified in place (LPUSH, SADD, ...).";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of PEXPIRE.
+     * @return The help message of PEXPIRE.
+     */
+    public String getHelpPExpire() {
+        String res = "";
+        res += "PEXPIRE key milliseconds" + "\n\n"
+
+            +  "DESCRIPTION: Work exactly like EXPIRE but the timeout of the key is given in milliseconds " +
+               "instead of seconds.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of TTL.
+     * @return The help message of TTL.
+     */
+    public String getHelpTTL() {
+        String res = "";
+        res += "TTL key" + "\n\n"
+
+            +  "DESCRIPTION: Return the remaining time to live of a key that has a timeout, in seconds. " +
+               "Return -1 if the key exists but has no timeout, -2 if the key does not exist.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of PTTL.
+     * @return The help message of PTTL.
+     */
+    public String getHelpPTTL() {
+        String res = "";
+        res += "PTTL key" + "\n\n"
+
+            +  "DESCRIPTION: Work exactly like TTL but the remaining time to live of the key is returned in " +
+               "milliseconds instead of seconds.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of PERSIST.
+     * @return The help message of PERSIST.
+     */
+    public String getHelpPersist() {
+        String res = "";
+        res += "PERSIST key" + "\n\n"
+
+            +  "DESCRIPTION: Remove the timeout of the key, so that it does not expire anymore. " +
+               "Return OK if the timeout has been removed, NOT OK if the key does not exist or has no timeout.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BLMOVE.
+     * @return The help message of BLMOVE.
+     */
+    public String getHelpBLMove() {
+        String res = "";
+        res += "BLMOVE source destination LEFT|RIGHT LEFT|RIGHT timeout" + "\n\n"
+
+            +  "DESCRIPTION: Atomically remove the element at the left or right end of the source list and add it at " +
+               "the left or right end of the destination list, blocking until an element is pushed to the source " +
+               "list if it is empty. The left end is the one of LPUSH and LPOP, the right end the one of RPUSH and " +
+               "RPOP." + "\n\n"
+
+            +  "The timeout is in seconds and can be a decimal number, 0 to block forever. The moved element is " +
+               "returned, or the special value 'nil' if the timeout elapsed.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BLPOP.
+     * @return The help message of BLPOP.
+     */
+    public String getHelpBLPop() {
+        String res = "";
+        res += "BLPOP key [key ...] timeout" + "\n\n"
+
+            +  "DESCRIPTION: Blocking version of LPOP (BLPOP) and RPOP (BRPOP). Pop an element from the first " +
+               "non-empty list among the given keys, checked in order. If they are all empty, block until an " +
+               "element is pushed to one of them, the clients blocked for the longest being served first." + "\n\n"
+
+            +  "The timeout is in seconds and can be a decimal number, 0 to block forever. The key and the popped " +
+               "element are returned, or the special value 'nil' if the timeout elapsed.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BRPOP.
+     * @return The help message of BRPOP.
+     */
+    public String getHelpBRPop() {
+        String res = "";
+        res += "BRPOP key [key ...] timeout" + "\n\n"
+
+            +  "DESCRIPTION: Blocking version of LPOP (BLPOP) and RPOP (BRPOP). Pop an element from the first " +
+               "non-empty list among the given keys, checked in order. If they are all empty, block until an " +
+               "element is pushed to one of them, the clients blocked for the longest being served first." + "\n\n"
+
+            +  "The timeout is in seconds and can be a decimal number, 0 to block forever. The key and the popped " +
+               "element are returned, or the special value 'nil' if the timeout elapsed.";
+
+        return res;
+    }
+
     /**
      * Get the help message of LINDEX.
      * @return The help message of LINDEX.
@@ -399,6 +619,25 @@ public class RequestHelp extends Request {
         return res;
     }
 
+    /**
+     * Get the help message of LMOVE.
+     * @return The help message of LMOVE.
+     */
+    public String getHelpLMove() {
+        String res = "";
+        res += "LMOVE source destination LEFT|RIGHT LEFT|RIGHT" + "\n\n"
+
+            +  "DESCRIPTION: Atomically remove the element at the left or right end of the source list and add it at " +
+               "the left or right end of the destination list. The left end is the one of LPUSH and LPOP, the right " +
+               "end the one of RPUSH and RPOP. The destination list is created if it does not exist, and can be the " +
+               "source list itself to rotate it." + "\n\n"
+
+            +  "The moved element is returned. If the source list is empty or does not exist the special value " +
+               "'nil' is returned and no operation is performed.";
+
+        return res;
+    }
+
     /**
      * Get the help message of LPOP.
      * @return The help message of LPOP.
@@ -422,11 +661,15 @@ public class RequestHelp extends Request {
      */
     public String getHelpLPush() {
         String res = "";
-        res += "LPUSH key string" + "\n\n"
+        res += "LPUSH key string [string ...] [MAXLEN length]" + "\n\n"
+
+            +  "DESCRIPTION: Add the string values, in order, to the head (RPUSH) or tail (LPUSH) of the list stored " +
+               "at key, and return the number of values added. If the key does not exist an empty list is created " +
+               "just before the append operation. If the key exists but is not a List an error is returned." + "\n\n"
 
-            +  "DESCRIPTION: Add the string value to the head (RPUSH) or tail (LPUSH) of the list stored at key. " +
-               "If the key does not exist an empty list is created just before the append operation. " +
-               "If the key exists but is not a List an error is returned.";
+            +  "MAXLEN caps the list: the oldest elements, at the other end, are dropped to keep at most length of " +
+               "them. A list created with MAXLEN is a ring, where each push with the same length overwrites the " +
+               "oldest element in place, which is cheaper than a push followed by an LTRIM.";
 
         return res;
     }
@@ -521,17 +764,39 @@ public class RequestHelp extends Request {
         return res;
     }
 
+    /**
+     * Get the help message of RPOPLPUSH.
+     * @return The help message of RPOPLPUSH.
+     */
+    public String getHelpRPopLPush() {
+        String res = "";
+        res += "RPOPLPUSH source destination" + "\n\n"
+
+            +  "DESCRIPTION: Atomically remove the last element (RPOP) of the source list and add it to the head " +
+               "(LPUSH) of the destination list, like LMOVE source destination RIGHT LEFT. Useful to move an item " +
+               "from a pending queue to a processing queue without ever losing it." + "\n\n"
+
+            +  "The moved element is returned. If the source list is empty or does not exist the special value " +
+               "'nil' is returned and no operation is performed.";
+
+        return res;
+    }
+
     /**
      * Get the help message of RPUSH.
      * @return The help message of RPUSH.
      */
     public String getHelpRPush() {
         String res = "";
-        res += "RPUSH key string" + "\n\n"
+        res += "RPUSH key string [string ...] [MAXLEN length]" + "\n\n"
+
+            +  "DESCRIPTION: Add the string values, in order, to the head (RPUSH) or tail (LPUSH) of the list stored " +
+               "at key, and return the number of values added. If the key does not exist an empty list is created " +
+               "just before the append operation. If the key exists but is not a List an error is returned." + "\n\n"
 
-            +  "DESCRIPTION: Add the string value to the head (RPUSH) or tail (LPUSH) of the list stored at key. " +
-               "If the key does not exist an empty list is created just before the append operation. " +
-               "If the key exists but is not a List an error is returned.";
+            +  "MAXLEN caps the list: the oldest elements, at the other end, are dropped to keep at most length of " +
+               "them. A list created with MAXLEN is a ring, where each push with the same length overwrites the " +
+               "oldest element in place, which is cheaper than a push followed by an LTRIM.";
 
         return res;
     }
@@ -542,11 +807,11 @@ public class RequestHelp extends Request {
      */
     public String getHelpSAdd() {
         String res = "";
-        res += "SADD key member" + "\n\n"
+        res += "SADD key member [member ...]" + "\n\n"
 
-            +  "DESCRIPTION: Add the specified member to the set value stored at key. If member is already a member " +
-               "of the set no operation is performed. If key does not exist a new set with the specified member as " +
-               "sole member is created. If the key exists but does not hold a set value an error is returned.";
+            +  "DESCRIPTION: Add the specified members to the set value stored at key, and return the number of " +
+               "members added. The members already in the set are ignored. If key does not exist a new set with the " +
+               "specified members is created. If the key exists but does not hold a set value an error is returned.";
 
         return res;
     }
@@ -571,10 +836,11 @@ public class RequestHelp extends Request {
      */
     public String getHelpSRem() {
         String res = "";
-        res += "SREM key member" + "\n\n"
+        res += "SREM key member [member ...]" + "\n\n"
 
-            +  "DESCRIPTION: Remove the specified member from the set value stored at key. If member was not " +
-               "a member of the set no operation is performed. If key does not hold a set value an error is returned.";
+            +  "DESCRIPTION: Remove the specified members from the set value stored at key, and return the number " +
+               "of members removed. The members that are not in the set are ignored. If key does not hold a set " +
+               "value an error is returned.";
 
         return res;
     }
@@ -643,11 +909,14 @@ public class RequestHelp extends Request {
      */
     public String getHelpSPop() {
         String res = "";
-        res += "SPOP key" + "\n\n"
+        res += "SPOP key [count]" + "\n\n"
 
             +  "DESCRIPTION: Remove a random element from a Set returning it as return value. If the Set is empty " +
                "or the key does not exist or the key is not a set, a nil object is returned." + "\n\n"
 
+            +  "With a count, remove and return up to count distinct random elements. Each element is picked in " +
+               "constant time, whatever the size of the Set." + "\n\n"
+
             +  "The SRANDMEMBER command does a similar work but the returned element is not removed from the Set.";
 
         return res;
@@ -659,11 +928,14 @@ public class RequestHelp extends Request {
      */
     public String getHelpSRandMember() {
         String res = "";
-        res += "SRANDMEMBER key" + "\n\n"
+        res += "SRANDMEMBER key [count]" + "\n\n"
 
             +  "DESCRIPTION: Return a random element from a Set, without removing the element. If the Set is empty " +
                "or the key does not exist or the key is not a set, a nil object is returned." + "\n\n"
 
+            +  "With a positive count, return up to count distinct random elements. With a negative count, return " +
+               "-count random elements, the same element possibly several times." + "\n\n"
+
             +  "The SPOP command does a similar work but the returned element is popped (removed) from the Set.";
 
         return res;
@@ -748,4 +1020,291 @@ public class RequestHelp extends Request {
 
         return res;
     }
+
+    /**
+     * Get the help message of ZADD.
+     * @return The help message of ZADD.
+     */
+    public String getHelpZAdd() {
+        String res = "";
+        res += "ZADD key score member [score member ...]" + "\n\n"
+
+            +  "DESCRIPTION: Add the specified members with their scores to the sorted set stored at key, and return " +
+               "the number of members added. The score of the members already in the sorted set is updated. If key " +
+               "does not exist a new sorted set with the specified members is created. If the key exists but does " +
+               "not hold a sorted set an error is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZCARD.
+     * @return The help message of ZCARD.
+     */
+    public String getHelpZCard() {
+        String res = "";
+        res += "ZCARD key" + "\n\n"
+
+            +  "DESCRIPTION: Return the sorted set cardinality (number of elements). If the key does not exist 0 is " +
+               "returned, like for empty sorted sets.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZSCORE.
+     * @return The help message of ZSCORE.
+     */
+    public String getHelpZScore() {
+        String res = "";
+        res += "ZSCORE key member" + "\n\n"
+
+            +  "DESCRIPTION: Return the score of member in the sorted set stored at key. If member is not in the " +
+               "sorted set, or key does not exist, nil is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZREM.
+     * @return The help message of ZREM.
+     */
+    public String getHelpZRem() {
+        String res = "";
+        res += "ZREM key member [member ...]" + "\n\n"
+
+            +  "DESCRIPTION: Remove the specified members from the sorted set stored at key, and return the number of " +
+               "members removed. Members that are not in the sorted set are ignored. If key does not hold a sorted " +
+               "set an error is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZRANK.
+     * @return The help message of ZRANK.
+     */
+    public String getHelpZRank() {
+        String res = "";
+        res += "ZRANK key member" + "\n\n"
+
+            +  "DESCRIPTION: Return the rank of member in the sorted set stored at key, with the scores ordered from " +
+               "low to high. The rank is 0-based, so the member with the lowest score has rank 0. If member is not " +
+               "in the sorted set, or key does not exist, nil is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZRANGE.
+     * @return The help message of ZRANGE.
+     */
+    public String getHelpZRange() {
+        String res = "";
+        res += "ZRANGE key start stop [WITHSCORES]" + "\n\n"
+
+            +  "DESCRIPTION: Return the specified range of members of the sorted set stored at key, ordered from the " +
+               "lowest to the highest score. Start and stop are 0-based ranks, both inclusive. They can be negative " +
+               "numbers indicating offsets from the end of the sorted set, -1 being the member with the highest " +
+               "score." + "\n\n"
+
+            +  "With WITHSCORES, the score of each member is returned after it.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of ZRANGEBYSCORE.
+     * @return The help message of ZRANGEBYSCORE.
+     */
+    public String getHelpZRangeByScore() {
+        String res = "";
+        res += "ZRANGEBYSCORE key min max [WITHSCORES] [LIMIT offset count]" + "\n\n"
+
+            +  "DESCRIPTION: Return all the members of the sorted set stored at key with a score between min and max, " +
+               "both inclusive, ordered from the lowest to the highest score. Prefix a bound with ( to exclude it, " +
+               "e.g (1 5, and use -inf and +inf to leave a side open." + "\n\n"
+
+            +  "With WITHSCORES, the score of each member is returned after it. With LIMIT, offset members of the " +
+               "range are skipped, then at most count members are returned (all of them if count is negative).";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HSET.
+     * @return The help message of HSET.
+     */
+    public String getHelpHSet() {
+        String res = "";
+        res += "HSET key field value [field value ...]" + "\n\n"
+
+            +  "DESCRIPTION: Set the specified fields to their values in the hash stored at key, and return the number of " +
+               "fields added. The values of the fields already in the hash are replaced. If key does not exist a new " +
+               "hash with the specified fields is created. If the key exists but does not hold a hash an error is " +
+               "returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HMSET.
+     * @return The help message of HMSET.
+     */
+    public String getHelpHMSet() {
+        String res = "";
+        res += "HMSET key field value [field value ...]" + "\n\n"
+
+            +  "DESCRIPTION: This command works exactly like HSET but returns OK instead of the number of fields added.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HGET.
+     * @return The help message of HGET.
+     */
+    public String getHelpHGet() {
+        String res = "";
+        res += "HGET key field" + "\n\n"
+
+            +  "DESCRIPTION: Return the value of field in the hash stored at key. If field is not in the hash, or key does " +
+               "not exist, nil is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HMGET.
+     * @return The help message of HMGET.
+     */
+    public String getHelpHMGet() {
+        String res = "";
+        res += "HMGET key field [field ...]" + "\n\n"
+
+            +  "DESCRIPTION: Return the values of the specified fields of the hash stored at key, in a single round-trip. " +
+               "For every field that is not in the hash, nil is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HINCRBY.
+     * @return The help message of HINCRBY.
+     */
+    public String getHelpHIncrBy() {
+        String res = "";
+        res += "HINCRBY key field increment" + "\n\n"
+
+            +  "DESCRIPTION: Increment the integer value of field in the hash stored at key by increment, and return the " +
+               "new value. If field is not in the hash it is set to 0 before the increment, and if key does not " +
+               "exist a new hash is created. The increment is atomic: concurrent increments of the same field are " +
+               "never lost.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HDEL.
+     * @return The help message of HDEL.
+     */
+    public String getHelpHDel() {
+        String res = "";
+        res += "HDEL key field [field ...]" + "\n\n"
+
+            +  "DESCRIPTION: Remove the specified fields from the hash stored at key, and return the number of fields " +
+               "removed. Fields that are not in the hash are ignored. If key does not hold a hash an error is " +
+               "returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of HLEN.
+     * @return The help message of HLEN.
+     */
+    public String getHelpHLen() {
+        String res = "";
+        res += "HLEN key" + "\n\n"
+
+            +  "DESCRIPTION: Return the number of fields of the hash stored at key. If the key does not exist 0 is " +
+               "returned, like for empty hashes.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of SETBIT.
+     * @return The help message of SETBIT.
+     */
+    public String getHelpSetBit() {
+        String res = "";
+        res += "SETBIT key offset value" + "\n\n"
+
+            +  "DESCRIPTION: Set or clear the bit at offset in the bitmap stored at key, and return its previous value. The " +
+               "bitmap grows to hold the bit if needed, the new bits being 0. The offset must be >= 0 and < 2^32, " +
+               "and the value 0 or 1. If key does not exist a new bitmap is created. If the key exists but does not " +
+               "hold a bitmap an error is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of GETBIT.
+     * @return The help message of GETBIT.
+     */
+    public String getHelpGetBit() {
+        String res = "";
+        res += "GETBIT key offset" + "\n\n"
+
+            +  "DESCRIPTION: Return the bit at offset in the bitmap stored at key. When offset is past the end of the bitmap, " +
+               "or key does not exist, 0 is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BITCOUNT.
+     * @return The help message of BITCOUNT.
+     */
+    public String getHelpBitCount() {
+        String res = "";
+        res += "BITCOUNT key [start end]" + "\n\n"
+
+            +  "DESCRIPTION: Count the bits set in the bitmap stored at key. start and end restrict the count to a range of " +
+               "bytes, both included, and can be negative to count from the end of the bitmap, -1 being its last " +
+               "byte. If key does not exist 0 is returned.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BITPOS.
+     * @return The help message of BITPOS.
+     */
+    public String getHelpBitPos() {
+        String res = "";
+        res += "BITPOS key bit [start end]" + "\n\n"
+
+            +  "DESCRIPTION: Return the offset of the first bit set to 1 or 0 in the bitmap stored at key, -1 if there is " +
+               "none. start and end restrict the search to a range of bytes, like in BITCOUNT. Without a range, the " +
+               "bits past the end of the bitmap are considered to be 0.";
+
+        return res;
+    }
+
+    /**
+     * Get the help message of BITOP.
+     * @return The help message of BITOP.
+     */
+    public String getHelpBitOp() {
+        String res = "";
+        res += "BITOP operation destkey key [key ...]" + "\n\n"
+
+            +  "DESCRIPTION: Combine the bitmaps stored at the keys with a bitwise AND, OR or XOR, or flip the bits of a " +
+               "single bitmap with NOT, store the result at destkey and return its length in bytes. The shorter " +
+               "bitmaps are padded with zeros, and missing keys are empty bitmaps.";
+
+        return res;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestBitCount extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 1;
+
+    /**
+     * The first byte of the range, null to count the whole bitmap.
+     */
+    private String start;
+
+    /**
+     * The last byte of the range, null to count the whole bitmap.
+     */
+    private String end;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"bitcount", "key"} or
+     *               {"bitcount", "key", "0", "-1"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestBitCount(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the first byte of the range.
+     * @return The first byte of the range, null to count the whole bitmap.
+     */
+    public String getStart() {
+        return start;
+    }
+
+    /**
+     * Get the last byte of the range.
+     * @return The last byte of the range, null to count the whole bitmap.
+     */
+    public String getEnd() {
+        return end;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the range if any.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() == nbExpectedTokens() + 2) {
+            start = tokens.get(2);
+            end = tokens.get(3);
+        } else if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (start != null) {
+            return "bitcount(\"" + key + "\", " + start + ", " + end + ")";
+        }
+        return "bitcount(\"" + key + "\")";
+    }
+}
@@ -0,0 +1,78 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.Request;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestBitOp extends Request {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The bitwise operation: AND, OR, XOR or NOT.
+     */
+    private String operation;
+
+    /**
+     * The dest key plus all the keys we want to combine, duplicates included since they change the result of XOR.
+     */
+    private String[] keys;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"bitop", "and", "keydst", "key", "key2", ...}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestBitOp(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the bitwise operation.
+     * @return The bitwise operation, as typed.
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get the dest key plus all the keys we want to combine.
+     * @return The dest key plus all the keys we want to combine.
+     */
+    public String[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Parse the tokens and retrieve the operation and the keys.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        operation = tokens.get(1);
+        keys = tokens.subList(2, tokens.size()).toArray(new String[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        String res = "bitop(" + operation;
+        for (String k : keys) {
+            res += ", \"" + k + "\"";
+        }
+        res += ")";
+        return res;
+    }
+}
@@ -0,0 +1,92 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestBitPos extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The bit to look for.
+     */
+    private String bit;
+
+    /**
+     * The first byte of the range, null to look in the whole bitmap.
+     */
+    private String start;
+
+    /**
+     * The last byte of the range, null to look in the whole bitmap.
+     */
+    private String end;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"bitpos", "key", "1"} or
+     *               {"bitpos", "key", "1", "0", "-1"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestBitPos(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the bit to look for.
+     * @return The bit to look for.
+     */
+    public String getBit() {
+        return bit;
+    }
+
+    /**
+     * Get the first byte of the range.
+     * @return The first byte of the range, null to look in the whole bitmap.
+     */
+    public String getStart() {
+        return start;
+    }
+
+    /**
+     * Get the last byte of the range.
+     * @return The last byte of the range, null to look in the whole bitmap.
+     */
+    public String getEnd() {
+        return end;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the bit and the range if any.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() == nbExpectedTokens() + 2) {
+            start = tokens.get(3);
+            end = tokens.get(4);
+        } else if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        bit = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (start != null) {
+            return "bitpos(\"" + key + "\", " + bit + ", " + start + ", " + end + ")";
+        }
+        return "bitpos(\"" + key + "\", " + bit + ")";
+    }
+}
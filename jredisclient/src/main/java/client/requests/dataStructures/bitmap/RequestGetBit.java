@@ -0,0 +1,59 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestGetBit extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The offset of the bit.
+     */
+    private String offset;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"getbit", "key", "7"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestGetBit(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the offset of the bit.
+     * @return The offset of the bit.
+     */
+    public String getOffset() {
+        return offset;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the offset.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        offset = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "getbit(\"" + key + "\", " + offset + ")";
+    }
+}
@@ -0,0 +1,73 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestSetBit extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The offset of the bit.
+     */
+    private String offset;
+
+    /**
+     * The new value of the bit.
+     */
+    private String value;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"setbit", "key", "7", "1"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestSetBit(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the offset of the bit.
+     * @return The offset of the bit.
+     */
+    public String getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the new value of the bit.
+     * @return The new value of the bit.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the offset and the value.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        offset = tokens.get(2);
+        value = tokens.get(3);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "setbit(\"" + key + "\", " + offset + ", " + value + ")";
+    }
+}
@@ -0,0 +1,59 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestHGet extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The field whose value we want.
+     */
+    private String field;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"hget", "key", "field"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestHGet(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the field whose value we want.
+     * @return The field whose value we want.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Parse the tokens and retrieve both the key and the field.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        field = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "hget(\"" + key + "\", " + field + ")";
+    }
+}
@@ -0,0 +1,73 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestHIncrBy extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The field we want to increment.
+     */
+    private String field;
+
+    /**
+     * The increment.
+     */
+    private String increment;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"hincrby", "key", "field", "increment"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestHIncrBy(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the field we want to increment.
+     * @return The field we want to increment.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Get the increment.
+     * @return The increment.
+     */
+    public String getIncrement() {
+        return increment;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the field and the increment.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        field = tokens.get(2);
+        increment = tokens.get(3);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "hincrby(\"" + key + "\", " + field + ", " + increment + ")";
+    }
+}
@@ -0,0 +1,59 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestHMGet extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The fields whose values we want.
+     */
+    private String[] fields;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"hmget", "key", "field", "field2", ...}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestHMGet(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the fields whose values we want.
+     * @return The fields whose values we want.
+     */
+    public String[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the fields.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        fields = tokens.subList(2, tokens.size()).toArray(new String[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "hmget(\"" + key + "\", " + String.join(", ", fields) + ")";
+    }
+}
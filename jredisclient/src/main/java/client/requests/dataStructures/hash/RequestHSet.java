@@ -0,0 +1,78 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestHSet extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The fields we want to set.
+     */
+    private String[] fields;
+
+    /**
+     * The values of the fields, in the same order.
+     */
+    private String[] values;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"hset", "key", "field", "value", "field2", "value2", ...}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request, or a field has no value.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestHSet(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the fields we want to set.
+     * @return The fields we want to set.
+     */
+    public String[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the values of the fields.
+     * @return The values of the fields, in the same order.
+     */
+    public String[] getValues() {
+        return values;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the pairs of field and value.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request, or a field has no value.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens() || (tokens.size() - 2) % 2 != 0) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        int n = (tokens.size() - 2) / 2;
+        fields = new String[n];
+        values = new String[n];
+        for (int i = 0; i < n; i++) {
+            fields[i] = tokens.get(2 + 2 * i);
+            values[i] = tokens.get(3 + 2 * i);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "hset(\"" + key + "\", " + String.join(", ", tokens.subList(2, tokens.size())) + ")";
+    }
+}
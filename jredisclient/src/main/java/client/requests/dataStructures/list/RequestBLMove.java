@@ -0,0 +1,102 @@
+package client.requests.dataStructures.list;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestBLMove extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 5;
+
+    /**
+     * The key of the destination list.
+     */
+    private String dstKey;
+
+    /**
+     * The end of the source list the element is taken from, LEFT or RIGHT.
+     */
+    private String wherefrom;
+
+    /**
+     * The end of the destination list the element is added to, LEFT or RIGHT.
+     */
+    private String whereto;
+
+    /**
+     * The maximum time to block, in seconds.
+     */
+    private String timeout;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"blmove", "srckey", "dstkey", "LEFT", "RIGHT",
+     *               "timeout"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestBLMove(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the key of the destination list.
+     * @return The key of the destination list.
+     */
+    public String getDstkey() {
+        return dstKey;
+    }
+
+    /**
+     * Get the end of the source list the element is taken from.
+     * @return LEFT or RIGHT, as typed.
+     */
+    public String getWherefrom() {
+        return wherefrom;
+    }
+
+    /**
+     * Get the end of the destination list the element is added to.
+     * @return LEFT or RIGHT, as typed.
+     */
+    public String getWhereto() {
+        return whereto;
+    }
+
+    /**
+     * Get the maximum time to block.
+     * @return The maximum time to block in seconds, 0 to block forever.
+     */
+    public String getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Parse the tokens and retrieve the keys, the ends and the timeout.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        dstKey = tokens.get(2);
+        wherefrom = tokens.get(3);
+        whereto = tokens.get(4);
+        timeout = tokens.get(5);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "blmove(\"" + key + "\", \"" + dstKey + "\", " + wherefrom + ", " + whereto + ", " + timeout + ")";
+    }
+}
@@ -0,0 +1,86 @@
+package client.requests.dataStructures.list;
+
+import client.requests.Request;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class RequestBRPop extends Request {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The keys holding the lists, in the order they are checked.
+     */
+    private String[] keys;
+
+    /**
+     * The maximum time to block, in seconds.
+     */
+    private String timeout;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"brpop", "key", "key2", ..., "timeout"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestBRPop(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the keys holding the lists.
+     * @return The keys holding the lists, in the order they are checked.
+     */
+    public String[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Get the maximum time to block.
+     * @return The maximum time to block in seconds, 0 to block forever.
+     */
+    public String getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Parse the tokens and retrieve the keys and the timeout.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+
+        /* sublist because we skip "brpop" and the timeout */
+        /* remove the duplicates, keeping the order */
+        List<String> tempKeys = tokens.subList(1, tokens.size() - 1).stream()
+                                                                    .distinct()
+                                                                    .collect(Collectors.toList());
+        keys = tempKeys.toArray(new String[0]);
+        timeout = tokens.get(tokens.size() - 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        String res = "brpop(";
+        for (String k : keys) {
+            res += "\"" + k + "\"" + ", ";
+        }
+        res += timeout + ")";
+        return res;
+    }
+}
@@ -13,14 +13,20 @@ public class RequestLPush extends RequestWithKey {
     private final int minNbArgs = 2;
 
     /**
-     * The string we want to push into the list.
+     * The strings we want to push into the list, in order.
      */
-    private String string;
+    private String[] strings;
+
+    /**
+     * The maximum length of the list, null if the list is not capped.
+     */
+    private String maxLength;
 
     /**
      * Constructor.
      *
-     * @param tokens The different words of the request, e.g {"lpush", "key", "string"}.
+     * @param tokens The different words of the request, e.g {"lpush", "key", "string", "string2", ...} or
+     *               {"lpush", "key", "string", ..., "maxlen", "100"}.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      * @throws NoTokensException     When no tokens are provided to the request.
      */
@@ -31,22 +37,38 @@ public class RequestLPush extends RequestWithKey {
     }
 
     /**
-     * Get the string we want to push into the list.
-     * @return The string we want to push into the list.
+     * Get the strings we want to push into the list.
+     * @return The strings we want to push into the list, in order.
      */
-    public String getString() {
-        return string;
+    public String[] getStrings() {
+        return strings;
     }
 
     /**
-     * Parse the tokens and retrieve both the key and the string.
+     * Get the maximum length of the list.
+     * @return The maximum length of the list, null if the list is not capped.
+     */
+    public String getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the strings and the maximum length if any.
+     * <p>
+     *     The request is capped when its two last tokens are MAXLEN and the length, after at least one string.
+     * </p>
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
     public void parse() throws InvalidNbArgException {
-        if (tokens.size() != nbExpectedTokens()) {
+        if (tokens.size() < nbExpectedTokens()) {
             throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
         }
-        string = tokens.get(2);
+        int end = tokens.size();
+        if (end >= nbExpectedTokens() + 2 && tokens.get(end - 2).equalsIgnoreCase("MAXLEN")) {
+            maxLength = tokens.get(end - 1);
+            end -= 2;
+        }
+        strings = tokens.subList(2, end).toArray(new String[0]);
     }
 
     /**
@@ -54,6 +76,10 @@ public class RequestLPush extends RequestWithKey {
      */
     @Override
     public String toString() {
-        return "lpush(\"" + key + "\", " + string + ")";
+        String res = "lpush(\"" + key + "\", " + String.join(", ", strings);
+        if (maxLength != null) {
+            res += ", MAXLEN, " + maxLength;
+        }
+        return res + ")";
     }
-}
\ No newline at end of file
+}
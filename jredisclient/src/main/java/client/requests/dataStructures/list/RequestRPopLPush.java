@@ -0,0 +1,59 @@
+package client.requests.dataStructures.list;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestRPopLPush extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The key of the destination list.
+     */
+    private String dstKey;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"rpoplpush", "srckey", "dstkey"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestRPopLPush(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the key of the destination list.
+     * @return The key of the destination list.
+     */
+    public String getDstkey() {
+        return dstKey;
+    }
+
+    /**
+     * Parse the tokens and retrieve both keys.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        dstKey = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "rpoplpush(\"" + key + "\", \"" + dstKey + "\")";
+    }
+}
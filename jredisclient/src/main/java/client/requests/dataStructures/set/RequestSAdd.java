@@ -13,14 +13,14 @@ public class RequestSAdd extends RequestWithKey {
     private final int minNbArgs = 2;
 
     /**
-     * The member we want to put into the set.
+     * The members we want to put into the set.
      */
-    private String member;
+    private String[] members;
 
     /**
      * Constructor.
      *
-     * @param tokens The different words of the request, e.g {"sadd", "key", "member"}.
+     * @param tokens The different words of the request, e.g {"sadd", "key", "member", "member2", ...}.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      * @throws NoTokensException     When no tokens are provided to the request.
      */
@@ -31,22 +31,22 @@ public class RequestSAdd extends RequestWithKey {
     }
 
     /**
-     * Get the member we want to put into the set.
-     * @return The member we want to put into the set.
+     * Get the members we want to put into the set.
+     * @return The members we want to put into the set.
      */
-    public String getMember() {
-        return member;
+    public String[] getMembers() {
+        return members;
     }
 
     /**
-     * Parse the tokens and retrieve both the key and the string.
+     * Parse the tokens and retrieve the key and the members.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
     public void parse() throws InvalidNbArgException {
-        if (tokens.size() != nbExpectedTokens()) {
+        if (tokens.size() < nbExpectedTokens()) {
             throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
         }
-        member = tokens.get(2);
+        members = tokens.subList(2, tokens.size()).toArray(new String[0]);
     }
 
     /**
@@ -54,6 +54,6 @@ public class RequestSAdd extends RequestWithKey {
      */
     @Override
     public String toString() {
-        return "sadd(\"" + key + "\", " + member + ")";
+        return "sadd(\"" + key + "\", " + String.join(", ", members) + ")";
     }
 }
@@ -13,10 +13,15 @@ public class RequestSPop extends RequestWithKey {
      */
     private final int minNbArgs = 1;
 
+    /**
+     * The number of members, null to get a single member.
+     */
+    private String count;
+
     /**
      * Constructor.
      *
-     * @param tokens The different words of the request, e.g {"spop", "key"}.
+     * @param tokens The different words of the request, e.g {"spop", "key"} or {"spop", "key", "10"}.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      * @throws NoTokensException     When no tokens are provided to the request.
      */
@@ -27,11 +32,21 @@ public class RequestSPop extends RequestWithKey {
     }
 
     /**
-     * Parse the tokens and retrieve the key.
+     * Get the number of members.
+     * @return The number of members, null to get a single member.
+     */
+    public String getCount() {
+        return count;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the count if any.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
     public void parse() throws InvalidNbArgException {
-        if (tokens.size() != nbExpectedTokens()) {
+        if (tokens.size() == nbExpectedTokens() + 1) {
+            count = tokens.get(2);
+        } else if (tokens.size() != nbExpectedTokens()) {
             throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
         }
     }
@@ -41,6 +56,9 @@ public class RequestSPop extends RequestWithKey {
      */
     @Override
     public String toString() {
+        if (count != null) {
+            return "spop(\"" + key + "\", " + count + ")";
+        }
         return "spop(\"" + key + "\")";
     }
 }
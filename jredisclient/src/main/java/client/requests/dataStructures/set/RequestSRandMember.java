@@ -12,10 +12,15 @@ public class RequestSRandMember extends RequestWithKey {
      */
     private final int minNbArgs = 1;
 
+    /**
+     * The number of members, null to get a single member.
+     */
+    private String count;
+
     /**
      * Constructor.
      *
-     * @param tokens The different words of the request, e.g {"srandmember", "key"}.
+     * @param tokens The different words of the request, e.g {"srandmember", "key"} or {"srandmember", "key", "10"}.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      * @throws NoTokensException     When no tokens are provided to the request.
      */
@@ -26,11 +31,21 @@ public class RequestSRandMember extends RequestWithKey {
     }
 
     /**
-     * Parse the tokens and retrieve the key.
+     * Get the number of members.
+     * @return The number of members, null to get a single member.
+     */
+    public String getCount() {
+        return count;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the count if any.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
     public void parse() throws InvalidNbArgException {
-        if (tokens.size() != nbExpectedTokens()) {
+        if (tokens.size() == nbExpectedTokens() + 1) {
+            count = tokens.get(2);
+        } else if (tokens.size() != nbExpectedTokens()) {
             throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
         }
     }
@@ -40,6 +55,9 @@ public class RequestSRandMember extends RequestWithKey {
      */
     @Override
     public String toString() {
+        if (count != null) {
+            return "srandmember(\"" + key + "\", " + count + ")";
+        }
         return "srandmember(\"" + key + "\")";
     }
 }
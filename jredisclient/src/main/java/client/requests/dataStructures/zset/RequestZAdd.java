@@ -0,0 +1,79 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestZAdd extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The scores of the members, in the same order.
+     */
+    private String[] scores;
+
+    /**
+     * The members we want to put into the sorted set.
+     */
+    private String[] members;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"zadd", "key", "score", "member", "score2", "member2",
+     *               ...}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request, or a member has no score.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestZAdd(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the scores of the members.
+     * @return The scores of the members, in the same order.
+     */
+    public String[] getScores() {
+        return scores;
+    }
+
+    /**
+     * Get the members we want to put into the sorted set.
+     * @return The members we want to put into the sorted set.
+     */
+    public String[] getMembers() {
+        return members;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the pairs of score and member.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request, or a member has no score.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens() || (tokens.size() - 2) % 2 != 0) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        int n = (tokens.size() - 2) / 2;
+        scores = new String[n];
+        members = new String[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = tokens.get(2 + 2 * i);
+            members[i] = tokens.get(3 + 2 * i);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "zadd(\"" + key + "\", " + String.join(", ", tokens.subList(2, tokens.size())) + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestZRange extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The rank of the first member of the range.
+     */
+    private String start;
+
+    /**
+     * The rank of the last member of the range.
+     */
+    private String stop;
+
+    /**
+     * The WITHSCORES option as typed, null to get the members only.
+     */
+    private String withScores;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"zrange", "key", "0", "-1"} or
+     *               {"zrange", "key", "0", "-1", "withscores"}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestZRange(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the rank of the first member of the range.
+     * @return The rank of the first member of the range.
+     */
+    public String getStart() {
+        return start;
+    }
+
+    /**
+     * Get the rank of the last member of the range.
+     * @return The rank of the last member of the range.
+     */
+    public String getStop() {
+        return stop;
+    }
+
+    /**
+     * Get the WITHSCORES option.
+     * @return The option as typed, null to get the members only.
+     */
+    public String getWithScores() {
+        return withScores;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the range and the option if any.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() == nbExpectedTokens() + 1) {
+            withScores = tokens.get(4);
+        } else if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        start = tokens.get(2);
+        stop = tokens.get(3);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (withScores != null) {
+            return "zrange(\"" + key + "\", " + start + ", " + stop + ", " + withScores + ")";
+        }
+        return "zrange(\"" + key + "\", " + start + ", " + stop + ")";
+    }
+}
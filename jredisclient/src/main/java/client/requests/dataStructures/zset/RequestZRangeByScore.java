@@ -0,0 +1,145 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestZRangeByScore extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 3;
+
+    /**
+     * The minimum score, e.g "1.5", "(1.5" to exclude it or "-inf".
+     */
+    private String min;
+
+    /**
+     * The maximum score, e.g "10", "(10" to exclude it or "+inf".
+     */
+    private String max;
+
+    /**
+     * The WITHSCORES option as typed, null to get the members only.
+     */
+    private String withScores;
+
+    /**
+     * The LIMIT option as typed, null to get the whole range.
+     */
+    private String limit;
+
+    /**
+     * The number of members of the range to skip, null without LIMIT.
+     */
+    private String offset;
+
+    /**
+     * The maximum number of members to get, null without LIMIT.
+     */
+    private String count;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"zrangebyscore", "key", "min", "max"} or
+     *               {"zrangebyscore", "key", "min", "max", "withscores", "limit", "offset", "count"}, each option
+     *               being optional.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestZRangeByScore(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the minimum score.
+     * @return The minimum score, as typed.
+     */
+    public String getMin() {
+        return min;
+    }
+
+    /**
+     * Get the maximum score.
+     * @return The maximum score, as typed.
+     */
+    public String getMax() {
+        return max;
+    }
+
+    /**
+     * Get the WITHSCORES option.
+     * @return The option as typed, null to get the members only.
+     */
+    public String getWithScores() {
+        return withScores;
+    }
+
+    /**
+     * Get the LIMIT option.
+     * @return The option as typed, null to get the whole range.
+     */
+    public String getLimit() {
+        return limit;
+    }
+
+    /**
+     * Get the number of members of the range to skip.
+     * @return The offset, null without LIMIT.
+     */
+    public String getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the maximum number of members to get.
+     * @return The count, null without LIMIT.
+     */
+    public String getCount() {
+        return count;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the range and the options if any.
+     * <p>
+     *     WITHSCORES comes right after the range, LIMIT offset count at the end.
+     * </p>
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        int options = tokens.size() - nbExpectedTokens();
+        if (options == 1 || options == 4) {
+            withScores = tokens.get(4);
+        } else if (options != 0 && options != 3) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        if (options >= 3) {
+            limit = tokens.get(tokens.size() - 3);
+            offset = tokens.get(tokens.size() - 2);
+            count = tokens.get(tokens.size() - 1);
+        }
+        min = tokens.get(2);
+        max = tokens.get(3);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        String res = "zrangebyscore(\"" + key + "\", " + min + ", " + max;
+        if (withScores != null) {
+            res += ", " + withScores;
+        }
+        if (limit != null) {
+            res += ", " + limit + ", " + offset + ", " + count;
+        }
+        return res + ")";
+    }
+}
@@ -0,0 +1,59 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestZRem extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The members we want to remove from the sorted set.
+     */
+    private String[] members;
+
+    /**
+     * Constructor.
+     *
+     * @param tokens The different words of the request, e.g {"zrem", "key", "member", "member2", ...}.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     * @throws NoTokensException     When no tokens are provided to the request.
+     */
+    public RequestZRem(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the members we want to remove from the sorted set.
+     * @return The members we want to remove from the sorted set.
+     */
+    public String[] getMembers() {
+        return members;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key and the members.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() < nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        members = tokens.subList(2, tokens.size()).toArray(new String[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "zrem(\"" + key + "\", " + String.join(", ", members) + ")";
+    }
+}
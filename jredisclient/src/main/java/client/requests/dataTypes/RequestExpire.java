@@ -0,0 +1,58 @@
+package client.requests.dataTypes;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestExpire extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The timeout of the key in seconds.
+     */
+    private String seconds;
+
+    /**
+     * Constructor.
+     * @param tokens The different words of the request, e.g {"expire", "key", "10"}.
+     * @throws NoTokensException When no tokens are provided to the request.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public RequestExpire(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the timeout of the key in seconds.
+     * @return The timeout of the key in seconds.
+     */
+    public String getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Parse the tokens and retrieve both the key and the seconds.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        seconds = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "expire(\"" + key + "\", " + seconds + ")";
+    }
+}
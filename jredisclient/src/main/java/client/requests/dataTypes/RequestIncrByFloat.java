@@ -0,0 +1,58 @@
+package client.requests.dataTypes;
+
+import client.requests.RequestWithKey;
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+
+import java.util.ArrayList;
+
+public class RequestIncrByFloat extends RequestWithKey {
+    /**
+     * The minimum number of arguments required to properly construct the request.
+     */
+    private final int minNbArgs = 2;
+
+    /**
+     * The float we're going to increment the key by.
+     */
+    private String increment;
+
+    /**
+     * Constructor.
+     * @param tokens The different words of the request, e.g {"incrbyfloat", "key", "0.5"}.
+     * @throws NoTokensException When no tokens are provided to the request.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public RequestIncrByFloat(ArrayList<String> tokens) throws InvalidNbArgException, NoTokensException {
+        super(tokens);
+        setNbArgs(minNbArgs);
+        parse();
+    }
+
+    /**
+     * Get the float we're going to increment the key by.
+     * @return The float we're going to increment the key by.
+     */
+    public String getIncrement() {
+        return increment;
+    }
+
+    /**
+     * Parse the tokens and retrieve both the key and the increment.
+     * @throws InvalidNbArgException When not enough arguments are provided to the request.
+     */
+    public void parse() throws InvalidNbArgException {
+        if (tokens.size() != nbExpectedTokens()) {
+            throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
+        }
+        increment = tokens.get(2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "incrbyfloat(\"" + key + "\", " + increment + ")";
+    }
+}
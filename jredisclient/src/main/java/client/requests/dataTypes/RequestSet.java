@@ -17,9 +17,20 @@ public class RequestSet extends RequestWithKey {
      */
     private Object o;
 
+    /**
+     * The unit of the timeout (EX for seconds, PX for milliseconds), null if the key does not expire.
+     */
+    private String timeoutUnit;
+
+    /**
+     * The timeout of the key, null if the key does not expire.
+     */
+    private String timeout;
+
     /**
      * Constructor.
-     * @param tokens The different words of the request, e.g {"set", "key", "value"}.
+     * @param tokens The different words of the request, e.g {"set", "key", "value"} or
+     *               {"set", "key", "value", "ex", "10"}.
      * @throws NoTokensException When no tokens are provided to the request.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
@@ -38,11 +49,30 @@ public class RequestSet extends RequestWithKey {
     }
 
     /**
-     * Parse the tokens and retrieve both the key and the value.
+     * Get the unit of the timeout.
+     * @return The unit of the timeout (EX or PX, as typed), null if the key does not expire.
+     */
+    public String getTimeoutUnit() {
+        return timeoutUnit;
+    }
+
+    /**
+     * Get the timeout of the key.
+     * @return The timeout of the key, null if the key does not expire.
+     */
+    public String getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Parse the tokens and retrieve the key, the value and the timeout if any.
      * @throws InvalidNbArgException When not enough arguments are provided to the request.
      */
     public void parse() throws InvalidNbArgException {
-        if (tokens.size() != nbExpectedTokens()) {
+        if (tokens.size() == nbExpectedTokens() + 2) {
+            timeoutUnit = tokens.get(3);
+            timeout = tokens.get(4);
+        } else if (tokens.size() != nbExpectedTokens()) {
             throw new InvalidNbArgException(tokens.size() - 1, minNbArgs);
         }
         o = tokens.get(2);
@@ -53,6 +83,9 @@ public class RequestSet extends RequestWithKey {
      */
     @Override
     public String toString() {
+        if (timeout != null) {
+            return "set(\"" + key + "\", " + o + ", " + timeoutUnit + ", " + timeout + ")";
+        }
         return "set(\"" + key + "\", " + o + ")";
     }
 }
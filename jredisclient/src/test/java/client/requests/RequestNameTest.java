@@ -23,6 +23,7 @@ public class RequestNameTest {
                 "QUIT",
                 "EXIT",
                 "SET_SERVER",
+                "INFO",
                 "GET",
                 "SET",
                 "DEL",
@@ -59,6 +60,11 @@ public class RequestNameTest {
         assertEquals("SET_SERVER", r.getSetServerCmd());
     }
 
+    @Test
+    public void getInfoCmd() throws Exception {
+        assertEquals("INFO", r.getInfoCmd());
+    }
+
     @Test
     public void getGetCmd() throws Exception {
         assertEquals("GET", r.getGetCmd());
@@ -94,8 +100,38 @@ public class RequestNameTest {
         assertEquals("INCRBY", r.getIncrByCmd());
     }
 
+    @Test
+    public void getIncrByFloatCmd() throws Exception {
+        assertEquals("INCRBYFLOAT", r.getIncrByFloatCmd());
+    }
+
     @Test
     public void getDelCmd() throws Exception {
         assertEquals("DEL", r.getDelCmd());
     }
+
+    @Test
+    public void getExpireCmd() throws Exception {
+        assertEquals("EXPIRE", r.getExpireCmd());
+    }
+
+    @Test
+    public void getPExpireCmd() throws Exception {
+        assertEquals("PEXPIRE", r.getPExpireCmd());
+    }
+
+    @Test
+    public void getTTLCmd() throws Exception {
+        assertEquals("TTL", r.getTTLCmd());
+    }
+
+    @Test
+    public void getPTTLCmd() throws Exception {
+        assertEquals("PTTL", r.getPTTLCmd());
+    }
+
+    @Test
+    public void getPersistCmd() throws Exception {
+        assertEquals("PERSIST", r.getPersistCmd());
+    }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package client.requests;
 
 import client.requests.client.RequestClientTestSuite;
+import client.requests.dataStructures.bitmap.RequestDataStructuresBitmapTestSuite;
+import client.requests.dataStructures.hash.RequestDataStructuresHashTestSuite;
 import client.requests.dataStructures.list.RequestDataStructuresListTestSuite;
 import client.requests.dataStructures.set.RequestDataStructuresSetTestSuite;
+import client.requests.dataStructures.zset.RequestDataStructuresZSetTestSuite;
 import client.requests.dataTypes.RequestDataTypesTestSuite;
 import client.requests.exceptions.ClientExceptionsTestSuite;
+import client.requests.server.RequestServerTestSuite;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -13,9 +17,13 @@ import org.junit.runners.Suite;
         RequestTest.class,
         RequestWithKeyTest.class,
         RequestClientTestSuite.class,
+        RequestServerTestSuite.class,
         RequestDataTypesTestSuite.class,
         RequestDataStructuresListTestSuite.class,
         RequestDataStructuresSetTestSuite.class,
+        RequestDataStructuresZSetTestSuite.class,
+        RequestDataStructuresHashTestSuite.class,
+        RequestDataStructuresBitmapTestSuite.class,
         ClientExceptionsTestSuite.class,
         RequestNameTest.class
 })
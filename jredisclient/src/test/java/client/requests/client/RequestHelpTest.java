@@ -174,9 +174,10 @@ public class RequestHelpTest {
 
     @Test
     public void testGetHelpSet() throws Exception {
-        String expected =  "SET key value" + "\n\n"
+        String expected =  "SET key value [EX seconds | PX milliseconds]" + "\n\n"
                         +  "DESCRIPTION: Set key to hold the value. If key already holds a value, it is overwritten, " +
-                           "regardless of its type.";
+                           "regardless of its type, and its timeout is cleared." + "\n\n"
+                        +  "EX and PX set a timeout on the key, in seconds or milliseconds, like EXPIRE and PEXPIRE.";
         assertEquals(expected, r.getHelpSet());
     }
 
@@ -224,11 +225,20 @@ public class RequestHelpTest {
         assertEquals(expected, r.getHelpIncrBy());
     }
 
+    @Test
+    public void testGetHelpIncrByFloat() throws Exception {
+        String expected = "INCRBYFLOAT key increment" + "\n\n"
+                        + "DESCRIPTION: Increment the number stored at key by a floating point increment (which can be " +
+                          "negative). If the key does not exist or contains a value of a wrong type, set the key to the value " +
+                          "of \"0\" before to perform the operation. An error is returned if the result is not a finite number.";
+        assertEquals(expected, r.getHelpIncrByFloat());
+    }
+
     @Test
     public void testGetHelpType() throws Exception {
         String expected = "TYPE key" + "\n\n"
                         + "Return the type of the value stored at key in form of a string. The type can be one of \"none\", " +
-                          "\"string\", \"list\", \"set\". \"none\" is returned if the key does not exist.";
+                          "\"string\", \"integer\", \"float\", \"list\", \"set\". \"none\" is returned if the key does not exist.";
         assertEquals(expected, r.getHelpType());
     }
 
@@ -240,6 +250,47 @@ public class RequestHelpTest {
         assertEquals(expected, r.getHelpDel());
     }
 
+    @Test
+    public void testGetHelpExpire() throws Exception {
+        String expected = "EXPIRE key seconds" + "\n\n"
+                        + "DESCRIPTION: Set a timeout on key, after which the key is automatically deleted. " +
+                          "A timeout <= 0 deletes the key right away. The timeout is cleared when the key is overwritten " +
+                          "(SET, DEL), but not when its value is modified in place (LPUSH, SADD, ...).";
+        assertEquals(expected, r.getHelpExpire());
+    }
+
+    @Test
+    public void testGetHelpPExpire() throws Exception {
+        String expected = "PEXPIRE key milliseconds" + "\n\n"
+                        + "DESCRIPTION: Work exactly like EXPIRE but the timeout of the key is given in milliseconds " +
+                          "instead of seconds.";
+        assertEquals(expected, r.getHelpPExpire());
+    }
+
+    @Test
+    public void testGetHelpTTL() throws Exception {
+        String expected = "TTL key" + "\n\n"
+                        + "DESCRIPTION: Return the remaining time to live of a key that has a timeout, in seconds. " +
+                          "Return -1 if the key exists but has no timeout, -2 if the key does not exist.";
+        assertEquals(expected, r.getHelpTTL());
+    }
+
+    @Test
+    public void testGetHelpPTTL() throws Exception {
+        String expected = "PTTL key" + "\n\n"
+                        + "DESCRIPTION: Work exactly like TTL but the remaining time to live of the key is returned in " +
+                          "milliseconds instead of seconds.";
+        assertEquals(expected, r.getHelpPTTL());
+    }
+
+    @Test
+    public void testGetHelpPersist() throws Exception {
+        String expected = "PERSIST key" + "\n\n"
+                        + "DESCRIPTION: Remove the timeout of the key, so that it does not expire anymore. " +
+                          "Return OK if the timeout has been removed, NOT OK if the key does not exist or has no timeout.";
+        assertEquals(expected, r.getHelpPersist());
+    }
+
     @Test
     public void testGetHelp() throws Exception {
         /* ugly code ahead */
@@ -330,6 +381,24 @@ public class RequestHelpTest {
         assert r.getMessage().contains("DEL") && !r.getMessage().contains("I don't recognize");
     }
 
+    @Test
+    public void testGetMessageWithBLMove() throws Exception {
+        createRequest(new String[]{"help", "BLMOVE"});
+        assert r.getMessage().contains("BLMOVE") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithBLPop() throws Exception {
+        createRequest(new String[]{"help", "BLPOP"});
+        assert r.getMessage().contains("BLPOP") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithBRPop() throws Exception {
+        createRequest(new String[]{"help", "BRPOP"});
+        assert r.getMessage().contains("BRPOP") && !r.getMessage().contains("I don't recognize");
+    }
+
     @Test
     public void testGetMessageWithLIndex() throws Exception {
         createRequest(new String[]{"help", "LINDEX"});
@@ -342,6 +411,12 @@ public class RequestHelpTest {
         assert r.getMessage().contains("LLEN") && !r.getMessage().contains("I don't recognize");
     }
 
+    @Test
+    public void testGetMessageWithLMove() throws Exception {
+        createRequest(new String[]{"help", "LMOVE"});
+        assert r.getMessage().contains("LMOVE") && !r.getMessage().contains("I don't recognize");
+    }
+
     @Test
     public void testGetMessageWithLPop() throws Exception {
         createRequest(new String[]{"help", "LPOP"});
@@ -384,6 +459,12 @@ public class RequestHelpTest {
         assert r.getMessage().contains("RPOP") && !r.getMessage().contains("I don't recognize");
     }
 
+    @Test
+    public void testGetMessageWithRPopLPush() throws Exception {
+        createRequest(new String[]{"help", "RPOPLPUSH"});
+        assert r.getMessage().contains("RPOPLPUSH") && !r.getMessage().contains("I don't recognize");
+    }
+
     @Test
     public void testGetMessageWithRPush() throws Exception {
         createRequest(new String[]{"help", "RPUSH"});
@@ -474,6 +555,126 @@ public class RequestHelpTest {
         assert r.getMessage().contains("SDIFFSTORE") && !r.getMessage().contains("I don't recognize");
     }
 
+    @Test
+    public void testGetMessageWithZAdd() throws Exception {
+        createRequest(new String[]{"help", "ZADD"});
+        assert r.getMessage().contains("ZADD") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZCard() throws Exception {
+        createRequest(new String[]{"help", "ZCARD"});
+        assert r.getMessage().contains("ZCARD") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZScore() throws Exception {
+        createRequest(new String[]{"help", "ZSCORE"});
+        assert r.getMessage().contains("ZSCORE") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZRem() throws Exception {
+        createRequest(new String[]{"help", "ZREM"});
+        assert r.getMessage().contains("ZREM") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZRank() throws Exception {
+        createRequest(new String[]{"help", "ZRANK"});
+        assert r.getMessage().contains("ZRANK") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZRange() throws Exception {
+        createRequest(new String[]{"help", "ZRANGE"});
+        assert r.getMessage().contains("ZRANGE") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithZRangeByScore() throws Exception {
+        createRequest(new String[]{"help", "ZRANGEBYSCORE"});
+        assert r.getMessage().contains("ZRANGEBYSCORE") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHSet() throws Exception {
+        createRequest(new String[]{"help", "HSET"});
+        assert r.getMessage().contains("HSET") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHMSet() throws Exception {
+        createRequest(new String[]{"help", "HMSET"});
+        assert r.getMessage().contains("HMSET") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHGet() throws Exception {
+        createRequest(new String[]{"help", "HGET"});
+        assert r.getMessage().contains("HGET") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHMGet() throws Exception {
+        createRequest(new String[]{"help", "HMGET"});
+        assert r.getMessage().contains("HMGET") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHIncrBy() throws Exception {
+        createRequest(new String[]{"help", "HINCRBY"});
+        assert r.getMessage().contains("HINCRBY") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHDel() throws Exception {
+        createRequest(new String[]{"help", "HDEL"});
+        assert r.getMessage().contains("HDEL") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithHLen() throws Exception {
+        createRequest(new String[]{"help", "HLEN"});
+        assert r.getMessage().contains("HLEN") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithSetBit() throws Exception {
+        createRequest(new String[]{"help", "SETBIT"});
+        assert r.getMessage().contains("SETBIT") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithGetBit() throws Exception {
+        createRequest(new String[]{"help", "GETBIT"});
+        assert r.getMessage().contains("GETBIT") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithBitCount() throws Exception {
+        createRequest(new String[]{"help", "BITCOUNT"});
+        assert r.getMessage().contains("BITCOUNT") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithBitPos() throws Exception {
+        createRequest(new String[]{"help", "BITPOS"});
+        assert r.getMessage().contains("BITPOS") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithBitOp() throws Exception {
+        createRequest(new String[]{"help", "BITOP"});
+        assert r.getMessage().contains("BITOP") && !r.getMessage().contains("I don't recognize");
+    }
+
+    @Test
+    public void testGetMessageWithInfo() throws Exception {
+        createRequest(new String[]{"help", "INFO"});
+        assert r.getMessage().contains("INFO") && !r.getMessage().contains("I don't recognize");
+    }
+
     @Test
     public void testGetMessageWithMultipleCmd() throws Exception {
         createRequest(new String[]{"help", "help", "del", "get"});
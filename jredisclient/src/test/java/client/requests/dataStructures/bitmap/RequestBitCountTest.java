@@ -0,0 +1,75 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RequestBitCountTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBitCount r;
+    private int legitNbTokens = 2;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBitCount(tokens);
+    }
+
+    @Test
+    public void reqBitCountNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBitCountLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBitCountTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqBitCountKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqBitCountWholeBitmap() throws Exception {
+        createRequest(legitNbTokens);
+        assertNull(r.getStart());
+        assertNull(r.getEnd());
+    }
+
+    @Test
+    public void reqBitCountRange() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertEquals("token2", r.getStart());
+        assertEquals("token3", r.getEnd());
+        assertEquals("bitcount(\"token1\", token2, token3)", r.toString());
+    }
+
+    @Test
+    public void reqBitCountToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("bitcount(\"token1\")", r.toString());
+    }
+}
\ No newline at end of file
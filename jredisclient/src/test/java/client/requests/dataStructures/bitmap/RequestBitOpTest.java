@@ -0,0 +1,65 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestBitOpTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBitOp r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBitOp(tokens);
+    }
+
+    @Test
+    public void reqBitOpNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBitOpLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBitOpGetOperationAndKeys() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getOperation());
+        assertArrayEquals(new String[]{"token2", "token3"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBitOpKeepsDuplicatedKeys() throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        tokens.add("bitop");
+        tokens.add("xor");
+        tokens.add("dest");
+        tokens.add("key");
+        tokens.add("key");
+        r = new RequestBitOp(tokens);
+        assertArrayEquals(new String[]{"dest", "key", "key"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBitOpToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("bitop(token1, \"token2\", \"token3\")", r.toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RequestBitPosTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBitPos r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBitPos(tokens);
+    }
+
+    @Test
+    public void reqBitPosNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBitPosLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBitPosTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqBitPosKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqBitPosGetBit() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getBit());
+        assertNull(r.getStart());
+        assertNull(r.getEnd());
+    }
+
+    @Test
+    public void reqBitPosRange() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertEquals("token3", r.getStart());
+        assertEquals("token4", r.getEnd());
+        assertEquals("bitpos(\"token1\", token2, token3, token4)", r.toString());
+    }
+
+    @Test
+    public void reqBitPosToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("bitpos(\"token1\", token2)", r.toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package client.requests.dataStructures.bitmap;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+    RequestSetBitTest.class,
+    RequestGetBitTest.class,
+    RequestBitCountTest.class,
+    RequestBitPosTest.class,
+    RequestBitOpTest.class
+})
+public class RequestDataStructuresBitmapTestSuite {
+}
\ No newline at end of file
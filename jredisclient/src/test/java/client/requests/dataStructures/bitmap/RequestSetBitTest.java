@@ -0,0 +1,66 @@
+package client.requests.dataStructures.bitmap;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestSetBitTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestSetBit r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestSetBit(tokens);
+    }
+
+    @Test
+    public void reqSetBitNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqSetBitLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqSetBitTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqSetBitKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqSetBitGetOffsetAndValue() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getOffset());
+        assertEquals("token3", r.getValue());
+    }
+
+    @Test
+    public void reqSetBitToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("setbit(\"token1\", token2, token3)", r.toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package client.requests.dataStructures.hash;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+    RequestHSetTest.class,
+    RequestHMSetTest.class,
+    RequestHGetTest.class,
+    RequestHMGetTest.class,
+    RequestHIncrByTest.class,
+    RequestHDelTest.class,
+    RequestHLenTest.class
+})
+public class RequestDataStructuresHashTestSuite {
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestHDelTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestHDel r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestHDel(tokens);
+    }
+
+    @Test
+    public void reqHDelNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqHDelLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqHDelSeveralFields() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertArrayEquals(new String[]{"token2", "token3", "token4"}, r.getFields());
+        assertEquals("hdel(\"token1\", token2, token3, token4)", r.toString());
+    }
+
+    @Test
+    public void reqHDelKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqHDelGetField() throws Exception {
+        createRequest(legitNbTokens);
+        assertArrayEquals(new String[]{"token2"}, r.getFields());
+    }
+
+    @Test
+    public void reqHDelToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("hdel(\"token1\", token2)", r.toString());
+    }
+}
\ No newline at end of file
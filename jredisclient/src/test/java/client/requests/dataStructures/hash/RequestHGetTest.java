@@ -0,0 +1,65 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestHGetTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestHGet r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestHGet(tokens);
+    }
+
+    @Test
+    public void reqHGetNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqHGetLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqHGetTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqHGetKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqHGetGetField() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getField());
+    }
+
+    @Test
+    public void reqHGetToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("hget(\"token1\", token2)", r.toString());
+    }
+}
\ No newline at end of file
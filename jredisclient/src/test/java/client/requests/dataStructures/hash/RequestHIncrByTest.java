@@ -0,0 +1,71 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestHIncrByTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestHIncrBy r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestHIncrBy(tokens);
+    }
+
+    @Test
+    public void reqHIncrByNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqHIncrByLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqHIncrByTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqHIncrByKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqHIncrByGetField() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getField());
+    }
+
+    @Test
+    public void reqHIncrByGetIncrement() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token3", r.getIncrement());
+    }
+
+    @Test
+    public void reqHIncrByToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("hincrby(\"token1\", token2, token3)", r.toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package client.requests.dataStructures.hash;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestHMSetTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestHMSet r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestHMSet(tokens);
+    }
+
+    @Test
+    public void reqHMSetNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqHMSetLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqHMSetFieldWithoutValue() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqHMSetSeveralFields() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertArrayEquals(new String[]{"token2", "token4"}, r.getFields());
+        assertArrayEquals(new String[]{"token3", "token5"}, r.getValues());
+        assertEquals("hmset(\"token1\", token2, token3, token4, token5)", r.toString());
+    }
+
+    @Test
+    public void reqHMSetKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqHMSetGetFieldAndValue() throws Exception {
+        createRequest(legitNbTokens);
+        assertArrayEquals(new String[]{"token2"}, r.getFields());
+        assertArrayEquals(new String[]{"token3"}, r.getValues());
+    }
+
+    @Test
+    public void reqHMSetToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("hmset(\"token1\", token2, token3)", r.toString());
+    }
+}
@@ -0,0 +1,83 @@
+package client.requests.dataStructures.list;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestBLMoveTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBLMove r;
+    private int legitNbTokens = 6;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBLMove(tokens);
+    }
+
+    @Test
+    public void reqBLMoveNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBLMoveLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBLMoveTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqBLMoveKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqBLMoveDstkey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getDstkey());
+    }
+
+    @Test
+    public void reqBLMoveWherefrom() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token3", r.getWherefrom());
+    }
+
+    @Test
+    public void reqBLMoveWhereto() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token4", r.getWhereto());
+    }
+
+    @Test
+    public void reqBLMoveTimeout() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token5", r.getTimeout());
+    }
+
+    @Test
+    public void reqBLMoveToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("blmove(\"token1\", \"token2\", token3, token4, token5)", r.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package client.requests.dataStructures.list;
+
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestBLPopTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBLPop r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBLPop(tokens);
+    }
+
+    @Test
+    public void testParseZeroToken() throws Exception {
+        thrown.expect(NoTokensException.class);
+        createRequest(0);
+    }
+
+    @Test
+    public void reqBLPopNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBLPopLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBLPopKeys() throws Exception {
+        createRequest(5);
+        assertArrayEquals(new String[]{"token1", "token2", "token3"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBLPopDuplicatedKeys() throws Exception {
+        r = new RequestBLPop(new ArrayList<>(Arrays.asList("blpop", "key2", "key1", "key2", "0")));
+        assertArrayEquals(new String[]{"key2", "key1"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBLPopTimeout() throws Exception {
+        createRequest(5);
+        assertEquals("token4", r.getTimeout());
+    }
+
+    @Test
+    public void reqBLPopToString() throws Exception {
+        createRequest(4);
+        assertEquals("blpop(\"token1\", \"token2\", token3)", r.toString());
+    }
+}
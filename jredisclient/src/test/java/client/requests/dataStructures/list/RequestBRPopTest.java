@@ -0,0 +1,72 @@
+package client.requests.dataStructures.list;
+
+import client.requests.exceptions.InvalidNbArgException;
+import client.requests.exceptions.NoTokensException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestBRPopTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestBRPop r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestBRPop(tokens);
+    }
+
+    @Test
+    public void testParseZeroToken() throws Exception {
+        thrown.expect(NoTokensException.class);
+        createRequest(0);
+    }
+
+    @Test
+    public void reqBRPopNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqBRPopLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqBRPopKeys() throws Exception {
+        createRequest(5);
+        assertArrayEquals(new String[]{"token1", "token2", "token3"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBRPopDuplicatedKeys() throws Exception {
+        r = new RequestBRPop(new ArrayList<>(Arrays.asList("brpop", "key2", "key1", "key2", "0")));
+        assertArrayEquals(new String[]{"key2", "key1"}, r.getKeys());
+    }
+
+    @Test
+    public void reqBRPopTimeout() throws Exception {
+        createRequest(5);
+        assertEquals("token4", r.getTimeout());
+    }
+
+    @Test
+    public void reqBRPopToString() throws Exception {
+        createRequest(4);
+        assertEquals("brpop(\"token1\", \"token2\", token3)", r.toString());
+    }
+}
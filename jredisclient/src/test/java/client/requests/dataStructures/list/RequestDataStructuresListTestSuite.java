@@ -5,8 +5,12 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        RequestBLMoveTest.class,
+        RequestBLPopTest.class,
+        RequestBRPopTest.class,
         RequestLIndexTest.class,
         RequestLLenTest.class,
+        RequestLMoveTest.class,
         RequestLPopTest.class,
         RequestLPushTest.class,
         RequestLRangeTest.class,
@@ -14,6 +18,7 @@ import org.junit.runners.Suite;
         RequestLSetTest.class,
         RequestLTrimTest.class,
         RequestRPopTest.class,
+        RequestRPopLPushTest.class,
         RequestRPushTest.class
 })
 public class RequestDataStructuresListTestSuite {}
@@ -0,0 +1,77 @@
+package client.requests.dataStructures.list;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestLMoveTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestLMove r;
+    private int legitNbTokens = 5;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestLMove(tokens);
+    }
+
+    @Test
+    public void reqLMoveNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqLMoveLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqLMoveTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqLMoveKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqLMoveDstkey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getDstkey());
+    }
+
+    @Test
+    public void reqLMoveWherefrom() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token3", r.getWherefrom());
+    }
+
+    @Test
+    public void reqLMoveWhereto() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token4", r.getWhereto());
+    }
+
+    @Test
+    public void reqLMoveToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("lmove(\"token1\", \"token2\", token3, token4)", r.toString());
+    }
+}
@@ -6,8 +6,11 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class RequestLPushTest {
     @Rule
@@ -38,11 +41,11 @@ public class RequestLPushTest {
     }
 
     @Test
-    public void reqLPushTooManyToken() throws Exception {
-        thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
-                + ", expected " + (legitNbTokens - 1) + ")");
+    public void reqLPushSeveralStrings() throws Exception {
         createRequest(legitNbTokens + 1);
+        assertArrayEquals(new String[]{"token2", "token3"}, r.getStrings());
+        assertNull(r.getMaxLength());
+        assertEquals("lpush(\"token1\", token2, token3)", r.toString());
     }
 
     @Test
@@ -54,7 +57,7 @@ public class RequestLPushTest {
     @Test
     public void reqLPushString() throws Exception {
         createRequest(legitNbTokens);
-        assertEquals("token2", r.getString());
+        assertArrayEquals(new String[]{"token2"}, r.getStrings());
     }
 
     @Test
@@ -62,4 +65,26 @@ public class RequestLPushTest {
         createRequest(legitNbTokens);
         assertEquals("lpush(\"token1\", token2)", r.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reqLPushWithMaxLength() throws Exception {
+        r = new RequestLPush(new ArrayList<>(Arrays.asList("lpush", "key", "string", "MAXLEN", "10")));
+        assertArrayEquals(new String[]{"string"}, r.getStrings());
+        assertEquals("10", r.getMaxLength());
+        assertEquals("lpush(\"key\", string, MAXLEN, 10)", r.toString());
+    }
+
+    @Test
+    public void reqLPushSeveralStringsWithMaxLength() throws Exception {
+        r = new RequestLPush(new ArrayList<>(Arrays.asList("lpush", "key", "string", "string2", "maxlen", "10")));
+        assertArrayEquals(new String[]{"string", "string2"}, r.getStrings());
+        assertEquals("10", r.getMaxLength());
+    }
+
+    @Test
+    public void reqLPushMaxLengthAloneIsAString() throws Exception {
+        r = new RequestLPush(new ArrayList<>(Arrays.asList("lpush", "key", "maxlen", "10")));
+        assertArrayEquals(new String[]{"maxlen", "10"}, r.getStrings());
+        assertNull(r.getMaxLength());
+    }
+}
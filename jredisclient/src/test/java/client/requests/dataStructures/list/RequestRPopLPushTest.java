@@ -0,0 +1,65 @@
+package client.requests.dataStructures.list;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestRPopLPushTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestRPopLPush r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestRPopLPush(tokens);
+    }
+
+    @Test
+    public void reqRPopLPushNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqRPopLPushLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqRPopLPushTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqRPopLPushKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqRPopLPushDstkey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getDstkey());
+    }
+
+    @Test
+    public void reqRPopLPushToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("rpoplpush(\"token1\", \"token2\")", r.toString());
+    }
+}
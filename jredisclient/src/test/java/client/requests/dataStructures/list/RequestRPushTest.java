@@ -6,8 +6,11 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class RequestRPushTest {
     @Rule
@@ -38,11 +41,11 @@ public class RequestRPushTest {
     }
 
     @Test
-    public void reqRPushTooManyToken() throws Exception {
-        thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
-                + ", expected " + (legitNbTokens - 1) + ")");
+    public void reqRPushSeveralStrings() throws Exception {
         createRequest(legitNbTokens + 1);
+        assertArrayEquals(new String[]{"token2", "token3"}, r.getStrings());
+        assertNull(r.getMaxLength());
+        assertEquals("rpush(\"token1\", token2, token3)", r.toString());
     }
 
     @Test
@@ -54,7 +57,7 @@ public class RequestRPushTest {
     @Test
     public void reqRPushString() throws Exception {
         createRequest(legitNbTokens);
-        assertEquals("token2", r.getString());
+        assertArrayEquals(new String[]{"token2"}, r.getStrings());
     }
 
     @Test
@@ -62,4 +65,26 @@ public class RequestRPushTest {
         createRequest(legitNbTokens);
         assertEquals("rpush(\"token1\", token2)", r.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reqRPushWithMaxLength() throws Exception {
+        r = new RequestRPush(new ArrayList<>(Arrays.asList("rpush", "key", "string", "MAXLEN", "10")));
+        assertArrayEquals(new String[]{"string"}, r.getStrings());
+        assertEquals("10", r.getMaxLength());
+        assertEquals("rpush(\"key\", string, MAXLEN, 10)", r.toString());
+    }
+
+    @Test
+    public void reqRPushSeveralStringsWithMaxLength() throws Exception {
+        r = new RequestRPush(new ArrayList<>(Arrays.asList("rpush", "key", "string", "string2", "maxlen", "10")));
+        assertArrayEquals(new String[]{"string", "string2"}, r.getStrings());
+        assertEquals("10", r.getMaxLength());
+    }
+
+    @Test
+    public void reqRPushMaxLengthAloneIsAString() throws Exception {
+        r = new RequestRPush(new ArrayList<>(Arrays.asList("rpush", "key", "maxlen", "10")));
+        assertArrayEquals(new String[]{"maxlen", "10"}, r.getStrings());
+        assertNull(r.getMaxLength());
+    }
+}
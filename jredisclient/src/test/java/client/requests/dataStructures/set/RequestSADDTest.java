@@ -7,6 +7,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class RequestSADDTest {
@@ -38,11 +39,10 @@ public class RequestSADDTest {
     }
 
     @Test
-    public void reqSAddTooManyToken() throws Exception {
-        thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
-                + ", expected " + (legitNbTokens - 1) + ")");
-        createRequest(legitNbTokens + 1);
+    public void reqSAddSeveralMembers() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertArrayEquals(new String[]{"token2", "token3", "token4"}, r.getMembers());
+        assertEquals("sadd(\"token1\", token2, token3, token4)", r.toString());
     }
 
     @Test
@@ -54,7 +54,7 @@ public class RequestSADDTest {
     @Test
     public void reqSAddGetMember() throws Exception {
         createRequest(legitNbTokens);
-        assertEquals("token2", r.getMember());
+        assertArrayEquals(new String[]{"token2"}, r.getMembers());
     }
 
     @Test
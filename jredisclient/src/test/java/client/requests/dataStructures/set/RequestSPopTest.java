@@ -8,6 +8,7 @@ import org.junit.rules.ExpectedException;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class RequestSPopTest {
     @Rule
@@ -40,9 +41,22 @@ public class RequestSPopTest {
     @Test
     public void reqSPopTooManyToken() throws Exception {
         thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 1)
                 + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 2);
+    }
+
+    @Test
+    public void reqSPopWithCount() throws Exception {
         createRequest(legitNbTokens + 1);
+        assertEquals("token2", r.getCount());
+        assertEquals("spop(\"token1\", token2)", r.toString());
+    }
+
+    @Test
+    public void reqSPopWithoutCount() throws Exception {
+        createRequest(legitNbTokens);
+        assertNull(r.getCount());
     }
 
     @Test
@@ -8,6 +8,7 @@ import org.junit.rules.ExpectedException;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class RequestSRandMemberTest {
     @Rule
@@ -40,9 +41,22 @@ public class RequestSRandMemberTest {
     @Test
     public void reqSRandMemberTooManyToken() throws Exception {
         thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 1)
                 + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 2);
+    }
+
+    @Test
+    public void reqSRandMemberWithCount() throws Exception {
         createRequest(legitNbTokens + 1);
+        assertEquals("token2", r.getCount());
+        assertEquals("srandmember(\"token1\", token2)", r.toString());
+    }
+
+    @Test
+    public void reqSRandMemberWithoutCount() throws Exception {
+        createRequest(legitNbTokens);
+        assertNull(r.getCount());
     }
 
     @Test
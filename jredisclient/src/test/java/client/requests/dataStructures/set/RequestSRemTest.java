@@ -7,6 +7,7 @@ import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class RequestSRemTest {
@@ -38,11 +39,10 @@ public class RequestSRemTest {
     }
 
     @Test
-    public void reqSRemTooManyToken() throws Exception {
-        thrown.expect(InvalidNbArgException.class);
-        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
-                + ", expected " + (legitNbTokens - 1) + ")");
-        createRequest(legitNbTokens + 1);
+    public void reqSRemSeveralMembers() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertArrayEquals(new String[]{"token2", "token3", "token4"}, r.getMembers());
+        assertEquals("srem(\"token1\", token2, token3, token4)", r.toString());
     }
 
     @Test
@@ -54,7 +54,7 @@ public class RequestSRemTest {
     @Test
     public void reqSRemGetMember() throws Exception {
         createRequest(legitNbTokens);
-        assertEquals("token2", r.getMember());
+        assertArrayEquals(new String[]{"token2"}, r.getMembers());
     }
 
     @Test
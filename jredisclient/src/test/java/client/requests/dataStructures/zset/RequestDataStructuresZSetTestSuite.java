@@ -0,0 +1,17 @@
+package client.requests.dataStructures.zset;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+    RequestZAddTest.class,
+    RequestZCardTest.class,
+    RequestZScoreTest.class,
+    RequestZRemTest.class,
+    RequestZRankTest.class,
+    RequestZRangeTest.class,
+    RequestZRangeByScoreTest.class
+})
+public class RequestDataStructuresZSetTestSuite {
+}
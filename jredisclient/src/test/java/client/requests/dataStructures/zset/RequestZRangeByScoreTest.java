@@ -0,0 +1,104 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RequestZRangeByScoreTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestZRangeByScore r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestZRangeByScore(tokens);
+    }
+
+    @Test
+    public void reqZRangeByScoreNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqZRangeByScoreLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqZRangeByScoreIncompleteLimit() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 1)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 2);
+    }
+
+    @Test
+    public void reqZRangeByScoreTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 4)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 5);
+    }
+
+    @Test
+    public void reqZRangeByScoreKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqZRangeByScoreGetMinMax() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getMin());
+        assertEquals("token3", r.getMax());
+        assertNull(r.getWithScores());
+        assertNull(r.getLimit());
+    }
+
+    @Test
+    public void reqZRangeByScoreWithScores() throws Exception {
+        createRequest(legitNbTokens + 1);
+        assertEquals("token4", r.getWithScores());
+        assertNull(r.getLimit());
+        assertEquals("zrangebyscore(\"token1\", token2, token3, token4)", r.toString());
+    }
+
+    @Test
+    public void reqZRangeByScoreWithLimit() throws Exception {
+        createRequest(legitNbTokens + 3);
+        assertNull(r.getWithScores());
+        assertEquals("token4", r.getLimit());
+        assertEquals("token5", r.getOffset());
+        assertEquals("token6", r.getCount());
+        assertEquals("zrangebyscore(\"token1\", token2, token3, token4, token5, token6)", r.toString());
+    }
+
+    @Test
+    public void reqZRangeByScoreWithScoresAndLimit() throws Exception {
+        createRequest(legitNbTokens + 4);
+        assertEquals("token4", r.getWithScores());
+        assertEquals("token5", r.getLimit());
+        assertEquals("token6", r.getOffset());
+        assertEquals("token7", r.getCount());
+    }
+
+    @Test
+    public void reqZRangeByScoreToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("zrangebyscore(\"token1\", token2, token3)", r.toString());
+    }
+}
@@ -0,0 +1,75 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RequestZRangeTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestZRange r;
+    private int legitNbTokens = 4;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestZRange(tokens);
+    }
+
+    @Test
+    public void reqZRangeNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqZRangeLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqZRangeTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 1)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 2);
+    }
+
+    @Test
+    public void reqZRangeKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqZRangeGetStartStop() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getStart());
+        assertEquals("token3", r.getStop());
+        assertNull(r.getWithScores());
+    }
+
+    @Test
+    public void reqZRangeWithScores() throws Exception {
+        createRequest(legitNbTokens + 1);
+        assertEquals("token4", r.getWithScores());
+        assertEquals("zrange(\"token1\", token2, token3, token4)", r.toString());
+    }
+
+    @Test
+    public void reqZRangeToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("zrange(\"token1\", token2, token3)", r.toString());
+    }
+}
@@ -0,0 +1,65 @@
+package client.requests.dataStructures.zset;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RequestZRemTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestZRem r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestZRem(tokens);
+    }
+
+    @Test
+    public void reqZRemNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqZRemLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqZRemSeveralMembers() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertArrayEquals(new String[]{"token2", "token3", "token4"}, r.getMembers());
+        assertEquals("zrem(\"token1\", token2, token3, token4)", r.toString());
+    }
+
+    @Test
+    public void reqZRemKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqZRemGetMember() throws Exception {
+        createRequest(legitNbTokens);
+        assertArrayEquals(new String[]{"token2"}, r.getMembers());
+    }
+
+    @Test
+    public void reqZRemToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("zrem(\"token1\", token2)", r.toString());
+    }
+}
\ No newline at end of file
@@ -12,6 +12,12 @@ import org.junit.runners.Suite;
         RequestDecrByTest.class,
         RequestIncrTest.class,
         RequestIncrByTest.class,
-        RequestDelTest.class
+        RequestIncrByFloatTest.class,
+        RequestDelTest.class,
+        RequestExpireTest.class,
+        RequestPExpireTest.class,
+        RequestTTLTest.class,
+        RequestPTTLTest.class,
+        RequestPersistTest.class
 })
 public class RequestDataTypesTestSuite {}
@@ -0,0 +1,65 @@
+package client.requests.dataTypes;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestPExpireTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestPExpire r;
+    private int legitNbTokens = 3;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestPExpire(tokens);
+    }
+
+    @Test
+    public void reqPExpireNotEnoughToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens - 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens - 1);
+    }
+
+    @Test
+    public void reqPExpireLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqPExpireTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqPExpireKey() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token1", r.getKey());
+    }
+
+    @Test
+    public void reqPExpireMilliseconds() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("token2", r.getMilliseconds());
+    }
+
+    @Test
+    public void reqPExpireToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("pexpire(\"token1\", token2)", r.toString());
+    }
+}
\ No newline at end of file
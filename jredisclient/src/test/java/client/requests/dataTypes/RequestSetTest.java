@@ -8,6 +8,7 @@ import org.junit.rules.ExpectedException;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class RequestSetTest {
     @Rule
@@ -62,4 +63,33 @@ public class RequestSetTest {
         createRequest(legitNbTokens);
         assertEquals("set(\"token1\", token2)", r.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reqSetWithTimeout() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertEquals("token2", r.getObject());
+        assertEquals("token3", r.getTimeoutUnit());
+        assertEquals("token4", r.getTimeout());
+    }
+
+    @Test
+    public void reqSetWithoutTimeout() throws Exception {
+        createRequest(legitNbTokens);
+        assertNull(r.getTimeoutUnit());
+        assertNull(r.getTimeout());
+    }
+
+    @Test
+    public void reqSetWithTimeoutTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + (legitNbTokens + 2)
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 3);
+    }
+
+    @Test
+    public void reqSetWithTimeoutToString() throws Exception {
+        createRequest(legitNbTokens + 2);
+        assertEquals("set(\"token1\", token2, token3, token4)", r.toString());
+    }
+}
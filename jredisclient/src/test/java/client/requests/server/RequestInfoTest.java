@@ -0,0 +1,45 @@
+package client.requests.server;
+
+import client.requests.exceptions.InvalidNbArgException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestInfoTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RequestInfo r;
+    private int legitNbTokens = 1;
+
+    private void createRequest(int nbTokens) throws Exception {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (int i = 0; i < nbTokens; i++) {
+            tokens.add("token" + i);
+        }
+        r = new RequestInfo(tokens);
+    }
+
+    @Test
+    public void reqInfoLegitNbToken() throws Exception {
+        createRequest(legitNbTokens);
+    }
+
+    @Test
+    public void reqInfoTooManyToken() throws Exception {
+        thrown.expect(InvalidNbArgException.class);
+        thrown.expectMessage("(error) wrong number of arguments (given " + legitNbTokens
+                + ", expected " + (legitNbTokens - 1) + ")");
+        createRequest(legitNbTokens + 1);
+    }
+
+    @Test
+    public void reqInfoToString() throws Exception {
+        createRequest(legitNbTokens);
+        assertEquals("info()", r.toString());
+    }
+}
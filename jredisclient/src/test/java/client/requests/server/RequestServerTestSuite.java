@@ -0,0 +1,10 @@
+package client.requests.server;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+        RequestInfoTest.class
+})
+public class RequestServerTestSuite {}
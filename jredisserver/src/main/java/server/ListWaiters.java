@@ -0,0 +1,223 @@
+package server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The clients blocked on empty lists (BLPOP, BRPOP, BLMOVE), in a FIFO queue per key.
+ * <p>
+ *     A blocked client parks its RMI thread on a condition, holding no lock of the storage. The client pushing to a
+ *     key then takes the element on behalf of the oldest client waiting on that key and wakes it up with the element,
+ *     so that the element is never seen by the clients arriving later.
+ *
+ *     Thread-safe. The queues are guarded by a single lock, only taken while a client is blocked: signal() returns
+ *     at once otherwise.
+ * </p>
+ */
+final class ListWaiters {
+    /**
+     * A client blocked on one or more keys.
+     */
+    private static final class Waiter {
+        /**
+         * The keys the client is waiting on.
+         */
+        final String[] keys;
+
+        /**
+         * Takes an element from a key, returns null if the key has none.
+         */
+        final Function<String, Object> take;
+
+        /**
+         * Signaled once the client has been served.
+         */
+        final Condition served;
+
+        /**
+         * The key the element has been taken from, null until the client is served.
+         */
+        String key;
+
+        /**
+         * The element taken for the client.
+         */
+        Object element;
+
+        Waiter(String[] keys, Function<String, Object> take, Condition served) {
+            this.keys = keys;
+            this.take = take;
+            this.served = served;
+        }
+    }
+
+    /**
+     * Guards the queues and the waiters.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The waiters of each key, the oldest first. A key without waiters has no queue.
+     */
+    private final Map<String, ArrayDeque<Waiter>> queues = new HashMap<>();
+
+    /**
+     * The number of clients in await(), blocked or about to, so that signal() returns at once when there are none.
+     */
+    private final AtomicInteger nbWaiters = new AtomicInteger();
+
+    /**
+     * The number of clients in the queues. Guarded by the lock.
+     */
+    private int nbBlocked;
+
+    /**
+     * Take an element from the first key holding one, waiting for one to be pushed if they are all empty.
+     * <p>
+     *     The keys are tried in order. The clients already waiting on a key are served first, in case it has been filled
+     *     without signal(): its next elements are theirs, and the key is only tried once none of them is left.
+     * </p>
+     *
+     * @param keys The keys to take an element from.
+     * @param timeout The maximum time to wait in milliseconds, 0 to wait forever, < 0 not to wait.
+     * @param take Takes an element from a key, returns null if the key has none. Called with the lock held, by this
+     *             thread or by the thread pushing to the key.
+     * @return The key and the element taken from it, null if the timeout elapsed or the thread was interrupted.
+     */
+    ArrayList<Object> await(String[] keys, long timeout, Function<String, Object> take) {
+        // counted before trying the keys, so that a push seeing no waiter is always seen by the take below
+        nbWaiters.incrementAndGet();
+        lock.lock();
+        try {
+            for (String key : keys) {
+                if (serve(key)) {
+                    Object element = take.apply(key);
+                    if (element != null) {
+                        return result(key, element);
+                    }
+                }
+            }
+            if (timeout < 0L) {
+                return null;
+            }
+
+            Waiter w = new Waiter(keys, take, lock.newCondition());
+            for (String key : keys) {
+                queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(w);
+            }
+            nbBlocked++;
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            try {
+                while (w.key == null) {
+                    if (timeout == 0L) {
+                        w.served.await();
+                    } else if (nanos > 0L) {
+                        nanos = w.served.awaitNanos(nanos);
+                    } else {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (w.key == null) {
+                unregister(w);
+                return null;
+            }
+            return result(w.key, w.element);
+        } finally {
+            lock.unlock();
+            nbWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Serve the clients waiting on a key, the oldest first, as long as the key has elements for them.
+     * <p>
+     *     To call after each push to the key, once the storage lock has been released.
+     * </p>
+     *
+     * @param key The key that has been pushed to.
+     */
+    void signal(String key) {
+        if (nbWaiters.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            serve(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of clients blocked.
+     *
+     * @return The number of clients waiting in the queues.
+     */
+    int size() {
+        lock.lock();
+        try {
+            return nbBlocked;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Serve the clients waiting on a key, the oldest first, as long as the key has elements for them. Must hold the
+     * lock.
+     *
+     * @param key The key.
+     * @return True if no client is left waiting on the key.
+     */
+    private boolean serve(String key) {
+        ArrayDeque<Waiter> queue = queues.get(key);
+        while (queue != null) {
+            Waiter w = queue.peek();
+            Object element = w.take.apply(key);
+            if (element == null) {
+                return false;
+            }
+            unregister(w);
+            w.key = key;
+            w.element = element;
+            w.served.signal();
+            queue = queues.get(key);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a waiter from the queues of all its keys, dropping the queues left empty. Must hold the lock.
+     *
+     * @param w The waiter.
+     */
+    private void unregister(Waiter w) {
+        nbBlocked--;
+        for (String key : w.keys) {
+            ArrayDeque<Waiter> queue = queues.get(key);
+            if (queue != null) {
+                queue.removeIf(other -> other == w);
+                if (queue.isEmpty()) {
+                    queues.remove(key);
+                }
+            }
+        }
+    }
+
+    private static ArrayList<Object> result(String key, Object element) {
+        ArrayList<Object> res = new ArrayList<>(2);
+        res.add(key);
+        res.add(element);
+        return res;
+    }
+}
@@ -1,5 +1,7 @@
 package server;
 
 public interface RedisLikeServer extends RedisLikeServerDataStructuresList, RedisLikeServerDataTypes,
-                                         RedisLikeServerDataStructuresSet
+                                         RedisLikeServerDataStructuresSet, RedisLikeServerDataStructuresZSet,
+                                         RedisLikeServerDataStructuresHash, RedisLikeServerDataStructuresBitmap,
+                                         RedisLikeServerInfo
 {}
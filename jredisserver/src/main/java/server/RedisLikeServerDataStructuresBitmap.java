@@ -0,0 +1,91 @@
+package server;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+public interface RedisLikeServerDataStructuresBitmap extends Remote {
+    /**
+     * Set or clear the bit at offset in the bitmap stored at key.
+     * <p>
+     *     The bitmap grows to hold the bit if needed, the new bits being 0. If key does not exist a new bitmap is
+     *     created. If the key exists but does not hold a bitmap an error is returned.
+     * </p>
+     * @param key The key holding the bitmap.
+     * @param offset The offset of the bit, from 0 to 2^32 - 1.
+     * @param value The new value of the bit, 0 or 1.
+     * @return The previous value of the bit, -1 if an error happened.
+     * @throws IllegalArgumentException When offset is out of range, or value is neither 0 nor 1.
+     */
+    int setbit(String key, long offset, int value) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Return the bit at offset in the bitmap stored at key.
+     * @param key The key holding the bitmap.
+     * @param offset The offset of the bit, from 0 to 2^32 - 1.
+     * @return The bit, 0 if offset is past the end of the bitmap or if key does not exist, -1 if key does not hold a
+     * bitmap.
+     * @throws IllegalArgumentException When offset is out of range.
+     */
+    int getbit(String key, long offset) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Count the bits set in the bitmap stored at key.
+     * @param key The key holding the bitmap.
+     * @return The number of bits set, 0 if key does not exist, -1 if key does not hold a bitmap.
+     */
+    long bitcount(String key) throws RemoteException;
+
+    /**
+     * Count the bits set in a range of bytes of the bitmap stored at key.
+     * <p>
+     *     start and end can be negative to count from the end of the bitmap, -1 being its last byte.
+     * </p>
+     * @param key The key holding the bitmap.
+     * @param start The first byte.
+     * @param end The last byte, included.
+     * @return The number of bits set in the range, 0 if key does not exist, -1 if key does not hold a bitmap.
+     */
+    long bitcount(String key, long start, long end) throws RemoteException;
+
+    /**
+     * Return the offset of the first bit set or cleared in the bitmap stored at key.
+     * <p>
+     *     The bits past the end of the bitmap are considered to be 0: looking for a 0 in a bitmap full of ones returns
+     *     the offset of the bit right after its end, and looking for a 0 in a missing key returns 0.
+     * </p>
+     * @param key The key holding the bitmap.
+     * @param bit The bit to look for, 0 or 1.
+     * @return The offset of the first bit found, -1 if there is none, null if key does not hold a bitmap.
+     * @throws IllegalArgumentException When bit is neither 0 nor 1.
+     */
+    Long bitpos(String key, int bit) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Return the offset of the first bit set or cleared in a range of bytes of the bitmap stored at key.
+     * <p>
+     *     start and end can be negative to count from the end of the bitmap, -1 being its last byte. Unlike
+     *     bitpos(key, bit) the bits past the end of the bitmap are not looked at.
+     * </p>
+     * @param key The key holding the bitmap.
+     * @param bit The bit to look for, 0 or 1.
+     * @param start The first byte.
+     * @param end The last byte, included.
+     * @return The offset of the first bit found, -1 if there is none, null if key does not hold a bitmap.
+     * @throws IllegalArgumentException When bit is neither 0 nor 1.
+     */
+    Long bitpos(String key, int bit, long start, long end) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Combine bitmaps with a bitwise operation and store the result at keys[0].
+     * <p>
+     *     AND, OR and XOR combine any number of bitmaps, the shorter ones being padded with zeros. NOT flips the bits
+     *     of a single bitmap. Missing keys are empty bitmaps.
+     * </p>
+     * @param operation The operation: AND, OR, XOR or NOT, in any case.
+     * @param keys The key where the result is stored, followed by the keys holding the bitmaps.
+     * @return The length in bytes of the bitmap stored at keys[0], -1 if a key does not hold a bitmap.
+     * @throws IllegalArgumentException When the operation is unknown, there is no bitmap to combine, or several of
+     * them for NOT.
+     */
+    long bitop(String operation, String[] keys) throws RemoteException, IllegalArgumentException;
+}
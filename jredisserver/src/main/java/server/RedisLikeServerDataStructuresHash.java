@@ -0,0 +1,89 @@
+package server;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+
+public interface RedisLikeServerDataStructuresHash extends Remote {
+    /**
+     *  Set the value of a field of the hash stored at key.
+     *  <p>
+     *      If field is already in the hash its value is replaced. If key does not exist a new hash holding field is
+     *      created. If the key exists but does not hold a hash an error is returned.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @param value The value of the field.
+     * @return 1 if the field was added, 0 if it was already in the hash and its value was replaced, -1 if an error
+     * happened.
+     */
+    int hset(String key, Object field, Object value) throws RemoteException;
+
+    /**
+     *  Set the values of several fields of the hash stored at key, in a single call and under a single lock, like
+     *  HMSET.
+     *  <p>
+     *      The values of the fields already in the hash are replaced. If key does not exist a new hash is created. If
+     *      the key exists but does not hold a hash an error is returned.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param fields The fields.
+     * @param values The values of the fields, in the same order.
+     * @return The number of fields added, not counting the ones already in the hash, -1 if an error happened.
+     * @throws IllegalArgumentException When there are not as many values as fields.
+     */
+    int hset(String key, Object[] fields, Object[] values) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Return the value of a field of the hash stored at key.
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @return The value of the field, null if field is not in the hash, if key does not exist or if key does not hold
+     * a hash.
+     */
+    Object hget(String key, Object field) throws RemoteException;
+
+    /**
+     * Return the values of several fields of the hash stored at key, in a single call and under a single lock.
+     * @param key The key holding the hash.
+     * @param fields The fields.
+     * @return The value of each field, in the same order, null for the fields that are not in the hash (all of them
+     * if key does not exist), null if key does not hold a hash.
+     */
+    ArrayList<Object> hmget(String key, Object[] fields) throws RemoteException;
+
+    /**
+     *  Increment the integer value of a field of the hash stored at key.
+     *  <p>
+     *      If field is not in the hash it is set to 0 before the increment, and if key does not exist a new hash is
+     *      created. The increment is atomic: concurrent increments of the same field are never lost.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @param increment The increment, negative to decrement.
+     * @return The new value of the field, null if key does not hold a hash.
+     * @throws ArithmeticException When the value of the field is not an integer, or the new value would not fit in 64
+     * bits.
+     */
+    Long hincrby(String key, Object field, long increment) throws RemoteException, ArithmeticException;
+
+    /**
+     *  Remove the specified fields from the hash stored at key, in a single call and under a single lock.
+     *  <p>
+     *      Fields that are not in the hash are ignored.
+     *      If key does not hold a hash an error is returned.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param fields The fields to remove.
+     * @return The number of fields removed, -1 if an error happened.
+     */
+    int hdel(String key, Object[] fields) throws RemoteException;
+
+    /**
+     * Return the number of fields of the hash stored at key. If the key does not exist 0 is returned, like for empty
+     * hashes.
+     * @param key The key holding the hash.
+     * @return The number of fields of the hash, -1 if key holds anything but a hash.
+     */
+    int hlen(String key) throws RemoteException;
+}
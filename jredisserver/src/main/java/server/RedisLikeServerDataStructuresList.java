@@ -48,6 +48,14 @@ public interface RedisLikeServerDataStructuresList extends Remote {
      */
     boolean lpush(String key, Object value) throws RemoteException;
 
+    /**
+     * Add the values to the tail of the list stored at key, in order, in a single call and under a single lock.
+     * @param key The key holding the list.
+     * @param values The values to add to the tail of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     */
+    int lpush(String key, Object[] values) throws RemoteException;
+
     /**
      *  Return the specified elements of the list stored at the specified key. Start and end are zero-based indexes.
      *  <p>
@@ -114,6 +122,14 @@ public interface RedisLikeServerDataStructuresList extends Remote {
      */
     boolean rpush(String key, Object value) throws RemoteException;
 
+    /**
+     * Add the values to the head of the list stored at key, in order, in a single call and under a single lock.
+     * @param key The key holding the list.
+     * @param values The values to add to the head of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     */
+    int rpush(String key, Object[] values) throws RemoteException;
+
     /**
      * Atomically return and remove the last element of the list.
      * <p>
@@ -124,4 +140,123 @@ public interface RedisLikeServerDataStructuresList extends Remote {
      * @return null if the key does not exist or the list is already empty, the removed object otherwise.
      */
     Object rpop(String key) throws RemoteException;
+
+    /**
+     * Add the value to the tail of the list stored at key, then drop the oldest elements to keep at most maxLength of
+     * them.
+     * <p>
+     *     A list created this way is a capped list, e.g to keep the last N events: a ring of maxLength elements, where
+     *     each push with the same maximum length overwrites the oldest element in O(1) and without allocation, instead
+     *     of an LPUSH followed by an LTRIM. LRANGE and LINDEX read the ring directly.
+     * </p>
+     * @param key The key holding the list.
+     * @param value The value to add to the tail of the list.
+     * @param maxLength The maximum length of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    boolean lpush(String key, Object value, int maxLength) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Add the values to the tail of the list stored at key, in order, then drop the oldest elements to keep at most
+     * maxLength of them. See the capped LPUSH.
+     * @param key The key holding the list.
+     * @param values The values to add to the tail of the list.
+     * @param maxLength The maximum length of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    int lpush(String key, Object[] values, int maxLength) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Add the value to the head of the list stored at key, then drop the oldest elements to keep at most maxLength of
+     * them. See the capped LPUSH.
+     * @param key The key holding the list.
+     * @param value The value to add to the head of the list.
+     * @param maxLength The maximum length of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    boolean rpush(String key, Object value, int maxLength) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Add the values to the head of the list stored at key, in order, then drop the oldest elements to keep at most
+     * maxLength of them. See the capped LPUSH.
+     * @param key The key holding the list.
+     * @param values The values to add to the head of the list.
+     * @param maxLength The maximum length of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    int rpush(String key, Object[] values, int maxLength) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Atomically remove an element at one end of a list and add it at one end of another list.
+     * <p>
+     *     The left end is the one of LPUSH and LPOP, the right end the one of RPUSH and RPOP. The destination list is
+     *     created if it does not exist, and can be the source list itself to rotate it. The element is in one of the
+     *     lists at any time, so a queue moving its items from a "pending" list to a "processing" list never loses
+     *     any. Both ends are O(1).
+     * </p>
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @param fromLeft True to take the element at the left end of the source, false to take it at the right end.
+     * @param toLeft True to add the element at the left end of the destination, false to add it at the right end.
+     * @return The moved element, null if the source list is empty or does not exist, or if a key does not hold a list.
+     */
+    Object lmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft) throws RemoteException;
+
+    /**
+     * Atomically remove the element at the right end of a list (RPOP) and add it at the left end of another list
+     * (LPUSH).
+     * <p>
+     *     Same as LMOVE srckey dstkey RIGHT LEFT.
+     * </p>
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @return The moved element, null if the source list is empty or does not exist, or if a key does not hold a list.
+     */
+    Object rpoplpush(String srckey, String dstkey) throws RemoteException;
+
+    /**
+     * Remove and return the first element of the first non-empty list, blocking until one is pushed if they are all
+     * empty.
+     * <p>
+     *     This is the blocking version of LPOP. The keys are checked in the given order. If they are all empty or
+     *     missing, the client is queued on each of them and the first element pushed to one of them is handed to it,
+     *     the clients blocked for the longest being served first.
+     * </p>
+     * @param keys The keys holding the lists.
+     * @param timeout The maximum time to block in milliseconds, 0 to block forever.
+     * @return The key and the element popped from it, null if the timeout elapsed.
+     */
+    ArrayList<Object> blpop(String[] keys, long timeout) throws RemoteException;
+
+    /**
+     * Remove and return the last element of the first non-empty list, blocking until one is pushed if they are all
+     * empty.
+     * <p>
+     *     This is the blocking version of RPOP, see BLPOP.
+     * </p>
+     * @param keys The keys holding the lists.
+     * @param timeout The maximum time to block in milliseconds, 0 to block forever.
+     * @return The key and the element popped from it, null if the timeout elapsed.
+     */
+    ArrayList<Object> brpop(String[] keys, long timeout) throws RemoteException;
+
+    /**
+     * Atomically remove an element at one end of a list and add it at one end of another list, blocking until an
+     * element is pushed if the source list is empty.
+     * <p>
+     *     The left end is the one of LPUSH and LPOP, the right end the one of RPUSH and RPOP. The destination list is
+     *     created if it does not exist. A client waiting for the source list is served like with BLPOP.
+     * </p>
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @param fromLeft True to take the element at the left end of the source, false to take it at the right end.
+     * @param toLeft True to add the element at the left end of the destination, false to add it at the right end.
+     * @param timeout The maximum time to block in milliseconds, 0 to block forever.
+     * @return The moved element, null if the timeout elapsed or if a key does not hold a list.
+     */
+    Object blmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft, long timeout) throws RemoteException;
 }
@@ -2,6 +2,7 @@ package server;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface RedisLikeServerDataStructuresSet extends Remote {
@@ -18,6 +19,18 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     int sadd(String key, Object member) throws RemoteException;
 
+    /**
+     *  Add the specified members to the set value stored at key, in a single call and under a single lock.
+     *  <p>
+     *      Members already in the set are ignored. If key does not exist a new set is created. If the key exists but
+     *      does not hold a set value an error is returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param members The members to add.
+     * @return The number of members added, not counting the ones already in the set, -1 if an error happened.
+     */
+    int sadd(String key, Object[] members) throws RemoteException;
+
     /**
      * Return the set cardinality (number of elements). If the key does not exist 0 is returned, like for empty sets.
      * @param key The key holding the set.
@@ -37,6 +50,18 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     int srem(String key, Object member) throws RemoteException;
 
+    /**
+     *  Remove the specified members from the set value stored at key, in a single call and under a single lock.
+     *  <p>
+     *      Members that are not in the set are ignored.
+     *      If key does not hold a set value an error is returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param members The members to remove.
+     * @return The number of members removed, -1 if an error happened.
+     */
+    int srem(String key, Object[] members) throws RemoteException;
+
     /**
      * Return 1 if member is a member of the set stored at key, otherwise 0 is returned.
      * @param key The key holding the set.
@@ -45,6 +70,16 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     int sismember(String key, Object member) throws RemoteException;
 
+    /**
+     * Tell, for each of the given members, whether it is a member of the set stored at key, in a single call instead
+     * of one SISMEMBER per member.
+     * @param key The key holding the set.
+     * @param members The members to test.
+     * @return For each member in the same order, 1 if it is a member of the set, 0 otherwise; all 0 if key does not
+     * exist, null if key does not hold a set.
+     */
+    int[] smismember(String key, Object[] members) throws RemoteException;
+
     /**
      *  Return all the members (elements) of the set value stored at key. This is just syntax glue for SINTERSECT.
      * @param key The key holding the set.
@@ -52,6 +87,36 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     List<Object> smembers(String key) throws RemoteException;
 
+    /**
+     * Incrementally iterate over the members of a set, like sscan(key, cursor, null, 10).
+     * @param key The key holding the set.
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the members; an
+     * empty walk if key does not exist, null if key does not hold a set.
+     * @throws IllegalArgumentException When cursor is not a cursor of SSCAN.
+     */
+    ArrayList<Object> sscan(String key, long cursor) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Incrementally iterate over the members of a set, a bounded batch at a time, instead of fetching all of them
+     * with SMEMBERS.
+     * <p>
+     *     A walk starts with cursor 0 and goes on with the cursor returned by the previous call, until 0 is returned.
+     *     Every member present during the whole walk is returned at least once; a member may be returned several
+     *     times. About count members are looked at in each call, before being filtered by the pattern. Small sets of
+     *     integers are returned at once.
+     * </p>
+     * @param key The key holding the set.
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @param pattern A glob-style pattern the members must match, null to return all the members.
+     * @param count The number of members to look at, > 0.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the members; an
+     * empty walk if key does not exist, null if key does not hold a set.
+     * @throws IllegalArgumentException When cursor is not a cursor of SSCAN, or count is <= 0.
+     */
+    ArrayList<Object> sscan(String key, long cursor, String pattern, int count)
+            throws RemoteException, IllegalArgumentException;
+
     /**
      * Return the members of a set resulting from the intersection of all the sets hold at the specified keys.
      * <p>
@@ -65,6 +130,28 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     List<Object> sinter(String[] keys) throws RemoteException;
 
+    /**
+     * Return the cardinality of the intersection of all the sets hold at the specified keys, like sintercard(keys, 0).
+     * @param keys The keys holding the sets.
+     * @return The cardinality of the intersection, -1 if at least one key does not hold a set.
+     */
+    int sintercard(String[] keys) throws RemoteException;
+
+    /**
+     * Return the cardinality of the intersection of all the sets hold at the specified keys, without sending its
+     * members.
+     * <p>
+     *     Non existing keys are considered like empty sets. With a limit, the counting stops as soon as limit members
+     *     are found, which is handy to know whether the intersection holds at least a given number of members.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @param limit The count after which to stop, 0 to count the whole intersection.
+     * @return The cardinality of the intersection, at most limit if limit > 0, -1 if at least one key does not hold a
+     * set.
+     * @throws IllegalArgumentException When limit is < 0.
+     */
+    int sintercard(String[] keys, int limit) throws RemoteException, IllegalArgumentException;
+
     /**
      * This command works exactly like SINTER but instead of being returned the resulting set is stored as dstkey.
      * @param keys The keys holding the sets.
@@ -83,6 +170,16 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     Object spop(String key) throws RemoteException;
 
+    /**
+     * Remove up to count random members from a set and return them, each one in O(1).
+     * @param key The key holding the set.
+     * @param count The maximum number of members to remove.
+     * @return The removed members, all of them if the set holds no more than count, an empty list if key does not
+     * exist, null if key is not holding a set.
+     * @throws IllegalArgumentException When count is < 0.
+     */
+    List<Object> spop(String key, int count) throws RemoteException, IllegalArgumentException;
+
     /**
      * Return a random element from a Set, without removing the element.
      * <p>
@@ -94,6 +191,18 @@ public interface RedisLikeServerDataStructuresSet extends Remote {
      */
     Object srandmember(String key) throws RemoteException;
 
+    /**
+     * Return count random members of a set, without removing them.
+     * <p>
+     *     With a positive count the members are distinct, all of them being returned if the set holds no more than
+     *     count. With a negative count, -count members are returned and the same member may be picked several times.
+     * </p>
+     * @param key The key holding the set.
+     * @param count The number of members, negative to allow repeats.
+     * @return The random members, an empty list if key does not exist, null if key is not holding a set.
+     */
+    List<Object> srandmember(String key, int count) throws RemoteException;
+
     /**
      *  Move the specifided member from the set at srckey to the set at dstkey.
      *  <p>
@@ -0,0 +1,152 @@
+package server;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+
+public interface RedisLikeServerDataStructuresZSet extends Remote {
+    /**
+     *  Add the specified member with the specified score to the sorted set stored at key.
+     *  <p>
+     *      If member is already a member of the sorted set its score is updated. If key does not exist a new sorted
+     *      set with the specified member as sole member is created. If the key exists but does not hold a sorted set
+     *      an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param score The score of the member.
+     * @param member The member to add.
+     * @return 1 if the new element was added, 0 if the element was already a member of the sorted set and its score
+     * was updated, -1 if an error happened.
+     * @throws IllegalArgumentException When score is not a number.
+     */
+    int zadd(String key, double score, Object member) throws RemoteException, IllegalArgumentException;
+
+    /**
+     *  Add the specified members with their scores to the sorted set stored at key, in a single call and under a
+     *  single lock.
+     *  <p>
+     *      The scores of the members already in the sorted set are updated. If key does not exist a new sorted set is
+     *      created. If the key exists but does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param scores The scores of the members, in the same order.
+     * @param members The members to add.
+     * @return The number of members added, not counting the ones already in the sorted set, -1 if an error happened.
+     * @throws IllegalArgumentException When there are not as many scores as members, or a score is not a number.
+     */
+    int zadd(String key, double[] scores, Object[] members) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Return the sorted set cardinality (number of elements). If the key does not exist 0 is returned, like for empty
+     * sorted sets.
+     * @param key The key holding the sorted set.
+     * @return Cardinality of the sorted set, -1 if key holds anything but a sorted set.
+     */
+    int zcard(String key) throws RemoteException;
+
+    /**
+     * Return the score of member in the sorted set stored at key.
+     * @param key The key holding the sorted set.
+     * @param member The member.
+     * @return The score of the member, null if member is not in the sorted set, if key does not exist or if key does
+     * not hold a sorted set.
+     */
+    Double zscore(String key, Object member) throws RemoteException;
+
+    /**
+     *  Remove the specified member from the sorted set stored at key.
+     *  <p>
+     *      If member was not a member of the sorted set no operation is performed.
+     *      If key does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param member The member to remove.
+     * @return 1 if the element was removed, 0 if the element was not a member of the sorted set, -1 if an error
+     * happened.
+     */
+    int zrem(String key, Object member) throws RemoteException;
+
+    /**
+     *  Remove the specified members from the sorted set stored at key, in a single call and under a single lock.
+     *  <p>
+     *      Members that are not in the sorted set are ignored.
+     *      If key does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param members The members to remove.
+     * @return The number of members removed, -1 if an error happened.
+     */
+    int zrem(String key, Object[] members) throws RemoteException;
+
+    /**
+     * Return the 0-based rank of member in the sorted set stored at key, with the scores ordered from low to high.
+     * Members with the same score are ordered lexicographically.
+     * @param key The key holding the sorted set.
+     * @param member The member.
+     * @return The rank of the member, null if member is not in the sorted set or if key does not exist, -1 if key
+     * does not hold a sorted set.
+     */
+    Integer zrank(String key, Object member) throws RemoteException;
+
+    /**
+     *  Return the specified range of members of the sorted set stored at key, ordered from the lowest to the highest
+     *  score. Start and stop are zero-based ranks, both inclusive.
+     *  <p>
+     *      They can be negative numbers indicating offsets from the end of the sorted set, -1 being the member with
+     *      the highest score. If start is over the end of the sorted set or start > stop an empty list is returned,
+     *      if stop is over the end it is treated like the last member.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param start The rank of the first member.
+     * @param stop The rank of the last member.
+     * @return The members of the range, null if key does not hold a sorted set.
+     */
+    ArrayList<Object> zrange(String key, int start, int stop) throws RemoteException;
+
+    /**
+     *  Return the specified range of members of the sorted set stored at key, ordered from the lowest to the highest
+     *  score, with their scores if asked.
+     * @param key The key holding the sorted set.
+     * @param start The rank of the first member.
+     * @param stop The rank of the last member.
+     * @param withScores True to return the score of each member after it.
+     * @return The members of the range, followed each by its score if withScores is true, null if key does not hold
+     * a sorted set.
+     */
+    ArrayList<Object> zrange(String key, int start, int stop, boolean withScores) throws RemoteException;
+
+    /**
+     *  Return the members of the sorted set stored at key whose score is between min and max, both inclusive,
+     *  ordered from the lowest to the highest score.
+     *  <p>
+     *      Infinite bounds select all the members up to or from the other bound.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param min The minimum score.
+     * @param max The maximum score.
+     * @return The members of the range, null if key does not hold a sorted set.
+     * @throws IllegalArgumentException When min or max is not a number.
+     */
+    ArrayList<Object> zrangebyscore(String key, double min, double max)
+            throws RemoteException, IllegalArgumentException;
+
+    /**
+     *  Return a page of the members of the sorted set stored at key whose score is between min and max, both
+     *  inclusive, ordered from the lowest to the highest score, with their scores if asked.
+     *  <p>
+     *      Like with LIMIT offset count, offset members of the range are skipped, then at most count members are
+     *      returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param min The minimum score.
+     * @param max The maximum score.
+     * @param withScores True to return the score of each member after it.
+     * @param offset The number of members of the range to skip.
+     * @param count The maximum number of members to return, < 0 to return all of them.
+     * @return The members of the range, followed each by its score if withScores is true, null if key does not hold
+     * a sorted set.
+     * @throws IllegalArgumentException When min or max is not a number, or offset is < 0.
+     */
+    ArrayList<Object> zrangebyscore(String key, double min, double max, boolean withScores, int offset, int count)
+            throws RemoteException, IllegalArgumentException;
+}
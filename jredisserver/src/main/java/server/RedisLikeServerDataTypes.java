@@ -25,13 +25,73 @@ public interface RedisLikeServerDataTypes extends Remote {
      */
     void set(String key, Object value) throws RemoteException;
 
+    /**
+     * Set key to hold the string value and a timeout, like SET key value PX milliseconds. If key already holds a
+     * value, it is overwritten, regardless of its type.
+     * @param key The key holding the value.
+     * @param value The value to set.
+     * @param milliseconds The time to live of the key in milliseconds.
+     */
+    void set(String key, Object value, long milliseconds) throws RemoteException;
+
+    /**
+     * Binary-safe version of get(): the key and the value are raw bytes, which RMI sends as is instead of serializing
+     * objects. Strings set with set(String, Object) are returned UTF-8 encoded, numbers as their decimal representation.
+     * <p>
+     *     A key given as valid UTF-8 is the same key as its decoded string in the other commands.
+     * </p>
+     * @param key The key we want the value of.
+     * @return The value of the key if it exists and holds a string or a number, null otherwise.
+     */
+    byte[] get(byte[] key) throws RemoteException;
+
+    /**
+     * Binary-safe version of set(): set key to hold the bytes of a string. If key already holds a value, it is
+     * overwritten, regardless of its type.
+     * @param key The key holding the value.
+     * @param value The bytes to set.
+     */
+    void set(byte[] key, byte[] value) throws RemoteException;
+
+    /**
+     * Binary-safe version of set() with a timeout, like SET key value PX milliseconds.
+     * @param key The key holding the value.
+     * @param value The bytes to set.
+     * @param milliseconds The time to live of the key in milliseconds.
+     */
+    void set(byte[] key, byte[] value, long milliseconds) throws RemoteException;
+
     /**
      * Return the type of the value stored at key in form of a string.
      * @param key The key holding the value.
-     * @return one of "none", "string", "int", "list". "none" is returned if the key does not exist.
+     * @return one of "none", "string", "integer", "float", "list", "set". "none" is returned if the key does not exist.
      */
     String type(String key) throws RemoteException;
 
+    /**
+     * Incrementally iterate over the keys, like scan(cursor, null, 10).
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the keys.
+     * @throws IllegalArgumentException When cursor is not a cursor of SCAN.
+     */
+    ArrayList<Object> scan(long cursor) throws RemoteException, IllegalArgumentException;
+
+    /**
+     * Incrementally iterate over the keys, a bounded batch at a time.
+     * <p>
+     *     A walk starts with cursor 0 and goes on with the cursor returned by the previous call, until 0 is returned.
+     *     Every key present during the whole walk is returned at least once; a key may be returned several times.
+     *     About count keys are looked at in each call, before being filtered by the pattern, so a call may return
+     *     more or fewer keys than count, or none at all before the end of the walk.
+     * </p>
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @param pattern A glob-style pattern the keys must match (*, ?, [a-z], \ to escape), null to return all the keys.
+     * @param count The number of keys to look at, > 0.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the keys.
+     * @throws IllegalArgumentException When cursor is not a cursor of SCAN, or count is <= 0.
+     */
+    ArrayList<Object> scan(long cursor, String pattern, int count) throws RemoteException, IllegalArgumentException;
+
     /**
      * Decrement the number stored at key by one.
      * <p>
@@ -40,20 +100,22 @@ public interface RedisLikeServerDataTypes extends Remote {
      * </p>
      * @param key The key holding the value.
      * @return the new value of key after the decrement.
+     * @throws ArithmeticException When the new value would not fit in 64 bits.
      */
-    int decr(String key) throws RemoteException;
+    long decr(String key) throws RemoteException;
 
     /**
-     * Decrement the number stored at key by one.
+     * Decrement the number stored at key by the given integer.
      * <p>
      *     If the key does not exist or contains a value of a wrong type, set the key to the value of "0"
      *     before to perform the increment or decrement operation.
      * </p>
      * @param key The key holding the value.
-     * @param integer The increment value.
+     * @param integer The decrement value.
      * @return the new value of key after the decrement.
+     * @throws ArithmeticException When the new value would not fit in 64 bits.
      */
-    int decrBy(String key, int integer) throws RemoteException;
+    long decrBy(String key, long integer) throws RemoteException;
 
     /**
      * Increment the number stored at key by one.
@@ -63,20 +125,36 @@ public interface RedisLikeServerDataTypes extends Remote {
      * </p>
      * @param key The key holding the value.
      * @return the new value of key after the Increment.
+     * @throws ArithmeticException When the new value would not fit in 64 bits.
      */
-    int incr(String key) throws RemoteException;
+    long incr(String key) throws RemoteException;
 
     /**
-     * Increment the number stored at key by one.
+     * Increment the number stored at key by the given integer.
      * <p>
      *     If the key does not exist or contains a value of a wrong type, set the key to the value of "0"
-     *     before to perform the increment or decrement operation.
+     *     before to perform the increment or decrement operation. The increment is atomic: concurrent increments of
+     *     the same key are never lost.
      * </p>
      * @param key The key holding the value.
      * @param integer The increment value.
      * @return the new value of key after the Increment.
+     * @throws ArithmeticException When the new value would not fit in 64 bits.
+     */
+    long incrBy(String key, long integer) throws RemoteException;
+
+    /**
+     * Increment the number stored at key by the given float.
+     * <p>
+     *     If the key does not exist or contains a value of a wrong type, set the key to the value of "0"
+     *     before to perform the increment. Works like incrBy(), the value becoming a floating point number.
+     * </p>
+     * @param key The key holding the value.
+     * @param increment The increment value.
+     * @return the new value of key after the Increment.
+     * @throws ArithmeticException When the new value would be NaN or infinite.
      */
-    int incrBy(String key, int integer) throws RemoteException;
+    double incrByFloat(String key, double increment) throws RemoteException;
 
     /**
      * Remove the specified key. If a given key does not exist no operation is performed for this key.
@@ -84,4 +162,45 @@ public interface RedisLikeServerDataTypes extends Remote {
      * @return True if the key existed and has been removed, false otherwise.
      */
     boolean del(String key) throws RemoteException;
+
+    /**
+     * Set a timeout on key. After the timeout has expired, the key is automatically deleted.
+     * <p>
+     *     The timeout is cleared when the value of the key is overwritten (e.g SET), but not when it is modified in
+     *     place (e.g LPUSH). A timeout <= 0 deletes the key right away.
+     * </p>
+     * @param key The key.
+     * @param seconds The timeout in seconds.
+     * @return True if the timeout was set, false if key does not exist.
+     */
+    boolean expire(String key, long seconds) throws RemoteException;
+
+    /**
+     * Same as expire(), with a timeout in milliseconds.
+     * @param key The key.
+     * @param milliseconds The timeout in milliseconds.
+     * @return True if the timeout was set, false if key does not exist.
+     */
+    boolean pexpire(String key, long milliseconds) throws RemoteException;
+
+    /**
+     * Return the remaining time to live of a key that has a timeout.
+     * @param key The key.
+     * @return The time to live in seconds, -2 if the key does not exist, -1 if the key exists but has no timeout.
+     */
+    long ttl(String key) throws RemoteException;
+
+    /**
+     * Same as ttl(), in milliseconds.
+     * @param key The key.
+     * @return The time to live in milliseconds, -2 if the key does not exist, -1 if the key exists but has no timeout.
+     */
+    long pttl(String key) throws RemoteException;
+
+    /**
+     * Remove the existing timeout on key, turning the key from volatile to persistent.
+     * @param key The key.
+     * @return True if the timeout was removed, false if key does not exist or does not have a timeout.
+     */
+    boolean persist(String key) throws RemoteException;
 }
@@ -0,0 +1,18 @@
+package server;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+public interface RedisLikeServerInfo extends Remote {
+    /**
+     * Return information about the server, one "field:value" pair per line, grouped in sections starting with
+     * "# Section". For example:
+     * <pre>
+     * # Memory
+     * used_memory:1024
+     * maxmemory:67108864
+     * </pre>
+     * @return The information about the server.
+     */
+    String info() throws RemoteException;
+}
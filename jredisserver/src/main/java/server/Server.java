@@ -1,10 +1,15 @@
 package server;
 
 import org.apache.commons.cli.*;
+import storage.ShardedStorage;
+import storage.eviction.EvictionPolicy;
+import storage.eviction.LruPolicy;
+import storage.eviction.TimingWheel;
 import storage.exceptions.DuplicatedKeyException;
 import storage.exceptions.NonExistentKeyException;
 import storage.Storage;
 
+import java.nio.charset.StandardCharsets;
 import java.rmi.AlreadyBoundException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
@@ -13,19 +18,48 @@ import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class Server implements RedisLikeServer {
     public static final int DEFAULT_PORT = 42933;
-    public static final long DEFAULT_CACHE_SIZE = 10L;
+    public static final long DEFAULT_MAX_MEMORY = 64L * 1024L * 1024L;
     public static final String DEFAULT_NAME = "redis-like";
+    public static final String DEFAULT_EVICTION_POLICY = LruPolicy.NAME;
+
+    /**
+     * Maximum number of steps of each active expiration cycle, see Storage.expireCycle(). With a cycle every
+     * TimingWheel.DEFAULT_TICK milliseconds, up to 100000 keys per second and per storage are actively expired.
+     */
+    public static final int EXPIRE_CYCLE_STEPS = 1000;
 
     private Options opt;
     private CommandLine commandLine;
     private String name;
     private int port;
+    private long maxMemory;
+    private long maxOffHeap;
+    private String evictionPolicy;
 
     private Storage storage;
 
+    /**
+     * The sharded keyspace, null unless the server runs in sharded mode. When set, it is used instead of storage.
+     */
+    private ShardedStorage shards;
+
+    /**
+     * Runs the active expiration cycles, started with the first timeout. Null until then.
+     */
+    private ScheduledExecutorService reaper;
+
+    /**
+     * The clients blocked on empty lists, served by the pushes.
+     */
+    private final ListWaiters waiters = new ListWaiters();
+
     public static void main(String[] args) {
         Server server = new Server();
         try {
@@ -53,7 +87,8 @@ public class Server implements RedisLikeServer {
         initOptions();
         port = DEFAULT_PORT;
         name = DEFAULT_NAME;
-        storage = new Storage(DEFAULT_CACHE_SIZE);
+        evictionPolicy = DEFAULT_EVICTION_POLICY;
+        setMaxMemory(DEFAULT_MAX_MEMORY);
     }
 
     /**
@@ -96,9 +131,37 @@ public class Server implements RedisLikeServer {
                             .desc("Port of the server.")
                             .build();
 
+        Option maxMemory = Option.builder("m")
+                                 .longOpt("maxmemory")
+                                 .hasArg()
+                                 .desc("Maximum memory used by the stored values, e.g 100mb.")
+                                 .build();
+
+        Option offHeap = Option.builder("o")
+                               .longOpt("offheap")
+                               .hasArg()
+                               .desc("Keep the strings outside of the heap, up to this size, e.g 1gb.")
+                               .build();
+
+        Option eviction = Option.builder("e")
+                                .longOpt("eviction")
+                                .hasArg()
+                                .desc("Eviction policy: lru, lfu, w-tinylfu, random or volatile-ttl.")
+                                .build();
+
+        Option shards = Option.builder("s")
+                              .longOpt("shards")
+                              .hasArg()
+                              .desc("Number of shards of the keyspace.")
+                              .build();
+
         opt.addOption(help);
         opt.addOption(name);
         opt.addOption(port);
+        opt.addOption(maxMemory);
+        opt.addOption(offHeap);
+        opt.addOption(eviction);
+        opt.addOption(shards);
     }
 
     /**
@@ -117,6 +180,10 @@ public class Server implements RedisLikeServer {
         if (commandLine.hasOption("help")) return true;
         if (commandLine.hasOption("name")) name = getNameFromCommandLine();
         if (commandLine.hasOption("port")) port = getPortFromCommandLine();
+        if (commandLine.hasOption("maxmemory")) setMaxMemory(getMaxMemoryFromCommandLine());
+        if (commandLine.hasOption("offheap")) setMaxOffHeap(getMaxOffHeapFromCommandLine());
+        if (commandLine.hasOption("eviction")) setEvictionPolicy(getEvictionPolicyFromCommandLine());
+        if (commandLine.hasOption("shards")) setNbShards(getNbShardsFromCommandLine());
         return false;
     }
 
@@ -140,6 +207,184 @@ public class Server implements RedisLikeServer {
         }
     }
 
+    /**
+     * Extract the maximum memory from the command line.
+     * <p>
+     *     The value is a number of bytes, optionally followed by a unit: k, kb, m, mb, g or gb (case insensitive),
+     *     e.g 100mb. Units are powers of 1024.
+     * </p>
+     * @return The maximum memory in bytes from the command line if valid, DEFAULT_MAX_MEMORY otherwise.
+     */
+    private long getMaxMemoryFromCommandLine() {
+        long maxMemory = parseSize(commandLine.getOptionValue("maxmemory"));
+        return maxMemory > 0L ? maxMemory : DEFAULT_MAX_MEMORY;
+    }
+
+    /**
+     * Extract the maximum off-heap memory from the command line, in the same format as the maximum memory.
+     * @return The maximum off-heap memory in bytes from the command line if valid, 0 (everything on the heap) otherwise.
+     */
+    private long getMaxOffHeapFromCommandLine() {
+        return Math.max(0L, parseSize(commandLine.getOptionValue("offheap")));
+    }
+
+    /**
+     * Parse a number of bytes in the format of the maximum memory, e.g 100mb.
+     * @param size The size to parse.
+     * @return The number of bytes, -1 if the size is invalid.
+     */
+    private static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        long unit = 1L;
+        if (value.endsWith("b")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (value.endsWith("k")) {
+            unit = 1024L;
+        } else if (value.endsWith("m")) {
+            unit = 1024L * 1024L;
+        } else if (value.endsWith("g")) {
+            unit = 1024L * 1024L * 1024L;
+        }
+        if (unit > 1L) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            long bytes = Long.parseLong(value) * unit;
+            return bytes >= 0L ? bytes : -1L;
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Extract the eviction policy from the command line.
+     * @return The name of the eviction policy from the command line if valid, DEFAULT_EVICTION_POLICY otherwise.
+     */
+    private String getEvictionPolicyFromCommandLine() {
+        try {
+            return EvictionPolicy.forName(commandLine.getOptionValue("eviction").trim()).getName();
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_EVICTION_POLICY;
+        }
+    }
+
+    /**
+     * Extract the number of shards from the command line.
+     * @return The number of shards from the command line if valid, 0 (no sharding) otherwise.
+     */
+    private int getNbShardsFromCommandLine() {
+        try {
+            return Integer.parseInt(commandLine.getOptionValue("shards"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Get the maximum memory used by the stored values.
+     * @return The maximum memory in bytes.
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Set the maximum memory used by the stored values. Everything stored so far is dropped.
+     * <p>
+     *     The memory used by a value is an estimate of its size in the heap, see Storage.withMaxMemory(). When
+     *     storing or growing a value goes over the budget, keys are evicted according to the eviction policy. In
+     *     sharded mode, each shard gets an equal share of the budget.
+     * </p>
+     * @param maxMemory The maximum memory in bytes.
+     * @throws IllegalArgumentException When maxMemory is <= 0.
+     */
+    public void setMaxMemory(long maxMemory) throws IllegalArgumentException {
+        storage = Storage.withMaxMemory(maxMemory, EvictionPolicy.forName(evictionPolicy));
+        storage.setMaxOffHeap(maxOffHeap);
+        this.maxMemory = maxMemory;
+        if (shards != null) {
+            setNbShards(shards.getNbShards());
+        }
+    }
+
+    /**
+     * Get the maximum memory used outside of the heap by the strings.
+     * @return The maximum off-heap memory in bytes, 0 if everything is kept on the heap.
+     */
+    public long getMaxOffHeap() {
+        return maxOffHeap;
+    }
+
+    /**
+     * Keep the strings outside of the heap, up to the given size. Everything stored so far is dropped.
+     * <p>
+     *     Strings are then held in slabs of direct memory, so that big values don't make the garbage collector pause
+     *     longer, see Storage.setMaxOffHeap(). The off-heap memory has its own budget, on top of the maximum memory.
+     *     In sharded mode, each shard gets an equal share of it.
+     * </p>
+     * @param maxOffHeap The maximum off-heap memory in bytes, 0 to keep everything on the heap.
+     * @throws IllegalArgumentException When maxOffHeap is < 0.
+     */
+    public void setMaxOffHeap(long maxOffHeap) throws IllegalArgumentException {
+        if (maxOffHeap < 0L) {
+            throw new IllegalArgumentException("Invalid off-heap size. The off-heap size must be >= 0.");
+        }
+        this.maxOffHeap = maxOffHeap;
+        setMaxMemory(maxMemory);
+    }
+
+    /**
+     * Get the eviction policy.
+     * @return The name of the eviction policy.
+     */
+    public String getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Set the eviction policy, choosing the keys to evict when the stored values go over the maximum memory.
+     * Everything stored so far is dropped.
+     * @param evictionPolicy The name of the policy, see EvictionPolicy.forName().
+     * @throws IllegalArgumentException When the policy is unknown.
+     */
+    public void setEvictionPolicy(String evictionPolicy) throws IllegalArgumentException {
+        this.evictionPolicy = EvictionPolicy.forName(evictionPolicy).getName();
+        setMaxMemory(maxMemory);
+    }
+
+    /**
+     * Get the number of shards of the keyspace.
+     * @return The number of shards, 0 if the server does not run in sharded mode.
+     */
+    public int getNbShards() {
+        return shards != null ? shards.getNbShards() : 0;
+    }
+
+    /**
+     * Set the number of shards of the keyspace. Everything stored in the previous shards is dropped.
+     * <p>
+     *     With more than one shard, the keyspace is split by hash of key and each shard is owned by its own thread,
+     *     so commands are queued to the thread of their key instead of competing for locks. With one shard or less,
+     *     the server uses a single storage shared by all the RMI threads.
+     * </p>
+     * @param nbShards The number of shards.
+     */
+    public void setNbShards(int nbShards) {
+        if (shards != null) {
+            shards.shutdown();
+            shards = null;
+        }
+        if (nbShards > 1) {
+            String policy = evictionPolicy;
+            shards = new ShardedStorage(nbShards, Math.max(1L, maxMemory / nbShards),
+                                        () -> EvictionPolicy.forName(policy));
+            if (maxOffHeap > 0L) {
+                shards.setMaxOffHeap(Math.max(1L, maxOffHeap / nbShards));
+            }
+        }
+    }
+
     /**
      * Display the help message.
      */
@@ -148,6 +393,117 @@ public class Server implements RedisLikeServer {
         System.out.println("\t-h\t--help\tDisplay this information.");
         System.out.println("\t-n\t--name\tSet the name of this server.");
         System.out.println("\t-p\t--port\tSet the port of this server.");
+        System.out.println("\t-m\t--maxmemory\tSet the maximum memory used by the stored values (e.g 100mb).");
+        System.out.println("\t-o\t--offheap\tKeep the strings outside of the heap, up to this size (e.g 1gb).");
+        System.out.println("\t-e\t--eviction\tSet the eviction policy (lru, lfu, w-tinylfu, random, volatile-ttl).");
+        System.out.println("\t-s\t--shards\tSplit the keyspace into this many shards, one thread each.");
+    }
+
+    /**
+     * Run an operation on the storage holding key: the shard of key in sharded mode, the storage otherwise.
+     * @param key The key the operation works on.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    private <T> T route(String key, Function<Storage, T> operation) {
+        return shards != null ? shards.call(key, operation) : operation.apply(storage);
+    }
+
+    /**
+     * Run a read-only multi-key operation, gathering the keys from their shards in sharded mode.
+     * @param keys The keys the operation works on.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    private <T> T routeAll(String[] keys, Function<Storage, T> operation) {
+        return shards != null ? shards.callAll(keys, operation) : operation.apply(storage);
+    }
+
+    /**
+     * Run a multi-key operation storing its result at keys[0] (e.g SUNIONSTORE), gathering the keys from their
+     * shards and writing the result back in sharded mode.
+     * @param keys The keys the operation works on, the first one being the destination.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    private <T> T routeAllAndStore(String[] keys, Function<Storage, T> operation) {
+        if (shards != null && keys.length > 0) {
+            return shards.callAllAndStore(keys[0], keys, operation);
+        }
+        return operation.apply(storage);
+    }
+
+    /**
+     * Start running the active expiration cycles in the background, if not done yet.
+     * <p>
+     *     Keys that are never accessed again after their timeout would otherwise stay in memory until evicted.
+     * </p>
+     */
+    private synchronized void startReaper() {
+        if (reaper != null) {
+            return;
+        }
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        reaper.scheduleWithFixedDelay(this::expireCycle, TimingWheel.DEFAULT_TICK, TimingWheel.DEFAULT_TICK,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run one active expiration cycle on the storage, or queue one to every shard in sharded mode.
+     */
+    private void expireCycle() {
+        try {
+            if (shards != null) {
+                shards.expireCycle(EXPIRE_CYCLE_STEPS);
+            } else {
+                storage.expireCycle(EXPIRE_CYCLE_STEPS);
+            }
+        } catch (RuntimeException e) {
+            // the shards have been replaced in the meantime, the next cycle uses the new ones
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                      SERVER                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * {@inheritDoc}
+     */
+    public String info() {
+        long usedMemory = shards != null ? shards.getUsedMemory() : storage.getUsedMemory();
+        long usedOffHeap = shards != null ? shards.getUsedOffHeap() : storage.getUsedOffHeap();
+        long keys = shards != null ? shards.size() : storage.getCache().size();
+        long hits = shards != null ? shards.getHits() : storage.getHits();
+        long misses = shards != null ? shards.getMisses() : storage.getMisses();
+        long evictions = shards != null ? shards.getEvictions() : storage.getEvictions();
+        long expirations = shards != null ? shards.getExpirations() : storage.getExpirations();
+        long expires = shards != null ? shards.getVolatileKeys() : storage.getVolatileKeys();
+        return "# Clients\n"
+               + "blocked_clients:" + waiters.size() + "\n"
+               + "# Memory\n"
+               + "used_memory:" + usedMemory + "\n"
+               + "maxmemory:" + maxMemory + "\n"
+               + "maxmemory_policy:" + evictionPolicy + "\n"
+               + "used_offheap:" + usedOffHeap + "\n"
+               + "maxoffheap:" + maxOffHeap + "\n"
+               + "# Stats\n"
+               + "keyspace_hits:" + hits + "\n"
+               + "keyspace_misses:" + misses + "\n"
+               + "evicted_keys:" + evictions + "\n"
+               + "expired_keys:" + expirations + "\n"
+               + "# Keyspace\n"
+               + "keys:" + keys + "\n"
+               + "expires:" + expires + "\n";
     }
 
     /*----------------------------------------------------------------------------------------------------------------*/
@@ -160,21 +516,103 @@ public class Server implements RedisLikeServer {
      * {@inheritDoc}
      */
     public Object get(String key) {
-        try {
-            return storage.get(key);
-        } catch (NonExistentKeyException e) {
+        return route(key, s -> {
+            try {
+                // strings set through the binary-safe API are stored as bytes, bitmaps are returned as bytes
+                return s.getDecoded(key);
+            } catch (NonExistentKeyException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void set(String key, Object value) {
+        route(key, s -> {
+            set(s, key, value);
             return null;
+        });
+        if (value instanceof ArrayList) {
+            waiters.signal(key);
         }
     }
 
     /**
      * {@inheritDoc}
      */
-    public void set(String key, Object value) {
+    public void set(String key, Object value, long milliseconds) {
+        long timestamp = timestampIn(milliseconds);
+        startReaper();
+        route(key, s -> {
+            set(s, key, value);
+            s.expireAt(key, timestamp);
+            return null;
+        });
+        if (value instanceof ArrayList) {
+            waiters.signal(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public byte[] get(byte[] key) {
+        String k = Storage.keyOf(key);
+        return route(k, s -> {
+            try {
+                return s.getBytes(k);
+            } catch (NonExistentKeyException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void set(byte[] key, byte[] value) {
+        String k = Storage.keyOf(key);
+        route(k, s -> {
+            s.set(k, value);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void set(byte[] key, byte[] value, long milliseconds) {
+        String k = Storage.keyOf(key);
+        long timestamp = timestampIn(milliseconds);
+        startReaper();
+        route(k, s -> {
+            s.set(k, value);
+            s.expireAt(k, timestamp);
+            return null;
+        });
+    }
+
+    /**
+     * Set key to hold the value in the given storage, overwriting the current value if any.
+     * <p>
+     *     Strings go through the binary-safe path and are stored as their UTF-8 bytes. The caller must signal the
+     *     clients blocked on key when the value is a list.
+     * </p>
+     * @param s The storage holding key.
+     * @param key The key holding the value.
+     * @param value The value to set.
+     */
+    private static void set(Storage s, String key, Object value) {
+        if (value instanceof String) {
+            s.set(key, ((String) value).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
         try {
-            storage.store(key, value);
+            s.store(key, value);
         } catch (DuplicatedKeyException e) {
-            storage.replace(key, value);
+            s.replace(key, value);
         }
     }
 
@@ -182,63 +620,131 @@ public class Server implements RedisLikeServer {
      * {@inheritDoc}
      */
     public String type(String key) {
-        try {
-            return storage.get(key).getClass().getSimpleName();
-        } catch (NonExistentKeyException e) {
-            return "none";
-        }
+        return route(key, s -> s.type(key));
     }
 
     /**
      * {@inheritDoc}
      */
-    public int decr(String key) {
-        return incrBy(key, -1);
+    public ArrayList<Object> scan(long cursor) {
+        return scan(cursor, null, Storage.SCAN_DEFAULT_COUNT);
     }
 
     /**
      * {@inheritDoc}
      */
-    public int decrBy(String key, int integer) {
+    public ArrayList<Object> scan(long cursor, String pattern, int count) {
+        return shards != null ? shards.scan(cursor, pattern, count) : storage.scan(cursor, pattern, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long decr(String key) {
+        return incrBy(key, -1L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long decrBy(String key, long integer) {
+        if (integer == Long.MIN_VALUE) {
+            throw new ArithmeticException("increment or decrement would overflow");
+        }
         return incrBy(key, -integer);
     }
 
     /**
      * {@inheritDoc}
      */
-    public int incr(String key) {
-        return incrBy(key, 1);
+    public long incr(String key) {
+        return incrBy(key, 1L);
     }
 
     /**
      * {@inheritDoc}
      */
-    public int incrBy(String key, int integer) {
-        int newValue = integer;
-        try {
-            Object o = storage.get(key);
-            if (o instanceof Integer) {
-                newValue += (Integer) o;
-                set(key, newValue);
-            } else {
-                set(key, integer);
-            }
-        } catch (NonExistentKeyException e) {
-            set(key, integer);
+    public long incrBy(String key, long integer) {
+        if (shards != null) {
+            return shards.call(key, s -> s.incrBy(key, integer));
         }
-        return newValue;
+        // not through route() so that the result is not boxed
+        return storage.incrBy(key, integer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double incrByFloat(String key, double increment) {
+        if (shards != null) {
+            return shards.call(key, s -> s.incrByFloat(key, increment));
+        }
+        return storage.incrByFloat(key, increment);
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean del(String key) {
-        try {
-            storage.remove(key);
-            return true;
-        } catch (NonExistentKeyException e) {
-            return false;
+        return route(key, s -> {
+            try {
+                s.remove(key);
+                return true;
+            } catch (NonExistentKeyException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean expire(String key, long seconds) {
+        if (seconds > Long.MAX_VALUE / 1000L) {
+            return pexpire(key, Long.MAX_VALUE);
         }
+        return pexpire(key, seconds < Long.MIN_VALUE / 1000L ? Long.MIN_VALUE : seconds * 1000L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean pexpire(String key, long milliseconds) {
+        long timestamp = timestampIn(milliseconds);
+        startReaper();
+        return route(key, s -> s.expireAt(key, timestamp));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long ttl(String key) {
+        long pttl = pttl(key);
+        return pttl < 0L ? pttl : (pttl + 500L) / 1000L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long pttl(String key) {
+        return route(key, s -> s.pttl(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean persist(String key) {
+        return route(key, s -> s.persist(key));
+    }
+
+    /**
+     * Get the time at which a timeout starting now ends.
+     * @param milliseconds The timeout in milliseconds, <= 0 for a time in the past.
+     * @return The time in milliseconds since the epoch, Long.MAX_VALUE if it is too far to be represented.
+     */
+    private static long timestampIn(long milliseconds) {
+        long now = System.currentTimeMillis();
+        return milliseconds > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + milliseconds;
     }
 
     /*----------------------------------------------------------------------------------------------------------------*/
@@ -251,70 +757,204 @@ public class Server implements RedisLikeServer {
      * {@inheritDoc}
      */
     public Object lindex(String key, int index) {
-        return storage.lindex(key, index);
+        return route(key, s -> s.lindex(key, index));
     }
 
     /**
      * {@inheritDoc}
      */
     public int llen(String key) {
-        return storage.llen(key);
+        return route(key, s -> s.llen(key));
     }
 
     /**
      * {@inheritDoc}
      */
     public Object lpop(String key) {
-        return storage.lPop(key);
+        return route(key, s -> s.lPop(key));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean lpush(String key, Object value) {
-        return storage.lPush(key, value);
+        boolean pushed = route(key, s -> s.lPush(key, value));
+        if (pushed) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int lpush(String key, Object[] values) {
+        int pushed = route(key, s -> s.lPush(key, values));
+        if (pushed > 0) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean lpush(String key, Object value, int maxLength) throws IllegalArgumentException {
+        boolean pushed = route(key, s -> s.lPush(key, value, maxLength));
+        if (pushed) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int lpush(String key, Object[] values, int maxLength) throws IllegalArgumentException {
+        int pushed = route(key, s -> s.lPush(key, values, maxLength));
+        if (pushed > 0) {
+            waiters.signal(key);
+        }
+        return pushed;
     }
 
     /**
      * {@inheritDoc}
      */
     public ArrayList<Object> lrange(String key, int start, int end) {
-        return storage.lrange(key, start, end);
+        return route(key, s -> s.lrange(key, start, end));
     }
 
     /**
      * {@inheritDoc}
      */
     public int lrem(String key, int count, Object value) {
-        return storage.lrem(key, count, value);
+        return route(key, s -> s.lrem(key, count, value));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean lset(String key, int index, Object value) {
-        return storage.lset(key, index, value);
+        return route(key, s -> s.lset(key, index, value));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean ltrim(String key, int start, int end) {
-        return storage.ltrim(key, start, end);
+        return route(key, s -> s.ltrim(key, start, end));
     }
 
     /**
      * {@inheritDoc}
      */
     public Object rpop(String key) {
-        return storage.rPop(key);
+        return route(key, s -> s.rPop(key));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean rpush(String key, Object value) {
-        return storage.rPush(key, value);
+        boolean pushed = route(key, s -> s.rPush(key, value));
+        if (pushed) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int rpush(String key, Object[] values) {
+        int pushed = route(key, s -> s.rPush(key, values));
+        if (pushed > 0) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean rpush(String key, Object value, int maxLength) throws IllegalArgumentException {
+        boolean pushed = route(key, s -> s.rPush(key, value, maxLength));
+        if (pushed) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int rpush(String key, Object[] values, int maxLength) throws IllegalArgumentException {
+        int pushed = route(key, s -> s.rPush(key, values, maxLength));
+        if (pushed > 0) {
+            waiters.signal(key);
+        }
+        return pushed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> blpop(String[] keys, long timeout) {
+        return waiters.await(keys, timeout, key -> route(key, s -> s.lPop(key)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> brpop(String[] keys, long timeout) {
+        return waiters.await(keys, timeout, key -> route(key, s -> s.rPop(key)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object blmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft, long timeout) {
+        ArrayList<Object> res = waiters.await(new String[]{srckey}, timeout,
+                                              key -> move(key, dstkey, fromLeft, toLeft));
+        if (res == null) {
+            return null;
+        }
+        waiters.signal(dstkey);
+        return res.get(1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object lmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft) {
+        Object moved = move(srckey, dstkey, fromLeft, toLeft);
+        if (moved != null) {
+            waiters.signal(dstkey);
+        }
+        return moved;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object rpoplpush(String srckey, String dstkey) {
+        return lmove(srckey, dstkey, false, true);
+    }
+
+    /**
+     * Move an element from one list to another, see Storage.lmove().
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @param fromLeft True to remove the element with LPOP, false to remove it with RPOP.
+     * @param toLeft True to add the element with LPUSH, false to add it with RPUSH.
+     * @return The moved element, null if none was moved.
+     */
+    private Object move(String srckey, String dstkey, boolean fromLeft, boolean toLeft) {
+        if (shards != null) {
+            return shards.lmove(srckey, dstkey, fromLeft, toLeft);
+        }
+        return storage.lmove(srckey, dstkey, fromLeft, toLeft);
     }
 
     /*----------------------------------------------------------------------------------------------------------------*/
@@ -327,69 +967,135 @@ public class Server implements RedisLikeServer {
      * {@inheritDoc}
      */
     public int sadd(String key, Object member) {
-        return storage.sadd(key, member);
+        return route(key, s -> s.sadd(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int sadd(String key, Object[] members) {
+        return route(key, s -> s.sadd(key, members));
     }
 
     /**
      * {@inheritDoc}
      */
     public int scard(String key) {
-        return storage.scard(key);
+        return route(key, s -> s.scard(key));
     }
 
     /**
      * {@inheritDoc}
      */
     public int srem(String key, Object member) {
-        return storage.srem(key, member);
+        return route(key, s -> s.srem(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int srem(String key, Object[] members) {
+        return route(key, s -> s.srem(key, members));
     }
 
     /**
      * {@inheritDoc}
      */
     public int sismember(String key, Object member) {
-        return storage.sismember(key, member);
+        return route(key, s -> s.sismember(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int[] smismember(String key, Object[] members) {
+        return route(key, s -> s.smismember(key, members));
     }
 
     /**
      * {@inheritDoc}
      */
     public List<Object> smembers(String key) {
-        return storage.smembers(key);
+        return route(key, s -> s.smembers(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> sscan(String key, long cursor) {
+        return sscan(key, cursor, null, Storage.SCAN_DEFAULT_COUNT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> sscan(String key, long cursor, String pattern, int count) {
+        return route(key, s -> s.sscan(key, cursor, pattern, count));
     }
 
     /**
      * {@inheritDoc}
      */
     public List<Object> sinter(String[] keys) {
-        return storage.sinter(keys);
+        return routeAll(keys, s -> s.sinter(keys));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int sintercard(String[] keys) {
+        return sintercard(keys, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int sintercard(String[] keys, int limit) {
+        return routeAll(keys, s -> s.sintercard(keys, limit));
     }
 
     /**
      * {@inheritDoc}
      */
     public int sinterstore(String[] keys) {
-        return storage.sinterstore(keys);
+        return routeAllAndStore(keys, s -> s.sinterstore(keys));
     }
 
     /**
      * {@inheritDoc}
      */
     public Object spop(String key) {
-        return storage.spop(key);
+        return route(key, s -> s.spop(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<Object> spop(String key, int count) throws IllegalArgumentException {
+        return route(key, s -> s.spop(key, count));
     }
 
     /**
      * {@inheritDoc}
      */
     public Object srandmember(String key) {
-        return storage.srandmember(key);
+        return route(key, s -> s.srandmember(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<Object> srandmember(String key, int count) {
+        return route(key, s -> s.srandmember(key, count));
     }
 
     /**
      * {@inheritDoc}
      */
     public int smove(String srckey, String dstkey, Object member) {
+        if (shards != null) {
+            return shards.smove(srckey, dstkey, member);
+        }
         return storage.smove(srckey, dstkey, member);
     }
 
@@ -397,27 +1103,221 @@ public class Server implements RedisLikeServer {
      * {@inheritDoc}
      */
     public List<Object> sunion(String[] keys) {
-        return storage.sunion(keys);
+        return routeAll(keys, s -> s.sunion(keys));
     }
 
     /**
      * {@inheritDoc}
      */
     public int sunionstore(String[] keys) {
-        return storage.sunionstore(keys);
+        return routeAllAndStore(keys, s -> s.sunionstore(keys));
     }
 
     /**
      * {@inheritDoc}
      */
     public List<Object> sdiff(String[] keys) {
-        return storage.sdiff(keys);
+        return routeAll(keys, s -> s.sdiff(keys));
     }
 
     /**
      * {@inheritDoc}
      */
     public int sdiffstore(String[] keys) {
-        return storage.sdiffstore(keys);
+        return routeAllAndStore(keys, s -> s.sdiffstore(keys));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  SORTED SETS                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * {@inheritDoc}
+     */
+    public int zadd(String key, double score, Object member) {
+        return route(key, s -> s.zadd(key, score, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int zadd(String key, double[] scores, Object[] members) {
+        return route(key, s -> s.zadd(key, scores, members));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int zcard(String key) {
+        return route(key, s -> s.zcard(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Double zscore(String key, Object member) {
+        return route(key, s -> s.zscore(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int zrem(String key, Object member) {
+        return route(key, s -> s.zrem(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int zrem(String key, Object[] members) {
+        return route(key, s -> s.zrem(key, members));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer zrank(String key, Object member) {
+        return route(key, s -> s.zrank(key, member));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> zrange(String key, int start, int stop) {
+        return zrange(key, start, stop, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> zrange(String key, int start, int stop, boolean withScores) {
+        return route(key, s -> s.zrange(key, start, stop, withScores));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> zrangebyscore(String key, double min, double max) {
+        return zrangebyscore(key, min, max, false, 0, -1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> zrangebyscore(String key, double min, double max, boolean withScores, int offset,
+                                           int count) {
+        return route(key, s -> s.zrangebyscore(key, min, max, withScores, offset, count));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                     HASHES                                                     */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hset(String key, Object field, Object value) {
+        return route(key, s -> s.hset(key, field, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hset(String key, Object[] fields, Object[] values) {
+        return route(key, s -> s.hset(key, fields, values));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object hget(String key, Object field) {
+        return route(key, s -> s.hget(key, field));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public ArrayList<Object> hmget(String key, Object[] fields) {
+        return route(key, s -> s.hmget(key, fields));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Long hincrby(String key, Object field, long increment) {
+        return route(key, s -> s.hincrby(key, field, increment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hdel(String key, Object[] fields) {
+        return route(key, s -> s.hdel(key, fields));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hlen(String key) {
+        return route(key, s -> s.hlen(key));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                     BITMAPS                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * {@inheritDoc}
+     */
+    public int setbit(String key, long offset, int value) {
+        return route(key, s -> s.setbit(key, offset, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getbit(String key, long offset) {
+        return route(key, s -> s.getbit(key, offset));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long bitcount(String key) {
+        return route(key, s -> s.bitcount(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long bitcount(String key, long start, long end) {
+        return route(key, s -> s.bitcount(key, start, end));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Long bitpos(String key, int bit) {
+        return route(key, s -> s.bitpos(key, bit));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Long bitpos(String key, int bit, long start, long end) {
+        return route(key, s -> s.bitpos(key, bit, start, end));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long bitop(String operation, String[] keys) {
+        return routeAllAndStore(keys, s -> s.bitop(operation, keys));
     }
-}
\ No newline at end of file
+}
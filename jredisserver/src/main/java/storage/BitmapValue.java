@@ -0,0 +1,325 @@
+package storage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A bitmap: a string of bits addressed by their offset, like the daily-active flags of users indexed by their id.
+ * <p>
+ *     The bits are packed 64 to a long, so that a million flags take 128 KB where a set of ids takes about 50 bytes
+ *     per member. Bits are numbered like in the bytes of a string: offset 0 is the most significant bit of the first
+ *     byte, and the first byte is the most significant byte of the first word. This keeps the bytes of toObject() in
+ *     the order of the offsets, and lets BITPOS find the first bit of a word with Long.numberOfLeadingZeros().
+ *
+ *     The bitmap has a length in bytes, the length of the string it stands for, that grows with the highest offset
+ *     set. The bits past the length are always 0, so that whole words can be counted and combined without masking
+ *     their tail.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it. combine() reads its bitmaps from the threads of a
+ *     ForkJoinPool, which is fine as long as the caller holds their locks until it returns.
+ * </p>
+ */
+final class BitmapValue extends Value {
+    /**
+     * The highest offset of a bit, so that a bitmap takes at most 512 MB.
+     */
+    static final long MAX_OFFSET = (1L << 32) - 1;
+
+    /**
+     * Number of words of the largest source from which combine() is split across the common ForkJoinPool.
+     */
+    static final int PARALLEL_THRESHOLD = 64 * 1024;
+
+    /**
+     * Number of words combined by each task of a parallel combine().
+     */
+    private static final int CHUNK = 16 * 1024;
+
+    /**
+     * The operations of combine().
+     */
+    enum Op {
+        AND, OR, XOR, NOT
+    }
+
+    /**
+     * The bits, 64 per word, the first bit in the most significant bit of the first word.
+     */
+    private long[] words;
+
+    /**
+     * The length of the bitmap in bytes.
+     */
+    private int length;
+
+    /**
+     * Constructor of an empty bitmap.
+     */
+    BitmapValue() {
+        this(new long[0], 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param words The bits, adopted as is, 0 past length.
+     * @param length The length of the bitmap in bytes, at most 8 * words.length.
+     */
+    private BitmapValue(long[] words, int length) {
+        super(Type.BITMAP);
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Get the estimated size of the bits, on top of SizeEstimator.BITMAP_VALUE.
+     *
+     * @return The size of the array of words.
+     */
+    long weight() {
+        return SizeEstimator.align(SizeEstimator.ARRAY_HEADER + 8L * words.length);
+    }
+
+    /**
+     * Get the length of the bitmap.
+     *
+     * @return The length of the bitmap in bytes.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Get a bit.
+     *
+     * @param offset The offset of the bit, >= 0.
+     * @return The bit, 0 past the end of the bitmap.
+     */
+    int get(long offset) {
+        int word = (int) (offset >>> 6);
+        if (word >= words.length) {
+            return 0;
+        }
+        return (int) (words[word] >>> (63 - (offset & 63))) & 1;
+    }
+
+    /**
+     * Set a bit, growing the bitmap if the offset is past its end.
+     *
+     * @param offset The offset of the bit, from 0 to MAX_OFFSET.
+     * @param bit The new bit, 0 or 1.
+     * @return The previous bit.
+     */
+    int set(long offset, int bit) {
+        int bytes = (int) (offset >>> 3) + 1;
+        if (bytes > length) {
+            int needed = (bytes + 7) >>> 3;
+            if (needed > words.length) {
+                // grow by half to amortize a bitmap filled by increasing offsets, like the ids of new users
+                int capacity = (int) Math.min((MAX_OFFSET >>> 6) + 1,
+                                              Math.max(needed, words.length + (words.length >> 1)));
+                long[] grown = new long[capacity];
+                System.arraycopy(words, 0, grown, 0, words.length);
+                words = grown;
+            }
+            length = bytes;
+        }
+        int word = (int) (offset >>> 6);
+        long mask = 1L << (63 - (offset & 63));
+        int old = (words[word] & mask) != 0 ? 1 : 0;
+        if (bit != 0) {
+            words[word] |= mask;
+        } else {
+            words[word] &= ~mask;
+        }
+        return old;
+    }
+
+    /**
+     * Count the bits set in a range of bytes.
+     *
+     * @param start The first byte, >= 0.
+     * @param end The last byte, included, < length(). Nothing is counted if end < start.
+     * @return The number of bits set.
+     */
+    long count(int start, int end) {
+        if (start > end) {
+            return 0;
+        }
+        int first = start >>> 3;
+        int last = end >>> 3;
+        long head = -1L >>> (8 * (start & 7));
+        long tail = -1L << (8 * (7 - (end & 7)));
+        if (first == last) {
+            return Long.bitCount(words[first] & head & tail);
+        }
+        long res = Long.bitCount(words[first] & head) + Long.bitCount(words[last] & tail);
+        for (int i = first + 1; i < last; i++) {
+            res += Long.bitCount(words[i]);
+        }
+        return res;
+    }
+
+    /**
+     * Find the first bit equal to a given bit in a range of bytes, a word at a time.
+     *
+     * @param bit The bit to look for, 0 or 1.
+     * @param start The first byte, >= 0.
+     * @param end The last byte, included, < length(). Nothing is found if end < start.
+     * @return The offset of the first bit found, -1 if there is none.
+     */
+    long position(int bit, int start, int end) {
+        if (start > end) {
+            return -1L;
+        }
+        int first = start >>> 3;
+        int last = end >>> 3;
+        long head = -1L >>> (8 * (start & 7));
+        long tail = -1L << (8 * (7 - (end & 7)));
+        for (int i = first; i <= last; i++) {
+            // look for ones: the zeros are flipped
+            long w = bit != 0 ? words[i] : ~words[i];
+            if (i == first) {
+                w &= head;
+            }
+            if (i == last) {
+                w &= tail;
+            }
+            if (w != 0) {
+                return 64L * i + Long.numberOfLeadingZeros(w);
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Combine bitmaps a word at a time, in parallel from PARALLEL_THRESHOLD words.
+     * <p>
+     *     Shorter bitmaps are padded with zeros, and the result is as long as the longest one. NOT flips the bits of
+     *     its single bitmap up to its length.
+     * </p>
+     *
+     * @param op The operation.
+     * @param bitmaps The bitmaps, left untouched, a single one for NOT. Null stands for an empty bitmap.
+     * @return A new bitmap.
+     */
+    static BitmapValue combine(Op op, BitmapValue[] bitmaps) {
+        int length = 0;
+        for (BitmapValue b : bitmaps) {
+            if (b != null) {
+                length = Math.max(length, b.length);
+            }
+        }
+        long[] res = new long[(length + 7) >>> 3];
+        if (res.length >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new CombineTask(op, bitmaps, res, 0, res.length));
+        } else {
+            combine(op, bitmaps, res, 0, res.length);
+        }
+        if (op == Op.NOT && (length & 7) != 0) {
+            // clear the bytes past the length that NOT has set
+            res[res.length - 1] &= -1L << (8 * (8 - (length & 7)));
+        }
+        return new BitmapValue(res, length);
+    }
+
+    /**
+     * Combine a range of words of bitmaps.
+     *
+     * @param op The operation.
+     * @param bitmaps The bitmaps, null for an empty one.
+     * @param res The words of the result.
+     * @param from The first word.
+     * @param to The word after the last one.
+     */
+    private static void combine(Op op, BitmapValue[] bitmaps, long[] res, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long w = wordOf(bitmaps[0], i);
+            switch (op) {
+                case AND:
+                    for (int j = 1; j < bitmaps.length && w != 0; j++) {
+                        w &= wordOf(bitmaps[j], i);
+                    }
+                    break;
+                case OR:
+                    for (int j = 1; j < bitmaps.length; j++) {
+                        w |= wordOf(bitmaps[j], i);
+                    }
+                    break;
+                case XOR:
+                    for (int j = 1; j < bitmaps.length; j++) {
+                        w ^= wordOf(bitmaps[j], i);
+                    }
+                    break;
+                default:
+                    w = ~w;
+            }
+            res[i] = w;
+        }
+    }
+
+    /**
+     * Get a word of a bitmap, padded with zeros.
+     *
+     * @param bitmap The bitmap, null for an empty one.
+     * @param i The index of the word.
+     * @return The word, 0 past the end of the bitmap.
+     */
+    private static long wordOf(BitmapValue bitmap, int i) {
+        return bitmap != null && i < bitmap.words.length ? bitmap.words[i] : 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     *     The bitmap is returned as the bytes of the string it stands for.
+     * </p>
+     */
+    @Override
+    Object toObject() {
+        byte[] res = new byte[length];
+        for (int i = 0; i < length; i++) {
+            res[i] = (byte) (words[i >>> 3] >>> (56 - 8 * (i & 7)));
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    BitmapValue copy() {
+        return new BitmapValue(words.clone(), length);
+    }
+
+    /**
+     * Combines a range of words of bitmaps, split in halves down to CHUNK words.
+     */
+    private static final class CombineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Op op;
+        private final BitmapValue[] bitmaps;
+        private final long[] res;
+        private final int from;
+        private final int to;
+
+        CombineTask(Op op, BitmapValue[] bitmaps, long[] res, int from, int to) {
+            this.op = op;
+            this.bitmaps = bitmaps;
+            this.res = res;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                combine(op, bitmaps, res, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CombineTask(op, bitmaps, res, from, mid), new CombineTask(op, bitmaps, res, mid, to));
+        }
+    }
+}
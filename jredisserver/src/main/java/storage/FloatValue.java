@@ -0,0 +1,92 @@
+package storage;
+
+/**
+ * A 64 bits floating point number, modified in place by INCRBYFLOAT.
+ * <p>
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class FloatValue extends Value {
+    /**
+     * Message of the exception thrown when an increment does not give a finite number.
+     */
+    static final String ERROR_NOT_FINITE = "increment would produce NaN or Infinity";
+
+    /**
+     * The number.
+     */
+    private double value;
+
+    /**
+     * Constructor.
+     *
+     * @param value The number.
+     */
+    FloatValue(double value) {
+        super(Type.FLOAT);
+        this.value = value;
+    }
+
+    /**
+     * Get the number.
+     *
+     * @return The number.
+     */
+    double get() {
+        return value;
+    }
+
+    /**
+     * Tell whether the number is an integer that fits in a long, so that INCRBY can be used on it.
+     *
+     * @return True if the number is an integer.
+     */
+    boolean isInteger() {
+        return value == Math.rint(value) && value >= Long.MIN_VALUE && value < Long.MAX_VALUE;
+    }
+
+    /**
+     * Add a number to this one.
+     *
+     * @param increment The increment, negative to decrement.
+     * @return The new value of the number.
+     * @throws ArithmeticException When the result is NaN or infinite. The number is left unchanged.
+     */
+    double incrBy(double increment) throws ArithmeticException {
+        double res = add(value, increment);
+        value = res;
+        return res;
+    }
+
+    /**
+     * Add two numbers, making sure the result is finite.
+     *
+     * @param a The first number.
+     * @param b The second number.
+     * @return a + b.
+     * @throws ArithmeticException When the result is NaN or infinite.
+     */
+    static double add(double a, double b) throws ArithmeticException {
+        double res = a + b;
+        if (Double.isNaN(res) || Double.isInfinite(res)) {
+            throw new ArithmeticException(ERROR_NOT_FINITE);
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object toObject() {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Value copy() {
+        return new FloatValue(value);
+    }
+}
@@ -0,0 +1,98 @@
+package storage;
+
+/**
+ * Glob-style patterns, as used by the MATCH option of SCAN and SSCAN.
+ * <p>
+ *     - ? matches any character,
+ *     - * matches any sequence of characters, even empty,
+ *     - [abc] matches one of the characters between the brackets, [a-z] one in the range, [^abc] any other one,
+ *     - \ escapes the next character, so that it matches itself.
+ *     A * is retried at every position after the characters it matched so far, the last one only: O(N * M) at worst
+ *     where N and M are the lengths of the pattern and of the string.
+ * </p>
+ */
+final class Glob {
+    private Glob() {}
+
+    /**
+     * Tell whether a string matches a pattern.
+     *
+     * @param pattern The pattern.
+     * @param s The string.
+     * @return True if the whole string matches the pattern.
+     */
+    static boolean matches(String pattern, String s) {
+        int p = 0;
+        int i = 0;
+        int starP = -1;
+        int starI = -1;
+        while (i < s.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                starP = ++p;
+                starI = i;
+                continue;
+            }
+            int next = p < pattern.length() ? matchOne(pattern, p, s.charAt(i)) : -1;
+            if (next >= 0) {
+                p = next;
+                i++;
+            } else if (starP >= 0) {
+                // let the last * match one more character
+                p = starP;
+                i = ++starI;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * Match a character against the element of a pattern at a position, which is not a *.
+     *
+     * @param pattern The pattern.
+     * @param p The position of the element: a character, a ?, an escaped character or a class between brackets.
+     * @param c The character.
+     * @return The position of the next element if the character matches, -1 otherwise.
+     */
+    private static int matchOne(String pattern, int p, char c) {
+        char e = pattern.charAt(p);
+        if (e == '?') {
+            return p + 1;
+        }
+        if (e == '\\' && p + 1 < pattern.length()) {
+            return pattern.charAt(p + 1) == c ? p + 2 : -1;
+        }
+        if (e != '[') {
+            return e == c ? p + 1 : -1;
+        }
+        int k = p + 1;
+        boolean negated = k < pattern.length() && pattern.charAt(k) == '^';
+        if (negated) {
+            k++;
+        }
+        boolean found = false;
+        // a ] right after the opening bracket is a member of the class, an unclosed class runs to the end
+        for (int first = k; k < pattern.length() && (pattern.charAt(k) != ']' || k == first); k++) {
+            char from = pattern.charAt(k);
+            if (from == '\\' && k + 1 < pattern.length()) {
+                from = pattern.charAt(++k);
+            }
+            char to = from;
+            if (k + 2 < pattern.length() && pattern.charAt(k + 1) == '-' && pattern.charAt(k + 2) != ']') {
+                to = pattern.charAt(k + 2);
+                k += 2;
+                if (to == '\\' && k + 1 < pattern.length()) {
+                    to = pattern.charAt(++k);
+                }
+            }
+            if (Math.min(from, to) <= c && c <= Math.max(from, to)) {
+                found = true;
+            }
+        }
+        return found != negated ? Math.min(k + 1, pattern.length()) : -1;
+    }
+}
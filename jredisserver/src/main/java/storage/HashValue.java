@@ -0,0 +1,317 @@
+package storage;
+
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * A hash: fields mapped to values, like the attributes of an object stored at a single key.
+ * <p>
+ *     Small hashes are packed into a single array of fields and values, the value of each field right after it, as
+ *     long as they have at most maxPackEntries fields: a lookup scans the fields, which for a few dozens of them is as
+ *     fast as hashing and saves the index and the two arrays of a map. A hash growing past maxPackEntries is converted
+ *     for good to an IndexedMap, an open-addressing map, so that lookups stay O(1) whatever the number of fields. The
+ *     conversion is transparent to the callers; with maxPackEntries at 0, the hashes are always IndexedMaps.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class HashValue extends Value {
+    /**
+     * Default maximum number of fields of a packed hash.
+     */
+    static final int DEFAULT_MAX_PACK_ENTRIES = 128;
+
+    /**
+     * The reason why an increment fails on a value that is not an integer.
+     */
+    static final String ERROR_NOT_INTEGER = "hash value is not an integer";
+
+    /**
+     * The minimum number of fields a pack has room for.
+     */
+    private static final int MIN_PACK_CAPACITY = 4;
+
+    /**
+     * The maximum number of fields of the hash while packed.
+     */
+    private final int maxPackEntries;
+
+    /**
+     * The fields and values while the hash is packed, field i at 2 * i and its value at 2 * i + 1, null once
+     * converted.
+     */
+    private Object[] pack;
+
+    /**
+     * The number of fields of the pack.
+     */
+    private int packSize;
+
+    /**
+     * The fields and values once the hash is converted, null while it is packed.
+     */
+    private IndexedMap map;
+
+    /**
+     * The estimated size of the fields and values, see SizeEstimator.sizeOfHashEntry().
+     */
+    private long elementsWeight;
+
+    /**
+     * Constructor of an empty hash, packed with the default limit.
+     */
+    HashValue() {
+        this(DEFAULT_MAX_PACK_ENTRIES, 0);
+    }
+
+    /**
+     * Constructor of an empty hash.
+     *
+     * @param maxPackEntries The maximum number of fields of the hash while packed, 0 never to pack it.
+     * @param expectedSize The number of fields the hash will hold without growing. Above maxPackEntries the hash
+     *                     starts as an IndexedMap.
+     */
+    HashValue(int maxPackEntries, int expectedSize) {
+        super(Type.HASH);
+        this.maxPackEntries = maxPackEntries;
+        if (maxPackEntries > 0 && expectedSize <= maxPackEntries) {
+            pack = new Object[2 * Math.max(MIN_PACK_CAPACITY, expectedSize)];
+        } else {
+            map = new IndexedMap(expectedSize);
+        }
+    }
+
+    /**
+     * Constructor of a copy.
+     *
+     * @param other The hash to copy.
+     */
+    private HashValue(HashValue other) {
+        super(Type.HASH);
+        this.maxPackEntries = other.maxPackEntries;
+        this.pack = other.pack != null ? other.pack.clone() : null;
+        this.packSize = other.packSize;
+        this.map = other.map != null ? other.map.copy() : null;
+        this.elementsWeight = other.elementsWeight;
+    }
+
+    /**
+     * Tell whether the hash is packed.
+     *
+     * @return True if the hash is held in a single array, false if it is held in an IndexedMap.
+     */
+    boolean isPacked() {
+        return pack != null;
+    }
+
+    /**
+     * Get the estimated size of the fields and values, on top of SizeEstimator.HASH_VALUE.
+     * <p>
+     *     Kept up to date by every operation, in O(1).
+     * </p>
+     *
+     * @return The size of the pack or of the IndexedMap, fields and values included.
+     */
+    long weight() {
+        if (pack != null) {
+            return SizeEstimator.align(SizeEstimator.ARRAY_HEADER + pack.length * SizeEstimator.REFERENCE)
+                   + elementsWeight;
+        }
+        return SizeEstimator.HASH_OVERHEAD + map.size() * SizeEstimator.HASH_SLOT + elementsWeight;
+    }
+
+    /**
+     * Get the number of fields.
+     *
+     * @return The number of fields.
+     */
+    int size() {
+        return pack != null ? packSize : map.size();
+    }
+
+    /**
+     * Get the value of a field, scanning the fields while the hash is packed.
+     *
+     * @param field The field.
+     * @return The value, null if the field is not in the hash.
+     */
+    Object get(Object field) {
+        if (pack != null) {
+            int i = indexOf(field);
+            return i >= 0 ? pack[i + 1] : null;
+        }
+        return map.get(field);
+    }
+
+    /**
+     * Set the value of a field, converting the hash to an IndexedMap if the pack is full.
+     *
+     * @param field The field.
+     * @param value The value, not null.
+     * @return True if the field was added, false if it was already in the hash and its value was replaced.
+     */
+    boolean put(Object field, Object value) {
+        Object old;
+        if (pack != null) {
+            int i = indexOf(field);
+            if (i >= 0) {
+                old = pack[i + 1];
+                pack[i + 1] = value;
+            } else if (packSize < maxPackEntries) {
+                if (2 * packSize == pack.length) {
+                    Object[] grown = new Object[Math.min(2 * pack.length, 2 * maxPackEntries)];
+                    System.arraycopy(pack, 0, grown, 0, 2 * packSize);
+                    pack = grown;
+                }
+                pack[2 * packSize] = field;
+                pack[2 * packSize + 1] = value;
+                packSize++;
+                old = null;
+            } else {
+                convert();
+                old = map.put(field, value);
+            }
+        } else {
+            old = map.put(field, value);
+        }
+        if (old == null) {
+            elementsWeight += SizeEstimator.sizeOfHashEntry(field, value);
+            return true;
+        }
+        elementsWeight += SizeEstimator.sizeOf(value) - SizeEstimator.sizeOf(old);
+        return false;
+    }
+
+    /**
+     * Remove a field.
+     *
+     * @param field The field.
+     * @return True if the field was removed, false if it was not in the hash.
+     */
+    boolean remove(Object field) {
+        Object old;
+        if (pack != null) {
+            int i = indexOf(field);
+            if (i < 0) {
+                return false;
+            }
+            old = pack[i + 1];
+            // fill the hole with the last field, the order of the fields does not matter
+            int last = 2 * (packSize - 1);
+            pack[i] = pack[last];
+            pack[i + 1] = pack[last + 1];
+            pack[last] = null;
+            pack[last + 1] = null;
+            packSize--;
+        } else {
+            old = map.remove(field);
+            if (old == null) {
+                return false;
+            }
+        }
+        elementsWeight -= SizeEstimator.sizeOfHashEntry(field, old);
+        return true;
+    }
+
+    /**
+     * Increment the integer value of a field, adding the field with the increment as value if it is not in the hash.
+     * <p>
+     *     Integers and strings holding an integer can be incremented, the field then holds a Long.
+     * </p>
+     *
+     * @param field The field.
+     * @param increment The increment, negative to decrement.
+     * @return The new value of the field.
+     * @throws ArithmeticException When the value is not an integer, or the new value would not fit in 64 bits. The
+     * value of the field is left unchanged.
+     */
+    long incrBy(Object field, long increment) throws ArithmeticException {
+        Object old = get(field);
+        long value = old != null ? integerValueOf(old) : 0L;
+        long res = value + increment;
+        // overflow iff both operands have the same sign and the result has the other one
+        if (((value ^ res) & (increment ^ res)) < 0L) {
+            throw new ArithmeticException(IntegerValue.ERROR_OVERFLOW);
+        }
+        put(field, res);
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     *     The fields are mapped to their value.
+     * </p>
+     */
+    @Override
+    Object toObject() {
+        HashMap<Object, Object> res = new HashMap<>();
+        if (pack != null) {
+            for (int i = 0; i < packSize; i++) {
+                res.put(pack[2 * i], pack[2 * i + 1]);
+            }
+        } else {
+            for (int i = 0; i < map.size(); i++) {
+                res.put(map.fieldAt(i), map.valueAt(i));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    HashValue copy() {
+        return new HashValue(this);
+    }
+
+    /**
+     * Find a field in the pack.
+     *
+     * @param field The field.
+     * @return The index of the field in the pack, its value being at the next index, -1 if it is not in the pack.
+     */
+    private int indexOf(Object field) {
+        int end = 2 * packSize;
+        for (int i = 0; i < end; i += 2) {
+            if (Objects.equals(pack[i], field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convert the pack to an IndexedMap, for good.
+     */
+    private void convert() {
+        map = new IndexedMap(packSize + 1);
+        for (int i = 0; i < packSize; i++) {
+            map.put(pack[2 * i], pack[2 * i + 1]);
+        }
+        pack = null;
+        packSize = 0;
+    }
+
+    /**
+     * Get the integer a value stands for, when incremented.
+     *
+     * @param value The value.
+     * @return The value as a long.
+     * @throws ArithmeticException When the value is not an integer.
+     */
+    private static long integerValueOf(Object value) throws ArithmeticException {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                throw new ArithmeticException(ERROR_NOT_INTEGER);
+            }
+        }
+        throw new ArithmeticException(ERROR_NOT_INTEGER);
+    }
+}
@@ -0,0 +1,268 @@
+package storage;
+
+import java.util.Objects;
+
+/**
+ * A map whose fields and values are stored densely in two arrays, indexed by a hash table of their positions.
+ * <p>
+ *     Works like IndexedSet, with the value of each field at the same position in a second array: the index is an
+ *     open-addressing table of ints, probed linearly and kept at most half full, holding the position plus one of the
+ *     field hashed to each slot. Lookups, additions and removals are O(1) on average, and a removal moves the last
+ *     field and its value into the hole, so the arrays never have gaps and are walked in O(size) without any node.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class IndexedMap {
+    /**
+     * The minimum length of the arrays of fields and values.
+     */
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Multiplier spreading the hash codes over the index (2^32 divided by the golden ratio).
+     */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /**
+     * The fields, size of them from index 0.
+     */
+    private Object[] fields;
+
+    /**
+     * The value of each field, at the same position.
+     */
+    private Object[] values;
+
+    /**
+     * The index: the position in fields plus one of the field hashed to each slot, 0 for an empty slot. Its length is
+     * a power of two at least twice the length of fields.
+     */
+    private int[] index;
+
+    /**
+     * 32 minus the log2 of the length of the index, to keep the high bits of a spread hash code.
+     */
+    private int shift;
+
+    /**
+     * The number of fields.
+     */
+    private int size;
+
+    /**
+     * Constructor of an empty map, sized for a number of fields.
+     *
+     * @param expectedSize The number of fields the map will hold without growing.
+     */
+    IndexedMap(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, expectedSize));
+    }
+
+    /**
+     * Get the number of fields.
+     *
+     * @return The number of fields.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the value of a field.
+     *
+     * @param field The field.
+     * @return The value, null if the field is not in the map.
+     */
+    Object get(Object field) {
+        int slot = find(field);
+        return slot >= 0 ? values[index[slot] - 1] : null;
+    }
+
+    /**
+     * Set the value of a field, adding the field if it is not in the map.
+     *
+     * @param field The field.
+     * @param value The value, not null.
+     * @return The previous value of the field, null if the field was added.
+     */
+    Object put(Object field, Object value) {
+        int slot = find(field);
+        if (slot >= 0) {
+            int p = index[slot] - 1;
+            Object old = values[p];
+            values[p] = value;
+            return old;
+        }
+        if (size == fields.length) {
+            resize(fields.length * 2);
+            slot = find(field);
+        }
+        fields[size] = field;
+        values[size++] = value;
+        index[-1 - slot] = size;
+        return null;
+    }
+
+    /**
+     * Remove a field.
+     *
+     * @param field The field.
+     * @return The value of the removed field, null if it was not in the map.
+     */
+    Object remove(Object field) {
+        int slot = find(field);
+        if (slot < 0) {
+            return null;
+        }
+        int position = index[slot] - 1;
+        Object old = values[position];
+        clearSlot(slot);
+        int last = size - 1;
+        if (position != last) {
+            fields[position] = fields[last];
+            values[position] = values[last];
+            index[slotOf(last)] = position + 1;
+        }
+        fields[last] = null;
+        values[last] = null;
+        size--;
+        if (fields.length > MIN_CAPACITY && size <= fields.length / 4) {
+            resize(fields.length / 2);
+        }
+        return old;
+    }
+
+    /**
+     * Get the field at a position of the arrays.
+     *
+     * @param position The position, from 0 to size() - 1. The positions change when fields are removed.
+     * @return The field.
+     */
+    Object fieldAt(int position) {
+        return fields[position];
+    }
+
+    /**
+     * Get the value at a position of the arrays.
+     *
+     * @param position The position, from 0 to size() - 1. The positions change when fields are removed.
+     * @return The value of fieldAt(position).
+     */
+    Object valueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * Copy the map.
+     *
+     * @return A new map holding the same fields and values, with the same positions.
+     */
+    IndexedMap copy() {
+        IndexedMap copy = new IndexedMap(0);
+        copy.fields = fields.clone();
+        copy.values = values.clone();
+        copy.index = index.clone();
+        copy.shift = shift;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Look a field up in the index.
+     *
+     * @param field The field.
+     * @return The slot holding the field, or -1 minus the empty slot where it would be inserted.
+     */
+    private int find(Object field) {
+        int mask = index.length - 1;
+        for (int slot = home(field); ; slot = (slot + 1) & mask) {
+            int p = index[slot];
+            if (p == 0) {
+                return -1 - slot;
+            }
+            if (Objects.equals(fields[p - 1], field)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Find the slot of the index pointing to a position of the arrays.
+     *
+     * @param position The position of a field.
+     * @return The slot holding position + 1.
+     */
+    private int slotOf(int position) {
+        int mask = index.length - 1;
+        int slot = home(fields[position]);
+        while (index[slot] != position + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empty a slot of the index, shifting back the following slots of the run that were pushed past it.
+     *
+     * @param slot The slot.
+     */
+    private void clearSlot(int slot) {
+        int mask = index.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = home(fields[index[i] - 1]);
+            // the slot can fill the hole unless its home is cyclically in (hole, i]
+            boolean stays = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+            if (!stays) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * Get the first slot of the index probed for a field.
+     *
+     * @param field The field.
+     * @return The slot.
+     */
+    private int home(Object field) {
+        return (Objects.hashCode(field) * SPREAD) >>> shift;
+    }
+
+    /**
+     * Change the length of the arrays and rebuild the index.
+     *
+     * @param capacity The new length of the arrays, at least size.
+     */
+    private void resize(int capacity) {
+        Object[] oldFields = fields;
+        Object[] oldValues = values;
+        allocate(capacity);
+        System.arraycopy(oldFields, 0, fields, 0, size);
+        System.arraycopy(oldValues, 0, values, 0, size);
+        int mask = index.length - 1;
+        for (int p = 0; p < size; p++) {
+            int slot = home(fields[p]);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = p + 1;
+        }
+    }
+
+    /**
+     * Allocate empty arrays and an empty index.
+     *
+     * @param capacity The length of the arrays.
+     */
+    private void allocate(int capacity) {
+        fields = new Object[capacity];
+        values = new Object[capacity];
+        int length = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        index = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+    }
+}
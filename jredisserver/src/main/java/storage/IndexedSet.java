@@ -0,0 +1,403 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * A set whose members are stored densely in an array, indexed by a hash table of their positions in the array.
+ * <p>
+ *     The index is an open-addressing table of ints, probed linearly and kept at most half full: it holds the position
+ *     plus one of each member, 0 marking an empty slot. Lookups, additions and removals are O(1) on average; a removal
+ *     moves the last member of the array into the hole, so the array never has gaps and a member picked at a uniformly
+ *     random position is a uniformly random member, in O(1) as well. The removed slots of the index are filled by
+ *     shifting the following ones back, so no tombstone ever slows the lookups down.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class IndexedSet implements Iterable<Object> {
+    /**
+     * The minimum length of the array of members.
+     */
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Multiplier spreading the hash codes over the index (2^32 divided by the golden ratio).
+     */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /**
+     * The members, size of them from index 0.
+     */
+    private Object[] members;
+
+    /**
+     * The index: the position in members plus one of the member hashed to each slot, 0 for an empty slot. Its length
+     * is a power of two at least twice the length of members.
+     */
+    private int[] index;
+
+    /**
+     * 32 minus the log2 of the length of the index, to keep the high bits of a spread hash code.
+     */
+    private int shift;
+
+    /**
+     * The number of members.
+     */
+    private int size;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * Constructor of an empty set.
+     */
+    IndexedSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructor of an empty set, sized for a number of members.
+     *
+     * @param expectedSize The number of members the set will hold without growing.
+     */
+    IndexedSet(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, expectedSize));
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The cardinality of the set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tell whether an object is a member of the set.
+     *
+     * @param member The object.
+     * @return True if the object is a member of the set.
+     */
+    boolean contains(Object member) {
+        return find(member) >= 0;
+    }
+
+    /**
+     * Add a member.
+     *
+     * @param member The member.
+     * @return True if the member was added, false if it was already in the set.
+     */
+    boolean add(Object member) {
+        int slot = find(member);
+        if (slot >= 0) {
+            return false;
+        }
+        if (size == members.length) {
+            resize(members.length * 2);
+            slot = find(member);
+        }
+        members[size++] = member;
+        index[-1 - slot] = size;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the set.
+     */
+    boolean remove(Object member) {
+        int slot = find(member);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(index[slot] - 1, slot);
+        return true;
+    }
+
+    /**
+     * Get the member at a position of the array.
+     *
+     * @param position The position, from 0 to size() - 1. The positions change when members are removed.
+     * @return The member.
+     */
+    Object get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return members[position];
+    }
+
+    /**
+     * Pick a random member.
+     *
+     * @param random The source of randomness.
+     * @return A member, null if the set is empty.
+     */
+    Object random(Random random) {
+        return size > 0 ? members[random.nextInt(size)] : null;
+    }
+
+    /**
+     * Remove a random member.
+     *
+     * @param random The source of randomness.
+     * @return The removed member, null if the set is empty.
+     */
+    Object removeRandom(Random random) {
+        if (size == 0) {
+            return null;
+        }
+        int position = random.nextInt(size);
+        Object member = members[position];
+        removeAt(position, slotOf(position));
+        return member;
+    }
+
+    /**
+     * Remove the members that are not in another set.
+     *
+     * @param other The other set.
+     */
+    void retainAll(IndexedSet other) {
+        // backwards, so that the last member moved into a hole has already been checked
+        for (int i = size - 1; i >= 0; i--) {
+            if (!other.contains(members[i])) {
+                removeAt(i, slotOf(i));
+            }
+        }
+    }
+
+    /**
+     * Remove the members that are in another set.
+     *
+     * @param other The other set.
+     */
+    void removeAll(IndexedSet other) {
+        if (other.size < size) {
+            for (int i = 0; i < other.size && size > 0; i++) {
+                remove(other.members[i]);
+            }
+        } else {
+            for (int i = size - 1; i >= 0; i--) {
+                if (other.contains(members[i])) {
+                    removeAt(i, slotOf(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the members to a list.
+     *
+     * @return A new list holding the members, in the order of the array.
+     */
+    ArrayList<Object> toList() {
+        return new ArrayList<>(Arrays.asList(members).subList(0, size));
+    }
+
+    /**
+     * Copy the members of the next slots of the index, in the order of their home slot.
+     * <p>
+     *     The cursor is a spread hash code: the slots are walked from the one the cursor falls in. Since the home slot
+     *     of a member is given by the high bits of its spread hash code, growing the index splits each slot into two
+     *     consecutive ones, and shrinking it merges two consecutive slots into one: a member whose spread hash code
+     *     is above the cursor stays in a slot after the one of the cursor. So a walk started at cursor 0 and resumed
+     *     at the returned cursors returns every member present during the whole walk at least once, whatever the
+     *     resizes in between. A member may be returned twice when the index shrinks.
+     * </p>
+     *
+     * @param cursor 0 to start the walk, or the cursor returned by the previous call, between 0 and 2^32 - 1.
+     * @param count The number of members after which to stop, once the members of a slot are all copied.
+     * @param dst The list where to add the members.
+     * @return The cursor where to resume the walk, 0 when the walk is over.
+     */
+    long scan(long cursor, int count, List<Object> dst) {
+        int mask = index.length - 1;
+        int n = 0;
+        int slot = (int) (cursor >>> shift);
+        while (slot < index.length && n < count) {
+            // the members whose home is slot are in the run of full slots starting at slot
+            for (int s = slot; index[s] != 0; s = (s + 1) & mask) {
+                Object m = members[index[s] - 1];
+                if (home(m) == slot) {
+                    dst.add(m);
+                    n++;
+                }
+            }
+            slot++;
+        }
+        return slot < index.length ? (long) slot << shift : 0L;
+    }
+
+    /**
+     * Copy the set.
+     *
+     * @return A new set holding the same members, with the same positions.
+     */
+    IndexedSet copy() {
+        IndexedSet copy = new IndexedSet(0);
+        copy.members = members.clone();
+        copy.index = index.clone();
+        copy.shift = shift;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Object next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                return members[i++];
+            }
+        };
+    }
+
+    /**
+     * Remove the member at a position, moving the last member into its place.
+     *
+     * @param position The position of the member in the array.
+     * @param slot The slot of the member in the index.
+     */
+    private void removeAt(int position, int slot) {
+        clearSlot(slot);
+        int last = size - 1;
+        if (position != last) {
+            members[position] = members[last];
+            index[slotOf(last)] = position + 1;
+        }
+        members[last] = null;
+        size--;
+        modCount++;
+        if (members.length > MIN_CAPACITY && size <= members.length / 4) {
+            resize(members.length / 2);
+        }
+    }
+
+    /**
+     * Look a member up in the index.
+     *
+     * @param member The member.
+     * @return The slot holding the member, or -1 minus the empty slot where it would be inserted.
+     */
+    private int find(Object member) {
+        int mask = index.length - 1;
+        for (int slot = home(member); ; slot = (slot + 1) & mask) {
+            int p = index[slot];
+            if (p == 0) {
+                return -1 - slot;
+            }
+            if (Objects.equals(members[p - 1], member)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Find the slot of the index pointing to a position of the array.
+     *
+     * @param position The position of a member.
+     * @return The slot holding position + 1.
+     */
+    private int slotOf(int position) {
+        int mask = index.length - 1;
+        int slot = home(members[position]);
+        while (index[slot] != position + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empty a slot of the index, shifting back the following slots of the run that were pushed past it.
+     *
+     * @param slot The slot.
+     */
+    private void clearSlot(int slot) {
+        int mask = index.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = home(members[index[i] - 1]);
+            // the slot can fill the hole unless its home is cyclically in (hole, i]
+            boolean stays = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+            if (!stays) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * Get the first slot of the index probed for a member.
+     *
+     * @param member The member.
+     * @return The slot.
+     */
+    private int home(Object member) {
+        return (Objects.hashCode(member) * SPREAD) >>> shift;
+    }
+
+    /**
+     * Change the length of the array and rebuild the index.
+     *
+     * @param capacity The new length of the array, at least size.
+     */
+    private void resize(int capacity) {
+        Object[] old = members;
+        allocate(capacity);
+        System.arraycopy(old, 0, members, 0, size);
+        int mask = index.length - 1;
+        for (int p = 0; p < size; p++) {
+            int slot = home(members[p]);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = p + 1;
+        }
+    }
+
+    /**
+     * Allocate an empty array and an empty index.
+     *
+     * @param capacity The length of the array.
+     */
+    private void allocate(int capacity) {
+        members = new Object[capacity];
+        int length = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        index = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+    }
+}
@@ -0,0 +1,474 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A set of integers, kept sorted in a single byte array.
+ * <p>
+ *     Every member takes the same number of bytes, 2, 4 or 8, the smallest width holding all of them: adding a member
+ *     that does not fit re-encodes the whole array with the wider width, for good. Lookups are binary searches, and
+ *     additions and removals shift the members after the position, so this is meant for small sets only.
+ *
+ *     The members are decoded back to the kind of objects they were added as, all the same: Integers, Longs or the
+ *     canonical decimal strings of integers (no sign but a leading minus, no leading zero), which is how the members
+ *     sent by the clients arrive. A set holding members of one kind never equals a member of another kind, like a
+ *     HashSet where Integer 1, Long 1 and "1" are three distinct members.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class IntSet implements Iterable<Object> {
+    /**
+     * Kind of the objects that can't be members.
+     */
+    static final byte NOT_INTEGER = -1;
+
+    /**
+     * Kind of the members, while the set is empty and can take any kind.
+     */
+    static final byte ANY = 0;
+
+    /**
+     * Kind of the members added as canonical decimal strings.
+     */
+    static final byte STRINGS = 1;
+
+    /**
+     * Kind of the members added as Integers.
+     */
+    static final byte INTEGERS = 2;
+
+    /**
+     * Kind of the members added as Longs.
+     */
+    static final byte LONGS = 3;
+
+    /**
+     * The minimum number of members the array can hold.
+     */
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * The members, size of them in increasing order, each on width bytes, little-endian.
+     */
+    private byte[] contents;
+
+    /**
+     * The kind of the members, see kindOf().
+     */
+    private byte kind = ANY;
+
+    /**
+     * The number of bytes of each member: 2, 4 or 8.
+     */
+    private int width = 2;
+
+    /**
+     * The number of members.
+     */
+    private int size;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * Constructor of an empty set.
+     */
+    IntSet() {
+        contents = new byte[MIN_CAPACITY * width];
+    }
+
+    /**
+     * Tell which kind of member an object would be.
+     *
+     * @param o The object.
+     * @return INTEGERS, LONGS or STRINGS, NOT_INTEGER if the object can't be a member.
+     */
+    static byte kindOf(Object o) {
+        if (o instanceof Integer) {
+            return INTEGERS;
+        }
+        if (o instanceof Long) {
+            return LONGS;
+        }
+        if (o instanceof String && isCanonical((String) o)) {
+            return STRINGS;
+        }
+        return NOT_INTEGER;
+    }
+
+    /**
+     * Tell whether a string is the canonical decimal form of a long, the one Long.toString() gives back.
+     *
+     * @param s The string.
+     * @return True if the string survives a round trip through a long.
+     */
+    private static boolean isCanonical(String s) {
+        int len = s.length();
+        int start = len > 0 && s.charAt(0) == '-' ? 1 : 0;
+        if (len == start || len - start > 19) {
+            return false;
+        }
+        if (s.charAt(start) == '0' && len > 1) {
+            // "0" only, neither "-0" nor "007"
+            return false;
+        }
+        for (int i = start; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (len - start < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(s);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the integer value of a member.
+     *
+     * @param member The member, whose kind is not NOT_INTEGER.
+     * @return Its value.
+     */
+    static long valueOf(Object member) {
+        return member instanceof String ? Long.parseLong((String) member) : ((Number) member).longValue();
+    }
+
+    /**
+     * Get the smallest width holding a value.
+     *
+     * @param v The value.
+     * @return 2, 4 or 8.
+     */
+    private static int widthOf(long v) {
+        if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+            return 2;
+        }
+        return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE ? 4 : 8;
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The cardinality of the set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of bytes of each member.
+     *
+     * @return 2, 4 or 8.
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * Get the length of the array.
+     *
+     * @return The number of bytes allocated for the members.
+     */
+    int capacity() {
+        return contents.length;
+    }
+
+    /**
+     * Tell whether all the members fit in an int.
+     *
+     * @return True if the smallest and the largest members are within the range of an int.
+     */
+    boolean fitsInInt() {
+        return size == 0 || (read(0) >= Integer.MIN_VALUE && read(size - 1) <= Integer.MAX_VALUE);
+    }
+
+    /**
+     * Tell whether an object can be added to the set.
+     *
+     * @param o The object.
+     * @return True if it is an integer of the kind of the members, or of any kind while the set is empty.
+     */
+    boolean accepts(Object o) {
+        byte k = kindOf(o);
+        return k != NOT_INTEGER && (kind == ANY || k == kind);
+    }
+
+    /**
+     * Tell whether an object is a member of the set, by binary search.
+     *
+     * @param member The object.
+     * @return True if the object is a member of the set.
+     */
+    boolean contains(Object member) {
+        return size > 0 && kindOf(member) == kind && search(valueOf(member)) >= 0;
+    }
+
+    /**
+     * Add a member.
+     *
+     * @param member The member, accepted by the set (see accepts()).
+     * @return True if the member was added, false if it was already in the set.
+     */
+    boolean add(Object member) {
+        long v = valueOf(member);
+        int pos = search(v);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -1 - pos;
+        int w = widthOf(v);
+        if (w > width) {
+            upgrade(w);
+        }
+        int capacity = contents.length / width;
+        if (size == capacity) {
+            contents = Arrays.copyOf(contents, (capacity + capacity / 2) * width);
+        }
+        System.arraycopy(contents, pos * width, contents, (pos + 1) * width, (size - pos) * width);
+        write(pos, v);
+        kind = kindOf(member);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the set.
+     */
+    boolean remove(Object member) {
+        if (size == 0 || kindOf(member) != kind) {
+            return false;
+        }
+        int pos = search(valueOf(member));
+        if (pos < 0) {
+            return false;
+        }
+        removeAt(pos);
+        return true;
+    }
+
+    /**
+     * Get the member at a position.
+     *
+     * @param position The position, from 0 to size() - 1, in increasing order of the members.
+     * @return The member.
+     */
+    Object get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return decode(read(position));
+    }
+
+    /**
+     * Pick a random member.
+     *
+     * @param random The source of randomness.
+     * @return A member, null if the set is empty.
+     */
+    Object random(Random random) {
+        return size > 0 ? decode(read(random.nextInt(size))) : null;
+    }
+
+    /**
+     * Remove a random member.
+     *
+     * @param random The source of randomness.
+     * @return The removed member, null if the set is empty.
+     */
+    Object removeRandom(Random random) {
+        if (size == 0) {
+            return null;
+        }
+        int position = random.nextInt(size);
+        Object member = decode(read(position));
+        removeAt(position);
+        return member;
+    }
+
+    /**
+     * Copy the members to a list.
+     *
+     * @return A new list holding the members, in increasing order.
+     */
+    ArrayList<Object> toList() {
+        ArrayList<Object> res = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            res.add(decode(read(i)));
+        }
+        return res;
+    }
+
+    /**
+     * Copy the set.
+     *
+     * @return A new set holding the same members.
+     */
+    IntSet copy() {
+        IntSet copy = new IntSet();
+        copy.contents = contents.clone();
+        copy.kind = kind;
+        copy.width = width;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Object next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                return decode(read(i++));
+            }
+        };
+    }
+
+    /**
+     * Remove the member at a position, shifting the following ones.
+     *
+     * @param position The position.
+     */
+    private void removeAt(int position) {
+        System.arraycopy(contents, (position + 1) * width, contents, position * width, (size - position - 1) * width);
+        size--;
+        modCount++;
+        if (size == 0) {
+            kind = ANY;
+        }
+        int capacity = contents.length / width;
+        if (capacity > MIN_CAPACITY && size <= capacity / 4) {
+            contents = Arrays.copyOf(contents, capacity / 2 * width);
+        }
+    }
+
+    /**
+     * Look a value up.
+     *
+     * @param v The value.
+     * @return The position of the value, or -1 minus the position where it would be inserted.
+     */
+    private int search(long v) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long m = read(mid);
+            if (m < v) {
+                low = mid + 1;
+            } else if (m > v) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1 - low;
+    }
+
+    /**
+     * Re-encode the members with a wider width.
+     *
+     * @param newWidth The new width, > width.
+     */
+    private void upgrade(int newWidth) {
+        byte[] old = contents;
+        int oldWidth = width;
+        contents = new byte[Math.max(MIN_CAPACITY, size + 1) * newWidth];
+        width = newWidth;
+        for (int i = 0; i < size; i++) {
+            write(i, read(old, i, oldWidth));
+        }
+    }
+
+    /**
+     * Decode a value back to the kind of the members.
+     *
+     * @param v The value.
+     * @return A String, an Integer or a Long.
+     */
+    private Object decode(long v) {
+        switch (kind) {
+            case STRINGS:
+                return Long.toString(v);
+            case INTEGERS:
+                return (int) v;
+            default:
+                return v;
+        }
+    }
+
+    /**
+     * Read a member.
+     *
+     * @param position The position of the member.
+     * @return Its value.
+     */
+    private long read(int position) {
+        return read(contents, position, width);
+    }
+
+    /**
+     * Read a value of an array.
+     *
+     * @param array The array.
+     * @param position The position of the value.
+     * @param width The number of bytes of each value.
+     * @return The value, sign extended.
+     */
+    private static long read(byte[] array, int position, int width) {
+        int p = position * width;
+        long v = 0L;
+        for (int b = width - 1; b >= 0; b--) {
+            v = v << 8 | (array[p + b] & 0xff);
+        }
+        // sign extension of the 2 and 4 bytes values
+        int unused = 64 - 8 * width;
+        return v << unused >> unused;
+    }
+
+    /**
+     * Write a member, with the current width.
+     *
+     * @param position The position of the member.
+     * @param v Its value, that fits in width bytes.
+     */
+    private void write(int position, long v) {
+        int p = position * width;
+        for (int b = 0; b < width; b++) {
+            contents[p + b] = (byte) (v >>> (8 * b));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package storage;
+
+/**
+ * A 64 bits integer, modified in place by INCRBY and DECRBY.
+ * <p>
+ *     Incrementing an integer allocates nothing: the storage keeps the same object at the key and only changes its
+ *     value, under the lock of the key. Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class IntegerValue extends Value {
+    /**
+     * Message of the exception thrown when an increment overflows.
+     */
+    static final String ERROR_OVERFLOW = "increment or decrement would overflow";
+
+    /**
+     * The integer.
+     */
+    private long value;
+
+    /**
+     * Constructor.
+     *
+     * @param value The integer.
+     */
+    IntegerValue(long value) {
+        super(Type.INTEGER);
+        this.value = value;
+    }
+
+    /**
+     * Get the integer.
+     *
+     * @return The integer.
+     */
+    long get() {
+        return value;
+    }
+
+    /**
+     * Add an integer to this one.
+     *
+     * @param increment The increment, negative to decrement.
+     * @return The new value of the integer.
+     * @throws ArithmeticException When the result does not fit in a long. The integer is left unchanged.
+     */
+    long incrBy(long increment) throws ArithmeticException {
+        long res = value + increment;
+        // overflow iff both operands have the same sign and the result has the other one
+        if (((value ^ res) & (increment ^ res)) < 0L) {
+            throw new ArithmeticException(ERROR_OVERFLOW);
+        }
+        value = res;
+        return res;
+    }
+
+    /**
+     * Parse the decimal representation of an int, the way Integer.parseInt() does for ASCII digits.
+     * <p>
+     *     Unlike Integer.parseInt(), nothing is thrown when the string is not an integer, which is the common case
+     *     when storing strings.
+     * </p>
+     *
+     * @param s The string.
+     * @return The integer, null if the string is not the representation of an int.
+     */
+    static IntegerValue parse(String s) {
+        int len = s.length();
+        if (len == 0 || len > 11) {
+            return null;
+        }
+        int i = 0;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (len == 1) {
+                return null;
+            }
+            i = 1;
+        }
+        long res = 0L;
+        for (; i < len; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            res = res * 10L + digit;
+        }
+        return valueOf(first == '-' ? -res : res);
+    }
+
+    /**
+     * Parse the canonical ASCII decimal representation of an int, e.g "-42" or "7".
+     * <p>
+     *     Only the representation the integer is written back as is accepted: no '+', no leading zero and no "-0".
+     *     "+7", "007" or "-0" are not integers for the binary-safe API, which must return the bytes it was given.
+     * </p>
+     *
+     * @param bytes The ASCII characters.
+     * @return The integer, null if the bytes are not the canonical representation of an int.
+     */
+    static IntegerValue parse(byte[] bytes) {
+        int len = bytes.length;
+        if (len == 0 || len > 11) {
+            return null;
+        }
+        int i = 0;
+        byte first = bytes[0];
+        if (first == '-') {
+            if (len == 1) {
+                return null;
+            }
+            i = 1;
+        }
+        if (bytes[i] == '0' && len > 1) {
+            // "0" is the only representation starting with a zero
+            return null;
+        }
+        long res = 0L;
+        for (; i < len; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            res = res * 10L + digit;
+        }
+        return valueOf(first == '-' ? -res : res);
+    }
+
+    /**
+     * Wrap a parsed integer, if it fits in an int.
+     *
+     * @param res The parsed integer.
+     * @return The integer, null if it does not fit in an int.
+     */
+    private static IntegerValue valueOf(long res) {
+        return res < Integer.MIN_VALUE || res > Integer.MAX_VALUE ? null : new IntegerValue(res);
+    }
+
+    /**
+     * Get the integer for the readers outside of the storage.
+     *
+     * @return An Integer if the value fits in 32 bits, a Long otherwise.
+     */
+    @Override
+    Object toObject() {
+        if (value == (int) value) {
+            return (int) value;
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Value copy() {
+        return new IntegerValue(value);
+    }
+}
@@ -0,0 +1,447 @@
+package storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent map of keys, split into a fixed number of segments by hash of key, whose keys can be walked in the
+ * order of their spread hash code a few at a time.
+ * <p>
+ *     Each segment is an open-addressing table, probed linearly and kept at most half full, created the first time a
+ *     key falls in it. The spread hash code of a key gives both its segment (its high bits) and its home slot in the
+ *     table of the segment (the bits right under them), so a cursor of scan() is a spread hash code, like the cursors
+ *     of IndexedSet.scan(): doubling a table splits each slot into two consecutive ones and halving it merges them,
+ *     which keeps every key above the cursor after it.
+ *
+ *     Thread-safe. Reads take no lock: they probe the current table of the segment, whose slots are never moved. A
+ *     removed key keeps its slot with a null value until the slot is reused by another key or the table is rebuilt,
+ *     and a rebuilt table replaces the old one instead of being filled in place. Writes take the monitor of the
+ *     segment.
+ * </p>
+ *
+ * @param <V> The type of the values.
+ */
+final class KeySpace<V> extends AbstractMap<String, V> {
+    /**
+     * The log2 of the number of segments.
+     */
+    private static final int SEGMENT_BITS = 10;
+
+    /**
+     * The number of segments.
+     */
+    static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    /**
+     * The number of cursors of scan(), one per spread hash code.
+     */
+    static final long CURSORS = 1L << 32;
+
+    /**
+     * Multiplier spreading the hash codes over the segments (2^32 divided by the golden ratio).
+     */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /**
+     * The length of the table of a new segment.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The longest table of a segment, whose home slots use all the bits under the segment bits.
+     */
+    private static final int MAX_CAPACITY = 1 << (32 - SEGMENT_BITS);
+
+    /**
+     * The segments, null until a key falls in them.
+     */
+    private final AtomicReferenceArray<Segment<V>> segments = new AtomicReferenceArray<>(SEGMENTS);
+
+    /**
+     * The number of keys, summed on demand rather than over the segments.
+     */
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Get the segment of a key.
+     *
+     * @param key The key.
+     * @return The index of the segment, from 0 to SEGMENTS - 1.
+     */
+    static int segmentOf(String key) {
+        return spread(key) >>> (32 - SEGMENT_BITS);
+    }
+
+    /**
+     * Spread the hash code of a key, whose low bits are often of poor quality.
+     *
+     * @param key The key.
+     * @return The spread hash code.
+     */
+    private static int spread(String key) {
+        return key.hashCode() * SPREAD;
+    }
+
+    /**
+     * Get the home slot of a key in the table of its segment.
+     *
+     * @param hash The spread hash code of the key.
+     * @param length The length of the table, a power of two.
+     * @return The index of the slot, given by the bits of hash under the segment bits.
+     */
+    private static int home(int hash, int length) {
+        return (hash << SEGMENT_BITS) >>> (Integer.numberOfLeadingZeros(length) + 1);
+    }
+
+    /**
+     * Copy the values of the next keys, in the order of their spread hash code.
+     * <p>
+     *     The slots of the segments are walked from the one the cursor falls in, the keys of a slot being the ones of
+     *     the run of full slots starting at it whose home is that slot. A walk started at cursor 0 and resumed at the
+     *     returned cursors returns every key present during the whole walk at least once, whatever the keys added or
+     *     removed and the tables rebuilt in between. A key may be returned twice when the table of its segment
+     *     shrinks, or when it is removed and added back.
+     * </p>
+     *
+     * @param cursor 0 to start the walk, or the cursor returned by the previous call, from 0 to CURSORS - 1.
+     * @param count The number of keys after which to stop, once the keys of a slot are all copied.
+     * @param dst The list where to add the values.
+     * @return The cursor where to resume the walk, 0 when the walk is over.
+     */
+    long scan(long cursor, int count, List<V> dst) {
+        int segment = (int) (cursor >>> (32 - SEGMENT_BITS));
+        // the bits of the cursor under the segment bits, from which the slot is found whatever the length of the table
+        int position = (int) cursor << SEGMENT_BITS;
+        int n = 0;
+        while (segment < SEGMENTS && n < count) {
+            Segment<V> s = segments.get(segment);
+            if (s != null) {
+                AtomicReferenceArray<Mapping<V>> table = s.table;
+                int length = table.length();
+                int mask = length - 1;
+                int shift = Integer.numberOfLeadingZeros(length) + 1;
+                for (int slot = position >>> shift; slot < length; slot++) {
+                    if (n >= count) {
+                        return (long) segment << (32 - SEGMENT_BITS) | (long) slot << (shift - SEGMENT_BITS);
+                    }
+                    Mapping<V> m;
+                    for (int i = slot; (m = table.get(i)) != null; i = (i + 1) & mask) {
+                        V value = m.value;
+                        if (value != null && home(m.hash, length) == slot) {
+                            dst.add(value);
+                            n++;
+                        }
+                    }
+                }
+            }
+            segment++;
+            position = 0;
+        }
+        return segment < SEGMENTS ? (long) segment << (32 - SEGMENT_BITS) : 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, size.sum());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int hash = spread((String) key);
+        Segment<V> s = segments.get(hash >>> (32 - SEGMENT_BITS));
+        return s != null ? s.get((String) key, hash) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(String key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int hash = spread(key);
+        int segment = hash >>> (32 - SEGMENT_BITS);
+        Segment<V> s = segments.get(segment);
+        if (s == null) {
+            segments.compareAndSet(segment, null, new Segment<>());
+            s = segments.get(segment);
+        }
+        V old = s.put(key, hash, value);
+        if (old == null) {
+            size.increment();
+        }
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int hash = spread((String) key);
+        Segment<V> s = segments.get(hash >>> (32 - SEGMENT_BITS));
+        V old = s != null ? s.remove((String) key, hash, null) : null;
+        if (old != null) {
+            size.decrement();
+        }
+        return old;
+    }
+
+    /**
+     * Remove a key only if it is mapped to a given value.
+     *
+     * @param key The key.
+     * @param value The value expected.
+     * @return True if the key was removed.
+     */
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof String) || value == null) {
+            return false;
+        }
+        int hash = spread((String) key);
+        Segment<V> s = segments.get(hash >>> (32 - SEGMENT_BITS));
+        if (s != null && s.remove((String) key, hash, value) != null) {
+            size.decrement();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get a read-only view of the mappings, segment by segment.
+     *
+     * @return A live view of the mappings, whose iterators never fail and return all the mappings present during the
+     *         whole iteration.
+     */
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public int size() {
+                return KeySpace.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<Entry<String, V>>() {
+                    private int segment = -1;
+                    private AtomicReferenceArray<Mapping<V>> table = new AtomicReferenceArray<>(0);
+                    private int slot;
+                    private Entry<String, V> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null) {
+                            if (slot >= table.length()) {
+                                if (++segment >= SEGMENTS) {
+                                    return false;
+                                }
+                                Segment<V> s = segments.get(segment);
+                                table = s != null ? s.table : new AtomicReferenceArray<>(0);
+                                slot = 0;
+                                continue;
+                            }
+                            Mapping<V> m = table.get(slot++);
+                            V value = m != null ? m.value : null;
+                            if (value != null) {
+                                next = new SimpleImmutableEntry<>(m.key, value);
+                            }
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, V> res = next;
+                        next = null;
+                        return res;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * A key and its value, in a slot of a segment.
+     *
+     * @param <V> The type of the value.
+     */
+    private static final class Mapping<V> {
+        private final String key;
+        private final int hash;
+
+        /**
+         * The value, null once the key is removed.
+         */
+        private volatile V value;
+
+        Mapping(String key, int hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The keys of a segment.
+     *
+     * @param <V> The type of the values.
+     */
+    private static final class Segment<V> {
+        /**
+         * The slots, null until a mapping is put in them. Its length is a power of two, at least twice the number of
+         * slots used. Replaced as a whole when rebuilt, so that the readers of the old one still find their keys.
+         */
+        private volatile AtomicReferenceArray<Mapping<V>> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+        /**
+         * The number of keys. Guarded by the segment.
+         */
+        private int size;
+
+        /**
+         * The number of slots holding a mapping, removed or not. Guarded by the segment.
+         */
+        private int used;
+
+        /**
+         * Get the value of a key, without locking.
+         *
+         * @param key The key.
+         * @param hash The spread hash code of the key.
+         * @return The value, null if the key is not in the segment.
+         */
+        V get(String key, int hash) {
+            AtomicReferenceArray<Mapping<V>> t = table;
+            int mask = t.length() - 1;
+            Mapping<V> m;
+            for (int i = home(hash, t.length()); (m = t.get(i)) != null; i = (i + 1) & mask) {
+                if (m.hash == hash && m.key.equals(key)) {
+                    return m.value;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Map a key to a value.
+         *
+         * @param key The key.
+         * @param hash The spread hash code of the key.
+         * @param value The value, not null.
+         * @return The previous value, null if the key was not in the segment.
+         */
+        synchronized V put(String key, int hash, V value) {
+            AtomicReferenceArray<Mapping<V>> t = table;
+            int mask = t.length() - 1;
+            int free = -1;
+            int i = home(hash, t.length());
+            for (Mapping<V> m; (m = t.get(i)) != null; i = (i + 1) & mask) {
+                if (m.hash == hash && m.key.equals(key)) {
+                    V old = m.value;
+                    m.value = value;
+                    if (old == null) {
+                        size++;
+                    }
+                    return old;
+                }
+                if (free < 0 && m.value == null) {
+                    free = i;
+                }
+            }
+            size++;
+            if (free >= 0) {
+                // the removed key losing its slot is not in the run of any other key
+                t.set(free, new Mapping<>(key, hash, value));
+            } else {
+                t.set(i, new Mapping<>(key, hash, value));
+                if (++used > t.length() / 2) {
+                    rebuild();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Remove a key.
+         *
+         * @param key The key.
+         * @param hash The spread hash code of the key.
+         * @param expected The value the key must be mapped to, null to remove it whatever its value.
+         * @return The removed value, null if the key was not removed.
+         */
+        synchronized V remove(String key, int hash, Object expected) {
+            AtomicReferenceArray<Mapping<V>> t = table;
+            int mask = t.length() - 1;
+            Mapping<V> m;
+            for (int i = home(hash, t.length()); (m = t.get(i)) != null; i = (i + 1) & mask) {
+                if (m.hash == hash && m.key.equals(key)) {
+                    V old = m.value;
+                    if (old == null || (expected != null && !expected.equals(old))) {
+                        return null;
+                    }
+                    m.value = null;
+                    if (--size < t.length() / 8 && t.length() > MIN_CAPACITY) {
+                        rebuild();
+                    }
+                    return old;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Copy the keys to a new table about 3 times as long as their number, dropping the removed ones.
+         */
+        private void rebuild() {
+            AtomicReferenceArray<Mapping<V>> t = table;
+            int length = Math.min(MAX_CAPACITY, Integer.highestOneBit(Math.max(MIN_CAPACITY, size * 3) - 1) << 1);
+            AtomicReferenceArray<Mapping<V>> rebuilt = new AtomicReferenceArray<>(length);
+            int mask = length - 1;
+            for (int j = 0; j < t.length(); j++) {
+                Mapping<V> m = t.get(j);
+                if (m != null && m.value != null) {
+                    int i = home(m.hash, length);
+                    while (rebuilt.get(i) != null) {
+                        i = (i + 1) & mask;
+                    }
+                    rebuilt.lazySet(i, m);
+                }
+            }
+            used = size;
+            // published by the volatile write
+            table = rebuilt;
+        }
+    }
+}
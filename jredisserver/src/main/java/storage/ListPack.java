@@ -0,0 +1,458 @@
+package storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A small list packed into a single byte array, like the listpack of Redis.
+ * <p>
+ *     Each element is an entry of the array: a tag byte followed by a zig-zag varint for an Integer or a Long, or by
+ *     the varint length and the UTF-8 bytes of a String. A list of short strings and small numbers then costs one
+ *     array instead of a node, a slot and a String or a boxed number per element. Elements are decoded when read, so
+ *     only Strings, Integers and Longs can be packed (see canPack()), and every operation but the pushes at the tail
+ *     walks the entries: packed lists are meant to stay small, see ListValue.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class ListPack implements Iterable<Object> {
+    private static final byte TAG_STRING = 0;
+    private static final byte TAG_INTEGER = 1;
+    private static final byte TAG_LONG = 2;
+
+    /**
+     * The entries, from index 0 to used.
+     */
+    private byte[] bytes = new byte[16];
+
+    /**
+     * The number of bytes of the entries.
+     */
+    private int used;
+
+    /**
+     * The number of entries.
+     */
+    private int size;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * Tell whether an element can be packed.
+     *
+     * @param element The element.
+     * @return True if the element is an Integer, a Long or a String without surrogates, which all survive a round trip
+     * through the encoding.
+     */
+    static boolean canPack(Object element) {
+        if (element instanceof Integer || element instanceof Long) {
+            return true;
+        }
+        if (element instanceof String) {
+            String s = (String) element;
+            for (int i = 0; i < s.length(); i++) {
+                if (Character.isSurrogate(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Encode an element into an entry.
+     *
+     * @param element The element, that can be packed.
+     * @return The entry.
+     */
+    static byte[] encode(Object element) {
+        byte[] entry;
+        int pos;
+        if (element instanceof String) {
+            byte[] utf8 = ((String) element).getBytes(StandardCharsets.UTF_8);
+            entry = new byte[1 + varintLength(utf8.length) + utf8.length];
+            entry[0] = TAG_STRING;
+            pos = writeVarint(entry, 1, utf8.length);
+            System.arraycopy(utf8, 0, entry, pos, utf8.length);
+        } else {
+            long zigzag = zigzag(((Number) element).longValue());
+            entry = new byte[1 + varintLength(zigzag)];
+            entry[0] = element instanceof Integer ? TAG_INTEGER : TAG_LONG;
+            writeVarint(entry, 1, zigzag);
+        }
+        return entry;
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return The length of the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of bytes of the entries.
+     *
+     * @return The size of the packed elements.
+     */
+    int usedBytes() {
+        return used;
+    }
+
+    /**
+     * Get the length of the array holding the entries.
+     *
+     * @return The number of bytes allocated.
+     */
+    int capacity() {
+        return bytes.length;
+    }
+
+    /**
+     * Add an entry before the head of the list.
+     *
+     * @param entry The entry, see encode().
+     */
+    void addFirst(byte[] entry) {
+        splice(0, 0, entry);
+        size++;
+    }
+
+    /**
+     * Add an entry after the tail of the list.
+     *
+     * @param entry The entry, see encode().
+     */
+    void addLast(byte[] entry) {
+        splice(used, used, entry);
+        size++;
+    }
+
+    /**
+     * Remove the head of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        Object removed = decode(0);
+        splice(0, next(0), null);
+        size--;
+        return removed;
+    }
+
+    /**
+     * Remove the tail of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        int offset = offsetOf(size - 1);
+        Object removed = decode(offset);
+        splice(offset, used, null);
+        size--;
+        return removed;
+    }
+
+    /**
+     * Get an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @return The element.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object get(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return decode(offsetOf(index));
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @param entry The entry of the new element, see encode().
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object set(int index, byte[] entry) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        int offset = offsetOf(index);
+        Object old = decode(offset);
+        splice(offset, next(offset), entry);
+        return old;
+    }
+
+    /**
+     * Remove the first occurrences of an element, from the head.
+     * <p>
+     *     Entries are compared byte per byte with the entry of the element, without decoding them.
+     * </p>
+     *
+     * @param entry The entry of the element to remove, see encode().
+     * @param count The maximum number of occurrences to remove, 0 to remove them all.
+     * @return The number of removed occurrences.
+     */
+    int remove(byte[] entry, int count) {
+        int removed = 0;
+        int r = 0;
+        int w = 0;
+        while (r < used) {
+            int end = next(r);
+            if ((count == 0 || removed < count) && end - r == entry.length
+                && equalsRange(bytes, r, entry)) {
+                removed++;
+            } else {
+                if (w != r) {
+                    System.arraycopy(bytes, r, bytes, w, end - r);
+                }
+                w += end - r;
+            }
+            r = end;
+        }
+        if (removed > 0) {
+            used = w;
+            size -= removed;
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Keep only a range of elements, dropping the others.
+     *
+     * @param from The index of the first element to keep, inclusive.
+     * @param to The index of the last element to keep, exclusive.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    void trim(int from, int to) throws IndexOutOfBoundsException {
+        checkRange(from, to);
+        int start = offsetOf(from);
+        int end = start;
+        for (int i = from; i < to; i++) {
+            end = next(end);
+        }
+        System.arraycopy(bytes, start, bytes, 0, end - start);
+        used = end - start;
+        if (bytes.length > 16 && used < bytes.length / 4) {
+            bytes = Arrays.copyOf(bytes, Math.max(16, used + used / 2));
+        }
+        size = to - from;
+        modCount++;
+    }
+
+    /**
+     * Decode a range of elements.
+     *
+     * @param from The index of the first element, inclusive.
+     * @param to The index of the last element, exclusive.
+     * @return The elements in the range.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    ArrayList<Object> range(int from, int to) throws IndexOutOfBoundsException {
+        checkRange(from, to);
+        ArrayList<Object> res = new ArrayList<>(to - from);
+        int offset = offsetOf(from);
+        for (int i = from; i < to; i++) {
+            res.add(decode(offset));
+            offset = next(offset);
+        }
+        return res;
+    }
+
+    /**
+     * Copy the list.
+     *
+     * @return A new list holding the same entries.
+     */
+    ListPack copy() {
+        ListPack copy = new ListPack();
+        copy.bytes = Arrays.copyOf(bytes, Math.max(16, used));
+        copy.used = used;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return offset < used;
+            }
+
+            @Override
+            public Object next() {
+                if (offset >= used) {
+                    throw new NoSuchElementException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                Object e = decode(offset);
+                offset = ListPack.this.next(offset);
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Replace a range of bytes by an entry, growing or shrinking the array if needed.
+     *
+     * @param from The offset of the first byte to replace, inclusive.
+     * @param to The offset of the last byte to replace, exclusive.
+     * @param entry The entry to write instead, null to only remove the range.
+     */
+    private void splice(int from, int to, byte[] entry) {
+        int length = entry != null ? entry.length : 0;
+        int newUsed = used - (to - from) + length;
+        if (newUsed > bytes.length || (bytes.length > 16 && newUsed < bytes.length / 4)) {
+            // grows by 50% like an ArrayList, and gives the memory back when mostly empty
+            byte[] resized = new byte[Math.max(16, newUsed + newUsed / 2)];
+            System.arraycopy(bytes, 0, resized, 0, from);
+            System.arraycopy(bytes, to, resized, from + length, used - to);
+            bytes = resized;
+        } else {
+            System.arraycopy(bytes, to, bytes, from + length, used - to);
+        }
+        if (entry != null) {
+            System.arraycopy(entry, 0, bytes, from, length);
+        }
+        used = newUsed;
+        modCount++;
+    }
+
+    /**
+     * Get the offset of an entry, walking the entries from the head.
+     *
+     * @param index The index of the entry, in range.
+     * @return The offset of its first byte.
+     */
+    private int offsetOf(int index) {
+        int offset = 0;
+        for (int i = 0; i < index; i++) {
+            offset = next(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Get the offset of the entry following another one.
+     *
+     * @param offset The offset of the entry.
+     * @return The offset of the next entry, used if it is the last one.
+     */
+    private int next(int offset) {
+        byte tag = bytes[offset++];
+        long varint = 0L;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[offset++];
+            varint |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return tag == TAG_STRING ? offset + (int) varint : offset;
+    }
+
+    /**
+     * Decode an entry.
+     *
+     * @param offset The offset of the entry.
+     * @return The element.
+     */
+    private Object decode(int offset) {
+        byte tag = bytes[offset++];
+        long varint = 0L;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[offset++];
+            varint |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        switch (tag) {
+            case TAG_STRING:
+                return new String(bytes, offset, (int) varint, StandardCharsets.UTF_8);
+            case TAG_INTEGER:
+                return (int) unzigzag(varint);
+            default:
+                return unzigzag(varint);
+        }
+    }
+
+    private static boolean equalsRange(byte[] bytes, int offset, byte[] entry) {
+        for (int i = 0; i < entry.length; i++) {
+            if (bytes[offset + i] != entry[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long zigzag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static long unzigzag(long n) {
+        return (n >>> 1) ^ -(n & 1L);
+    }
+
+    private static int varintLength(long n) {
+        int length = 1;
+        while ((n & ~0x7FL) != 0L) {
+            n >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Write an unsigned varint, 7 bits per byte, the least significant first, the high bit set on all but the last.
+     *
+     * @param dest The array to write to.
+     * @param offset The offset of the first byte.
+     * @param n The integer.
+     * @return The offset following the varint.
+     */
+    private static int writeVarint(byte[] dest, int offset, long n) {
+        while ((n & ~0x7FL) != 0L) {
+            dest[offset++] = (byte) ((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        dest[offset++] = (byte) n;
+        return offset;
+    }
+
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkRange(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * A list of elements.
+ * <p>
+ *     Small lists are packed into a ListPack, a single byte array, as long as they have at most maxPackEntries
+ *     elements, their entries take at most maxPackBytes bytes and all their elements are strings or integers. Once a
+ *     limit is crossed the list is converted for good to a QuickList, so that pushing and popping at both ends and
+ *     trimming never shift the whole list. The conversion is transparent to the callers.
+ *
+ *     A capped list, created by a push with a maximum length (see capped()), is held instead in a RingBuffer of that
+ *     capacity: the pushes with that maximum length overwrite the oldest element in O(1). A push without it on a full
+ *     ring converts the list to a QuickList.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class ListValue extends Value implements Iterable<Object> {
+    /**
+     * Default maximum number of elements of a packed list.
+     */
+    static final int DEFAULT_MAX_PACK_ENTRIES = 128;
+
+    /**
+     * Default maximum number of bytes of the entries of a packed list.
+     */
+    static final int DEFAULT_MAX_PACK_BYTES = 8 * 1024;
+
+    /**
+     * Maximum capacity of the RingBuffer of a capped list, whose array is allocated at once. Longer capped lists are
+     * held like the others and trimmed after each push.
+     */
+    static final int MAX_RING_CAPACITY = 64 * 1024;
+
+    /**
+     * The maximum number of elements of the list while packed.
+     */
+    private final int maxPackEntries;
+
+    /**
+     * The maximum number of bytes of the entries of the list while packed.
+     */
+    private final int maxPackBytes;
+
+    /**
+     * The elements while the list is packed, null once converted.
+     */
+    private ListPack pack;
+
+    /**
+     * The elements once the list is converted, null while it is packed.
+     */
+    private QuickList list;
+
+    /**
+     * The elements of a capped list, null otherwise.
+     */
+    private RingBuffer ring;
+
+    /**
+     * The estimated size of the elements of the QuickList, see SizeEstimator.sizeOfListElement(), or of the
+     * RingBuffer, see SizeEstimator.sizeOf().
+     */
+    private long elementsWeight;
+
+    /**
+     * Constructor of an empty list, packed with the default limits.
+     */
+    ListValue() {
+        this(DEFAULT_MAX_PACK_ENTRIES, DEFAULT_MAX_PACK_BYTES);
+    }
+
+    /**
+     * Constructor of an empty list.
+     *
+     * @param maxPackEntries The maximum number of elements of the list while packed, 0 never to pack it.
+     * @param maxPackBytes The maximum number of bytes of the entries of the list while packed.
+     */
+    ListValue(int maxPackEntries, int maxPackBytes) {
+        super(Type.LIST);
+        this.maxPackEntries = maxPackEntries;
+        this.maxPackBytes = maxPackBytes;
+        if (maxPackEntries > 0) {
+            pack = new ListPack();
+        } else {
+            list = new QuickList();
+        }
+    }
+
+    /**
+     * Constructor of an empty capped list.
+     *
+     * @param ring The empty RingBuffer holding the elements.
+     */
+    private ListValue(RingBuffer ring) {
+        super(Type.LIST);
+        this.maxPackEntries = 0;
+        this.maxPackBytes = 0;
+        this.ring = ring;
+    }
+
+    /**
+     * Create an empty capped list.
+     *
+     * @param maxLength The maximum length of the list, > 0.
+     * @return A list held in a RingBuffer of capacity maxLength if it is at most MAX_RING_CAPACITY, an uncapped list
+     * never packed otherwise.
+     */
+    static ListValue capped(int maxLength) {
+        if (maxLength > MAX_RING_CAPACITY) {
+            return new ListValue(0, 0);
+        }
+        return new ListValue(new RingBuffer(maxLength));
+    }
+
+    /**
+     * Constructor, with the default limits.
+     *
+     * @param elements The elements, copied.
+     */
+    ListValue(ArrayList<Object> elements) {
+        this();
+        for (Object e : elements) {
+            addLast(e);
+        }
+    }
+
+    /**
+     * Tell whether the list is packed.
+     *
+     * @return True if the list is held in a ListPack, false if it is held in a QuickList.
+     */
+    boolean isPacked() {
+        return pack != null;
+    }
+
+    /**
+     * Get the maximum length of a capped list.
+     *
+     * @return The capacity of the RingBuffer, 0 if the list is not held in one.
+     */
+    int maxLength() {
+        return ring != null ? ring.capacity() : 0;
+    }
+
+    /**
+     * Get the estimated size of the elements, on top of SizeEstimator.LIST_VALUE.
+     * <p>
+     *     Kept up to date by every operation, in O(1).
+     * </p>
+     *
+     * @return The size of the ListPack, of the RingBuffer or of the QuickList, elements included.
+     */
+    long weight() {
+        if (pack != null) {
+            return SizeEstimator.LIST_PACK_OVERHEAD + SizeEstimator.align(SizeEstimator.ARRAY_HEADER + pack.capacity());
+        }
+        if (ring != null) {
+            return SizeEstimator.RING_OVERHEAD
+                   + SizeEstimator.align(SizeEstimator.ARRAY_HEADER + ring.capacity() * SizeEstimator.REFERENCE)
+                   + elementsWeight;
+        }
+        return SizeEstimator.LIST_OVERHEAD + elementsWeight;
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return The length of the list.
+     */
+    int size() {
+        if (pack != null) {
+            return pack.size();
+        }
+        return ring != null ? ring.size() : list.size();
+    }
+
+    /**
+     * Get an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @return The element.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object get(int index) throws IndexOutOfBoundsException {
+        if (pack != null) {
+            return pack.get(index);
+        }
+        return ring != null ? ring.get(index) : list.get(index);
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @param element The new element.
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object set(int index, Object element) throws IndexOutOfBoundsException {
+        if (pack != null) {
+            byte[] entry = entryOf(element, 0);
+            if (entry != null) {
+                return pack.set(index, entry);
+            }
+            if (index < 0 || index >= pack.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + pack.size());
+            }
+            unpack();
+        }
+        if (ring != null) {
+            Object old = ring.set(index, element);
+            elementsWeight += SizeEstimator.sizeOf(element) - SizeEstimator.sizeOf(old);
+            return old;
+        }
+        Object old = list.set(index, element);
+        elementsWeight += SizeEstimator.sizeOfListElement(element) - SizeEstimator.sizeOfListElement(old);
+        return old;
+    }
+
+    /**
+     * Add an element before the head of the list.
+     *
+     * @param element The element.
+     */
+    void addFirst(Object element) {
+        if (pack != null) {
+            byte[] entry = entryOf(element, 1);
+            if (entry != null) {
+                pack.addFirst(entry);
+                return;
+            }
+            unpack();
+        }
+        if (ring != null) {
+            if (!ring.isFull()) {
+                ring.pushFirst(element);
+                elementsWeight += SizeEstimator.sizeOf(element);
+                return;
+            }
+            unring();
+        }
+        list.addFirst(element);
+        elementsWeight += SizeEstimator.sizeOfListElement(element);
+    }
+
+    /**
+     * Add an element after the tail of the list.
+     *
+     * @param element The element.
+     */
+    void addLast(Object element) {
+        if (pack != null) {
+            byte[] entry = entryOf(element, 1);
+            if (entry != null) {
+                pack.addLast(entry);
+                return;
+            }
+            unpack();
+        }
+        if (ring != null) {
+            if (!ring.isFull()) {
+                ring.pushLast(element);
+                elementsWeight += SizeEstimator.sizeOf(element);
+                return;
+            }
+            unring();
+        }
+        list.addLast(element);
+        elementsWeight += SizeEstimator.sizeOfListElement(element);
+    }
+
+    /**
+     * Remove the head of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeFirst() {
+        if (pack != null) {
+            return pack.removeFirst();
+        }
+        if (ring != null) {
+            Object removed = ring.removeFirst();
+            if (removed != null) {
+                elementsWeight -= SizeEstimator.sizeOf(removed);
+            }
+            return removed;
+        }
+        Object removed = list.removeFirst();
+        if (removed != null) {
+            elementsWeight -= SizeEstimator.sizeOfListElement(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove the tail of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeLast() {
+        if (pack != null) {
+            return pack.removeLast();
+        }
+        if (ring != null) {
+            Object removed = ring.removeLast();
+            if (removed != null) {
+                elementsWeight -= SizeEstimator.sizeOf(removed);
+            }
+            return removed;
+        }
+        Object removed = list.removeLast();
+        if (removed != null) {
+            elementsWeight -= SizeEstimator.sizeOfListElement(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove the first occurrences of an element, from the head.
+     *
+     * @param element The element to remove.
+     * @param count The maximum number of occurrences to remove, 0 to remove them all.
+     * @return The number of removed occurrences.
+     */
+    int remove(Object element, int count) {
+        if (pack != null) {
+            // a packed list only holds elements that can be packed
+            return ListPack.canPack(element) ? pack.remove(ListPack.encode(element), count) : 0;
+        }
+        if (ring != null) {
+            int removed = ring.remove(element, count);
+            elementsWeight -= removed * SizeEstimator.sizeOf(element);
+            return removed;
+        }
+        int removed = list.remove(element, count);
+        elementsWeight -= removed * SizeEstimator.sizeOfListElement(element);
+        return removed;
+    }
+
+    /**
+     * Copy a range of elements.
+     *
+     * @param from The index of the first element, inclusive.
+     * @param to The index of the last element, exclusive.
+     * @return The elements in the range.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    ArrayList<Object> range(int from, int to) throws IndexOutOfBoundsException {
+        if (pack != null) {
+            return pack.range(from, to);
+        }
+        return ring != null ? ring.range(from, to) : list.range(from, to);
+    }
+
+    /**
+     * Keep only a range of elements, in place.
+     *
+     * @param from The index of the first element to keep, inclusive.
+     * @param to The index of the last element to keep, exclusive.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    void trim(int from, int to) throws IndexOutOfBoundsException {
+        if (pack != null) {
+            pack.trim(from, to);
+        } else if (ring != null) {
+            for (int i = 0; i < from; i++) {
+                elementsWeight -= SizeEstimator.sizeOf(ring.get(i));
+            }
+            for (int i = to; i < ring.size(); i++) {
+                elementsWeight -= SizeEstimator.sizeOf(ring.get(i));
+            }
+            ring.trim(from, to);
+        } else {
+            elementsWeight -= list.trim(from, to, SizeEstimator::sizeOfListElement);
+        }
+    }
+
+    /**
+     * Add an element before the head of the list, then drop elements from the tail to keep at most maxLength of them.
+     * <p>
+     *     O(1) and without allocation on a capped list of that maximum length, which overwrites its tail once full.
+     * </p>
+     *
+     * @param element The element.
+     * @param maxLength The maximum length of the list, > 0.
+     */
+    void addFirst(Object element, int maxLength) {
+        if (ring != null && ring.capacity() == maxLength) {
+            Object overwritten = ring.pushFirst(element);
+            elementsWeight += SizeEstimator.sizeOf(element);
+            if (overwritten != null) {
+                elementsWeight -= SizeEstimator.sizeOf(overwritten);
+            }
+            return;
+        }
+        addFirst(element);
+        if (size() > maxLength) {
+            trim(0, maxLength);
+        }
+    }
+
+    /**
+     * Add an element after the tail of the list, then drop elements from the head to keep at most maxLength of them.
+     * <p>
+     *     O(1) and without allocation on a capped list of that maximum length, which overwrites its head once full.
+     * </p>
+     *
+     * @param element The element.
+     * @param maxLength The maximum length of the list, > 0.
+     */
+    void addLast(Object element, int maxLength) {
+        if (ring != null && ring.capacity() == maxLength) {
+            Object overwritten = ring.pushLast(element);
+            elementsWeight += SizeEstimator.sizeOf(element);
+            if (overwritten != null) {
+                elementsWeight -= SizeEstimator.sizeOf(overwritten);
+            }
+            return;
+        }
+        addLast(element);
+        if (size() > maxLength) {
+            trim(size() - maxLength, size());
+        }
+    }
+
+    /**
+     * Encode an element for the ListPack, if the list can stay packed with it.
+     *
+     * @param element The element.
+     * @param added The number of elements the list is about to gain.
+     * @return The entry of the element, null if the list must be converted to hold it.
+     */
+    private byte[] entryOf(Object element, int added) {
+        if (pack.size() + added > maxPackEntries || !ListPack.canPack(element)) {
+            return null;
+        }
+        byte[] entry = ListPack.encode(element);
+        return pack.usedBytes() + entry.length <= maxPackBytes ? entry : null;
+    }
+
+    /**
+     * Convert the list to a QuickList, for good.
+     */
+    private void unpack() {
+        list = new QuickList(pack);
+        for (Object e : list) {
+            elementsWeight += SizeEstimator.sizeOfListElement(e);
+        }
+        pack = null;
+    }
+
+    /**
+     * Convert a capped list to a QuickList, for good.
+     */
+    private void unring() {
+        list = new QuickList(ring);
+        elementsWeight = 0L;
+        for (Object e : list) {
+            elementsWeight += SizeEstimator.sizeOfListElement(e);
+        }
+        ring = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        if (pack != null) {
+            return pack.iterator();
+        }
+        return ring != null ? ring.iterator() : list.iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object toObject() {
+        return range(0, size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Value copy() {
+        if (ring != null) {
+            ListValue copy = new ListValue(ring.copy());
+            copy.elementsWeight = elementsWeight;
+            return copy;
+        }
+        ListValue copy = new ListValue(maxPackEntries, maxPackBytes);
+        if (pack != null) {
+            copy.pack = pack.copy();
+        } else {
+            copy.pack = null;
+            copy.list = new QuickList(list);
+            copy.elementsWeight = elementsWeight;
+        }
+        return copy;
+    }
+}
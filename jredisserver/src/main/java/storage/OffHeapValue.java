@@ -0,0 +1,113 @@
+package storage;
+
+/**
+ * A string held in a chunk of a SlabAllocator, outside of the heap.
+ * <p>
+ *     The heap only holds the handle of the chunk and the length of the string, so the garbage collector never has to
+ *     scan nor copy the bytes. The chunk is freed when the value leaves the storage (remove, overwrite, eviction or
+ *     expiration), after which the value reads as null. Reads and the free are guarded by the monitor of the value,
+ *     so that a chunk is never reused while being read.
+ * </p>
+ */
+final class OffHeapValue extends StringValue {
+    /**
+     * The allocator holding the chunk.
+     */
+    private final SlabAllocator slabs;
+
+    /**
+     * The handle of the chunk, see SlabAllocator.
+     */
+    private final long handle;
+
+    /**
+     * The length of the string.
+     */
+    private final int length;
+
+    /**
+     * True once the chunk has been freed. Guarded by this.
+     */
+    private boolean freed;
+
+    /**
+     * Constructor.
+     *
+     * @param slabs The allocator holding the chunk.
+     * @param handle The handle of the chunk.
+     * @param length The length of the string.
+     */
+    private OffHeapValue(SlabAllocator slabs, long handle, int length) {
+        super(null);
+        this.slabs = slabs;
+        this.handle = handle;
+        this.length = length;
+    }
+
+    /**
+     * Copy a string outside of the heap.
+     *
+     * @param slabs The allocator to take a chunk from.
+     * @param bytes The bytes of the string.
+     * @return The value, null if the allocator has no chunk left for a string of this size.
+     */
+    static OffHeapValue allocate(SlabAllocator slabs, byte[] bytes) {
+        long handle = slabs.allocate(bytes);
+        return handle >= 0L ? new OffHeapValue(slabs, handle, bytes.length) : null;
+    }
+
+    /**
+     * Get the size of the chunk holding the string.
+     *
+     * @return The number of bytes used outside of the heap.
+     */
+    int getChunkSize() {
+        return slabs.chunkSizeFor(length);
+    }
+
+    /**
+     * Give the chunk back to the allocator. Does nothing if it has already been freed.
+     */
+    synchronized void free() {
+        if (!freed) {
+            freed = true;
+            slabs.free(handle);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object get() {
+        return getBytes();
+    }
+
+    /**
+     * Get a copy of the bytes of the string.
+     *
+     * @return The bytes, null if the chunk has been freed in the meantime.
+     */
+    @Override
+    synchronized byte[] getBytes() {
+        return freed ? null : slabs.read(handle, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object toObject() {
+        return getBytes();
+    }
+
+    /**
+     * Get a copy of the string on the heap, so that the copy outlives this value.
+     *
+     * @return The copy.
+     */
+    @Override
+    Value copy() {
+        return new StringValue(getBytes());
+    }
+}
@@ -0,0 +1,438 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * A deque of elements, stored as a doubly-linked list of small arrays, like the quicklist of Redis.
+ * <p>
+ *     Each node holds up to NODE_CAPACITY consecutive elements, between a start and an end index of its array. Pushing
+ *     and popping at either end only touches the node at that end, and a new node is linked when it is full, so both
+ *     are O(1) and never shift the other elements as an ArrayList does at its head. Trimming unlinks the whole nodes
+ *     out of the range at once. Indexed access walks the nodes from the nearest end, in O(n / NODE_CAPACITY).
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class QuickList implements Iterable<Object> {
+    /**
+     * The maximum number of elements of a node.
+     */
+    static final int NODE_CAPACITY = 128;
+
+    /**
+     * A chunk of consecutive elements.
+     */
+    private static final class Node {
+        final Object[] elements = new Object[NODE_CAPACITY];
+
+        /**
+         * The index of the first element, inclusive.
+         */
+        int start;
+
+        /**
+         * The index of the last element, exclusive.
+         */
+        int end;
+
+        Node prev;
+        Node next;
+
+        Node(int start) {
+            this.start = start;
+            this.end = start;
+        }
+
+        int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * The first node, null if the list is empty.
+     */
+    private Node head;
+
+    /**
+     * The last node, null if the list is empty.
+     */
+    private Node tail;
+
+    /**
+     * The number of elements.
+     */
+    private int size;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * The index in its node of the element found by the last call to nodeOf().
+     */
+    private int offset;
+
+    /**
+     * Constructor of an empty list.
+     */
+    QuickList() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param elements The elements, copied in iteration order.
+     */
+    QuickList(Iterable<?> elements) {
+        for (Object e : elements) {
+            addLast(e);
+        }
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return The length of the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add an element before the head of the list.
+     *
+     * @param element The element.
+     */
+    void addFirst(Object element) {
+        if (head == null || head.start == 0) {
+            // filled from the end, so that the next elements pushed at the head fit in the same node
+            Node n = new Node(NODE_CAPACITY);
+            n.next = head;
+            if (head != null) {
+                head.prev = n;
+            } else {
+                tail = n;
+            }
+            head = n;
+        }
+        head.elements[--head.start] = element;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Add an element after the tail of the list.
+     *
+     * @param element The element.
+     */
+    void addLast(Object element) {
+        if (tail == null || tail.end == NODE_CAPACITY) {
+            Node n = new Node(0);
+            n.prev = tail;
+            if (tail != null) {
+                tail.next = n;
+            } else {
+                head = n;
+            }
+            tail = n;
+        }
+        tail.elements[tail.end++] = element;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Remove the head of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeFirst() {
+        if (head == null) {
+            return null;
+        }
+        Node n = head;
+        Object removed = n.elements[n.start];
+        n.elements[n.start++] = null;
+        size--;
+        modCount++;
+        if (n.size() == 0) {
+            unlink(n);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove the tail of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeLast() {
+        if (tail == null) {
+            return null;
+        }
+        Node n = tail;
+        Object removed = n.elements[--n.end];
+        n.elements[n.end] = null;
+        size--;
+        modCount++;
+        if (n.size() == 0) {
+            unlink(n);
+        }
+        return removed;
+    }
+
+    /**
+     * Get an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @return The element.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object get(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        Node n = nodeOf(index);
+        return n.elements[n.start + offset];
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @param element The new element.
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object set(int index, Object element) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        Node n = nodeOf(index);
+        Object old = n.elements[n.start + offset];
+        n.elements[n.start + offset] = element;
+        return old;
+    }
+
+    /**
+     * Find the node holding an element, walking from the nearest end of the list.
+     *
+     * @param index The index of the element, in range.
+     * @return The node, the index of the element in the node being left in offset.
+     */
+    private Node nodeOf(int index) {
+        Node n;
+        if (index < size / 2) {
+            n = head;
+            while (index >= n.size()) {
+                index -= n.size();
+                n = n.next;
+            }
+        } else {
+            n = tail;
+            index = size - 1 - index;
+            while (index >= n.size()) {
+                index -= n.size();
+                n = n.prev;
+            }
+            index = n.size() - 1 - index;
+        }
+        offset = index;
+        return n;
+    }
+
+    /**
+     * Remove the first occurrences of an element, from the head.
+     * <p>
+     *     Only the elements after an occurrence in its node are shifted, and nodes left empty are unlinked.
+     * </p>
+     *
+     * @param element The element to remove.
+     * @param count The maximum number of occurrences to remove, 0 to remove them all.
+     * @return The number of removed occurrences.
+     */
+    int remove(Object element, int count) {
+        int removed = 0;
+        Node n = head;
+        while (n != null && (count == 0 || removed < count)) {
+            Node next = n.next;
+            int w = n.start;
+            for (int r = n.start; r < n.end; r++) {
+                Object e = n.elements[r];
+                if ((count == 0 || removed < count) && Objects.equals(e, element)) {
+                    removed++;
+                } else {
+                    n.elements[w++] = e;
+                }
+            }
+            for (int i = w; i < n.end; i++) {
+                n.elements[i] = null;
+            }
+            n.end = w;
+            if (n.size() == 0) {
+                unlink(n);
+            }
+            n = next;
+        }
+        size -= removed;
+        if (removed > 0) {
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Keep only a range of elements, dropping the others.
+     * <p>
+     *     The nodes entirely out of the range are unlinked as a whole, without visiting their elements unless they
+     *     have to be weighed.
+     * </p>
+     *
+     * @param from The index of the first element to keep, inclusive.
+     * @param to The index of the last element to keep, exclusive.
+     * @param weigher The weight of a dropped element, null not to weigh them.
+     * @return The total weight of the dropped elements.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    long trim(int from, int to, ToLongFunction<Object> weigher) throws IndexOutOfBoundsException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of [0, " + size + ")");
+        }
+        long weight = 0L;
+        int dropHead = from;
+        int dropTail = size - to;
+        while (dropHead > 0) {
+            Node n = head;
+            int nb = Math.min(dropHead, n.size());
+            weight += drop(n, n.start, n.start + nb, weigher);
+            n.start += nb;
+            dropHead -= nb;
+            if (n.size() == 0) {
+                unlink(n);
+            }
+        }
+        while (dropTail > 0) {
+            Node n = tail;
+            int nb = Math.min(dropTail, n.size());
+            weight += drop(n, n.end - nb, n.end, weigher);
+            n.end -= nb;
+            dropTail -= nb;
+            if (n.size() == 0) {
+                unlink(n);
+            }
+        }
+        size = to - from;
+        modCount++;
+        return weight;
+    }
+
+    /**
+     * Weigh and clear the elements of a node.
+     *
+     * @param n The node.
+     * @param from The index of the first element in the array of the node, inclusive.
+     * @param to The index of the last element in the array of the node, exclusive.
+     * @param weigher The weight of an element, null not to weigh them.
+     * @return The total weight of the elements.
+     */
+    private static long drop(Node n, int from, int to, ToLongFunction<Object> weigher) {
+        long weight = 0L;
+        for (int i = from; i < to; i++) {
+            if (weigher != null) {
+                weight += weigher.applyAsLong(n.elements[i]);
+            }
+            n.elements[i] = null;
+        }
+        return weight;
+    }
+
+    /**
+     * Copy a range of elements.
+     *
+     * @param from The index of the first element, inclusive.
+     * @param to The index of the last element, exclusive.
+     * @return The elements in the range.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    ArrayList<Object> range(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of [0, " + size + ")");
+        }
+        ArrayList<Object> res = new ArrayList<>(to - from);
+        if (from == to) {
+            return res;
+        }
+        Node n = nodeOf(from);
+        int i = n.start + offset;
+        while (res.size() < to - from) {
+            int nb = Math.min(n.end - i, to - from - res.size());
+            for (int j = 0; j < nb; j++) {
+                res.add(n.elements[i + j]);
+            }
+            n = n.next;
+            i = n != null ? n.start : 0;
+        }
+        return res;
+    }
+
+    /**
+     * Remove a node from the links. Its elements are left as is.
+     *
+     * @param n The node.
+     */
+    private void unlink(Node n) {
+        if (n.prev != null) {
+            n.prev.next = n.next;
+        } else {
+            head = n.next;
+        }
+        if (n.next != null) {
+            n.next.prev = n.prev;
+        } else {
+            tail = n.prev;
+        }
+        n.prev = null;
+        n.next = null;
+    }
+
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private Node node = head;
+            private int i = head != null ? head.start : 0;
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public Object next() {
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                Object e = node.elements[i++];
+                if (i == node.end) {
+                    node = node.next;
+                    i = node != null ? node.start : 0;
+                }
+                return e;
+            }
+        };
+    }
+}
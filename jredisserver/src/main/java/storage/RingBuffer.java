@@ -0,0 +1,306 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A deque of elements of fixed capacity, stored in a circular array.
+ * <p>
+ *     Holds the capped lists, the "last N events" kind of lists: once full, pushing at one end overwrites the element
+ *     at the other end, in O(1) and without allocating anything. Indexed access is O(1) too, so LINDEX and LRANGE read
+ *     the array directly.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class RingBuffer implements Iterable<Object> {
+    /**
+     * The elements, size of them from index head, wrapping around the end of the array.
+     */
+    private final Object[] elements;
+
+    /**
+     * The index in the array of the first element.
+     */
+    private int head;
+
+    /**
+     * The number of elements.
+     */
+    private int size;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * Constructor of an empty ring.
+     *
+     * @param capacity The maximum number of elements, > 0.
+     */
+    RingBuffer(int capacity) {
+        elements = new Object[capacity];
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return The length of the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the maximum number of elements.
+     *
+     * @return The length of the array.
+     */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Tell whether the ring is full, in which case only the overwriting pushes can add elements.
+     *
+     * @return True if the ring holds capacity() elements.
+     */
+    boolean isFull() {
+        return size == elements.length;
+    }
+
+    /**
+     * Add an element before the head of the list, overwriting the tail if the ring is full.
+     *
+     * @param element The element.
+     * @return The overwritten element, null if the ring was not full.
+     */
+    Object pushFirst(Object element) {
+        head = slot(-1);
+        Object overwritten = elements[head];
+        elements[head] = element;
+        if (size < elements.length) {
+            size++;
+        }
+        modCount++;
+        return overwritten;
+    }
+
+    /**
+     * Add an element after the tail of the list, overwriting the head if the ring is full.
+     *
+     * @param element The element.
+     * @return The overwritten element, null if the ring was not full.
+     */
+    Object pushLast(Object element) {
+        int tail = slot(size);
+        Object overwritten = elements[tail];
+        elements[tail] = element;
+        if (size < elements.length) {
+            size++;
+        } else {
+            head = slot(1);
+        }
+        modCount++;
+        return overwritten;
+    }
+
+    /**
+     * Remove the head of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        Object removed = elements[head];
+        elements[head] = null;
+        head = slot(1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Remove the tail of the list.
+     *
+     * @return The removed element, null if the list is empty.
+     */
+    Object removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        int tail = slot(size - 1);
+        Object removed = elements[tail];
+        elements[tail] = null;
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Get an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @return The element.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object get(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return elements[slot(index)];
+    }
+
+    /**
+     * Replace an element.
+     *
+     * @param index The index of the element, 0 being the head.
+     * @param element The new element.
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException When the index is out of range.
+     */
+    Object set(int index, Object element) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        int i = slot(index);
+        Object old = elements[i];
+        elements[i] = element;
+        return old;
+    }
+
+    /**
+     * Remove the first occurrences of an element, from the head, shifting the following elements.
+     *
+     * @param element The element to remove.
+     * @param count The maximum number of occurrences to remove, 0 to remove them all.
+     * @return The number of removed occurrences.
+     */
+    int remove(Object element, int count) {
+        int removed = 0;
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            Object e = elements[slot(r)];
+            if ((count == 0 || removed < count) && Objects.equals(e, element)) {
+                removed++;
+            } else {
+                elements[slot(w++)] = e;
+            }
+        }
+        for (int i = w; i < size; i++) {
+            elements[slot(i)] = null;
+        }
+        if (removed > 0) {
+            size = w;
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Keep only a range of elements, clearing the others in place.
+     *
+     * @param from The index of the first element to keep, inclusive.
+     * @param to The index of the last element to keep, exclusive.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    void trim(int from, int to) throws IndexOutOfBoundsException {
+        checkRange(from, to);
+        for (int i = 0; i < from; i++) {
+            elements[slot(i)] = null;
+        }
+        for (int i = to; i < size; i++) {
+            elements[slot(i)] = null;
+        }
+        head = slot(from);
+        size = to - from;
+        modCount++;
+    }
+
+    /**
+     * Copy a range of elements.
+     *
+     * @param from The index of the first element, inclusive.
+     * @param to The index of the last element, exclusive.
+     * @return The elements in the range.
+     * @throws IndexOutOfBoundsException When the range is out of the list.
+     */
+    ArrayList<Object> range(int from, int to) throws IndexOutOfBoundsException {
+        checkRange(from, to);
+        ArrayList<Object> res = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            res.add(elements[slot(i)]);
+        }
+        return res;
+    }
+
+    /**
+     * Copy the ring.
+     *
+     * @return A new ring of the same capacity holding the same elements.
+     */
+    RingBuffer copy() {
+        RingBuffer copy = new RingBuffer(elements.length);
+        System.arraycopy(elements, 0, copy.elements, 0, elements.length);
+        copy.head = head;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Object next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                return elements[slot(i++)];
+            }
+        };
+    }
+
+    /**
+     * Get the index in the array of an element.
+     *
+     * @param index The index of the element in the list, from -1 to capacity().
+     * @return The index in the array, wrapped around.
+     */
+    private int slot(int index) {
+        int i = head + index;
+        if (i >= elements.length) {
+            i -= elements.length;
+        } else if (i < 0) {
+            i += elements.length;
+        }
+        return i;
+    }
+
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkRange(int from, int to) throws IndexOutOfBoundsException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,1152 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A compressed bitmap of 32 bits integers, split into containers of 2^16 values like a Roaring bitmap.
+ * <p>
+ *     Each integer is split into its 16 high bits, the key of its container, and its 16 low bits, stored in the
+ *     container. The keys are kept sorted in an array, next to their containers. A container holds its low bits in one
+ *     of three ways, whichever is the most compact:
+ *     - an array: a sorted array of chars, up to ARRAY_MAX values (2 bytes per value),
+ *     - a bitmap: 1024 longs, one bit per possible value (8kb whatever the cardinality),
+ *     - a run: a sorted array of (start, length - 1) pairs of chars, for long sequences of consecutive values.
+ *     The run containers are only chosen by optimize(), after a set is built at once: a modification turns them back
+ *     into an array or a bitmap.
+ *
+ *     Intersections, unions and differences of two sets walk both arrays of keys and combine the containers with the
+ *     same key, 64 values at a time (AND, OR, AND NOT of the words) when both are bitmaps.
+ *
+ *     The integers are ordered as signed ints: the sign bit is flipped before splitting, so that iterating the keys
+ *     then the low bits in increasing order gives the members in increasing order. Like an IntSet, the members are
+ *     decoded back to the kind of objects they were added as (see IntSet.kindOf()), all the same.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class RoaringSet implements Iterable<Object> {
+    /**
+     * The maximum cardinality of an array container, above which a bitmap is smaller.
+     */
+    static final int ARRAY_MAX = 4096;
+
+    /**
+     * The number of longs of a bitmap container.
+     */
+    private static final int BITMAP_WORDS = 1024;
+
+    /**
+     * The keys of the containers, nbContainers of them in increasing order.
+     */
+    private char[] keys = new char[4];
+
+    /**
+     * The containers, at the same positions as their keys.
+     */
+    private Container[] containers = new Container[4];
+
+    /**
+     * The number of containers.
+     */
+    private int nbContainers;
+
+    /**
+     * The number of members.
+     */
+    private int size;
+
+    /**
+     * The kind of the members, see IntSet.kindOf().
+     */
+    private byte kind = IntSet.ANY;
+
+    /**
+     * The estimated size of the containers, see weightOf().
+     */
+    private long containersWeight;
+
+    /**
+     * The number of structural modifications, to make the iterators fail fast.
+     */
+    private int modCount;
+
+    /**
+     * Tell whether an object can be a member of a RoaringSet.
+     *
+     * @param o The object.
+     * @return True if it is an integer (see IntSet.kindOf()) that fits in an int.
+     */
+    static boolean fits(Object o) {
+        if (IntSet.kindOf(o) == IntSet.NOT_INTEGER) {
+            return false;
+        }
+        long v = IntSet.valueOf(o);
+        return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The cardinality of the set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the kind of the members.
+     *
+     * @return One of the kinds of IntSet, ANY while the set is empty.
+     */
+    byte kind() {
+        return kind;
+    }
+
+    /**
+     * Get the estimated size of the arrays of keys and containers and of the containers.
+     *
+     * @return The size in bytes, on top of SizeEstimator.ROARING_OVERHEAD.
+     */
+    long weight() {
+        return SizeEstimator.align(SizeEstimator.ARRAY_HEADER + 2L * keys.length)
+               + SizeEstimator.align(SizeEstimator.ARRAY_HEADER + SizeEstimator.REFERENCE * containers.length)
+               + containersWeight;
+    }
+
+    /**
+     * Tell whether an object can be added to the set.
+     *
+     * @param o The object.
+     * @return True if it fits (see fits()) and is of the kind of the members, or of any kind while the set is empty.
+     */
+    boolean accepts(Object o) {
+        return fits(o) && (kind == IntSet.ANY || IntSet.kindOf(o) == kind);
+    }
+
+    /**
+     * Tell whether an object is a member of the set.
+     *
+     * @param member The object.
+     * @return True if the object is a member of the set.
+     */
+    boolean contains(Object member) {
+        if (size == 0 || IntSet.kindOf(member) != kind) {
+            return false;
+        }
+        long v = IntSet.valueOf(member);
+        return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE && containsInt((int) v);
+    }
+
+    /**
+     * Add a member.
+     *
+     * @param member The member, accepted by the set (see accepts()).
+     * @return True if the member was added, false if it was already in the set.
+     */
+    boolean add(Object member) {
+        int u = (int) IntSet.valueOf(member) ^ Integer.MIN_VALUE;
+        char high = (char) (u >>> 16);
+        int i = indexOf(high);
+        if (i < 0) {
+            i = -1 - i;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        Container c = containers[i];
+        int card = c.cardinality();
+        long before = weightOf(c);
+        c = c.add((char) u);
+        containers[i] = c;
+        containersWeight += weightOf(c) - before;
+        if (c.cardinality() == card) {
+            return false;
+        }
+        kind = IntSet.kindOf(member);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the set.
+     */
+    boolean remove(Object member) {
+        if (!contains(member)) {
+            return false;
+        }
+        removeInt((int) IntSet.valueOf(member));
+        return true;
+    }
+
+    /**
+     * Get the member of a rank, in O(number of containers).
+     *
+     * @param rank The rank, from 0 to size() - 1, in increasing order of the members.
+     * @return The member.
+     */
+    Object get(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Index: " + rank + ", Size: " + size);
+        }
+        return decode(select(rank));
+    }
+
+    /**
+     * Pick a random member.
+     *
+     * @param random The source of randomness.
+     * @return A member, null if the set is empty.
+     */
+    Object random(Random random) {
+        return size > 0 ? decode(select(random.nextInt(size))) : null;
+    }
+
+    /**
+     * Remove a random member.
+     *
+     * @param random The source of randomness.
+     * @return The removed member, null if the set is empty.
+     */
+    Object removeRandom(Random random) {
+        if (size == 0) {
+            return null;
+        }
+        int v = select(random.nextInt(size));
+        Object member = decode(v);
+        removeInt(v);
+        return member;
+    }
+
+    /**
+     * Copy the members to a list.
+     *
+     * @return A new list holding the members, in increasing order.
+     */
+    ArrayList<Object> toList() {
+        ArrayList<Object> res = new ArrayList<>(size);
+        for (Object m : this) {
+            res.add(m);
+        }
+        return res;
+    }
+
+    /**
+     * Copy the next members, in increasing order.
+     * <p>
+     *     The cursor is a member with its sign bit flipped, as stored: since the members are kept in order, a walk
+     *     started at 0 and resumed at the returned cursors returns every member present during the whole walk exactly
+     *     once, whatever the changes in between.
+     * </p>
+     *
+     * @param cursor The first member to copy with its sign bit flipped, between 0 and 2^32 - 1.
+     * @param count The number of members to copy, > 0.
+     * @param dst The list where to add the members.
+     * @return The cursor of the member following the last one copied, -1 when there is none.
+     */
+    long scan(long cursor, int count, List<Object> dst) {
+        int i = Arrays.binarySearch(keys, 0, nbContainers, (char) (cursor >>> 16));
+        char low = (char) cursor;
+        if (i < 0) {
+            i = -1 - i;
+            low = 0;
+        }
+        int n = 0;
+        char[] buffer = new char[0];
+        for (; i < nbContainers; i++, low = 0) {
+            Container c = containers[i];
+            if (buffer.length < c.cardinality()) {
+                buffer = new char[c.cardinality()];
+            }
+            int nb = c.toChars(buffer);
+            int k = low > 0 ? Arrays.binarySearch(buffer, 0, nb, low) : 0;
+            for (k = k < 0 ? -1 - k : k; k < nb; k++) {
+                int u = keys[i] << 16 | buffer[k];
+                if (n == count) {
+                    return u & 0xFFFFFFFFL;
+                }
+                dst.add(decodeUnsigned(u));
+                n++;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Copy the set.
+     *
+     * @return A new set holding the same members.
+     */
+    RoaringSet copy() {
+        RoaringSet copy = new RoaringSet();
+        copy.keys = keys.clone();
+        copy.containers = new Container[containers.length];
+        for (int i = 0; i < nbContainers; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.nbContainers = nbContainers;
+        copy.size = size;
+        copy.kind = kind;
+        copy.containersWeight = containersWeight;
+        return copy;
+    }
+
+    /**
+     * Turn the containers holding long sequences of consecutive values into run containers, when it makes them
+     * smaller. Meant to be called once a set is built.
+     */
+    void optimize() {
+        for (int i = 0; i < nbContainers; i++) {
+            Container c = containers[i];
+            Container run = RunContainer.of(c);
+            if (run.bytes() < c.bytes()) {
+                containersWeight += weightOf(run) - weightOf(c);
+                containers[i] = run;
+            }
+        }
+    }
+
+    /**
+     * Intersect two sets of the same kind.
+     *
+     * @param a A set.
+     * @param b Another set.
+     * @return A new set holding the members of both.
+     */
+    static RoaringSet and(RoaringSet a, RoaringSet b) {
+        RoaringSet res = new RoaringSet();
+        int i = 0;
+        int j = 0;
+        while (i < a.nbContainers && j < b.nbContainers) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                res.append(a.keys[i], and(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        res.kind = res.size > 0 ? a.kind : IntSet.ANY;
+        return res;
+    }
+
+    /**
+     * Count the members of two sets of the same kind, without building their intersection.
+     *
+     * @param a A set.
+     * @param b Another set.
+     * @param limit The count after which to stop, 0 to count all the members. Checked after each container.
+     * @return The number of members of both, at most limit if limit > 0.
+     */
+    static int andCardinality(RoaringSet a, RoaringSet b, int limit) {
+        int res = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.nbContainers && j < b.nbContainers) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                res += andCardinality(a.containers[i++], b.containers[j++]);
+                if (limit > 0 && res >= limit) {
+                    return limit;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Unite two sets of the same kind.
+     *
+     * @param a A set.
+     * @param b Another set.
+     * @return A new set holding the members of either.
+     */
+    static RoaringSet or(RoaringSet a, RoaringSet b) {
+        RoaringSet res = new RoaringSet();
+        int i = 0;
+        int j = 0;
+        while (i < a.nbContainers || j < b.nbContainers) {
+            if (j == b.nbContainers || (i < a.nbContainers && a.keys[i] < b.keys[j])) {
+                res.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.nbContainers || a.keys[i] > b.keys[j]) {
+                res.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                res.append(a.keys[i], or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        res.kind = a.size > 0 ? a.kind : b.kind;
+        return res;
+    }
+
+    /**
+     * Subtract a set from another one of the same kind.
+     *
+     * @param a The set to subtract from.
+     * @param b The set to subtract.
+     * @return A new set holding the members of a that are not in b.
+     */
+    static RoaringSet andNot(RoaringSet a, RoaringSet b) {
+        RoaringSet res = new RoaringSet();
+        int j = 0;
+        for (int i = 0; i < a.nbContainers; i++) {
+            while (j < b.nbContainers && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.nbContainers && b.keys[j] == a.keys[i]) {
+                res.append(a.keys[i], andNot(a.containers[i], b.containers[j]));
+            } else {
+                res.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        res.kind = res.size > 0 ? a.kind : IntSet.ANY;
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private final int expectedModCount = modCount;
+            private char[] buffer = new char[0];
+            private int container = -1;
+            private int count;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < count || container + 1 < nbContainers;
+            }
+
+            @Override
+            public Object next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (i == count) {
+                    if (container + 1 >= nbContainers) {
+                        throw new NoSuchElementException();
+                    }
+                    container++;
+                    Container c = containers[container];
+                    if (buffer.length < c.cardinality()) {
+                        buffer = new char[Math.max(c.cardinality(), Math.min(2 * buffer.length, 1 << 16))];
+                    }
+                    count = c.toChars(buffer);
+                    i = 0;
+                }
+                return decodeUnsigned(keys[container] << 16 | buffer[i++]);
+            }
+        };
+    }
+
+    /**
+     * Tell whether an int is a member.
+     *
+     * @param v The int.
+     * @return True if it is in the set.
+     */
+    private boolean containsInt(int v) {
+        int u = v ^ Integer.MIN_VALUE;
+        int i = indexOf((char) (u >>> 16));
+        return i >= 0 && containers[i].contains((char) u);
+    }
+
+    /**
+     * Remove an int that is a member.
+     *
+     * @param v The int.
+     */
+    private void removeInt(int v) {
+        int u = v ^ Integer.MIN_VALUE;
+        int i = indexOf((char) (u >>> 16));
+        Container c = containers[i];
+        long before = weightOf(c);
+        c = c.remove((char) u);
+        containersWeight += weightOf(c) - before;
+        if (c.cardinality() == 0) {
+            containersWeight -= weightOf(c);
+            System.arraycopy(keys, i + 1, keys, i, nbContainers - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, nbContainers - i - 1);
+            containers[--nbContainers] = null;
+        } else {
+            containers[i] = c;
+        }
+        size--;
+        modCount++;
+        if (size == 0) {
+            kind = IntSet.ANY;
+        }
+    }
+
+    /**
+     * Find the int of a rank.
+     *
+     * @param rank The rank, from 0 to size - 1.
+     * @return The int.
+     */
+    private int select(int rank) {
+        int i = 0;
+        while (rank >= containers[i].cardinality()) {
+            rank -= containers[i].cardinality();
+            i++;
+        }
+        return (keys[i] << 16 | containers[i].select(rank)) ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Decode an unsigned int back to the kind of the members.
+     *
+     * @param u The int with its sign bit flipped, as stored.
+     * @return A String, an Integer or a Long.
+     */
+    private Object decodeUnsigned(int u) {
+        return decode(u ^ Integer.MIN_VALUE);
+    }
+
+    /**
+     * Decode an int back to the kind of the members.
+     *
+     * @param v The int.
+     * @return A String, an Integer or a Long.
+     */
+    private Object decode(int v) {
+        switch (kind) {
+            case IntSet.STRINGS:
+                return Integer.toString(v);
+            case IntSet.INTEGERS:
+                return v;
+            default:
+                return (long) v;
+        }
+    }
+
+    /**
+     * Look a key up.
+     *
+     * @param high The key.
+     * @return The position of the container of the key, or -1 minus the position where it would be inserted.
+     */
+    private int indexOf(char high) {
+        // the last container is the most likely one when the members are added in increasing order
+        if (nbContainers > 0 && keys[nbContainers - 1] == high) {
+            return nbContainers - 1;
+        }
+        return Arrays.binarySearch(keys, 0, nbContainers, high);
+    }
+
+    /**
+     * Insert a container.
+     *
+     * @param i The position.
+     * @param high The key of the container.
+     * @param c The container.
+     */
+    private void insertContainer(int i, char high, Container c) {
+        if (nbContainers == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            containers = Arrays.copyOf(containers, containers.length * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, nbContainers - i);
+        System.arraycopy(containers, i, containers, i + 1, nbContainers - i);
+        keys[i] = high;
+        containers[i] = c;
+        nbContainers++;
+        containersWeight += weightOf(c);
+    }
+
+    /**
+     * Add a container after the last one, unless it is empty.
+     *
+     * @param high The key of the container, greater than the others.
+     * @param c The container, null if empty.
+     */
+    private void append(char high, Container c) {
+        if (c != null && c.cardinality() > 0) {
+            insertContainer(nbContainers, high, c);
+            size += c.cardinality();
+        }
+    }
+
+    /**
+     * Estimate the size of a container.
+     *
+     * @param c The container.
+     * @return The size of the container and of its array.
+     */
+    private static long weightOf(Container c) {
+        return SizeEstimator.ROARING_CONTAINER + SizeEstimator.align(SizeEstimator.ARRAY_HEADER + c.bytes());
+    }
+
+    /**
+     * Intersect two containers.
+     *
+     * @param a A container.
+     * @param b Another container.
+     * @return A new container, null if empty.
+     */
+    private static Container and(Container a, Container b) {
+        a = a.unrun();
+        b = b.unrun();
+        if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+            long[] x = ((BitmapContainer) a).words;
+            long[] y = ((BitmapContainer) b).words;
+            BitmapContainer res = new BitmapContainer();
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                res.words[k] = x[k] & y[k];
+                res.card += Long.bitCount(res.words[k]);
+            }
+            return res.card <= ARRAY_MAX ? res.toArray() : res;
+        }
+        if (a instanceof BitmapContainer) {
+            Container swap = a;
+            a = b;
+            b = swap;
+        }
+        return ((ArrayContainer) a).filter(b, true);
+    }
+
+    /**
+     * Count the values of two containers, without building their intersection.
+     *
+     * @param a A container.
+     * @param b Another container.
+     * @return The number of values in both.
+     */
+    private static int andCardinality(Container a, Container b) {
+        a = a.unrun();
+        b = b.unrun();
+        if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+            long[] x = ((BitmapContainer) a).words;
+            long[] y = ((BitmapContainer) b).words;
+            int card = 0;
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                card += Long.bitCount(x[k] & y[k]);
+            }
+            return card;
+        }
+        if (a instanceof BitmapContainer) {
+            Container swap = a;
+            a = b;
+            b = swap;
+        }
+        ArrayContainer array = (ArrayContainer) a;
+        int card = 0;
+        for (int k = 0; k < array.card; k++) {
+            if (b.contains(array.content[k])) {
+                card++;
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Unite two containers.
+     *
+     * @param a A container.
+     * @param b Another container.
+     * @return A new container.
+     */
+    private static Container or(Container a, Container b) {
+        a = a.unrun();
+        b = b.unrun();
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            ArrayContainer x = (ArrayContainer) a;
+            ArrayContainer y = (ArrayContainer) b;
+            if (x.card + y.card <= ARRAY_MAX) {
+                return x.merge(y);
+            }
+        }
+        if (a instanceof ArrayContainer) {
+            Container swap = a;
+            a = b;
+            b = swap;
+        }
+        BitmapContainer res = a instanceof BitmapContainer ? (BitmapContainer) a.copy() : ((ArrayContainer) a).toBitmap();
+        if (b instanceof BitmapContainer) {
+            long[] y = ((BitmapContainer) b).words;
+            res.card = 0;
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                res.words[k] |= y[k];
+                res.card += Long.bitCount(res.words[k]);
+            }
+        } else {
+            ArrayContainer y = (ArrayContainer) b;
+            for (int k = 0; k < y.card; k++) {
+                res.add(y.content[k]);
+            }
+        }
+        return res.card <= ARRAY_MAX ? res.toArray() : res;
+    }
+
+    /**
+     * Subtract a container from another.
+     *
+     * @param a The container to subtract from.
+     * @param b The container to subtract.
+     * @return A new container, null if empty.
+     */
+    private static Container andNot(Container a, Container b) {
+        a = a.unrun();
+        b = b.unrun();
+        if (a instanceof ArrayContainer) {
+            return ((ArrayContainer) a).filter(b, false);
+        }
+        BitmapContainer res = (BitmapContainer) a.copy();
+        if (b instanceof BitmapContainer) {
+            long[] y = ((BitmapContainer) b).words;
+            res.card = 0;
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                res.words[k] &= ~y[k];
+                res.card += Long.bitCount(res.words[k]);
+            }
+        } else {
+            ArrayContainer y = (ArrayContainer) b;
+            for (int k = 0; k < y.card; k++) {
+                char low = y.content[k];
+                if (res.contains(low)) {
+                    res.words[low >>> 6] &= ~(1L << low);
+                    res.card--;
+                }
+            }
+        }
+        return res.card <= ARRAY_MAX ? res.toArray() : res;
+    }
+
+    /**
+     * The low 16 bits of the members sharing the same high 16 bits.
+     */
+    private abstract static class Container {
+        /**
+         * Get the number of values.
+         *
+         * @return The cardinality of the container.
+         */
+        abstract int cardinality();
+
+        /**
+         * Get the length in bytes of the array holding the values.
+         *
+         * @return The number of bytes.
+         */
+        abstract int bytes();
+
+        /**
+         * Tell whether a value is in the container.
+         *
+         * @param low The value.
+         * @return True if it is in the container.
+         */
+        abstract boolean contains(char low);
+
+        /**
+         * Add a value.
+         *
+         * @param low The value.
+         * @return The container holding the values, this one or a new one if the value made another kind smaller.
+         */
+        abstract Container add(char low);
+
+        /**
+         * Remove a value.
+         *
+         * @param low The value.
+         * @return The container holding the values, this one or a new one if the removal made another kind smaller.
+         */
+        abstract Container remove(char low);
+
+        /**
+         * Get the value of a rank.
+         *
+         * @param rank The rank, from 0 to cardinality() - 1.
+         * @return The value.
+         */
+        abstract char select(int rank);
+
+        /**
+         * Copy the values, in increasing order.
+         *
+         * @param dst The destination, at least cardinality() long.
+         * @return The number of values copied.
+         */
+        abstract int toChars(char[] dst);
+
+        /**
+         * Copy the container.
+         *
+         * @return A new container holding the same values.
+         */
+        abstract Container copy();
+
+        /**
+         * Get the values held by an array or a bitmap.
+         *
+         * @return This container, or a new array or bitmap if this one is a run.
+         */
+        Container unrun() {
+            return this;
+        }
+    }
+
+    /**
+     * A sorted array of values, up to ARRAY_MAX.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] content;
+        private int card;
+
+        ArrayContainer() {
+            content = new char[4];
+        }
+
+        ArrayContainer(char[] content, int card) {
+            this.content = content;
+            this.card = card;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int bytes() {
+            return 2 * content.length;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(content, 0, card, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int pos = Arrays.binarySearch(content, 0, card, low);
+            if (pos >= 0) {
+                return this;
+            }
+            if (card == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            pos = -1 - pos;
+            if (card == content.length) {
+                content = Arrays.copyOf(content, Math.min(ARRAY_MAX, content.length * 2));
+            }
+            System.arraycopy(content, pos, content, pos + 1, card - pos);
+            content[pos] = low;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int pos = Arrays.binarySearch(content, 0, card, low);
+            if (pos >= 0) {
+                System.arraycopy(content, pos + 1, content, pos, card - pos - 1);
+                card--;
+                if (content.length > 16 && card <= content.length / 4) {
+                    content = Arrays.copyOf(content, content.length / 2);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        char select(int rank) {
+            return content[rank];
+        }
+
+        @Override
+        int toChars(char[] dst) {
+            System.arraycopy(content, 0, dst, 0, card);
+            return card;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, Math.max(card, 4)), card);
+        }
+
+        /**
+         * Convert to a bitmap.
+         *
+         * @return A new bitmap holding the same values.
+         */
+        BitmapContainer toBitmap() {
+            BitmapContainer res = new BitmapContainer();
+            for (int k = 0; k < card; k++) {
+                res.words[content[k] >>> 6] |= 1L << content[k];
+            }
+            res.card = card;
+            return res;
+        }
+
+        /**
+         * Keep the values that are, or are not, in another container.
+         *
+         * @param other The other container.
+         * @param in True to keep the values in other, false to keep the others.
+         * @return A new array, null if empty.
+         */
+        ArrayContainer filter(Container other, boolean in) {
+            char[] res = new char[card];
+            int n = 0;
+            for (int k = 0; k < card; k++) {
+                if (other.contains(content[k]) == in) {
+                    res[n++] = content[k];
+                }
+            }
+            return n > 0 ? new ArrayContainer(Arrays.copyOf(res, n), n) : null;
+        }
+
+        /**
+         * Merge with another array, whose values fit in ARRAY_MAX together.
+         *
+         * @param other The other array.
+         * @return A new array holding the values of both.
+         */
+        ArrayContainer merge(ArrayContainer other) {
+            char[] res = new char[card + other.card];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < card || j < other.card) {
+                if (j == other.card || (i < card && content[i] < other.content[j])) {
+                    res[n++] = content[i++];
+                } else if (i == card || content[i] > other.content[j]) {
+                    res[n++] = other.content[j++];
+                } else {
+                    res[n++] = content[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(res, Math.max(n, 4)), n);
+        }
+    }
+
+    /**
+     * One bit per possible value.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private int card;
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int bytes() {
+            return 8 * BITMAP_WORDS;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & 1L << low) != 0L;
+        }
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0L) {
+                words[low >>> 6] |= bit;
+                card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0L) {
+                words[low >>> 6] &= ~bit;
+                card--;
+                // half of ARRAY_MAX, so that a set hovering around ARRAY_MAX doesn't convert back and forth
+                if (card <= ARRAY_MAX / 2) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        char select(int rank) {
+            int k = 0;
+            while (rank >= Long.bitCount(words[k])) {
+                rank -= Long.bitCount(words[k]);
+                k++;
+            }
+            long w = words[k];
+            for (int r = 0; r < rank; r++) {
+                w &= w - 1;
+            }
+            return (char) (k * 64 + Long.numberOfTrailingZeros(w));
+        }
+
+        @Override
+        int toChars(char[] dst) {
+            int n = 0;
+            for (int k = 0; k < BITMAP_WORDS; k++) {
+                long w = words[k];
+                while (w != 0L) {
+                    dst[n++] = (char) (k * 64 + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer res = new BitmapContainer();
+            System.arraycopy(words, 0, res.words, 0, BITMAP_WORDS);
+            res.card = card;
+            return res;
+        }
+
+        /**
+         * Convert to an array.
+         *
+         * @return A new array holding the same values, null if empty.
+         */
+        ArrayContainer toArray() {
+            if (card == 0) {
+                return null;
+            }
+            char[] content = new char[card];
+            toChars(content);
+            return new ArrayContainer(content, card);
+        }
+    }
+
+    /**
+     * Sequences of consecutive values, each as its first value and its length minus one.
+     */
+    private static final class RunContainer extends Container {
+        private final char[] runs;
+        private final int card;
+
+        private RunContainer(char[] runs, int card) {
+            this.runs = runs;
+            this.card = card;
+        }
+
+        /**
+         * Encode the values of a container as runs.
+         *
+         * @param c The container.
+         * @return A new run container holding the same values.
+         */
+        static RunContainer of(Container c) {
+            char[] values = new char[c.cardinality()];
+            int n = c.toChars(values);
+            int nbRuns = 0;
+            for (int k = 0; k < n; k++) {
+                if (k == 0 || values[k] != values[k - 1] + 1) {
+                    nbRuns++;
+                }
+            }
+            char[] runs = new char[2 * nbRuns];
+            int r = -1;
+            for (int k = 0; k < n; k++) {
+                if (k == 0 || values[k] != values[k - 1] + 1) {
+                    r++;
+                    runs[2 * r] = values[k];
+                } else {
+                    runs[2 * r + 1]++;
+                }
+            }
+            return new RunContainer(runs, n);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int bytes() {
+            return 2 * runs.length;
+        }
+
+        @Override
+        boolean contains(char low) {
+            int lo = 0;
+            int hi = runs.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char start = runs[2 * mid];
+                if (low < start) {
+                    hi = mid - 1;
+                } else if (low > start + runs[2 * mid + 1]) {
+                    lo = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Container add(char low) {
+            return contains(low) ? this : unrun().add(low);
+        }
+
+        @Override
+        Container remove(char low) {
+            return contains(low) ? unrun().remove(low) : this;
+        }
+
+        @Override
+        char select(int rank) {
+            int r = 0;
+            while (rank > runs[2 * r + 1]) {
+                rank -= runs[2 * r + 1] + 1;
+                r++;
+            }
+            return (char) (runs[2 * r] + rank);
+        }
+
+        @Override
+        int toChars(char[] dst) {
+            int n = 0;
+            for (int r = 0; r < runs.length; r += 2) {
+                for (int v = runs[r]; v <= runs[r] + runs[r + 1]; v++) {
+                    dst[n++] = (char) v;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        Container unrun() {
+            char[] values = new char[card];
+            toChars(values);
+            ArrayContainer array = new ArrayContainer(values, card);
+            return card > ARRAY_MAX ? array.toBitmap() : array;
+        }
+    }
+}
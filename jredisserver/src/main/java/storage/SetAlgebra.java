@@ -0,0 +1,379 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Operations combining several sets, that never modify them.
+ * <p>
+ *     The callers hold the locks of the keys of the sets for the whole operation, so the sets can be read from the
+ *     threads of a ForkJoinPool: nobody can write them until the operation returns.
+ *
+ *     Sets encoded as RoaringSets are combined container by container (see RoaringSet.and(), or() and andNot()) rather
+ *     than member by member, as long as the other sets hold integers of the same kind.
+ * </p>
+ */
+final class SetAlgebra {
+    /**
+     * Cardinality of the smallest set from which an intersection is split across the common ForkJoinPool.
+     */
+    static final int PARALLEL_THRESHOLD = 32 * 1024;
+
+    /**
+     * Number of members of the smallest set probed by each task of a parallel intersection.
+     */
+    private static final int CHUNK = 8 * 1024;
+
+    private SetAlgebra() {}
+
+    /**
+     * Intersect sets.
+     * <p>
+     *     The sets are sorted by cardinality, and each member of the smallest one is looked up in the others, from the
+     *     smallest to the largest, so that the probe costs O(N * M) where N is the cardinality of the smallest set and
+     *     M the number of sets, whatever the size of the largest ones. An empty set ends the intersection at once.
+     *     From PARALLEL_THRESHOLD members, the smallest set is split into chunks probed in parallel. When all the sets
+     *     are RoaringSets of the same kind, they are intersected as bitmaps, from the smallest one.
+     * </p>
+     *
+     * @param sets The sets, at least one, left untouched.
+     * @return A new list of the members of every set, in the order of the smallest set.
+     */
+    static List<Object> inter(List<SetValue> sets) {
+        List<SetValue> bySize = new ArrayList<>(sets);
+        bySize.sort(Comparator.comparingInt(SetValue::size));
+        SetValue smallest = bySize.get(0);
+        if (smallest.size() == 0) {
+            return new ArrayList<>();
+        }
+        List<SetValue> others = bySize.subList(1, bySize.size());
+        if (smallest.bitmap() != null) {
+            RoaringSet res = smallest.bitmap();
+            for (SetValue set : others) {
+                if (set.bitmap() == null || set.bitmap().kind() != res.kind()) {
+                    // positions are slow to reach in a RoaringSet, walk it instead
+                    return probe(smallest, others);
+                }
+                res = RoaringSet.and(res, set.bitmap());
+                if (res.size() == 0) {
+                    break;
+                }
+            }
+            return res.toList();
+        }
+        if (smallest.size() < PARALLEL_THRESHOLD) {
+            return probe(smallest, others, 0, smallest.size());
+        }
+        return ForkJoinPool.commonPool().invoke(new ProbeTask(smallest, others, 0, smallest.size()));
+    }
+
+    /**
+     * Count the members of the intersection of sets, without building it.
+     * <p>
+     *     Works like inter(), counting the members found instead of copying them: the smallest set is probed against
+     *     the others, in parallel from PARALLEL_THRESHOLD members when there is no limit. When all the sets are
+     *     RoaringSets of the same kind, the last two are only counted word by word (see RoaringSet.andCardinality()).
+     *     With a limit, the probe stops as soon as limit members are found.
+     * </p>
+     *
+     * @param sets The sets, at least one, left untouched.
+     * @param limit The count after which to stop, 0 to count all the members.
+     * @return The cardinality of the intersection, at most limit if limit > 0.
+     */
+    static int interCard(List<SetValue> sets, int limit) {
+        List<SetValue> bySize = new ArrayList<>(sets);
+        bySize.sort(Comparator.comparingInt(SetValue::size));
+        SetValue smallest = bySize.get(0);
+        List<SetValue> others = bySize.subList(1, bySize.size());
+        if (others.isEmpty() || smallest.size() == 0) {
+            return limit > 0 ? Math.min(smallest.size(), limit) : smallest.size();
+        }
+        if (smallest.bitmap() != null) {
+            RoaringSet res = smallest.bitmap();
+            for (SetValue set : others) {
+                if (set.bitmap() == null || set.bitmap().kind() != res.kind()) {
+                    return count(smallest, others, limit);
+                }
+            }
+            for (int i = 0; i < others.size() - 1 && res.size() > 0; i++) {
+                res = RoaringSet.and(res, others.get(i).bitmap());
+            }
+            return RoaringSet.andCardinality(res, others.get(others.size() - 1).bitmap(), limit);
+        }
+        if (limit > 0 || smallest.size() < PARALLEL_THRESHOLD) {
+            return count(smallest, others, 0, smallest.size(), limit);
+        }
+        return ForkJoinPool.commonPool().invoke(new CountTask(smallest, others, 0, smallest.size()));
+    }
+
+    /**
+     * Unite sets, in O(N) where N is the total cardinality of the sets.
+     *
+     * @param sets The sets, left untouched.
+     * @param maxIntSetEntries The maximum number of members of the result while encoded as an IntSet.
+     * @return A new set of the members of any set, sized for the sum of the cardinalities, or a RoaringSet when one of
+     *         the sets is and the others can be turned into one.
+     */
+    static SetValue union(List<SetValue> sets, int maxIntSetEntries) {
+        RoaringSet bitmap = null;
+        for (SetValue set : sets) {
+            if (set.bitmap() != null && set.size() > 0) {
+                bitmap = set.bitmap();
+                break;
+            }
+        }
+        if (bitmap != null && maxIntSetEntries > 0) {
+            RoaringSet res = new RoaringSet();
+            for (SetValue set : sets) {
+                RoaringSet other = bitmapOf(set, bitmap.kind());
+                if (other == null) {
+                    res = null;
+                    break;
+                }
+                res = RoaringSet.or(res, other);
+            }
+            if (res != null) {
+                res.optimize();
+                return new SetValue(maxIntSetEntries, res);
+            }
+        }
+        long total = 0L;
+        for (SetValue set : sets) {
+            total += set.size();
+        }
+        SetValue res = new SetValue(maxIntSetEntries, (int) Math.min(total, Integer.MAX_VALUE - 8));
+        for (SetValue set : sets) {
+            res.addAll(set);
+        }
+        return res;
+    }
+
+    /**
+     * Subtract sets from a set, in O(N * M) where N is the cardinality of the first set and M the number of the others.
+     *
+     * @param first The set to subtract from, left untouched.
+     * @param others The sets to subtract, left untouched.
+     * @param maxIntSetEntries The maximum number of members of the result while encoded as an IntSet.
+     * @return A new set of the members of first that are in none of the others, sized for the cardinality of first, or
+     *         a RoaringSet when first is one and the others can be turned into one.
+     */
+    static SetValue diff(SetValue first, List<SetValue> others, int maxIntSetEntries) {
+        if (first.bitmap() != null && maxIntSetEntries > 0) {
+            RoaringSet res = first.bitmap();
+            for (SetValue set : others) {
+                RoaringSet other = bitmapOf(set, res.kind());
+                if (other == null) {
+                    res = null;
+                    break;
+                }
+                res = RoaringSet.andNot(res, other);
+            }
+            if (res != null) {
+                res = res == first.bitmap() ? res.copy() : res;
+                res.optimize();
+                return new SetValue(maxIntSetEntries, res);
+            }
+        }
+        SetValue res = new SetValue(maxIntSetEntries, first.size());
+        for (Object m : first) {
+            boolean inAny = false;
+            for (int j = 0; j < others.size() && !inAny; j++) {
+                inAny = others.get(j).contains(m);
+            }
+            if (!inAny) {
+                res.add(m);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the members of a set as a RoaringSet.
+     *
+     * @param set The set, left untouched.
+     * @param kind The kind of integers expected, see IntSet.kindOf().
+     * @return The RoaringSet of the set if it has one, a new one if it is empty or an IntSet that fits, null otherwise.
+     */
+    private static RoaringSet bitmapOf(SetValue set, byte kind) {
+        RoaringSet bitmap = set.bitmap();
+        if (bitmap != null) {
+            return bitmap.kind() == kind || bitmap.size() == 0 ? bitmap : null;
+        }
+        bitmap = new RoaringSet();
+        if (set.size() > 0 && !set.isIntSet()) {
+            return null;
+        }
+        for (Object m : set) {
+            if (IntSet.kindOf(m) != kind || !RoaringSet.fits(m)) {
+                return null;
+            }
+            bitmap.add(m);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Look all the members of a set up in other sets, walking the set.
+     *
+     * @param set The set whose members are looked up.
+     * @param others The other sets.
+     * @return A new list of the members of set that are in all the other sets.
+     */
+    private static List<Object> probe(SetValue set, List<SetValue> others) {
+        List<Object> res = new ArrayList<>();
+        for (Object m : set) {
+            boolean inAll = true;
+            for (int j = 0; j < others.size() && inAll; j++) {
+                inAll = others.get(j).contains(m);
+            }
+            if (inAll) {
+                res.add(m);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Look members of a set up in other sets.
+     *
+     * @param set The set whose members are looked up.
+     * @param others The other sets, smallest first.
+     * @param from The position of the first member looked up.
+     * @param to The position after the last member looked up.
+     * @return A new list of the members of set, between from and to, that are in all the other sets.
+     */
+    private static List<Object> probe(SetValue set, List<SetValue> others, int from, int to) {
+        List<Object> res = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Object m = set.get(i);
+            boolean inAll = true;
+            for (int j = 0; j < others.size() && inAll; j++) {
+                inAll = others.get(j).contains(m);
+            }
+            if (inAll) {
+                res.add(m);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Count the members of a set that are in other sets, walking the set.
+     *
+     * @param set The set whose members are looked up.
+     * @param others The other sets.
+     * @param limit The count after which to stop, 0 to count all the members.
+     * @return The number of members of set that are in all the other sets, at most limit if limit > 0.
+     */
+    private static int count(SetValue set, List<SetValue> others, int limit) {
+        int res = 0;
+        for (Object m : set) {
+            if (inAll(m, others) && ++res == limit) {
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Count the members of a set that are in other sets.
+     *
+     * @param set The set whose members are looked up.
+     * @param others The other sets, smallest first.
+     * @param from The position of the first member looked up.
+     * @param to The position after the last member looked up.
+     * @param limit The count after which to stop, 0 to count all the members.
+     * @return The number of members of set, between from and to, that are in all the other sets, at most limit if
+     *         limit > 0.
+     */
+    private static int count(SetValue set, List<SetValue> others, int from, int to, int limit) {
+        int res = 0;
+        for (int i = from; i < to; i++) {
+            if (inAll(set.get(i), others) && ++res == limit) {
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Tell whether an object is a member of all the given sets.
+     *
+     * @param member The object.
+     * @param sets The sets, the most likely to miss first.
+     * @return True if it is in every set.
+     */
+    private static boolean inAll(Object member, List<SetValue> sets) {
+        for (int j = 0; j < sets.size(); j++) {
+            if (!sets.get(j).contains(member)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Probes a range of members of a set, split in halves down to CHUNK members.
+     */
+    private static final class ProbeTask extends RecursiveTask<List<Object>> {
+        private static final long serialVersionUID = 1L;
+
+        private final SetValue set;
+        private final List<SetValue> others;
+        private final int from;
+        private final int to;
+
+        ProbeTask(SetValue set, List<SetValue> others, int from, int to) {
+            this.set = set;
+            this.others = others;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Object> compute() {
+            if (to - from <= CHUNK) {
+                return probe(set, others, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ProbeTask right = new ProbeTask(set, others, mid, to);
+            right.fork();
+            List<Object> res = new ProbeTask(set, others, from, mid).compute();
+            res.addAll(right.join());
+            return res;
+        }
+    }
+
+    /**
+     * Counts the members of a range of a set that are in other sets, split in halves down to CHUNK members.
+     */
+    private static final class CountTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final SetValue set;
+        private final List<SetValue> others;
+        private final int from;
+        private final int to;
+
+        CountTask(SetValue set, List<SetValue> others, int from, int to) {
+            this.set = set;
+            this.others = others;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= CHUNK) {
+                return count(set, others, from, to, 0);
+            }
+            int mid = (from + to) >>> 1;
+            CountTask right = new CountTask(set, others, mid, to);
+            right.fork();
+            return new CountTask(set, others, from, mid).compute() + right.join();
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A set of members.
+ * <p>
+ *     Small sets of integers are encoded as an IntSet, a sorted array of 16, 32 or 64 bits integers, as long as they
+ *     have at most maxIntSetEntries members and all of them are integers of the same kind (see IntSet.kindOf()). A set
+ *     of integers growing past maxIntSetEntries is converted to a RoaringSet, a compressed bitmap, as long as all its
+ *     members fit in 32 bits. Once a member breaks these rules the set is converted for good to an IndexedSet, so that
+ *     SPOP and SRANDMEMBER pick a random member in O(1) whatever the cardinality. The conversions are transparent to
+ *     the callers; with maxIntSetEntries at 0, the sets are always IndexedSets.
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class SetValue extends Value implements Iterable<Object> {
+    /**
+     * Default maximum number of members of a set encoded as an IntSet.
+     */
+    static final int DEFAULT_MAX_INTSET_ENTRIES = 512;
+
+    /**
+     * The first cursor of a walk over a RoaringSet, see scan(). The cursors of the IndexedSets are below it.
+     */
+    static final long BITMAP_CURSOR = 1L << 32;
+
+    /**
+     * The maximum number of members of the set while encoded as an IntSet.
+     */
+    private final int maxIntSetEntries;
+
+    /**
+     * The members while the set is encoded as an IntSet, null once converted.
+     */
+    private IntSet ints;
+
+    /**
+     * The members while the set is encoded as a RoaringSet, null otherwise.
+     */
+    private RoaringSet bitmap;
+
+    /**
+     * The members once the set is converted, null while it is encoded as an IntSet or a RoaringSet.
+     */
+    private IndexedSet members;
+
+    /**
+     * The estimated size of the members of the IndexedSet, see SizeEstimator.sizeOfSetMember().
+     */
+    private long elementsWeight;
+
+    /**
+     * Constructor of an empty set, with the default limit.
+     */
+    SetValue() {
+        this(DEFAULT_MAX_INTSET_ENTRIES, 0);
+    }
+
+    /**
+     * Constructor of an empty set.
+     *
+     * @param maxIntSetEntries The maximum number of members of the set while encoded as an IntSet, 0 never to encode
+     *                         it so.
+     * @param expectedSize The number of members the set will hold without growing. Above maxIntSetEntries the set
+     *                     starts as an IndexedSet.
+     */
+    SetValue(int maxIntSetEntries, int expectedSize) {
+        super(Type.SET);
+        this.maxIntSetEntries = maxIntSetEntries;
+        if (maxIntSetEntries > 0 && expectedSize <= maxIntSetEntries) {
+            ints = new IntSet();
+        } else {
+            members = new IndexedSet(expectedSize);
+        }
+    }
+
+    /**
+     * Constructor, with the default limit.
+     *
+     * @param members The members, copied.
+     */
+    SetValue(Collection<?> members) {
+        this(DEFAULT_MAX_INTSET_ENTRIES, members);
+    }
+
+    /**
+     * Constructor, encoding the set as the members allow from the start.
+     *
+     * @param maxIntSetEntries The maximum number of members of the set while encoded as an IntSet, 0 never to encode
+     *                         it so.
+     * @param members The members, copied.
+     */
+    SetValue(int maxIntSetEntries, Collection<?> members) {
+        super(Type.SET);
+        this.maxIntSetEntries = maxIntSetEntries;
+        if (maxIntSetEntries > 0 && members.size() <= maxIntSetEntries) {
+            ints = new IntSet();
+        } else if (maxIntSetEntries > 0 && fitBitmap(members)) {
+            bitmap = new RoaringSet();
+        } else {
+            this.members = new IndexedSet(members.size());
+        }
+        for (Object m : members) {
+            add(m);
+        }
+        if (bitmap != null) {
+            bitmap.optimize();
+        }
+    }
+
+    /**
+     * Constructor of a set encoded as a RoaringSet.
+     *
+     * @param maxIntSetEntries The maximum number of members of the set while encoded as an IntSet, > 0.
+     * @param bitmap The members, adopted as is.
+     */
+    SetValue(int maxIntSetEntries, RoaringSet bitmap) {
+        super(Type.SET);
+        this.maxIntSetEntries = maxIntSetEntries;
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Constructor of a copy.
+     *
+     * @param other The set to copy.
+     */
+    private SetValue(SetValue other) {
+        super(Type.SET);
+        this.maxIntSetEntries = other.maxIntSetEntries;
+        this.ints = other.ints != null ? other.ints.copy() : null;
+        this.bitmap = other.bitmap != null ? other.bitmap.copy() : null;
+        this.members = other.members != null ? other.members.copy() : null;
+        this.elementsWeight = other.elementsWeight;
+    }
+
+    /**
+     * Tell whether the set is encoded as an IntSet.
+     *
+     * @return True if the set is held in an IntSet, false if it is held in an IndexedSet.
+     */
+    boolean isIntSet() {
+        return ints != null;
+    }
+
+    /**
+     * Get the members when the set is encoded as a RoaringSet.
+     *
+     * @return The RoaringSet, null if the set is held in an IntSet or an IndexedSet.
+     */
+    RoaringSet bitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Get the maximum number of members of the set while encoded as an IntSet.
+     *
+     * @return The limit the set was created with.
+     */
+    int maxIntSetEntries() {
+        return maxIntSetEntries;
+    }
+
+    /**
+     * Get the estimated size of the members, on top of SizeEstimator.SET_VALUE.
+     * <p>
+     *     Kept up to date by every operation, in O(1).
+     * </p>
+     *
+     * @return The size of the IntSet, of the RoaringSet or of the IndexedSet, members included.
+     */
+    long weight() {
+        if (ints != null) {
+            return SizeEstimator.INT_SET_OVERHEAD + SizeEstimator.align(SizeEstimator.ARRAY_HEADER + ints.capacity());
+        }
+        if (bitmap != null) {
+            return SizeEstimator.ROARING_OVERHEAD + bitmap.weight();
+        }
+        return SizeEstimator.SET_OVERHEAD + elementsWeight;
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The cardinality of the set.
+     */
+    int size() {
+        if (ints != null) {
+            return ints.size();
+        }
+        return bitmap != null ? bitmap.size() : members.size();
+    }
+
+    /**
+     * Tell whether an object is a member of the set, by binary search while the set is an IntSet.
+     *
+     * @param member The object.
+     * @return True if the object is a member of the set.
+     */
+    boolean contains(Object member) {
+        if (ints != null) {
+            return ints.contains(member);
+        }
+        return bitmap != null ? bitmap.contains(member) : members.contains(member);
+    }
+
+    /**
+     * Add a member, converting the set to a RoaringSet or an IndexedSet if its encoding can't take it.
+     *
+     * @param member The member.
+     * @return True if the member was added, false if it was already in the set.
+     */
+    boolean add(Object member) {
+        if (ints != null) {
+            if (ints.accepts(member)) {
+                if (ints.contains(member)) {
+                    return false;
+                }
+                if (ints.size() < maxIntSetEntries) {
+                    return ints.add(member);
+                }
+                if (ints.fitsInInt() && RoaringSet.fits(member)) {
+                    toBitmap();
+                    return bitmap.add(member);
+                }
+            }
+            convert();
+        } else if (bitmap != null) {
+            if (bitmap.accepts(member)) {
+                return bitmap.add(member);
+            }
+            convert();
+        }
+        if (members.add(member)) {
+            elementsWeight += SizeEstimator.sizeOfSetMember(member);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the set.
+     */
+    boolean remove(Object member) {
+        if (ints != null) {
+            return ints.remove(member);
+        }
+        if (bitmap != null) {
+            return bitmap.remove(member);
+        }
+        if (members.remove(member)) {
+            elementsWeight -= SizeEstimator.sizeOfSetMember(member);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add all the members of another set.
+     *
+     * @param other The other set.
+     */
+    void addAll(SetValue other) {
+        for (Object m : other) {
+            add(m);
+        }
+    }
+
+    /**
+     * Pick a random member, in O(1).
+     *
+     * @param random The source of randomness.
+     * @return A member, null if the set is empty.
+     */
+    Object randomMember(Random random) {
+        if (ints != null) {
+            return ints.random(random);
+        }
+        return bitmap != null ? bitmap.random(random) : members.random(random);
+    }
+
+    /**
+     * Remove a random member, in O(1) once the set is an IndexedSet.
+     *
+     * @param random The source of randomness.
+     * @return The removed member, null if the set is empty.
+     */
+    Object removeRandomMember(Random random) {
+        if (ints != null) {
+            return ints.removeRandom(random);
+        }
+        if (bitmap != null) {
+            return bitmap.removeRandom(random);
+        }
+        if (members.size() == 0) {
+            return null;
+        }
+        Object member = members.removeRandom(random);
+        elementsWeight -= SizeEstimator.sizeOfSetMember(member);
+        return member;
+    }
+
+    /**
+     * Pick distinct random members, in O(count).
+     * <p>
+     *     Draws the first count positions of a random permutation of the members (a partial Fisher-Yates shuffle),
+     *     keeping the swapped positions in a map rather than shuffling the set itself.
+     * </p>
+     *
+     * @param random The source of randomness.
+     * @param count The number of members to pick, >= 0.
+     * @return count distinct members, or all of them if the set holds no more than count.
+     */
+    List<Object> randomMembers(Random random, int count) {
+        int size = size();
+        if (count >= size) {
+            return toList();
+        }
+        List<Object> res = new ArrayList<>(count);
+        HashMap<Integer, Integer> swapped = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            Integer picked = swapped.get(j);
+            Integer atI = swapped.get(i);
+            res.add(get(picked != null ? picked : j));
+            swapped.put(j, atI != null ? atI : i);
+        }
+        return res;
+    }
+
+    /**
+     * Pick random members, possibly the same one several times, in O(count).
+     *
+     * @param random The source of randomness.
+     * @param count The number of members to pick, >= 0.
+     * @return count members, none if the set is empty.
+     */
+    List<Object> randomMembersWithRepeats(Random random, int count) {
+        List<Object> res = new ArrayList<>(size() > 0 ? count : 0);
+        if (size() > 0) {
+            for (int i = 0; i < count; i++) {
+                res.add(randomMember(random));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the members as a list.
+     *
+     * @return A new list holding the members, in no particular order.
+     */
+    List<Object> toList() {
+        if (ints != null) {
+            return ints.toList();
+        }
+        return bitmap != null ? bitmap.toList() : members.toList();
+    }
+
+    /**
+     * Copy the next members of a walk over the set, see Storage.sscan().
+     * <p>
+     *     An IntSet is copied at once, its cursor is always 0. A RoaringSet is walked in increasing order, its cursors
+     *     are BITMAP_CURSOR plus a member with its sign bit flipped (see RoaringSet.scan()). An IndexedSet is walked
+     *     by slot of its index, its cursors are below BITMAP_CURSOR (see IndexedSet.scan()). A cursor given for
+     *     another encoding than the current one, because the set was converted during the walk, starts the walk over:
+     *     since a set is never converted back, this happens at most twice and only returns some members again.
+     * </p>
+     *
+     * @param cursor 0 to start the walk, or the cursor returned by the previous call, between 0 and
+     *               2 * BITMAP_CURSOR - 1.
+     * @param count The number of members after which to stop, > 0.
+     * @param dst The list where to add the members.
+     * @return The cursor where to resume the walk, 0 when the walk is over.
+     */
+    long scan(long cursor, int count, List<Object> dst) {
+        if (ints != null) {
+            dst.addAll(ints.toList());
+            return 0L;
+        }
+        if (bitmap != null) {
+            long next = bitmap.scan(cursor >= BITMAP_CURSOR ? cursor - BITMAP_CURSOR : 0L, count, dst);
+            return next >= 0L ? BITMAP_CURSOR + next : 0L;
+        }
+        return members.scan(cursor < BITMAP_CURSOR ? cursor : 0L, count, dst);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Object> iterator() {
+        if (ints != null) {
+            return ints.iterator();
+        }
+        return bitmap != null ? bitmap.iterator() : members.iterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object toObject() {
+        HashSet<Object> res = new HashSet<>();
+        for (Object m : this) {
+            res.add(m);
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    SetValue copy() {
+        return new SetValue(this);
+    }
+
+    /**
+     * Get the member at a position.
+     *
+     * @param position The position, from 0 to size() - 1. The positions change when members are added or removed. It
+     *                 takes O(number of containers) for a RoaringSet, O(1) otherwise.
+     * @return The member.
+     */
+    Object get(int position) {
+        if (ints != null) {
+            return ints.get(position);
+        }
+        return bitmap != null ? bitmap.get(position) : members.get(position);
+    }
+
+    /**
+     * Tell whether members can all be held in a RoaringSet.
+     *
+     * @param members The members.
+     * @return True if they are integers of the same kind that fit in 32 bits.
+     */
+    private static boolean fitBitmap(Collection<?> members) {
+        byte kind = IntSet.ANY;
+        for (Object m : members) {
+            if (!RoaringSet.fits(m)) {
+                return false;
+            }
+            byte k = IntSet.kindOf(m);
+            if (kind != IntSet.ANY && k != kind) {
+                return false;
+            }
+            kind = k;
+        }
+        return true;
+    }
+
+    /**
+     * Convert an IntSet to a RoaringSet.
+     */
+    private void toBitmap() {
+        bitmap = new RoaringSet();
+        for (Object m : ints) {
+            bitmap.add(m);
+        }
+        ints = null;
+    }
+
+    /**
+     * Convert an IntSet or a RoaringSet to an IndexedSet, for good.
+     */
+    private void convert() {
+        Iterable<Object> from = ints != null ? ints : bitmap;
+        members = new IndexedSet(size() + 1);
+        for (Object m : from) {
+            members.add(m);
+        }
+        ints = null;
+        bitmap = null;
+        weighMembers();
+    }
+
+    /**
+     * Compute the estimated size of the members of the IndexedSet from scratch, after a bulk operation.
+     */
+    private void weighMembers() {
+        elementsWeight = 0L;
+        for (Object m : members) {
+            elementsWeight += SizeEstimator.sizeOfSetMember(m);
+        }
+    }
+}
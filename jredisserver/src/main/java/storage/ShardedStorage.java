@@ -0,0 +1,473 @@
+package storage;
+
+import storage.eviction.EvictionPolicy;
+import storage.eviction.LruPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A keyspace split into several shards by hash of key.
+ * <p>
+ *     Each shard is a thread-confined Storage owned by its own single-threaded executor: every operation on a key is
+ *     queued to the executor of the key's shard, which runs it without taking any lock. Operations on keys of
+ *     different shards run in parallel, without ever sharing anything.
+ *
+ *     Multi-key operations gather a copy of the values of their keys from the shards (scatter/gather), run on this
+ *     copy, and then write back the destination key if they have one. They are atomic only with respect to each key
+ *     taken separately, not across shards.
+ * </p>
+ */
+public class ShardedStorage {
+    /**
+     * The shards. shards[i] is only ever accessed by executors[i].
+     */
+    private Storage[] shards;
+
+    /**
+     * The single-threaded executors owning the shards.
+     */
+    private ExecutorService[] executors;
+
+    /**
+     * Whether an expiration cycle is already queued to the executor of each shard.
+     */
+    private AtomicBoolean[] reaping;
+
+    /**
+     * Constructor. The shards evict their least recently used keys.
+     *
+     * @param nbShards The number of shards, usually the number of cores.
+     * @param maxMemoryPerShard The maximum number of bytes to keep in memory in each shard.
+     * @throws IllegalArgumentException When nbShards or maxMemoryPerShard is <= 0.
+     */
+    public ShardedStorage(int nbShards, long maxMemoryPerShard) throws IllegalArgumentException {
+        this(nbShards, maxMemoryPerShard, LruPolicy::new);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param nbShards The number of shards, usually the number of cores.
+     * @param maxMemoryPerShard The maximum number of bytes to keep in memory in each shard.
+     * @param policies Creates the eviction policy of each shard.
+     * @throws IllegalArgumentException When nbShards or maxMemoryPerShard is <= 0.
+     */
+    public ShardedStorage(int nbShards, long maxMemoryPerShard, Supplier<EvictionPolicy> policies)
+            throws IllegalArgumentException {
+        if (nbShards <= 0) {
+            throw new IllegalArgumentException("Invalid number of shards. The number of shards must be >= 1.");
+        }
+        shards = new Storage[nbShards];
+        executors = new ExecutorService[nbShards];
+        reaping = new AtomicBoolean[nbShards];
+        for (int i = 0; i < nbShards; i++) {
+            int id = i;
+            shards[i] = Storage.withMaxMemory(maxMemoryPerShard, policies.get(), true);
+            reaping[i] = new AtomicBoolean();
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "shard-" + id);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Get the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getNbShards() {
+        return shards.length;
+    }
+
+    /**
+     * Get the estimated number of bytes used by all the shards.
+     * <p>
+     *     Read without going through the executors, so the result may miss the operations running at the same time.
+     * </p>
+     *
+     * @return The used memory in bytes.
+     */
+    public long getUsedMemory() {
+        return sum(Storage::getUsedMemory);
+    }
+
+    /**
+     * Keep the strings set as bytes outside of the heap in every shard, see Storage.setMaxOffHeap().
+     *
+     * @param maxOffHeapPerShard The maximum number of bytes to keep outside of the heap in each shard, 0 to keep
+     *                           everything on the heap.
+     * @throws IllegalArgumentException When maxOffHeapPerShard is < 0.
+     */
+    public void setMaxOffHeap(long maxOffHeapPerShard) throws IllegalArgumentException {
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            await(executors[shard].submit(() -> shards[shard].setMaxOffHeap(maxOffHeapPerShard)));
+        }
+    }
+
+    /**
+     * Get the number of bytes used outside of the heap by all the shards.
+     *
+     * @return The used off-heap memory in bytes.
+     */
+    public long getUsedOffHeap() {
+        return sum(Storage::getUsedOffHeap);
+    }
+
+    /**
+     * Get the number of keys stored in all the shards.
+     *
+     * @return The number of keys.
+     */
+    public long size() {
+        return sum(shard -> shard.getCache().size());
+    }
+
+    /**
+     * Get the number of lookups that found their key in all the shards.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return sum(Storage::getHits);
+    }
+
+    /**
+     * Get the number of lookups that did not find their key in all the shards.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return sum(Storage::getMisses);
+    }
+
+    /**
+     * Get the number of keys evicted by all the shards.
+     *
+     * @return The number of evicted keys.
+     */
+    public long getEvictions() {
+        return sum(Storage::getEvictions);
+    }
+
+    /**
+     * Get the number of keys expired by all the shards.
+     *
+     * @return The number of expired keys.
+     */
+    public long getExpirations() {
+        return sum(Storage::getExpirations);
+    }
+
+    /**
+     * Get the number of keys with an expiration time in all the shards.
+     *
+     * @return The number of volatile keys.
+     */
+    public long getVolatileKeys() {
+        return sum(Storage::getVolatileKeys);
+    }
+
+    /**
+     * Sum a statistic over the shards.
+     * <p>
+     *     Read without going through the executors, so the result may miss the operations running at the same time.
+     * </p>
+     *
+     * @param stat The statistic of a shard.
+     * @return The sum of the statistic of every shard.
+     */
+    private long sum(ToLongFunction<Storage> stat) {
+        long sum = 0L;
+        for (Storage shard : shards) {
+            sum += stat.applyAsLong(shard);
+        }
+        return sum;
+    }
+
+    /**
+     * Get the index of the shard owning the given key.
+     *
+     * @param key The key.
+     * @return The index of the shard owning the key, between 0 and getNbShards() - 1.
+     */
+    public int shardOf(String key) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * Run the given operation on the shard owning key, and wait for its result.
+     *
+     * @param key The key the operation works on.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    public <T> T call(String key, Function<Storage, T> operation) {
+        int shard = shardOf(key);
+        return await(executors[shard].submit(() -> operation.apply(shards[shard])));
+    }
+
+    /**
+     * Run the given read-only multi-key operation.
+     * <p>
+     *     If all the keys live in the same shard, the operation simply runs on that shard. Otherwise a copy of the
+     *     values of the keys is gathered from their shards into a temporary storage, where the operation runs.
+     * </p>
+     *
+     * @param keys The keys the operation works on.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    public <T> T callAll(String[] keys, Function<Storage, T> operation) {
+        Integer shard = commonShardOf(keys);
+        if (shard != null) {
+            return await(executors[shard].submit(() -> operation.apply(shards[shard])));
+        }
+        return operation.apply(gather(keys));
+    }
+
+    /**
+     * Run the given multi-key operation storing its result at dstkey (e.g SUNIONSTORE).
+     * <p>
+     *     Works like callAll(), then the value of dstkey computed by the operation is written back into its shard.
+     * </p>
+     *
+     * @param dstkey The key where the operation stores its result.
+     * @param keys The keys the operation works on.
+     * @param operation The operation to run.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    public <T> T callAllAndStore(String dstkey, String[] keys, Function<Storage, T> operation) {
+        Integer shard = commonShardOf(keys);
+        if (shard != null && shard == shardOf(dstkey)) {
+            return await(executors[shard].submit(() -> operation.apply(shards[shard])));
+        }
+        Storage scratch = gather(keys);
+        T res = operation.apply(scratch);
+        Value dst = scratch.copyOf(dstkey);
+        call(dstkey, s -> {
+            s.restore(dstkey, dst);
+            return null;
+        });
+        return res;
+    }
+
+    /**
+     * Move member from the set at srckey to the set at dstkey.
+     * <p>
+     *     Same as Storage.smove(), but atomic only if both keys live in the same shard. Otherwise the member is first
+     *     removed from the source set, then added to the destination set, so it is never lost but can briefly be in
+     *     none of the sets.
+     * </p>
+     *
+     * @param srckey The key of the source set.
+     * @param dstkey The key of the destination set.
+     * @param member The member to move.
+     * @return 1 if the element was moved, 0 if the element was not found on and no operation was performed, -1 if error
+     */
+    public int smove(String srckey, String dstkey, Object member) {
+        if (shardOf(srckey) == shardOf(dstkey)) {
+            return call(srckey, s -> s.smove(srckey, dstkey, member));
+        }
+        if (call(dstkey, s -> s.scard(dstkey)) < 0) {
+            return -1;
+        }
+        int removed = call(srckey, s -> s.srem(srckey, member));
+        if (removed != 1) {
+            return removed;
+        }
+        int added = call(dstkey, s -> s.sadd(dstkey, member));
+        if (added < 0) {
+            // dstkey stopped holding a set in the meantime, put the member back
+            call(srckey, s -> s.sadd(srckey, member));
+        }
+        return added;
+    }
+
+    /**
+     * Atomically remove an element at one end of a list and add it at one end of another list.
+     * <p>
+     *     Same as Storage.lmove(), but atomic only if both keys live in the same shard. Otherwise the element is first
+     *     popped from the source list, then pushed to the destination list, and pushed back to the source list if the
+     *     destination stopped holding a list in the meantime.
+     * </p>
+     *
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @param fromLeft True to remove the element with LPOP, false to remove it with RPOP.
+     * @param toLeft True to add the element with LPUSH, false to add it with RPUSH.
+     * @return The moved element, null if the source is empty or does not exist, or if a key does not hold a list.
+     */
+    public Object lmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft) {
+        if (shardOf(srckey) == shardOf(dstkey)) {
+            return call(srckey, s -> s.lmove(srckey, dstkey, fromLeft, toLeft));
+        }
+        if (call(dstkey, s -> s.llen(dstkey)) < 0) {
+            return null;
+        }
+        Object moved = call(srckey, s -> fromLeft ? s.lPop(srckey) : s.rPop(srckey));
+        if (moved == null) {
+            return null;
+        }
+        boolean pushed = call(dstkey, s -> toLeft ? s.lPush(dstkey, moved) : s.rPush(dstkey, moved));
+        if (!pushed) {
+            // dstkey stopped holding a list in the meantime, put the element back where it was
+            call(srckey, s -> fromLeft ? s.lPush(srckey, moved) : s.rPush(srckey, moved));
+            return null;
+        }
+        return moved;
+    }
+
+    /**
+     * Incrementally iterate over the keys of all the shards, see Storage.scan().
+     * <p>
+     *     The shards are walked one after the other: the cursor is the index of the shard times KeySpace.CURSORS plus
+     *     the cursor within the shard. A call moves on to the next shards until it has looked at about count keys.
+     * </p>
+     *
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @param pattern A glob-style pattern the keys must match, null to return all the keys.
+     * @param count The number of keys to look at, > 0.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the keys.
+     * @throws IllegalArgumentException When cursor is not a cursor of SCAN, or count is <= 0.
+     */
+    public ArrayList<Object> scan(long cursor, String pattern, int count) throws IllegalArgumentException {
+        if (cursor < 0L || cursor >= shards.length * KeySpace.CURSORS) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        int shard = (int) (cursor / KeySpace.CURSORS);
+        long next = cursor % KeySpace.CURSORS;
+        ArrayList<Object> keys = new ArrayList<>();
+        do {
+            long from = next;
+            int id = shard;
+            int left = count - keys.size();
+            ArrayList<Object> reply = await(executors[id].submit(() -> shards[id].scan(from, pattern, left)));
+            next = (Long) reply.get(0);
+            @SuppressWarnings("unchecked")
+            List<Object> found = (List<Object>) reply.get(1);
+            keys.addAll(found);
+            if (next == 0L) {
+                shard++;
+            }
+        } while (next == 0L && shard < shards.length && keys.size() < count);
+        ArrayList<Object> res = new ArrayList<>(2);
+        res.add(shard < shards.length ? shard * KeySpace.CURSORS + next : 0L);
+        res.add(keys);
+        return res;
+    }
+
+    /**
+     * Queue an active expiration cycle to every shard, see Storage.expireCycle().
+     * <p>
+     *     Does not wait for the cycles to run. A shard whose previous cycle is still queued is skipped, so that a busy
+     *     shard never accumulates cycles.
+     * </p>
+     *
+     * @param maxSteps The maximum number of steps of the cycle of each shard.
+     */
+    public void expireCycle(int maxSteps) {
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            if (reaping[shard].compareAndSet(false, true)) {
+                executors[shard].execute(() -> {
+                    try {
+                        shards[shard].expireCycle(maxSteps);
+                    } finally {
+                        reaping[shard].set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Stop the executors. The storage can't be used anymore afterwards.
+     */
+    public void shutdown() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Get the shard shared by all the given keys.
+     *
+     * @param keys The keys.
+     * @return The index of the shard if all the keys are in the same shard, null otherwise.
+     */
+    private Integer commonShardOf(String[] keys) {
+        if (keys.length == 0) {
+            return 0;
+        }
+        int shard = shardOf(keys[0]);
+        for (String k : keys) {
+            if (shardOf(k) != shard) {
+                return null;
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Copy the values of the given keys from their shards into a new thread-confined storage.
+     * <p>
+     *     The copies are requested from all the shards at once (scatter), then collected (gather).
+     * </p>
+     *
+     * @param keys The keys to copy.
+     * @return A storage holding a copy of the values of the keys.
+     */
+    private Storage gather(String[] keys) {
+        List<Future<Value>> copies = new ArrayList<>(keys.length);
+        for (String k : keys) {
+            int shard = shardOf(k);
+            copies.add(executors[shard].submit(() -> shards[shard].copyOf(k)));
+        }
+        Storage scratch = new Storage(Math.max(1, keys.length), true);
+        for (int i = 0; i < keys.length; i++) {
+            scratch.restore(keys[i], await(copies.get(i)));
+        }
+        return scratch;
+    }
+
+    /**
+     * Wait for the result of an operation queued to a shard.
+     *
+     * @param future The future of the operation.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     * @throws IllegalStateException When interrupted while waiting.
+     */
+    private <T> T await(Future<T> future) throws IllegalStateException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
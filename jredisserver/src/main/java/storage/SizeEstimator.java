@@ -0,0 +1,320 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Estimates the number of bytes of heap used by the keys and values of the storage.
+ * <p>
+ *     The estimates assume a 64 bits JVM with compressed references (12 bytes object headers, 4 bytes references,
+ *     objects aligned on 8 bytes), which is the default for heaps under 32 GB. They don't have to be exact, they only
+ *     have to grow with the real footprint so that a big set weighs more than a small string.
+ *
+ *     Collections are weighed as a fixed overhead plus a cost per element, so that the weight of a list or a set can be
+ *     kept up to date in O(1) when an element is added or removed, instead of walking the whole collection again.
+ * </p>
+ */
+final class SizeEstimator {
+    /**
+     * Size of an object header.
+     */
+    static final long HEADER = 12L;
+
+    /**
+     * Size of a reference.
+     */
+    static final long REFERENCE = 4L;
+
+    /**
+     * Size of the header of an array (object header + length).
+     */
+    static final long ARRAY_HEADER = 16L;
+
+    /**
+     * Cost of a key/value pair in the cache, on top of the key and the value themselves: the node of the hash map, our
+     * own entry with the bookkeeping of the eviction policy (see Storage.Entry) and its slot in the sampling array.
+     */
+    static final long ENTRY_OVERHEAD = 112L;
+
+    /**
+     * Fixed cost of an empty list: its QuickList (head, tail, size, modification count and offset).
+     */
+    static final long LIST_OVERHEAD = align(HEADER + 2 * REFERENCE + 3 * 4);
+
+    /**
+     * Cost of an element of a list: its share of the QuickList node holding it (links, indexes and an array of
+     * NODE_CAPACITY references). Only the nodes at both ends can be partly empty, but LREM and LTRIM can leave holes,
+     * so nodes are assumed to be 3/4 full on average.
+     */
+    static final long LIST_SLOT = (align(HEADER + 3 * REFERENCE + 2 * 4)
+                                   + align(ARRAY_HEADER + QuickList.NODE_CAPACITY * REFERENCE)) * 4
+                                  / (3 * QuickList.NODE_CAPACITY);
+
+    /**
+     * Fixed cost of a packed list: its ListPack (the array reference, the number of bytes used, the number of entries
+     * and the modification count), on top of the array itself.
+     */
+    static final long LIST_PACK_OVERHEAD = align(HEADER + REFERENCE + 3 * 4);
+
+    /**
+     * Fixed cost of a capped list: its RingBuffer (the array reference, the head, the size and the modification count),
+     * on top of the array itself.
+     */
+    static final long RING_OVERHEAD = align(HEADER + REFERENCE + 3 * 4);
+
+    /**
+     * Size of a ListValue: its type, its three encodings, the weight of its elements and its packing limits.
+     */
+    static final long LIST_VALUE = align(HEADER + 4 * REFERENCE + 8 + 2 * 4);
+
+    /**
+     * Fixed cost of an empty set: the IndexedSet (its array, its index, a shift, a size and a modification count) and
+     * the headers of its array and its index.
+     */
+    static final long SET_OVERHEAD = align(HEADER + 2 * REFERENCE + 3 * 4) + 2 * ARRAY_HEADER;
+
+    /**
+     * Cost of a member of a set: about two slots of the array of the IndexedSet, which is kept between 25% and 100%
+     * full, and for each of them about three int slots of the index, which has two to four times as many slots.
+     */
+    static final long SET_SLOT = 2 * (REFERENCE + 3 * 4);
+
+    /**
+     * Fixed cost of a set of integers: its IntSet (the array reference, the kind of the members, the width, the size
+     * and the modification count), on top of the array itself.
+     */
+    static final long INT_SET_OVERHEAD = align(HEADER + REFERENCE + 1 + 3 * 4);
+
+    /**
+     * Fixed cost of a large set of integers: its RoaringSet (the arrays of keys and containers, their number, the
+     * size, the kind of the members, the weight of the containers and the modification count), on top of the arrays
+     * and the containers.
+     */
+    static final long ROARING_OVERHEAD = align(HEADER + 2 * REFERENCE + 3 * 4 + 1 + 8);
+
+    /**
+     * Fixed cost of a container of a RoaringSet (its array and its cardinality), on top of its array.
+     */
+    static final long ROARING_CONTAINER = align(HEADER + REFERENCE + 4);
+
+    /**
+     * Size of a SetValue: its type, its three encodings, the weight of its members and its IntSet limit.
+     */
+    static final long SET_VALUE = align(HEADER + 4 * REFERENCE + 8 + 4);
+
+    /**
+     * Fixed cost of an empty sorted set: its hash map (four views, its table, a size, a modification count, a
+     * threshold and a load factor) and the header of its table, and its SkipList (the head, the tail, the level and
+     * the size) with a head node of SkipList.MAX_LEVEL levels.
+     */
+    static final long ZSET_OVERHEAD = align(HEADER + 5 * REFERENCE + 4 * 4) + ARRAY_HEADER
+                                      + align(HEADER + 2 * REFERENCE + 2 * 4) + align(HEADER + 3 * REFERENCE + 8)
+                                      + 2 * align(ARRAY_HEADER + SkipList.MAX_LEVEL * 4);
+
+    /**
+     * Cost of a member of a sorted set: its node in the hash map with about two slots of the table, which is kept
+     * between 37.5% and 75% full, and its boxed score, then its node in the SkipList with its arrays of links and
+     * spans, which have 4/3 levels on average.
+     */
+    static final long ZSET_SLOT = align(HEADER + 3 * REFERENCE + 4) + 2 * REFERENCE + align(HEADER + 8)
+                                  + align(HEADER + 3 * REFERENCE + 8) + 2 * align(ARRAY_HEADER + 4 * 4 / 3);
+
+    /**
+     * Size of a ZSetValue: its type, its hash map, its SkipList and the weight of its members.
+     */
+    static final long ZSET_VALUE = align(HEADER + 3 * REFERENCE + 8);
+
+    /**
+     * Fixed cost of a hash held in an IndexedMap: the map (its two arrays, its index, a shift and a size) and the
+     * headers of its arrays and its index.
+     */
+    static final long HASH_OVERHEAD = align(HEADER + 3 * REFERENCE + 2 * 4) + 3 * ARRAY_HEADER;
+
+    /**
+     * Cost of a field of a hash held in an IndexedMap: about two slots of each array, which are kept between 25% and
+     * 100% full, and for each of them about three int slots of the index, which has two to four times as many slots.
+     */
+    static final long HASH_SLOT = 2 * (2 * REFERENCE + 3 * 4);
+
+    /**
+     * Size of a HashValue: its type, its pack, its IndexedMap, the number of fields of the pack, its pack limit and
+     * the weight of its fields and values.
+     */
+    static final long HASH_VALUE = align(HEADER + 3 * REFERENCE + 2 * 4 + 8);
+
+    /**
+     * Size of a BitmapValue: its type, its array of words and its length, on top of the array.
+     */
+    static final long BITMAP_VALUE = align(HEADER + 2 * REFERENCE + 4);
+
+    /**
+     * Size of a Value holding a reference to its data (its type and the reference), see Value.
+     */
+    static final long VALUE_HEADER = align(HEADER + 2 * REFERENCE);
+
+    /**
+     * Size of an IntegerValue or a FloatValue, which hold their number inline.
+     */
+    static final long NUMBER_VALUE = align(HEADER + REFERENCE + 8);
+
+    /**
+     * Size of an OffHeapValue on the heap: its type, the allocator, the handle, the length and the freed flag. The
+     * bytes of the string are not on the heap.
+     */
+    static final long OFF_HEAP_VALUE = align(HEADER + 3 * REFERENCE + 8 + 4 + 1);
+
+    /**
+     * Weight of an object we don't know how to measure.
+     */
+    static final long DEFAULT_SIZE = 64L;
+
+    private SizeEstimator() {}
+
+    /**
+     * Round a size up to the next multiple of 8, the alignment of objects.
+     *
+     * @param size The size to align.
+     * @return The aligned size.
+     */
+    static long align(long size) {
+        return (size + 7L) & ~7L;
+    }
+
+    /**
+     * Estimate the size of a string.
+     *
+     * @param s The string.
+     * @return The size of the string and of its array of chars.
+     */
+    static long sizeOf(String s) {
+        return align(HEADER + REFERENCE + 4) + align(ARRAY_HEADER + 2L * s.length());
+    }
+
+    /**
+     * Estimate the size of a value, collections included. This walks the whole collection, use it only when the value
+     * is stored as a whole and the per-element methods otherwise.
+     *
+     * @param o The value.
+     * @return The estimated size of the value in bytes.
+     */
+    static long sizeOf(Object o) {
+        if (o instanceof String) {
+            return sizeOf((String) o);
+        } else if (o instanceof byte[]) {
+            return align(ARRAY_HEADER + ((byte[]) o).length);
+        } else if (o instanceof Integer || o instanceof Short || o instanceof Byte || o instanceof Character
+                   || o instanceof Boolean || o instanceof Float) {
+            return align(HEADER + 4);
+        } else if (o instanceof Long || o instanceof Double) {
+            return align(HEADER + 8);
+        } else if (o instanceof ArrayList) {
+            long size = LIST_OVERHEAD;
+            for (Object e : (ArrayList<?>) o) {
+                size += sizeOfListElement(e);
+            }
+            return size;
+        } else if (o instanceof HashSet) {
+            long size = SET_OVERHEAD;
+            for (Object m : (HashSet<?>) o) {
+                size += sizeOfSetMember(m);
+            }
+            return size;
+        }
+        return DEFAULT_SIZE;
+    }
+
+    /**
+     * Estimate the size of a value of the storage, its data included. The lists and the sets keep their own weight up
+     * to date, so this is O(1).
+     *
+     * @param value The value.
+     * @return The estimated size of the value in bytes.
+     */
+    static long sizeOf(Value value) {
+        switch (value.type) {
+            case INTEGER:
+            case FLOAT:
+                return NUMBER_VALUE;
+            case STRING:
+                if (value instanceof OffHeapValue) {
+                    return OFF_HEAP_VALUE;
+                }
+                return VALUE_HEADER + sizeOf(((StringValue) value).get());
+            case LIST:
+                return LIST_VALUE + ((ListValue) value).weight();
+            case SET:
+                return SET_VALUE + ((SetValue) value).weight();
+            case ZSET:
+                return ZSET_VALUE + ((ZSetValue) value).weight();
+            case HASH:
+                return HASH_VALUE + ((HashValue) value).weight();
+            case BITMAP:
+                return BITMAP_VALUE + ((BitmapValue) value).weight();
+            default:
+                return DEFAULT_SIZE;
+        }
+    }
+
+    /**
+     * Estimate what an element costs to a list.
+     *
+     * @param element The element.
+     * @return The size of the element plus its slot in the list.
+     */
+    static long sizeOfListElement(Object element) {
+        return LIST_SLOT + sizeOf(element);
+    }
+
+    /**
+     * Estimate what a member costs to a set.
+     *
+     * @param member The member.
+     * @return The size of the member plus its node in the set.
+     */
+    static long sizeOfSetMember(Object member) {
+        return SET_SLOT + sizeOf(member);
+    }
+
+    /**
+     * Estimate what a member costs to a sorted set.
+     *
+     * @param member The member.
+     * @return The size of the member plus its nodes in the sorted set.
+     */
+    static long sizeOfZSetMember(Object member) {
+        return ZSET_SLOT + sizeOf(member);
+    }
+
+    /**
+     * Estimate what a field and its value cost to a hash, on top of the slot holding them (see HashValue.weight()).
+     *
+     * @param field The field.
+     * @param value The value of the field.
+     * @return The size of the field plus the size of the value.
+     */
+    static long sizeOfHashEntry(Object field, Object value) {
+        return sizeOf(field) + sizeOf(value);
+    }
+
+    /**
+     * Estimate what a key/value pair costs to the storage.
+     *
+     * @param key The key.
+     * @param value The value.
+     * @return The size of the key, the value and the entry holding them.
+     */
+    static long sizeOfEntry(String key, Value value) {
+        return ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+    }
+
+    /**
+     * Estimate what a key/value pair costs to the storage, the object being wrapped as the storage would do.
+     *
+     * @param key The key.
+     * @param value The object.
+     * @return The size of the key, the value and the entry holding them.
+     */
+    static long sizeOfEntry(String key, Object value) {
+        return sizeOfEntry(key, Value.of(value));
+    }
+}
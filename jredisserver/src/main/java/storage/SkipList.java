@@ -0,0 +1,376 @@
+package storage;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The members of a sorted set, ordered by score and then by member, in a skip list whose links know how many nodes
+ * they skip.
+ * <p>
+ *     Every node is linked to the next one at level 0, and a node reaching level i reaches level i + 1 with a
+ *     probability of 1/4, so a search going down from the highest level visits O(log n) nodes on average. Each link
+ *     also holds its span, the number of level 0 links it stands for: summing the spans of the links followed by a
+ *     search gives the rank of the node it stops at. The rank of a member, the member at a rank and the first member
+ *     of a range of scores are all found in O(log n), and a range of m members is then walked in O(m) at level 0.
+ *
+ *     Members with the same score are ordered by their string form, see compare(). The list does not know which
+ *     members it holds: finding a member needs its score (see ZSetValue, which maps the members to their score).
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class SkipList {
+    /**
+     * The maximum number of levels of a node, enough for 2^64 nodes.
+     */
+    static final int MAX_LEVEL = 32;
+
+    /**
+     * A member of the list, with its links to the following nodes at each of its levels.
+     */
+    static final class Node {
+        /**
+         * The member.
+         */
+        final Object member;
+
+        /**
+         * The score of the member.
+         */
+        double score;
+
+        /**
+         * The previous node at level 0, null for the first node.
+         */
+        Node backward;
+
+        /**
+         * The next node at each level of the node, null for the last one.
+         */
+        final Node[] forward;
+
+        /**
+         * The number of level 0 links between this node and the next one at each level.
+         */
+        final int[] span;
+
+        /**
+         * Constructor.
+         *
+         * @param member The member.
+         * @param score The score of the member.
+         * @param level The number of levels of the node, between 1 and MAX_LEVEL.
+         */
+        Node(Object member, double score, int level) {
+            this.member = member;
+            this.score = score;
+            this.forward = new Node[level];
+            this.span = new int[level];
+        }
+
+        /**
+         * Get the next node in the order of the list.
+         *
+         * @return The next node, null for the last one.
+         */
+        Node next() {
+            return forward[0];
+        }
+    }
+
+    /**
+     * The head of the list, holding no member, linked to the first node of every level.
+     */
+    private final Node head;
+
+    /**
+     * The last node, null if the list is empty.
+     */
+    private Node tail;
+
+    /**
+     * The number of levels in use, the highest level of the nodes.
+     */
+    private int level;
+
+    /**
+     * The number of nodes.
+     */
+    private int size;
+
+    /**
+     * Constructor of an empty list.
+     */
+    SkipList() {
+        head = new Node(null, 0.0, MAX_LEVEL);
+        level = 1;
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The number of nodes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the node with the lowest score.
+     *
+     * @return The first node, null if the list is empty.
+     */
+    Node first() {
+        return head.forward[0];
+    }
+
+    /**
+     * Get the node with the highest score.
+     *
+     * @return The last node, null if the list is empty.
+     */
+    Node last() {
+        return tail;
+    }
+
+    /**
+     * Insert a member.
+     *
+     * @param score The score of the member, not NaN.
+     * @param member The member, which must not be in the list.
+     */
+    void insert(double score, Object member) {
+        int lvl = randomLevel();
+        int top = Math.max(level, lvl);
+        Node[] update = new Node[top];
+        // rank[i] is the rank of update[i], the last node before the member at level i
+        int[] rank = new int[top];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.forward[i] != null && compare(x.forward[i], score, member) < 0) {
+                rank[i] += x.span[i];
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+        for (int i = level; i < lvl; i++) {
+            update[i] = head;
+            head.span[i] = size;
+        }
+        level = top;
+        x = new Node(member, score, lvl);
+        for (int i = 0; i < lvl; i++) {
+            x.forward[i] = update[i].forward[i];
+            update[i].forward[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        // the links above the new node skip one more node
+        for (int i = lvl; i < level; i++) {
+            update[i].span[i]++;
+        }
+        x.backward = update[0] == head ? null : update[0];
+        if (x.forward[0] != null) {
+            x.forward[0].backward = x;
+        } else {
+            tail = x;
+        }
+        size++;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param score The score of the member.
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the list with this score.
+     */
+    boolean delete(double score, Object member) {
+        Node[] update = new Node[level];
+        Node x = find(score, member, update);
+        if (x == null) {
+            return false;
+        }
+        unlink(x, update);
+        return true;
+    }
+
+    /**
+     * Change the score of a member, in place if it keeps its rank.
+     *
+     * @param score The current score of the member.
+     * @param member The member, which must be in the list with this score.
+     * @param newScore The new score, not NaN.
+     */
+    void update(double score, Object member, double newScore) {
+        Node[] update = new Node[level];
+        Node x = find(score, member, update);
+        if ((x.backward == null || compare(x.backward, newScore, member) < 0)
+            && (x.forward[0] == null || compare(x.forward[0], newScore, member) > 0)) {
+            x.score = newScore;
+            return;
+        }
+        unlink(x, update);
+        insert(newScore, member);
+    }
+
+    /**
+     * Get the rank of a member.
+     *
+     * @param score The score of the member.
+     * @param member The member.
+     * @return The rank of the member, from 0 for the lowest score, -1 if it is not in the list with this score.
+     */
+    int rank(double score, Object member) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && compare(x.forward[i], score, member) <= 0) {
+                rank += x.span[i];
+                x = x.forward[i];
+            }
+            if (x != head && x.score == score && Objects.equals(x.member, member)) {
+                return rank - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the node at a rank.
+     *
+     * @param rank The rank, from 0 for the lowest score.
+     * @return The node, null if rank is out of the list.
+     */
+    Node nodeAt(int rank) {
+        if (rank < 0 || rank >= size) {
+            return null;
+        }
+        int target = rank + 1;
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && traversed + x.span[i] <= target) {
+                traversed += x.span[i];
+                x = x.forward[i];
+            }
+            if (traversed == target) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count the members whose score is below a minimum, which is also the rank of the first member whose score is
+     * not.
+     *
+     * @param min The minimum.
+     * @return The number of members whose score is strictly lower than min.
+     */
+    int countBelow(double min) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && x.forward[i].score < min) {
+                rank += x.span[i];
+                x = x.forward[i];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Compare two members of the same score, by their string form and then by class, so that a member given as a
+     * string and as an integer are two members.
+     *
+     * @param a A member.
+     * @param b Another member.
+     * @return A negative number if a comes first, a positive one if b comes first, 0 if they are equal.
+     */
+    static int compare(Object a, Object b) {
+        int c = String.valueOf(a).compareTo(String.valueOf(b));
+        if (c != 0 || Objects.equals(a, b)) {
+            return c;
+        }
+        c = a.getClass().getName().compareTo(b.getClass().getName());
+        return c != 0 ? c : Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+    }
+
+    /**
+     * Compare a node to a member.
+     *
+     * @param node The node.
+     * @param score The score of the member.
+     * @param member The member.
+     * @return A negative number if the node comes before the member, a positive one if it comes after, 0 if it holds
+     * the member with this score.
+     */
+    private static int compare(Node node, double score, Object member) {
+        if (node.score != score) {
+            return node.score < score ? -1 : 1;
+        }
+        return compare(node.member, member);
+    }
+
+    /**
+     * Look a member up, remembering the last node before it at each level.
+     *
+     * @param score The score of the member.
+     * @param member The member.
+     * @param update Where to put the last node before the member at each level, of length level.
+     * @return The node holding the member, null if it is not in the list with this score.
+     */
+    private Node find(double score, Object member, Node[] update) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && compare(x.forward[i], score, member) < 0) {
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+        x = x.forward[0];
+        return x != null && x.score == score && Objects.equals(x.member, member) ? x : null;
+    }
+
+    /**
+     * Remove a node from every level.
+     *
+     * @param x The node.
+     * @param update The last node before x at each level, see find().
+     */
+    private void unlink(Node x, Node[] update) {
+        for (int i = 0; i < level; i++) {
+            if (update[i].forward[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].forward[i] = x.forward[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        if (x.forward[0] != null) {
+            x.forward[0].backward = x.backward;
+        } else {
+            tail = x.backward;
+        }
+        while (level > 1 && head.forward[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    /**
+     * Draw the number of levels of a new node: 1, then one more with a probability of 1/4 each time.
+     *
+     * @return The number of levels, between 1 and MAX_LEVEL.
+     */
+    private static int randomLevel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int lvl = 1;
+        while (lvl < MAX_LEVEL && random.nextInt(4) == 0) {
+            lvl++;
+        }
+        return lvl;
+    }
+}
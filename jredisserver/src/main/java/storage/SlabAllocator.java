@@ -0,0 +1,280 @@
+package storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocates chunks of memory outside of the heap, for values that would otherwise keep the garbage collector busy.
+ * <p>
+ *     Memory is reserved by slabs of SLAB_SIZE bytes, allocated as direct ByteBuffers. Each slab is cut into chunks
+ *     of a single size class, from MIN_CHUNK_SIZE bytes up to a whole slab, each class GROWTH_FACTOR times bigger
+ *     than the previous one. A value takes a chunk of the smallest class it fits in, so it wastes at most a quarter
+ *     of its chunk. Freed chunks go back to the free list of their class and are reused first.
+ *
+ *     A slab is given to a class for good: once every slab has been allocated, a class with no free chunk can't get
+ *     memory back from the other classes. The caller is expected to evict values of the same size then.
+ *
+ *     Chunks are designated by a handle, a long packing the class, the slab and the index of the chunk in the slab, so
+ *     that the heap only holds one long per value. Thread-safe: each class is guarded by its own monitor.
+ * </p>
+ */
+final class SlabAllocator {
+    /**
+     * Size of a slab, and of the biggest chunk.
+     */
+    static final int SLAB_SIZE = 1024 * 1024;
+
+    /**
+     * Size of the smallest chunk.
+     */
+    static final int MIN_CHUNK_SIZE = 64;
+
+    /**
+     * Ratio between the chunk sizes of two consecutive classes.
+     */
+    static final double GROWTH_FACTOR = 1.25;
+
+    /**
+     * The size classes, by increasing chunk size.
+     */
+    private final SizeClass[] classes;
+
+    /**
+     * The maximum number of slabs.
+     */
+    private final int maxSlabs;
+
+    /**
+     * The number of slabs allocated so far, all classes included. Guarded by this.
+     */
+    private int nbSlabs;
+
+    /**
+     * The chunks of a single size.
+     */
+    private static final class SizeClass {
+        final int chunkSize;
+        final int chunksPerSlab;
+
+        /**
+         * The slabs of this class, the last one being carved.
+         */
+        ByteBuffer[] slabs = new ByteBuffer[4];
+        int nbSlabs;
+
+        /**
+         * The number of chunks of the last slab given out so far.
+         */
+        int carved;
+
+        /**
+         * The freed chunks (slab << 20 | chunk), used as a stack.
+         */
+        long[] free = new long[16];
+        int nbFree;
+
+        /**
+         * The number of chunks in use.
+         */
+        long used;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.chunksPerSlab = SLAB_SIZE / chunkSize;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxBytes The maximum number of bytes to reserve outside of the heap, rounded up to whole slabs.
+     * @throws IllegalArgumentException When maxBytes is <= 0.
+     */
+    SlabAllocator(long maxBytes) throws IllegalArgumentException {
+        if (maxBytes <= 0L) {
+            throw new IllegalArgumentException("Invalid off-heap size. The off-heap size must be >= 1.");
+        }
+        maxSlabs = (int) Math.min(1L << 28, (maxBytes - 1L) / SLAB_SIZE + 1L);
+        int nbClasses = 0;
+        SizeClass[] sizes = new SizeClass[64];
+        for (double size = MIN_CHUNK_SIZE; size < SLAB_SIZE; size *= GROWTH_FACTOR) {
+            // chunks are aligned on 8 bytes
+            sizes[nbClasses++] = new SizeClass((int) SizeEstimator.align((long) size));
+        }
+        if (sizes[nbClasses - 1].chunkSize < SLAB_SIZE) {
+            sizes[nbClasses++] = new SizeClass(SLAB_SIZE);
+        }
+        classes = new SizeClass[nbClasses];
+        System.arraycopy(sizes, 0, classes, 0, nbClasses);
+    }
+
+    /**
+     * Get the maximum number of bytes that can be reserved.
+     *
+     * @return The maximum number of bytes.
+     */
+    long getMaxBytes() {
+        return (long) maxSlabs * SLAB_SIZE;
+    }
+
+    /**
+     * Get the number of bytes reserved by the slabs allocated so far.
+     *
+     * @return The number of bytes reserved outside of the heap.
+     */
+    synchronized long getReservedBytes() {
+        return (long) nbSlabs * SLAB_SIZE;
+    }
+
+    /**
+     * Get the number of bytes of the chunks in use.
+     *
+     * @return The number of bytes in use, internal fragmentation included.
+     */
+    long getUsedBytes() {
+        long used = 0L;
+        for (SizeClass c : classes) {
+            synchronized (c) {
+                used += c.used * c.chunkSize;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Get the size of the chunks that would hold a value.
+     *
+     * @param length The length of the value.
+     * @return The size of the chunk, -1 if the value is bigger than a slab.
+     */
+    int chunkSizeFor(int length) {
+        int cls = classFor(length);
+        return cls >= 0 ? classes[cls].chunkSize : -1;
+    }
+
+    /**
+     * Get the smallest class whose chunks can hold a value.
+     *
+     * @param length The length of the value.
+     * @return The index of the class, -1 if the value is bigger than a slab.
+     */
+    private int classFor(int length) {
+        int lo = 0;
+        int hi = classes.length - 1;
+        if (length > classes[hi].chunkSize) {
+            return -1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (classes[mid].chunkSize < length) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Reserve a new slab, if the maximum number of slabs is not reached.
+     *
+     * @return The slab, null if all the slabs are allocated.
+     */
+    private synchronized ByteBuffer newSlab() {
+        if (nbSlabs >= maxSlabs) {
+            return null;
+        }
+        ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+        nbSlabs++;
+        return slab;
+    }
+
+    /**
+     * Copy a value into a new chunk.
+     *
+     * @param value The value.
+     * @return The handle of the chunk, -1 if there is no chunk left for a value of this size.
+     */
+    long allocate(byte[] value) {
+        int cls = classFor(value.length);
+        if (cls < 0) {
+            return -1L;
+        }
+        SizeClass c = classes[cls];
+        long slot;
+        synchronized (c) {
+            if (c.nbFree > 0) {
+                slot = c.free[--c.nbFree];
+            } else {
+                if (c.nbSlabs == 0 || c.carved == c.chunksPerSlab) {
+                    ByteBuffer slab = newSlab();
+                    if (slab == null) {
+                        return -1L;
+                    }
+                    if (c.nbSlabs == c.slabs.length) {
+                        ByteBuffer[] slabs = new ByteBuffer[c.slabs.length * 2];
+                        System.arraycopy(c.slabs, 0, slabs, 0, c.nbSlabs);
+                        c.slabs = slabs;
+                    }
+                    c.slabs[c.nbSlabs++] = slab;
+                    c.carved = 0;
+                }
+                slot = ((long) (c.nbSlabs - 1) << 20) | c.carved++;
+            }
+            c.used++;
+        }
+        long handle = ((long) cls << 48) | slot;
+        ByteBuffer chunk = chunkOf(handle);
+        chunk.put(value);
+        return handle;
+    }
+
+    /**
+     * Copy the content of a chunk.
+     *
+     * @param handle The handle of the chunk.
+     * @param length The length of the value in the chunk.
+     * @return A copy of the value.
+     */
+    byte[] read(long handle, int length) {
+        byte[] value = new byte[length];
+        chunkOf(handle).get(value);
+        return value;
+    }
+
+    /**
+     * Give a chunk back, to be reused by the next allocations of its class.
+     *
+     * @param handle The handle of the chunk.
+     */
+    void free(long handle) {
+        SizeClass c = classes[(int) (handle >>> 48)];
+        synchronized (c) {
+            if (c.nbFree == c.free.length) {
+                long[] free = new long[c.free.length * 2];
+                System.arraycopy(c.free, 0, free, 0, c.nbFree);
+                c.free = free;
+            }
+            c.free[c.nbFree++] = handle & 0xFFFFFFFFFFFFL;
+            c.used--;
+        }
+    }
+
+    /**
+     * Get a view of a chunk, positioned at its start.
+     *
+     * @param handle The handle of the chunk.
+     * @return A buffer of its own over the chunk, so that chunks can be read and written in parallel.
+     */
+    private ByteBuffer chunkOf(long handle) {
+        SizeClass c = classes[(int) (handle >>> 48)];
+        ByteBuffer slab;
+        synchronized (c) {
+            slab = c.slabs[(int) ((handle >>> 20) & 0xFFFFFFFL)];
+        }
+        ByteBuffer chunk = slab.duplicate();
+        int offset = (int) (handle & 0xFFFFFL) * c.chunkSize;
+        chunk.position(offset);
+        chunk.limit(offset + c.chunkSize);
+        return chunk;
+    }
+}
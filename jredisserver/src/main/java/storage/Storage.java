@@ -1,12 +1,25 @@
 package storage;
 
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
+import storage.eviction.EvictionPolicy;
+import storage.eviction.LruPolicy;
+import storage.eviction.Node;
+import storage.eviction.TimingWheel;
 import storage.exceptions.DuplicatedKeyException;
 import storage.exceptions.NonExistentKeyException;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Storage {
     /**
@@ -15,9 +28,37 @@ public class Storage {
     static public final long MAX_SIZE = 10L;
 
     /**
-     * Contains the stored objects. Thread-safe.
+     * Prefix of the keys given as bytes that are not valid UTF-8 or decode to a string starting with it, see keyOf().
+     * U+FFFF is not a character, so no key given as a string is expected to start with it.
      */
-    private ConcurrentMap<String, Object> cache;
+    static public final char BINARY_KEY_PREFIX = '\uFFFF';
+
+    /**
+     * Strings shorter than this stay on the heap even when an off-heap store is set, their handle would weigh about
+     * as much as their bytes.
+     */
+    static public final int OFF_HEAP_MIN_SIZE = SlabAllocator.MIN_CHUNK_SIZE;
+
+    /**
+     * Maximum number of keys evicted to make room for a string in the off-heap store, before giving up and keeping
+     * the string on the heap.
+     */
+    static final int OFF_HEAP_MAX_EVICTIONS = 16;
+
+    /**
+     * The number of locks shared by the keys. Two keys falling in the same stripe can't be worked on in parallel.
+     */
+    static public final int NB_STRIPES = 256;
+
+    /**
+     * The number of keys or members SCAN and SSCAN look at by default in a call.
+     */
+    static public final int SCAN_DEFAULT_COUNT = 10;
+
+    /**
+     * Contains the stored objects, wrapped with their weight. Thread-safe.
+     */
+    private KeySpace<Entry> cache;
 
     /**
      * The maximum number of objects in the cache. Volatile ensure the thread-safe property,
@@ -26,22 +67,170 @@ public class Storage {
     private volatile long maxSize;
 
     /**
-     * Random generator
+     * The maximum number of bytes the stored objects can weigh, 0 if the cache is bounded by number of objects instead.
+     */
+    private volatile long maxMemory;
+
+    /**
+     * The estimated number of bytes used by the stored objects, see SizeEstimator.
      */
-    private Random random;
+    private AtomicLong usedMemory;
+
     /**
-     * Storage constructor.
+     * Chooses the keys to evict when the cache goes over its bounds.
+     */
+    private EvictionPolicy policy;
+
+    /**
+     * Taken while evicting, so that two threads going over the bounds at the same time don't both evict.
+     */
+    private Lock evictionLock;
+
+    /**
+     * Number of lookups of existing keys, of missing keys, of evicted keys and of expired keys.
+     */
+    private LongAdder hits;
+    private LongAdder misses;
+    private LongAdder evictions;
+    private LongAdder expirations;
+
+    /**
+     * The keys with an expiration time, by expiration time.
+     */
+    private TimingWheel wheel;
+
+    /**
+     * Holds the strings outside of the heap, null if they are kept on the heap.
+     */
+    private volatile SlabAllocator slabs;
+
+    /**
+     * The maximum number of elements of the lists kept packed, see ListValue.
+     */
+    private volatile int listPackMaxEntries = ListValue.DEFAULT_MAX_PACK_ENTRIES;
+
+    /**
+     * The maximum number of bytes of the entries of the lists kept packed, see ListValue.
+     */
+    private volatile int listPackMaxBytes = ListValue.DEFAULT_MAX_PACK_BYTES;
+
+    /**
+     * The maximum number of members of the sets of integers kept in an IntSet, see SetValue.
+     */
+    private volatile int intSetMaxEntries = SetValue.DEFAULT_MAX_INTSET_ENTRIES;
+
+    /**
+     * The maximum number of fields of the hashes kept packed, see HashValue.
+     */
+    private volatile int hashPackMaxEntries = HashValue.DEFAULT_MAX_PACK_ENTRIES;
+
+    /**
+     * The locks guarding the keys, selected by hash of key. Single-key operations only take the stripe of their key,
+     * so operations on different keys can run in parallel. Multi-key operations take all their stripes in the fixed
+     * order given by Guava (increasing stripe index), so two of them can never deadlock each other.
+     * Null if the storage is thread-confined.
+     */
+    private Striped<Lock> locks;
+
+    /**
+     * Lock used instead of the stripes when the storage is confined to a single thread, see ShardedStorage.
+     */
+    private static final Lock NO_LOCK = new Lock() {
+        public void lock() {}
+        public void lockInterruptibly() {}
+        public boolean tryLock() { return true; }
+        public boolean tryLock(long time, TimeUnit unit) { return true; }
+        public void unlock() {}
+        public Condition newCondition() { throw new UnsupportedOperationException(); }
+    };
+
+    /**
+     * A value of the cache along with its estimated weight, and the node of its key for the eviction policy.
+     * <p>
+     *     The weight is updated in place when a list or a set grows or shrinks. The weight is guarded by the monitor
+     *     of the entry, so that an entry being evicted by a thread while being resized by another is never counted
+     *     twice or forgotten, and the policy is told about the entry at most once in each direction.
+     * </p>
+     */
+    static final class Entry extends Node {
+        final Value value;
+        private long weight;
+        private boolean tracked;
+        private boolean removed;
+
+        Entry(String key, Value value, long weight) {
+            super(key);
+            this.value = value;
+            this.weight = weight;
+        }
+
+        synchronized long getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Storage constructor. Evicts the least recently used keys.
      *
      * @param size The maximum number of objects to keep in memory.
      * @throws IllegalArgumentException When size is <= 0.
      */
     public Storage(long size) throws IllegalArgumentException {
+        this(size, new LruPolicy());
+    }
+
+    /**
+     * Storage constructor.
+     *
+     * @param size The maximum number of objects to keep in memory.
+     * @param policy Chooses the keys to evict when there are more than size objects.
+     * @throws IllegalArgumentException When size is <= 0.
+     */
+    public Storage(long size, EvictionPolicy policy) throws IllegalArgumentException {
+        this(size, 0L, policy, false);
+    }
+
+    /**
+     * Storage constructor.
+     * <p>
+     *     A thread-confined storage is only ever accessed by one thread (e.g the executor owning a shard), so it does
+     *     not take any lock at all.
+     * </p>
+     *
+     * @param size The maximum number of objects to keep in memory.
+     * @param threadConfined True if only one thread will ever access this storage.
+     * @throws IllegalArgumentException When size is <= 0.
+     */
+    Storage(long size, boolean threadConfined) throws IllegalArgumentException {
+        this(size, 0L, new LruPolicy(), threadConfined);
+    }
+
+    /**
+     * Storage constructor.
+     *
+     * @param size The maximum number of objects to keep in memory.
+     * @param maxMemory The maximum number of bytes to keep in memory, 0 to bound the storage by size instead.
+     * @param policy Chooses the keys to evict when the storage goes over its bounds.
+     * @param threadConfined True if only one thread will ever access this storage.
+     * @throws IllegalArgumentException When size or maxMemory is invalid.
+     */
+    private Storage(long size, long maxMemory, EvictionPolicy policy, boolean threadConfined)
+            throws IllegalArgumentException {
         setMaxSize(size);
-        random = new Random();
-        cache = CacheBuilder.newBuilder()
-                            .maximumSize(maxSize)
-                            .<String, Object>build()
-                            .asMap();
+        if (maxMemory < 0L) {
+            throw new IllegalArgumentException("Invalid max memory. The max memory of the cache must be >= 1.");
+        }
+        this.maxMemory = maxMemory;
+        this.policy = Objects.requireNonNull(policy);
+        usedMemory = new AtomicLong();
+        hits = new LongAdder();
+        misses = new LongAdder();
+        evictions = new LongAdder();
+        expirations = new LongAdder();
+        wheel = new TimingWheel(TimingWheel.DEFAULT_TICK, System.currentTimeMillis());
+        locks = threadConfined ? null : Striped.lock(NB_STRIPES);
+        evictionLock = threadConfined ? NO_LOCK : new ReentrantLock();
+        cache = new KeySpace<>();
     }
 
     /**
@@ -51,13 +240,59 @@ public class Storage {
         this(MAX_SIZE);
     }
 
+    /**
+     * Create a storage bounded by the estimated size of its objects instead of their number, evicting the least
+     * recently used keys.
+     *
+     * @param maxMemory The maximum number of bytes to keep in memory.
+     * @return The new storage.
+     * @throws IllegalArgumentException When maxMemory is <= 0.
+     */
+    public static Storage withMaxMemory(long maxMemory) throws IllegalArgumentException {
+        return withMaxMemory(maxMemory, new LruPolicy());
+    }
+
+    /**
+     * Create a storage bounded by the estimated size of its objects instead of their number.
+     * <p>
+     *     When storing or growing a value brings the used memory over maxMemory, the policy is asked for victims
+     *     until the storage is back under its budget. A single value weighing more than the whole budget is evicted
+     *     too.
+     * </p>
+     *
+     * @param maxMemory The maximum number of bytes to keep in memory.
+     * @param policy Chooses the keys to evict.
+     * @return The new storage.
+     * @throws IllegalArgumentException When maxMemory is <= 0.
+     */
+    public static Storage withMaxMemory(long maxMemory, EvictionPolicy policy) throws IllegalArgumentException {
+        return withMaxMemory(maxMemory, policy, false);
+    }
+
+    /**
+     * Create a storage bounded by the estimated size of its objects instead of their number.
+     *
+     * @param maxMemory The maximum number of bytes to keep in memory.
+     * @param policy Chooses the keys to evict.
+     * @param threadConfined True if only one thread will ever access this storage.
+     * @return The new storage.
+     * @throws IllegalArgumentException When maxMemory is <= 0.
+     */
+    static Storage withMaxMemory(long maxMemory, EvictionPolicy policy, boolean threadConfined)
+            throws IllegalArgumentException {
+        if (maxMemory <= 0L) {
+            throw new IllegalArgumentException("Invalid max memory. The max memory of the cache must be >= 1.");
+        }
+        return new Storage(Long.MAX_VALUE, maxMemory, policy, threadConfined);
+    }
+
     /**
      * Get the cache.
      *
-     * @return The thread-safe map representing the cache.
+     * @return A live view of the cache, mapping the keys to their values.
      */
-    public ConcurrentMap<String, Object> getCache() {
-        return cache;
+    public Map<String, Object> getCache() {
+        return Maps.transformValues(cache, e -> e.value.toObject());
     }
 
     /**
@@ -82,274 +317,1457 @@ public class Storage {
         maxSize = size;
     }
 
-    /*----------------------------------------------------------------------------------------------------------------*/
-    /*                                                                                                                */
-    /*                                              STRINGS AND INTEGERS                                              */
-    /*                                                                                                                */
-    /*----------------------------------------------------------------------------------------------------------------*/
+    /**
+     * Get the maximum number of bytes the stored objects can weigh.
+     *
+     * @return The memory budget in bytes, 0 if the storage is bounded by number of objects instead.
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
 
     /**
-     * Store an object in the storage.
+     * Get the estimated number of bytes used by the stored objects, keys included.
      *
-     * @param key The key corresponding to the object.
-     * @param o   The object to store.
-     * @throws DuplicatedKeyException When the key is already used.
+     * @return The used memory in bytes.
      */
-    public synchronized void store(String key, Object o) throws DuplicatedKeyException {
-        if (cache.containsKey(key)) {
-            throw new DuplicatedKeyException(key);
-        }
-        if (o instanceof String) {
-            try {
-                int i = Integer.parseInt((String) o);
-                cache.put(key, i);
-            } catch (NumberFormatException e) {
-                cache.put(key, o);
-            }
-        } else {
-            cache.put(key, o);
-        }
+    public long getUsedMemory() {
+        return usedMemory.get();
     }
 
     /**
-     * Get an object from the storage.
+     * Get the eviction policy.
      *
-     * @param key The key corresponding to the object we want.
-     * @return The object corresponding to the given key.
-     * @throws NonExistentKeyException When the key is not in the cache
+     * @return The policy choosing the keys to evict.
      */
-    public synchronized Object get(String key) throws NonExistentKeyException {
-        if (!cache.containsKey(key)) {
-            throw new NonExistentKeyException(key);
-        }
-        return cache.get(key);
+    public EvictionPolicy getPolicy() {
+        return policy;
     }
 
     /**
-     * Remove an object from the storage.
+     * Get the number of lookups that found their key.
      *
-     * @param key The key corresponding to the object to remove.
-     * @throws NonExistentKeyException When the key is not in the cache.
+     * @return The number of hits.
      */
-    public synchronized void remove(String key) throws NonExistentKeyException {
-        if (!cache.containsKey(key)) {
-            throw new NonExistentKeyException(key);
-        }
-        cache.remove(key);
+    public long getHits() {
+        return hits.sum();
     }
 
     /**
-     * Replace the old value of key by a new value.
+     * Get the number of lookups that did not find their key.
      *
-     * @param key   The key holding the old value.
-     * @param value The new value.
+     * @return The number of misses.
      */
-    public synchronized void replace(String key, Object value) {
-        if (value instanceof String) {
-            try {
-                int i = Integer.parseInt((String) value);
-                cache.replace(key, i);
-            } catch (NumberFormatException e) {
-                cache.replace(key, value);
-            }
-        } else {
-            cache.replace(key, value);
-        }
+    public long getMisses() {
+        return misses.sum();
     }
 
-    /*----------------------------------------------------------------------------------------------------------------*/
-    /*                                                                                                                */
-    /*                                                      LISTS                                                     */
-    /*                                                                                                                */
-    /*----------------------------------------------------------------------------------------------------------------*/
+    /**
+     * Get the number of keys evicted to stay under the bounds.
+     *
+     * @return The number of evicted keys.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
 
     /**
-     * Add the value to the tail of the list stored at key.
-     * @param key The key holding the list.
-     * @param value The value to add to the tail of the list.
-     * @return True if we added the value to the list, false if key was not holding a list.
+     * Get the number of keys removed because their expiration time was reached.
+     *
+     * @return The number of expired keys.
      */
-    public synchronized boolean lPush(String key, Object value) {
-        return insertHelper(key, value, -1);
+    public long getExpirations() {
+        return expirations.sum();
     }
 
     /**
-     * Add the value to the head of the list stored at key.
-     * @param key The key holding the list.
-     * @param value The value to add to the head of the list.
-     * @return True if we added the value to the list, false if key was not holding a list.
+     * Get the number of keys with an expiration time.
+     *
+     * @return The number of volatile keys.
      */
-    public synchronized boolean rPush(String key, Object value) {
-        return insertHelper(key, value, 0);
+    public int getVolatileKeys() {
+        return wheel.size();
     }
 
     /**
-     * Add the value at the given index of the list stored at key.
+     * Keep the strings set as bytes outside of the heap from now on, in slabs of direct memory (see SlabAllocator).
      * <p>
-     *     If the index is negative, we add the value at the end of the list.
+     *     Only the key, the entry and a handle of the string stay on the heap, so big strings don't weigh on the
+     *     garbage collector any more. The off-heap store has its own budget: it is not part of the used memory, which
+     *     only accounts for the heap. When it has no room left for a string, the storage evicts keys until it has,
+     *     and keeps the string on the heap if it still has not after OFF_HEAP_MAX_EVICTIONS keys.
      * </p>
-     * @param key The key holding the list.
-     * @param value The value to add to the list.
-     * @param index The index where to add the value.
-     * @return True if we added the value to the list, false if key was not holding a list.
+     *
+     * @param maxOffHeap The maximum number of bytes to keep outside of the heap, rounded up to whole slabs, 0 to keep
+     *                   everything on the heap.
+     * @throws IllegalArgumentException When maxOffHeap is < 0.
      */
-    private boolean insertHelper(String key, Object value, int index) {
-        boolean success;
-        if (!cache.containsKey(key)) {
-            ArrayList<Object> list = new ArrayList<>();
-            list.add(value);
-            cache.put(key, list);
-            success = true;
-        } else {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                /* unchecked cast, we can't use instanceof ArrayList<Object> because of type erasure.
-                 * there might be some kind of work around, but we know for sure that we'll only have
-                 * ArrayList of objects. Best thing would most likely to change the design a bit, but
-                 * lack of time and we'll just assume that nobody will never ever change the code of
-                 * storage in a way that it adds ArrayList that are not containing objects. */
-                if (index >= 0) {
-                    ((ArrayList) l).add(index, value);
-                } else {
-                    ((ArrayList) l).add(value);
-                }
-                success = true;
-            } else {
-                success = false;
-            }
-        }
-        return success;
+    public void setMaxOffHeap(long maxOffHeap) throws IllegalArgumentException {
+        slabs = maxOffHeap != 0L ? new SlabAllocator(maxOffHeap) : null;
     }
 
     /**
-     * Atomically return and remove the first element of the list.
+     * Get the maximum number of bytes kept outside of the heap.
+     *
+     * @return The off-heap budget in bytes, 0 if everything is kept on the heap.
+     */
+    public long getMaxOffHeap() {
+        SlabAllocator s = slabs;
+        return s != null ? s.getMaxBytes() : 0L;
+    }
+
+    /**
+     * Get the number of bytes used outside of the heap.
+     *
+     * @return The size of the chunks holding strings, 0 if everything is kept on the heap.
+     */
+    public long getUsedOffHeap() {
+        SlabAllocator s = slabs;
+        return s != null ? s.getUsedBytes() : 0L;
+    }
+
+    /**
+     * Set the limits under which the new lists are packed into a single byte array (see ListPack).
      * <p>
-     *     For example if the list contains the elements "a","b","c" LPOP will return "a" and the list will
-     *     become "b","c".
+     *     A list crossing a limit is converted to a QuickList for good. The lists that already exist keep the limits
+     *     they were created with.
      * </p>
-     * @param key The key holding the list.
-     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     *
+     * @param maxEntries The maximum number of elements of a packed list, 0 never to pack the lists.
+     * @param maxBytes The maximum number of bytes of the entries of a packed list.
+     * @throws IllegalArgumentException When a limit is < 0.
      */
-    public synchronized Object lPop(String key) {
-        return removeHelper(key, false);
+    public void setListPackLimits(int maxEntries, int maxBytes) throws IllegalArgumentException {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Invalid list pack limits. The limits must be >= 0.");
+        }
+        listPackMaxEntries = maxEntries;
+        listPackMaxBytes = maxBytes;
     }
 
     /**
-     * Atomically return and remove the last element of the list.
+     * Set the limit under which the new sets of integers are kept in a sorted array of integers (see IntSet).
      * <p>
-     *      For example if the list contains the elements "a","b","c" RPOP will return "c" and the list will
-     *      become "a","b".
+     *     A set crossing the limit, or getting a member that is not an integer, is converted to an IndexedSet for good.
+     *     The sets that already exist keep the limit they were created with.
      * </p>
-     * @param key The key holding the list.
-     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     *
+     * @param maxEntries The maximum number of members of a set kept in an IntSet, 0 never to use IntSets.
+     * @throws IllegalArgumentException When the limit is < 0.
      */
-    public synchronized Object rPop(String key) {
-        return removeHelper(key, true);
+    public void setIntSetMaxEntries(int maxEntries) throws IllegalArgumentException {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Invalid intset limit. The limit must be >= 0.");
+        }
+        intSetMaxEntries = maxEntries;
     }
 
     /**
-     * Remove either the first element or the last element.
-     * @param key The key holding the list.
-     * @param first True if we want to remove the first element, false if we want to remove the last element.
-     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     * Set the limit under which the new hashes are packed into a single array of fields and values (see HashValue).
+     * <p>
+     *     A hash crossing the limit is converted to an IndexedMap for good. The hashes that already exist keep the
+     *     limit they were created with.
+     * </p>
+     *
+     * @param maxEntries The maximum number of fields of a packed hash, 0 never to pack the hashes.
+     * @throws IllegalArgumentException When the limit is < 0.
      */
-    private Object removeHelper(String key, boolean first) {
-        Object removed = null;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList && !(((ArrayList) l).isEmpty())) {
-                if (first) {
-                    removed = ((ArrayList) l).remove(0);
-                } else {
-                    removed = ((ArrayList) l).remove(((ArrayList) l).size() - 1);
-                }
-            }
+    public void setHashPackMaxEntries(int maxEntries) throws IllegalArgumentException {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Invalid hash pack limit. The limit must be >= 0.");
         }
-        return removed;
+        hashPackMaxEntries = maxEntries;
     }
 
     /**
-     *  Return the specified element of the list stored at the specified key.
-     *  <p>
-     *      0 is the first element, 1 the second and so on.
-     *      If the value stored at key is not of list type an error is returned.
-     *      If the index is out of range an empty string is returned.
-     *  </p>
-     * @param key The key holding the list.
-     * @param index The index of the element.
-     * @return null if key does not hold a list, empty string if the index  is out of range, the element otherwise.
+     * Get the value stored at key, without counting it as an access.
+     *
+     * @param key The key.
+     * @return The value, null if the key does not exist.
      */
-    public synchronized Object lindex(String key, int index) {
-        Object o = null;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                if (index >= 0 && index < ((ArrayList) l).size()) {
-                    o = ((ArrayList) l).get(index);
-                } else {
-                    o = "";
-                }
-            }
+    Value valueOf(String key) {
+        Entry e = live(key);
+        return e != null ? e.value : null;
+    }
+
+    /**
+     * Get the entry of a key, without counting it as an access. A key whose expiration time is reached is removed
+     * (lazy expiration), so that it is never seen even if the reaper did not get to it yet.
+     *
+     * @param key The key.
+     * @return The entry of the key, null if the key does not exist or has expired.
+     */
+    private Entry live(String key) {
+        Entry e = cache.get(key);
+        if (e != null && isExpired(e, System.currentTimeMillis())) {
+            expire(e);
+            return null;
         }
-        return o;
+        return e;
     }
 
     /**
-     *  Return the length of the list stored at the specified key.
-     *  <p>
-     *      If the key does not exist zero is returned (the same behaviour as for empty lists).
-     *      If the value stored at key is not a list an error is returned.
-     *  </p>
-     * @param key The key holding the list.
-     * @return null if the value stored at key is not a list, the length of the list otherwise.
+     * Look a key up on behalf of a command: counts a hit or a miss and tells the policy about the access.
+     *
+     * @param key The key.
+     * @return The entry of the key, null if the key does not exist.
      */
-    public synchronized int llen(String key) {
-        int len = 0;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                len = ((ArrayList) l).size();
-            } else {
-                len = -1;
-            }
+    private Entry lookup(String key) {
+        Entry e = live(key);
+        if (e != null) {
+            hits.increment();
+            policy.onAccess(e);
+        } else {
+            misses.increment();
         }
-        return len;
+        return e;
     }
 
     /**
-     * Set the list element at index with the new value.
-     * <p>
-     *      Out of range indexes will generate an error.
-     * </p>
-     * @param key The key holding the list.
-     * @param index The index where to store the new value.
-     * @param value The new value.
-     * @return True if the new value was set, false if key does not exist or is not holding a key or index is out of range.
+     * Store a value at key, overwriting the current value if any, and account for its weight.
+     *
+     * @param key The key where to store the value.
+     * @param value The value to store.
      */
-    public synchronized boolean lset(String key, int index, Object value) {
-        boolean success = false;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                int len = ((ArrayList) l).size();
-                if (index >= 0 && index < len) {
-                    /* unchecked cast, we can't use instanceof ArrayList<Object> because of type erasure.
-                     * there might be some kind of work around, but we know for sure that we'll only have
-                     * ArrayList of objects. Best thing would most likely to change the design a bit, but
-                     * lack of time and we'll just assume that nobody will never ever change the code of
-                     * storage in a way that it adds ArrayList that are not containing objects. */
-                    ((ArrayList) l).set(index, value);
-                    success = true;
+    private void put(String key, Value value) {
+        put(key, value, 0L);
+    }
+
+    /**
+     * Store a value at key with an expiration time, overwriting the current value if any, and account for its weight.
+     *
+     * @param key The key where to store the value.
+     * @param value The value to store.
+     * @param expiresAt The expiration time in milliseconds since the epoch, 0 if the key does not expire.
+     */
+    private void put(String key, Value value, long expiresAt) {
+        Entry e = new Entry(key, value, SizeEstimator.sizeOfEntry(key, value));
+        e.setExpiresAt(expiresAt);
+        usedMemory.addAndGet(e.getWeight());
+        Entry old = cache.put(key, e);
+        synchronized (e) {
+            if (!e.removed) {
+                policy.onInsert(e);
+                e.tracked = true;
+                if (expiresAt != 0L) {
+                    wheel.schedule(e);
                 }
             }
         }
-        return success;
+        if (old != null) {
+            release(old);
+        }
+        evictIfNeeded();
     }
 
     /**
-     *  Return the specified elements of the list stored at the specified key. Start and end are zero-based indexes.
-     *  <p>
-     *      For example LRANGE foobar 0 2 will return the first three elements of the list.
+     * Remove a key, and stop accounting for its value.
+     *
+     * @param key The key.
+     */
+    private void delete(String key) {
+        Entry e = cache.remove(key);
+        if (e != null) {
+            release(e);
+        }
+    }
+
+    /**
+     * Account for a list or a set that grew or shrank in place, which may evict other keys, or this one if it became
+     * too big.
+     *
+     * @param key The key holding the value.
+     * @param e The entry of the value.
+     * @param delta The number of bytes gained by the value, negative if it shrank.
+     */
+    private void resize(String key, Entry e, long delta) {
+        synchronized (e) {
+            if (e.removed) {
+                return;
+            }
+            e.weight += delta;
+            usedMemory.addAndGet(delta);
+        }
+        if (delta > 0L) {
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Stop accounting for an entry that left the cache.
+     *
+     * @param e The entry.
+     */
+    private void release(Entry e) {
+        synchronized (e) {
+            if (!e.removed) {
+                e.removed = true;
+                usedMemory.addAndGet(-e.weight);
+                if (e.tracked) {
+                    policy.onRemove(e);
+                }
+                if (e.getExpiresAt() != 0L) {
+                    wheel.cancel(e);
+                }
+                if (e.value instanceof OffHeapValue) {
+                    ((OffHeapValue) e.value).free();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tell whether the expiration time of an entry is reached.
+     *
+     * @param e The entry.
+     * @param now The current time in milliseconds since the epoch.
+     * @return True if the entry has expired.
+     */
+    private static boolean isExpired(Entry e, long now) {
+        long expiresAt = e.getExpiresAt();
+        return expiresAt != 0L && expiresAt <= now;
+    }
+
+    /**
+     * Remove an expired entry.
+     *
+     * @param e The entry.
+     */
+    private void expire(Entry e) {
+        if (cache.remove(e.getKey(), e)) {
+            expirations.increment();
+        }
+        release(e);
+    }
+
+    /**
+     * Tell whether the cache holds more objects or bytes than allowed.
+     *
+     * @return True if some keys have to be evicted.
+     */
+    private boolean isOverBounds() {
+        return cache.size() > maxSize || (maxMemory > 0L && usedMemory.get() > maxMemory);
+    }
+
+    /**
+     * Evict the victims chosen by the policy until the cache is back under its bounds.
+     * <p>
+     *     The victim may be a key worked on by another thread, which then keeps working on a value that is not in the
+     *     cache any more (the same as if the key had been evicted right after). Every victim is removed from the
+     *     policy, so the loop ends even if the cache is emptied.
+     * </p>
+     */
+    private void evictIfNeeded() {
+        if (!isOverBounds()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            while (isOverBounds()) {
+                if (!evictOne()) {
+                    return;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Evict the victim chosen by the policy. The caller must hold the eviction lock.
+     *
+     * @return True if a key was evicted, false if the policy had no victim left.
+     */
+    private boolean evictOne() {
+        Node node = policy.selectVictim();
+        if (node == null) {
+            return false;
+        }
+        Entry victim = (Entry) node;
+        if (cache.remove(victim.getKey(), victim)) {
+            evictions.increment();
+        }
+        release(victim);
+        return true;
+    }
+
+    /**
+     * Get the lock guarding the given key. The caller is responsible for locking and unlocking it.
+     *
+     * @param key The key we want to work on.
+     * @return The lock of the stripe the key belongs to.
+     */
+    private Lock lockFor(String key) {
+        return locks != null ? locks.get(key) : NO_LOCK;
+    }
+
+    /**
+     * Lock all the stripes of the given keys, always in increasing stripe order to avoid deadlocks.
+     * <p>
+     *     The same stripe can be returned several times (e.g two keys in the same stripe). That is fine, the locks are
+     *     reentrant and unlockAll() releases each of them as many times as it has been taken.
+     * </p>
+     *
+     * @param keys The keys we want to work on.
+     * @return The locks that have been taken, to give back to unlockAll().
+     */
+    private List<Lock> lockAll(String[] keys) {
+        List<Lock> held = new ArrayList<>(keys.length);
+        if (locks == null) {
+            return held;
+        }
+        for (Lock lock : locks.bulkGet(Arrays.asList(keys))) {
+            lock.lock();
+            held.add(lock);
+        }
+        return held;
+    }
+
+    /**
+     * Release the locks taken by lockAll(), in reverse order.
+     *
+     * @param held The locks returned by lockAll().
+     */
+    private void unlockAll(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                              STRINGS AND INTEGERS                                              */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Store an object in the storage.
+     *
+     * @param key The key corresponding to the object.
+     * @param o   The object to store.
+     * @throws DuplicatedKeyException When the key is already used.
+     */
+    public void store(String key, Object o) throws DuplicatedKeyException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (live(key) != null) {
+                throw new DuplicatedKeyException(key);
+            }
+            put(key, valueOfObject(o));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get an object from the storage.
+     *
+     * @param key The key corresponding to the object we want.
+     * @return The object corresponding to the given key.
+     * @throws NonExistentKeyException When the key is not in the cache
+     */
+    public Object get(String key) throws NonExistentKeyException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry == null) {
+                throw new NonExistentKeyException(key);
+            }
+            return entry.value.toObject();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get an object from the storage, decoding the strings set as bytes.
+     * <p>
+     *     Strings set through set(String, byte[]) are returned as their UTF-8 decoding instead of their bytes. Bitmaps
+     *     are still returned as the bytes of the string they stand for, since their bits are not text.
+     * </p>
+     *
+     * @param key The key corresponding to the object we want.
+     * @return The object corresponding to the given key.
+     * @throws NonExistentKeyException When the key is not in the cache
+     */
+    public Object getDecoded(String key) throws NonExistentKeyException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry == null) {
+                throw new NonExistentKeyException(key);
+            }
+            Object o = entry.value.toObject();
+            if (entry.value.type == Value.Type.STRING && o instanceof byte[]) {
+                return new String((byte[]) o, StandardCharsets.UTF_8);
+            }
+            return o;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the type of the value stored at key.
+     *
+     * @param key The key.
+     * @return The name of the type (i.e string, integer, float, list or set), none if the key does not exist.
+     */
+    public String type(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            return entry != null ? entry.value.type.getName() : "none";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Incrementally iterate over the keys, count keys at a time.
+     * <p>
+     *     A walk starts with cursor 0 and goes on with the cursor returned by the previous call, until 0 is returned.
+     *     Every key present during the whole walk is returned at least once, whatever the keys added or removed in
+     *     between; the others may be returned or not. Each call walks the keys in the order of their hash code (see
+     *     KeySpace.scan()) until it has looked at count keys, plus the few ones sharing the slot of the last of them,
+     *     without taking any lock: nothing is held between two calls. A key may be returned again if it is removed and
+     *     added back during the walk.
+     *
+     *     Keys whose expiration time is reached are skipped. The keys not matching the pattern are filtered out after
+     *     being looked at, so a call may return no key at all before the end of the walk.
+     * </p>
+     *
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @param pattern A glob-style pattern the keys must match (see Glob), null to return all the keys.
+     * @param count The number of keys to look at, > 0.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the keys.
+     * @throws IllegalArgumentException When cursor is not a cursor of SCAN, or count is <= 0.
+     */
+    public ArrayList<Object> scan(long cursor, String pattern, int count) throws IllegalArgumentException {
+        checkScan(cursor, KeySpace.CURSORS, count);
+        long now = System.currentTimeMillis();
+        List<Entry> seen = new ArrayList<>();
+        long next = cache.scan(cursor, count, seen);
+        ArrayList<Object> keys = new ArrayList<>(seen.size());
+        for (Entry e : seen) {
+            if (!isExpired(e, now) && (pattern == null || Glob.matches(pattern, e.getKey()))) {
+                keys.add(e.getKey());
+            }
+        }
+        return scanReply(next, keys);
+    }
+
+    /**
+     * Check the arguments of SCAN and SSCAN.
+     *
+     * @param cursor The cursor.
+     * @param end The first invalid cursor.
+     * @param count The number of elements to look at.
+     * @throws IllegalArgumentException When cursor is not between 0 and end - 1, or count is <= 0.
+     */
+    private static void checkScan(long cursor, long end, int count) throws IllegalArgumentException {
+        if (cursor < 0L || cursor >= end) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid count. The count must be >= 1.");
+        }
+    }
+
+    /**
+     * Build the reply of SCAN and SSCAN.
+     *
+     * @param cursor The cursor to pass to the next call.
+     * @param elements The elements returned by this call.
+     * @return A new list holding the cursor followed by the list of the elements.
+     */
+    private static ArrayList<Object> scanReply(long cursor, ArrayList<Object> elements) {
+        ArrayList<Object> res = new ArrayList<>(2);
+        res.add(cursor);
+        res.add(elements);
+        return res;
+    }
+
+    /**
+     * Remove an object from the storage.
+     *
+     * @param key The key corresponding to the object to remove.
+     * @throws NonExistentKeyException When the key is not in the cache.
+     */
+    public void remove(String key) throws NonExistentKeyException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (live(key) == null) {
+                throw new NonExistentKeyException(key);
+            }
+            delete(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the old value of key by a new value.
+     *
+     * @param key   The key holding the old value.
+     * @param value The new value.
+     */
+    public void replace(String key, Object value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (live(key) == null) {
+                return;
+            }
+            put(key, valueOfObject(value));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wrap an object given to store() or replace() into a value. Strings are stored as integers when they can be
+     * parsed as such.
+     *
+     * @param o The object.
+     * @return The value holding the object.
+     */
+    private static Value valueOfObject(Object o) {
+        if (o instanceof String) {
+            IntegerValue i = IntegerValue.parse((String) o);
+            return i != null ? i : new StringValue(o);
+        }
+        return Value.of(o);
+    }
+
+    /**
+     * Get the key of the storage matching a key given as bytes.
+     * <p>
+     *     Keys are strings in the storage. A key given as valid UTF-8 bytes is the same key as its decoded string, so
+     *     that the binary-safe API and the string API see the same keyspace. Any other sequence of bytes is mapped
+     *     one character per byte after BINARY_KEY_PREFIX. So are the valid UTF-8 keys decoding to a string that
+     *     starts with BINARY_KEY_PREFIX (bytes EF BF BF), which would otherwise collide with them: the keys starting
+     *     with the prefix are then exactly the ones mapped byte per byte, and distinct byte sequences stay distinct.
+     * </p>
+     *
+     * @param key The key as bytes.
+     * @return The key in the storage.
+     */
+    public static String keyOf(byte[] key) {
+        boolean ascii = true;
+        for (byte b : key) {
+            if (b < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return new String(key, StandardCharsets.ISO_8859_1);
+        }
+        try {
+            String res = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(key)).toString();
+            if (res.charAt(0) != BINARY_KEY_PREFIX) {
+                return res;
+            }
+        } catch (CharacterCodingException e) {
+            // not UTF-8, mapped byte per byte below
+        }
+        return BINARY_KEY_PREFIX + new String(key, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Set key to hold a string given as bytes, overwriting the current value if any.
+     * <p>
+     *     The bytes are stored as is, at one byte per character instead of the two of a String, outside of the heap
+     *     if an off-heap store is set (see setMaxOffHeap()). Bytes that are the canonical ASCII representation of an
+     *     int (e.g "-42", not "+42" nor "042") are stored as an integer, since they are written back as the same bytes.
+     * </p>
+     *
+     * @param key The key.
+     * @param value The bytes of the string.
+     */
+    public void set(String key, byte[] value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            IntegerValue i = IntegerValue.parse(value);
+            put(key, i != null ? i : stringValueOf(value));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy the bytes of a string into a value, outside of the heap if possible.
+     * <p>
+     *     When the off-heap store has no room left, keys are evicted until it has.
+     * </p>
+     *
+     * @param bytes The bytes of the string.
+     * @return The value holding a copy of the bytes.
+     */
+    private Value stringValueOf(byte[] bytes) {
+        SlabAllocator s = slabs;
+        if (s == null || bytes.length < OFF_HEAP_MIN_SIZE || s.chunkSizeFor(bytes.length) < 0) {
+            return new StringValue(bytes.clone());
+        }
+        OffHeapValue v = OffHeapValue.allocate(s, bytes);
+        if (v == null) {
+            evictionLock.lock();
+            try {
+                for (int i = 0; v == null && i < OFF_HEAP_MAX_EVICTIONS && evictOne(); i++) {
+                    v = OffHeapValue.allocate(s, bytes);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return v != null ? v : new StringValue(bytes.clone());
+    }
+
+    /**
+     * Get the value stored at key as bytes.
+     * <p>
+     *     Strings are returned as the bytes they were set with, or their UTF-8 encoding if they were set as a String.
+     *     Numbers are returned as their decimal representation.
+     * </p>
+     *
+     * @param key The key.
+     * @return The bytes of the value, null if key holds a list or a set.
+     * @throws NonExistentKeyException When the key is not in the cache.
+     */
+    public byte[] getBytes(String key) throws NonExistentKeyException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry == null) {
+                throw new NonExistentKeyException(key);
+            }
+            switch (entry.value.type) {
+                case STRING:
+                    return ((StringValue) entry.value).getBytes();
+                case BITMAP:
+                    return (byte[]) entry.value.toObject();
+                case INTEGER:
+                case FLOAT:
+                    return entry.value.toObject().toString().getBytes(StandardCharsets.US_ASCII);
+                default:
+                    return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically increment the integer stored at key.
+     * <p>
+     *     If the key does not exist or contains a value of a wrong type, it is set to 0 before the increment. Strings
+     *     are stored as integers when they can be parsed as such (see store()), so they can be incremented too.
+     *
+     *     The first increment turns the value into a 64 bits integer, which the next increments modify in place: no
+     *     allocation and a single lookup under the lock of the key. The timeout of the key, if any, is kept.
+     * </p>
+     *
+     * @param key The key holding the integer.
+     * @param increment The increment, negative to decrement.
+     * @return The new value of key.
+     * @throws ArithmeticException When the new value would not fit in 64 bits. The value of key is left unchanged.
+     */
+    public long incrBy(String key, long increment) throws ArithmeticException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry != null && entry.value.type == Value.Type.INTEGER) {
+                return ((IntegerValue) entry.value).incrBy(increment);
+            }
+            IntegerValue integer = new IntegerValue(entry != null ? integerValueOf(entry.value) : 0L);
+            long res = integer.incrBy(increment);
+            put(key, integer, entry != null ? entry.getExpiresAt() : 0L);
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically increment the number stored at key by a float.
+     * <p>
+     *     Works like incrBy(), the value becoming a float. incrBy() can still be used on it as long as its value is an
+     *     integer.
+     * </p>
+     *
+     * @param key The key holding the number.
+     * @param increment The increment, negative to decrement.
+     * @return The new value of key.
+     * @throws ArithmeticException When the new value would be NaN or infinite. The value of key is left unchanged.
+     */
+    public double incrByFloat(String key, double increment) throws ArithmeticException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry != null && entry.value.type == Value.Type.FLOAT) {
+                return ((FloatValue) entry.value).incrBy(increment);
+            }
+            double res = FloatValue.add(entry != null ? floatValueOf(entry.value) : 0.0, increment);
+            put(key, new FloatValue(res), entry != null ? entry.getExpiresAt() : 0L);
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the integer a value stands for, when incremented.
+     *
+     * @param value The value.
+     * @return The value as a long, 0 if it is not an integer.
+     */
+    private static long integerValueOf(Value value) {
+        switch (value.type) {
+            case FLOAT:
+                FloatValue f = (FloatValue) value;
+                return f.isInteger() ? (long) f.get() : 0L;
+            case STRING:
+                Object o = ((StringValue) value).get();
+                if (o instanceof byte[]) {
+                    o = new String((byte[]) o, StandardCharsets.ISO_8859_1);
+                }
+                if (o instanceof String) {
+                    // integers too big for an int are stored as strings
+                    try {
+                        return Long.parseLong((String) o);
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                }
+                return 0L;
+            default:
+                return 0L;
+        }
+    }
+
+    /**
+     * Get the number a value stands for, when incremented by a float.
+     *
+     * @param value The value.
+     * @return The value as a double, 0 if it is not a number.
+     */
+    private static double floatValueOf(Value value) {
+        switch (value.type) {
+            case INTEGER:
+                return ((IntegerValue) value).get();
+            case STRING:
+                Object o = ((StringValue) value).get();
+                if (o instanceof byte[]) {
+                    o = new String((byte[]) o, StandardCharsets.ISO_8859_1);
+                }
+                if (o instanceof String) {
+                    try {
+                        double d = Double.parseDouble((String) o);
+                        return Double.isNaN(d) || Double.isInfinite(d) ? 0.0 : d;
+                    } catch (NumberFormatException e) {
+                        return 0.0;
+                    }
+                }
+                return 0.0;
+            default:
+                return 0.0;
+        }
+    }
+
+    /**
+     * Get a copy of the value stored at key, that can be worked on without affecting this storage.
+     * <p>
+     *     Only the mutable values are copied, strings are immutable and returned as is.
+     * </p>
+     *
+     * @param key The key holding the value.
+     * @return A copy of the value, null if the key does not exist.
+     */
+    Value copyOf(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Value v = valueOf(key);
+            return v != null ? v.copy() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Put back a value obtained with copyOf() at key, overwriting the current value.
+     * <p>
+     *     The value is stored as is. A null value removes the key.
+     * </p>
+     *
+     * @param key The key where to store the value.
+     * @param value The value to store, null to remove the key.
+     */
+    void restore(String key, Value value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (value == null) {
+                delete(key);
+            } else {
+                put(key, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   EXPIRATION                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Set a timeout on key, after which the key is removed.
+     * <p>
+     *     The timeout is kept when the value is modified in place (e.g LPUSH, SADD) and cleared when the value is
+     *     overwritten (e.g SET, SINTERSTORE). A timestamp in the past removes the key right away.
+     *
+     *     Expired keys are removed lazily when they are accessed, and actively by expireCycle().
+     * </p>
+     *
+     * @param key The key.
+     * @param timestamp The expiration time in milliseconds since the epoch.
+     * @return True if the timeout was set, false if key does not exist.
+     */
+    public boolean expireAt(String key, long timestamp) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry e = live(key);
+            if (e == null) {
+                return false;
+            }
+            if (timestamp <= System.currentTimeMillis()) {
+                expire(e);
+                return true;
+            }
+            synchronized (e) {
+                if (!e.removed) {
+                    e.setExpiresAt(timestamp);
+                    wheel.schedule(e);
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the timeout of key, making it persistent.
+     *
+     * @param key The key.
+     * @return True if the timeout was removed, false if key does not exist or does not have a timeout.
+     */
+    public boolean persist(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry e = live(key);
+            if (e == null || e.getExpiresAt() == 0L) {
+                return false;
+            }
+            synchronized (e) {
+                e.setExpiresAt(0L);
+                wheel.cancel(e);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the remaining time to live of key.
+     *
+     * @param key The key.
+     * @return The time to live in milliseconds, -2 if key does not exist, -1 if key does not have a timeout.
+     */
+    public long pttl(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry e = live(key);
+            if (e == null) {
+                return -2L;
+            }
+            long expiresAt = e.getExpiresAt();
+            return expiresAt == 0L ? -1L : Math.max(0L, expiresAt - System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Actively remove the keys whose expiration time is reached, doing a bounded amount of work.
+     * <p>
+     *     Meant to be called periodically (e.g every TimingWheel.DEFAULT_TICK milliseconds). Finding the expired keys
+     *     costs nothing for the keys that did not expire, and at most maxSteps keys are looked at, so a call never
+     *     takes long even when a lot of keys expire at the same time: the remaining ones are handled by the next
+     *     calls (or lazily if they are accessed first).
+     * </p>
+     *
+     * @param maxSteps The maximum number of steps of the timing wheel, see TimingWheel.advance().
+     * @return The number of keys removed.
+     */
+    public int expireCycle(int maxSteps) {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Node node : wheel.advance(now, maxSteps)) {
+            Entry e = (Entry) node;
+            Lock lock = lockFor(e.getKey());
+            lock.lock();
+            try {
+                // the timeout may have been changed or removed since the wheel let it go
+                if (isExpired(e, now) && cache.get(e.getKey()) == e) {
+                    expire(e);
+                    removed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                      LISTS                                                     */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Add the value to the tail of the list stored at key.
+     * @param key The key holding the list.
+     * @param value The value to add to the tail of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     */
+    public boolean lPush(String key, Object value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, value, -1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the value to the head of the list stored at key.
+     * @param key The key holding the list.
+     * @param value The value to add to the head of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     */
+    public boolean rPush(String key, Object value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, value, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the values to the tail of the list stored at key, in order, under a single lock acquisition.
+     * @param key The key holding the list.
+     * @param values The values to add to the tail of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     */
+    public int lPush(String key, Object[] values) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, values, -1, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the values to the head of the list stored at key, in order, under a single lock acquisition.
+     * @param key The key holding the list.
+     * @param values The values to add to the head of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     */
+    public int rPush(String key, Object[] values) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, values, 0, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the value to the tail of the list stored at key, then drop the oldest elements, at the head, to keep at
+     * most maxLength of them.
+     * <p>
+     *     A list created this way is a capped list: a ring of maxLength elements, where the pushes with that maximum
+     *     length overwrite the oldest element in O(1) instead of growing the list and trimming it.
+     * </p>
+     * @param key The key holding the list.
+     * @param value The value to add to the tail of the list.
+     * @param maxLength The maximum length of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    public boolean lPush(String key, Object value, int maxLength) throws IllegalArgumentException {
+        checkMaxLength(maxLength);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, value, -1, maxLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the value to the head of the list stored at key, then drop the oldest elements, at the tail, to keep at
+     * most maxLength of them. See lPush(String, Object, int).
+     * @param key The key holding the list.
+     * @param value The value to add to the head of the list.
+     * @param maxLength The maximum length of the list.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    public boolean rPush(String key, Object value, int maxLength) throws IllegalArgumentException {
+        checkMaxLength(maxLength);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, value, 0, maxLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the values to the tail of the list stored at key, in order, then drop the oldest elements to keep at most
+     * maxLength of them. See lPush(String, Object, int).
+     * @param key The key holding the list.
+     * @param values The values to add to the tail of the list.
+     * @param maxLength The maximum length of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    public int lPush(String key, Object[] values, int maxLength) throws IllegalArgumentException {
+        checkMaxLength(maxLength);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, values, -1, maxLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add the values to the head of the list stored at key, in order, then drop the oldest elements to keep at most
+     * maxLength of them. See lPush(String, Object, int).
+     * @param key The key holding the list.
+     * @param values The values to add to the head of the list.
+     * @param maxLength The maximum length of the list.
+     * @return The number of values added, -1 if key was not holding a list.
+     * @throws IllegalArgumentException When maxLength is <= 0.
+     */
+    public int rPush(String key, Object[] values, int maxLength) throws IllegalArgumentException {
+        checkMaxLength(maxLength);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return insertHelper(key, values, 0, maxLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkMaxLength(int maxLength) throws IllegalArgumentException {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("Invalid maximum length. The maximum length must be > 0.");
+        }
+    }
+
+    /**
+     * Add the value at the head or at the tail of the list stored at key.
+     * @param key The key holding the list.
+     * @param value The value to add to the list.
+     * @param index 0 to add the value at the head of the list, -1 to add it at the tail.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     */
+    private boolean insertHelper(String key, Object value, int index) {
+        return insertHelper(key, value, index, 0);
+    }
+
+    /**
+     * Add the value at the head or at the tail of the list stored at key, keeping at most maxLength elements.
+     * @param key The key holding the list.
+     * @param value The value to add to the list.
+     * @param index 0 to add the value at the head of the list, -1 to add it at the tail.
+     * @param maxLength The maximum length of the list, the elements at the other end being dropped, 0 for no limit.
+     * @return True if we added the value to the list, false if key was not holding a list.
+     */
+    private boolean insertHelper(String key, Object value, int index, int maxLength) {
+        return insertHelper(key, new Object[]{value}, index, maxLength) >= 0;
+    }
+
+    /**
+     * Add the values, in order, at the head or at the tail of the list stored at key, keeping at most maxLength
+     * elements. The weight of the list is accounted for once, after the whole batch.
+     * @param key The key holding the list.
+     * @param values The values to add to the list.
+     * @param index 0 to add the values at the head of the list, -1 to add them at the tail.
+     * @param maxLength The maximum length of the list, the elements at the other end being dropped, 0 for no limit.
+     * @return The number of values added, -1 if key was not holding a list.
+     */
+    private int insertHelper(String key, Object[] values, int index, int maxLength) {
+        Entry entry = lookup(key);
+        ListValue l;
+        if (entry == null) {
+            if (values.length == 0) {
+                return 0;
+            }
+            if (maxLength > 0) {
+                l = ListValue.capped(maxLength);
+            } else if (values.length > listPackMaxEntries) {
+                // would be unpacked before the end of the batch anyway
+                l = new ListValue(0, 0);
+            } else {
+                l = new ListValue(listPackMaxEntries, listPackMaxBytes);
+            }
+        } else if (entry.value.type == Value.Type.LIST) {
+            l = (ListValue) entry.value;
+        } else {
+            return -1;
+        }
+        long weight = l.weight();
+        for (Object value : values) {
+            if (maxLength > 0) {
+                if (index == 0) {
+                    l.addFirst(value, maxLength);
+                } else {
+                    l.addLast(value, maxLength);
+                }
+            } else if (index == 0) {
+                l.addFirst(value);
+            } else {
+                l.addLast(value);
+            }
+        }
+        if (entry == null) {
+            put(key, l);
+        } else {
+            resize(key, entry, l.weight() - weight);
+        }
+        return values.length;
+    }
+
+    /**
+     * Atomically return and remove the first element of the list.
+     * <p>
+     *     For example if the list contains the elements "a","b","c" LPOP will return "a" and the list will
+     *     become "b","c".
+     * </p>
+     * @param key The key holding the list.
+     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     */
+    public Object lPop(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return removeHelper(key, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically return and remove the last element of the list.
+     * <p>
+     *      For example if the list contains the elements "a","b","c" RPOP will return "c" and the list will
+     *      become "a","b".
+     * </p>
+     * @param key The key holding the list.
+     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     */
+    public Object rPop(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return removeHelper(key, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove either the first element or the last element.
+     * @param key The key holding the list.
+     * @param first True if we want to remove the first element, false if we want to remove the last element.
+     * @return null if the key does not exist or the list is already empty, the removed object otherwise.
+     */
+    private Object removeHelper(String key, boolean first) {
+        Object removed = null;
+        Entry entry = lookup(key);
+        if (entry != null) {
+            if (entry.value.type == Value.Type.LIST) {
+                ListValue l = (ListValue) entry.value;
+                long weight = l.weight();
+                removed = first ? l.removeFirst() : l.removeLast();
+                if (removed != null) {
+                    resize(key, entry, l.weight() - weight);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Atomically remove an element at one end of a list and add it at one end of another list.
+     * <p>
+     *     The left end is the one of LPUSH and LPOP, the right end the one of RPUSH and RPOP. The destination is
+     *     created if it does not exist, and can be the source itself to rotate the list.
+     * </p>
+     * @param srckey The key holding the source list.
+     * @param dstkey The key holding the destination list.
+     * @param fromLeft True to remove the element with LPOP, false to remove it with RPOP.
+     * @param toLeft True to add the element with LPUSH, false to add it with RPUSH.
+     * @return The moved element, null if the source is empty or does not exist, or if a key does not hold a list.
+     */
+    public Object lmove(String srckey, String dstkey, boolean fromLeft, boolean toLeft) {
+        List<Lock> held = lockAll(new String[]{srckey, dstkey});
+        try {
+            Entry dstEntry = lookup(dstkey);
+            if (dstEntry != null && dstEntry.value.type != Value.Type.LIST) {
+                return null;
+            }
+            Object moved = removeHelper(srckey, !fromLeft);
+            if (moved != null) {
+                insertHelper(dstkey, moved, toLeft ? -1 : 0);
+            }
+            return moved;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     *  Return the specified element of the list stored at the specified key.
+     *  <p>
+     *      0 is the first element, 1 the second and so on.
+     *      If the value stored at key is not of list type an error is returned.
+     *      If the index is out of range an empty string is returned.
+     *  </p>
+     * @param key The key holding the list.
+     * @param index The index of the element.
+     * @return null if key does not hold a list, empty string if the index  is out of range, the element otherwise.
+     */
+    public Object lindex(String key, int index) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Object o = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    ListValue l = (ListValue) entry.value;
+                    if (index >= 0 && index < l.size()) {
+                        o = l.get(index);
+                    } else {
+                        o = "";
+                    }
+                }
+            }
+            return o;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Return the length of the list stored at the specified key.
+     *  <p>
+     *      If the key does not exist zero is returned (the same behaviour as for empty lists).
+     *      If the value stored at key is not a list an error is returned.
+     *  </p>
+     * @param key The key holding the list.
+     * @return null if the value stored at key is not a list, the length of the list otherwise.
+     */
+    public int llen(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int len = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    len = ((ListValue) entry.value).size();
+                } else {
+                    len = -1;
+                }
+            }
+            return len;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set the list element at index with the new value.
+     * <p>
+     *      Out of range indexes will generate an error.
+     * </p>
+     * @param key The key holding the list.
+     * @param index The index where to store the new value.
+     * @param value The new value.
+     * @return True if the new value was set, false if key does not exist or is not holding a key or index is out of range.
+     */
+    public boolean lset(String key, int index, Object value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            boolean success = false;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    ListValue l = (ListValue) entry.value;
+                    if (index >= 0 && index < l.size()) {
+                        long weight = l.weight();
+                        l.set(index, value);
+                        resize(key, entry, l.weight() - weight);
+                        success = true;
+                    }
+                }
+            }
+            return success;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Return the specified elements of the list stored at the specified key. Start and end are zero-based indexes.
+     *  <p>
+     *      For example LRANGE foobar 0 2 will return the first three elements of the list.
      *      Indexes out of range will not produce an error: if start is over the end of the list, or start > end,
      *      an empty list is returned. If end is over the end of the list, we will threat it just like the last element
      *      of the list.
@@ -359,574 +1777,1652 @@ public class Storage {
      * @param end The end of the range.
      * @return A list of the objects that are in the given range, null if the key does not hold a list.
      */
-    public synchronized ArrayList<Object> lrange(String key, int start, int end) {
-        ArrayList<Object> range = new ArrayList<>();
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                end = end + 1;
-                int len = ((ArrayList) l).size();
-                if (end > len) {
-                    end = len;
+    public ArrayList<Object> lrange(String key, int start, int end) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            ArrayList<Object> range = new ArrayList<>();
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    ListValue l = (ListValue) entry.value;
+                    end = end + 1;
+                    int len = l.size();
+                    if (end > len) {
+                        end = len;
+                    }
+                    if (!(start > len - 1 || start > end || start < 0)) {
+                        range = l.range(start, end);
+                    }
+                } else {
+                    range = null;
+                }
+            }
+            return range;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the first count occurrences of the value element from the list.
+     * <p>
+     *      If count is zero all the elements are removed.
+     *      The number of removed elements is returned as an integer.
+     *      Note that non existing keys are considered like empty lists by LREM, so LREM against non existing keys
+     *      will always return 0.
+     * </p>
+     * @param key The key holding the list.
+     * @param count The number of elements to remove.
+     * @param value The value to remove.
+     * @return An integer reply containing the number of removed elements if the operation succeeded.
+     */
+    public int lrem(String key, int count, Object value) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int nbRemoved = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    ListValue l = (ListValue) entry.value;
+                    long weight = l.weight();
+                    nbRemoved = l.remove(value, count);
+                    resize(key, entry, l.weight() - weight);
+                }
+            }
+            return nbRemoved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Trim an existing list so that it will contain only the specified range of elements specified.
+     *  <p>
+     *      Start and end are zero-based indexes. 0 is the first element of the list (the list head), 1 the next element
+     *      and so on. For example LTRIM foobar 0 2 will modify the list stored at foobar key so that only the first
+     *      three elements of the list will remain. Indexes out of range will not produce an error: if start is over the
+     *      end of the list, or start > end, an empty list is left as value. If end over the end of the list we will
+     *      threat it just like the last element of the list.
+     *  </p>
+     * @param key The key holding the list.
+     * @param start The start of the range.
+     * @param end The end of the range.
+     * @return true if the key exists and holds a list, false otherwise.
+     */
+    public boolean ltrim(String key, int start, int end) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            boolean success = false;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.LIST) {
+                    ListValue l = (ListValue) entry.value;
+                    end = end + 1;
+                    int len = l.size();
+                    if (end > len) {
+                        end = len;
+                    }
+                    if (start < 0 || start > len - 1 || start > end) {
+                        start = 0;
+                        end = 0;
+                    }
+                    long weight = l.weight();
+                    l.trim(start, end);
+                    resize(key, entry, l.weight() - weight);
+                    success = true;
+                }
+            }
+            return success;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                      SETS                                                      */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     *  Add the specified member to the set value stored at key.
+     *  <p>
+     *      f member is already a member of the set no operation is performed. If key does not exist a new set with the
+     *      specified member as sole member is created. If the key exists but does not hold a set value an error is
+     *      returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param member The member to add.
+     * @return 1 if the new element was added, 0 if the element was already a member of the set, -1 if an error happened.
+     */
+    public int sadd(String key, Object member) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = -1;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    long weight = set.weight();
+                    res = set.add(member) ? 1 : 0;
+                    if (res == 1) {
+                        resize(key, entry, set.weight() - weight);
+                    }
+                }
+            } else {
+                SetValue s = new SetValue(intSetMaxEntries, 1);
+                s.add(member);
+                put(key, s);
+                res = 1;
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Add the specified members to the set value stored at key, under a single lock acquisition.
+     *  <p>
+     *      Members already in the set are ignored. If key does not exist a new set, sized for all the members, is
+     *      created. If the key exists but does not hold a set value an error is returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param members The members to add.
+     * @return The number of members added, not counting the ones already in the set, -1 if an error happened.
+     */
+    public int sadd(String key, Object[] members) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = -1;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    long weight = set.weight();
+                    res = 0;
+                    for (Object member : members) {
+                        if (set.add(member)) {
+                            res++;
+                        }
+                    }
+                    if (res > 0) {
+                        resize(key, entry, set.weight() - weight);
+                    }
+                }
+            } else if (members.length == 0) {
+                res = 0;
+            } else {
+                SetValue set = new SetValue(intSetMaxEntries, Arrays.asList(members));
+                put(key, set);
+                res = set.size();
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the set cardinality (number of elements). If the key does not exist 0 is returned, like for empty sets.
+     * @param key The key holding the set.
+     * @return Cardinality of the set, -1 if key holds anything but a set.
+     */
+    public int scard(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                res = entry.value.type == Value.Type.SET ? ((SetValue) entry.value).size() : -1;
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Remove the specified member from the set value stored at key.
+     *  <p>
+     *      If member was not a member of the set no operation is performed.
+     *      If key does not hold a set value an error is returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param member The member to remove.
+     * @return 1 if the element was removed, 0 if the element was not a member of the set, -1 if an error happened.
+     */
+    public int srem(String key, Object member) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    long weight = set.weight();
+                    res = set.remove(member) ? 1 : 0;
+                    if (res == 1) {
+                        resize(key, entry, set.weight() - weight);
+                    }
+                } else {
+                    res = -1;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Remove the specified members from the set value stored at key, under a single lock acquisition.
+     *  <p>
+     *      Members that are not in the set are ignored.
+     *      If key does not hold a set value an error is returned.
+     *  </p>
+     * @param key The key holding the set.
+     * @param members The members to remove.
+     * @return The number of members removed, -1 if an error happened.
+     */
+    public int srem(String key, Object[] members) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    long weight = set.weight();
+                    for (Object member : members) {
+                        if (set.remove(member)) {
+                            res++;
+                        }
+                    }
+                    if (res > 0) {
+                        resize(key, entry, set.weight() - weight);
+                    }
+                } else {
+                    res = -1;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return 1 if member is a member of the set stored at key, otherwise 0 is returned.
+     * @param key The key holding the set.
+     * @param member The member to test.
+     * @return 1 if the element is a member of the set, 0 if it is not a member, -1 if an error happened.
+     */
+    public int sismember(String key, Object member) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    res = ((SetValue) entry.value).contains(member) ? 1 : 0;
+                } else {
+                    res = -1;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Tell, for each of the given members, whether it is a member of the set stored at key, under a single lock
+     * acquisition.
+     * @param key The key holding the set.
+     * @param members The members to test.
+     * @return For each member in the same order, 1 if it is a member of the set, 0 otherwise; all 0 if key does not
+     * exist, null if key does not hold a set.
+     */
+    public int[] smismember(String key, Object[] members) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int[] res = new int[members.length];
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type != Value.Type.SET) {
+                    return null;
+                }
+                SetValue set = (SetValue) entry.value;
+                for (int i = 0; i < members.length; i++) {
+                    res[i] = set.contains(members[i]) ? 1 : 0;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Return all the members (elements) of the set value stored at key. This is just syntax glue for SINTERSECT.
+     * @param key The key holding the set.
+     * @return All the members (elements) of the set value stored at key, null if key does not hold a set.
+     */
+    public List<Object> smembers(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            List<Object> res = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    res = ((SetValue) entry.value).toList();
+                }
+            } else {
+                res = new ArrayList<>();
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Incrementally iterate over the members of the set stored at key, about count members at a time.
+     * <p>
+     *     A walk starts with cursor 0 and goes on with the cursor returned by the previous call, until 0 is returned.
+     *     Every member present during the whole walk is returned at least once, even when the set grows, shrinks or
+     *     changes encoding in between (see SetValue.scan()); the others may be returned or not. The lock of the key is
+     *     only held during each call, so the set can be modified between two calls. A small set encoded as an IntSet
+     *     is returned at once, whatever count.
+     *
+     *     The members not matching the pattern are filtered out after being looked at, so a call may return no member
+     *     at all before the end of the walk.
+     * </p>
+     * @param key The key holding the set.
+     * @param cursor 0 to start a walk, or the cursor returned by the previous call.
+     * @param pattern A glob-style pattern the members must match (see Glob), null to return all the members.
+     * @param count The number of members to look at, > 0.
+     * @return The cursor to pass to the next call, 0 when the walk is over, followed by the list of the members; an
+     * empty walk if key does not exist, null if key does not hold a set.
+     * @throws IllegalArgumentException When cursor is not a cursor of SSCAN, or count is <= 0.
+     */
+    public ArrayList<Object> sscan(String key, long cursor, String pattern, int count) throws IllegalArgumentException {
+        checkScan(cursor, 2L * SetValue.BITMAP_CURSOR, count);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            ArrayList<Object> members = new ArrayList<>();
+            long next = 0L;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type != Value.Type.SET) {
+                    return null;
+                }
+                next = ((SetValue) entry.value).scan(cursor, count, members);
+            }
+            if (pattern != null) {
+                members.removeIf(m -> !Glob.matches(pattern, String.valueOf(m)));
+            }
+            return scanReply(next, members);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the members of a set resulting from the intersection of all the sets hold at the specified keys.
+     * <p>
+     *     If just a single key is specified, then this command produces the same result as SMEMBERS.
+     *     Actually SMEMBERS is just syntax sugar for SINTERSECT.
+     *     Non existing keys are considered like empty sets, so if one of the keys is missing an empty set is returned
+     *     (since the intersection with an empty set always is an empty set).
+     *
+     *     The sets are left untouched: the members of the smallest one are looked up in the others (see SetAlgebra),
+     *     in parallel when it is large.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @return the members resulting from the intersection of all the sets, null if at least one key does not hold a set.
+     */
+    public List<Object> sinter(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            // if no keys were provided, we return an empty list
+            if (keys.length == 0) {
+                return new ArrayList<>();
+            }
+
+            // Create a list of all the sets
+            List<SetValue> sets = new ArrayList<>();
+            for (String k : keys) {
+                Entry entry = lookup(k);
+                if (entry != null) {
+                    if (entry.value.type == Value.Type.SET) {
+                        sets.add((SetValue) entry.value);
+                    } else {
+                        // Early exit
+                        // One of the provided keys is not a set, we can't do sinter, we return an error
+                        return null;
+                    }
+                } else {
+                    // Early exit
+                    // Non existing keys are considered empty sets, if one of the keys is missing an empty set is returned
+                    return new ArrayList<>();
+                }
+            }
+
+            // Probe the other sets with the smallest one, without copying or modifying any of them
+            return SetAlgebra.inter(sets);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Return the cardinality of the intersection of all the sets hold at the specified keys, without building it.
+     * <p>
+     *     Non existing keys are considered like empty sets. The members of the smallest set are counted as they are
+     *     found in the others (see SetAlgebra.interCard()), so nothing is allocated whatever the cardinality, and the
+     *     count stops as soon as it reaches limit.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @param limit The count after which to stop, 0 to count the whole intersection.
+     * @return The cardinality of the intersection, at most limit if limit > 0, -1 if at least one key does not hold a
+     * set.
+     * @throws IllegalArgumentException When limit is < 0.
+     */
+    public int sintercard(String[] keys, int limit) throws IllegalArgumentException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Invalid limit. The limit must be >= 0.");
+        }
+        List<Lock> held = lockAll(keys);
+        try {
+            List<SetValue> sets = setsAt(keys, 0);
+            if (sets == null) {
+                return -1;
+            }
+            if (sets.isEmpty() || sets.contains(null)) {
+                return 0;
+            }
+            return SetAlgebra.interCard(sets, limit);
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * This command works exactly like SINTER but instead of being returned the resulting set is stored as dstkey.
+     * @param keys The keys holding the sets.
+     * @return 1 if sinter succeed, -1 if at least one key does not hold a set.
+     */
+    public int sinterstore(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            // we don't want to do inter on the first key
+            String[] subKeys = new String[keys.length - 1];
+            for (int i = 0; i < keys.length - 1; i++) {
+                subKeys[i] = keys[i + 1];
+            }
+
+            List<Object> inter = sinter(subKeys);
+            // at least one key was not a set, we return an error
+            if (inter == null) {
+                return -1;
+            }
+
+            put(keys[0], new SetValue(intSetMaxEntries, inter));
+            return 1;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Remove a random element from a Set returning it as return value.
+     * <p>
+     *     If the Set is empty or the key does not exist, a null object is returned.
+     *     The SRANDMEMBER command does a similar work but the returned element is not removed from the Set.
+     * </p>
+     * @param key The key holding the set.
+     * @return The removed object, null if key does not exist or is not holding a set.
+     */
+    public Object spop(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Object res = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    long weight = set.weight();
+                    res = set.removeRandomMember(ThreadLocalRandom.current());
+                    resize(key, entry, set.weight() - weight);
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a random element from a Set, without removing the element.
+     * <p>
+     *     If the Set is empty or the key does not exist, a null object is returned.
+     *     The SPOP command does a similar work but the returned element is popped (removed) from the Set.
+     * </p>
+     * @param key The key holding the set.
+     * @return The random object, null if key does not exist or is not holding a set.
+     */
+    public Object srandmember(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Object res = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    res = ((SetValue) entry.value).randomMember(ThreadLocalRandom.current());
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove up to count random members from a set and return them.
+     * <p>
+     *     Each member is picked and removed in O(1), so draining a set is linear in its cardinality.
+     * </p>
+     * @param key The key holding the set.
+     * @param count The maximum number of members to remove.
+     * @return The removed members, all of them if the set holds no more than count, an empty list if key does not
+     * exist, null if key is not holding a set.
+     * @throws IllegalArgumentException When count is < 0.
+     */
+    public List<Object> spop(String key, int count) throws IllegalArgumentException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count. The count must be >= 0.");
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            List<Object> res = new ArrayList<>();
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    Random random = ThreadLocalRandom.current();
+                    long weight = set.weight();
+                    while (res.size() < count && set.size() > 0) {
+                        res.add(set.removeRandomMember(random));
+                    }
+                    if (!res.isEmpty()) {
+                        resize(key, entry, set.weight() - weight);
+                    }
+                } else {
+                    res = null;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return count random members of a set, without removing them.
+     * <p>
+     *     With a positive count the members are distinct, all of them being returned if the set holds no more than
+     *     count. With a negative count, -count members are returned and the same member may be picked several times.
+     *     Either way it takes O(|count|), whatever the cardinality of the set.
+     * </p>
+     * @param key The key holding the set.
+     * @param count The number of members, negative to allow repeats.
+     * @return The random members, an empty list if key does not exist, null if key is not holding a set.
+     */
+    public List<Object> srandmember(String key, int count) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            List<Object> res = new ArrayList<>();
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.SET) {
+                    SetValue set = (SetValue) entry.value;
+                    if (count >= 0) {
+                        res = set.randomMembers(ThreadLocalRandom.current(), count);
+                    } else {
+                        // -Integer.MIN_VALUE overflows, and nobody needs 2^31 members anyway
+                        int n = count == Integer.MIN_VALUE ? Integer.MAX_VALUE : -count;
+                        res = set.randomMembersWithRepeats(ThreadLocalRandom.current(), n);
+                    }
+                } else {
+                    res = null;
+                }
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Move the specifided member from the set at srckey to the set at dstkey.
+     *  <p>
+     *      This operation is atomic, in every given moment the element will appear to be in the source or destination
+     *      set for accessing clients.
+     *
+     *      If the source set does not exist or does not contain the specified element no operation is performed and
+     *      zero is returned, otherwise the element is removed from the source set and added to the destination set.
+     *      On success one is returned, even if the element was already present in the destination set.
+     *
+     *      An error is raised if the source or destination keys contain a non Set value.
+     * </p>
+     * @param srckey The key of the source set.
+     * @param dstkey The key of the destination set.
+     * @param member The member to move.
+     * @return 1 if the element was moved, 0 if the element was not found on and no operation was performed, -1 if error
+     */
+    public int smove(String srckey, String dstkey, Object member) {
+        List<Lock> held = lockAll(new String[]{srckey, dstkey});
+        try {
+            int res = 0;
+
+            // does srckey exists? yes ->continue no->0
+            Entry srcEntry = lookup(srckey);
+            if (srcEntry != null) {
+                // is srckey a set? yes->continue no->error
+                if (srcEntry.value.type == Value.Type.SET) {
+                    SetValue srcSet = (SetValue) srcEntry.value;
+                    // does srckey contain member? yes->remove & continue no->0
+                    if (srcSet.contains(member)) {
+                        long weight = srcSet.weight();
+                        srcSet.remove(member);
+                        resize(srckey, srcEntry, srcSet.weight() - weight);
+                        // does cache contain dstkey? yes->continue no->insert src
+                        Entry dstEntry = lookup(dstkey);
+                        if (dstEntry != null) {
+                            // is dstkey a set? yes-> add it & done no-> error
+                            if (dstEntry.value.type == Value.Type.SET) {
+                                SetValue dstSet = (SetValue) dstEntry.value;
+                                if (! dstSet.contains(member)) {
+                                    sadd(dstkey, member);
+                                    res = 1;
+                                }
+                            } else {
+                                res = -1;
+                            }
+                        } else {
+                            sadd(dstkey, member);
+                            res = 1;
+                        }
+                    }
+                } else {
+                    res = -1;
                 }
-                if (!(start > len - 1 || start > end || start < 0)) {
-                    range.addAll(((ArrayList) l).subList(start, end));
+            }
+            return res;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Return the members of a set resulting from the union of all the sets hold at the specified keys.
+     * <p>
+     *      If just a single key is specified, then this command produces the same result as SMEMBERS.
+     *      Non existing keys are considered like empty sets.
+     *      The members are de-duplicated in a set sized for all of them, in O(N) where N is the total cardinality.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @return the members resulting from the union of all the sets, null if at least one key does not hold a set.
+     */
+    public List<Object> sunion(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            SetValue union = unionOf(keys, 0);
+            return union != null ? union.toList() : null;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * This command works exactly like SUNION but instead of being returned the resulting set is stored as dstkey.
+     * <p>
+     *     Any existing value in dstkey will be over-written. The union is built straight into the new set.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @return 1 if sunion succeed, -1 if at least one key does not hold a set.
+     */
+    public int sunionstore(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            // we don't want to do union on the first key
+            SetValue union = unionOf(keys, 1);
+            // at least one key was not a set, we return an error
+            if (union == null) {
+                return -1;
+            }
+
+            put(keys[0], union);
+            return 1;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Return the members of a set resulting from the difference between the first set provided and all the successive sets.
+     * <p>
+     *      Example:
+     *          key1 = x,a,b,c
+     *          key2 = c
+     *          key3 = a,d
+     *          SDIFF key1,key2,key3 => x,b
+     *      Non existing keys are considered like empty sets.
+     *      Each member of the first set is looked up in the others, in O(N * M) where N is the cardinality of the first
+     *      set and M the number of keys.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @return The members resulting from the diff, null if at least one of the key does not hold a set.
+     */
+    public List<Object> sdiff(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            SetValue diff = diffOf(keys, 0);
+            return diff != null ? diff.toList() : null;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * This command works exactly like SDIFF but instead of being returned the resulting set is stored in dstkey.
+     * <p>
+     *     The difference is built straight into the new set.
+     * </p>
+     * @param keys The keys holding the sets.
+     * @return 1 if sdiff succeed, -1 if at least one key does not hold a set.
+     */
+    public int sdiffstore(String[] keys) {
+        List<Lock> held = lockAll(keys);
+        try {
+            // we don't want to do diff on the first key
+            SetValue diff = diffOf(keys, 1);
+            // at least one key was not a set, we return an error
+            if (diff == null) {
+                return -1;
+            }
+
+            put(keys[0], diff);
+            return 1;
+        } finally {
+            unlockAll(held);
+        }
+    }
+
+    /**
+     * Get the sets held at some keys, for a multi-key operation holding their locks.
+     *
+     * @param keys The keys.
+     * @param from The index of the first key to look up.
+     * @return The sets, in the order of the keys, null for the keys that do not exist, or null if at least one key does
+     * not hold a set.
+     */
+    private List<SetValue> setsAt(String[] keys, int from) {
+        List<SetValue> sets = new ArrayList<>(keys.length - from);
+        for (int i = from; i < keys.length; i++) {
+            Entry entry = lookup(keys[i]);
+            if (entry == null) {
+                sets.add(null);
+            } else if (entry.value.type == Value.Type.SET) {
+                sets.add((SetValue) entry.value);
+            } else {
+                return null;
+            }
+        }
+        return sets;
+    }
+
+    /**
+     * Unite the sets held at some keys, whose locks are held.
+     *
+     * @param keys The keys.
+     * @param from The index of the first key to unite.
+     * @return A new set, empty if there are no keys, null if at least one key does not hold a set.
+     */
+    private SetValue unionOf(String[] keys, int from) {
+        List<SetValue> sets = setsAt(keys, from);
+        if (sets == null) {
+            return null;
+        }
+        // Non existing keys are considered empty sets
+        sets.removeIf(Objects::isNull);
+        return SetAlgebra.union(sets, intSetMaxEntries);
+    }
+
+    /**
+     * Subtract the sets held at some keys from the set held at the first of them, whose locks are held.
+     *
+     * @param keys The keys.
+     * @param from The index of the first key, holding the set to subtract from.
+     * @return A new set, empty if there are no keys, null if at least one key does not hold a set.
+     */
+    private SetValue diffOf(String[] keys, int from) {
+        List<SetValue> sets = setsAt(keys, from);
+        if (sets == null) {
+            return null;
+        }
+        if (sets.isEmpty() || sets.get(0) == null) {
+            return new SetValue(intSetMaxEntries, 0);
+        }
+        List<SetValue> others = sets.subList(1, sets.size());
+        // Non existing keys are considered empty sets
+        others.removeIf(Objects::isNull);
+        return SetAlgebra.diff(sets.get(0), others, intSetMaxEntries);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  SORTED SETS                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     *  Add the specified member with the specified score to the sorted set stored at key.
+     *  <p>
+     *      If member is already a member of the sorted set its score is updated, and the member moved to its new
+     *      rank. If key does not exist a new sorted set with the specified member as sole member is created. If the
+     *      key exists but does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param score The score of the member.
+     * @param member The member to add.
+     * @return 1 if the new element was added, 0 if the element was already a member of the sorted set and its score
+     * was updated, -1 if an error happened.
+     * @throws IllegalArgumentException When score is not a number.
+     */
+    public int zadd(String key, double score, Object member) throws IllegalArgumentException {
+        return zadd(key, new double[]{score}, new Object[]{member});
+    }
+
+    /**
+     *  Add the specified members with their scores to the sorted set stored at key, under a single lock acquisition.
+     *  <p>
+     *      The scores of the members already in the sorted set are updated. If key does not exist a new sorted set is
+     *      created. If the key exists but does not hold a sorted set an error is returned. Each member is added or
+     *      moved in O(log n).
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param scores The scores of the members, in the same order.
+     * @param members The members to add.
+     * @return The number of members added, not counting the ones already in the sorted set, -1 if an error happened.
+     * @throws IllegalArgumentException When there are not as many scores as members, or a score is not a number.
+     */
+    public int zadd(String key, double[] scores, Object[] members) throws IllegalArgumentException {
+        if (scores.length != members.length) {
+            throw new IllegalArgumentException("Invalid scores. There must be one score per member.");
+        }
+        for (double score : scores) {
+            if (Double.isNaN(score)) {
+                throw new IllegalArgumentException("Invalid score. The score must be a number.");
+            }
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = -1;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.ZSET) {
+                    ZSetValue zset = (ZSetValue) entry.value;
+                    long weight = zset.weight();
+                    res = 0;
+                    for (int i = 0; i < members.length; i++) {
+                        if (zset.add(scores[i], members[i])) {
+                            res++;
+                        }
+                    }
+                    if (res > 0) {
+                        resize(key, entry, zset.weight() - weight);
+                    }
                 }
+            } else if (members.length == 0) {
+                res = 0;
             } else {
-                range = null;
+                ZSetValue zset = new ZSetValue();
+                for (int i = 0; i < members.length; i++) {
+                    zset.add(scores[i], members[i]);
+                }
+                put(key, zset);
+                res = zset.size();
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the sorted set cardinality (number of elements). If the key does not exist 0 is returned, like for empty
+     * sorted sets.
+     * @param key The key holding the sorted set.
+     * @return Cardinality of the sorted set, -1 if key holds anything but a sorted set.
+     */
+    public int zcard(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                res = entry.value.type == Value.Type.ZSET ? ((ZSetValue) entry.value).size() : -1;
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the score of member in the sorted set stored at key, in O(1).
+     * @param key The key holding the sorted set.
+     * @param member The member.
+     * @return The score of the member, null if member is not in the sorted set, if key does not exist or if key does
+     * not hold a sorted set.
+     */
+    public Double zscore(String key, Object member) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Double res = null;
+            Entry entry = lookup(key);
+            if (entry != null && entry.value.type == Value.Type.ZSET) {
+                res = ((ZSetValue) entry.value).score(member);
+            }
+            return res;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Remove the specified member from the sorted set stored at key.
+     *  <p>
+     *      If member was not a member of the sorted set no operation is performed.
+     *      If key does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param member The member to remove.
+     * @return 1 if the element was removed, 0 if the element was not a member of the sorted set, -1 if an error
+     * happened.
+     */
+    public int zrem(String key, Object member) {
+        return zrem(key, new Object[]{member});
+    }
+
+    /**
+     *  Remove the specified members from the sorted set stored at key, under a single lock acquisition.
+     *  <p>
+     *      Members that are not in the sorted set are ignored.
+     *      If key does not hold a sorted set an error is returned.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param members The members to remove.
+     * @return The number of members removed, -1 if an error happened.
+     */
+    public int zrem(String key, Object[] members) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.ZSET) {
+                    ZSetValue zset = (ZSetValue) entry.value;
+                    long weight = zset.weight();
+                    for (Object member : members) {
+                        if (zset.remove(member)) {
+                            res++;
+                        }
+                    }
+                    if (res > 0) {
+                        resize(key, entry, zset.weight() - weight);
+                    }
+                } else {
+                    res = -1;
+                }
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return range;
     }
 
     /**
-     * Remove the first count occurrences of the value element from the list.
+     * Return the rank of member in the sorted set stored at key, with the scores ordered from low to high, in
+     * O(log n).
      * <p>
-     *      If count is zero all the elements are removed.
-     *      The number of removed elements is returned as an integer.
-     *      Note that non existing keys are considered like empty lists by LREM, so LREM against non existing keys
-     *      will always return 0.
+     *     The rank is 0-based: the member with the lowest score has rank 0. Members with the same score are ordered
+     *     lexicographically.
      * </p>
-     * @param key The key holding the list.
-     * @param count The number of elements to remove.
-     * @param value The value to remove.
-     * @return An integer reply containing the number of removed elements if the operation succeeded.
+     * @param key The key holding the sorted set.
+     * @param member The member.
+     * @return The rank of the member, null if member is not in the sorted set or if key does not exist, -1 if key
+     * does not hold a sorted set.
      */
-    public synchronized int lrem(String key, int count, Object value) {
-        int nbRemoved = 0;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                if (count == 0) {
-                    /* unchecked cast, we can't use instanceof ArrayList<Object> because of type erasure.
-                     * there might be some kind of work around, but we know for sure that we'll only have
-                     * ArrayList of objects. Best thing would most likely to change the design a bit, but
-                     * lack of time and we'll just assume that nobody will never ever change the code of
-                     * storage in a way that it adds ArrayList that are not containing objects. */
-                    ((ArrayList) l).removeIf(v -> v.equals(value));
+    public Integer zrank(String key, Object member) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Integer res = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.ZSET) {
+                    int rank = ((ZSetValue) entry.value).rank(member);
+                    res = rank >= 0 ? rank : null;
                 } else {
-                    AtomicInteger c = new AtomicInteger(0);
-                    /* unchecked cast, we can't use instanceof ArrayList<Object> because of type erasure.
-                     * there might be some kind of work around, but we know for sure that we'll only have
-                     * ArrayList of objects. Best thing would most likely to change the design a bit, but
-                     * lack of time and we'll just assume that nobody will never ever change the code of
-                     * storage in a way that it adds ArrayList that are not containing objects. */
-                    ((ArrayList) l).removeIf(v -> v.equals(value) && c.get() < count && c.getAndIncrement() < count);
-                    nbRemoved = c.get();
+                    res = -1;
                 }
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return nbRemoved;
     }
 
     /**
-     *  Trim an existing list so that it will contain only the specified range of elements specified.
+     *  Return the specified range of members of the sorted set stored at key, ordered from the lowest to the highest
+     *  score. Start and stop are zero-based ranks, both inclusive.
      *  <p>
-     *      Start and end are zero-based indexes. 0 is the first element of the list (the list head), 1 the next element
-     *      and so on. For example LTRIM foobar 0 2 will modify the list stored at foobar key so that only the first
-     *      three elements of the list will remain. Indexes out of range will not produce an error: if start is over the
-     *      end of the list, or start > end, an empty list is left as value. If end over the end of the list we will
-     *      threat it just like the last element of the list.
+     *      They can be negative numbers indicating offsets from the end of the sorted set, -1 being the member with
+     *      the highest score: ZRANGE key -10 -1 returns the ten best members. Out of range indexes will not produce an
+     *      error: if start is over the end of the sorted set or start > stop an empty list is returned, if stop is over
+     *      the end it is treated like the last member. The first member is found by rank in O(log n), the following
+     *      ones in O(1) each.
      *  </p>
-     * @param key The key holding the list.
-     * @param start The start of the range.
-     * @param end The end of the range.
-     * @return true if the key exists and holds a list, false otherwise.
+     * @param key The key holding the sorted set.
+     * @param start The rank of the first member.
+     * @param stop The rank of the last member.
+     * @param withScores True to return the score of each member after it.
+     * @return The members of the range, followed each by its score if withScores is true, null if key does not hold
+     * a sorted set.
      */
-    public synchronized boolean ltrim(String key, int start, int end) {
-        boolean success = false;
-        if (cache.containsKey(key)) {
-            Object l = cache.get(key);
-            if (l instanceof ArrayList) {
-                end = end + 1;
-                int len = ((ArrayList) l).size();
-                if (end > len) {
-                    end = len;
+    public ArrayList<Object> zrange(String key, int start, int stop, boolean withScores) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            ArrayList<Object> range = new ArrayList<>();
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.ZSET) {
+                    ZSetValue zset = (ZSetValue) entry.value;
+                    int size = zset.size();
+                    if (start < 0) {
+                        start = Math.max(0, size + start);
+                    }
+                    if (stop < 0) {
+                        stop = size + stop;
+                    }
+                    if (stop >= size) {
+                        stop = size - 1;
+                    }
+                    if (start <= stop) {
+                        range = zset.range(start, stop, withScores);
+                    }
+                } else {
+                    range = null;
                 }
-                ArrayList<Object> trimmed = new ArrayList<>();
-                if (!(start < 0 || start > len - 1 || start > end)) {
-                    trimmed.addAll(((ArrayList) l).subList(start, end));
+            }
+            return range;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  Return the members of the sorted set stored at key whose score is between min and max, both inclusive,
+     *  ordered from the lowest to the highest score.
+     *  <p>
+     *      The range can be paged with offset and count, like with LIMIT offset count: offset members of the range
+     *      are skipped, then at most count members are returned. The first member is found by rank in O(log n)
+     *      whatever the offset, the following ones in O(1) each. Infinite bounds select all the members up to or from
+     *      the other bound.
+     *  </p>
+     * @param key The key holding the sorted set.
+     * @param min The minimum score.
+     * @param max The maximum score.
+     * @param withScores True to return the score of each member after it.
+     * @param offset The number of members of the range to skip.
+     * @param count The maximum number of members to return, < 0 to return all of them.
+     * @return The members of the range, followed each by its score if withScores is true, null if key does not hold
+     * a sorted set.
+     * @throws IllegalArgumentException When min or max is not a number, or offset is < 0.
+     */
+    public ArrayList<Object> zrangebyscore(String key, double min, double max, boolean withScores, int offset,
+                                           int count) throws IllegalArgumentException {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            throw new IllegalArgumentException("Invalid range. The min and the max must be numbers.");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid offset. The offset must be >= 0.");
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            ArrayList<Object> range = new ArrayList<>();
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.ZSET) {
+                    range = ((ZSetValue) entry.value).rangeByScore(min, max, offset, count, withScores);
+                } else {
+                    range = null;
                 }
-                cache.replace(key, trimmed);
-                success = true;
             }
+            return range;
+        } finally {
+            lock.unlock();
         }
-        return success;
     }
 
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
-    /*                                                      SETS                                                      */
+    /*                                                     HASHES                                                     */
     /*                                                                                                                */
     /*----------------------------------------------------------------------------------------------------------------*/
 
     /**
-     *  Add the specified member to the set value stored at key.
+     *  Set the value of a field of the hash stored at key.
      *  <p>
-     *      f member is already a member of the set no operation is performed. If key does not exist a new set with the
-     *      specified member as sole member is created. If the key exists but does not hold a set value an error is
-     *      returned.
+     *      If field is already in the hash its value is replaced. If key does not exist a new hash holding field is
+     *      created. If the key exists but does not hold a hash an error is returned.
      *  </p>
-     * @param key The key holding the set.
-     * @param member The member to add.
-     * @return 1 if the new element was added, 0 if the element was already a member of the set, -1 if an error happened.
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @param value The value of the field.
+     * @return 1 if the field was added, 0 if it was already in the hash and its value was replaced, -1 if an error
+     * happened.
      */
-    public synchronized int sadd(String key, Object member) {
-        int res = -1;
-        if (cache.containsKey(key)) {
-            Object s = cache.get(key);
-            if (s instanceof HashSet) {
-                /* unchecked cast, we can't use instanceof HashSet<Object> because of type erasure.
-                 * there might be some kind of work around, but we know for sure that we'll only have
-                 * HashSet of objects. Best thing would most likely to change the design a bit, but
-                 * lack of time and we'll just assume that nobody will never ever change the code of
-                 * storage in a way that it adds HashSet that are not containing objects. */
-                res = ((HashSet) s).add(member) ? 1 : 0;
-            }
-        } else {
-            HashSet<Object> s = new HashSet<>();
-            s.add(member);
-            cache.put(key, s);
-            res = 1;
-        }
-        return res;
+    public int hset(String key, Object field, Object value) {
+        return hset(key, new Object[]{field}, new Object[]{value});
     }
 
     /**
-     * Return the set cardinality (number of elements). If the key does not exist 0 is returned, like for empty sets.
-     * @param key The key holding the set.
-     * @return Cardinality of the set, -1 if key holds anything but a set.
+     *  Set the values of several fields of the hash stored at key, under a single lock acquisition.
+     *  <p>
+     *      The values of the fields already in the hash are replaced. If key does not exist a new hash is created,
+     *      packed if it has few enough fields (see setHashPackMaxEntries()). If the key exists but does not hold a
+     *      hash an error is returned.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param fields The fields.
+     * @param values The values of the fields, in the same order.
+     * @return The number of fields added, not counting the ones already in the hash, -1 if an error happened.
+     * @throws IllegalArgumentException When there are not as many values as fields.
      */
-    public synchronized int scard(String key) {
-        int res = 0;
-        if (cache.containsKey(key)) {
-            Object s = cache.get(key);
-            res = (s instanceof HashSet) ? ((HashSet) s).size() : -1;
+    public int hset(String key, Object[] fields, Object[] values) throws IllegalArgumentException {
+        if (fields.length != values.length) {
+            throw new IllegalArgumentException("Invalid values. There must be one value per field.");
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = -1;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.HASH) {
+                    HashValue hash = (HashValue) entry.value;
+                    long weight = hash.weight();
+                    res = 0;
+                    for (int i = 0; i < fields.length; i++) {
+                        if (hash.put(fields[i], values[i])) {
+                            res++;
+                        }
+                    }
+                    resize(key, entry, hash.weight() - weight);
+                }
+            } else if (fields.length == 0) {
+                res = 0;
+            } else {
+                HashValue hash = new HashValue(hashPackMaxEntries, fields.length);
+                for (int i = 0; i < fields.length; i++) {
+                    hash.put(fields[i], values[i]);
+                }
+                put(key, hash);
+                res = hash.size();
+            }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
     /**
-     *  Remove the specified member from the set value stored at key.
-     *  <p>
-     *      If member was not a member of the set no operation is performed.
-     *      If key does not hold a set value an error is returned.
-     *  </p>
-     * @param key The key holding the set.
-     * @param member The member to remove.
-     * @return 1 if the element was removed, 0 if the element was not a member of the set, -1 if an error happened.
+     * Return the value of a field of the hash stored at key.
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @return The value of the field, null if field is not in the hash, if key does not exist or if key does not hold
+     * a hash.
      */
-    public synchronized int srem(String key, Object member) {
-        int res = 0;
-        if (cache.containsKey(key)) {
-            Object s = cache.get(key);
-            if (s instanceof HashSet) {
-                res = ((HashSet) s).remove(member) ? 1 : 0;
-            } else {
-                res = -1;
+    public Object hget(String key, Object field) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Object res = null;
+            Entry entry = lookup(key);
+            if (entry != null && entry.value.type == Value.Type.HASH) {
+                res = ((HashValue) entry.value).get(field);
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
     /**
-     * Return 1 if member is a member of the set stored at key, otherwise 0 is returned.
-     * @param key The key holding the set.
-     * @param member The member to test.
-     * @return 1 if the element is a member of the set, 0 if it is not a member, -1 if an error happened.
+     * Return the values of several fields of the hash stored at key, under a single lock acquisition.
+     * @param key The key holding the hash.
+     * @param fields The fields.
+     * @return The value of each field, in the same order, null for the fields that are not in the hash (all of them
+     * if key does not exist), null if key does not hold a hash.
      */
-    public synchronized int sismember(String key, Object member) {
-        int res = 0;
-        if (cache.containsKey(key)) {
-            Object s = cache.get(key);
-            if (s instanceof HashSet) {
-                res = ((HashSet) s).contains(member) ? 1 : 0;
+    public ArrayList<Object> hmget(String key, Object[] fields) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            ArrayList<Object> res = new ArrayList<>(fields.length);
+            Entry entry = lookup(key);
+            if (entry == null) {
+                for (int i = 0; i < fields.length; i++) {
+                    res.add(null);
+                }
+            } else if (entry.value.type == Value.Type.HASH) {
+                HashValue hash = (HashValue) entry.value;
+                for (Object field : fields) {
+                    res.add(hash.get(field));
+                }
             } else {
-                res = -1;
+                res = null;
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
-
     /**
-     *  Return all the members (elements) of the set value stored at key. This is just syntax glue for SINTERSECT.
-     * @param key The key holding the set.
-     * @return All the members (elements) of the set value stored at key, null if key does not hold a set.
+     *  Atomically increment the integer value of a field of the hash stored at key.
+     *  <p>
+     *      If field is not in the hash it is set to 0 before the increment, and if key does not exist a new hash is
+     *      created. Values that are integers, or strings holding an integer, can be incremented; the field then holds
+     *      a Long. The read and the write of the field happen under the lock of the key, so concurrent increments of
+     *      a field are never lost.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param field The field.
+     * @param increment The increment, negative to decrement.
+     * @return The new value of the field, null if key does not hold a hash.
+     * @throws ArithmeticException When the value of the field is not an integer, or the new value would not fit in 64
+     * bits. The value of the field is left unchanged.
      */
-    public synchronized List<Object> smembers(String key) {
-        List<Object> res = null;
-        if (cache.containsKey(key)) {
-            Object o = cache.get(key);
-            if (o instanceof HashSet) {
-                res = new ArrayList<>();
-                /* unchecked cast, we can't use instanceof HashSet<Object> because of type erasure.
-                 * there might be some kind of work around, but we know for sure that we'll only have
-                 * HashSet of objects. Best thing would most likely to change the design a bit, but
-                 * lack of time and we'll just assume that nobody will never ever change the code of
-                 * storage in a way that it adds HashSet that are not containing objects. */
-                ((HashSet) o).forEach(res::add);
+    public Long hincrby(String key, Object field, long increment) throws ArithmeticException {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Long res = null;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.HASH) {
+                    HashValue hash = (HashValue) entry.value;
+                    long weight = hash.weight();
+                    res = hash.incrBy(field, increment);
+                    resize(key, entry, hash.weight() - weight);
+                }
+            } else {
+                HashValue hash = new HashValue(hashPackMaxEntries, 1);
+                res = hash.incrBy(field, increment);
+                put(key, hash);
             }
-        } else {
-            res = new ArrayList<>();
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
     /**
-     * Return the members of a set resulting from the intersection of all the sets hold at the specified keys.
-     * <p>
-     *     If just a single key is specified, then this command produces the same result as SMEMBERS.
-     *     Actually SMEMBERS is just syntax sugar for SINTERSECT.
-     *     Non existing keys are considered like empty sets, so if one of the keys is missing an empty set is returned
-     *     (since the intersection with an empty set always is an empty set).
-     * </p>
-     * @param keys The keys holding the sets.
-     * @return the members resulting from the intersection of all the sets, null if at least one key does not hold a set.
+     *  Remove the specified fields from the hash stored at key, under a single lock acquisition.
+     *  <p>
+     *      Fields that are not in the hash are ignored.
+     *      If key does not hold a hash an error is returned.
+     *  </p>
+     * @param key The key holding the hash.
+     * @param fields The fields to remove.
+     * @return The number of fields removed, -1 if an error happened.
      */
-    public synchronized List<Object> sinter(String[] keys) {
-        // if no keys were provided, we return an empty list
-        if (keys.length == 0) {
-            return new ArrayList<>();
-        }
-
-        // Create a list of all the sets
-        List<HashSet> sets = new ArrayList<>();
-        for (String k : keys) {
-            if (cache.containsKey(k)) {
-                Object o = cache.get(k);
-                if (o instanceof HashSet) {
-                    sets.add((HashSet) o);
+    public int hdel(String key, Object[] fields) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.HASH) {
+                    HashValue hash = (HashValue) entry.value;
+                    long weight = hash.weight();
+                    for (Object field : fields) {
+                        if (hash.remove(field)) {
+                            res++;
+                        }
+                    }
+                    if (res > 0) {
+                        resize(key, entry, hash.weight() - weight);
+                    }
                 } else {
-                    // Early exit
-                    // One of the provided keys is not a HashSet, we can't do sinter, we return an error
-                    return null;
+                    res = -1;
                 }
-            } else {
-                // Early exit
-                // Non existing keys are considered empty sets, if one of the keys is missing an empty set is returned
-                return new ArrayList<>();
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-
-        /* unchecked cast, we can't use instanceof HashSet<Object> because of type erasure.
-         * there might be some kind of work around, but we know for sure that we'll only have
-         * HashSet of objects. Best thing would most likely to change the design a bit, but
-         * lack of time and we'll just assume that nobody will never ever change the code of
-         * storage in a way that it adds HashSet that are not containing objects. */
-        HashSet<Object> setInter = sets.get(0);
-
-        // Do the inter
-        for (int i = 0; i < keys.length; i++) {
-            setInter.retainAll(sets.get(i));
-        }
-
-        // Create the list of common elements
-        ArrayList<Object> commonElements = new ArrayList<>();
-        for (Object o : setInter) {
-            commonElements.add(o);
-        }
-        return commonElements;
     }
 
     /**
-     * This command works exactly like SINTER but instead of being returned the resulting set is stored as dstkey.
-     * @param keys The keys holding the sets.
-     * @return 1 if sinter succeed, -1 if at least one key does not hold a set.
+     * Return the number of fields of the hash stored at key. If the key does not exist 0 is returned, like for empty
+     * hashes.
+     * @param key The key holding the hash.
+     * @return The number of fields of the hash, -1 if key holds anything but a hash.
      */
-    public synchronized int sinterstore(String[] keys) {
-        // we don't want to do inter on the first key
-        String[] subKeys = new String[keys.length - 1];
-        for (int i = 0; i < keys.length - 1; i++) {
-            subKeys[i] = keys[i + 1];
-        }
-
-        List<Object> inter = sinter(subKeys);
-        // at least one key was not a set, we return an error
-        if (inter == null) {
-            return -1;
-        }
-
-        HashSet<Object> interSet = new HashSet<>();
-        interSet.addAll(inter);
-        if (cache.containsKey(keys[0])) {
-            cache.replace(keys[0], interSet);
-        } else {
-            cache.put(keys[0], interSet);
+    public int hlen(String key) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                res = entry.value.type == Value.Type.HASH ? ((HashValue) entry.value).size() : -1;
+            }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return 1;
     }
 
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                     BITMAPS                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
     /**
-     * Remove a random element from a Set returning it as return value.
+     * Set or clear the bit at offset in the bitmap stored at key.
      * <p>
-     *     If the Set is empty or the key does not exist, a null object is returned.
-     *     The SRANDMEMBER command does a similar work but the returned element is not removed from the Set.
+     *     The bitmap grows to hold the bit if needed, the new bits being 0. If key does not exist a new bitmap is
+     *     created. If the key exists but does not hold a bitmap an error is returned.
      * </p>
-     * @param key The key holding the set.
-     * @return The removed object, null if key does not exist or is not holding a set.
+     * @param key The key holding the bitmap.
+     * @param offset The offset of the bit, from 0 to 2^32 - 1.
+     * @param value The new value of the bit, 0 or 1.
+     * @return The previous value of the bit, -1 if an error happened.
+     * @throws IllegalArgumentException When offset is out of range, or value is neither 0 nor 1.
      */
-    public synchronized Object spop(String key) {
-            Object res = null;
-            if (cache.containsKey(key)) {
-                Object o = cache.get(key);
-                if (o instanceof HashSet) {
-                    res = randomlyPickAndRemove((HashSet) o);
+    public int setbit(String key, long offset, int value) throws IllegalArgumentException {
+        checkOffset(offset);
+        if (value != 0 && value != 1) {
+            throw new IllegalArgumentException("Invalid bit. The bit must be 0 or 1.");
+        }
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = -1;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.BITMAP) {
+                    BitmapValue bitmap = (BitmapValue) entry.value;
+                    long weight = bitmap.weight();
+                    res = bitmap.set(offset, value);
+                    resize(key, entry, bitmap.weight() - weight);
                 }
+            } else {
+                BitmapValue bitmap = new BitmapValue();
+                res = bitmap.set(offset, value);
+                put(key, bitmap);
             }
             return res;
-    }
-
-    private synchronized Object randomlyPickAndRemove(HashSet set) {
-        Object res = randomlyPick(set);
-        set.remove(res);
-        return res;
-    }
-
-    private synchronized Object randomlyPick(HashSet set) {
-        Object res = null;
-        int size = set.size();
-        if (size > 0) {
-            int randomItem = new Random().nextInt(size);
-            int i = 0;
-            for (Object item : set) {
-                if (i == randomItem) {
-                    res = item;
-                    break;
-                } else {
-                    i++;
-                }
-            }
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
     /**
-     * Return a random element from a Set, without removing the element.
-     * <p>
-     *     If the Set is empty or the key does not exist, a null object is returned.
-     *     The SPOP command does a similar work but the returned element is popped (removed) from the Set.
-     * </p>
-     * @param key The key holding the set.
-     * @return The random object, null if key does not exist or is not holding a set.
+     * Return the bit at offset in the bitmap stored at key.
+     * @param key The key holding the bitmap.
+     * @param offset The offset of the bit, from 0 to 2^32 - 1.
+     * @return The bit, 0 if offset is past the end of the bitmap or if key does not exist, -1 if key does not hold a
+     * bitmap.
+     * @throws IllegalArgumentException When offset is out of range.
      */
-    public synchronized Object srandmember(String key) {
-        Object res = null;
-        if (cache.containsKey(key)) {
-            Object o = cache.get(key);
-            if (o instanceof HashSet) {
-                res = randomlyPick((HashSet) o);
+    public int getbit(String key, long offset) throws IllegalArgumentException {
+        checkOffset(offset);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            int res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                res = entry.value.type == Value.Type.BITMAP ? ((BitmapValue) entry.value).get(offset) : -1;
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-        return res;
     }
 
     /**
-     *  Move the specifided member from the set at srckey to the set at dstkey.
-     *  <p>
-     *      This operation is atomic, in every given moment the element will appear to be in the source or destination
-     *      set for accessing clients.
-     *
-     *      If the source set does not exist or does not contain the specified element no operation is performed and
-     *      zero is returned, otherwise the element is removed from the source set and added to the destination set.
-     *      On success one is returned, even if the element was already present in the destination set.
-     *
-     *      An error is raised if the source or destination keys contain a non Set value.
-     * </p>
-     * @param srckey The key of the source set.
-     * @param dstkey The key of the destination set.
-     * @param member The member to move.
-     * @return 1 if the element was moved, 0 if the element was not found on and no operation was performed, -1 if error
+     * Count the bits set in the bitmap stored at key.
+     * @param key The key holding the bitmap.
+     * @return The number of bits set, 0 if key does not exist, -1 if key does not hold a bitmap.
      */
-    public synchronized int smove(String srckey, String dstkey, Object member) {
-        int res = 0;
-
-        // does srckey exists? yes ->continue no->0
-        if (cache.containsKey(srckey)) {
-            Object src = cache.get(srckey);
-            // is srckey a set? yes->continue no->error
-            if (src instanceof HashSet) {
-                HashSet srcSet = (HashSet) src;
-                // does srckey contain member? yes->remove & continue no->0
-                if (srcSet.contains(member)) {
-                    srcSet.remove(member);
-                    // does cache contain dstkey? yes->continue no->insert src
-                    if (cache.containsKey(dstkey)) {
-                        Object dst = cache.get(dstkey);
-                        // is dstkey a set? yes-> add it & done no-> error
-                        if (dst instanceof HashSet) {
-                            HashSet dstSet = (HashSet) dst;
-                            if (! dstSet.contains(member)) {
-                                sadd(dstkey, member);
-                                res = 1;
-                            }
-                        } else {
-                            res = -1;
-                        }
-                    } else {
-                        sadd(dstkey, member);
-                        res = 1;
-                    }
-                }
-            } else {
-                res = -1;
-            }
-        }
-        return res;
+    public long bitcount(String key) {
+        return bitcount(key, 0, -1);
     }
 
     /**
-     * Return the members of a set resulting from the union of all the sets hold at the specified keys.
+     * Count the bits set in a range of bytes of the bitmap stored at key, a word of 64 bits at a time.
      * <p>
-     *      If just a single key is specified, then this command produces the same result as SMEMBERS.
-     *      Non existing keys are considered like empty sets.
+     *     start and end can be negative to count from the end of the bitmap, -1 being its last byte. The range is
+     *     clamped to the bitmap.
      * </p>
-     * @param keys The keys holding the sets.
-     * @return the members resulting from the union of all the sets, null if at least one key does not hold a set.
+     * @param key The key holding the bitmap.
+     * @param start The first byte.
+     * @param end The last byte, included.
+     * @return The number of bits set in the range, 0 if key does not exist, -1 if key does not hold a bitmap.
      */
-    public synchronized List<Object> sunion(String[] keys) {
-        // if no keys were provided, we return an empty list
-        if (keys.length == 0) {
-            return new ArrayList<>();
-        }
-
-        // Create a list of all the sets
-        List<HashSet> sets = new ArrayList<>();
-        for (String k : keys) {
-            if (cache.containsKey(k)) {
-                Object o = cache.get(k);
-                if (o instanceof HashSet) {
-                    sets.add((HashSet) o);
+    public long bitcount(String key, long start, long end) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            long res = 0;
+            Entry entry = lookup(key);
+            if (entry != null) {
+                if (entry.value.type == Value.Type.BITMAP) {
+                    BitmapValue bitmap = (BitmapValue) entry.value;
+                    int length = bitmap.length();
+                    res = bitmap.count(Math.max(0, byteIndex(start, length)),
+                                       Math.min(length - 1, byteIndex(end, length)));
                 } else {
-                    // Early exit
-                    // One of the provided keys is not a HashSet, we can't do sunion, we return an error
-                    return null;
-                }
-            }
-        }
-
-        // Do the union
-        ArrayList<Object> res = new ArrayList<>();
-        for (HashSet set : sets) {
-            for (Object o : set) {
-                if (!res.contains(o)) {
-                    res.add(o);
+                    res = -1;
                 }
             }
+            return res;
+        } finally {
+            lock.unlock();
         }
-
-        return res;
     }
 
     /**
-     * This command works exactly like SUNION but instead of being returned the resulting set is stored as dstkey.
+     * Return the offset of the first bit set or cleared in the bitmap stored at key, scanning a word of 64 bits at a
+     * time.
      * <p>
-     *     Any existing value in dstkey will be over-written.
+     *     The bits past the end of the bitmap are considered to be 0: looking for a 0 in a bitmap full of ones returns
+     *     the offset of the bit right after its end, and looking for a 0 in a missing key returns 0.
      * </p>
-     * @param keys The keys holding the sets.
-     * @return 1 if sunion succeed, -1 if at least one key does not hold a set.
+     * @param key The key holding the bitmap.
+     * @param bit The bit to look for, 0 or 1.
+     * @return The offset of the first bit found, -1 if there is none, null if key does not hold a bitmap.
+     * @throws IllegalArgumentException When bit is neither 0 nor 1.
      */
-    public synchronized int sunionstore(String[] keys) {
-        // we don't want to do union on the first key
-        String[] subKeys = new String[keys.length - 1];
-        System.arraycopy(keys, 1, subKeys, 0, keys.length - 1);
-
-        List<Object> union = sunion(subKeys);
-        // at least one key was not a set, we return an error
-        if (union == null) {
-            return -1;
-        }
+    public Long bitpos(String key, int bit) throws IllegalArgumentException {
+        return bitpos(key, bit, 0, -1, false);
+    }
 
-        HashSet<Object> unionSet = new HashSet<>();
-        unionSet.addAll(union);
-        if (cache.containsKey(keys[0])) {
-            cache.replace(keys[0], unionSet);
-        } else {
-            cache.put(keys[0], unionSet);
-        }
-        return 1;
+    /**
+     * Return the offset of the first bit set or cleared in a range of bytes of the bitmap stored at key.
+     * <p>
+     *     start and end can be negative to count from the end of the bitmap, -1 being its last byte. The range is
+     *     clamped to the bitmap, and unlike bitpos(key, bit) the bits past its end are not looked at.
+     * </p>
+     * @param key The key holding the bitmap.
+     * @param bit The bit to look for, 0 or 1.
+     * @param start The first byte.
+     * @param end The last byte, included.
+     * @return The offset of the first bit found, -1 if there is none, null if key does not hold a bitmap.
+     * @throws IllegalArgumentException When bit is neither 0 nor 1.
+     */
+    public Long bitpos(String key, int bit, long start, long end) throws IllegalArgumentException {
+        return bitpos(key, bit, start, end, true);
     }
 
     /**
-     * Return the members of a set resulting from the difference between the first set provided and all the successive sets.
+     * Combine bitmaps with a bitwise operation, a word of 64 bits at a time, and store the result at keys[0].
      * <p>
-     *      Example:
-     *          key1 = x,a,b,c
-     *          key2 = c
-     *          key3 = a,d
-     *          SDIFF key1,key2,key3 => x,b
-     *      Non existing keys are considered like empty sets.
+     *     AND, OR and XOR combine any number of bitmaps, the shorter ones being padded with zeros: the result is as
+     *     long as the longest bitmap. NOT flips the bits of a single bitmap. Missing keys are empty bitmaps, and keys[0]
+     *     is deleted when the result is empty. Bitmaps of more than BitmapValue.PARALLEL_THRESHOLD words are combined
+     *     in parallel, in the common ForkJoinPool.
      * </p>
-     * @param keys The keys holding the sets.
-     * @return The members resulting from the diff, null if at least one of the key does not hold a set.
+     * @param operation The operation: AND, OR, XOR or NOT, in any case.
+     * @param keys The key where the result is stored, followed by the keys holding the bitmaps.
+     * @return The length in bytes of the bitmap stored at keys[0], 0 if it is empty, -1 if a key does not hold a
+     * bitmap.
+     * @throws IllegalArgumentException When the operation is unknown, there is no bitmap to combine, or several of
+     * them for NOT.
      */
-    public synchronized List<Object> sdiff(String[] keys) {
-        // if no keys were provided, we return an empty list
-        if (keys.length == 0) {
-            return new ArrayList<>();
+    public long bitop(String operation, String[] keys) throws IllegalArgumentException {
+        BitmapValue.Op op;
+        try {
+            op = BitmapValue.Op.valueOf(operation.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid operation. The operation must be AND, OR, XOR or NOT.");
         }
-
-        // Create a list of all the sets
-        List<HashSet> sets = new ArrayList<>();
-        for (String k : keys) {
-            if (cache.containsKey(k)) {
-                Object o = cache.get(k);
-                if (o instanceof HashSet) {
-                    sets.add((HashSet) o);
-                } else {
-                    // Early exit
-                    // One of the provided keys is not a HashSet, we can't do sdiff, we return an error
-                    return null;
+        if (keys.length < 2) {
+            throw new IllegalArgumentException("Invalid keys. There must be a destination key and a source key.");
+        }
+        if (op == BitmapValue.Op.NOT && keys.length != 2) {
+            throw new IllegalArgumentException("Invalid keys. NOT must have a single source key.");
+        }
+        List<Lock> held = lockAll(keys);
+        try {
+            BitmapValue[] bitmaps = new BitmapValue[keys.length - 1];
+            for (int i = 1; i < keys.length; i++) {
+                Entry entry = lookup(keys[i]);
+                if (entry != null) {
+                    if (entry.value.type != Value.Type.BITMAP) {
+                        return -1;
+                    }
+                    bitmaps[i - 1] = (BitmapValue) entry.value;
                 }
-            } else {
-                sets.add(new HashSet<>());
             }
+            BitmapValue res = BitmapValue.combine(op, bitmaps);
+            if (res.length() == 0) {
+                // like any empty value, an empty bitmap is a missing key
+                delete(keys[0]);
+                return 0;
+            }
+            put(keys[0], res);
+            return res.length();
+        } finally {
+            unlockAll(held);
         }
+    }
 
-        /* unchecked cast, we can't use instanceof HashSet<Object> because of type erasure.
-         * there might be some kind of work around, but we know for sure that we'll only have
-         * HashSet of objects. Best thing would most likely to change the design a bit, but
-         * lack of time and we'll just assume that nobody will never ever change the code of
-         * storage in a way that it adds HashSet that are not containing objects. */
-        HashSet<Object> setDiff = (HashSet<Object>) sets.get(0).clone();
-
-        // Do the diff. Starts at one, otherwise we'll do set diff with itself..
-        for (int i = 1; i < keys.length; i++) {
-            setDiff.removeAll(sets.get(i));
+    /**
+     * Find the first bit set or cleared in a range of bytes of the bitmap stored at key.
+     * @param key The key holding the bitmap.
+     * @param bit The bit to look for, 0 or 1.
+     * @param start The first byte, negative to count from the end.
+     * @param end The last byte, included, negative to count from the end.
+     * @param bounded False to find a 0 right after the end of the bitmap if there is none in the range.
+     * @return The offset of the first bit found, -1 if there is none, null if key does not hold a bitmap.
+     * @throws IllegalArgumentException When bit is neither 0 nor 1.
+     */
+    private Long bitpos(String key, int bit, long start, long end, boolean bounded) throws IllegalArgumentException {
+        if (bit != 0 && bit != 1) {
+            throw new IllegalArgumentException("Invalid bit. The bit must be 0 or 1.");
         }
-
-        // Create the list of diff elements
-        ArrayList<Object> diffElements = new ArrayList<>();
-        for (Object o : setDiff) {
-            diffElements.add(o);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            Entry entry = lookup(key);
+            if (entry == null) {
+                return bit == 0 ? 0L : -1L;
+            }
+            if (entry.value.type != Value.Type.BITMAP) {
+                return null;
+            }
+            BitmapValue bitmap = (BitmapValue) entry.value;
+            int length = bitmap.length();
+            long res = bitmap.position(bit, Math.max(0, byteIndex(start, length)),
+                                       Math.min(length - 1, byteIndex(end, length)));
+            if (res < 0 && bit == 0 && !bounded) {
+                res = 8L * length;
+            }
+            return res;
+        } finally {
+            lock.unlock();
         }
-
-        return diffElements;
     }
 
     /**
-     * This command works exactly like SDIFF but instead of being returned the resulting set is stored in dstkey.
-     * @param keys The keys holding the sets.
-     * @return 1 if sdiff succeed, -1 if at least one key does not hold a set.
+     * Check the offset of a bit.
+     *
+     * @param offset The offset.
+     * @throws IllegalArgumentException When offset is not between 0 and BitmapValue.MAX_OFFSET.
      */
-    public synchronized int sdiffstore(String[] keys) {
-        // we don't want to do diff on the first key
-        String[] subKeys = new String[keys.length - 1];
-        System.arraycopy(keys, 1, subKeys, 0, keys.length - 1);
-
-        List<Object> diff = sdiff(subKeys);
-        // at least one key was not a set, we return an error
-        if (diff == null) {
-            return -1;
+    private static void checkOffset(long offset) throws IllegalArgumentException {
+        if (offset < 0 || offset > BitmapValue.MAX_OFFSET) {
+            throw new IllegalArgumentException("Invalid offset. The offset must be >= 0 and < 2^32.");
         }
+    }
 
-        HashSet<Object> diffSet = new HashSet<>();
-        diffSet.addAll(diff);
-        if (cache.containsKey(keys[0])) {
-            cache.replace(keys[0], diffSet);
-        } else {
-            cache.put(keys[0], diffSet);
+    /**
+     * Turn a possibly negative index of a byte into an index in a bitmap.
+     *
+     * @param index The index, negative to count from the end of the bitmap.
+     * @param length The length of the bitmap in bytes.
+     * @return The index, clamped between -1 and length.
+     */
+    private static int byteIndex(long index, int length) {
+        if (index < 0) {
+            index += length;
         }
-        return 1;
+        return (int) Math.max(-1, Math.min(index, length));
     }
-}
\ No newline at end of file
+}
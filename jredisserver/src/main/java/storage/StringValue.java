@@ -0,0 +1,64 @@
+package storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A string, or any other object stored as is by SET.
+ * <p>
+ *     Strings set through the binary-safe API are held as their raw bytes, one byte per character for ASCII instead
+ *     of the two of a String. Immutable: the bytes are never modified once stored, and copied when handed out.
+ * </p>
+ */
+class StringValue extends Value {
+    /**
+     * The string.
+     */
+    private final Object value;
+
+    /**
+     * Constructor.
+     *
+     * @param value The string, its bytes, or the object to hold as a string.
+     */
+    StringValue(Object value) {
+        super(Type.STRING);
+        this.value = value;
+    }
+
+    /**
+     * Get the string.
+     *
+     * @return The string, its bytes, or the object held as a string.
+     */
+    Object get() {
+        return value;
+    }
+
+    /**
+     * Get the bytes of the string.
+     *
+     * @return A copy of the bytes if the string was stored as bytes, its UTF-8 encoding otherwise.
+     */
+    byte[] getBytes() {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Object toObject() {
+        return value instanceof byte[] ? ((byte[]) value).clone() : value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Value copy() {
+        return this;
+    }
+}
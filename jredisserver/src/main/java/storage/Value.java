@@ -0,0 +1,96 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * A value stored at a key, tagged with its type.
+ * <p>
+ *     Commands check the tag and then cast to the matching subclass, instead of testing the value against every
+ *     Java class it could be. Each subclass hides how it holds its data, so that a type can switch to another
+ *     encoding (e.g a compact one for small lists) without any change outside of the storage.
+ *
+ *     Values never leave the storage: readers get a copy of the data through toObject().
+ * </p>
+ */
+abstract class Value {
+    /**
+     * The types of values.
+     */
+    enum Type {
+        STRING("string"), INTEGER("integer"), FLOAT("float"), LIST("list"), SET("set"), ZSET("zset"), HASH("hash"),
+        BITMAP("bitmap");
+
+        /**
+         * The name of the type, as returned by the TYPE command.
+         */
+        private final String name;
+
+        Type(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Get the name of the type.
+         *
+         * @return The name of the type, as returned by the TYPE command.
+         */
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The type of the value.
+     */
+    final Type type;
+
+    /**
+     * Constructor.
+     *
+     * @param type The type of the value.
+     */
+    Value(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Get the data of the value for a reader outside of the storage.
+     *
+     * @return An immutable object, or a copy of the data if it is mutable.
+     */
+    abstract Object toObject();
+
+    /**
+     * Get a copy of the value, that can be modified without affecting this one.
+     *
+     * @return The copy, or the value itself if it is immutable.
+     */
+    abstract Value copy();
+
+    /**
+     * Wrap an object given to the storage into a value of the matching type.
+     * <p>
+     *     Sets are adopted as is, not copied, and lists are copied into a QuickList. Bytes are copied and held as a
+     *     string, as well as objects of any other class.
+     * </p>
+     *
+     * @param o The object.
+     * @return The value holding the object.
+     */
+    @SuppressWarnings("unchecked")
+    static Value of(Object o) {
+        if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte) {
+            return new IntegerValue(((Number) o).longValue());
+        } else if (o instanceof Double || o instanceof Float) {
+            return new FloatValue(((Number) o).doubleValue());
+        } else if (o instanceof ArrayList) {
+            return new ListValue((ArrayList<Object>) o);
+        } else if (o instanceof HashSet) {
+            return new SetValue((HashSet<Object>) o);
+        } else if (o instanceof byte[]) {
+            return new StringValue(((byte[]) o).clone());
+        }
+        return new StringValue(o);
+    }
+}
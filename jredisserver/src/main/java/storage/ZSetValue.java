@@ -0,0 +1,210 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * A sorted set: members with a score, ordered by score.
+ * <p>
+ *     The score of each member is kept in a hash map, so that ZSCORE and the membership tests are O(1), and the
+ *     members are ordered in a SkipList, so that ranks and ranges, by rank or by score, are found in O(log n).
+ *
+ *     Not thread-safe, guarded by the lock of the key holding it.
+ * </p>
+ */
+final class ZSetValue extends Value {
+    /**
+     * The score of each member.
+     */
+    private final HashMap<Object, Double> scores;
+
+    /**
+     * The members, ordered by score.
+     */
+    private final SkipList list;
+
+    /**
+     * The estimated size of the members, see SizeEstimator.sizeOfZSetMember().
+     */
+    private long elementsWeight;
+
+    /**
+     * Constructor of an empty sorted set.
+     */
+    ZSetValue() {
+        super(Type.ZSET);
+        scores = new HashMap<>();
+        list = new SkipList();
+    }
+
+    /**
+     * Constructor of a copy.
+     *
+     * @param other The sorted set to copy.
+     */
+    private ZSetValue(ZSetValue other) {
+        super(Type.ZSET);
+        scores = new HashMap<>(other.scores);
+        list = new SkipList();
+        for (SkipList.Node n = other.list.first(); n != null; n = n.next()) {
+            list.insert(n.score, n.member);
+        }
+        elementsWeight = other.elementsWeight;
+    }
+
+    /**
+     * Get the estimated size of the members, on top of SizeEstimator.ZSET_VALUE.
+     *
+     * @return The size of the hash map and of the skip list, members included.
+     */
+    long weight() {
+        return SizeEstimator.ZSET_OVERHEAD + elementsWeight;
+    }
+
+    /**
+     * Get the number of members.
+     *
+     * @return The cardinality of the sorted set.
+     */
+    int size() {
+        return scores.size();
+    }
+
+    /**
+     * Get the score of a member.
+     *
+     * @param member The member.
+     * @return The score, null if member is not in the sorted set.
+     */
+    Double score(Object member) {
+        return scores.get(member);
+    }
+
+    /**
+     * Add a member, or change its score if it is already in the sorted set.
+     *
+     * @param score The score, not NaN.
+     * @param member The member.
+     * @return True if the member was added, false if it was already in the sorted set.
+     */
+    boolean add(double score, Object member) {
+        Double old = scores.put(member, score);
+        if (old == null) {
+            list.insert(score, member);
+            elementsWeight += SizeEstimator.sizeOfZSetMember(member);
+            return true;
+        }
+        if (old != score) {
+            list.update(old, member, score);
+        }
+        return false;
+    }
+
+    /**
+     * Remove a member.
+     *
+     * @param member The member.
+     * @return True if the member was removed, false if it was not in the sorted set.
+     */
+    boolean remove(Object member) {
+        Double score = scores.remove(member);
+        if (score == null) {
+            return false;
+        }
+        list.delete(score, member);
+        elementsWeight -= SizeEstimator.sizeOfZSetMember(member);
+        return true;
+    }
+
+    /**
+     * Get the rank of a member, in O(log n).
+     *
+     * @param member The member.
+     * @return The rank of the member, from 0 for the lowest score, -1 if it is not in the sorted set.
+     */
+    int rank(Object member) {
+        Double score = scores.get(member);
+        return score != null ? list.rank(score, member) : -1;
+    }
+
+    /**
+     * Get the members of a range of ranks, in O(log n + m) for m members.
+     *
+     * @param from The rank of the first member, from 0 for the lowest score.
+     * @param to The rank of the last member, inclusive, below size().
+     * @param withScores True to add the score of each member after it.
+     * @return The members, ordered by score, empty if from > to.
+     */
+    ArrayList<Object> range(int from, int to, boolean withScores) {
+        ArrayList<Object> res = new ArrayList<>(Math.max(0, to - from + 1) * (withScores ? 2 : 1));
+        SkipList.Node n = list.nodeAt(from);
+        for (int i = from; i <= to && n != null; i++) {
+            add(res, n, withScores);
+            n = n.next();
+        }
+        return res;
+    }
+
+    /**
+     * Get the members whose score is in a range, in O(log n + m) for m members: the first one is found by rank and
+     * the following ones walked in order.
+     *
+     * @param min The minimum score, inclusive.
+     * @param max The maximum score, inclusive.
+     * @param offset The number of members of the range to skip, >= 0.
+     * @param count The maximum number of members to return, < 0 to return all of them.
+     * @param withScores True to add the score of each member after it.
+     * @return The members, ordered by score.
+     */
+    ArrayList<Object> rangeByScore(double min, double max, int offset, int count, boolean withScores) {
+        ArrayList<Object> res = new ArrayList<>();
+        if (min > max) {
+            return res;
+        }
+        long first = (long) list.countBelow(min) + offset;
+        SkipList.Node n = first < size() ? list.nodeAt((int) first) : null;
+        for (int i = 0; n != null && n.score <= max && (count < 0 || i < count); i++) {
+            add(res, n, withScores);
+            n = n.next();
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     *     The members are mapped to their score, in the order of the sorted set.
+     * </p>
+     */
+    @Override
+    Object toObject() {
+        LinkedHashMap<Object, Double> res = new LinkedHashMap<>();
+        for (SkipList.Node n = list.first(); n != null; n = n.next()) {
+            res.put(n.member, n.score);
+        }
+        return res;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    ZSetValue copy() {
+        return new ZSetValue(this);
+    }
+
+    /**
+     * Add the member of a node to a reply, followed by its score if asked.
+     *
+     * @param res The reply.
+     * @param n The node.
+     * @param withScores True to add the score.
+     */
+    private static void add(ArrayList<Object> res, SkipList.Node n, boolean withScores) {
+        res.add(n.member);
+        if (withScores) {
+            res.add(n.score);
+        }
+    }
+}
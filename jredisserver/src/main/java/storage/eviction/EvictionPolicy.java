@@ -0,0 +1,73 @@
+package storage.eviction;
+
+/**
+ * Decides which keys a storage evicts when it goes over its maximum size or memory.
+ * <p>
+ *     The storage tells the policy about every key it adds, reads or removes, and asks it for a victim until it is
+ *     back under its bounds. All the methods can be called concurrently by the threads working on the storage.
+ *     onAccess() is called on every lookup, so it has to be cheap.
+ * </p>
+ */
+public interface EvictionPolicy {
+    /**
+     * Get the name of the policy, as given to forName().
+     *
+     * @return The name of the policy.
+     */
+    String getName();
+
+    /**
+     * A key has been added to the storage.
+     *
+     * @param node The node of the key.
+     */
+    void onInsert(Node node);
+
+    /**
+     * A key has been looked up.
+     *
+     * @param node The node of the key.
+     */
+    void onAccess(Node node);
+
+    /**
+     * A key has left the storage (removed, overwritten or evicted). Called once per node given to onInsert().
+     *
+     * @param node The node of the key.
+     */
+    void onRemove(Node node);
+
+    /**
+     * Choose the next key to evict.
+     * <p>
+     *     The node stays known to the policy until onRemove() is called for it.
+     * </p>
+     *
+     * @return The node of the key to evict, null if the policy does not know any key.
+     */
+    Node selectVictim();
+
+    /**
+     * Create a policy from its name.
+     *
+     * @param name One of "lru", "lfu", "w-tinylfu", "random" or "volatile-ttl" (case insensitive).
+     * @return A new instance of the policy.
+     * @throws IllegalArgumentException When the name is unknown.
+     */
+    static EvictionPolicy forName(String name) throws IllegalArgumentException {
+        switch (name.toLowerCase()) {
+            case LruPolicy.NAME:
+                return new LruPolicy();
+            case LfuPolicy.NAME:
+                return new LfuPolicy();
+            case TinyLfuPolicy.NAME:
+                return new TinyLfuPolicy();
+            case RandomPolicy.NAME:
+                return new RandomPolicy();
+            case VolatileTtlPolicy.NAME:
+                return new VolatileTtlPolicy();
+            default:
+                throw new IllegalArgumentException("Unknown eviction policy \"" + name + "\".");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package storage.eviction;
+
+/**
+ * Estimates how often keys have been seen recently, in a fixed amount of memory (a count-min sketch).
+ * <p>
+ *     Each key is counted in 4 counters of 4 bits, picked by 4 different hashes, and its estimate is the smallest of
+ *     them (collisions can only make a counter bigger). 16 counters are packed per long. When the number of
+ *     increments reaches 10 times the expected number of keys, all the counters are halved so that the sketch forgets
+ *     about old popularity (aging).
+ *
+ *     Not thread-safe, guarded by the monitor of TinyLfuPolicy.
+ * </p>
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    /**
+     * The counters, 16 per long.
+     */
+    private long[] table;
+
+    /**
+     * Number of increments after which the counters are halved.
+     */
+    private int sampleSize;
+
+    /**
+     * Number of increments since the last aging.
+     */
+    private int additions;
+
+    /**
+     * Constructor.
+     */
+    FrequencySketch() {
+        ensureCapacity(16);
+    }
+
+    /**
+     * Resize the sketch for the given number of keys. Resizing forgets everything counted so far.
+     *
+     * @param expectedKeys The number of keys the sketch should be able to tell apart.
+     */
+    void ensureCapacity(long expectedKeys) {
+        int capacity = (int) Math.min(Math.max(expectedKeys, 16L), 1 << 28);
+        if (table != null && table.length >= capacity) {
+            return;
+        }
+        table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        sampleSize = 10 * capacity;
+        additions = 0;
+    }
+
+    /**
+     * Estimate how many times a key has been seen, up to 15.
+     *
+     * @param key The key.
+     * @return The estimated frequency of the key.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Count one more occurrence of a key.
+     *
+     * @param key The key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Increment a counter if it is not saturated.
+     *
+     * @param i The index of the long holding the counter.
+     * @param j The index of the counter in the long, from 0 to 15.
+     * @return True if the counter has been incremented.
+     */
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        if ((table[i] & mask) != mask) {
+            table[i] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halve all the counters.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    /**
+     * Get the index of the long holding the i-th counter of a key.
+     *
+     * @param hash The spread hash of the key.
+     * @param i The index of the hash function, from 0 to 3.
+     * @return The index in the table.
+     */
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & (table.length - 1);
+    }
+
+    /**
+     * Spread the bits of a hash code, which are often of poor quality in the low bits.
+     *
+     * @param x The hash code.
+     * @return The spread hash.
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,161 @@
+package storage.eviction;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Approximated LFU with decaying counters: evicts the least frequently accessed key of a sample.
+ * <p>
+ *     Works like Redis' LFU. Each key has an 8 bits logarithmic counter: an access increments it with a probability
+ *     that gets lower as the counter grows, so that 255 stands for about a million accesses. The counter of a new key
+ *     starts at INIT_COUNTER so that it is not evicted right away, and loses one for every decay period during which
+ *     the key has not been accessed, so that keys popular a long time ago eventually leave.
+ *
+ *     Ties are broken by recency.
+ * </p>
+ */
+public class LfuPolicy extends SampledEvictionPolicy {
+    /**
+     * The name of the policy.
+     */
+    public static final String NAME = "lfu";
+
+    /**
+     * Counter of a new key.
+     */
+    public static final int INIT_COUNTER = 5;
+
+    /**
+     * Maximum value of a counter.
+     */
+    public static final int MAX_COUNTER = 255;
+
+    /**
+     * The higher, the slower the counters grow. Same default as Redis' lfu-log-factor.
+     */
+    public static final int LOG_FACTOR = 10;
+
+    /**
+     * Default decay period: one minute, same as Redis' lfu-decay-time.
+     */
+    public static final long DEFAULT_DECAY_PERIOD = 60_000L;
+
+    /**
+     * Time in milliseconds after which an idle key loses one from its counter, 0 to never decay.
+     */
+    private final long decayPeriod;
+
+    /**
+     * Constructor, comparing DEFAULT_SAMPLES keys and decaying every DEFAULT_DECAY_PERIOD.
+     */
+    public LfuPolicy() {
+        this(DEFAULT_SAMPLES, DEFAULT_DECAY_PERIOD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param samples The number of keys compared to choose a victim.
+     * @param decayPeriod Time in milliseconds after which an idle key loses one from its counter, 0 to never decay.
+     * @throws IllegalArgumentException When samples is <= 0 or decayPeriod is < 0.
+     */
+    public LfuPolicy(int samples, long decayPeriod) throws IllegalArgumentException {
+        super(samples);
+        if (decayPeriod < 0L) {
+            throw new IllegalArgumentException("Invalid decay period. The decay period must be >= 0.");
+        }
+        this.decayPeriod = decayPeriod;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInsert(Node node) {
+        node.counter = INIT_COUNTER;
+        node.lastDecay = now();
+        super.onInsert(node);
+    }
+
+    /**
+     * Decay then increment the counter of the key. Concurrent accesses to the same key may lose an increment, which
+     * does not matter for an estimate.
+     *
+     * @param node The node of the key.
+     */
+    @Override
+    public void onAccess(Node node) {
+        super.onAccess(node);
+        long now = now();
+        node.counter = increment(decayed(node, now));
+        node.lastDecay = now;
+    }
+
+    /**
+     * Get the current frequency estimate of a key.
+     *
+     * @param node The node of the key.
+     * @return The counter of the key, after decay.
+     */
+    public int frequency(Node node) {
+        return decayed(node, now());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean evictsBefore(Node a, Node b) {
+        long now = now();
+        int ca = decayed(a, now);
+        int cb = decayed(b, now);
+        return ca != cb ? ca < cb : a.lastAccess < b.lastAccess;
+    }
+
+    /**
+     * Compute the counter of a key once decayed, without storing it.
+     *
+     * @param node The node of the key.
+     * @param now The current time in milliseconds.
+     * @return The decayed counter.
+     */
+    private int decayed(Node node, long now) {
+        int counter = node.counter;
+        if (decayPeriod == 0L) {
+            return counter;
+        }
+        long periods = (now - node.lastDecay) / decayPeriod;
+        return periods >= counter ? 0 : counter - (int) periods;
+    }
+
+    /**
+     * Logarithmically increment a counter.
+     *
+     * @param counter The counter.
+     * @return The new value of the counter.
+     */
+    private int increment(int counter) {
+        if (counter >= MAX_COUNTER) {
+            return MAX_COUNTER;
+        }
+        double base = Math.max(0, counter - INIT_COUNTER);
+        double p = 1.0 / (base * LOG_FACTOR + 1);
+        return ThreadLocalRandom.current().nextDouble() < p ? counter + 1 : counter;
+    }
+
+    /**
+     * Get the current time for the decay.
+     *
+     * @return The current time in milliseconds.
+     */
+    private long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+}
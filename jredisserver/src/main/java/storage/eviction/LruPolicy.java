@@ -0,0 +1,44 @@
+package storage.eviction;
+
+/**
+ * Approximated LRU: evicts the least recently accessed key of a sample.
+ */
+public class LruPolicy extends SampledEvictionPolicy {
+    /**
+     * The name of the policy.
+     */
+    public static final String NAME = "lru";
+
+    /**
+     * Constructor, comparing DEFAULT_SAMPLES keys to choose a victim.
+     */
+    public LruPolicy() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param samples The number of keys compared to choose a victim.
+     * @throws IllegalArgumentException When samples is <= 0.
+     */
+    public LruPolicy(int samples) throws IllegalArgumentException {
+        super(samples);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean evictsBefore(Node a, Node b) {
+        return a.lastAccess < b.lastAccess;
+    }
+}
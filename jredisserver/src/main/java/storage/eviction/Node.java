@@ -0,0 +1,92 @@
+package storage.eviction;
+
+/**
+ * A key as seen by the eviction policies, along with the bookkeeping they need.
+ * <p>
+ *     Every policy keeps its own data in the node of the key instead of in a separate map, so that looking a key up
+ *     in the storage is enough to find it. Not all the fields are used by every policy.
+ * </p>
+ */
+public class Node {
+    /**
+     * The key.
+     */
+    private final String key;
+
+    /**
+     * The expiration time of the key in milliseconds since the epoch, 0 if the key does not expire.
+     */
+    private volatile long expiresAt;
+
+    /**
+     * Position of the node in the sampling array of the policy, -1 when the policy does not know the node.
+     * Guarded by the policy.
+     */
+    int index = -1;
+
+    /**
+     * Last time the key was accessed, from System.nanoTime().
+     */
+    volatile long lastAccess;
+
+    /**
+     * Logarithmic access counter (LFU).
+     */
+    volatile int counter;
+
+    /**
+     * Last time the counter was decremented, in milliseconds (LFU).
+     */
+    volatile long lastDecay;
+
+    /**
+     * Neighbours in the admission window, and whether the node is in the window (W-TinyLFU). Guarded by the policy.
+     */
+    Node prev;
+    Node next;
+    boolean inWindow;
+
+    /**
+     * Neighbours in the slot of the timing wheel, and the index of that slot, -1 when the node is not scheduled to
+     * expire. Guarded by the wheel.
+     */
+    Node wheelPrev;
+    Node wheelNext;
+    int wheelSlot = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param key The key.
+     */
+    public Node(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Get the key.
+     *
+     * @return The key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the expiration time of the key.
+     *
+     * @return The expiration time in milliseconds since the epoch, 0 if the key does not expire.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Set the expiration time of the key.
+     *
+     * @param expiresAt The expiration time in milliseconds since the epoch, 0 if the key does not expire.
+     */
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
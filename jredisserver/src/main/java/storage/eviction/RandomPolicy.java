@@ -0,0 +1,42 @@
+package storage.eviction;
+
+/**
+ * Evicts a key picked at random. The cheapest policy, for workloads without any locality.
+ */
+public class RandomPolicy extends SampledEvictionPolicy {
+    /**
+     * The name of the policy.
+     */
+    public static final String NAME = "random";
+
+    /**
+     * Constructor.
+     */
+    public RandomPolicy() {
+        super(1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Nothing to record.
+     *
+     * @param node The node of the key.
+     */
+    @Override
+    public void onAccess(Node node) {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean evictsBefore(Node a, Node b) {
+        return false;
+    }
+}
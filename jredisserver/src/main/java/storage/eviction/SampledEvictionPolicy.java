@@ -0,0 +1,173 @@
+package storage.eviction;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Base of the policies choosing their victim among a few keys picked at random, the way Redis approximates LRU and
+ * LFU.
+ * <p>
+ *     Keeping the keys exactly ordered (e.g a linked list in access order) would mean taking a lock on every read.
+ *     Instead the policy only records the last access of a key (or its frequency) in its node, and when a victim is
+ *     needed it compares a sample of the keys and evicts the worst one. With 5 samples the result is already close to
+ *     a true LRU, and more samples make it closer at the cost of a slower eviction.
+ *
+ *     The keys are kept in an array so that they can be sampled in O(1). Adding and removing a key are O(1) too (the
+ *     last key takes the place of the removed one), under the monitor of the policy.
+ * </p>
+ */
+public abstract class SampledEvictionPolicy implements EvictionPolicy {
+    /**
+     * Number of keys compared to choose a victim, same default as Redis' maxmemory-samples.
+     */
+    public static final int DEFAULT_SAMPLES = 5;
+
+    /**
+     * Number of keys compared to choose a victim.
+     */
+    private final int samples;
+
+    /**
+     * The known keys, nodes[i].index being i. Only the first size cells are used.
+     */
+    private Node[] nodes;
+
+    /**
+     * Number of known keys.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param samples The number of keys compared to choose a victim.
+     * @throws IllegalArgumentException When samples is <= 0.
+     */
+    protected SampledEvictionPolicy(int samples) throws IllegalArgumentException {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Invalid number of samples. The number of samples must be >= 1.");
+        }
+        this.samples = samples;
+        nodes = new Node[16];
+    }
+
+    /**
+     * Get the number of keys compared to choose a victim.
+     *
+     * @return The number of samples.
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Get the number of keys known by the policy.
+     *
+     * @return The number of keys.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onInsert(Node node) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        node.index = size;
+        nodes[size++] = node;
+        node.lastAccess = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAccess(Node node) {
+        node.lastAccess = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onRemove(Node node) {
+        int i = node.index;
+        if (i < 0) {
+            return;
+        }
+        Node last = nodes[--size];
+        nodes[i] = last;
+        last.index = i;
+        nodes[size] = null;
+        node.index = -1;
+        if (nodes.length > 16 && size < nodes.length / 4) {
+            nodes = Arrays.copyOf(nodes, nodes.length / 2);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Node selectVictim() {
+        return sample(n -> true);
+    }
+
+    /**
+     * Compare a sample of the keys accepted by the filter and return the best victim among them.
+     * <p>
+     *     When there are no more keys than samples, all of them are compared, so small storages get an exact result.
+     * </p>
+     *
+     * @param eligible The filter of the keys that can be evicted.
+     * @return The best victim of the sample, null if no key was eligible.
+     */
+    protected synchronized Node sample(Predicate<Node> eligible) {
+        Node victim = null;
+        if (size <= samples) {
+            for (int i = 0; i < size; i++) {
+                victim = better(victim, nodes[i], eligible);
+            }
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // a few more draws than samples, in case some keys are not eligible
+            for (int i = 0, found = 0; i < 4 * samples && found < samples; i++) {
+                Node n = nodes[random.nextInt(size)];
+                if (eligible.test(n)) {
+                    victim = better(victim, n, eligible);
+                    found++;
+                }
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Return the better victim of the two nodes.
+     *
+     * @param victim The best victim so far, may be null.
+     * @param n The node to compare to.
+     * @param eligible The filter of the keys that can be evicted.
+     * @return n if it is eligible and should be evicted before victim, victim otherwise.
+     */
+    private Node better(Node victim, Node n, Predicate<Node> eligible) {
+        if (!eligible.test(n)) {
+            return victim;
+        }
+        return victim == null || evictsBefore(n, victim) ? n : victim;
+    }
+
+    /**
+     * Tell whether a key should be evicted before another one.
+     *
+     * @param a The node of the first key.
+     * @param b The node of the second key.
+     * @return True if a should be evicted before b.
+     */
+    protected abstract boolean evictsBefore(Node a, Node b);
+}
@@ -0,0 +1,269 @@
+package storage.eviction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedules the expiration of keys in a hierarchical timing wheel, so that finding the expired keys never means
+ * scanning the keys that are not.
+ * <p>
+ *     Time is cut into ticks. The wheel has LEVELS levels of SLOTS slots each: a slot of level 0 holds the keys
+ *     expiring during one tick, a slot of level 1 the keys expiring during SLOTS ticks, and so on, so that 6 levels
+ *     of 64 slots reach more than 20 years ahead with 10ms ticks. When the wheel enters a new block of a level, the
+ *     keys of the matching slot are spread into the lower levels (cascade). Scheduling and cancelling are O(1), the
+ *     slots being intrusive doubly-linked lists of nodes.
+ *
+ *     advance() does at most a given number of steps (moving a node, expiring a node or entering a new tick), so a
+ *     caller can bound the time spent expiring keys even when millions of them expire at once. The wheel then lags
+ *     behind the clock and catches up on the next calls. Runs of ticks where the lower levels are empty are skipped
+ *     in one step.
+ *
+ *     Thread-safe, guarded by the monitor of the wheel.
+ * </p>
+ */
+public class TimingWheel {
+    /**
+     * Default duration of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK = 10L;
+
+    /**
+     * Number of levels, and number of slots per level (a power of 2).
+     */
+    static final int LEVELS = 6;
+    static final int BITS = 6;
+    static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    /**
+     * Duration of a tick in milliseconds.
+     */
+    private final long tick;
+
+    /**
+     * First node of every slot, level by level.
+     */
+    private final Node[] heads = new Node[LEVELS * SLOTS];
+
+    /**
+     * The tick being processed. Every node expiring before it has already been returned by advance().
+     */
+    private long currentTick;
+
+    /**
+     * Highest level whose slot still has to be cascaded before the slot of currentTick can be processed, 0 if none.
+     */
+    private int cascadeLevel;
+
+    /**
+     * Number of scheduled nodes, in total and per level.
+     */
+    private int size;
+    private final int[] counts = new int[LEVELS];
+
+    /**
+     * Constructor.
+     *
+     * @param tick The duration of a tick in milliseconds.
+     * @param now The current time in milliseconds since the epoch.
+     * @throws IllegalArgumentException When tick is <= 0.
+     */
+    public TimingWheel(long tick, long now) throws IllegalArgumentException {
+        if (tick <= 0L) {
+            throw new IllegalArgumentException("Invalid tick. The tick of the wheel must be >= 1.");
+        }
+        this.tick = tick;
+        currentTick = now / tick;
+    }
+
+    /**
+     * Get the duration of a tick.
+     *
+     * @return The duration of a tick in milliseconds.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Get the number of scheduled nodes.
+     *
+     * @return The number of nodes waiting to expire.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a node to expire at its expiration time, replacing its previous schedule if any. A node without
+     * expiration time is cancelled.
+     *
+     * @param node The node.
+     */
+    public synchronized void schedule(Node node) {
+        if (node.wheelSlot >= 0) {
+            unlink(node);
+        }
+        if (node.getExpiresAt() != 0L) {
+            link(node, slotOf(ticksOf(node.getExpiresAt())));
+        }
+    }
+
+    /**
+     * Stop tracking a node. Does nothing if the node is not scheduled.
+     *
+     * @param node The node.
+     */
+    public synchronized void cancel(Node node) {
+        if (node.wheelSlot >= 0) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Move the wheel forward up to now, and return the nodes that expired on the way.
+     * <p>
+     *     The returned nodes are not scheduled anymore. At most maxSteps steps are done, so the wheel may not reach
+     *     now: the next calls carry on from where this one stopped.
+     * </p>
+     *
+     * @param now The current time in milliseconds since the epoch.
+     * @param maxSteps The maximum number of steps to do.
+     * @return The expired nodes, at most maxSteps of them.
+     */
+    public synchronized List<Node> advance(long now, int maxSteps) {
+        List<Node> expired = new ArrayList<>();
+        long nowTick = now / tick;
+        int steps = 0;
+        if (size == 0 && cascadeLevel == 0 && currentTick < nowTick) {
+            currentTick = nowTick;
+        }
+        while (steps < maxSteps) {
+            if (cascadeLevel > 0) {
+                Node n = heads[slotIndex(cascadeLevel, currentTick >>> (BITS * cascadeLevel))];
+                if (n == null) {
+                    cascadeLevel--;
+                } else {
+                    unlink(n);
+                    link(n, slotOf(ticksOf(n.getExpiresAt())));
+                    steps++;
+                }
+                continue;
+            }
+            Node n = heads[slotIndex(0, currentTick)];
+            if (n != null) {
+                unlink(n);
+                if (n.getExpiresAt() <= now) {
+                    expired.add(n);
+                } else {
+                    // the clock went backwards, try again on the next tick
+                    link(n, slotOf(currentTick + 1));
+                }
+                steps++;
+                continue;
+            }
+            if (currentTick >= nowTick) {
+                break;
+            }
+            // nothing can happen before the next block of the lowest non-empty level
+            long next = currentTick + 1;
+            for (int level = 0; level < LEVELS - 1 && counts[level] == 0; level++) {
+                next = ((currentTick >>> (BITS * (level + 1))) + 1) << (BITS * (level + 1));
+            }
+            currentTick = Math.min(next, nowTick);
+            steps++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0L) {
+                    cascadeLevel = level;
+                    break;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Convert an expiration time to the tick at the end of which it is reached.
+     *
+     * @param expiresAt The expiration time in milliseconds since the epoch.
+     * @return The tick.
+     */
+    private long ticksOf(long expiresAt) {
+        return expiresAt / tick + (expiresAt % tick == 0L ? 0L : 1L);
+    }
+
+    /**
+     * Find the slot of a node expiring at the given tick.
+     * <p>
+     *     The node goes to the lowest level where its block is less than SLOTS blocks ahead of the current one, so
+     *     that it is never put back into the slot being cascaded. Nodes already late go to the current slot, nodes
+     *     beyond the reach of the wheel to the farthest slot of the top level, from where they are placed again.
+     * </p>
+     *
+     * @param t The tick.
+     * @return The index of the slot in heads.
+     */
+    private int slotOf(long t) {
+        if (t - currentTick < SLOTS) {
+            return slotIndex(0, Math.max(t, currentTick));
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            long block = t >>> (BITS * level);
+            if (block - (currentTick >>> (BITS * level)) < SLOTS) {
+                return slotIndex(level, block);
+            }
+        }
+        return slotIndex(LEVELS - 1, (currentTick >>> (BITS * (LEVELS - 1))) + SLOTS - 1);
+    }
+
+    /**
+     * Get the index in heads of a slot.
+     *
+     * @param level The level.
+     * @param block The block of the level, its slot being block modulo SLOTS.
+     * @return The index of the slot in heads.
+     */
+    private static int slotIndex(int level, long block) {
+        return level * SLOTS + (int) (block & MASK);
+    }
+
+    /**
+     * Add a node at the head of a slot.
+     *
+     * @param node The node.
+     * @param slot The index of the slot.
+     */
+    private void link(Node node, int slot) {
+        Node head = heads[slot];
+        node.wheelPrev = null;
+        node.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = node;
+        }
+        heads[slot] = node;
+        node.wheelSlot = slot;
+        counts[slot / SLOTS]++;
+        size++;
+    }
+
+    /**
+     * Remove a node from its slot.
+     *
+     * @param node The node.
+     */
+    private void unlink(Node node) {
+        if (node.wheelPrev != null) {
+            node.wheelPrev.wheelNext = node.wheelNext;
+        } else {
+            heads[node.wheelSlot] = node.wheelNext;
+        }
+        if (node.wheelNext != null) {
+            node.wheelNext.wheelPrev = node.wheelPrev;
+        }
+        counts[node.wheelSlot / SLOTS]--;
+        node.wheelPrev = null;
+        node.wheelNext = null;
+        node.wheelSlot = -1;
+        size--;
+    }
+}
@@ -0,0 +1,277 @@
+package storage.eviction;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * W-TinyLFU: a small LRU admission window in front of a main region, a key entering the main region only if it is
+ * more frequent than the key it would evict.
+ * <p>
+ *     New keys go into the window, which holds about 1% of the keys. When the window overflows its oldest key moves
+ *     to the main region and becomes the candidate. When a victim is needed, a frequency sketch decides between the
+ *     candidate and a key sampled from the main region: the less frequent one is evicted. This keeps one-hit wonders
+ *     and scans from flushing the keys that are really popular, while the window still gives a chance to keys with
+ *     bursts of recent accesses. Keys leaving the window while no eviction is needed are admitted for free.
+ *
+ *     The window is an exact LRU list, the main region is a sampled LRU like LruPolicy. onAccess() does not take the
+ *     monitor of the policy: it only records the node in a read buffer, striped by thread, and the sketch and the
+ *     window are updated from the buffer under the monitor, before any other operation or once a stripe is full. The
+ *     buffer is only walked when an access has been recorded since it was last drained, so that the writes do not pay
+ *     for it when there are no reads. It is lossy, a stripe wrapping around before it is drained overwrites its oldest accesses, which only makes
+ *     the frequencies a bit lower under heavy contention.
+ * </p>
+ */
+public class TinyLfuPolicy extends SampledEvictionPolicy {
+    /**
+     * The name of the policy.
+     */
+    public static final String NAME = "w-tinylfu";
+
+    /**
+     * Percentage of the keys kept in the admission window.
+     */
+    public static final int WINDOW_PERCENT = 1;
+
+    /**
+     * Number of stripes of the read buffer, a power of two.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * Number of accesses held by a stripe of the read buffer, a power of two.
+     */
+    private static final int STRIPE_SIZE = 32;
+
+    /**
+     * The frequency of the keys seen recently.
+     */
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    /**
+     * Most and least recently used keys of the window.
+     */
+    private Node head;
+    private Node tail;
+
+    /**
+     * Number of keys in the window.
+     */
+    private int windowSize;
+
+    /**
+     * The last key that left the window, until it has been compared to a victim of the main region. May be null.
+     */
+    private Node candidate;
+
+    /**
+     * The accesses not yet applied to the sketch and the window, STRIPE_SIZE per stripe. Null when a slot is empty.
+     */
+    private final AtomicReferenceArray<Node> reads = new AtomicReferenceArray<>(STRIPES * STRIPE_SIZE);
+
+    /**
+     * Number of accesses recorded in each stripe, the next slot being this number modulo STRIPE_SIZE.
+     */
+    private final AtomicIntegerArray writes = new AtomicIntegerArray(STRIPES);
+
+    /**
+     * True while a thread drains the read buffer because a stripe is full, so that the others do not wait for it.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * True when an access may have been recorded since the read buffer was last drained. Only written by onAccess()
+     * when it is false, so that the readers do not all write the same field.
+     */
+    private volatile boolean pendingReads;
+
+    /**
+     * Constructor, comparing DEFAULT_SAMPLES keys of the main region.
+     */
+    public TinyLfuPolicy() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param samples The number of keys of the main region compared to choose a victim.
+     * @throws IllegalArgumentException When samples is <= 0.
+     */
+    public TinyLfuPolicy(int samples) throws IllegalArgumentException {
+        super(samples);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Get the number of keys in the admission window.
+     *
+     * @return The number of keys in the window.
+     */
+    public synchronized int getWindowSize() {
+        drainReads();
+        return windowSize;
+    }
+
+    /**
+     * Estimate how many times a key has been seen recently.
+     *
+     * @param node The node of the key.
+     * @return The estimated frequency, up to 15.
+     */
+    public synchronized int frequency(Node node) {
+        drainReads();
+        return sketch.frequency(node.getKey());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onInsert(Node node) {
+        drainReads();
+        super.onInsert(node);
+        sketch.ensureCapacity(size());
+        sketch.increment(node.getKey());
+        linkFirst(node);
+        if (windowSize > Math.max(1, size() * WINDOW_PERCENT / 100)) {
+            candidate = tail;
+            unlink(candidate);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAccess(Node node) {
+        super.onAccess(node);
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        int n = writes.getAndIncrement(stripe) & (STRIPE_SIZE - 1);
+        // a volatile write, so that either drainReads() sees the node or this thread sees pendingReads cleared
+        reads.set(stripe * STRIPE_SIZE + n, node);
+        if (!pendingReads) {
+            pendingReads = true;
+        }
+        if (n == STRIPE_SIZE - 1 && draining.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    drainReads();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onRemove(Node node) {
+        drainReads();
+        if (node.inWindow) {
+            unlink(node);
+        }
+        if (node == candidate) {
+            candidate = null;
+        }
+        super.onRemove(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Node selectVictim() {
+        drainReads();
+        if (candidate != null) {
+            Node c = candidate;
+            candidate = null;
+            Node victim = sample(n -> !n.inWindow && n != c);
+            if (victim == null) {
+                return c;
+            }
+            return sketch.frequency(c.getKey()) > sketch.frequency(victim.getKey()) ? victim : c;
+        }
+        Node victim = sample(n -> !n.inWindow);
+        return victim != null ? victim : tail;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean evictsBefore(Node a, Node b) {
+        return a.lastAccess < b.lastAccess;
+    }
+
+    /**
+     * Apply the accesses of the read buffer to the sketch and the window, skipping the nodes removed since. Called
+     * with the monitor held. Returns at once when no access has been recorded since the last call.
+     */
+    private void drainReads() {
+        if (!pendingReads) {
+            return;
+        }
+        pendingReads = false;
+        for (int i = 0; i < reads.length(); i++) {
+            Node node = reads.get(i);
+            if (node == null || !reads.compareAndSet(i, node, null) || node.index < 0) {
+                continue;
+            }
+            sketch.increment(node.getKey());
+            if (node.inWindow) {
+                unlink(node);
+                linkFirst(node);
+            }
+        }
+    }
+
+    /**
+     * Add a node at the head of the window.
+     *
+     * @param node The node.
+     */
+    private void linkFirst(Node node) {
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        } else {
+            tail = node;
+        }
+        head = node;
+        node.inWindow = true;
+        windowSize++;
+    }
+
+    /**
+     * Remove a node from the window.
+     *
+     * @param node The node.
+     */
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.inWindow = false;
+        windowSize--;
+    }
+}
@@ -0,0 +1,56 @@
+package storage.eviction;
+
+/**
+ * Evicts the keys closest to their expiration first, among a sample.
+ * <p>
+ *     Keys with an expiration are always evicted before keys without one. When the sample does not contain any key
+ *     with an expiration, the least recently accessed key of the sample is evicted, so that the storage can still go
+ *     back under its bounds (Redis would refuse the write instead).
+ * </p>
+ */
+public class VolatileTtlPolicy extends SampledEvictionPolicy {
+    /**
+     * The name of the policy.
+     */
+    public static final String NAME = "volatile-ttl";
+
+    /**
+     * Constructor, comparing DEFAULT_SAMPLES keys to choose a victim.
+     */
+    public VolatileTtlPolicy() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param samples The number of keys compared to choose a victim.
+     * @throws IllegalArgumentException When samples is <= 0.
+     */
+    public VolatileTtlPolicy(int samples) throws IllegalArgumentException {
+        super(samples);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean evictsBefore(Node a, Node b) {
+        long ea = a.getExpiresAt();
+        long eb = b.getExpiresAt();
+        if (ea != 0L && eb != 0L) {
+            return ea < eb;
+        } else if (ea != 0L || eb != 0L) {
+            return ea != 0L;
+        }
+        return a.lastAccess < b.lastAccess;
+    }
+}
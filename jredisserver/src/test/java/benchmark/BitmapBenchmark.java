@@ -0,0 +1,118 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Flags the users active each day of a week, then prints the heap a day takes as a set of ids and as a bitmap, and
+ * the time it takes to count the active users and to find the users active every day.
+ * <p>
+ *     The ids of the set are decimal strings, the way the clients send them. The heap is measured after a full
+ *     collection, so run it alone on an otherwise idle JVM. BITOP splits bitmaps of more than
+ *     BitmapValue.PARALLEL_THRESHOLD words across the common ForkJoinPool: run it again with
+ *     -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 to compare with a single thread.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.BitmapBenchmark
+ *     [users] [active ratio]
+ * </p>
+ */
+public class BitmapBenchmark {
+    private static final int DAYS = 7;
+    private static final int RUNS = 7;
+    private static final int WARM_UP_RUNS = 2;
+
+    public static void main(String[] args) {
+        int nbUsers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        double ratio = args.length > 1 ? Double.parseDouble(args[1]) : 0.3;
+
+        Random random = new Random(42);
+        int[][] active = new int[DAYS][];
+        for (int d = 0; d < DAYS; d++) {
+            active[d] = random.ints(0, nbUsers).distinct().limit((long) (nbUsers * ratio)).sorted().toArray();
+        }
+
+        System.out.printf("%d users, %d active a day%n", nbUsers, active[0].length);
+        System.out.printf("%-12s%24s%n", "type", "heap (bytes/active user)");
+        Storage indexedSets = new Storage(Long.MAX_VALUE);
+        indexedSets.setIntSetMaxEntries(0);
+        long heap = fill(indexedSets, active[0], false);
+        System.out.printf("%-12s%24.2f%n", "indexedset", (double) heap / active[0].length);
+        indexedSets = null;
+        Storage sets = new Storage(Long.MAX_VALUE);
+        heap = fill(sets, active[0], false);
+        System.out.printf("%-12s%24.2f%n", "set", (double) heap / active[0].length);
+        Storage s = new Storage(Long.MAX_VALUE);
+        heap = fill(s, active[0], true);
+        System.out.printf("%-12s%24.2f%n", "bitmap", (double) heap / active[0].length);
+        if (sets.scard("day0") != s.bitcount("day0")) {
+            throw new IllegalStateException();
+        }
+
+        String[] keys = new String[DAYS + 1];
+        keys[0] = "week";
+        for (int d = 1; d < DAYS; d++) {
+            for (int id : active[d]) {
+                s.setbit("day" + d, id, 1);
+            }
+        }
+        for (int d = 0; d < DAYS; d++) {
+            keys[d + 1] = "day" + d;
+        }
+        System.out.printf("%-28s%10.3f ms%n", "BITCOUNT day0", measure(() -> s.bitcount("day0")));
+        System.out.printf("%-28s%10.3f ms%n", "BITPOS day0 0", measure(() -> s.bitpos("day0", 0)));
+        System.out.printf("%-28s%10.3f ms%n", "BITOP AND week (7 days)", measure(() -> s.bitop("AND", keys)));
+        System.out.printf("%-28s%10.3f ms%n", "BITOP OR week (7 days)", measure(() -> s.bitop("OR", keys)));
+        s.bitop("AND", keys);
+        System.out.printf("active every day: %d%n", s.bitcount("week"));
+    }
+
+    /**
+     * Flag the users active on the first day, and measure the heap it takes.
+     *
+     * @param s The storage.
+     * @param ids The ids of the active users.
+     * @param bitmap True to set their bits in a bitmap, false to add them to a set.
+     * @return The heap taken by the flags, in bytes.
+     */
+    private static long fill(Storage s, int[] ids, boolean bitmap) {
+        long before = usedHeap();
+        for (int id : ids) {
+            if (bitmap) {
+                s.setbit("day0", id, 1);
+            } else {
+                s.sadd("day0", Integer.toString(id));
+            }
+        }
+        return usedHeap() - before;
+    }
+
+    /**
+     * Run an operation RUNS times.
+     *
+     * @param op The operation.
+     * @return The median time of a run after the warm-up, in milliseconds.
+     */
+    private static double measure(Runnable op) {
+        long[] times = new long[RUNS - WARM_UP_RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            op.run();
+            if (i >= WARM_UP_RUNS) {
+                times[i - WARM_UP_RUNS] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2] / 1e6;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import server.Server;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands elements from a producer to a consumer through a list, and prints the latency between each push and the pop
+ * returning the element.
+ * <p>
+ *     Compares a consumer polling with RPOP and sleeping for POLL_INTERVAL when the list is empty, the way the workers
+ *     used to wait, to a consumer blocked on BRPOP. The producer pushes an element at random intervals.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.BlockingPopLatencyBenchmark
+ *     [elements]
+ * </p>
+ */
+public class BlockingPopLatencyBenchmark {
+    private static final String KEY = "queue";
+
+    private static final long POLL_INTERVAL = 10L;
+
+    public static void main(String[] args) throws Exception {
+        int nbElements = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        System.out.printf("%-10s%16s%16s%16s%n", "consumer", "p50 (us)", "p99 (us)", "max (us)");
+        Server server = new Server();
+        measure("rpop+sleep", server, nbElements, () -> {
+            while (server.rpop(KEY) == null) {
+                try {
+                    Thread.sleep(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        measure("brpop", server, nbElements, () -> server.brpop(new String[]{KEY}, 0L));
+    }
+
+    /**
+     * Push elements one at a time and print the latency percentiles of the consumer.
+     *
+     * @param name The name of the consumer.
+     * @param server The server.
+     * @param nbElements The number of elements to hand over.
+     * @param pop Returns once the consumer has popped an element.
+     */
+    private static void measure(String name, Server server, int nbElements, Runnable pop) throws Exception {
+        AtomicLong poppedAt = new AtomicLong();
+        Thread consumer = new Thread(() -> {
+            for (int i = 0; i < nbElements; i++) {
+                pop.run();
+                poppedAt.set(System.nanoTime());
+            }
+        });
+        consumer.start();
+        long[] latencies = new long[nbElements];
+        Random random = new Random(42L);
+        for (int i = 0; i < nbElements; i++) {
+            // leaves the consumer time to find the list empty and wait
+            Thread.sleep(1L + random.nextInt((int) POLL_INTERVAL));
+            poppedAt.set(0L);
+            long pushedAt = System.nanoTime();
+            server.lpush(KEY, "element" + i);
+            while (poppedAt.get() == 0L) {
+                Thread.yield();
+            }
+            latencies[i] = poppedAt.get() - pushedAt;
+        }
+        consumer.join();
+        Arrays.sort(latencies);
+        System.out.printf("%-10s%16.1f%16.1f%16.1f%n", name, latencies[nbElements / 2] / 1e3,
+                          latencies[nbElements * 99 / 100] / 1e3, latencies[nbElements - 1] / 1e3);
+    }
+}
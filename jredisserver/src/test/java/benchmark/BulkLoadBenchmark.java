@@ -0,0 +1,84 @@
+package benchmark;
+
+import server.RedisLikeServer;
+import server.Server;
+
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Arrays;
+
+/**
+ * Loads members into a set and values into a list through RMI, and prints the time it takes.
+ * <p>
+ *     Compares one SADD / RPUSH per member, a round trip and a lock acquisition each, to a single SADD / RPUSH of the
+ *     whole batch. The server is exported on a loopback port, so the calls pay for the serialization and the network
+ *     stack as a remote client would. Each load is repeated a few times, the first ones as warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.BulkLoadBenchmark [members]
+ * </p>
+ */
+public class BulkLoadBenchmark {
+    private static final int RUNS = 10;
+    private static final int WARM_UP_RUNS = 5;
+
+    /**
+     * Loads the members into a new key, one at a time or as a batch.
+     */
+    private interface Load {
+        void run(String key, Object[] members) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nbMembers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Object[] members = new Object[nbMembers];
+        for (int i = 0; i < nbMembers; i++) {
+            members[i] = "member" + i;
+        }
+
+        Server server = new Server();
+        server.setMaxMemory(Long.MAX_VALUE);
+        RedisLikeServer remote = (RedisLikeServer) UnicastRemoteObject.exportObject(server, 0);
+
+        Load saddOne = (key, m) -> {
+            for (Object member : m) {
+                remote.sadd(key, member);
+            }
+        };
+        Load saddBatch = (key, m) -> remote.sadd(key, m);
+        Load rpushOne = (key, m) -> {
+            for (Object member : m) {
+                remote.rpush(key, member);
+            }
+        };
+        Load rpushBatch = (key, m) -> remote.rpush(key, m);
+
+        System.out.printf("%-10s%20s%20s%n", "command", "one by one (ms)", "batch (ms)");
+        System.out.printf("%-10s%20.1f%20.1f%n", "sadd", measure("saddOne", saddOne, members),
+                          measure("saddBatch", saddBatch, members));
+        System.out.printf("%-10s%20.1f%20.1f%n", "rpush", measure("rpushOne", rpushOne, members),
+                          measure("rpushBatch", rpushBatch, members));
+
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+
+    /**
+     * Load the members into a new key RUNS times.
+     *
+     * @param name The prefix of the keys, one per run.
+     * @param load Loads the members.
+     * @param members The members.
+     * @return The median time of a load after the warm-up, in milliseconds.
+     */
+    private static double measure(String name, Load load, Object[] members) throws Exception {
+        long[] times = new long[RUNS - WARM_UP_RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            load.run(name + i, members);
+            if (i >= WARM_UP_RUNS) {
+                times[i - WARM_UP_RUNS] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2] / 1e6;
+    }
+}
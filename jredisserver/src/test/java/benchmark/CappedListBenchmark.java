@@ -0,0 +1,69 @@
+package benchmark;
+
+import server.Server;
+
+/**
+ * Keeps the last N events of a stream in a list, and prints the throughput for a few lengths.
+ * <p>
+ *     Compares an RPUSH followed by an LTRIM keeping the N first elements, the way the capped lists used to be kept,
+ *     to a capped RPUSH with MAXLEN N, which overwrites the oldest event of a ring in place. Each measure runs for a
+ *     second after a second of warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.CappedListBenchmark [lengths...]
+ * </p>
+ */
+public class CappedListBenchmark {
+    private static final String TRIMMED = "trimmed";
+    private static final String CAPPED = "capped";
+
+    private static final long DURATION = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        int[] lengths = {100, 10_000};
+        if (args.length > 0) {
+            lengths = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                lengths[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-12s%20s%20s%n", "length", "rpush+ltrim (ops/s)", "capped (ops/s)");
+        for (int length : lengths) {
+            Server server = new Server();
+            server.setMaxMemory(Long.MAX_VALUE);
+            for (int i = 0; i < length; i++) {
+                server.rpush(TRIMMED, "event" + i);
+                server.rpush(CAPPED, "event" + i, length);
+            }
+            Runnable trimmed = () -> {
+                server.rpush(TRIMMED, "event");
+                server.ltrim(TRIMMED, 0, length - 1);
+            };
+            Runnable capped = () -> server.rpush(CAPPED, "event", length);
+            measure(trimmed);
+            measure(capped);
+            System.out.printf("%-12d%20.0f%20.0f%n", length, measure(trimmed), measure(capped));
+        }
+    }
+
+    /**
+     * Push events repeatedly for DURATION.
+     *
+     * @param push Pushes one event and keeps the list at its length.
+     * @return The number of events per second.
+     */
+    private static double measure(Runnable push) {
+        long ops = 0L;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 16; i++) {
+                push.run();
+            }
+            ops += 16;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION);
+        return ops * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import server.Server;
+import storage.Storage;
+import storage.exceptions.DuplicatedKeyException;
+import storage.exceptions.NonExistentKeyException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hammers a single counter from many threads and prints the throughput and the number of lost increments.
+ * <p>
+ *     Compares the atomic INCR of the storage, on a single storage and on a sharded one, to the get-then-set sequence
+ *     the server used to do, which loses increments when two clients read the same value.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.CounterContentionBenchmark
+ *     [threads] [increments per thread]
+ * </p>
+ */
+public class CounterContentionBenchmark {
+    private static final String KEY = "counter";
+
+    public static void main(String[] args) throws InterruptedException {
+        int nbThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int increments = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%d threads, %d increments each%n", nbThreads, increments);
+        System.out.printf("%-16s%16s%16s%n", "mode", "ops/s", "lost");
+
+        Storage racy = new Storage();
+        run("get-then-set", nbThreads, increments, k -> getThenSet(racy, k), () -> (long) get(racy));
+
+        Server single = new Server();
+        run("incr", nbThreads, increments, single::incr, () -> ((Number) single.get(KEY)).longValue());
+
+        Server sharded = new Server();
+        sharded.setNbShards(4);
+        run("incr, 4 shards", nbThreads, increments, sharded::incr, () -> ((Number) sharded.get(KEY)).longValue());
+    }
+
+    /**
+     * Run the increments from all the threads at once, and print the results.
+     *
+     * @param mode The name of the mode.
+     * @param nbThreads The number of threads.
+     * @param increments The number of increments per thread.
+     * @param incr The increment of the key.
+     * @param value Read the final value of the key.
+     */
+    private static void run(String mode, int nbThreads, int increments, Consumer<String> incr,
+                            LongSupplier value) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[nbThreads];
+        for (int i = 0; i < nbThreads; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < increments; j++) {
+                    incr.accept(KEY);
+                }
+            });
+            threads[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = (long) nbThreads * increments;
+        System.out.printf("%-16s%16.0f%16d%n", mode, total * 1e9 / elapsed, total - value.getAsLong());
+    }
+
+    /**
+     * Increment a key the way the server used to: two separately locked operations.
+     */
+    private static void getThenSet(Storage s, String key) {
+        int value = get(s) + 1;
+        try {
+            s.store(key, value);
+        } catch (DuplicatedKeyException e) {
+            s.replace(key, value);
+        }
+    }
+
+    private static int get(Storage s) {
+        try {
+            Object o = s.get(KEY);
+            return o instanceof Integer ? (Integer) o : 0;
+        } catch (NonExistentKeyException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import storage.Storage;
+import storage.eviction.EvictionPolicy;
+import storage.exceptions.DuplicatedKeyException;
+import storage.exceptions.NonExistentKeyException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Replays access traces against a storage with each eviction policy and prints the hit ratios.
+ * <p>
+ *     Every access is a GET, followed by a SET when the key is missing, the way a cache in front of a database is
+ *     used. The storage is bounded by number of keys so that the policies are compared on the same capacity.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar benchmark.EvictionTraceBenchmark [capacity] [trace files]
+ *     A trace file holds one key per line.
+ * </p>
+ */
+public class EvictionTraceBenchmark {
+    private static final String[] POLICIES = {"lru", "lfu", "w-tinylfu", "random", "volatile-ttl"};
+    private static final int NB_KEYS = 100_000;
+    private static final int NB_ACCESSES = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        Map<String, List<String>> traces = new LinkedHashMap<>();
+        traces.put("zipf-0.99", zipf(0.99, new Random(42)));
+        traces.put("zipf-0.8", zipf(0.8, new Random(42)));
+        traces.put("zipf+scans", withScans(zipf(0.99, new Random(42)), capacity));
+        traces.put("loop", loop(capacity + capacity / 2));
+        for (int i = 1; i < args.length; i++) {
+            traces.put(Paths.get(args[i]).getFileName().toString(), Files.readAllLines(Paths.get(args[i])));
+        }
+
+        System.out.printf("capacity: %d keys%n", capacity);
+        System.out.printf("%-16s", "trace");
+        for (String policy : POLICIES) {
+            System.out.printf("%14s", policy);
+        }
+        System.out.println();
+        for (Map.Entry<String, List<String>> trace : traces.entrySet()) {
+            System.out.printf("%-16s", trace.getKey());
+            for (String policy : POLICIES) {
+                System.out.printf("%13.2f%%", 100.0 * replay(trace.getValue(), capacity, policy));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Replay a trace, once to warm the storage up and once to measure.
+     *
+     * @param trace The keys accessed, in order.
+     * @param capacity The maximum number of keys in the storage.
+     * @param policy The name of the eviction policy.
+     * @return The hit ratio of the second replay.
+     */
+    private static double replay(List<String> trace, int capacity, String policy) {
+        Storage s = new Storage(capacity, EvictionPolicy.forName(policy));
+        access(s, trace);
+        long hits = s.getHits();
+        long misses = s.getMisses();
+        access(s, trace);
+        hits = s.getHits() - hits;
+        misses = s.getMisses() - misses;
+        return (double) hits / (hits + misses);
+    }
+
+    private static void access(Storage s, List<String> trace) {
+        for (String key : trace) {
+            try {
+                s.get(key);
+            } catch (NonExistentKeyException e) {
+                try {
+                    s.store(key, key);
+                } catch (DuplicatedKeyException ignored) {
+                    // cannot happen, the benchmark is single-threaded
+                }
+            }
+        }
+    }
+
+    /**
+     * Keys drawn from a Zipf distribution: the key of rank k is accessed with a probability proportional to 1 / k^s.
+     */
+    private static List<String> zipf(double s, Random random) {
+        double[] cumulative = new double[NB_KEYS];
+        double sum = 0;
+        for (int k = 0; k < NB_KEYS; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cumulative[k] = sum;
+        }
+        List<String> trace = new ArrayList<>(NB_ACCESSES);
+        for (int i = 0; i < NB_ACCESSES; i++) {
+            int k = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace.add("key" + (k >= 0 ? k : -k - 1));
+        }
+        return trace;
+    }
+
+    /**
+     * A trace with, every 10 capacities, a scan of twice the capacity in keys never seen again.
+     */
+    private static List<String> withScans(List<String> base, int capacity) {
+        List<String> trace = new ArrayList<>(base.size() * 2);
+        int scan = 0;
+        for (int i = 0; i < base.size(); i++) {
+            trace.add(base.get(i));
+            if (i % (10 * capacity) == 0) {
+                for (int j = 0; j < 2 * capacity; j++) {
+                    trace.add("scan" + scan++);
+                }
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Keys accessed in a loop a bit bigger than the storage, the worst case of LRU.
+     */
+    private static List<String> loop(int length) {
+        List<String> trace = new ArrayList<>(NB_ACCESSES);
+        for (int i = 0; i < NB_ACCESSES; i++) {
+            trace.add("key" + (i % length));
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import storage.Storage;
+import storage.exceptions.DuplicatedKeyException;
+
+/**
+ * Stores many small objects and prints the keys and the heap they take, with one key per attribute and with one hash
+ * per object, packed or not.
+ * <p>
+ *     The objects are users with a few string attributes, like "user:42:name" = "name42" before hashes. The heap is
+ *     measured after a full collection, so run it alone on an otherwise idle JVM. The estimate of the storage
+ *     (used_memory) is printed next to it.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.HashFootprintBenchmark
+ *     [objects]
+ * </p>
+ */
+public class HashFootprintBenchmark {
+    private static final String[] FIELDS = {"name", "email", "city", "age", "visits"};
+
+    public static void main(String[] args) throws DuplicatedKeyException {
+        int nbObjects = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        System.out.printf("%d objects of %d fields%n", nbObjects, FIELDS.length);
+        System.out.printf("%-12s%10s%26s%26s%n", "mode", "keys", "heap (bytes/object)", "estimate (bytes/object)");
+        run("keys", nbObjects);
+        run("indexedmap", nbObjects);
+        run("packed", nbObjects);
+    }
+
+    /**
+     * Fill a storage, and print the heap it takes.
+     *
+     * @param mode "keys" for one key per attribute, "indexedmap" for hashes never packed, "packed" for hashes packed
+     *             with the default limit.
+     * @param nbObjects The number of objects.
+     */
+    private static void run(String mode, int nbObjects) throws DuplicatedKeyException {
+        long before = usedHeap();
+        Storage s = new Storage(Long.MAX_VALUE);
+        if (mode.equals("indexedmap")) {
+            s.setHashPackMaxEntries(0);
+        }
+        int keys = 0;
+        for (int i = 0; i < nbObjects; i++) {
+            String key = "user:" + i;
+            if (mode.equals("keys")) {
+                for (String field : FIELDS) {
+                    s.store(key + ":" + field, field + i);
+                    keys++;
+                }
+            } else {
+                Object[] values = new Object[FIELDS.length];
+                for (int j = 0; j < FIELDS.length; j++) {
+                    values[j] = FIELDS[j] + i;
+                }
+                s.hset(key, FIELDS, values);
+                keys++;
+            }
+        }
+        long heap = usedHeap() - before;
+        System.out.printf("%-12s%10d%26.1f%26.1f%n", mode, keys, (double) heap / nbObjects,
+                          (double) s.getUsedMemory() / nbObjects);
+        if (!mode.equals("keys") && s.hlen("user:0") != FIELDS.length) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
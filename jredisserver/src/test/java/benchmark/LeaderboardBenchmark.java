@@ -0,0 +1,96 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fills a leaderboard of players with random scores, then prints the time it takes to get the top 10 and the rank of
+ * a player, from a list sorted by the caller and from a sorted set.
+ * <p>
+ *     The list holds "score:player" elements, like the leaderboards kept before sorted sets: the top 10 needs the
+ *     whole list, sorted, and the rank of a player a scan of it. The sorted set answers both from its skip list, with
+ *     ZRANGE -10 -1 and ZRANK.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.LeaderboardBenchmark
+ *     [players...]
+ * </p>
+ */
+public class LeaderboardBenchmark {
+    private static final int RUNS = 7;
+    private static final int WARM_UP_RUNS = 2;
+
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-10s%-8s%14s%14s%n", "players", "type", "top 10 (ms)", "rank (ms)");
+        for (int size : sizes) {
+            Storage s = new Storage(Long.MAX_VALUE);
+            Random random = new Random(42);
+            Object[] elements = new Object[size];
+            double[] scores = new double[size];
+            Object[] players = new Object[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = random.nextInt(1_000_000);
+                players[i] = "player" + i;
+                elements[i] = (long) scores[i] + ":" + players[i];
+            }
+            s.rPush("list", elements);
+            s.zadd("zset", scores, players);
+            String player = "player" + (size / 2);
+
+            System.out.printf("%-10d%-8s%14.3f%14.3f%n", size, "list",
+                              measure(() -> sortedList(s, size).subList(size - 10, size)),
+                              measure(() -> sortedList(s, size).indexOf(elements[size / 2])));
+            System.out.printf("%-10d%-8s%14.3f%14.3f%n", size, "zset",
+                              measure(() -> s.zrange("zset", -10, -1, true)),
+                              measure(() -> s.zrank("zset", player)));
+        }
+    }
+
+    /**
+     * Get the whole list and sort it by score, like a caller keeping its leaderboard in a list.
+     *
+     * @param s The storage.
+     * @param size The length of the list.
+     * @return The elements, ordered by score.
+     */
+    private static ArrayList<Object> sortedList(Storage s, int size) {
+        ArrayList<Object> elements = s.lrange("list", 0, size - 1);
+        elements.sort((a, b) -> Long.compare(score(a), score(b)));
+        return elements;
+    }
+
+    private static long score(Object element) {
+        String e = element.toString();
+        return Long.parseLong(e.substring(0, e.indexOf(':')));
+    }
+
+    /**
+     * Run an operation RUNS times.
+     *
+     * @param op The operation.
+     * @return The median time of a run after the warm-up, in milliseconds.
+     */
+    private static double measure(Runnable op) {
+        long[] times = new long[RUNS - WARM_UP_RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            op.run();
+            if (i >= WARM_UP_RUNS) {
+                times[i - WARM_UP_RUNS] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2] / 1e6;
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import server.Server;
+
+import java.util.ArrayList;
+
+/**
+ * Uses a list as a queue, LPUSH at one end and RPOP at the other, and prints the throughput for a few lengths.
+ * <p>
+ *     Compares the lists of the server, backed by a QuickList, to an ArrayList used the way the lists used to be,
+ *     which shifts every element on each pop. Each measure runs for a second after a second of warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.ListBenchmark [lengths...]
+ * </p>
+ */
+public class ListBenchmark {
+    private static final String KEY = "queue";
+
+    private static final long DURATION = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        int[] lengths = {10, 10_000, 1_000_000};
+        if (args.length > 0) {
+            lengths = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                lengths[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-12s%20s%20s%n", "length", "arraylist (ops/s)", "quicklist (ops/s)");
+        for (int length : lengths) {
+            ArrayList<Object> list = new ArrayList<>();
+            Server server = new Server();
+            server.setMaxMemory(Long.MAX_VALUE);
+            for (int i = 0; i < length; i++) {
+                list.add("element" + i);
+                server.lpush(KEY, "element" + i);
+            }
+            Runnable arrayList = () -> {
+                list.add("element");
+                list.remove(0);
+            };
+            Runnable quickList = () -> {
+                server.lpush(KEY, "element");
+                server.rpop(KEY);
+            };
+            measure(arrayList);
+            measure(quickList);
+            System.out.printf("%-12d%20.0f%20.0f%n", length, measure(arrayList), measure(quickList));
+        }
+    }
+
+    /**
+     * Run an LPUSH and an RPOP repeatedly for DURATION.
+     *
+     * @param pushPop The LPUSH followed by the RPOP.
+     * @return The number of pairs per second.
+     */
+    private static double measure(Runnable pushPop) {
+        long ops = 0L;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 16; i++) {
+                pushPop.run();
+            }
+            ops += 16;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION);
+        return ops * 1e9 / elapsed;
+    }
+}
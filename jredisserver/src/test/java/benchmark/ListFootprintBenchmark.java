@@ -0,0 +1,63 @@
+package benchmark;
+
+import storage.Storage;
+
+/**
+ * Fills a storage with many small lists and prints the heap they take per element, with and without packing them.
+ * <p>
+ *     The heap is measured after a full collection, so run it alone on an otherwise idle JVM. The estimate of the
+ *     storage (used_memory) is printed next to it.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.ListFootprintBenchmark
+ *     [lists] [elements per list]
+ * </p>
+ */
+public class ListFootprintBenchmark {
+    public static void main(String[] args) {
+        int nbLists = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int nbElements = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        System.out.printf("%d lists of %d elements%n", nbLists, nbElements);
+        System.out.printf("%-12s%26s%26s%n", "mode", "heap (bytes/element)", "estimate (bytes/element)");
+        run("quicklist", false, nbLists, nbElements);
+        run("listpack", true, nbLists, nbElements);
+    }
+
+    /**
+     * Fill a storage, and print the heap it takes.
+     *
+     * @param mode The name of the mode.
+     * @param packed True to pack the lists with the default limits, false never to pack them.
+     * @param nbLists The number of lists.
+     * @param nbElements The number of elements of each list.
+     */
+    private static void run(String mode, boolean packed, int nbLists, int nbElements) {
+        long before = usedHeap();
+        Storage s = new Storage(Long.MAX_VALUE);
+        if (!packed) {
+            s.setListPackLimits(0, 0);
+        }
+        for (int i = 0; i < nbLists; i++) {
+            String key = "list" + i;
+            for (int j = 0; j < nbElements; j++) {
+                // half short strings, half small integers, like a list of ids and names
+                s.lPush(key, j % 2 == 0 ? "element" + j : j * 1000);
+            }
+        }
+        long heap = usedHeap() - before;
+        long total = (long) nbLists * nbElements;
+        System.out.printf("%-12s%26.1f%26.1f%n", mode, (double) heap / total, (double) s.getUsedMemory() / total);
+        if (s.llen("list0") != nbElements) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
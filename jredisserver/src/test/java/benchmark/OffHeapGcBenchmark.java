@@ -0,0 +1,85 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Fills a storage with big strings, then keeps overwriting them, and prints the time spent in garbage collection and
+ * the heap used at the end.
+ * <p>
+ *     Compares strings kept on the heap to strings kept in the off-heap slabs (see Storage.setMaxOffHeap()). Run it
+ *     with a heap just big enough for the on-heap mode to see the difference, e.g -Xmx1g.
+ *
+ *     Not run by the build. Usage:
+ *     java -Xmx1g -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.OffHeapGcBenchmark
+ *     [keys] [value size] [overwrites]
+ * </p>
+ */
+public class OffHeapGcBenchmark {
+    public static void main(String[] args) {
+        int nbKeys = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int valueSize = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int overwrites = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        long total = (long) nbKeys * valueSize;
+
+        System.out.printf("%d keys of %d bytes, %d overwrites%n", nbKeys, valueSize, overwrites);
+        System.out.printf("%-10s%12s%12s%16s%16s%n", "mode", "ops/s", "gc count", "gc time (ms)", "heap (mb)");
+
+        run("heap", new Storage(2L * total), nbKeys, valueSize, overwrites);
+        Storage offHeap = new Storage(2L * total);
+        offHeap.setMaxOffHeap(2L * total);
+        run("off-heap", offHeap, nbKeys, valueSize, overwrites);
+    }
+
+    /**
+     * Fill the storage, overwrite random keys, and print the results.
+     *
+     * @param mode The name of the mode.
+     * @param s The storage.
+     * @param nbKeys The number of keys.
+     * @param valueSize The size of the values.
+     * @param overwrites The number of overwrites after the storage is filled.
+     */
+    private static void run(String mode, Storage s, int nbKeys, int valueSize, int overwrites) {
+        Random random = new Random(42L);
+        byte[] value = new byte[valueSize];
+        random.nextBytes(value);
+        System.gc();
+        long gcCount = -gcCount();
+        long gcTime = -gcTime();
+        long begin = System.nanoTime();
+        for (int i = 0; i < nbKeys; i++) {
+            s.set("key" + i, value);
+        }
+        for (int i = 0; i < overwrites; i++) {
+            s.set("key" + random.nextInt(nbKeys), value);
+        }
+        long elapsed = System.nanoTime() - begin;
+        gcCount += gcCount();
+        gcTime += gcTime();
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        long heap = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("%-10s%12.0f%12d%16d%16d%n", mode, (nbKeys + overwrites) * 1e9 / elapsed, gcCount,
+                          gcTime, heap / (1024L * 1024L));
+    }
+
+    private static long gcCount() {
+        long count = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0L, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
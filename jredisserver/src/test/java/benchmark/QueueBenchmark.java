@@ -0,0 +1,83 @@
+package benchmark;
+
+import server.RedisLikeServer;
+import server.Server;
+
+import java.rmi.server.UnicastRemoteObject;
+
+/**
+ * Moves items of a work queue from a "pending" list to a "processing" list through RMI, and prints the throughput.
+ * <p>
+ *     Compares an RPOP followed by an LPUSH, two round trips during which a crash loses the item, to a single atomic
+ *     RPOPLPUSH. The server is exported on a loopback port, so the calls pay for the serialization and the network
+ *     stack as a remote client would. Each measure runs for a second after a second of warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.QueueBenchmark [items]
+ * </p>
+ */
+public class QueueBenchmark {
+    private static final String PENDING = "pending";
+    private static final String PROCESSING = "processing";
+
+    private static final long DURATION = 1_000_000_000L;
+
+    /**
+     * Moves one item, returns false once the source list is empty.
+     */
+    private interface Move {
+        boolean run(String src, String dst) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nbItems = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        Server server = new Server();
+        server.setMaxMemory(Long.MAX_VALUE);
+        RedisLikeServer remote = (RedisLikeServer) UnicastRemoteObject.exportObject(server, 0);
+        for (int i = 0; i < nbItems; i++) {
+            server.lpush(PENDING, "item" + i);
+        }
+
+        Move popPush = (src, dst) -> {
+            Object item = remote.rpop(src);
+            return item != null && remote.lpush(dst, item);
+        };
+        Move rpoplpush = (src, dst) -> remote.rpoplpush(src, dst) != null;
+
+        System.out.printf("%-12s%20s%n", "move", "items/s");
+        measure(remote, popPush);
+        System.out.printf("%-12s%20.0f%n", "rpop+lpush", measure(remote, popPush));
+        measure(remote, rpoplpush);
+        System.out.printf("%-12s%20.0f%n", "rpoplpush", measure(remote, rpoplpush));
+
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+
+    /**
+     * Move the items back and forth between both lists for DURATION.
+     *
+     * @param remote The stub of the server.
+     * @param move Moves one item.
+     * @return The number of items moved per second.
+     */
+    private static double measure(RedisLikeServer remote, Move move) throws Exception {
+        long items = 0L;
+        String src = PENDING;
+        String dst = PROCESSING;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            if (move.run(src, dst)) {
+                items++;
+            } else {
+                // all the items have been moved, move them back
+                String tmp = src;
+                src = dst;
+                dst = tmp;
+            }
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION);
+        return items * 1e9 / elapsed;
+    }
+}
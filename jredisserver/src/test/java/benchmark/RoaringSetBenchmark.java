@@ -0,0 +1,108 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fills two large sets of user ids, then prints the heap they take and the time SINTER, SUNIONSTORE and SDIFFSTORE
+ * take on them, with and without keeping them in RoaringSets.
+ * <p>
+ *     The ids are drawn at random among 4 times as many ids as members, like two audience segments of a large user
+ *     base: dense enough for the bitmaps to pay off, too sparse for runs. The IndexedSets are only filled up to
+ *     MAX_INDEXED members, above which they don't fit in a few gigabytes of heap. The heap is measured after a full
+ *     collection, so run it alone on an otherwise idle JVM, with a large heap (-Xmx4g for 50M members). The union and
+ *     the difference are stored rather than returned, not to time the list of tens of millions of members replied.
+ *
+ *     Not run by the build. Usage:
+ *     java -Xmx4g -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.RoaringSetBenchmark
+ *     [cardinalities...]
+ * </p>
+ */
+public class RoaringSetBenchmark {
+    private static final int RUNS = 5;
+    private static final int WARM_UP_RUNS = 2;
+
+    private static final int MAX_INDEXED = 1_000_000;
+    private static final int BATCH = 1_000_000;
+
+    private static final String[] KEYS = {"key", "key2"};
+    private static final String[] STORE_KEYS = {"dest", "key", "key2"};
+
+    public static void main(String[] args) {
+        int[] cardinalities = {1_000_000, 10_000_000, 50_000_000};
+        if (args.length > 0) {
+            cardinalities = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                cardinalities[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-12s%-12s%22s%14s%14s%14s%n", "cardinality", "mode", "heap (bytes/member)",
+                          "sinter (ms)", "sunionstore", "sdiffstore");
+        for (int cardinality : cardinalities) {
+            if (cardinality <= MAX_INDEXED) {
+                run("indexedset", false, cardinality);
+            }
+            run("bitmap", true, cardinality);
+        }
+    }
+
+    /**
+     * Fill a storage with two sets, and print the heap they take and the time of the operations on them.
+     *
+     * @param mode The name of the mode.
+     * @param bitmaps True to keep the sets in RoaringSets, false never to.
+     * @param cardinality The number of ids drawn for each set.
+     */
+    private static void run(String mode, boolean bitmaps, int cardinality) {
+        long before = usedHeap();
+        Storage s = new Storage(Long.MAX_VALUE);
+        if (!bitmaps) {
+            s.setIntSetMaxEntries(0);
+        }
+        Random random = new Random(42);
+        for (String key : KEYS) {
+            for (int done = 0; done < cardinality; done += BATCH) {
+                Object[] batch = new Object[Math.min(BATCH, cardinality - done)];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = random.nextInt(4 * cardinality);
+                }
+                s.sadd(key, batch);
+            }
+        }
+        long heap = usedHeap() - before;
+        long total = (long) s.scard(KEYS[0]) + s.scard(KEYS[1]);
+        System.out.printf("%-12d%-12s%22.1f%14.1f%14.1f%14.1f%n", cardinality, mode, (double) heap / total,
+                          measure(() -> s.sinter(KEYS)), measure(() -> s.sunionstore(STORE_KEYS)),
+                          measure(() -> s.sdiffstore(STORE_KEYS)));
+    }
+
+    /**
+     * Run an operation RUNS times.
+     *
+     * @param op The operation.
+     * @return The median time of a run after the warm-up, in milliseconds.
+     */
+    private static double measure(Runnable op) {
+        long[] times = new long[RUNS - WARM_UP_RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            op.run();
+            if (i >= WARM_UP_RUNS) {
+                times[i - WARM_UP_RUNS] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2] / 1e6;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import storage.Storage;
+
+/**
+ * Fills a storage with many small sets of integers and prints the heap they take per member, with and without
+ * keeping them in IntSets.
+ * <p>
+ *     The members are the decimal strings of ids, the way the clients send them. The heap is measured after a full
+ *     collection, so run it alone on an otherwise idle JVM. The estimate of the storage (used_memory) is printed next
+ *     to it.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.SetFootprintBenchmark
+ *     [sets] [members per set]
+ * </p>
+ */
+public class SetFootprintBenchmark {
+    public static void main(String[] args) {
+        int nbSets = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int nbMembers = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        System.out.printf("%d sets of %d members%n", nbSets, nbMembers);
+        System.out.printf("%-12s%26s%26s%n", "mode", "heap (bytes/member)", "estimate (bytes/member)");
+        run("indexedset", false, nbSets, nbMembers);
+        run("intset", true, nbSets, nbMembers);
+    }
+
+    /**
+     * Fill a storage, and print the heap it takes.
+     *
+     * @param mode The name of the mode.
+     * @param intSets True to keep the sets in IntSets with the default limit, false never to.
+     * @param nbSets The number of sets.
+     * @param nbMembers The number of members of each set.
+     */
+    private static void run(String mode, boolean intSets, int nbSets, int nbMembers) {
+        long before = usedHeap();
+        Storage s = new Storage(Long.MAX_VALUE);
+        if (!intSets) {
+            s.setIntSetMaxEntries(0);
+        }
+        for (int i = 0; i < nbSets; i++) {
+            String key = "set" + i;
+            for (int j = 0; j < nbMembers; j++) {
+                // ids spread over a few millions, like the ids of users following a topic
+                s.sadd(key, Integer.toString((i * 7919 + j * 104_729) % 5_000_000));
+            }
+        }
+        long heap = usedHeap() - before;
+        long total = (long) nbSets * nbMembers;
+        System.out.printf("%-12s%26.1f%26.1f%n", mode, (double) heap / total, (double) s.getUsedMemory() / total);
+        if (s.scard("set0") != nbMembers) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.HashSet;
+
+/**
+ * Intersects a large set with sets of a few cardinalities, and prints the throughput.
+ * <p>
+ *     Compares SINTER, which probes the larger sets with the smallest one (in parallel from 32k members), to the way
+ *     it used to intersect: copying the first set given, here the large one, and calling retainAll with the others.
+ *     Each measure runs for a second after a second of warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.SetInterBenchmark
+ *     [large cardinality] [small cardinalities...]
+ * </p>
+ */
+public class SetInterBenchmark {
+    private static final String LARGE = "large";
+    private static final String SMALL = "small";
+
+    private static final long DURATION = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        int large = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] smalls = {10, 1_000, 100_000, large};
+        if (args.length > 1) {
+            smalls = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                smalls[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Object[] members = new Object[large];
+        HashSet<Object> largeSet = new HashSet<>();
+        for (int i = 0; i < large; i++) {
+            members[i] = "member" + i;
+            largeSet.add(members[i]);
+        }
+
+        System.out.printf("large set of %d members%n", large);
+        System.out.printf("%-12s%20s%20s%n", "small", "copy+retain (ops/s)", "sinter (ops/s)");
+        for (int small : smalls) {
+            Storage s = new Storage(Long.MAX_VALUE);
+            s.sadd(LARGE, members);
+            HashSet<Object> smallSet = new HashSet<>();
+            // every other member is in the large set
+            Object[] smallMembers = new Object[small];
+            for (int i = 0; i < small; i++) {
+                smallMembers[i] = i % 2 == 0 ? members[i] : "other" + i;
+                smallSet.add(smallMembers[i]);
+            }
+            s.sadd(SMALL, smallMembers);
+            String[] keys = {LARGE, SMALL};
+            Runnable retain = () -> {
+                HashSet<Object> inter = new HashSet<>(largeSet);
+                inter.retainAll(smallSet);
+            };
+            Runnable sinter = () -> s.sinter(keys);
+            measure(retain);
+            measure(sinter);
+            System.out.printf("%-12d%20.1f%20.1f%n", small, measure(retain), measure(sinter));
+        }
+    }
+
+    /**
+     * Run an intersection repeatedly for DURATION.
+     *
+     * @param inter The intersection.
+     * @return The number of intersections per second.
+     */
+    private static double measure(Runnable inter) {
+        long ops = 0L;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            inter.run();
+            ops++;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION);
+        return ops * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import server.Server;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Pops a random member of a set and adds it back, and prints the throughput for a few cardinalities.
+ * <p>
+ *     Compares the sets of the server, backed by an IndexedSet, to a HashSet picked the way SPOP used to pick, by
+ *     walking its iterator up to a random index. Each measure runs for a second after a second of warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.SetPopBenchmark [cardinalities...]
+ * </p>
+ */
+public class SetPopBenchmark {
+    private static final String KEY = "set";
+
+    private static final long DURATION = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        int[] cardinalities = {10, 10_000, 1_000_000};
+        if (args.length > 0) {
+            cardinalities = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                cardinalities[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-12s%20s%20s%n", "cardinality", "hashset (ops/s)", "indexedset (ops/s)");
+        for (int cardinality : cardinalities) {
+            HashSet<Object> set = new HashSet<>();
+            Server server = new Server();
+            server.setMaxMemory(Long.MAX_VALUE);
+            Object[] members = new Object[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                members[i] = "member" + i;
+                set.add(members[i]);
+            }
+            server.sadd(KEY, members);
+            Random random = new Random();
+            Runnable hashSet = () -> {
+                Object member = null;
+                int index = random.nextInt(set.size());
+                Iterator<Object> it = set.iterator();
+                for (int i = 0; i <= index; i++) {
+                    member = it.next();
+                }
+                set.remove(member);
+                set.add(member);
+            };
+            Runnable indexedSet = () -> server.sadd(KEY, server.spop(KEY));
+            measure(hashSet);
+            measure(indexedSet);
+            System.out.printf("%-12d%20.0f%20.0f%n", cardinality, measure(hashSet), measure(indexedSet));
+        }
+    }
+
+    /**
+     * Run an SPOP and an SADD repeatedly for DURATION.
+     *
+     * @param popAdd The SPOP followed by the SADD.
+     * @return The number of pairs per second.
+     */
+    private static double measure(Runnable popAdd) {
+        long ops = 0L;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 16; i++) {
+                popAdd.run();
+            }
+            ops += 16;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION);
+        return ops * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unites and subtracts two sets overlapping by half, and prints the time it takes for a few cardinalities.
+ * <p>
+ *     Compares SUNION and SDIFF, built on a set sized for the result, to the way SUNION used to de-duplicate its
+ *     members, with ArrayList.contains(), which is quadratic. The old way is only run up to 30k members, where it
+ *     already takes seconds. Each operation is repeated a few times, the first ones as warm-up.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.SetUnionBenchmark
+ *     [cardinalities...]
+ * </p>
+ */
+public class SetUnionBenchmark {
+    private static final int RUNS = 5;
+    private static final int WARM_UP_RUNS = 2;
+
+    private static final int MAX_QUADRATIC = 30_000;
+
+    private static final String[] KEYS = {"key", "key2"};
+
+    public static void main(String[] args) {
+        int[] cardinalities = {1_000, 10_000, 30_000, 100_000, 1_000_000};
+        if (args.length > 0) {
+            cardinalities = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                cardinalities[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-12s%22s%18s%18s%n", "cardinality", "list union (ms)", "sunion (ms)", "sdiff (ms)");
+        for (int cardinality : cardinalities) {
+            Storage s = new Storage(Long.MAX_VALUE);
+            Object[] members = new Object[cardinality];
+            Object[] members2 = new Object[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                members[i] = "member" + i;
+                members2[i] = "member" + (i + cardinality / 2);
+            }
+            s.sadd(KEYS[0], members);
+            s.sadd(KEYS[1], members2);
+
+            Runnable listUnion = () -> {
+                ArrayList<Object> res = new ArrayList<>();
+                for (String key : KEYS) {
+                    for (Object o : s.smembers(key)) {
+                        if (!res.contains(o)) {
+                            res.add(o);
+                        }
+                    }
+                }
+            };
+            String old = cardinality <= MAX_QUADRATIC ? String.format("%.1f", measure(listUnion)) : "-";
+            System.out.printf("%-12d%22s%18.1f%18.1f%n", cardinality, old, measure(() -> s.sunion(KEYS)),
+                              measure(() -> s.sdiff(KEYS)));
+        }
+    }
+
+    /**
+     * Run an operation RUNS times.
+     *
+     * @param op The operation.
+     * @return The median time of a run after the warm-up, in milliseconds.
+     */
+    private static double measure(Runnable op) {
+        long[] times = new long[RUNS - WARM_UP_RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            op.run();
+            if (i >= WARM_UP_RUNS) {
+                times[i - WARM_UP_RUNS] = System.nanoTime() - begin;
+            }
+        }
+        Arrays.sort(times);
+        return times[times.length / 2] / 1e6;
+    }
+}
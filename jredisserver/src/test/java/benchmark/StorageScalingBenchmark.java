@@ -0,0 +1,70 @@
+package benchmark;
+
+import storage.Storage;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the same workload from 1 to N threads, each on its own keys, and prints the throughput of the storage.
+ * <p>
+ *     With striped locks the threads should not wait for each other, so the throughput should grow with the number
+ *     of threads up to the number of cores. Each thread adds to sets and pushes to and pops from lists of 64 keys of
+ *     its own.
+ *
+ *     Not run by the build. Usage:
+ *     java -cp target/classes:target/test-classes:guava.jar:commons-cli.jar benchmark.StorageScalingBenchmark
+ *     [max threads] [operations per thread]
+ * </p>
+ */
+public class StorageScalingBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+                                         : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int nbOps = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%d operations per thread%n", nbOps);
+        System.out.printf("%-10s%16s%n", "threads", "ops/s");
+        for (int nbThreads = 1; nbThreads <= maxThreads; nbThreads *= 2) {
+            Storage s = new Storage(Long.MAX_VALUE);
+            long elapsed = run(s, nbThreads, nbOps);
+            System.out.printf("%-10d%16.0f%n", nbThreads, 4.0 * nbThreads * nbOps * 1e9 / elapsed);
+        }
+    }
+
+    /**
+     * Run the workload from all the threads at once.
+     *
+     * @param s The storage.
+     * @param nbThreads The number of threads.
+     * @param nbOps The number of iterations per thread, of 4 operations each.
+     * @return The elapsed time in nanoseconds.
+     */
+    private static long run(Storage s, int nbThreads, int nbOps) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[nbThreads];
+        for (int t = 0; t < nbThreads; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < nbOps; i++) {
+                    String key = "key" + id + ":" + (i % 64);
+                    s.sadd(key, i);
+                    s.sismember(key, i);
+                    s.lPush(key + ":list", i);
+                    s.lPop(key + ":list");
+                }
+            });
+            threads[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -11,7 +11,14 @@ import storage.Storage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -52,6 +59,16 @@ public class ServerTest {
         return s;
     }
 
+    /* Extract used_memory from the output of info(). */
+    private long usedMemory(String info) {
+        for (String line : info.split("\n")) {
+            if (line.startsWith("used_memory:")) {
+                return Long.parseLong(line.substring("used_memory:".length()));
+            }
+        }
+        throw new IllegalArgumentException(info);
+    }
+
     @Before
     public void setUp() throws Exception {
         testOutput = new ByteArrayOutputStream();
@@ -119,6 +136,260 @@ public class ServerTest {
         assertEquals(false, new Server().parse(new String[]{"--port", "999"}));
     }
 
+    @Test
+    public void serverWithoutMaxMemory() {
+        assertEquals(Server.DEFAULT_MAX_MEMORY, new Server().getMaxMemory());
+    }
+
+    @Test
+    public void serverMaxMemoryParserShortOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-m", "4096"});
+        assertEquals(4096L, s.getMaxMemory());
+    }
+
+    @Test
+    public void serverMaxMemoryParserLongOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"--maxmemory", "4096"});
+        assertEquals(4096L, s.getMaxMemory());
+    }
+
+    @Test
+    public void serverMaxMemoryParserWithUnits() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-m", "3k"});
+        assertEquals(3L * 1024L, s.getMaxMemory());
+        s.parse(new String[]{"-m", "100MB"});
+        assertEquals(100L * 1024L * 1024L, s.getMaxMemory());
+        s.parse(new String[]{"-m", "2gb"});
+        assertEquals(2L * 1024L * 1024L * 1024L, s.getMaxMemory());
+    }
+
+    @Test
+    public void serverWithParserInvalidMaxMemory() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-m", "All of it."});
+        assertEquals(Server.DEFAULT_MAX_MEMORY, s.getMaxMemory());
+        s.parse(new String[]{"-m", "-12mb"});
+        assertEquals(Server.DEFAULT_MAX_MEMORY, s.getMaxMemory());
+    }
+
+    @Test
+    public void serverMaxMemoryIsSplitBetweenShards() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-s", "4", "-m", "1mb"});
+        assertEquals(4, s.getNbShards());
+        assertEquals(1024L * 1024L, s.getMaxMemory());
+    }
+
+    @Test
+    public void serverEvictsWhenOverMaxMemory() {
+        Server s = new Server();
+        s.setMaxMemory(64L * 1024L);
+        for (int i = 0; i < 1000; i++) {
+            s.lpush("list", "An element that takes some room in the list, #" + i);
+        }
+        assertTrue(s.llen("list") < 1000);
+        assertTrue(usedMemory(s.info()) <= 64L * 1024L);
+    }
+
+    @Test
+    public void serverWithoutMaxOffHeap() {
+        assertEquals(0L, new Server().getMaxOffHeap());
+    }
+
+    @Test
+    public void serverMaxOffHeapParser() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-o", "2mb"});
+        assertEquals(2L * 1024L * 1024L, s.getMaxOffHeap());
+        s.parse(new String[]{"--offheap", "3k"});
+        assertEquals(3L * 1024L, s.getMaxOffHeap());
+    }
+
+    @Test
+    public void serverWithParserInvalidMaxOffHeap() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-o", "Everything that is not nailed down."});
+        assertEquals(0L, s.getMaxOffHeap());
+    }
+
+    @Test
+    public void setNegativeMaxOffHeap() {
+        thrown.expect(IllegalArgumentException.class);
+        new Server().setMaxOffHeap(-1L);
+    }
+
+    @Test
+    public void serverKeepsBigStringsOffHeap() {
+        Server s = new Server();
+        s.setMaxOffHeap(1024L * 1024L);
+        String big = String.join("", Collections.nCopies(100, "big"));
+        s.set("key", big);
+        assertEquals(big, s.get("key"));
+        assertFalse(s.info().contains("used_offheap:0\n"));
+        s.del("key");
+        assertTrue(s.info().contains("used_offheap:0\n"));
+    }
+
+    @Test
+    public void shardedServerKeepsBigStringsOffHeap() {
+        Server s = new Server();
+        s.setMaxOffHeap(4L * 1024L * 1024L);
+        s.setNbShards(4);
+        String big = String.join("", Collections.nCopies(100, "big"));
+        for (int i = 0; i < 10; i++) {
+            s.set("key" + i, big + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(big + i, s.get("key" + i));
+        }
+        assertFalse(s.info().contains("used_offheap:0\n"));
+    }
+
+    @Test
+    public void infoOfEmptyServer() {
+        Server s = new Server();
+        assertEquals("# Clients\n"
+                     + "blocked_clients:0\n"
+                     + "# Memory\n"
+                     + "used_memory:0\n"
+                     + "maxmemory:" + Server.DEFAULT_MAX_MEMORY + "\n"
+                     + "maxmemory_policy:lru\n"
+                     + "used_offheap:0\n"
+                     + "maxoffheap:0\n"
+                     + "# Stats\n"
+                     + "keyspace_hits:0\n"
+                     + "keyspace_misses:0\n"
+                     + "evicted_keys:0\n"
+                     + "expired_keys:0\n"
+                     + "# Keyspace\n"
+                     + "keys:0\n"
+                     + "expires:0\n",
+                     s.info());
+    }
+
+    @Test
+    public void infoUsedMemoryGrowsAndShrinks() {
+        Server s = new Server();
+        s.sadd("set", "member");
+        String small = s.info();
+        s.sadd("set", "other member");
+        assertTrue(usedMemory(s.info()) > usedMemory(small));
+        s.srem("set", "other member");
+        assertEquals(usedMemory(small), usedMemory(s.info()));
+        s.del("set");
+        assertEquals(0L, usedMemory(s.info()));
+    }
+
+    @Test
+    public void infoCountsHitsMissesAndEvictions() {
+        Server s = new Server();
+        s.setMaxMemory(64L * 1024L);
+        s.set("key", "value");
+        s.get("key");
+        s.get("key");
+        s.get("nokey");
+        for (int i = 0; i < 1000; i++) {
+            s.set("key" + i, "A value that takes some room in the storage, #" + i);
+        }
+        String info = s.info();
+        assertTrue(info.contains("keyspace_hits:2\n"));
+        assertTrue(info.contains("keyspace_misses:1\n"));
+        assertFalse(info.contains("evicted_keys:0\n"));
+    }
+
+    @Test
+    public void infoInShardedMode() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-s", "4"});
+        for (int i = 0; i < 10; i++) {
+            s.set("key" + i, "value");
+        }
+        assertTrue(s.info().contains("keys:10\n"));
+        assertTrue(usedMemory(s.info()) > 0L);
+    }
+
+    @Test
+    public void serverWithDefaultEvictionPolicy() {
+        assertEquals(Server.DEFAULT_EVICTION_POLICY, new Server().getEvictionPolicy());
+    }
+
+    @Test
+    public void serverEvictionPolicyParserShortOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-e", "lfu"});
+        assertEquals("lfu", s.getEvictionPolicy());
+        assertTrue(s.info().contains("maxmemory_policy:lfu\n"));
+    }
+
+    @Test
+    public void serverEvictionPolicyParserLongOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"--eviction", "W-TinyLFU"});
+        assertEquals("w-tinylfu", s.getEvictionPolicy());
+    }
+
+    @Test
+    public void serverWithParserInvalidEvictionPolicy() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-e", "Whatever you like."});
+        assertEquals(Server.DEFAULT_EVICTION_POLICY, s.getEvictionPolicy());
+    }
+
+    @Test
+    public void serverEvictsWithEveryPolicy() {
+        for (String policy : new String[]{"lru", "lfu", "w-tinylfu", "random", "volatile-ttl"}) {
+            Server s = new Server();
+            s.setMaxMemory(64L * 1024L);
+            s.setEvictionPolicy(policy);
+            for (int i = 0; i < 1000; i++) {
+                s.set("key" + i, "A value that takes some room in the storage, #" + i);
+            }
+            assertTrue(policy, usedMemory(s.info()) <= 64L * 1024L);
+        }
+    }
+
+    @Test
+    public void serverSetUnknownEvictionPolicy() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        new Server().setEvictionPolicy("mru");
+    }
+
+    @Test
+    public void serverWithoutShards() {
+        assertEquals(0, new Server().getNbShards());
+    }
+
+    @Test
+    public void serverShardsParserShortOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-s", "4"});
+        assertEquals(4, s.getNbShards());
+    }
+
+    @Test
+    public void serverShardsParserLongOpt() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"--shards", "4"});
+        assertEquals(4, s.getNbShards());
+    }
+
+    @Test
+    public void serverWithParserInvalidShards() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-s", "Four, and a few more."});
+        assertEquals(0, s.getNbShards());
+    }
+
+    @Test
+    public void serverWithOneShardIsNotSharded() throws ParseException {
+        Server s = new Server();
+        s.parse(new String[]{"-s", "1"});
+        assertEquals(0, s.getNbShards());
+    }
+
     @Test
     public void helpPrintedToStdOut() {
         try {
@@ -130,7 +401,11 @@ public class ServerTest {
         assertEquals("Options:" + EOL
                         + "\t-h\t--help\tDisplay this information." + EOL
                         + "\t-n\t--name\tSet the name of this server." + EOL
-                        + "\t-p\t--port\tSet the port of this server." + EOL,
+                        + "\t-p\t--port\tSet the port of this server." + EOL
+                        + "\t-m\t--maxmemory\tSet the maximum memory used by the stored values (e.g 100mb)." + EOL
+                        + "\t-o\t--offheap\tKeep the strings outside of the heap, up to this size (e.g 1gb)." + EOL
+                        + "\t-e\t--eviction\tSet the eviction policy (lru, lfu, w-tinylfu, random, volatile-ttl)." + EOL
+                        + "\t-s\t--shards\tSplit the keyspace into this many shards, one thread each." + EOL,
                      testOutput.toString());
     }
 
@@ -180,18 +455,70 @@ public class ServerTest {
         assertEquals("object3", s.get("key3"));
     }
 
+    @Test
+    public void setAndGetBytes() {
+        Server s = new Server();
+        byte[] value = {0, -1, 42, '\n'};
+        s.set(bytes(defaultKey), value);
+        assertArrayEquals(value, s.get(bytes(defaultKey)));
+        assertEquals("string", s.type(defaultKey));
+    }
+
+    @Test
+    public void getBytesWithNonExistentKey() {
+        Server s = new Server();
+        assertNull(s.get(bytes(nonExistentKey)));
+    }
+
+    @Test
+    public void bytesAndStringsShareTheKeyspace() {
+        Server s = new Server();
+        s.set(bytes("cl\u00e9"), bytes("valeur \u00e9"));
+        assertEquals("valeur \u00e9", s.get("cl\u00e9"));
+        s.set("cl\u00e9", defaultString);
+        assertArrayEquals(bytes(defaultString), s.get(bytes("cl\u00e9")));
+    }
+
+    @Test
+    public void setBytesThenIncr() {
+        Server s = new Server();
+        s.set(bytes(defaultKey), bytes("10"));
+        assertEquals("integer", s.type(defaultKey));
+        assertEquals(13L, s.incrBy(defaultKey, 3L));
+        assertArrayEquals(bytes("13"), s.get(bytes(defaultKey)));
+    }
+
+    @Test
+    public void setBytesWithTimeout() {
+        Server s = new Server();
+        s.set(bytes(defaultKey), bytes(defaultString), 100000L);
+        assertTrue(s.pttl(defaultKey) > 0L);
+    }
+
+    @Test
+    public void shardedSetAndGetBytes() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.set(bytes(defaultKey), bytes(defaultString));
+        assertEquals(defaultString, s.get(defaultKey));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
     @Test
     public void typeWithExistentKeyInteger() {
         Server s = new Server();
         s.set("key", 3);
-        assertEquals("Integer", s.type("key"));
+        assertEquals("integer", s.type("key"));
     }
 
     @Test
     public void typeWithExistentKeyString() {
         Server s = new Server();
         s.set("key", "string");
-        assertEquals("String", s.type("key"));
+        assertEquals("string", s.type("key"));
     }
 
     @Test
@@ -284,6 +611,89 @@ public class ServerTest {
         assertEquals(defaultIncDec, s.get(defaultKey));
     }
 
+    @Test
+    public void incrByReturnsTheNewValue() {
+        Server s = createAndStoreDefaultInt();
+        assertEquals(defaultInt + defaultIncDec, s.incrBy(defaultKey, defaultIncDec));
+        assertEquals(defaultInt + defaultIncDec - 1, s.decr(defaultKey));
+    }
+
+    @Test
+    public void incrByBeyondIntegers() {
+        Server s = new Server();
+        assertEquals(Integer.MAX_VALUE + 1L, s.incrBy(defaultKey, Integer.MAX_VALUE + 1L));
+        assertEquals(Integer.MAX_VALUE + 1L, s.get(defaultKey));
+    }
+
+    @Test
+    public void incrByOverflow() {
+        Server s = new Server();
+        s.incrBy(defaultKey, Long.MAX_VALUE);
+        try {
+            s.incr(defaultKey);
+            fail();
+        } catch (ArithmeticException e) {
+            assertEquals("increment or decrement would overflow", e.getMessage());
+        }
+        assertEquals(Long.MAX_VALUE, s.get(defaultKey));
+    }
+
+    @Test
+    public void decrByMinValueOverflows() {
+        Server s = new Server();
+        thrown.expect(ArithmeticException.class);
+        s.decrBy(defaultKey, Long.MIN_VALUE);
+    }
+
+    @Test
+    public void incrByKeepsTheTimeToLive() {
+        Server s = createAndStoreDefaultInt();
+        s.expire(defaultKey, 100L);
+        s.incr(defaultKey);
+        assertEquals(100L, s.ttl(defaultKey));
+    }
+
+    @Test
+    public void incrByIsAtomic() throws InterruptedException {
+        Server s = new Server();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    s.incr(defaultKey);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(80000, s.get(defaultKey));
+    }
+
+    @Test
+    public void incrByFloatWithNonExistentKey() {
+        Server s = new Server();
+        assertEquals(0.5, s.incrByFloat(defaultKey, 0.5), 0.0);
+        assertEquals(0.5, s.get(defaultKey));
+        assertEquals("float", s.type(defaultKey));
+    }
+
+    @Test
+    public void incrByFloatWithValidExistentKey() {
+        Server s = createAndStoreDefaultInt();
+        assertEquals(defaultInt + 0.25, s.incrByFloat(defaultKey, 0.25), 0.0);
+    }
+
+    @Test
+    public void incrByFloatNotFinite() {
+        Server s = new Server();
+        s.incrByFloat(defaultKey, Double.MAX_VALUE);
+        thrown.expect(ArithmeticException.class);
+        thrown.expectMessage("NaN or Infinity");
+        s.incrByFloat(defaultKey, Double.MAX_VALUE);
+    }
+
     @Test
     public void delExistentKey() {
         Server s = createAndPopulateServer(2);
@@ -300,6 +710,146 @@ public class ServerTest {
     }
 
 
+    @Test
+    public void shardedSetAndGet() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.set(defaultKey, defaultString);
+        assertEquals(defaultString, s.get(defaultKey));
+        assertEquals("string", s.type(defaultKey));
+    }
+
+    @Test
+    public void shardedIncrBy() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.incrBy(defaultKey, defaultIncDec);
+        s.incr(defaultKey);
+        assertEquals(defaultIncDec + 1, s.get(defaultKey));
+    }
+
+    @Test
+    public void shardedIncrByFloatAndOverflow() {
+        Server s = new Server();
+        s.setNbShards(4);
+        assertEquals(1.5, s.incrByFloat(defaultKey, 1.5), 0.0);
+        s.incrBy("counter", Long.MAX_VALUE);
+        thrown.expect(ArithmeticException.class);
+        s.incr("counter");
+    }
+
+    @Test
+    public void shardedDel() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.set(defaultKey, defaultString);
+        assertEquals(true, s.del(defaultKey));
+        assertEquals(null, s.get(defaultKey));
+    }
+
+    @Test
+    public void shardedSUnionstoreAcrossShards() {
+        Server s = new Server();
+        s.setNbShards(4);
+        for (int i = 0; i < 5; i++) {
+            s.sadd("set" + i, i);
+        }
+        assertEquals(1, s.sunionstore(new String[]{"dst", "set0", "set1", "set2", "set3", "set4"}));
+        assertEquals(5, s.scard("dst"));
+    }
+
+    @Test
+    public void expireExistentKey() {
+        Server s = createAndStoreDefaultString();
+        assertEquals(-1L, s.ttl(defaultKey));
+        assertEquals(true, s.expire(defaultKey, 100L));
+        assertEquals(100L, s.ttl(defaultKey));
+        assertTrue(s.pttl(defaultKey) > 99000L);
+        assertTrue(s.info().contains("expires:1\n"));
+    }
+
+    @Test
+    public void expireNonExistentKey() {
+        Server s = new Server();
+        assertEquals(false, s.expire(nonExistentKey, 100L));
+        assertEquals(-2L, s.ttl(nonExistentKey));
+        assertEquals(-2L, s.pttl(nonExistentKey));
+    }
+
+    @Test
+    public void expireWithNonPositiveTimeoutDeletesTheKey() {
+        Server s = createAndStoreDefaultString();
+        assertEquals(true, s.expire(defaultKey, 0L));
+        assertEquals(null, s.get(defaultKey));
+        assertTrue(s.info().contains("expired_keys:1\n"));
+        s.set(defaultKey, defaultString);
+        assertEquals(true, s.pexpire(defaultKey, Long.MIN_VALUE));
+        assertEquals(null, s.get(defaultKey));
+    }
+
+    @Test
+    public void expireWithHugeTimeout() {
+        Server s = createAndStoreDefaultString();
+        assertEquals(true, s.expire(defaultKey, Long.MAX_VALUE));
+        assertTrue(s.ttl(defaultKey) > 0L);
+        assertEquals(true, s.expire(defaultKey, Long.MIN_VALUE));
+        assertEquals(-2L, s.ttl(defaultKey));
+    }
+
+    @Test
+    public void pexpireThenGetAfterTimeout() throws InterruptedException {
+        Server s = createAndStoreDefaultString();
+        assertEquals(true, s.pexpire(defaultKey, 20L));
+        Thread.sleep(40L);
+        assertEquals(null, s.get(defaultKey));
+        assertEquals(-2L, s.pttl(defaultKey));
+    }
+
+    @Test
+    public void persistExistentKey() {
+        Server s = createAndStoreDefaultString();
+        assertEquals(false, s.persist(defaultKey));
+        s.expire(defaultKey, 100L);
+        assertEquals(true, s.persist(defaultKey));
+        assertEquals(-1L, s.ttl(defaultKey));
+    }
+
+    @Test
+    public void setWithTimeout() throws InterruptedException {
+        Server s = createAndStoreDefaultString();
+        s.set(defaultKey, defaultString, 10000L);
+        assertEquals(10L, s.ttl(defaultKey));
+        s.set(defaultKey, defaultString);
+        assertEquals(-1L, s.ttl(defaultKey));
+    }
+
+    @Test
+    public void reaperRemovesExpiredKeys() throws InterruptedException {
+        Server s = new Server();
+        for (int i = 0; i < 100; i++) {
+            s.set("key" + i, defaultString, 20L);
+        }
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!s.info().contains("\nkeys:0\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertTrue(s.info().contains("\nkeys:0\n"));
+        assertTrue(s.info().contains("expired_keys:100\n"));
+        assertTrue(s.info().contains("expires:0\n"));
+    }
+
+    @Test
+    public void shardedExpire() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.set(defaultKey, defaultString);
+        assertEquals(true, s.expire(defaultKey, 100L));
+        assertEquals(100L, s.ttl(defaultKey));
+        assertTrue(s.info().contains("expires:1\n"));
+        assertEquals(true, s.persist(defaultKey));
+        assertEquals(-1L, s.ttl(defaultKey));
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                          Useless tests because those functions are just wrappers...                            */
@@ -378,6 +928,268 @@ public class ServerTest {
         assertEquals(server.rpush(defaultKey, defaultString), storage.rPush(defaultKey, defaultString));
     }
 
+    /* Wait until the given number of clients are blocked on the server, failing after a second. */
+    private void waitForBlockedClients(Server s, int nb) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000L;
+        while (!s.info().contains("blocked_clients:" + nb + "\n")) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1L);
+        }
+    }
+
+    @Test
+    public void blpopOnNonEmptyListReturnsAtOnce() {
+        Server s = new Server();
+        s.lpush("key2", "a");
+        s.lpush("key2", "b");
+        assertEquals(Arrays.asList("key2", "b"), s.blpop(new String[]{"key1", "key2"}, 0L));
+        assertEquals(Arrays.asList("key2", "a"), s.brpop(new String[]{"key1", "key2"}, 0L));
+    }
+
+    @Test
+    public void blpopTimesOut() {
+        Server s = new Server();
+        long begin = System.nanoTime();
+        assertNull(s.blpop(new String[]{defaultKey}, 50L));
+        assertTrue(System.nanoTime() - begin >= 50_000_000L);
+        assertTrue(s.info().contains("blocked_clients:0\n"));
+    }
+
+    @Test
+    public void blpopWithNegativeTimeoutDoesNotBlock() {
+        Server s = new Server();
+        assertNull(s.blpop(new String[]{defaultKey}, -1L));
+    }
+
+    @Test
+    public void blpopIsServedByAPush() throws Exception {
+        Server s = new Server();
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread consumer = new Thread(() -> popped.set(s.blpop(new String[]{"key1", "key2"}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 1);
+        s.rpush("key2", defaultString);
+        consumer.join(1000L);
+        assertEquals(Arrays.asList("key2", defaultString), popped.get());
+        // the element has been handed to the client, not left in the list
+        assertEquals(0, s.llen("key2"));
+    }
+
+    @Test
+    public void blpopIsServedBySetOfAList() throws Exception {
+        Server s = new Server();
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread consumer = new Thread(() -> popped.set(s.blpop(new String[]{defaultKey}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 1);
+        s.set(defaultKey, new ArrayList<>(Arrays.asList("a", "b")), 10_000L);
+        consumer.join(1000L);
+        assertEquals(defaultKey, popped.get().get(0));
+        assertEquals(1, s.llen(defaultKey));
+        assertTrue(s.info().contains("blocked_clients:0\n"));
+        // nobody is left waiting on the key, so the next client takes the other element at once
+        ArrayList<Object> next = s.blpop(new String[]{defaultKey}, 0L);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")),
+                     new HashSet<>(Arrays.asList(popped.get().get(1), next.get(1))));
+    }
+
+    @Test
+    public void blockedClientsAreServedInOrder() throws Exception {
+        Server s = new Server();
+        List<Object> popped = Collections.synchronizedList(new ArrayList<>());
+        Thread first = new Thread(() -> popped.add(s.brpop(new String[]{defaultKey}, 0L).get(1)));
+        Thread second = new Thread(() -> popped.add(s.brpop(new String[]{defaultKey}, 0L).get(1)));
+        first.start();
+        waitForBlockedClients(s, 1);
+        second.start();
+        waitForBlockedClients(s, 2);
+        s.lpush(defaultKey, "a");
+        first.join(1000L);
+        assertEquals(Collections.singletonList("a"), popped);
+        s.lpush(defaultKey, "b");
+        second.join(1000L);
+        assertEquals(Arrays.asList("a", "b"), popped);
+    }
+
+    @Test
+    public void blmoveIsServedByAPush() throws Exception {
+        Server s = new Server();
+        AtomicReference<Object> moved = new AtomicReference<>();
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread mover = new Thread(() -> moved.set(s.blmove("src", "dst", true, false, 0L)));
+        mover.start();
+        waitForBlockedClients(s, 1);
+        // also blocked on the destination, served by the move
+        Thread consumer = new Thread(() -> popped.set(s.blpop(new String[]{"dst"}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 2);
+        s.lpush("src", defaultString);
+        mover.join(1000L);
+        consumer.join(1000L);
+        assertEquals(defaultString, moved.get());
+        assertEquals(Arrays.asList("dst", defaultString), popped.get());
+    }
+
+    @Test
+    public void blmoveOnNonEmptyListReturnsAtOnce() {
+        Server s = new Server();
+        s.lpush("src", "a");
+        s.lpush("src", "b");
+        assertEquals("a", s.blmove("src", "dst", false, true, 0L));
+        assertEquals(Collections.singletonList("a"), s.lrange("dst", 0, 0));
+        assertNull(s.blmove("other", "dst", true, true, 10L));
+    }
+
+    @Test
+    public void rpoplpushMovesTheRightEndToTheLeftEnd() {
+        Server s = new Server();
+        s.lpush("pending", "a");
+        s.lpush("pending", "b");
+        s.lpush("processing", "c");
+        assertEquals("a", s.rpoplpush("pending", "processing"));
+        assertEquals("b", s.rpop("pending"));
+        assertEquals("a", s.lpop("processing"));
+        assertEquals("c", s.lpop("processing"));
+        assertNull(s.rpoplpush("pending", "processing"));
+    }
+
+    @Test
+    public void lmoveServesABlockedClient() throws Exception {
+        Server s = new Server();
+        s.lpush("src", defaultString);
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread consumer = new Thread(() -> popped.set(s.blpop(new String[]{"dst"}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 1);
+        assertEquals(defaultString, s.lmove("src", "dst", true, true));
+        consumer.join(1000L);
+        assertEquals(Arrays.asList("dst", defaultString), popped.get());
+    }
+
+    @Test
+    public void shardedLmove() {
+        Server s = new Server();
+        s.setNbShards(4);
+        for (int i = 0; i < 10; i++) {
+            s.rpush("pending", "item" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("item" + i, s.lmove("pending", "processing" + i, true, false));
+            assertEquals(1, s.llen("processing" + i));
+        }
+        assertEquals(0, s.llen("pending"));
+        s.setNbShards(0);
+    }
+
+    @Test
+    public void lpushSeveralValuesServesSeveralBlockedClients() throws Exception {
+        Server s = new Server();
+        List<AtomicReference<List<Object>>> popped = new ArrayList<>();
+        List<Thread> consumers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            AtomicReference<List<Object>> p = new AtomicReference<>();
+            Thread consumer = new Thread(() -> p.set(s.blpop(new String[]{"queue"}, 0L)));
+            consumer.start();
+            popped.add(p);
+            consumers.add(consumer);
+            waitForBlockedClients(s, i + 1);
+        }
+        assertEquals(3, s.lpush("queue", new Object[]{"a", "b", "c"}));
+        for (Thread consumer : consumers) {
+            consumer.join(1000L);
+        }
+        assertEquals(Arrays.asList("queue", "c"), popped.get(0).get());
+        assertEquals(Arrays.asList("queue", "b"), popped.get(1).get());
+        assertEquals(1, s.llen("queue"));
+    }
+
+    @Test
+    public void saddAndSremSeveralMembers() {
+        Server s = new Server();
+        assertEquals(3, s.sadd("set", new Object[]{"a", "b", "c", "a"}));
+        assertEquals(2, s.srem("set", new Object[]{"a", "c", "d"}));
+        assertEquals(Collections.singletonList("b"), s.smembers("set"));
+        s.set("string".getBytes(), defaultString.getBytes());
+        assertEquals(-1, s.sadd("string", new Object[]{"a"}));
+        assertEquals(-1, s.lpush("string", new Object[]{"a"}));
+    }
+
+    @Test
+    public void spopAndSrandmemberWithCount() {
+        Server s = new Server();
+        s.setNbShards(4);
+        s.sadd("set", new Object[]{"a", "b", "c", "d"});
+        assertEquals(3, new HashSet<>(s.srandmember("set", 3)).size());
+        assertEquals(8, s.srandmember("set", -8).size());
+        List<Object> popped = s.spop("set", 3);
+        assertEquals(3, new HashSet<>(popped).size());
+        assertEquals(1, s.scard("set"));
+        s.setNbShards(0);
+    }
+
+    @Test
+    public void cappedLpushKeepsTheLastEvents() {
+        Server s = new Server();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(s.lpush("events", "event" + i, 3));
+        }
+        assertEquals(3, s.llen("events"));
+        assertEquals(Arrays.asList("event7", "event8", "event9"), s.lrange("events", 0, 2));
+        assertEquals("event9", s.lindex("events", 2));
+        s.set("string".getBytes(), defaultString.getBytes());
+        assertFalse(s.lpush("string", "event", 3));
+    }
+
+    @Test
+    public void cappedRpushServesABlockedClient() throws Exception {
+        Server s = new Server();
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread consumer = new Thread(() -> popped.set(s.brpop(new String[]{"events"}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 1);
+        assertTrue(s.rpush("events", defaultString, 2));
+        consumer.join(1000L);
+        assertEquals(Arrays.asList("events", defaultString), popped.get());
+    }
+
+    @Test
+    public void shardedBlpopIsServedByAPush() throws Exception {
+        Server s = new Server();
+        s.setNbShards(4);
+        AtomicReference<List<Object>> popped = new AtomicReference<>();
+        Thread consumer = new Thread(() -> popped.set(s.blpop(new String[]{"key1", "key2", "key3"}, 0L)));
+        consumer.start();
+        waitForBlockedClients(s, 1);
+        s.lpush("key3", defaultString);
+        consumer.join(1000L);
+        assertEquals(Arrays.asList("key3", defaultString), popped.get());
+        s.setNbShards(0);
+    }
+
+    @Test
+    public void blockingPopIsHandedEveryPush() throws Exception {
+        // the latency of the handoff is measured by benchmark.BlockingPopLatencyBenchmark, not asserted here
+        Server s = new Server();
+        int rounds = 200;
+        List<Object> popped = Collections.synchronizedList(new ArrayList<>());
+        Thread consumer = new Thread(() -> {
+            for (int i = 0; i < rounds; i++) {
+                popped.add(s.brpop(new String[]{defaultKey}, 0L).get(1));
+            }
+        });
+        consumer.start();
+        List<Object> pushed = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            waitForBlockedClients(s, 1);
+            s.lpush(defaultKey, "value" + i);
+            pushed.add("value" + i);
+        }
+        consumer.join(30_000L);
+        assertFalse(consumer.isAlive());
+        assertEquals(pushed, popped);
+        assertEquals(0, s.llen(defaultKey));
+    }
+
     @Test
     public void testSAdd() {
         Server server = new Server();
@@ -413,6 +1225,24 @@ public class ServerTest {
         assertEquals(server.smembers(defaultKey), storage.smembers(defaultKey));
     }
 
+    @Test
+    public void testSScan() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.sadd(defaultKey, defaultString);
+        storage.sadd(defaultKey, defaultString);
+        assertEquals(server.sscan(defaultKey, 0L), storage.sscan(defaultKey, 0L, null, Storage.SCAN_DEFAULT_COUNT));
+    }
+
+    @Test
+    public void testScan() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.sadd(defaultKey, defaultString);
+        storage.sadd(defaultKey, defaultString);
+        assertEquals(server.scan(0L), storage.scan(0L, null, Storage.SCAN_DEFAULT_COUNT));
+    }
+
     @Test
     public void testSInter() {
         Server server = new Server();
@@ -420,6 +1250,23 @@ public class ServerTest {
         assertEquals(server.sinter(new String[]{"key"}), storage.sinter(new String[]{"key"}));
     }
 
+    @Test
+    public void testSInterCard() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.sintercard(new String[]{"key"}), storage.sintercard(new String[]{"key"}, 0));
+    }
+
+    @Test
+    public void testSMIsMember() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        Object[] members = new Object[]{defaultString, "other"};
+        server.sadd(defaultKey, defaultString);
+        storage.sadd(defaultKey, defaultString);
+        assertArrayEquals(server.smismember(defaultKey, members), storage.smismember(defaultKey, members));
+    }
+
     @Test
     public void testSInterstore() {
         Server server = new Server();
@@ -475,4 +1322,192 @@ public class ServerTest {
         Storage storage = new Storage();
         assertEquals(server.sdiffstore(new String[]{"key"}), storage.sdiffstore(new String[]{"key"}));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testZAdd() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.zadd(defaultKey, 1.0, defaultString), storage.zadd(defaultKey, 1.0, defaultString));
+        assertEquals(server.zadd(defaultKey, new double[]{2.0}, new Object[]{"other"}),
+                     storage.zadd(defaultKey, new double[]{2.0}, new Object[]{"other"}));
+    }
+
+    @Test
+    public void testZCard() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.zcard(defaultKey), storage.zcard(defaultKey));
+    }
+
+    @Test
+    public void testZScore() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.zadd(defaultKey, 1.0, defaultString);
+        storage.zadd(defaultKey, 1.0, defaultString);
+        assertEquals(server.zscore(defaultKey, defaultString), storage.zscore(defaultKey, defaultString));
+    }
+
+    @Test
+    public void testZRem() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.zrem(defaultKey, defaultString), storage.zrem(defaultKey, defaultString));
+    }
+
+    @Test
+    public void testZRank() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.zadd(defaultKey, 1.0, defaultString);
+        storage.zadd(defaultKey, 1.0, defaultString);
+        assertEquals(server.zrank(defaultKey, defaultString), storage.zrank(defaultKey, defaultString));
+    }
+
+    @Test
+    public void testZRange() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.zadd(defaultKey, 1.0, defaultString);
+        storage.zadd(defaultKey, 1.0, defaultString);
+        assertEquals(server.zrange(defaultKey, 0, -1), storage.zrange(defaultKey, 0, -1, false));
+        assertEquals(server.zrange(defaultKey, 0, -1, true), storage.zrange(defaultKey, 0, -1, true));
+    }
+
+    @Test
+    public void testZRangeByScore() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.zadd(defaultKey, 1.0, defaultString);
+        storage.zadd(defaultKey, 1.0, defaultString);
+        assertEquals(server.zrangebyscore(defaultKey, 0.0, 2.0),
+                     storage.zrangebyscore(defaultKey, 0.0, 2.0, false, 0, -1));
+        assertEquals(server.zrangebyscore(defaultKey, 0.0, 2.0, true, 0, 1),
+                     storage.zrangebyscore(defaultKey, 0.0, 2.0, true, 0, 1));
+    }
+
+    @Test
+    public void testHSet() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.hset(defaultKey, "field", defaultString), storage.hset(defaultKey, "field", defaultString));
+        assertEquals(server.hset(defaultKey, new Object[]{"field", "other"}, new Object[]{"a", "b"}),
+                     storage.hset(defaultKey, new Object[]{"field", "other"}, new Object[]{"a", "b"}));
+    }
+
+    @Test
+    public void testHGet() {
+        Server server = new Server();
+        server.hset(defaultKey, "field", defaultString);
+        assertEquals(defaultString, server.hget(defaultKey, "field"));
+        assertNull(server.hget(defaultKey, "other"));
+    }
+
+    @Test
+    public void testHMGet() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.hset(defaultKey, "field", defaultString);
+        storage.hset(defaultKey, "field", defaultString);
+        assertEquals(server.hmget(defaultKey, new Object[]{"field", "other"}),
+                     storage.hmget(defaultKey, new Object[]{"field", "other"}));
+    }
+
+    @Test
+    public void testHIncrBy() {
+        Server server = new Server();
+        assertEquals(Long.valueOf(defaultIncDec), server.hincrby(defaultKey, "field", defaultIncDec));
+        assertEquals(Long.valueOf(2L * defaultIncDec), server.hincrby(defaultKey, "field", defaultIncDec));
+    }
+
+    @Test
+    public void testHDel() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        server.hset(defaultKey, "field", defaultString);
+        storage.hset(defaultKey, "field", defaultString);
+        assertEquals(server.hdel(defaultKey, new Object[]{"field", "other"}),
+                     storage.hdel(defaultKey, new Object[]{"field", "other"}));
+    }
+
+    @Test
+    public void testHLen() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.hlen(defaultKey), storage.hlen(defaultKey));
+        server.hset(defaultKey, "field", defaultString);
+        assertEquals(1, server.hlen(defaultKey));
+    }
+
+    @Test
+    public void testSetBit() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.setbit(defaultKey, 7, 1), storage.setbit(defaultKey, 7, 1));
+        assertEquals(1, server.setbit(defaultKey, 7, 0));
+    }
+
+    @Test
+    public void testGetBit() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.getbit(defaultKey, 7), storage.getbit(defaultKey, 7));
+        server.setbit(defaultKey, 7, 1);
+        assertEquals(1, server.getbit(defaultKey, 7));
+    }
+
+    @Test
+    public void getOfABitmapReturnsItsBytes() {
+        Server server = new Server();
+        server.setbit(defaultKey, 0, 1);
+        server.setbit(defaultKey, 15, 1);
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, (byte[]) server.get(defaultKey));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, server.get(defaultKey.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testBitCount() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.bitcount(defaultKey), storage.bitcount(defaultKey));
+        server.setbit(defaultKey, 7, 1);
+        server.setbit(defaultKey, 8, 1);
+        assertEquals(2, server.bitcount(defaultKey));
+        assertEquals(1, server.bitcount(defaultKey, -1, -1));
+    }
+
+    @Test
+    public void testBitPos() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        assertEquals(server.bitpos(defaultKey, 1), storage.bitpos(defaultKey, 1));
+        server.setbit(defaultKey, 7, 1);
+        server.setbit(defaultKey, 8, 1);
+        assertEquals(Long.valueOf(7), server.bitpos(defaultKey, 1));
+        assertEquals(Long.valueOf(8), server.bitpos(defaultKey, 1, 1, -1));
+    }
+
+    @Test
+    public void testBitOp() {
+        Server server = new Server();
+        Storage storage = new Storage();
+        String[] keys = {"dest", defaultKey};
+        assertEquals(server.bitop("NOT", keys), storage.bitop("NOT", keys));
+        server.setbit(defaultKey, 7, 1);
+        assertEquals(1, server.bitop("NOT", keys));
+        assertEquals(7, server.bitcount("dest"));
+    }
+
+    @Test
+    public void shardedBitOp() {
+        Server s = new Server();
+        s.setNbShards(4);
+        for (int i = 0; i < 8; i++) {
+            s.setbit("key" + i, i, 1);
+        }
+        String[] keys = {"dest", "key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7"};
+        assertEquals(1, s.bitop("OR", keys));
+        assertEquals(8, s.bitcount("dest"));
+        assertEquals("bitmap", s.type("dest"));
+    }
+}
@@ -0,0 +1,64 @@
+package storage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GlobTest {
+    @Test
+    public void literal() {
+        assertTrue(Glob.matches("key", "key"));
+        assertFalse(Glob.matches("key", "key2"));
+        assertFalse(Glob.matches("key2", "key"));
+        assertTrue(Glob.matches("", ""));
+        assertFalse(Glob.matches("", "a"));
+    }
+
+    @Test
+    public void questionMark() {
+        assertTrue(Glob.matches("h?llo", "hello"));
+        assertTrue(Glob.matches("h?llo", "hallo"));
+        assertFalse(Glob.matches("h?llo", "hllo"));
+    }
+
+    @Test
+    public void star() {
+        assertTrue(Glob.matches("*", ""));
+        assertTrue(Glob.matches("*", "anything"));
+        assertTrue(Glob.matches("h*llo", "hllo"));
+        assertTrue(Glob.matches("h*llo", "heeeello"));
+        assertTrue(Glob.matches("user:*:name", "user:42:name"));
+        assertFalse(Glob.matches("user:*:name", "user:42:age"));
+        assertTrue(Glob.matches("*a*b*", "xxaxxbxx"));
+        assertFalse(Glob.matches("*a*b*", "xxbxxaxx"));
+        assertTrue(Glob.matches("a**b", "ab"));
+    }
+
+    @Test
+    public void classes() {
+        assertTrue(Glob.matches("h[ae]llo", "hello"));
+        assertTrue(Glob.matches("h[ae]llo", "hallo"));
+        assertFalse(Glob.matches("h[ae]llo", "hillo"));
+        assertTrue(Glob.matches("h[^e]llo", "hallo"));
+        assertFalse(Glob.matches("h[^e]llo", "hello"));
+        assertTrue(Glob.matches("h[a-b]llo", "hbllo"));
+        assertFalse(Glob.matches("h[a-b]llo", "hcllo"));
+        assertTrue(Glob.matches("[z-a]", "m"));
+        assertTrue(Glob.matches("[]]", "]"));
+        assertTrue(Glob.matches("[a-]", "-"));
+    }
+
+    @Test
+    public void escape() {
+        assertTrue(Glob.matches("a\\*b", "a*b"));
+        assertFalse(Glob.matches("a\\*b", "axb"));
+        assertTrue(Glob.matches("[\\]]", "]"));
+        assertTrue(Glob.matches("a\\", "a\\"));
+    }
+
+    @Test
+    public void unclosedClass() {
+        assertTrue(Glob.matches("[ab", "a"));
+        assertFalse(Glob.matches("[ab", "c"));
+    }
+}
@@ -0,0 +1,128 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedMapTest {
+    private static HashMap<Object, Object> toHashMap(IndexedMap m) {
+        HashMap<Object, Object> res = new HashMap<>();
+        for (int i = 0; i < m.size(); i++) {
+            res.put(m.fieldAt(i), m.valueAt(i));
+        }
+        return res;
+    }
+
+    @Test
+    public void emptyMap() {
+        IndexedMap m = new IndexedMap(0);
+        assertEquals(0, m.size());
+        assertNull(m.get("a"));
+        assertNull(m.remove("a"));
+    }
+
+    @Test
+    public void putAndGet() {
+        IndexedMap m = new IndexedMap(0);
+        assertNull(m.put("a", "1"));
+        assertNull(m.put(2, "2"));
+        assertEquals("1", m.put("a", "3"));
+        assertEquals(2, m.size());
+        assertEquals("3", m.get("a"));
+        assertEquals("2", m.get(2));
+        assertNull(m.get("2"));
+    }
+
+    @Test
+    public void removeMovesTheLastField() {
+        IndexedMap m = new IndexedMap(0);
+        for (String f : Arrays.asList("a", "b", "c", "d")) {
+            m.put(f, f.toUpperCase());
+        }
+        assertEquals("B", m.remove("b"));
+        assertEquals("d", m.fieldAt(1));
+        assertEquals("D", m.valueAt(1));
+        assertEquals("D", m.get("d"));
+        assertNull(m.get("b"));
+        assertEquals(3, m.size());
+    }
+
+    @Test
+    public void growsAndShrinks() {
+        IndexedMap m = new IndexedMap(0);
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(m.put("field" + i, i));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertEquals(i, m.remove("field" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 2 == 1 ? i : null, m.get("field" + i));
+        }
+        for (int i = 1; i < 10_000; i += 2) {
+            assertEquals(i, m.remove("field" + i));
+        }
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void collidingFields() {
+        // "Aa" and "BB" have the same hash code, so do all the strings made of them
+        List<String> colliding = new ArrayList<>();
+        for (String a : Arrays.asList("Aa", "BB")) {
+            for (String b : Arrays.asList("Aa", "BB")) {
+                for (String c : Arrays.asList("Aa", "BB")) {
+                    colliding.add(a + b + c);
+                }
+            }
+        }
+        IndexedMap m = new IndexedMap(0);
+        for (String f : colliding) {
+            m.put(f, f);
+        }
+        for (int i = 0; i < colliding.size(); i += 3) {
+            assertEquals(colliding.get(i), m.remove(colliding.get(i)));
+        }
+        for (int i = 0; i < colliding.size(); i++) {
+            assertEquals(i % 3 != 0 ? colliding.get(i) : null, m.get(colliding.get(i)));
+        }
+    }
+
+    @Test
+    public void behavesLikeAHashMap() {
+        Random random = new Random(42L);
+        IndexedMap m = new IndexedMap(0);
+        HashMap<Object, Object> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            Integer f = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(f), m.remove(f));
+            } else {
+                assertEquals(expected.put(f, i), m.put(f, i));
+            }
+        }
+        assertEquals(expected.size(), m.size());
+        assertEquals(expected, toHashMap(m));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IndexedMap m = new IndexedMap(0);
+        m.put("a", 1);
+        m.put("b", 2);
+        IndexedMap copy = m.copy();
+        m.remove("a");
+        copy.put("b", 3);
+        copy.put("c", 4);
+        assertEquals(1, copy.get("a"));
+        assertEquals(3, copy.get("b"));
+        assertEquals(2, m.get("b"));
+        assertNull(m.get("c"));
+    }
+}
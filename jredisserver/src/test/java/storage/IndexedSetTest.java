@@ -0,0 +1,232 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedSetTest {
+    private static HashSet<Object> toHashSet(IndexedSet s) {
+        HashSet<Object> res = new HashSet<>();
+        for (Object m : s) {
+            res.add(m);
+        }
+        return res;
+    }
+
+    private static IndexedSet createHelper(Object... members) {
+        IndexedSet s = new IndexedSet();
+        for (Object m : members) {
+            s.add(m);
+        }
+        return s;
+    }
+
+    @Test
+    public void emptySet() {
+        IndexedSet s = new IndexedSet();
+        assertEquals(0, s.size());
+        assertFalse(s.contains("a"));
+        assertFalse(s.remove("a"));
+        assertNull(s.random(new Random()));
+        assertNull(s.removeRandom(new Random()));
+        assertFalse(s.iterator().hasNext());
+    }
+
+    @Test
+    public void addAndContains() {
+        IndexedSet s = createHelper("a", "b", 1, null);
+        assertFalse(s.add("a"));
+        assertFalse(s.add(null));
+        assertEquals(4, s.size());
+        assertTrue(s.contains("b"));
+        assertTrue(s.contains(1));
+        assertTrue(s.contains(null));
+        assertFalse(s.contains("c"));
+        assertEquals(Arrays.asList("a", "b", 1, null), s.toList());
+    }
+
+    @Test
+    public void removeMovesTheLastMember() {
+        IndexedSet s = createHelper("a", "b", "c", "d");
+        assertTrue(s.remove("b"));
+        assertEquals(Arrays.asList("a", "d", "c"), s.toList());
+        assertTrue(s.contains("d"));
+        assertFalse(s.contains("b"));
+        assertTrue(s.remove("c"));
+        assertEquals(Arrays.asList("a", "d"), s.toList());
+    }
+
+    @Test
+    public void growsAndShrinks() {
+        IndexedSet s = new IndexedSet();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(s.add("member" + i));
+        }
+        assertEquals(10_000, s.size());
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(s.remove("member" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 2 == 1, s.contains("member" + i));
+        }
+        for (int i = 1; i < 10_000; i += 2) {
+            assertTrue(s.remove("member" + i));
+        }
+        assertEquals(0, s.size());
+    }
+
+    @Test
+    public void collidingMembers() {
+        // "Aa" and "BB" have the same hash code, so do all the strings made of them
+        List<String> colliding = new ArrayList<>();
+        for (String a : Arrays.asList("Aa", "BB")) {
+            for (String b : Arrays.asList("Aa", "BB")) {
+                for (String c : Arrays.asList("Aa", "BB")) {
+                    colliding.add(a + b + c);
+                }
+            }
+        }
+        IndexedSet s = new IndexedSet();
+        for (String m : colliding) {
+            s.add(m);
+        }
+        for (int i = 0; i < colliding.size(); i += 3) {
+            assertTrue(s.remove(colliding.get(i)));
+        }
+        for (int i = 0; i < colliding.size(); i++) {
+            assertEquals(i % 3 != 0, s.contains(colliding.get(i)));
+        }
+    }
+
+    @Test
+    public void behavesLikeAHashSet() {
+        Random random = new Random(42L);
+        IndexedSet s = new IndexedSet();
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            Integer m = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(m), s.remove(m));
+            } else {
+                assertEquals(expected.add(m), s.add(m));
+            }
+        }
+        assertEquals(expected.size(), s.size());
+        assertEquals(expected, toHashSet(s));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.contains(i), s.contains(i));
+        }
+    }
+
+    @Test
+    public void removeRandomDrainsTheSet() {
+        IndexedSet s = new IndexedSet();
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            s.add(i);
+            expected.add(i);
+        }
+        Random random = new Random(42L);
+        HashSet<Object> removed = new HashSet<>();
+        while (s.size() > 0) {
+            Object m = s.removeRandom(random);
+            assertFalse(s.contains(m));
+            assertTrue(removed.add(m));
+        }
+        assertEquals(expected, removed);
+    }
+
+    @Test
+    public void randomPicksEveryMember() {
+        IndexedSet s = createHelper("a", "b", "c", "d");
+        Random random = new Random(42L);
+        HashSet<Object> picked = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            picked.add(s.random(random));
+        }
+        assertEquals(toHashSet(s), picked);
+    }
+
+    @Test
+    public void retainAndRemoveAll() {
+        IndexedSet s = createHelper("a", "b", "c", "d", "e");
+        s.retainAll(createHelper("b", "d", "e", "f"));
+        assertEquals(new HashSet<>(Arrays.asList("b", "d", "e")), toHashSet(s));
+        s.removeAll(createHelper("d"));
+        assertEquals(new HashSet<>(Arrays.asList("b", "e")), toHashSet(s));
+        s.removeAll(createHelper("a", "b", "c", "f", "g"));
+        assertEquals(new HashSet<>(Arrays.asList("e")), toHashSet(s));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IndexedSet s = createHelper("a", "b", "c");
+        IndexedSet copy = s.copy();
+        s.remove("a");
+        copy.add("d");
+        assertEquals(Arrays.asList("a", "b", "c", "d"), copy.toList());
+        assertTrue(copy.contains("a"));
+        assertFalse(s.contains("d"));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailsFast() {
+        IndexedSet s = createHelper("a", "b", "c");
+        Iterator<Object> it = s.iterator();
+        it.next();
+        s.add("d");
+        it.next();
+    }
+
+    @Test
+    public void scanReturnsEveryMemberOnce() {
+        IndexedSet s = new IndexedSet();
+        for (int i = 0; i < 1000; i++) {
+            s.add("m" + i);
+        }
+        List<Object> seen = new ArrayList<>();
+        long cursor = 0L;
+        do {
+            cursor = s.scan(cursor, 7, seen);
+        } while (cursor != 0L);
+        assertEquals(1000, seen.size());
+        assertEquals(toHashSet(s), new HashSet<>(seen));
+    }
+
+    @Test
+    public void scanSurvivesResizes() {
+        IndexedSet s = new IndexedSet();
+        for (int i = 0; i < 100; i++) {
+            s.add(i);
+        }
+        HashSet<Object> seen = new HashSet<>();
+        List<Object> batch = new ArrayList<>();
+        long cursor = s.scan(0L, 10, batch);
+        seen.addAll(batch);
+        // grow the index 16 times over, then shrink it back
+        for (int i = 100; i < 1600; i++) {
+            s.add(i);
+        }
+        cursor = s.scan(cursor, 10, batch);
+        seen.addAll(batch);
+        for (int i = 1599; i >= 100; i--) {
+            s.remove(i);
+        }
+        while (cursor != 0L) {
+            batch.clear();
+            cursor = s.scan(cursor, 10, batch);
+            seen.addAll(batch);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(seen.contains(i));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class IntSetTest {
+    private static IntSet createHelper(Object... members) {
+        IntSet s = new IntSet();
+        for (Object m : members) {
+            s.add(m);
+        }
+        return s;
+    }
+
+    @Test
+    public void emptySet() {
+        IntSet s = new IntSet();
+        assertEquals(0, s.size());
+        assertEquals(2, s.width());
+        assertFalse(s.contains(1));
+        assertFalse(s.remove(1));
+        assertNull(s.random(new Random()));
+        assertNull(s.removeRandom(new Random()));
+        assertFalse(s.iterator().hasNext());
+    }
+
+    @Test
+    public void membersAreSorted() {
+        IntSet s = createHelper(5, -3, 42, 0, 7);
+        assertFalse(s.add(42));
+        assertEquals(5, s.size());
+        assertEquals(Arrays.asList(-3, 0, 5, 7, 42), s.toList());
+        assertTrue(s.contains(-3));
+        assertFalse(s.contains(6));
+    }
+
+    @Test
+    public void kindOf() {
+        assertEquals(IntSet.INTEGERS, IntSet.kindOf(1));
+        assertEquals(IntSet.LONGS, IntSet.kindOf(1L));
+        assertEquals(IntSet.STRINGS, IntSet.kindOf("0"));
+        assertEquals(IntSet.STRINGS, IntSet.kindOf("-12"));
+        assertEquals(IntSet.STRINGS, IntSet.kindOf("9223372036854775807"));
+        assertEquals(IntSet.STRINGS, IntSet.kindOf("-9223372036854775808"));
+        for (Object o : Arrays.asList("", "-", "-0", "007", "+1", "1.0", " 1", "a", "9223372036854775808",
+                                      "12345678901234567890", 1.0, null)) {
+            assertEquals(String.valueOf(o), IntSet.NOT_INTEGER, IntSet.kindOf(o));
+        }
+    }
+
+    @Test
+    public void membersKeepTheirKind() {
+        IntSet strings = createHelper("12", "-7");
+        assertEquals(Arrays.asList("-7", "12"), strings.toList());
+        assertTrue(strings.contains("12"));
+        assertFalse(strings.contains(12));
+        assertFalse(strings.accepts(12));
+        assertTrue(strings.accepts("13"));
+        assertFalse(strings.accepts("a"));
+
+        IntSet longs = createHelper(12L);
+        assertEquals(Arrays.asList(12L), longs.toList());
+        assertFalse(longs.contains(12));
+        assertFalse(longs.remove(12));
+        assertTrue(longs.remove(12L));
+        // an empty set takes any kind again
+        assertTrue(longs.accepts("1"));
+    }
+
+    @Test
+    public void widthIsUpgraded() {
+        IntSet s = createHelper(1L, -2L, 3L);
+        assertEquals(2, s.width());
+        s.add(100_000L);
+        assertEquals(4, s.width());
+        s.add(-10_000_000_000L);
+        assertEquals(8, s.width());
+        assertEquals(Arrays.asList(-10_000_000_000L, -2L, 1L, 3L, 100_000L), s.toList());
+        // never downgraded
+        s.remove(-10_000_000_000L);
+        assertEquals(8, s.width());
+    }
+
+    @Test
+    public void extremeValues() {
+        IntSet s = createHelper(Long.MAX_VALUE, Long.MIN_VALUE, 0L, (long) Short.MIN_VALUE, (long) Short.MAX_VALUE,
+                                (long) Integer.MIN_VALUE, (long) Integer.MAX_VALUE);
+        assertEquals(Arrays.asList(Long.MIN_VALUE, (long) Integer.MIN_VALUE, (long) Short.MIN_VALUE, 0L,
+                                   (long) Short.MAX_VALUE, (long) Integer.MAX_VALUE, Long.MAX_VALUE), s.toList());
+        assertTrue(s.contains(Long.MIN_VALUE));
+        assertTrue(s.contains(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void behavesLikeASortedSet() {
+        Random random = new Random(42L);
+        IntSet s = new IntSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // mostly small values, some needing 4 bytes
+            int m = random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(1000) - 500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(m), s.remove(m));
+            } else {
+                assertEquals(expected.add(m), s.add(m));
+            }
+        }
+        assertEquals(expected.size(), s.size());
+        assertEquals(Arrays.asList(expected.toArray()), s.toList());
+        for (int i = -500; i < 500; i++) {
+            assertEquals(expected.contains(i), s.contains(i));
+        }
+    }
+
+    @Test
+    public void growsAndShrinks() {
+        IntSet s = new IntSet();
+        for (int i = 0; i < 1000; i++) {
+            s.add(i);
+        }
+        int capacity = s.capacity();
+        assertTrue(capacity >= 1000 * 2);
+        for (int i = 0; i < 990; i++) {
+            assertTrue(s.remove(i));
+        }
+        assertTrue(s.capacity() < capacity / 4);
+        assertEquals(Arrays.asList(990, 991, 992, 993, 994, 995, 996, 997, 998, 999), s.toList());
+    }
+
+    @Test
+    public void removeRandomDrainsTheSet() {
+        IntSet s = new IntSet();
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            s.add(Integer.toString(i));
+            expected.add(Integer.toString(i));
+        }
+        Random random = new Random(42L);
+        HashSet<Object> removed = new HashSet<>();
+        while (s.size() > 0) {
+            Object m = s.removeRandom(random);
+            assertFalse(s.contains(m));
+            assertTrue(removed.add(m));
+        }
+        assertEquals(expected, removed);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IntSet s = createHelper(1, 2, 3);
+        IntSet copy = s.copy();
+        s.remove(1);
+        copy.add(4);
+        assertEquals(Arrays.asList(1, 2, 3, 4), copy.toList());
+        assertEquals(Arrays.asList(2, 3), s.toList());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailsFast() {
+        IntSet s = createHelper(1, 2, 3);
+        Iterator<Object> it = s.iterator();
+        it.next();
+        s.add(4);
+        it.next();
+    }
+}
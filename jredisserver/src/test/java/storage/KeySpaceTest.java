@@ -0,0 +1,107 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class KeySpaceTest {
+    @Test
+    public void emptyKeySpace() {
+        KeySpace<Integer> k = new KeySpace<>();
+        assertEquals(0, k.size());
+        assertNull(k.get("key"));
+        assertNull(k.remove("key"));
+        assertFalse(k.remove("key", 1));
+        assertTrue(k.entrySet().isEmpty());
+        List<Integer> values = new ArrayList<>();
+        assertEquals(0L, k.scan(0L, 10, values));
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    public void putGetRemove() {
+        KeySpace<Integer> k = new KeySpace<>();
+        assertNull(k.put("key", 1));
+        assertEquals(Integer.valueOf(1), k.put("key", 2));
+        assertEquals(1, k.size());
+        assertEquals(Integer.valueOf(2), k.get("key"));
+        assertTrue(k.containsKey("key"));
+        assertFalse(k.remove("key", 1));
+        assertTrue(k.remove("key", 2));
+        assertEquals(0, k.size());
+        k.put("key", 3);
+        assertEquals(Integer.valueOf(3), k.remove("key"));
+        assertEquals(0, k.size());
+        assertNull(k.get(42));
+    }
+
+    @Test
+    public void tablesGrowAndShrink() {
+        KeySpace<Integer> k = new KeySpace<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            k.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        assertEquals(expected, new HashMap<>(k));
+        for (int i = 0; i < 100_000; i += 3) {
+            assertEquals(Integer.valueOf(i), k.remove("key" + i));
+            expected.remove("key" + i);
+        }
+        assertEquals(expected.size(), k.size());
+        assertEquals(expected, new HashMap<>(k));
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(expected.get("key" + i), k.get("key" + i));
+        }
+    }
+
+    @Test
+    public void scanWalksTheKeysInSegmentOrder() {
+        KeySpace<Integer> k = new KeySpace<>();
+        for (int i = 0; i < 10_000; i++) {
+            k.put("key" + i, i);
+        }
+        HashSet<Integer> values = new HashSet<>();
+        int lastSegment = 0;
+        long cursor = 0L;
+        do {
+            List<Integer> batch = new ArrayList<>();
+            cursor = k.scan(cursor, 7, batch);
+            assertTrue(batch.size() >= 7 || cursor == 0L);
+            for (int v : batch) {
+                int segment = KeySpace.segmentOf("key" + v);
+                assertTrue(segment >= lastSegment);
+                lastSegment = segment;
+                assertTrue(values.add(v));
+            }
+        } while (cursor != 0L);
+        assertEquals(10_000, values.size());
+    }
+
+    @Test
+    public void scanResumesInsideASegment() {
+        KeySpace<Integer> k = new KeySpace<>();
+        for (int i = 0; i < 100 * KeySpace.SEGMENTS; i++) {
+            k.put("key" + i, i);
+        }
+        List<Integer> batch = new ArrayList<>();
+        long cursor = k.scan(0L, 10, batch);
+        assertTrue(batch.size() < 20);
+        assertEquals(0, cursor / (KeySpace.CURSORS / KeySpace.SEGMENTS));
+        assertNotEquals(0L, cursor);
+    }
+
+    @Test
+    public void segmentOfIsInRange() {
+        for (int i = 0; i < 1000; i++) {
+            int s = KeySpace.segmentOf("key" + i);
+            assertTrue(s >= 0 && s < KeySpace.SEGMENTS);
+        }
+    }
+}
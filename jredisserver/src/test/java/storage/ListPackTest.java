@@ -0,0 +1,184 @@
+package storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ListPackTest {
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static ListPack createHelper(Object... elements) {
+        ListPack l = new ListPack();
+        for (Object e : elements) {
+            l.addLast(ListPack.encode(e));
+        }
+        return l;
+    }
+
+    private static List<Object> toList(ListPack l) {
+        List<Object> res = new ArrayList<>();
+        for (Object e : l) {
+            res.add(e);
+        }
+        return res;
+    }
+
+    @Test
+    public void canPack() {
+        assertTrue(ListPack.canPack("value"));
+        assertTrue(ListPack.canPack("cl\u00e9"));
+        assertTrue(ListPack.canPack(42));
+        assertTrue(ListPack.canPack(42L));
+        assertFalse(ListPack.canPack(4.2));
+        assertFalse(ListPack.canPack(new Object()));
+        assertFalse(ListPack.canPack("\ud83d\ude00"));
+        assertFalse(ListPack.canPack(null));
+    }
+
+    @Test
+    public void elementsSurviveTheEncoding() {
+        List<Object> elements = Arrays.asList("", "value", "cl\u00e9 \u20ac", 0, -1, 63, 64, -65,
+                                              Integer.MIN_VALUE, Integer.MAX_VALUE, 0L, -1L,
+                                              Long.MIN_VALUE, Long.MAX_VALUE);
+        ListPack l = createHelper(elements.toArray());
+        assertEquals(elements, toList(l));
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(elements.get(i), l.get(i));
+        }
+    }
+
+    @Test
+    public void smallIntegersTakeTwoBytes() {
+        assertEquals(2, ListPack.encode(42).length);
+        assertEquals(2, ListPack.encode(-42).length);
+        assertEquals(1 + 1 + 5, ListPack.encode("value").length);
+    }
+
+    @Test
+    public void integersAndLongsStayDistinct() {
+        ListPack l = createHelper(1, 1L);
+        assertEquals(Integer.valueOf(1), l.get(0));
+        assertEquals(Long.valueOf(1L), l.get(1));
+        assertEquals(1, l.remove(ListPack.encode(1L), 0));
+        assertEquals(Arrays.asList(1), toList(l));
+    }
+
+    @Test
+    public void addAndRemoveAtBothEnds() {
+        ListPack l = createHelper("b");
+        l.addFirst(ListPack.encode("a"));
+        l.addLast(ListPack.encode(3));
+        assertEquals(Arrays.asList("a", "b", 3), toList(l));
+        assertEquals(3, l.removeLast());
+        assertEquals("a", l.removeFirst());
+        assertEquals("b", l.removeLast());
+        assertNull(l.removeFirst());
+        assertNull(l.removeLast());
+        assertEquals(0, l.usedBytes());
+    }
+
+    @Test
+    public void setReplacesTheEntry() {
+        ListPack l = createHelper("a", "b", "c");
+        assertEquals("b", l.set(1, ListPack.encode("a much longer element")));
+        assertEquals(Arrays.asList("a", "a much longer element", "c"), toList(l));
+        assertEquals("a much longer element", l.set(1, ListPack.encode(2)));
+        assertEquals(Arrays.asList("a", 2, "c"), toList(l));
+    }
+
+    @Test
+    public void getOutOfRange() {
+        thrown.expect(IndexOutOfBoundsException.class);
+        createHelper("a").get(1);
+    }
+
+    @Test
+    public void removeOccurrences() {
+        ListPack l = createHelper("a", "b", "a", "c", "a");
+        assertEquals(2, l.remove(ListPack.encode("a"), 2));
+        assertEquals(Arrays.asList("b", "c", "a"), toList(l));
+        assertEquals(0, l.remove(ListPack.encode("d"), 0));
+        assertEquals(1, l.remove(ListPack.encode("a"), 0));
+        assertEquals(Arrays.asList("b", "c"), toList(l));
+    }
+
+    @Test
+    public void trimKeepsTheRange() {
+        ListPack l = createHelper("a", "b", "c", "d", "e");
+        l.trim(1, 4);
+        assertEquals(Arrays.asList("b", "c", "d"), toList(l));
+        assertEquals(Arrays.asList("c", "d"), l.range(1, 3));
+        l.trim(0, 0);
+        assertEquals(0, l.size());
+        assertEquals(0, l.usedBytes());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        ListPack l = createHelper("a", "b");
+        ListPack copy = l.copy();
+        l.addLast(ListPack.encode("c"));
+        assertEquals(Arrays.asList("a", "b"), toList(copy));
+    }
+
+    @Test
+    public void iteratorFailsFast() {
+        thrown.expect(java.util.ConcurrentModificationException.class);
+        ListPack l = createHelper("a", "b");
+        Iterator<Object> it = l.iterator();
+        it.next();
+        l.addLast(ListPack.encode("c"));
+        it.next();
+    }
+
+    @Test
+    public void randomOperationsMatchAnArrayList() {
+        Random random = new Random(42L);
+        ListPack l = new ListPack();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Object e = random.nextBoolean() ? (Object) ("e" + i % 20) : (Object) (i % 20 - 10);
+            int op = random.nextInt(100);
+            if (op < 30) {
+                l.addFirst(ListPack.encode(e));
+                expected.add(0, e);
+            } else if (op < 60) {
+                l.addLast(ListPack.encode(e));
+                expected.add(e);
+            } else if (op < 75) {
+                assertEquals(expected.isEmpty() ? null : expected.remove(0), l.removeFirst());
+            } else if (op < 90) {
+                assertEquals(expected.isEmpty() ? null : expected.remove(expected.size() - 1), l.removeLast());
+            } else if (op < 95 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, e), l.set(index, ListPack.encode(e)));
+            } else if (op < 98) {
+                int count = random.nextInt(3);
+                int removed = 0;
+                for (Iterator<Object> it = expected.iterator(); it.hasNext() && (count == 0 || removed < count);) {
+                    if (e.equals(it.next())) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+                assertEquals(removed, l.remove(ListPack.encode(e), count));
+            } else if (!expected.isEmpty()) {
+                int from = random.nextInt(expected.size());
+                int to = from + random.nextInt(expected.size() - from + 1);
+                l.trim(from, to);
+                expected = new ArrayList<>(expected.subList(from, to));
+            }
+            assertEquals(expected.size(), l.size());
+        }
+        assertEquals(expected, toList(l));
+    }
+}
@@ -0,0 +1,209 @@
+package storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuickListTest {
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static final int N = 3 * QuickList.NODE_CAPACITY + 7;
+
+    private static List<Object> toList(QuickList l) {
+        List<Object> res = new ArrayList<>();
+        for (Object e : l) {
+            res.add(e);
+        }
+        return res;
+    }
+
+    private static QuickList createHelper(int size) {
+        QuickList l = new QuickList();
+        for (int i = 0; i < size; i++) {
+            l.addLast(i);
+        }
+        return l;
+    }
+
+    @Test
+    public void emptyList() {
+        QuickList l = new QuickList();
+        assertEquals(0, l.size());
+        assertNull(l.removeFirst());
+        assertNull(l.removeLast());
+        assertFalse(l.iterator().hasNext());
+    }
+
+    @Test
+    public void addAtBothEnds() {
+        QuickList l = new QuickList();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            l.addFirst(-i);
+            expected.add(0, -i);
+            l.addLast(i);
+            expected.add(i);
+        }
+        assertEquals(2 * N, l.size());
+        assertEquals(expected, toList(l));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), l.get(i));
+        }
+    }
+
+    @Test
+    public void removeAtBothEnds() {
+        QuickList l = createHelper(N);
+        for (int i = 0; i < N / 2; i++) {
+            assertEquals(i, l.removeFirst());
+            assertEquals(N - 1 - i, l.removeLast());
+        }
+        assertEquals(1, l.size());
+        assertEquals(N / 2, l.removeFirst());
+        assertNull(l.removeLast());
+        l.addFirst("again");
+        assertEquals(Arrays.asList("again"), toList(l));
+    }
+
+    @Test
+    public void queue() {
+        QuickList l = new QuickList();
+        int next = 0;
+        for (int i = 0; i < 10 * N; i++) {
+            l.addLast(i);
+            if (i % 3 != 0) {
+                assertEquals(next++, l.removeFirst());
+            }
+        }
+        assertEquals(10 * N - next, l.size());
+    }
+
+    @Test
+    public void setReplacesTheElement() {
+        QuickList l = createHelper(N);
+        assertEquals(200, l.set(200, "new"));
+        assertEquals("new", l.get(200));
+        assertEquals(N, l.size());
+    }
+
+    @Test
+    public void getOutOfRange() {
+        thrown.expect(IndexOutOfBoundsException.class);
+        createHelper(3).get(3);
+    }
+
+    @Test
+    public void removeOccurrences() {
+        QuickList l = new QuickList();
+        for (int i = 0; i < N; i++) {
+            l.addLast(i % 2 == 0 ? "a" : "b");
+        }
+        assertEquals(3, l.remove("a", 3));
+        assertEquals("b", l.get(0));
+        assertEquals(N - 3, l.size());
+        int nbA = (N + 1) / 2 - 3;
+        assertEquals(nbA, l.remove("a", 0));
+        assertEquals(N / 2, l.size());
+        for (Object e : l) {
+            assertEquals("b", e);
+        }
+        assertEquals(0, l.remove("c", 0));
+    }
+
+    @Test
+    public void trimKeepsTheRange() {
+        QuickList l = createHelper(N);
+        long weight = l.trim(150, 300, e -> 1L);
+        assertEquals(N - 150, weight);
+        assertEquals(150, l.size());
+        assertEquals(150, l.get(0));
+        assertEquals(299, l.get(149));
+        assertEquals(new ArrayList<>(l.range(0, 150)), toList(l));
+        l.addFirst("head");
+        l.addLast("tail");
+        assertEquals("head", l.get(0));
+        assertEquals("tail", l.get(151));
+    }
+
+    @Test
+    public void trimToEmpty() {
+        QuickList l = createHelper(N);
+        assertEquals(0L, l.trim(0, 0, null));
+        assertEquals(0, l.size());
+        assertFalse(l.iterator().hasNext());
+        l.addLast(1);
+        assertEquals(1, l.get(0));
+    }
+
+    @Test
+    public void rangeAcrossNodes() {
+        QuickList l = createHelper(N);
+        List<Object> expected = new ArrayList<>();
+        for (int i = 100; i < 390; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, l.range(100, 390));
+        assertTrue(l.range(5, 5).isEmpty());
+    }
+
+    @Test
+    public void iteratorFailsFast() {
+        thrown.expect(java.util.ConcurrentModificationException.class);
+        QuickList l = createHelper(3);
+        Iterator<Object> it = l.iterator();
+        it.next();
+        l.addLast(4);
+        it.next();
+    }
+
+    @Test
+    public void randomOperationsMatchAnArrayList() {
+        Random random = new Random(42L);
+        QuickList l = new QuickList();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(100);
+            if (op < 30) {
+                l.addFirst(i % 50);
+                expected.add(0, i % 50);
+            } else if (op < 60) {
+                l.addLast(i % 50);
+                expected.add(i % 50);
+            } else if (op < 75) {
+                assertEquals(expected.isEmpty() ? null : expected.remove(0), l.removeFirst());
+            } else if (op < 90) {
+                assertEquals(expected.isEmpty() ? null : expected.remove(expected.size() - 1), l.removeLast());
+            } else if (op < 95 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), l.get(index));
+            } else if (op < 98) {
+                Object e = i % 50;
+                int count = random.nextInt(3);
+                int removed = 0;
+                for (Iterator<Object> it = expected.iterator(); it.hasNext() && (count == 0 || removed < count);) {
+                    if (e.equals(it.next())) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+                assertEquals(removed, l.remove(e, count));
+            } else if (!expected.isEmpty()) {
+                int from = random.nextInt(expected.size());
+                int to = from + random.nextInt(expected.size() - from + 1);
+                l.trim(from, to, null);
+                expected = new ArrayList<>(expected.subList(from, to));
+            }
+            assertEquals(expected.size(), l.size());
+        }
+        assertEquals(expected, toList(l));
+    }
+}
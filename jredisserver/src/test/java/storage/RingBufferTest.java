@@ -0,0 +1,145 @@
+package storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RingBufferTest {
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static List<Object> toList(RingBuffer r) {
+        List<Object> res = new ArrayList<>();
+        for (Object e : r) {
+            res.add(e);
+        }
+        return res;
+    }
+
+    private static RingBuffer createHelper(int capacity, int size) {
+        RingBuffer r = new RingBuffer(capacity);
+        for (int i = 0; i < size; i++) {
+            r.pushLast(i);
+        }
+        return r;
+    }
+
+    @Test
+    public void emptyRing() {
+        RingBuffer r = new RingBuffer(4);
+        assertEquals(0, r.size());
+        assertEquals(4, r.capacity());
+        assertFalse(r.isFull());
+        assertNull(r.removeFirst());
+        assertNull(r.removeLast());
+        assertFalse(r.iterator().hasNext());
+    }
+
+    @Test
+    public void pushLastOverwritesTheHead() {
+        RingBuffer r = createHelper(3, 3);
+        assertTrue(r.isFull());
+        assertEquals(0, r.pushLast(3));
+        assertEquals(1, r.pushLast(4));
+        assertEquals(3, r.size());
+        assertEquals(Arrays.asList(2, 3, 4), toList(r));
+        assertEquals(Arrays.asList(2, 3, 4), r.range(0, 3));
+    }
+
+    @Test
+    public void pushFirstOverwritesTheTail() {
+        RingBuffer r = new RingBuffer(3);
+        for (int i = 0; i < 3; i++) {
+            assertNull(r.pushFirst(i));
+        }
+        assertEquals(0, r.pushFirst(3));
+        assertEquals(Arrays.asList(3, 2, 1), toList(r));
+    }
+
+    @Test
+    public void getAndSetWrapAround() {
+        RingBuffer r = createHelper(4, 4);
+        for (int i = 4; i < 10; i++) {
+            r.pushLast(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, r.get(i));
+        }
+        assertEquals(7, r.set(1, "seven"));
+        assertEquals(Arrays.asList(6, "seven", 8, 9), toList(r));
+    }
+
+    @Test
+    public void getOutOfRange() {
+        RingBuffer r = createHelper(4, 2);
+        thrown.expect(IndexOutOfBoundsException.class);
+        r.get(2);
+    }
+
+    @Test
+    public void removeAtBothEnds() {
+        RingBuffer r = createHelper(4, 4);
+        r.pushLast(4);
+        assertEquals(1, r.removeFirst());
+        assertEquals(4, r.removeLast());
+        assertFalse(r.isFull());
+        assertNull(r.pushFirst(1));
+        assertNull(r.pushLast(4));
+        assertEquals(Arrays.asList(1, 2, 3, 4), toList(r));
+    }
+
+    @Test
+    public void removeOccurrences() {
+        RingBuffer r = new RingBuffer(7);
+        r.pushLast("overwritten");
+        for (Object e : Arrays.asList("x", "a", "x", "b", "x", "c", "x")) {
+            r.pushLast(e);
+        }
+        assertEquals(2, r.remove("x", 2));
+        assertEquals(Arrays.asList("a", "b", "x", "c", "x"), toList(r));
+        assertEquals(2, r.remove("x", 0));
+        assertEquals(Arrays.asList("a", "b", "c"), toList(r));
+        assertEquals(0, r.remove("x", 0));
+    }
+
+    @Test
+    public void trimKeepsTheRange() {
+        RingBuffer r = createHelper(5, 5);
+        r.pushLast(5);
+        r.pushLast(6);
+        r.trim(1, 4);
+        assertEquals(Arrays.asList(3, 4, 5), toList(r));
+        r.pushLast(7);
+        r.pushLast(8);
+        assertEquals(Arrays.asList(3, 4, 5, 7, 8), r.range(0, 5));
+        r.trim(2, 2);
+        assertEquals(0, r.size());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        RingBuffer r = createHelper(3, 3);
+        RingBuffer copy = r.copy();
+        r.pushLast(3);
+        assertEquals(Arrays.asList(0, 1, 2), toList(copy));
+        assertEquals(Arrays.asList(1, 2, 3), toList(r));
+    }
+
+    @Test
+    public void iteratorFailsFast() {
+        RingBuffer r = createHelper(3, 3);
+        Iterator<Object> it = r.iterator();
+        it.next();
+        r.pushLast(3);
+        thrown.expect(ConcurrentModificationException.class);
+        it.next();
+    }
+}
@@ -0,0 +1,265 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class RoaringSetTest {
+    private static RoaringSet createHelper(Object... members) {
+        RoaringSet s = new RoaringSet();
+        for (Object m : members) {
+            s.add(m);
+        }
+        return s;
+    }
+
+    private static RoaringSet rangeHelper(int from, int to, int step) {
+        RoaringSet s = new RoaringSet();
+        for (int i = from; i < to; i += step) {
+            s.add(i);
+        }
+        return s;
+    }
+
+    @Test
+    public void emptySet() {
+        RoaringSet s = new RoaringSet();
+        assertEquals(0, s.size());
+        assertEquals(IntSet.ANY, s.kind());
+        assertFalse(s.contains(1));
+        assertFalse(s.remove(1));
+        assertNull(s.random(new Random()));
+        assertNull(s.removeRandom(new Random()));
+        assertFalse(s.iterator().hasNext());
+    }
+
+    @Test
+    public void fits() {
+        assertTrue(RoaringSet.fits(Integer.MIN_VALUE));
+        assertTrue(RoaringSet.fits(Integer.MAX_VALUE));
+        assertTrue(RoaringSet.fits(42L));
+        assertTrue(RoaringSet.fits("-2147483648"));
+        assertFalse(RoaringSet.fits(1L << 31));
+        assertFalse(RoaringSet.fits("2147483648"));
+        assertFalse(RoaringSet.fits("a"));
+        assertFalse(RoaringSet.fits(1.0));
+    }
+
+    @Test
+    public void membersAreSortedAsSignedInts() {
+        RoaringSet s = createHelper(5, Integer.MAX_VALUE, -3, 70_000, Integer.MIN_VALUE, 0);
+        assertFalse(s.add(5));
+        assertEquals(6, s.size());
+        assertEquals(Arrays.asList(Integer.MIN_VALUE, -3, 0, 5, 70_000, Integer.MAX_VALUE), s.toList());
+        assertEquals(-3, s.get(1));
+        assertEquals(70_000, s.get(4));
+    }
+
+    @Test
+    public void membersKeepTheirKind() {
+        RoaringSet s = createHelper("12", "-7");
+        assertEquals(IntSet.STRINGS, s.kind());
+        assertTrue(s.accepts("3"));
+        assertFalse(s.accepts(3));
+        assertFalse(s.contains(12));
+        assertTrue(s.contains("12"));
+        assertEquals(Arrays.asList("-7", "12"), s.toList());
+        assertTrue(s.remove("-7"));
+        assertTrue(s.remove("12"));
+        // empty again, any kind goes
+        assertTrue(s.accepts(3L));
+        assertTrue(s.add(3L));
+        assertEquals(Arrays.asList(3L), s.toList());
+    }
+
+    @Test
+    public void matchesATreeSet() {
+        Random random = new Random(42);
+        RoaringSet s = new RoaringSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // dense around 0, sparse further, so that containers cross ARRAY_MAX both ways
+            int v = random.nextBoolean() ? random.nextInt(20_000) : random.nextInt();
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(v), s.remove(v));
+            } else {
+                assertEquals(expected.add(v), s.add(v));
+            }
+        }
+        assertEquals(expected.size(), s.size());
+        assertEquals(new ArrayList<>(expected), s.toList());
+        for (int i = 0; i < 1000; i++) {
+            int v = random.nextInt(20_000);
+            assertEquals(expected.contains(v), s.contains(v));
+        }
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < sorted.size(); i += 997) {
+            assertEquals(sorted.get(i), s.get(i));
+        }
+    }
+
+    @Test
+    public void containersShrinkBackToArrays() {
+        RoaringSet s = rangeHelper(0, 8000, 1);
+        long dense = s.weight();
+        for (int i = 0; i < 8000; i += 2) {
+            s.remove(i);
+        }
+        for (int i = 1; i < 8000; i += 4) {
+            s.remove(i);
+        }
+        assertEquals(2000, s.size());
+        assertTrue(s.weight() < dense);
+        assertEquals(3, s.get(0));
+        assertTrue(s.contains(7999));
+    }
+
+    @Test
+    public void optimizeTurnsSequencesIntoRuns() {
+        RoaringSet s = rangeHelper(0, 1_000_000, 1);
+        long before = s.weight();
+        s.optimize();
+        assertTrue(s.weight() * 100 < before);
+        assertEquals(1_000_000, s.size());
+        assertTrue(s.contains(654_321));
+        assertEquals(123_456, s.get(123_456));
+        // a modification turns the run back into a plain container
+        assertTrue(s.remove(500_000));
+        assertTrue(s.add(1_000_000));
+        assertFalse(s.contains(500_000));
+        assertEquals(1_000_000, s.size());
+    }
+
+    @Test
+    public void removeRandomEmptiesTheSet() {
+        Random random = new Random(7);
+        RoaringSet s = rangeHelper(0, 5000, 1);
+        HashSet<Object> removed = new HashSet<>();
+        while (s.size() > 0) {
+            Object m = s.removeRandom(random);
+            assertTrue(removed.add(m));
+        }
+        assertEquals(5000, removed.size());
+        assertNull(s.random(random));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        RoaringSet s = rangeHelper(0, 10_000, 3);
+        RoaringSet copy = s.copy();
+        copy.add(1);
+        s.remove(0);
+        assertTrue(copy.contains(0));
+        assertFalse(s.contains(1));
+        assertEquals(s.size() + 2, copy.size());
+    }
+
+    @Test
+    public void andOrAndNotMatchHashSets() {
+        RoaringSet even = rangeHelper(0, 300_000, 2);
+        RoaringSet third = rangeHelper(100_000, 200_000, 3);
+        third.optimize();
+        RoaringSet run = rangeHelper(150_000, 400_000, 1);
+        run.optimize();
+        List<RoaringSet> sets = Arrays.asList(even, third, run);
+        for (RoaringSet a : sets) {
+            for (RoaringSet b : sets) {
+                HashSet<Object> and = new HashSet<>(a.toList());
+                and.retainAll(new HashSet<>(b.toList()));
+                HashSet<Object> or = new HashSet<>(a.toList());
+                or.addAll(b.toList());
+                HashSet<Object> andNot = new HashSet<>(a.toList());
+                andNot.removeAll(new HashSet<>(b.toList()));
+                assertEquals(and, new HashSet<>(RoaringSet.and(a, b).toList()));
+                assertEquals(and.size(), RoaringSet.and(a, b).size());
+                assertEquals(or, new HashSet<>(RoaringSet.or(a, b).toList()));
+                assertEquals(or.size(), RoaringSet.or(a, b).size());
+                assertEquals(andNot, new HashSet<>(RoaringSet.andNot(a, b).toList()));
+                assertEquals(andNot.size(), RoaringSet.andNot(a, b).size());
+            }
+        }
+    }
+
+    @Test
+    public void andCardinalityMatchesAnd() {
+        RoaringSet even = rangeHelper(0, 300_000, 2);
+        RoaringSet third = rangeHelper(100_000, 200_000, 3);
+        RoaringSet run = rangeHelper(150_000, 400_000, 1);
+        run.optimize();
+        List<RoaringSet> sets = Arrays.asList(even, third, run, new RoaringSet());
+        for (RoaringSet a : sets) {
+            for (RoaringSet b : sets) {
+                assertEquals(RoaringSet.and(a, b).size(), RoaringSet.andCardinality(a, b, 0));
+            }
+        }
+        assertEquals(10, RoaringSet.andCardinality(even, run, 10));
+        assertEquals(0, RoaringSet.andCardinality(even, new RoaringSet(), 10));
+    }
+
+    @Test
+    public void operationsLeaveTheSetsUntouched() {
+        RoaringSet a = rangeHelper(0, 10, 1);
+        RoaringSet b = rangeHelper(5, 15, 1);
+        RoaringSet or = RoaringSet.or(a, b);
+        or.add(100);
+        RoaringSet.andNot(a, b).add(200);
+        assertEquals(10, a.size());
+        assertEquals(10, b.size());
+        assertFalse(a.contains(100));
+        assertFalse(a.contains(200));
+    }
+
+    @Test
+    public void emptyResultsForgetTheKind() {
+        RoaringSet a = createHelper("1", "2");
+        assertEquals(IntSet.ANY, RoaringSet.andNot(a, a).kind());
+        assertEquals(IntSet.ANY, RoaringSet.and(a, createHelper("3")).kind());
+        assertEquals(IntSet.STRINGS, RoaringSet.or(new RoaringSet(), a).kind());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailsFast() {
+        RoaringSet s = createHelper(1, 2, 3);
+        Iterator<Object> it = s.iterator();
+        it.next();
+        s.add(4);
+        it.next();
+    }
+
+    @Test
+    public void scanInIncreasingOrder() {
+        RoaringSet s = rangeHelper(-100_000, 100_000, 3);
+        s.optimize();
+        List<Object> seen = new ArrayList<>();
+        long cursor = 0L;
+        do {
+            cursor = s.scan(cursor, 1000, seen);
+        } while (cursor >= 0L);
+        assertEquals(s.toList(), seen);
+    }
+
+    @Test
+    public void scanResumesAfterChanges() {
+        RoaringSet s = rangeHelper(0, 10_000, 1);
+        List<Object> seen = new ArrayList<>();
+        long cursor = s.scan(0L, 100, seen);
+        assertEquals(100, seen.size());
+        s.remove(100);
+        s.add(-5);
+        cursor = s.scan(cursor, 100, seen);
+        assertEquals(101, seen.get(100));
+        assertEquals(200, seen.size());
+        assertEquals(-1L, s.scan(cursor, 100_000, seen));
+        assertEquals(9999, seen.size());
+        assertEquals(-1L, new RoaringSet().scan(0L, 10, seen));
+    }
+}
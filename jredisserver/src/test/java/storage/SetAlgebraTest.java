@@ -0,0 +1,184 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SetAlgebraTest {
+    private static SetValue createHelper(Object... members) {
+        return new SetValue(Arrays.asList(members));
+    }
+
+    private static SetValue rangeHelper(int from, int to, int step) {
+        SetValue s = new SetValue(0, (to - from) / step);
+        for (int i = from; i < to; i += step) {
+            s.add("member" + i);
+        }
+        return s;
+    }
+
+    @Test
+    public void interOfASingleSet() {
+        SetValue s = createHelper("a", "b", "c");
+        assertEquals(Arrays.asList("a", "b", "c"), SetAlgebra.inter(Collections.singletonList(s)));
+    }
+
+    @Test
+    public void interProbesWithTheSmallestSet() {
+        SetValue large = createHelper("a", "b", "c", "d", "e");
+        SetValue small = createHelper("e", "x", "c");
+        SetValue medium = createHelper("c", "d", "e", "y");
+        // the result follows the order of the smallest set
+        assertEquals(Arrays.asList("e", "c"), SetAlgebra.inter(Arrays.asList(large, small, medium)));
+    }
+
+    @Test
+    public void interLeavesTheSetsUntouched() {
+        SetValue s1 = createHelper("a", "b", "c");
+        SetValue s2 = createHelper("b", "c", "d");
+        SetAlgebra.inter(Arrays.asList(s1, s2));
+        assertEquals(Arrays.asList("a", "b", "c"), s1.toList());
+        assertEquals(Arrays.asList("b", "c", "d"), s2.toList());
+    }
+
+    @Test
+    public void interWithAnEmptySet() {
+        SetValue s = createHelper("a", "b");
+        assertEquals(Collections.emptyList(), SetAlgebra.inter(Arrays.asList(s, createHelper())));
+    }
+
+    @Test
+    public void interOfIntSetsAndIndexedSets() {
+        SetValue ints = createHelper(1, 2, 3, 4);
+        SetValue mixed = createHelper(4, 2, "a");
+        assertTrue(ints.isIntSet());
+        assertFalse(mixed.isIntSet());
+        assertEquals(new HashSet<>(Arrays.asList(2, 4)),
+                     new HashSet<>(SetAlgebra.inter(Arrays.asList(mixed, ints))));
+    }
+
+    @Test
+    public void parallelInterMatchesTheSequentialOne() {
+        int n = SetAlgebra.PARALLEL_THRESHOLD * 4;
+        SetValue even = rangeHelper(0, n, 2);
+        SetValue third = rangeHelper(0, 2 * n, 3);
+        assertTrue(Math.min(even.size(), third.size()) >= SetAlgebra.PARALLEL_THRESHOLD);
+        List<Object> res = SetAlgebra.inter(Arrays.asList(even, third));
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < n; i += 6) {
+            expected.add("member" + i);
+        }
+        assertEquals(expected.size(), res.size());
+        assertEquals(expected, new HashSet<>(res));
+        // in the order of the smallest set, chunks included
+        List<Object> smallest = (even.size() <= third.size() ? even : third).toList();
+        smallest.retainAll(expected);
+        assertEquals(smallest, res);
+    }
+
+    @Test
+    public void interCardMatchesInter() {
+        SetValue large = createHelper("a", "b", "c", "d", "e");
+        SetValue small = createHelper("e", "x", "c");
+        SetValue medium = createHelper("c", "d", "e", "y");
+        assertEquals(2, SetAlgebra.interCard(Arrays.asList(large, small, medium), 0));
+        assertEquals(5, SetAlgebra.interCard(Collections.singletonList(large), 0));
+        assertEquals(0, SetAlgebra.interCard(Arrays.asList(large, createHelper()), 0));
+        assertEquals(2, SetAlgebra.interCard(Arrays.asList(createHelper(4, 2, "a"), createHelper(1, 2, 3, 4)), 0));
+    }
+
+    @Test
+    public void interCardStopsAtTheLimit() {
+        SetValue s1 = createHelper("a", "b", "c", "d");
+        SetValue s2 = createHelper("b", "c", "d", "e");
+        assertEquals(2, SetAlgebra.interCard(Arrays.asList(s1, s2), 2));
+        assertEquals(3, SetAlgebra.interCard(Arrays.asList(s1, s2), 10));
+        assertEquals(1, SetAlgebra.interCard(Collections.singletonList(s1), 1));
+    }
+
+    @Test
+    public void interCardOfBitmaps() {
+        Object[] even = new Object[10_000];
+        Object[] third = new Object[10_000];
+        Object[] fifth = new Object[10_000];
+        for (int i = 0; i < even.length; i++) {
+            even[i] = i * 2;
+            third[i] = i * 3;
+            fifth[i] = i * 5;
+        }
+        List<SetValue> sets = Arrays.asList(createHelper(even), createHelper(third), createHelper(fifth));
+        assertNotNull(sets.get(0).bitmap());
+        assertEquals(SetAlgebra.inter(sets.subList(0, 2)).size(), SetAlgebra.interCard(sets.subList(0, 2), 0));
+        assertEquals(SetAlgebra.inter(sets).size(), SetAlgebra.interCard(sets, 0));
+        assertEquals(100, SetAlgebra.interCard(sets, 100));
+        // a bitmap probed against another kind of set
+        SetValue mixed = createHelper(0, 6, 7, "a");
+        assertEquals(2, SetAlgebra.interCard(Arrays.asList(sets.get(0), sets.get(1), mixed), 0));
+    }
+
+    @Test
+    public void parallelInterCardMatchesInter() {
+        int n = SetAlgebra.PARALLEL_THRESHOLD * 4;
+        List<SetValue> sets = Arrays.asList(rangeHelper(0, n, 2), rangeHelper(0, 2 * n, 3));
+        assertEquals(SetAlgebra.inter(sets).size(), SetAlgebra.interCard(sets, 0));
+        assertEquals(10, SetAlgebra.interCard(sets, 10));
+    }
+
+    @Test
+    public void unionKeepsEachMemberOnce() {
+        SetValue s1 = createHelper("a", "b", "c");
+        SetValue s2 = createHelper("c", "d", "a");
+        SetValue union = SetAlgebra.union(Arrays.asList(s1, s2), SetValue.DEFAULT_MAX_INTSET_ENTRIES);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), union.toList());
+        assertEquals(Arrays.asList("a", "b", "c"), s1.toList());
+        assertEquals(Arrays.asList("c", "d", "a"), s2.toList());
+    }
+
+    @Test
+    public void unionOfNoSets() {
+        assertEquals(0, SetAlgebra.union(Collections.emptyList(), SetValue.DEFAULT_MAX_INTSET_ENTRIES).size());
+    }
+
+    @Test
+    public void unionOfIntSets() {
+        SetValue union = SetAlgebra.union(Arrays.asList(createHelper(3, 1), createHelper(2, 3)),
+                                          SetValue.DEFAULT_MAX_INTSET_ENTRIES);
+        assertTrue(union.isIntSet());
+        assertEquals(Arrays.asList(1, 2, 3), union.toList());
+    }
+
+    @Test
+    public void unionOfLargeSets() {
+        SetValue even = rangeHelper(0, 200_000, 2);
+        SetValue third = rangeHelper(0, 200_000, 3);
+        SetValue union = SetAlgebra.union(Arrays.asList(even, third), 0);
+        // multiples of 2 or 3: 2/3 of the numbers
+        assertEquals(100_000 + 66_667 - 33_334, union.size());
+        assertTrue(union.contains("member9"));
+        assertFalse(union.contains("member7"));
+    }
+
+    @Test
+    public void diffKeepsTheMembersOfTheFirstSetOnly() {
+        SetValue s1 = createHelper("x", "a", "b", "c");
+        SetValue s2 = createHelper("c");
+        SetValue s3 = createHelper("a", "d");
+        SetValue diff = SetAlgebra.diff(s1, Arrays.asList(s2, s3), SetValue.DEFAULT_MAX_INTSET_ENTRIES);
+        assertEquals(Arrays.asList("x", "b"), diff.toList());
+        assertEquals(Arrays.asList("x", "a", "b", "c"), s1.toList());
+    }
+
+    @Test
+    public void diffWithoutOtherSets() {
+        SetValue s = createHelper(1, 2);
+        SetValue diff = SetAlgebra.diff(s, Collections.emptyList(), SetValue.DEFAULT_MAX_INTSET_ENTRIES);
+        assertEquals(Arrays.asList(1, 2), diff.toList());
+        diff.add(3);
+        assertEquals(2, s.size());
+    }
+}
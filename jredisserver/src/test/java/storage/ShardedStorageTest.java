@@ -0,0 +1,334 @@
+package storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ShardedStorageTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final int nbShards = 4;
+
+    private ShardedStorage s;
+
+    @Before
+    public void init() {
+        s = new ShardedStorage(nbShards, 1024L * 1024L);
+    }
+
+    @After
+    public void tearDown() {
+        s.shutdown();
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                      HELPERS                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /* Find a key living in the given shard, different from the excluded one. */
+    private String keyInShard(int shard, String excluded) {
+        for (int i = 0; ; i++) {
+            String key = "key" + i;
+            if (s.shardOf(key) == shard && !key.equals(excluded)) {
+                return key;
+            }
+        }
+    }
+
+    /* Adds the given members to the set at key. */
+    private void saddHelper(String key, Object... members) {
+        for (Object m : members) {
+            s.call(key, st -> st.sadd(key, m));
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS CONSTRUCTOR                                             */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void shardedStorageWithNulNbShards() {
+        thrown.expect(IllegalArgumentException.class);
+        new ShardedStorage(0, 10L);
+    }
+
+    @Test
+    public void shardedStorageWithNulSize() {
+        thrown.expect(IllegalArgumentException.class);
+        new ShardedStorage(2, 0L);
+    }
+
+    @Test
+    public void getNbShards() {
+        assertEquals(nbShards, s.getNbShards());
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS ROUTING                                                 */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void shardOfIsInRange() {
+        for (int i = 0; i < 1000; i++) {
+            int shard = s.shardOf("key" + i);
+            assertTrue(shard >= 0 && shard < nbShards);
+        }
+    }
+
+    @Test
+    public void shardOfIsStable() {
+        assertEquals(s.shardOf("key"), s.shardOf("key"));
+    }
+
+    @Test
+    public void keysAreSpreadOverAllShards() {
+        boolean[] used = new boolean[nbShards];
+        for (int i = 0; i < 1000; i++) {
+            used[s.shardOf("key" + i)] = true;
+        }
+        for (boolean u : used) {
+            assertTrue(u);
+        }
+    }
+
+    @Test
+    public void callRunsOnTheShardThread() {
+        String thread = s.call("key", st -> Thread.currentThread().getName());
+        assertEquals("shard-" + s.shardOf("key"), thread);
+    }
+
+    @Test
+    public void callSeesPreviousWrites() {
+        s.call("key", st -> st.lPush("key", "value"));
+        assertEquals(1, (int) s.call("key", st -> st.llen("key")));
+    }
+
+    @Test
+    public void callPropagatesExceptions() {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("boom");
+        s.call("key", st -> {
+            throw new IllegalStateException("boom");
+        });
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS MULTI-KEY                                               */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void callAllAcrossShards() {
+        String k1 = keyInShard(0, null);
+        String k2 = keyInShard(1, null);
+        saddHelper(k1, "a", "b", "c");
+        saddHelper(k2, "b", "c", "d");
+        String[] keys = {k1, k2};
+        List<Object> inter = s.callAll(keys, st -> st.sinter(keys));
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), new HashSet<>(inter));
+    }
+
+    @Test
+    public void callAllAcrossShardsDoesNotModifyTheSources() {
+        String k1 = keyInShard(0, null);
+        String k2 = keyInShard(1, null);
+        saddHelper(k1, "a", "b", "c");
+        saddHelper(k2, "b");
+        String[] keys = {k1, k2};
+        s.callAll(keys, st -> st.sinter(keys));
+        assertEquals(3, (int) s.call(k1, st -> st.scard(k1)));
+    }
+
+    @Test
+    public void callAllWithAMissingKey() {
+        String k1 = keyInShard(0, null);
+        String k2 = keyInShard(1, null);
+        saddHelper(k1, "a");
+        String[] keys = {k1, k2};
+        assertEquals(1, s.callAll(keys, st -> st.sunion(keys)).size());
+    }
+
+    @Test
+    public void callAllWithWrongType() {
+        String k1 = keyInShard(0, null);
+        String k2 = keyInShard(1, null);
+        saddHelper(k1, "a");
+        s.call(k2, st -> st.lPush(k2, "a"));
+        String[] keys = {k1, k2};
+        assertNull(s.callAll(keys, st -> st.sunion(keys)));
+    }
+
+    @Test
+    public void callAllAndStoreWritesBackTheDestination() {
+        String dst = keyInShard(2, null);
+        String k1 = keyInShard(0, null);
+        String k2 = keyInShard(1, null);
+        saddHelper(k1, "a", "b");
+        saddHelper(k2, "b", "c");
+        String[] keys = {dst, k1, k2};
+        assertEquals(1, (int) s.callAllAndStore(dst, keys, st -> st.sunionstore(keys)));
+        assertEquals(3, (int) s.call(dst, st -> st.scard(dst)));
+    }
+
+    @Test
+    public void callAllAndStoreOnSameShard() {
+        String dst = keyInShard(0, null);
+        String k1 = keyInShard(0, dst);
+        saddHelper(k1, "a", "b");
+        String[] keys = {dst, k1};
+        assertEquals(1, (int) s.callAllAndStore(dst, keys, st -> st.sunionstore(keys)));
+        assertEquals(2, (int) s.call(dst, st -> st.scard(dst)));
+    }
+
+    @Test
+    public void smoveAcrossShards() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        saddHelper(src, "member");
+        assertEquals(1, s.smove(src, dst, "member"));
+        assertEquals(0, (int) s.call(src, st -> st.sismember(src, "member")));
+        assertEquals(1, (int) s.call(dst, st -> st.sismember(dst, "member")));
+    }
+
+    @Test
+    public void smoveAcrossShardsMissingMember() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        saddHelper(src, "member");
+        assertEquals(0, s.smove(src, dst, "other"));
+    }
+
+    @Test
+    public void smoveAcrossShardsDstNotASet() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        saddHelper(src, "member");
+        s.call(dst, st -> st.lPush(dst, "value"));
+        assertEquals(-1, s.smove(src, dst, "member"));
+        assertEquals(1, (int) s.call(src, st -> st.sismember(src, "member")));
+    }
+
+    @Test
+    public void smoveOnSameShard() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(0, src);
+        saddHelper(src, "member");
+        assertEquals(1, s.smove(src, dst, "member"));
+        assertEquals(1, (int) s.call(dst, st -> st.sismember(dst, "member")));
+    }
+
+    @Test
+    public void lmoveAcrossShards() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        s.call(src, st -> st.lPush(src, "a"));
+        s.call(src, st -> st.lPush(src, "b"));
+        assertEquals("a", s.lmove(src, dst, false, true));
+        assertEquals(1, (int) s.call(src, st -> st.llen(src)));
+        assertEquals("a", s.call(dst, st -> st.lPop(dst)));
+    }
+
+    @Test
+    public void lmoveAcrossShardsEmptySource() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        assertNull(s.lmove(src, dst, true, true));
+        assertEquals(0L, s.size());
+    }
+
+    @Test
+    public void lmoveAcrossShardsDstNotAList() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(1, null);
+        s.call(src, st -> st.lPush(src, "a"));
+        saddHelper(dst, "member");
+        assertNull(s.lmove(src, dst, true, true));
+        assertEquals(1, (int) s.call(src, st -> st.llen(src)));
+    }
+
+    @Test
+    public void lmoveOnSameShard() {
+        String src = keyInShard(0, null);
+        String dst = keyInShard(0, src);
+        s.call(src, st -> st.lPush(src, "a"));
+        assertEquals("a", s.lmove(src, dst, true, true));
+        assertEquals(1, (int) s.call(dst, st -> st.llen(dst)));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS SCAN                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void scanWalksEveryShard() {
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = "key" + i;
+            s.call(key, st -> st.sadd(key, 1));
+            expected.add(key);
+        }
+        List<Object> keys = new ArrayList<>();
+        long cursor = 0L;
+        int calls = 0;
+        do {
+            ArrayList<Object> reply = s.scan(cursor, "key*", 50);
+            cursor = (Long) reply.get(0);
+            keys.addAll((List<Object>) reply.get(1));
+            calls++;
+        } while (cursor != 0L);
+        assertEquals(expected, new HashSet<>(keys));
+        assertEquals(expected.size(), keys.size());
+        assertTrue(calls > nbShards);
+    }
+
+    @Test
+    public void scanInvalidCursor() {
+        thrown.expect(IllegalArgumentException.class);
+        s.scan(nbShards * KeySpace.CURSORS, null, 10);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS EXPIRATION                                              */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void expireCycleRunsOnEveryShard() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            String key = "key" + i;
+            s.call(key, st -> st.lPush(key, "value"));
+            s.call(key, st -> st.expireAt(key, System.currentTimeMillis() + 20L));
+        }
+        assertEquals(20L, s.getVolatileKeys());
+        Thread.sleep(50L);
+        s.expireCycle(1000);
+        // the cycles are queued after the sleep, wait for them through a call to every shard
+        for (int i = 0; i < nbShards; i++) {
+            s.call(keyInShard(i, null), st -> null);
+        }
+        assertEquals(0L, s.size());
+        assertEquals(0L, s.getVolatileKeys());
+        assertEquals(20L, s.getExpirations());
+    }
+}
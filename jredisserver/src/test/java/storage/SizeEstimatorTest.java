@@ -0,0 +1,141 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class SizeEstimatorTest {
+    @Test
+    public void alignRoundsUpToEight() {
+        assertEquals(0L, SizeEstimator.align(0L));
+        assertEquals(8L, SizeEstimator.align(1L));
+        assertEquals(16L, SizeEstimator.align(16L));
+        assertEquals(24L, SizeEstimator.align(17L));
+    }
+
+    @Test
+    public void emptyString() {
+        assertEquals(24L + 16L, SizeEstimator.sizeOf(""));
+    }
+
+    @Test
+    public void stringGrowsWithItsLength() {
+        assertEquals(24L + 24L, SizeEstimator.sizeOf("abcd"));
+        assertTrue(SizeEstimator.sizeOf("a longer string") > SizeEstimator.sizeOf("abcd"));
+    }
+
+    @Test
+    public void boxedNumbers() {
+        assertEquals(16L, SizeEstimator.sizeOf((Object) 42));
+        assertEquals(24L, SizeEstimator.sizeOf((Object) 42L));
+        assertEquals(24L, SizeEstimator.sizeOf((Object) 4.2));
+    }
+
+    @Test
+    public void unknownObject() {
+        assertEquals(SizeEstimator.DEFAULT_SIZE, SizeEstimator.sizeOf(new Object()));
+        assertEquals(SizeEstimator.DEFAULT_SIZE, SizeEstimator.sizeOf((Object) null));
+    }
+
+    @Test
+    public void emptyCollections() {
+        assertEquals(SizeEstimator.LIST_OVERHEAD, SizeEstimator.sizeOf(new ArrayList<>()));
+        assertEquals(SizeEstimator.SET_OVERHEAD, SizeEstimator.sizeOf(new HashSet<>()));
+    }
+
+    @Test
+    public void listIsTheSumOfItsElements() {
+        ArrayList<Object> list = new ArrayList<>(Arrays.asList("a", 1, "bc"));
+        assertEquals(SizeEstimator.LIST_OVERHEAD
+                     + SizeEstimator.sizeOfListElement("a")
+                     + SizeEstimator.sizeOfListElement(1)
+                     + SizeEstimator.sizeOfListElement("bc"),
+                     SizeEstimator.sizeOf(list));
+    }
+
+    @Test
+    public void setIsTheSumOfItsMembers() {
+        HashSet<Object> set = new HashSet<>(Arrays.asList("a", 1, "bc"));
+        assertEquals(SizeEstimator.SET_OVERHEAD
+                     + SizeEstimator.sizeOfSetMember("a")
+                     + SizeEstimator.sizeOfSetMember(1)
+                     + SizeEstimator.sizeOfSetMember("bc"),
+                     SizeEstimator.sizeOf(set));
+    }
+
+    @Test
+    public void setMembersCostMoreThanListElements() {
+        assertTrue(SizeEstimator.sizeOfSetMember("a") > SizeEstimator.sizeOfListElement("a"));
+    }
+
+    @Test
+    public void valuesIncludeTheirWrapper() {
+        assertEquals(SizeEstimator.VALUE_HEADER + SizeEstimator.sizeOf("value"),
+                     SizeEstimator.sizeOf(new StringValue("value")));
+        assertEquals(SizeEstimator.NUMBER_VALUE, SizeEstimator.sizeOf(new IntegerValue(42L)));
+        assertEquals(SizeEstimator.NUMBER_VALUE, SizeEstimator.sizeOf(new FloatValue(4.2)));
+        ArrayList<Object> list = new ArrayList<>(Arrays.asList("a", 1));
+        ListValue unpacked = new ListValue(0, 0);
+        unpacked.addLast("a");
+        unpacked.addLast(1);
+        assertEquals(SizeEstimator.LIST_VALUE + SizeEstimator.sizeOf(list), SizeEstimator.sizeOf(unpacked));
+        assertEquals(SizeEstimator.LIST_VALUE + SizeEstimator.LIST_PACK_OVERHEAD + SizeEstimator.ARRAY_HEADER + 16,
+                     SizeEstimator.sizeOf(new ListValue(list)));
+        HashSet<Object> set = new HashSet<>(Arrays.asList("a", 1));
+        assertEquals(SizeEstimator.SET_VALUE + SizeEstimator.sizeOf(set), SizeEstimator.sizeOf(new SetValue(set)));
+        HashSet<Object> ints = new HashSet<>(Arrays.asList(1, 2));
+        assertEquals(SizeEstimator.SET_VALUE + SizeEstimator.INT_SET_OVERHEAD + SizeEstimator.ARRAY_HEADER + 8,
+                     SizeEstimator.sizeOf(new SetValue(ints)));
+    }
+
+    @Test
+    public void zsetIsTheSumOfItsMembers() {
+        ZSetValue zset = new ZSetValue();
+        assertEquals(SizeEstimator.ZSET_VALUE + SizeEstimator.ZSET_OVERHEAD, SizeEstimator.sizeOf(zset));
+        zset.add(1.0, "a");
+        zset.add(2.0, 1);
+        zset.add(3.0, "a");
+        assertEquals(SizeEstimator.ZSET_VALUE + SizeEstimator.ZSET_OVERHEAD
+                     + SizeEstimator.sizeOfZSetMember("a")
+                     + SizeEstimator.sizeOfZSetMember(1),
+                     SizeEstimator.sizeOf(zset));
+        zset.remove("a");
+        assertEquals(SizeEstimator.ZSET_VALUE + SizeEstimator.ZSET_OVERHEAD + SizeEstimator.sizeOfZSetMember(1),
+                     SizeEstimator.sizeOf(zset));
+    }
+
+    @Test
+    public void hashIsTheSumOfItsFields() {
+        HashValue hash = new HashValue(0, 0);
+        long empty = SizeEstimator.sizeOf(hash);
+        assertEquals(SizeEstimator.HASH_VALUE + SizeEstimator.HASH_OVERHEAD, empty);
+        hash.put("a", "value");
+        hash.put(1, 2L);
+        hash.put("a", "other value");
+        assertEquals(empty + 2 * SizeEstimator.HASH_SLOT + SizeEstimator.sizeOfHashEntry("a", "other value")
+                     + SizeEstimator.sizeOfHashEntry(1, 2L),
+                     SizeEstimator.sizeOf(hash));
+        hash.remove("a");
+        assertEquals(empty + SizeEstimator.HASH_SLOT + SizeEstimator.sizeOfHashEntry(1, 2L),
+                     SizeEstimator.sizeOf(hash));
+    }
+
+    @Test
+    public void bitmapIsItsArrayOfWords() {
+        BitmapValue bitmap = new BitmapValue();
+        assertEquals(SizeEstimator.BITMAP_VALUE + SizeEstimator.ARRAY_HEADER, SizeEstimator.sizeOf(bitmap));
+        bitmap.set(1000, 1);
+        assertEquals(SizeEstimator.BITMAP_VALUE + SizeEstimator.ARRAY_HEADER + 16 * 8, SizeEstimator.sizeOf(bitmap));
+    }
+
+    @Test
+    public void entryIncludesKeyAndValue() {
+        assertEquals(SizeEstimator.ENTRY_OVERHEAD + SizeEstimator.sizeOf("key")
+                     + SizeEstimator.sizeOf(new StringValue("value")),
+                     SizeEstimator.sizeOfEntry("key", "value"));
+    }
+}
@@ -0,0 +1,178 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SkipListTest {
+    private static List<Object> membersHelper(SkipList l) {
+        List<Object> res = new ArrayList<>();
+        for (SkipList.Node n = l.first(); n != null; n = n.next()) {
+            res.add(n.member);
+        }
+        return res;
+    }
+
+    private static List<Object> backwardsHelper(SkipList l) {
+        List<Object> res = new ArrayList<>();
+        for (SkipList.Node n = l.last(); n != null; n = n.backward) {
+            res.add(n.member);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    @Test
+    public void emptyList() {
+        SkipList l = new SkipList();
+        assertEquals(0, l.size());
+        assertNull(l.first());
+        assertNull(l.last());
+        assertNull(l.nodeAt(0));
+        assertEquals(-1, l.rank(1.0, "a"));
+        assertEquals(0, l.countBelow(Double.POSITIVE_INFINITY));
+        assertFalse(l.delete(1.0, "a"));
+    }
+
+    @Test
+    public void orderedByScoreThenMember() {
+        SkipList l = new SkipList();
+        l.insert(2.0, "b");
+        l.insert(1.0, "z");
+        l.insert(2.0, "a");
+        l.insert(Double.NEGATIVE_INFINITY, "low");
+        l.insert(Double.POSITIVE_INFINITY, "high");
+        assertEquals(Arrays.asList("low", "z", "a", "b", "high"), membersHelper(l));
+        assertEquals(membersHelper(l), backwardsHelper(l));
+        assertEquals(5, l.size());
+    }
+
+    @Test
+    public void compareMembers() {
+        assertTrue(SkipList.compare("a", "b") < 0);
+        assertTrue(SkipList.compare("b", "a") > 0);
+        assertEquals(0, SkipList.compare("a", "a"));
+        assertTrue(SkipList.compare(10, 9) < 0);
+        // the same string form, but two different members
+        assertNotEquals(0, SkipList.compare(1, "1"));
+        assertEquals(-SkipList.compare(1, "1"), SkipList.compare("1", 1));
+    }
+
+    @Test
+    public void rankAndNodeAt() {
+        SkipList l = new SkipList();
+        for (int i = 0; i < 1000; i++) {
+            l.insert(i * 2, "m" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, l.rank(i * 2, "m" + i));
+            assertEquals("m" + i, l.nodeAt(i).member);
+        }
+        assertEquals(-1, l.rank(3.0, "m1"));
+        assertEquals(-1, l.rank(2.0, "absent"));
+        assertNull(l.nodeAt(-1));
+        assertNull(l.nodeAt(1000));
+    }
+
+    @Test
+    public void countBelow() {
+        SkipList l = new SkipList();
+        for (int i = 0; i < 100; i++) {
+            l.insert(i, "m" + i);
+        }
+        assertEquals(0, l.countBelow(Double.NEGATIVE_INFINITY));
+        assertEquals(0, l.countBelow(0.0));
+        assertEquals(1, l.countBelow(0.5));
+        assertEquals(50, l.countBelow(50.0));
+        assertEquals(100, l.countBelow(100.0));
+    }
+
+    @Test
+    public void deleteKeepsTheRanks() {
+        SkipList l = new SkipList();
+        for (int i = 0; i < 1000; i++) {
+            l.insert(i, "m" + i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(l.delete(i, "m" + i));
+        }
+        assertFalse(l.delete(0, "m0"));
+        assertFalse(l.delete(2.0, "m1"));
+        assertEquals(500, l.size());
+        for (int i = 1; i < 1000; i += 2) {
+            assertEquals(i / 2, l.rank(i, "m" + i));
+            assertEquals("m" + i, l.nodeAt(i / 2).member);
+        }
+        assertEquals(membersHelper(l), backwardsHelper(l));
+        for (int i = 1; i < 1000; i += 2) {
+            assertTrue(l.delete(i, "m" + i));
+        }
+        assertEquals(0, l.size());
+        assertNull(l.first());
+        assertNull(l.last());
+    }
+
+    @Test
+    public void updateMovesTheMember() {
+        SkipList l = new SkipList();
+        l.insert(1.0, "a");
+        l.insert(2.0, "b");
+        l.insert(3.0, "c");
+        // in place
+        l.update(2.0, "b", 2.5);
+        assertEquals(1, l.rank(2.5, "b"));
+        assertEquals(2.5, l.nodeAt(1).score, 0.0);
+        // moved
+        l.update(1.0, "a", 4.0);
+        assertEquals(Arrays.asList("b", "c", "a"), membersHelper(l));
+        assertEquals(2, l.rank(4.0, "a"));
+        assertEquals(-1, l.rank(1.0, "a"));
+        // tied with another member, ordered by member
+        l.update(4.0, "a", 3.0);
+        assertEquals(Arrays.asList("b", "a", "c"), membersHelper(l));
+        assertEquals(membersHelper(l), backwardsHelper(l));
+    }
+
+    @Test
+    public void randomOperationsMatchASortedList() {
+        Random random = new Random(42);
+        SkipList l = new SkipList();
+        Map<Object, Double> scores = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String member = "m" + random.nextInt(2000);
+            double score = random.nextInt(100);
+            Double old = scores.get(member);
+            int op = random.nextInt(3);
+            if (old == null) {
+                l.insert(score, member);
+                scores.put(member, score);
+            } else if (op == 0) {
+                assertTrue(l.delete(old, member));
+                scores.remove(member);
+            } else {
+                l.update(old, member, score);
+                scores.put(member, score);
+            }
+        }
+        List<Object> expected = new ArrayList<>(scores.keySet());
+        expected.sort((a, b) -> {
+            int c = Double.compare(scores.get(a), scores.get(b));
+            return c != 0 ? c : SkipList.compare(a, b);
+        });
+        assertEquals(expected, membersHelper(l));
+        assertEquals(expected, backwardsHelper(l));
+        for (int i = 0; i < expected.size(); i++) {
+            Object m = expected.get(i);
+            assertEquals(i, l.rank(scores.get(m), m));
+            assertEquals(m, l.nodeAt(i).member);
+        }
+    }
+}
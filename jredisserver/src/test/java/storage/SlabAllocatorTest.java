@@ -0,0 +1,88 @@
+package storage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SlabAllocatorTest {
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static byte[] bytes(int length, int fill) {
+        byte[] b = new byte[length];
+        Arrays.fill(b, (byte) fill);
+        return b;
+    }
+
+    @Test
+    public void invalidMaxBytes() {
+        thrown.expect(IllegalArgumentException.class);
+        new SlabAllocator(0L);
+    }
+
+    @Test
+    public void maxBytesIsRoundedUpToWholeSlabs() {
+        assertEquals(SlabAllocator.SLAB_SIZE, new SlabAllocator(1L).getMaxBytes());
+        assertEquals(2L * SlabAllocator.SLAB_SIZE, new SlabAllocator(SlabAllocator.SLAB_SIZE + 1L).getMaxBytes());
+    }
+
+    @Test
+    public void chunkSizes() {
+        SlabAllocator slabs = new SlabAllocator(1L);
+        assertEquals(SlabAllocator.MIN_CHUNK_SIZE, slabs.chunkSizeFor(1));
+        assertEquals(SlabAllocator.MIN_CHUNK_SIZE, slabs.chunkSizeFor(SlabAllocator.MIN_CHUNK_SIZE));
+        for (int length = 1; length <= SlabAllocator.SLAB_SIZE; length = length * 3 / 2 + 1) {
+            int chunk = slabs.chunkSizeFor(length);
+            assertTrue(chunk >= length);
+            assertTrue(chunk <= length * SlabAllocator.GROWTH_FACTOR + SlabAllocator.MIN_CHUNK_SIZE);
+            assertEquals(0, chunk % 8);
+        }
+        assertEquals(SlabAllocator.SLAB_SIZE, slabs.chunkSizeFor(SlabAllocator.SLAB_SIZE));
+        assertEquals(-1, slabs.chunkSizeFor(SlabAllocator.SLAB_SIZE + 1));
+    }
+
+    @Test
+    public void allocateThenRead() {
+        SlabAllocator slabs = new SlabAllocator(2L * SlabAllocator.SLAB_SIZE);
+        long h1 = slabs.allocate(bytes(100, 1));
+        long h2 = slabs.allocate(bytes(100, 2));
+        long h3 = slabs.allocate(bytes(5000, 3));
+        assertArrayEquals(bytes(100, 1), slabs.read(h1, 100));
+        assertArrayEquals(bytes(100, 2), slabs.read(h2, 100));
+        assertArrayEquals(bytes(5000, 3), slabs.read(h3, 5000));
+        assertEquals(2L * slabs.chunkSizeFor(100) + slabs.chunkSizeFor(5000), slabs.getUsedBytes());
+        assertEquals(2L * SlabAllocator.SLAB_SIZE, slabs.getReservedBytes());
+    }
+
+    @Test
+    public void allocateTooBig() {
+        assertEquals(-1L, new SlabAllocator(1L).allocate(new byte[SlabAllocator.SLAB_SIZE + 1]));
+    }
+
+    @Test
+    public void freedChunksAreReused() {
+        SlabAllocator slabs = new SlabAllocator(1L);
+        long h = slabs.allocate(bytes(100, 1));
+        slabs.free(h);
+        assertEquals(0L, slabs.getUsedBytes());
+        assertEquals(h, slabs.allocate(bytes(90, 2)));
+        assertArrayEquals(bytes(90, 2), slabs.read(h, 90));
+    }
+
+    @Test
+    public void fullAllocator() {
+        SlabAllocator slabs = new SlabAllocator(1L);
+        byte[] value = bytes(SlabAllocator.SLAB_SIZE / 2 + 1, 1);
+        long h = slabs.allocate(value);
+        assertNotEquals(-1L, h);
+        assertEquals(-1L, slabs.allocate(value));
+        // the only slab belongs to the class of the big chunks
+        assertEquals(-1L, slabs.allocate(new byte[1]));
+        slabs.free(h);
+        assertEquals(h, slabs.allocate(value));
+    }
+}
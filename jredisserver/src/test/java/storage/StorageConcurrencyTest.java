@@ -0,0 +1,169 @@
+package storage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class StorageConcurrencyTest {
+    /* Big enough so that nothing gets evicted during the tests. */
+    private final long storageSize = 100_000L;
+
+    /* Number of operations done by each thread. */
+    private final int nbOpsPerThread = 20_000;
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                      HELPERS                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /* Runs the given task on nbThreads threads, all of them starting at the same time. Fails if the threads did not
+     * all finish within the timeout (e.g because of a deadlock). */
+    private void runConcurrently(int nbThreads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        CyclicBarrier start = new CyclicBarrier(nbThreads + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            int id = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(id);
+                return null;
+            }));
+        }
+        start.await();
+        try {
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } catch (TimeoutException e) {
+            fail("The threads did not finish in time, most likely a deadlock.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /* A task run by one thread, id going from 0 to nbThreads - 1. */
+    private interface ThreadTask {
+        void run(int id) throws Exception;
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS CORRECTNESS                                             */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void concurrentPushesOnSameKeyAreNotLost() throws Exception {
+        Storage s = new Storage(storageSize);
+        int nbThreads = 8;
+        runConcurrently(nbThreads, id -> {
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                s.lPush("key", id + ":" + i);
+            }
+        });
+        assertEquals(nbThreads * nbOpsPerThread, s.llen("key"));
+    }
+
+    @Test
+    public void concurrentSaddOnDifferentKeysAreNotLost() throws Exception {
+        Storage s = new Storage(storageSize);
+        int nbThreads = 8;
+        runConcurrently(nbThreads, id -> {
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                s.sadd("key" + id, i);
+            }
+        });
+        for (int t = 0; t < nbThreads; t++) {
+            assertEquals(nbOpsPerThread, s.scard("key" + t));
+        }
+    }
+
+    @Test
+    public void concurrentHincrbyOnSameFieldAreNotLost() throws Exception {
+        Storage s = new Storage(storageSize);
+        int nbThreads = 8;
+        runConcurrently(nbThreads, id -> {
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                s.hincrby("key", "counter", 1L);
+                s.hincrby("key", "field" + id, 1L);
+            }
+        });
+        assertEquals((long) nbThreads * nbOpsPerThread, s.hget("key", "counter"));
+        assertEquals(nbThreads + 1, s.hlen("key"));
+    }
+
+    @Test
+    public void concurrentSetbitInTheSameWordAreNotLost() throws Exception {
+        Storage s = new Storage(storageSize);
+        int nbThreads = 8;
+        runConcurrently(nbThreads, id -> {
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                // every thread sets its own bits, interleaved in the same words and growing the bitmap
+                s.setbit("key", (long) i * nbThreads + id, 1);
+            }
+        });
+        assertEquals((long) nbThreads * nbOpsPerThread, s.bitcount("key"));
+    }
+
+    @Test
+    public void smoveInOppositeDirectionsDoesNotDeadlockNorLoseMembers() throws Exception {
+        Storage s = new Storage(storageSize);
+        int nbMembers = 1000;
+        for (int i = 0; i < nbMembers; i++) {
+            s.sadd("a", i);
+            s.sadd("b", -i - 1);
+        }
+        runConcurrently(8, id -> {
+            String src = id % 2 == 0 ? "a" : "b";
+            String dst = id % 2 == 0 ? "b" : "a";
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                s.smove(src, dst, (i % (2 * nbMembers)) - nbMembers);
+            }
+        });
+        assertEquals(2 * nbMembers, s.scard("a") + s.scard("b"));
+    }
+
+    @Test
+    public void multiKeyCommandsWithReversedKeysDoNotDeadlock() throws Exception {
+        Storage s = new Storage(storageSize);
+        for (int i = 0; i < 100; i++) {
+            s.sadd("x", i);
+            s.sadd("y", i);
+            s.sadd("z", i);
+        }
+        runConcurrently(8, id -> {
+            String[] keys = id % 2 == 0 ? new String[]{"x", "y", "z"} : new String[]{"z", "y", "x"};
+            for (int i = 0; i < 200; i++) {
+                s.sunionstore(keys);
+                s.sdiffstore(keys);
+                s.sadd(keys[1], i);
+            }
+        });
+    }
+
+    @Test
+    public void threadsOnTheirOwnKeysDoNotInterfere() throws Exception {
+        // the throughput of the same workload is measured by benchmark.StorageScalingBenchmark
+        Storage s = new Storage(storageSize);
+        int nbThreads = 8;
+        runConcurrently(nbThreads, id -> {
+            for (int i = 0; i < nbOpsPerThread; i++) {
+                String key = "key" + id + ":" + (i % 64);
+                s.sadd(key, i);
+                assertEquals(1, s.sismember(key, i));
+                s.lPush(key + ":list", i);
+                s.lPop(key + ":list");
+            }
+        });
+        for (int t = 0; t < nbThreads; t++) {
+            assertEquals((nbOpsPerThread + 63) / 64, s.scard("key" + t + ":0"));
+            assertEquals(0, s.llen("key" + t + ":0:list"));
+        }
+    }
+}
@@ -4,11 +4,18 @@ import org.hamcrest.CoreMatchers;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import storage.eviction.EvictionPolicy;
+import storage.eviction.LfuPolicy;
+import storage.eviction.LruPolicy;
+import storage.eviction.TinyLfuPolicy;
 import storage.exceptions.DuplicatedKeyException;
 import storage.exceptions.KeyException;
 import storage.exceptions.NonExistentKeyException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
@@ -54,6 +61,16 @@ public class StorageTest {
         }
     }
 
+    /* Asserts that the used memory of the storage is the sum of the estimated size of its keys and values, i.e that it
+     * has been kept up to date by the operations done so far. */
+    private void usedMemoryHelper(Storage s) {
+        long expected = 0L;
+        for (String key : s.getCache().keySet()) {
+            expected += SizeEstimator.sizeOfEntry(key, s.valueOf(key));
+        }
+        assertEquals(expected, s.getUsedMemory());
+    }
+
     /* Matcher for the duplicate key exception. */
     private org.hamcrest.Matcher<String> matcherDuplicateKeyHelper() {
         return CoreMatchers.allOf(
@@ -178,6 +195,413 @@ public class StorageTest {
         s.get("not_used_key");
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void getReturnsACopyOfLists() throws KeyException {
+        Storage s = new Storage();
+        s.rPush("key", "value");
+        ((ArrayList<Object>) s.get("key")).add("other");
+        assertEquals(1, s.llen("key"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS BYTES                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void setBytesThenGetBytes() throws KeyException {
+        Storage s = new Storage();
+        byte[] value = {0, -1, 'a', '\r', '\n'};
+        s.set("key", value);
+        assertArrayEquals(value, s.getBytes("key"));
+    }
+
+    @Test
+    public void setBytesKeepsACopy() throws KeyException {
+        Storage s = new Storage();
+        byte[] value = {'a', 'b'};
+        s.set("key", value);
+        value[0] = 'z';
+        s.getBytes("key")[1] = 'z';
+        assertArrayEquals(new byte[] {'a', 'b'}, s.getBytes("key"));
+    }
+
+    @Test
+    public void setBytesOverwrites() throws KeyException {
+        Storage s = new Storage();
+        s.rPush("key", "value");
+        s.set("key", new byte[] {'a'});
+        assertEquals("string", s.type("key"));
+    }
+
+    @Test
+    public void setBytesOfAnInteger() throws KeyException {
+        Storage s = new Storage();
+        s.set("key", "-42".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(-42, s.get("key"));
+        assertEquals(-41L, s.incrBy("key", 1L));
+        assertArrayEquals("-41".getBytes(StandardCharsets.US_ASCII), s.getBytes("key"));
+    }
+
+    @Test
+    public void setBytesOfABigIntegerCanBeIncremented() {
+        Storage s = new Storage();
+        s.set("key", "10000000000".getBytes(StandardCharsets.US_ASCII));
+        assertEquals("string", s.type("key"));
+        assertEquals(10000000001L, s.incrBy("key", 1L));
+    }
+
+    @Test
+    public void setBytesOfANonCanonicalIntegerRoundTrips() throws KeyException {
+        Storage s = new Storage();
+        for (String value : new String[] {"007", "+5", "-0"}) {
+            s.set("key", value.getBytes(StandardCharsets.US_ASCII));
+            assertEquals("string", s.type("key"));
+            assertArrayEquals(value.getBytes(StandardCharsets.US_ASCII), s.getBytes("key"));
+        }
+    }
+
+    @Test
+    public void getBytesOfAString() throws KeyException {
+        Storage s = new Storage();
+        s.store("key", "valeur \u00e9");
+        assertArrayEquals("valeur \u00e9".getBytes(StandardCharsets.UTF_8), s.getBytes("key"));
+    }
+
+    @Test
+    public void getBytesOfAList() throws KeyException {
+        Storage s = new Storage();
+        s.rPush("key", "value");
+        assertNull(s.getBytes("key"));
+    }
+
+    @Test
+    public void getBytesOfNonExistingKey() throws KeyException {
+        thrown.expect(NonExistentKeyException.class);
+        new Storage().getBytes("key");
+    }
+
+    @Test
+    public void bytesWeighLessThanStrings() throws DuplicatedKeyException {
+        String value = "An ASCII string that takes some room.";
+        Storage strings = new Storage();
+        strings.store("key", value);
+        Storage bytes = new Storage();
+        bytes.set("key", value.getBytes(StandardCharsets.US_ASCII));
+        assertTrue(bytes.getUsedMemory() < strings.getUsedMemory());
+    }
+
+    @Test
+    public void keyOfUtf8IsTheDecodedString() {
+        assertEquals("key", Storage.keyOf("key".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("cl\u00e9", Storage.keyOf("cl\u00e9".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void keyOfInvalidUtf8IsDistinct() {
+        String k1 = Storage.keyOf(new byte[] {(byte) 0xE9});
+        String k2 = Storage.keyOf(new byte[] {(byte) 0xE8});
+        assertNotEquals(k1, k2);
+        assertNotEquals("\u00e9", k1);
+        assertEquals(Storage.BINARY_KEY_PREFIX, k1.charAt(0));
+    }
+
+    @Test
+    public void keyOfInvalidUtf8DoesNotCollideWithThePrefixInUtf8() throws KeyException {
+        byte[] invalid = {(byte) 0xE9};
+        byte[] prefixed = {(byte) 0xEF, (byte) 0xBF, (byte) 0xBF, (byte) 0xC3, (byte) 0xA9};
+        assertNotEquals(Storage.keyOf(invalid), Storage.keyOf(prefixed));
+        Storage s = new Storage();
+        s.set(Storage.keyOf(invalid), new byte[] {'a'});
+        s.set(Storage.keyOf(prefixed), new byte[] {'b'});
+        assertArrayEquals(new byte[] {'a'}, s.getBytes(Storage.keyOf(invalid)));
+        assertArrayEquals(new byte[] {'b'}, s.getBytes(Storage.keyOf(prefixed)));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS OFF-HEAP                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private static byte[] bigValueHelper(int fill) {
+        byte[] value = new byte[1000];
+        Arrays.fill(value, (byte) ('a' + fill));
+        return value;
+    }
+
+    private Storage createOffHeapStorageHelper() {
+        Storage s = new Storage();
+        s.setMaxOffHeap(1024L * 1024L);
+        return s;
+    }
+
+    @Test
+    public void withoutOffHeap() {
+        Storage s = new Storage();
+        s.set("key", bigValueHelper(0));
+        assertEquals(0L, s.getMaxOffHeap());
+        assertEquals(0L, s.getUsedOffHeap());
+    }
+
+    @Test
+    public void bigStringsAreKeptOffHeap() throws KeyException {
+        Storage s = createOffHeapStorageHelper();
+        s.set("key", bigValueHelper(0));
+        assertTrue(s.getUsedOffHeap() >= 1000L);
+        assertArrayEquals(bigValueHelper(0), s.getBytes("key"));
+        assertArrayEquals(bigValueHelper(0), (byte[]) s.get("key"));
+        assertEquals("string", s.type("key"));
+    }
+
+    @Test
+    public void smallStringsAreKeptOnTheHeap() {
+        Storage s = createOffHeapStorageHelper();
+        s.set("key", new byte[] {'a', 'b'});
+        s.set("int", "42".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0L, s.getUsedOffHeap());
+    }
+
+    @Test
+    public void offHeapStringsWeighLessOnTheHeap() {
+        Storage heap = new Storage();
+        heap.set("key", bigValueHelper(0));
+        Storage offHeap = createOffHeapStorageHelper();
+        offHeap.set("key", bigValueHelper(0));
+        assertTrue(offHeap.getUsedMemory() < heap.getUsedMemory() - 900L);
+    }
+
+    @Test
+    public void removeFreesTheChunk() throws KeyException {
+        Storage s = createOffHeapStorageHelper();
+        s.set("key", bigValueHelper(0));
+        s.remove("key");
+        assertEquals(0L, s.getUsedOffHeap());
+    }
+
+    @Test
+    public void overwriteFreesTheChunk() throws KeyException {
+        Storage s = createOffHeapStorageHelper();
+        s.set("key", bigValueHelper(0));
+        long used = s.getUsedOffHeap();
+        s.set("key", bigValueHelper(1));
+        assertEquals(used, s.getUsedOffHeap());
+        assertArrayEquals(bigValueHelper(1), s.getBytes("key"));
+        s.replace("key", "small");
+        assertEquals(0L, s.getUsedOffHeap());
+    }
+
+    @Test
+    public void fullOffHeapEvictsKeys() throws KeyException {
+        Storage s = createOffHeapStorageHelper();
+        byte[] value = new byte[SlabAllocator.SLAB_SIZE / 3];
+        for (int i = 0; i < 10; i++) {
+            value[0] = (byte) i;
+            s.set("key" + i, value);
+        }
+        assertTrue(s.getUsedOffHeap() <= s.getMaxOffHeap());
+        assertArrayEquals(value, s.getBytes("key9"));
+        assertEquals("none", s.type("key0"));
+    }
+
+    @Test
+    public void copiesOutliveTheChunk() throws KeyException {
+        Storage s = createOffHeapStorageHelper();
+        s.set("key", bigValueHelper(0));
+        byte[] value = (byte[]) s.get("key");
+        s.remove("key");
+        s.set("other", bigValueHelper(1));
+        assertArrayEquals(bigValueHelper(0), value);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS TYPE                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void typeOfEachValue() throws KeyException {
+        Storage s = new Storage();
+        s.store("string", "value");
+        s.store("integer", "42");
+        s.incrByFloat("float", 1.5);
+        s.rPush("list", "value");
+        s.sadd("set", "value");
+        s.zadd("zset", 1.0, "value");
+        s.hset("hash", "field", "value");
+        s.setbit("bitmap", 0, 1);
+        assertEquals("string", s.type("string"));
+        assertEquals("integer", s.type("integer"));
+        assertEquals("float", s.type("float"));
+        assertEquals("list", s.type("list"));
+        assertEquals("set", s.type("set"));
+        assertEquals("zset", s.type("zset"));
+        assertEquals("hash", s.type("hash"));
+        assertEquals("bitmap", s.type("bitmap"));
+        assertEquals("none", s.type("not_used_key"));
+    }
+
+    @Test
+    public void typeFollowsIncrements() {
+        Storage s = new Storage();
+        s.incrByFloat("key", 2.0);
+        s.incrBy("key", 1L);
+        assertEquals("integer", s.type("key"));
+        s.incrByFloat("key", 0.5);
+        assertEquals("float", s.type("key"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS SCAN                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /* Walks all the keys with SCAN. */
+    @SuppressWarnings("unchecked")
+    private List<Object> scanHelper(Storage s, String pattern, int count) {
+        List<Object> res = new ArrayList<>();
+        long cursor = 0L;
+        do {
+            ArrayList<Object> reply = s.scan(cursor, pattern, count);
+            cursor = (Long) reply.get(0);
+            res.addAll((List<Object>) reply.get(1));
+        } while (cursor != 0L);
+        return res;
+    }
+
+    @Test
+    public void scanEmptyStorage() {
+        Storage s = new Storage();
+        assertEquals(Arrays.asList(0L, new ArrayList<>()), s.scan(0L, null, 10));
+    }
+
+    @Test
+    public void scanReturnsAllKeys() {
+        Storage s = new Storage(10_000L);
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            s.sadd("key" + i, i);
+            expected.add("key" + i);
+        }
+        List<Object> keys = scanHelper(s, null, 100);
+        assertEquals(expected, new HashSet<>(keys));
+        assertEquals(expected.size(), keys.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void scanReturnsBoundedBatches() {
+        // 10 times more keys than segments times count, so that each batch is a small part of a segment
+        Storage s = new Storage(200_000L);
+        HashSet<Object> expected = new HashSet<>();
+        for (int i = 0; i < 100 * KeySpace.SEGMENTS; i++) {
+            s.sadd("key" + i, i);
+            expected.add("key" + i);
+        }
+        HashSet<Object> seen = new HashSet<>();
+        long cursor = 0L;
+        int calls = 0;
+        do {
+            ArrayList<Object> reply = s.scan(cursor, null, 10);
+            cursor = (Long) reply.get(0);
+            List<Object> batch = (List<Object>) reply.get(1);
+            assertTrue("batch of " + batch.size() + " keys", batch.size() <= 20);
+            seen.addAll(batch);
+            calls++;
+        } while (cursor != 0L);
+        assertEquals(expected, seen);
+        assertTrue(calls >= expected.size() / 20);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void scanReturnsKeysPresentDuringTheWholeWalk() {
+        Storage s = new Storage(100_000L);
+        for (int i = 0; i < 1000; i++) {
+            s.sadd("key" + i, i);
+        }
+        HashSet<Object> seen = new HashSet<>();
+        long cursor = 0L;
+        int added = 0;
+        do {
+            ArrayList<Object> reply = s.scan(cursor, null, 10);
+            cursor = (Long) reply.get(0);
+            seen.addAll((List<Object>) reply.get(1));
+            // grow the key space a lot between the calls, and remove some of the other keys
+            for (int i = 0; i < 100 && added < 50_000; i++) {
+                s.sadd("new" + added++, i);
+            }
+            s.sadd("gone", 1);
+            s.sadd("gone", 1);
+            s.srem("gone", 1);
+        } while (cursor != 0L);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.contains("key" + i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void scanReturnsKeysPresentDuringTheWholeWalkWhileTheKeySpaceShrinks() throws NonExistentKeyException {
+        Storage s = new Storage(100_000L);
+        for (int i = 0; i < 50_000; i++) {
+            s.sadd("key" + i, i);
+        }
+        HashSet<Object> seen = new HashSet<>();
+        long cursor = 0L;
+        int removed = 0;
+        do {
+            ArrayList<Object> reply = s.scan(cursor, null, 10);
+            cursor = (Long) reply.get(0);
+            seen.addAll((List<Object>) reply.get(1));
+            // remove all the keys but the first 1000, so that the tables of the segments shrink during the walk
+            for (int i = 0; i < 100 && removed < 49_000; i++) {
+                s.remove("key" + (1000 + removed++));
+            }
+        } while (cursor != 0L);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.contains("key" + i));
+        }
+    }
+
+    @Test
+    public void scanWithPattern() {
+        Storage s = new Storage();
+        s.sadd("user:1", 1);
+        s.sadd("user:2", 1);
+        s.sadd("item:1", 1);
+        assertEquals(new HashSet<>(Arrays.asList("user:1", "user:2")), new HashSet<>(scanHelper(s, "user:*", 10)));
+        assertEquals(Collections.singletonList("item:1"), scanHelper(s, "item:?", 10));
+        assertEquals(3, scanHelper(s, "*:[0-9]", 10).size());
+    }
+
+    @Test
+    public void scanSkipsExpiredKeys() {
+        Storage s = new Storage();
+        s.sadd("key", 1);
+        s.sadd("key2", 1);
+        s.expireAt("key2", System.currentTimeMillis() - 1L);
+        assertEquals(Collections.singletonList("key"), scanHelper(s, null, 10));
+    }
+
+    @Test
+    public void scanInvalidCursor() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.scan(-1L, null, 10);
+    }
+
+    @Test
+    public void scanInvalidCount() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.scan(0L, null, 0);
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                  TESTS REMOVE                                                  */
@@ -238,6 +662,158 @@ public class StorageTest {
         assertEquals(3, s.get("key"));
     }
 
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS INCRBY                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void incrByNonExistentKey() throws NonExistentKeyException {
+        Storage s = new Storage();
+        assertEquals(5L, s.incrBy("key", 5L));
+        assertEquals(5, s.get("key"));
+    }
+
+    @Test
+    public void incrByExistentInteger() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage();
+        s.store("key", "10");
+        assertEquals(7L, s.incrBy("key", -3L));
+        assertEquals(8L, s.incrBy("key", 1L));
+        assertEquals(Integer.class, s.get("key").getClass());
+    }
+
+    @Test
+    public void incrByWrongType() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.lPush("key", "value");
+        assertEquals(3L, s.incrBy("key", 3L));
+        assertEquals(3, s.get("key"));
+    }
+
+    @Test
+    public void incrByBeyondIntegers() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage();
+        s.store("key", String.valueOf(Integer.MAX_VALUE + 1L));
+        assertEquals(Integer.MAX_VALUE + 2L, s.incrBy("key", 1L));
+        assertEquals(Long.class, s.get("key").getClass());
+        assertEquals(Integer.MAX_VALUE + 2L, s.get("key"));
+    }
+
+    @Test
+    public void incrByOverflow() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.incrBy("key", Long.MAX_VALUE - 1L);
+        s.incrBy("key", 1L);
+        try {
+            s.incrBy("key", 1L);
+            fail();
+        } catch (ArithmeticException e) {
+            assertEquals(IntegerValue.ERROR_OVERFLOW, e.getMessage());
+        }
+        assertEquals(Long.MAX_VALUE, s.get("key"));
+    }
+
+    @Test
+    public void incrByUnderflow() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.incrBy("key", Long.MIN_VALUE);
+        thrown.expect(ArithmeticException.class);
+        s.incrBy("key", -1L);
+    }
+
+    @Test
+    public void incrByKeepsTheTimeToLive() {
+        Storage s = new Storage();
+        s.incrBy("key", 1L);
+        s.expireAt("key", System.currentTimeMillis() + 10000L);
+        s.incrBy("key", 1L);
+        assertTrue(s.pttl("key") > 0L);
+        s.incrByFloat("key", 0.5);
+        assertTrue(s.pttl("key") > 0L);
+    }
+
+    @Test
+    public void incrByDoesNotChangeTheWeight() {
+        Storage s = new Storage();
+        s.incrBy("key", 1L);
+        long used = s.getUsedMemory();
+        s.incrBy("key", Long.MAX_VALUE / 2);
+        s.incrByFloat("key", 0.5);
+        assertEquals(used, s.getUsedMemory());
+    }
+
+    @Test
+    public void incrByIsAtomic() throws InterruptedException, NonExistentKeyException {
+        Storage s = new Storage();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    s.incrBy("key", 1L);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(80000, s.get("key"));
+    }
+
+    @Test
+    public void incrByFloatNonExistentKey() throws NonExistentKeyException {
+        Storage s = new Storage();
+        assertEquals(0.5, s.incrByFloat("key", 0.5), 0.0);
+        assertEquals(0.5, s.get("key"));
+    }
+
+    @Test
+    public void incrByFloatOnStrings() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("int", "10");
+        assertEquals(10.5, s.incrByFloat("int", 0.5), 0.0);
+        s.store("float", "1.25");
+        assertEquals(2.5, s.incrByFloat("float", 1.25), 0.0);
+        s.store("string", "hello");
+        assertEquals(1.0, s.incrByFloat("string", 1.0), 0.0);
+    }
+
+    @Test
+    public void incrByFloatNotFinite() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.incrByFloat("key", Double.MAX_VALUE);
+        try {
+            s.incrByFloat("key", Double.MAX_VALUE);
+            fail();
+        } catch (ArithmeticException e) {
+            assertEquals(FloatValue.ERROR_NOT_FINITE, e.getMessage());
+        }
+        assertEquals(Double.MAX_VALUE, s.get("key"));
+    }
+
+    @Test
+    public void incrByAfterIncrByFloat() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.incrByFloat("key", 1.5);
+        s.incrByFloat("key", 1.5);
+        assertEquals(4L, s.incrBy("key", 1L));
+        assertEquals(4, s.get("key"));
+        s.incrByFloat("key", 0.1);
+        assertEquals(1L, s.incrBy("key", 1L));
+    }
+
+    @Test
+    public void copyOfCounterIsIndependent() {
+        Storage s = new Storage();
+        s.incrBy("key", 1L);
+        Storage copy = new Storage();
+        copy.restore("key", s.copyOf("key"));
+        copy.incrBy("key", 1L);
+        assertEquals(2L, s.incrBy("key", 1L));
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                  TESTS RPUSH                                                   */
@@ -358,30 +934,87 @@ public class StorageTest {
         assertEquals(true, s.lPush("key", "value2"));
     }
 
-    /*----------------------------------------------------------------------------------------------------------------*/
-    /*                                                                                                                */
-    /*                                                  TESTS RPOP                                                    */
-    /*                                                                                                                */
-    /*----------------------------------------------------------------------------------------------------------------*/
+    @Test
+    public void lPushSeveralValues() {
+        Storage s = new Storage();
+        s.lPush("key", "value");
+        assertEquals(3, s.lPush("key", new Object[]{"value2", "value3", "value4"}));
+        assertEquals(Arrays.asList("value", "value2", "value3", "value4"), s.lrange("key", 0, 3));
+        usedMemoryHelper(s);
+    }
 
     @Test
-    public void rpopOnEmptyList() throws DuplicatedKeyException {
-        Storage s = createAndStoreEmptyListHelper();
-        assertEquals(null, s.rPop("key"));
+    public void rPushSeveralValues() {
+        Storage s = new Storage();
+        s.rPush("key", "value");
+        assertEquals(3, s.rPush("key", new Object[]{"value2", "value3", "value4"}));
+        assertEquals(Arrays.asList("value4", "value3", "value2", "value"), s.lrange("key", 0, 3));
+        usedMemoryHelper(s);
     }
 
     @Test
-    public void rpopOnNotList() throws DuplicatedKeyException {
-        Storage s = createAndStoreEmptyListHelper();
-        assertEquals(null, s.rPop("key"));
+    public void pushSeveralValuesOnWrongType() throws NonExistentKeyException, DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "hey");
+        assertEquals(-1, s.lPush("key", new Object[]{"value", "value2"}));
+        assertEquals(-1, s.rPush("key", new Object[]{"value", "value2"}));
+        assertEquals("hey", s.get("key"));
     }
 
     @Test
-    public void rpopOnNotListDoesNotRemove() throws DuplicatedKeyException, NonExistentKeyException {
-        Storage s = createAndStoreEmptyListHelper();
-        s.store("key2", "hello");
-        s.rPop("key2");
-        assertEquals("hello", s.get("key2"));
+    public void pushNoValues() {
+        Storage s = new Storage();
+        assertEquals(0, s.lPush("key", new Object[0]));
+        assertNull(s.valueOf("key"));
+    }
+
+    @Test
+    public void lPushSeveralValuesPastThePackLimit() {
+        Storage s = new Storage();
+        Object[] values = new Object[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "value" + i;
+        }
+        assertEquals(values.length, s.lPush("key", values));
+        assertEquals(values.length, s.llen("key"));
+        assertFalse(((ListValue) s.valueOf("key")).isPacked());
+        assertEquals("value999", s.lindex("key", 999));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedPushSeveralValues() {
+        Storage s = new Storage();
+        assertEquals(5, s.lPush("key", new Object[]{"a", "b", "c", "d", "e"}, 3));
+        assertEquals(Arrays.asList("c", "d", "e"), s.lrange("key", 0, 2));
+        assertEquals(3, ((ListValue) s.valueOf("key")).maxLength());
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS RPOP                                                    */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void rpopOnEmptyList() throws DuplicatedKeyException {
+        Storage s = createAndStoreEmptyListHelper();
+        assertEquals(null, s.rPop("key"));
+    }
+
+    @Test
+    public void rpopOnNotList() throws DuplicatedKeyException {
+        Storage s = createAndStoreEmptyListHelper();
+        assertEquals(null, s.rPop("key"));
+    }
+
+    @Test
+    public void rpopOnNotListDoesNotRemove() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = createAndStoreEmptyListHelper();
+        s.store("key2", "hello");
+        s.rPop("key2");
+        assertEquals("hello", s.get("key2"));
     }
 
     @Test
@@ -1034,6 +1667,318 @@ public class StorageTest {
         }
     }
 
+    @Test
+    public void ltrimKeepsTheTimeout() throws DuplicatedKeyException {
+        Storage s = createAndStoreEmptyListHelper();
+        s.lPush("key", "value");
+        s.lPush("key", "value2");
+        s.expireAt("key", System.currentTimeMillis() + 10000L);
+        s.ltrim("key", 1, 1);
+        assertTrue(s.pttl("key") > 0L);
+    }
+
+    @Test
+    public void ltrimUpdatesTheUsedMemory() throws DuplicatedKeyException {
+        Storage s = createAndStoreEmptyListHelper();
+        for (int i = 0; i < 1000; i++) {
+            s.lPush("key", "value" + i);
+        }
+        s.ltrim("key", 300, 599);
+        assertEquals(300, s.llen("key"));
+        assertEquals("value300", s.lindex("key", 0));
+        usedMemoryHelper(s);
+        s.ltrim("key", 500, 600);
+        assertEquals(0, s.llen("key"));
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS LMOVE                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void lmoveOnNonExistingKey() {
+        Storage s = new Storage();
+        assertNull(s.lmove("src", "dst", true, true));
+        assertFalse(s.getCache().containsKey("dst"));
+    }
+
+    @Test
+    public void lmoveFromLeftToRight() {
+        Storage s = new Storage();
+        s.lPush("src", "a");
+        s.lPush("src", "b");
+        s.lPush("dst", "c");
+        assertEquals("b", s.lmove("src", "dst", true, false));
+        assertEquals("a", s.lPop("src"));
+        assertEquals("c", s.lPop("dst"));
+        assertEquals("b", s.lPop("dst"));
+    }
+
+    @Test
+    public void lmoveFromRightToLeft() {
+        Storage s = new Storage();
+        s.lPush("src", "a");
+        s.lPush("src", "b");
+        s.lPush("dst", "c");
+        assertEquals("a", s.lmove("src", "dst", false, true));
+        assertEquals("b", s.rPop("src"));
+        assertEquals("a", s.lPop("dst"));
+        assertEquals("c", s.lPop("dst"));
+    }
+
+    @Test
+    public void lmoveCreatesTheDestination() {
+        Storage s = new Storage();
+        s.lPush("src", "a");
+        assertEquals("a", s.lmove("src", "dst", true, true));
+        assertEquals(0, s.llen("src"));
+        assertEquals(1, s.llen("dst"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void lmoveRotatesTheSameList() {
+        Storage s = new Storage();
+        s.lPush("key", "a");
+        s.lPush("key", "b");
+        s.lPush("key", "c");
+        assertEquals("c", s.lmove("key", "key", true, false));
+        assertEquals(Arrays.asList("c", "a", "b"), s.lrange("key", 0, 2));
+    }
+
+    @Test
+    public void lmoveNotAListKeepsTheSource() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.lPush("src", "a");
+        s.store("dst", "string");
+        assertNull(s.lmove("src", "dst", true, true));
+        assertEquals(1, s.llen("src"));
+        assertNull(s.lmove("dst", "src", true, true));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                             TESTS LIST ENCODING                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private boolean isPackedHelper(Storage s, String key) {
+        return ((ListValue) s.valueOf(key)).isPacked();
+    }
+
+    @Test
+    public void smallListsArePacked() {
+        Storage s = new Storage();
+        for (int i = 0; i < ListValue.DEFAULT_MAX_PACK_ENTRIES; i++) {
+            s.lPush("key", i % 2 == 0 ? "value" + i : i);
+        }
+        assertTrue(isPackedHelper(s, "key"));
+        assertEquals("value0", s.lindex("key", 0));
+        assertEquals(1, s.lindex("key", 1));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void listIsConvertedOverTheMaxEntries() {
+        Storage s = new Storage();
+        for (int i = 0; i <= ListValue.DEFAULT_MAX_PACK_ENTRIES; i++) {
+            s.lPush("key", "value" + i);
+        }
+        assertFalse(isPackedHelper(s, "key"));
+        assertEquals(ListValue.DEFAULT_MAX_PACK_ENTRIES + 1, s.llen("key"));
+        assertEquals("value0", s.lindex("key", 0));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void listIsConvertedOverTheMaxBytes() {
+        Storage s = new Storage();
+        s.setListPackLimits(128, 64);
+        s.lPush("key", "small");
+        assertTrue(isPackedHelper(s, "key"));
+        s.rPush("key", "an element that does not fit in the 64 bytes of a packed list");
+        assertFalse(isPackedHelper(s, "key"));
+        assertEquals(Arrays.asList("an element that does not fit in the 64 bytes of a packed list", "small"),
+                     s.lrange("key", 0, 1));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void listIsConvertedForOtherElements() {
+        Storage s = new Storage();
+        s.lPush("key", "value");
+        s.lset("key", 0, 4.2);
+        assertFalse(isPackedHelper(s, "key"));
+        assertEquals(4.2, s.lindex("key", 0));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void listsAreNotPackedWithoutLimits() {
+        Storage s = new Storage();
+        s.setListPackLimits(0, 0);
+        s.lPush("key", "value");
+        assertFalse(isPackedHelper(s, "key"));
+    }
+
+    @Test
+    public void invalidListPackLimits() {
+        thrown.expect(IllegalArgumentException.class);
+        new Storage().setListPackLimits(-1, 10);
+    }
+
+    @Test
+    public void packedListsWeighLess() {
+        Storage packed = new Storage();
+        Storage unpacked = new Storage();
+        unpacked.setListPackLimits(0, 0);
+        for (int i = 0; i < 100; i++) {
+            packed.lPush("key", "value" + i);
+            unpacked.lPush("key", "value" + i);
+        }
+        assertTrue(packed.getUsedMemory() * 2 < unpacked.getUsedMemory());
+    }
+
+    @Test
+    public void packedListOperations() {
+        Storage s = new Storage();
+        for (int i = 0; i < 10; i++) {
+            s.lPush("key", "value" + i % 3);
+        }
+        assertEquals(4, s.lrem("key", 0, "value0"));
+        assertTrue(s.ltrim("key", 1, 3));
+        assertEquals(Arrays.asList("value2", "value1", "value2"), s.lrange("key", 0, 2));
+        assertEquals("value2", s.lPop("key"));
+        assertEquals("value2", s.rPop("key"));
+        assertTrue(isPackedHelper(s, "key"));
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                              TESTS CAPPED LISTS                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private int maxLengthHelper(Storage s, String key) {
+        return ((ListValue) s.valueOf(key)).maxLength();
+    }
+
+    @Test
+    public void lPushCappedKeepsTheLastElements() {
+        Storage s = new Storage();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(s.lPush("key", "event" + i, 3));
+        }
+        assertEquals(3, maxLengthHelper(s, "key"));
+        assertEquals(Arrays.asList("event7", "event8", "event9"), s.lrange("key", 0, 2));
+        assertEquals("event9", s.lindex("key", 2));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void rPushCappedKeepsTheLastElements() {
+        Storage s = new Storage();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(s.rPush("key", "event" + i, 3));
+        }
+        assertEquals(Arrays.asList("event9", "event8", "event7"), s.lrange("key", 0, 2));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedPushDoesNotGrowTheUsedMemory() {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.lPush("key", "event" + i % 10, 100);
+        }
+        long usedMemory = s.getUsedMemory();
+        for (int i = 0; i < 1000; i++) {
+            s.lPush("key", "event" + i % 10, 100);
+        }
+        assertEquals(usedMemory, s.getUsedMemory());
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedPushTrimsAnUncappedList() {
+        Storage s = new Storage();
+        for (int i = 0; i < 10; i++) {
+            s.lPush("key", "event" + i);
+        }
+        s.lPush("key", "event10", 4);
+        assertEquals(0, maxLengthHelper(s, "key"));
+        assertEquals(Arrays.asList("event7", "event8", "event9", "event10"), s.lrange("key", 0, 3));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedPushWithAnotherLengthTrims() {
+        Storage s = new Storage();
+        for (int i = 0; i < 5; i++) {
+            s.lPush("key", "event" + i, 5);
+        }
+        s.lPush("key", "event5", 2);
+        assertEquals(Arrays.asList("event4", "event5"), s.lrange("key", 0, 1));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void uncappedPushOnAFullCappedList() {
+        Storage s = new Storage();
+        for (int i = 0; i < 3; i++) {
+            s.lPush("key", "event" + i, 3);
+        }
+        s.rPop("key");
+        s.rPush("key", "event0");
+        assertEquals(3, maxLengthHelper(s, "key"));
+        s.lPush("key", "event3");
+        assertEquals(0, maxLengthHelper(s, "key"));
+        assertEquals(Arrays.asList("event0", "event1", "event2", "event3"), s.lrange("key", 0, 3));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedListSupportsTheListCommands() {
+        Storage s = new Storage();
+        for (int i = 0; i < 6; i++) {
+            s.lPush("key", i % 2 == 0 ? "even" : "odd", 5);
+        }
+        assertTrue(s.lset("key", 0, "first"));
+        assertEquals(2, s.lrem("key", 0, "even"));
+        assertEquals(Arrays.asList("first", "odd", "odd"), s.lrange("key", 0, 2));
+        assertTrue(s.ltrim("key", 1, 2));
+        assertEquals(2, s.llen("key"));
+        assertEquals("odd", s.lPop("key"));
+        assertEquals(5, maxLengthHelper(s, "key"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void cappedPushOnWrongType() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertFalse(s.lPush("key", "event", 3));
+    }
+
+    @Test
+    public void cappedPushWithInvalidLength() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.lPush("key", "event", 0);
+    }
+
+    @Test
+    public void longCappedListIsNotARing() {
+        Storage s = new Storage();
+        s.lPush("key", "event", ListValue.MAX_RING_CAPACITY + 1);
+        assertEquals(0, maxLengthHelper(s, "key"));
+        assertEquals(1, s.llen("key"));
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                TESTS SADD                                                      */
@@ -1103,6 +2048,29 @@ public class StorageTest {
         assertEquals(0, s.sadd("key", "member"));
     }
 
+    @Test
+    public void testSAddSeveralMembers() {
+        Storage s = new Storage();
+        assertEquals(2, s.sadd("key", new Object[]{"member", "member2", "member"}));
+        assertEquals(1, s.sadd("key", new Object[]{"member2", "member3"}));
+        assertEquals(3, s.scard("key"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void testSAddSeveralMembersOnWrongType() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(-1, s.sadd("key", new Object[]{"member", "member2"}));
+    }
+
+    @Test
+    public void testSAddNoMembers() {
+        Storage s = new Storage();
+        assertEquals(0, s.sadd("key", new Object[0]));
+        assertNull(s.valueOf("key"));
+    }
+
     @Test
     public void testSAddExistentKeyExistentObjectDoesNotModify() throws NonExistentKeyException {
         Storage s = new Storage();
@@ -1176,13 +2144,29 @@ public class StorageTest {
         if (o instanceof HashSet) {
             int oldSize = ((HashSet) o).size();
             s.srem("key", "value");
-            int newSize = ((HashSet) o).size();
+            int newSize = ((HashSet) s.get("key")).size();
             assertEquals(oldSize - 1, newSize);
         } else {
             fail();
         }
     }
 
+    @Test
+    public void testSRemSeveralMembers() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"member", "member2", "member3"});
+        assertEquals(2, s.srem("key", new Object[]{"member", "member3", "member4"}));
+        assertEquals(Collections.singletonList("member2"), s.smembers("key"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void testSRemSeveralMembersOnWrongType() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(-1, s.srem("key", new Object[]{"member", "member2"}));
+    }
+
     @Test
     public void testSRemExistentKeyNonExistentObjectReturnValue() {
         Storage s = new Storage();
@@ -1291,6 +2275,42 @@ public class StorageTest {
         assertEquals("value", s.get("key"));
     }
 
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                TESTS SMISMEMBER                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void sMIsMemberOnNonExistingKey() {
+        Storage s = new Storage();
+        assertArrayEquals(new int[]{0, 0}, s.smismember("key", new Object[]{"a", "b"}));
+    }
+
+    @Test
+    public void sMIsMemberNotASet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertNull(s.smismember("key", new Object[]{"a"}));
+    }
+
+    @Test
+    public void sMIsMemberInOrder() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "c", 1});
+        assertArrayEquals(new int[]{1, 0, 1, 1, 0}, s.smismember("key", new Object[]{"a", "b", "c", 1, 2}));
+        assertArrayEquals(new int[]{}, s.smismember("key", new Object[]{}));
+    }
+
+    @Test
+    public void sMIsMemberCountsAsOneAccess() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        long hits = s.getHits();
+        s.smismember("key", new Object[]{"a", "b", "c"});
+        assertEquals(hits + 1, s.getHits());
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                TESTS SMEMBERS                                                  */
@@ -1348,58 +2368,187 @@ public class StorageTest {
 
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
-    /*                                                  TESTS SINTER                                                  */
+    /*                                                  TESTS SSCAN                                                   */
     /*                                                                                                                */
     /*----------------------------------------------------------------------------------------------------------------*/
 
-    @Test
-    public void sInterOnNonExistingKey() {
-        Storage s = new Storage();
-        assertArrayEquals(new Object[]{}, s.sinter(new String[]{"key"}).toArray());
+    /* Walks all the members of the set at key with SSCAN. */
+    @SuppressWarnings("unchecked")
+    private List<Object> sscanHelper(Storage s, String key, String pattern, int count) {
+        List<Object> res = new ArrayList<>();
+        long cursor = 0L;
+        do {
+            ArrayList<Object> reply = s.sscan(key, cursor, pattern, count);
+            cursor = (Long) reply.get(0);
+            res.addAll((List<Object>) reply.get(1));
+        } while (cursor != 0L);
+        return res;
     }
 
     @Test
-    public void sInterOnNoKey() {
+    public void sScanOnNonExistingKey() {
         Storage s = new Storage();
-        assertArrayEquals(new Object[]{}, s.sinter(new String[]{}).toArray());
+        assertEquals(Arrays.asList(0L, new ArrayList<>()), s.sscan("key", 0L, null, 10));
     }
 
     @Test
-    public void sInterNotASet() throws DuplicatedKeyException {
+    public void sScanNotASet() throws DuplicatedKeyException {
         Storage s = new Storage();
-        s.sadd("keyset", "value");
         s.store("key", "value");
-        assertEquals(null, s.sinter(new String[]{"key", "keyset"}));
+        assertNull(s.sscan("key", 0L, null, 10));
     }
 
     @Test
-    public void sInterOnEmptySet() throws DuplicatedKeyException {
+    public void sScanIntSetAtOnce() {
         Storage s = new Storage();
-        s.sadd("key", "value");
-        s.store("key2", new HashSet<>());
+        s.sadd("key", new Object[]{1, 2, 3, 4, 5});
+        assertEquals(Arrays.asList(0L, Arrays.asList(1, 2, 3, 4, 5)), s.sscan("key", 0L, null, 2));
+    }
 
-        assertArrayEquals(new Object[]{}, s.sinter(new String[]{"key", "key2"}).toArray());
+    @Test
+    public void sScanReturnsAllMembers() {
+        Storage s = new Storage();
+        Object[] strings = new Object[10_000];
+        Object[] ints = new Object[10_000];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = "m" + i;
+            ints[i] = i * 7;
+        }
+        s.sadd("key", strings);
+        s.sadd("key2", ints);
+        List<Object> members = sscanHelper(s, "key", null, 100);
+        assertEquals(new HashSet<>(Arrays.asList(strings)), new HashSet<>(members));
+        members = sscanHelper(s, "key2", null, 100);
+        assertEquals(Arrays.asList(ints), members);
     }
 
+    @SuppressWarnings("unchecked")
     @Test
-    public void sInterOnSetReturnValue() throws DuplicatedKeyException, NonExistentKeyException {
+    public void sScanReturnsMembersPresentDuringTheWholeWalk() {
         Storage s = new Storage();
-        int len = 5;
-        for (int i = 0; i < len; i++) {
-            s.sadd("key", "" + i);
+        for (int i = 0; i < 1000; i++) {
+            s.sadd("key", "m" + i);
         }
-        for (int i = 0; i < len - 1; i++) {
-            s.sadd("key2", "" + i);
+        HashSet<Object> seen = new HashSet<>();
+        long cursor = 0L;
+        int added = 0;
+        int calls = 0;
+        do {
+            ArrayList<Object> reply = s.sscan("key", cursor, null, 10);
+            cursor = (Long) reply.get(0);
+            seen.addAll((List<Object>) reply.get(1));
+            // grow the set until it rehashed several times, then shrink it back
+            for (int i = 0; i < 100; i++) {
+                if (calls < 50) {
+                    s.sadd("key", "new" + added++);
+                } else {
+                    s.srem("key", "new" + --added);
+                }
+            }
+            calls++;
+        } while (cursor != 0L);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.contains("m" + i));
         }
-        String[] expected = new String[]{"0","1", "2", "3"};
-        List<Object> inter = s.sinter(new String[] {"key", "key2"});
-        assertArrayEquals(expected, inter.toArray());
     }
 
     @Test
-    public void sInterOnSetDoesNotModify() throws NonExistentKeyException, DuplicatedKeyException {
+    public void sScanAcrossConversions() {
         Storage s = new Storage();
-        int len = 5;
+        for (int i = 0; i < 1000; i++) {
+            s.sadd("key", i);
+        }
+        ArrayList<Object> reply = s.sscan("key", 0L, null, 10);
+        long cursor = (Long) reply.get(0);
+        assertTrue(cursor >= SetValue.BITMAP_CURSOR);
+        s.sadd("key", "a");
+        HashSet<Object> seen = new HashSet<>();
+        do {
+            reply = s.sscan("key", cursor, null, 10);
+            cursor = (Long) reply.get(0);
+            seen.addAll((List<?>) reply.get(1));
+        } while (cursor != 0L);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(seen.contains(i));
+        }
+    }
+
+    @Test
+    public void sScanWithPattern() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"apple", "banana", "avocado", 12, 21});
+        assertEquals(new HashSet<>(Arrays.asList("apple", "avocado")), new HashSet<>(sscanHelper(s, "key", "a*", 10)));
+        assertEquals(new HashSet<>(Arrays.asList(12, 21)), new HashSet<>(sscanHelper(s, "key", "[12]?", 10)));
+    }
+
+    @Test
+    public void sScanInvalidCursor() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.sscan("key", 2L * SetValue.BITMAP_CURSOR, null, 10);
+    }
+
+    @Test
+    public void sScanInvalidCount() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.sscan("key", 0L, null, -1);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS SINTER                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void sInterOnNonExistingKey() {
+        Storage s = new Storage();
+        assertArrayEquals(new Object[]{}, s.sinter(new String[]{"key"}).toArray());
+    }
+
+    @Test
+    public void sInterOnNoKey() {
+        Storage s = new Storage();
+        assertArrayEquals(new Object[]{}, s.sinter(new String[]{}).toArray());
+    }
+
+    @Test
+    public void sInterNotASet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.sadd("keyset", "value");
+        s.store("key", "value");
+        assertEquals(null, s.sinter(new String[]{"key", "keyset"}));
+    }
+
+    @Test
+    public void sInterOnEmptySet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.sadd("key", "value");
+        s.store("key2", new HashSet<>());
+
+        assertArrayEquals(new Object[]{}, s.sinter(new String[]{"key", "key2"}).toArray());
+    }
+
+    @Test
+    public void sInterOnSetReturnValue() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage();
+        int len = 5;
+        for (int i = 0; i < len; i++) {
+            s.sadd("key", "" + i);
+        }
+        for (int i = 0; i < len - 1; i++) {
+            s.sadd("key2", "" + i);
+        }
+        String[] expected = new String[]{"0","1", "2", "3"};
+        List<Object> inter = s.sinter(new String[] {"key", "key2"});
+        assertArrayEquals(expected, inter.toArray());
+    }
+
+    @Test
+    public void sInterOnSetDoesNotModify() throws NonExistentKeyException, DuplicatedKeyException {
+        Storage s = new Storage();
+        int len = 5;
         for (int i = 0; i < len; i++) {
             s.sadd("key", "" + i);
         }
@@ -1413,6 +2562,31 @@ public class StorageTest {
         assertEquals(oldSet2, s.get("key2"));
     }
 
+    @Test
+    public void sInterFollowsTheSmallestSet() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "b", "c", "d", "e"});
+        s.sadd("key2", new Object[]{"e", "x", "c"});
+        assertEquals(Arrays.asList("e", "c"), s.sinter(new String[]{"key", "key2"}));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void sInterOfLargeSets() {
+        Storage s = new Storage();
+        int n = SetAlgebra.PARALLEL_THRESHOLD * 2;
+        Object[] members = new Object[n];
+        for (int i = 0; i < n; i++) {
+            members[i] = "member" + i;
+        }
+        s.sadd("key", members);
+        s.sadd("key2", Arrays.copyOfRange(members, n / 4, n));
+        List<Object> inter = s.sinter(new String[]{"key", "key2"});
+        assertEquals(n - n / 4, inter.size());
+        assertEquals(new HashSet<>(Arrays.asList(members).subList(n / 4, n)), new HashSet<>(inter));
+        assertEquals(n, s.scard("key"));
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                               TESTS SINTERSTORE                                                */
@@ -1511,6 +2685,60 @@ public class StorageTest {
         assertEquals(expected, s.get("newkey"));
     }
 
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                               TESTS SINTERCARD                                                 */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void sInterCardNoKeys() {
+        Storage s = new Storage();
+        assertEquals(0, s.sintercard(new String[]{}, 0));
+    }
+
+    @Test
+    public void sInterCardWithNonExistingKey() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(0, s.sintercard(new String[]{"key", "key2"}, 0));
+    }
+
+    @Test
+    public void sInterCardNotASet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.sadd("key2", "a");
+        assertEquals(-1, s.sintercard(new String[]{"key2", "nokey", "key"}, 0));
+    }
+
+    @Test
+    public void sInterCardMatchesSInter() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "b", "c", "d"});
+        s.sadd("key2", new Object[]{"b", "c", "d", "e"});
+        s.sadd("key3", new Object[]{"c", "d", "e", "f"});
+        String[] keys = new String[]{"key", "key2", "key3"};
+        assertEquals(s.sinter(keys).size(), s.sintercard(keys, 0));
+        assertEquals(4, s.sintercard(new String[]{"key"}, 0));
+    }
+
+    @Test
+    public void sInterCardWithLimit() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "b", "c", "d"});
+        s.sadd("key2", new Object[]{"b", "c", "d", "e"});
+        assertEquals(1, s.sintercard(new String[]{"key", "key2"}, 1));
+        assertEquals(3, s.sintercard(new String[]{"key", "key2"}, 5));
+    }
+
+    @Test
+    public void sInterCardInvalidLimit() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.sintercard(new String[]{"key"}, -1);
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                  TESTS SPOP                                                    */
@@ -1572,6 +2800,49 @@ public class StorageTest {
         assertEquals(false, ((HashSet) s.get("key")).contains(o));
     }
 
+    @Test
+    public void sPopCountRemovesDistinctMembers() throws NonExistentKeyException {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.sadd("key", i);
+        }
+        List<Object> popped = s.spop("key", 30);
+        assertEquals(30, popped.size());
+        assertEquals(30, new HashSet<>(popped).size());
+        HashSet<?> left = (HashSet<?>) s.get("key");
+        assertEquals(70, left.size());
+        for (Object o : popped) {
+            assertFalse(left.contains(o));
+        }
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void sPopCountDrainsTheSet() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "b", "c"});
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(s.spop("key", 10)));
+        assertEquals(0, s.scard("key"));
+        assertEquals(Collections.emptyList(), s.spop("key", 10));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void sPopCountOnMissingKeyAndWrongType() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        assertEquals(Collections.emptyList(), s.spop("key", 2));
+        s.store("key", "value");
+        assertNull(s.spop("key", 2));
+    }
+
+    @Test
+    public void sPopNegativeCount() {
+        Storage s = new Storage();
+        s.sadd("key", "value");
+        thrown.expect(IllegalArgumentException.class);
+        s.spop("key", -1);
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                  TESTS SRANDMEMBER                                             */
@@ -1631,6 +2902,42 @@ public class StorageTest {
         assertEquals(true, ((HashSet) s.get("key")).contains(o));
     }
 
+    @Test
+    public void sRandMemberPositiveCountPicksDistinctMembers() {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.sadd("key", i);
+        }
+        for (int count : new int[]{0, 1, 10, 99}) {
+            List<Object> picked = s.srandmember("key", count);
+            assertEquals(count, picked.size());
+            assertEquals(count, new HashSet<>(picked).size());
+            for (Object o : picked) {
+                assertEquals(1, s.sismember("key", o));
+            }
+        }
+        assertEquals(100, new HashSet<>(s.srandmember("key", 1000)).size());
+        assertEquals(100, s.scard("key"));
+    }
+
+    @Test
+    public void sRandMemberNegativeCountAllowsRepeats() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"a", "b"});
+        List<Object> picked = s.srandmember("key", -50);
+        assertEquals(50, picked.size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(picked));
+    }
+
+    @Test
+    public void sRandMemberCountOnMissingKeyAndWrongType() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        assertEquals(Collections.emptyList(), s.srandmember("key", 2));
+        assertEquals(Collections.emptyList(), s.srandmember("key", -2));
+        s.store("key", "value");
+        assertNull(s.srandmember("key", 2));
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                  TESTS SMOVE                                                   */
@@ -1813,6 +3120,23 @@ public class StorageTest {
         assertEquals(oldSet2, s.get("key2"));
     }
 
+    @Test
+    public void sUnionOfLargeSets() {
+        Storage s = new Storage();
+        int n = 100_000;
+        Object[] members = new Object[n];
+        Object[] members2 = new Object[n];
+        for (int i = 0; i < n; i++) {
+            members[i] = "member" + i;
+            members2[i] = "member" + (i + n / 2);
+        }
+        s.sadd("key", members);
+        s.sadd("key2", members2);
+        List<Object> union = s.sunion(new String[]{"key", "key2"});
+        assertEquals(n + n / 2, union.size());
+        assertEquals(n + n / 2, new HashSet<>(union).size());
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                TESTS SUNIONSTORE                                               */
@@ -1978,6 +3302,20 @@ public class StorageTest {
         assertEquals(oldSet2, s.get("key2"));
     }
 
+    @Test
+    public void sDiffIgnoresMissingKeys() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"x", "a", "b"});
+        s.sadd("key2", new Object[]{"a"});
+        assertEquals(Arrays.asList("x", "b"), s.sdiff(new String[]{"key", "missing", "key2"}));
+        assertEquals(Collections.emptyList(), s.sdiff(new String[]{"missing", "key"}));
+        assertEquals(1, s.sdiffstore(new String[]{"dst", "key", "missing", "key2"}));
+        assertEquals(2, s.scard("dst"));
+        assertEquals(1, s.sunionstore(new String[]{"dst2", "key", "missing", "key2"}));
+        assertEquals(3, s.scard("dst2"));
+        usedMemoryHelper(s);
+    }
+
     /*----------------------------------------------------------------------------------------------------------------*/
     /*                                                                                                                */
     /*                                                TESTS SDIFFSTORE                                                */
@@ -2075,4 +3413,1571 @@ public class StorageTest {
         s.sdiffstore(new String[]{"newkey", "key", "key2"});
         assertEquals(expected, s.get("newkey"));
     }
-}
\ No newline at end of file
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                              TESTS SET ENCODING                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private boolean isIntSetHelper(Storage s, String key) {
+        return ((SetValue) s.valueOf(key)).isIntSet();
+    }
+
+    private boolean isBitmapHelper(Storage s, String key) {
+        return ((SetValue) s.valueOf(key)).bitmap() != null;
+    }
+
+    @Test
+    public void smallSetsOfIntegersAreIntSets() {
+        Storage s = new Storage();
+        for (int i = 0; i < SetValue.DEFAULT_MAX_INTSET_ENTRIES; i++) {
+            s.sadd("key", Integer.toString(i * 1000));
+        }
+        assertTrue(isIntSetHelper(s, "key"));
+        assertEquals(1, s.sismember("key", "5000"));
+        assertEquals(0, s.sismember("key", "5001"));
+        assertEquals(0, s.sismember("key", 5000));
+        assertEquals(1, s.srem("key", "0"));
+        assertEquals(SetValue.DEFAULT_MAX_INTSET_ENTRIES - 1, s.scard("key"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void setIsConvertedOverTheMaxEntries() {
+        Storage s = new Storage();
+        for (int i = 0; i <= SetValue.DEFAULT_MAX_INTSET_ENTRIES; i++) {
+            s.sadd("key", i);
+        }
+        assertFalse(isIntSetHelper(s, "key"));
+        assertTrue(isBitmapHelper(s, "key"));
+        assertEquals(SetValue.DEFAULT_MAX_INTSET_ENTRIES + 1, s.scard("key"));
+        assertEquals(1, s.sismember("key", 0));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void setIsNotABitmapOver32Bits() {
+        Storage s = new Storage();
+        for (int i = 0; i < SetValue.DEFAULT_MAX_INTSET_ENTRIES; i++) {
+            s.sadd("key", (long) i);
+        }
+        assertEquals(1, s.sadd("key", 1L << 40));
+        assertFalse(isIntSetHelper(s, "key"));
+        assertFalse(isBitmapHelper(s, "key"));
+        assertEquals(1, s.sismember("key", 1L << 40));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void bitmapIsConvertedForOtherMembers() {
+        Storage s = new Storage();
+        for (int i = 0; i < 10_000; i++) {
+            s.sadd("key", Integer.toString(i));
+        }
+        assertTrue(isBitmapHelper(s, "key"));
+        assertEquals(1, s.srem("key", "5000"));
+        assertEquals(1, s.sadd("key", "a"));
+        assertFalse(isBitmapHelper(s, "key"));
+        assertEquals(10_000, s.scard("key"));
+        assertEquals(1, s.sismember("key", "9999"));
+        assertEquals(0, s.sismember("key", "5000"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void setIsConvertedForOtherMembers() throws NonExistentKeyException {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{"1", "2", "3"});
+        assertTrue(isIntSetHelper(s, "key"));
+        assertEquals(1, s.sadd("key", "a"));
+        assertFalse(isIntSetHelper(s, "key"));
+        assertEquals(new HashSet<>(Arrays.asList("1", "2", "3", "a")), s.get("key"));
+        usedMemoryHelper(s);
+
+        s.sadd("key2", "1");
+        assertEquals(1, s.sadd("key2", 1));
+        assertFalse(isIntSetHelper(s, "key2"));
+        assertEquals(new HashSet<>(Arrays.asList("1", 1)), s.get("key2"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void largeBatchesAreNotIntSets() {
+        Storage s = new Storage();
+        Object[] members = new Object[SetValue.DEFAULT_MAX_INTSET_ENTRIES + 1];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = i;
+        }
+        assertEquals(members.length, s.sadd("key", members));
+        assertFalse(isIntSetHelper(s, "key"));
+        assertTrue(isBitmapHelper(s, "key"));
+        members[0] = "a";
+        assertEquals(members.length, s.sadd("key2", members));
+        assertFalse(isBitmapHelper(s, "key2"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void setsAreNotIntSetsWithoutLimit() {
+        Storage s = new Storage();
+        s.setIntSetMaxEntries(0);
+        s.sadd("key", 1);
+        assertFalse(isIntSetHelper(s, "key"));
+        s.sadd("key2", new Object[]{1, 2, 3});
+        assertFalse(isBitmapHelper(s, "key2"));
+    }
+
+    @Test
+    public void invalidIntSetLimit() {
+        thrown.expect(IllegalArgumentException.class);
+        new Storage().setIntSetMaxEntries(-1);
+    }
+
+    @Test
+    public void intSetsWeighLess() {
+        Storage ints = new Storage();
+        Storage hashed = new Storage();
+        hashed.setIntSetMaxEntries(0);
+        for (int i = 0; i < 100; i++) {
+            ints.sadd("key", Integer.toString(i));
+            hashed.sadd("key", Integer.toString(i));
+        }
+        assertTrue(ints.getUsedMemory() * 4 < hashed.getUsedMemory());
+    }
+
+    @Test
+    public void intSetOperations() {
+        Storage s = new Storage();
+        s.sadd("key", new Object[]{1, 2, 3, 4});
+        s.sadd("key2", new Object[]{3, 4, 5});
+        s.sadd("key3", new Object[]{4, "a"});
+        assertEquals(new HashSet<>(Arrays.asList(3, 4)), new HashSet<>(s.sinter(new String[]{"key", "key2"})));
+        assertEquals(new HashSet<>(Arrays.asList(4)), new HashSet<>(s.sinter(new String[]{"key", "key2", "key3"})));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(s.sdiff(new String[]{"key", "key2", "key3"})));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, "a")),
+                     new HashSet<>(s.sunion(new String[]{"key", "key2", "key3"})));
+        assertEquals(1, s.smove("key", "key2", 1));
+        assertEquals(3, s.spop("key", 10).size());
+        assertTrue(isIntSetHelper(s, "key2"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void bitmapsWeighLess() {
+        Storage bitmaps = new Storage();
+        Storage hashed = new Storage();
+        hashed.setIntSetMaxEntries(0);
+        Object[] members = new Object[100_000];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = i * 3;
+        }
+        bitmaps.sadd("key", members);
+        hashed.sadd("key", members);
+        assertTrue(isBitmapHelper(bitmaps, "key"));
+        assertTrue(bitmaps.getUsedMemory() * 20 < hashed.getUsedMemory());
+    }
+
+    @Test
+    public void bitmapOperations() {
+        Storage s = new Storage();
+        Object[] even = new Object[50_000];
+        Object[] third = new Object[50_000];
+        for (int i = 0; i < even.length; i++) {
+            even[i] = i * 2;
+            third[i] = i * 3;
+        }
+        s.sadd("key", even);
+        s.sadd("key2", third);
+        s.sadd("key3", new Object[]{1, 6, 9, 12});
+        s.sadd("key4", new Object[]{6, "a"});
+        assertTrue(isBitmapHelper(s, "key"));
+        assertTrue(isBitmapHelper(s, "key2"));
+        assertTrue(isIntSetHelper(s, "key3"));
+
+        List<Object> inter = s.sinter(new String[]{"key", "key2"});
+        assertEquals(50_000 / 3 + 1, inter.size());
+        assertEquals(new HashSet<>(Arrays.asList(6, 12)), new HashSet<>(s.sinter(new String[]{"key", "key2", "key3"})));
+        assertEquals(Arrays.asList(6), s.sinter(new String[]{"key", "key4"}));
+
+        // multiples of 2 below 100k, odd multiples of 3 below 100k, multiples of 3 from 100k to 150k
+        assertEquals(50_000 + 16_667 + 16_666, s.sunion(new String[]{"key", "key2"}).size());
+        assertEquals(50_003, s.sunion(new String[]{"key", "key3", "key4"}).size());
+        assertEquals(1, s.sunionstore(new String[]{"dest", "key", "key3"}));
+        assertTrue(isBitmapHelper(s, "dest"));
+        assertEquals(50_002, s.scard("dest"));
+
+        // multiples of 2 but not of 3
+        assertEquals(50_000 - 16_667, s.sdiff(new String[]{"key", "key2"}).size());
+        assertEquals(49_998, s.sdiff(new String[]{"key", "key3", "key4", "nokey"}).size());
+        assertEquals(1, s.sdiffstore(new String[]{"dest2", "key", "key2", "key3"}));
+        assertTrue(isBitmapHelper(s, "dest2"));
+        assertEquals(0, s.sismember("dest2", 6));
+        assertEquals(1, s.sismember("dest2", 4));
+        assertEquals(1, s.sinterstore(new String[]{"dest3", "key", "key2"}));
+        assertTrue(isBitmapHelper(s, "dest3"));
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS ZADD                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zAddOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(1, s.zadd("key", 1.0, "a"));
+        assertEquals("zset", s.type("key"));
+        assertEquals(1, s.zcard("key"));
+    }
+
+    @Test
+    public void zAddNotASortedSet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.sadd("set", "a");
+        assertEquals(-1, s.zadd("key", 1.0, "a"));
+        assertEquals(-1, s.zadd("set", new double[]{1.0}, new Object[]{"a"}));
+    }
+
+    @Test
+    public void zAddUpdatesTheScore() {
+        Storage s = new Storage();
+        s.zadd("key", 1.0, "a");
+        s.zadd("key", 2.0, "b");
+        assertEquals(0, s.zadd("key", 3.0, "a"));
+        assertEquals(Double.valueOf(3.0), s.zscore("key", "a"));
+        assertEquals(Arrays.asList("b", "a"), s.zrange("key", 0, -1, false));
+    }
+
+    @Test
+    public void zAddMultipleMembers() {
+        Storage s = new Storage();
+        assertEquals(3, s.zadd("key", new double[]{3.0, 1.0, 2.0}, new Object[]{"c", "a", "b"}));
+        assertEquals(1, s.zadd("key", new double[]{0.0, 4.0}, new Object[]{"c", "d"}));
+        assertEquals(Arrays.asList("c", "a", "b", "d"), s.zrange("key", 0, -1, false));
+        assertEquals(0, s.zadd("key2", new double[]{}, new Object[]{}));
+        assertEquals("none", s.type("key2"));
+    }
+
+    @Test
+    public void zAddSameMemberTwiceInOneCall() {
+        Storage s = new Storage();
+        assertEquals(1, s.zadd("key", new double[]{1.0, 2.0}, new Object[]{"a", "a"}));
+        assertEquals(Double.valueOf(2.0), s.zscore("key", "a"));
+    }
+
+    @Test
+    public void zAddNotANumber() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.zadd("key", Double.NaN, "a");
+    }
+
+    @Test
+    public void zAddNotAsManyScoresAsMembers() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.zadd("key", new double[]{1.0}, new Object[]{"a", "b"});
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS ZCARD                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zCardOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.zcard("key"));
+    }
+
+    @Test
+    public void zCardNotASortedSet() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(-1, s.zcard("key"));
+    }
+
+    @Test
+    public void zCardCountsTheMembers() {
+        Storage s = new Storage();
+        s.zadd("key", new double[]{1.0, 1.0, 2.0}, new Object[]{"a", "b", "a"});
+        assertEquals(2, s.zcard("key"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS ZSCORE                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zScoreOnNonExistingKey() {
+        Storage s = new Storage();
+        assertNull(s.zscore("key", "a"));
+    }
+
+    @Test
+    public void zScoreNotASortedSet() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertNull(s.zscore("key", "a"));
+    }
+
+    @Test
+    public void zScoreOfMembers() {
+        Storage s = new Storage();
+        s.zadd("key", -1.5, "a");
+        s.zadd("key", Double.POSITIVE_INFINITY, "b");
+        assertEquals(Double.valueOf(-1.5), s.zscore("key", "a"));
+        assertEquals(Double.valueOf(Double.POSITIVE_INFINITY), s.zscore("key", "b"));
+        assertNull(s.zscore("key", "c"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS ZREM                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zRemOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.zrem("key", "a"));
+    }
+
+    @Test
+    public void zRemNotASortedSet() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(-1, s.zrem("key", "a"));
+        assertEquals(-1, s.zrem("key", new Object[]{"a"}));
+    }
+
+    @Test
+    public void zRemMembers() {
+        Storage s = new Storage();
+        s.zadd("key", new double[]{1.0, 2.0, 3.0}, new Object[]{"a", "b", "c"});
+        assertEquals(1, s.zrem("key", "b"));
+        assertEquals(0, s.zrem("key", "b"));
+        assertEquals(1, s.zrem("key", new Object[]{"a", "d"}));
+        assertEquals(Collections.singletonList("c"), s.zrange("key", 0, -1, false));
+        assertEquals(Integer.valueOf(0), s.zrank("key", "c"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS ZRANK                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zRankOnNonExistingKey() {
+        Storage s = new Storage();
+        assertNull(s.zrank("key", "a"));
+    }
+
+    @Test
+    public void zRankNotASortedSet() {
+        Storage s = new Storage();
+        s.rPush("key", "a");
+        assertEquals(Integer.valueOf(-1), s.zrank("key", "a"));
+    }
+
+    @Test
+    public void zRankOfMembers() {
+        Storage s = new Storage();
+        s.zadd("key", new double[]{10.0, 5.0, 5.0, 7.0}, new Object[]{"d", "b", "a", "c"});
+        assertEquals(Integer.valueOf(0), s.zrank("key", "a"));
+        assertEquals(Integer.valueOf(1), s.zrank("key", "b"));
+        assertEquals(Integer.valueOf(2), s.zrank("key", "c"));
+        assertEquals(Integer.valueOf(3), s.zrank("key", "d"));
+        assertNull(s.zrank("key", "e"));
+        s.zadd("key", 1.0, "d");
+        assertEquals(Integer.valueOf(0), s.zrank("key", "d"));
+        assertEquals(Integer.valueOf(1), s.zrank("key", "a"));
+    }
+
+    @Test
+    public void zRankOfALargeSortedSet() {
+        Storage s = new Storage();
+        int len = 10_000;
+        for (int i = len - 1; i >= 0; i--) {
+            s.zadd("key", i, "member" + i);
+        }
+        for (int i = 0; i < len; i += 97) {
+            assertEquals(Integer.valueOf(i), s.zrank("key", "member" + i));
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS ZRANGE                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    /* Sorted set holding members "a" to "e" with scores 1 to 5. */
+    private Storage createZSetHelper() {
+        Storage s = new Storage();
+        s.zadd("key", new double[]{3.0, 1.0, 5.0, 2.0, 4.0}, new Object[]{"c", "a", "e", "b", "d"});
+        return s;
+    }
+
+    @Test
+    public void zRangeOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(new ArrayList<>(), s.zrange("key", 0, -1, false));
+    }
+
+    @Test
+    public void zRangeNotASortedSet() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertNull(s.zrange("key", 0, -1, false));
+    }
+
+    @Test
+    public void zRangeWithPositiveIndexes() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("a", "b", "c"), s.zrange("key", 0, 2, false));
+        assertEquals(Arrays.asList("d", "e"), s.zrange("key", 3, 100, false));
+        assertEquals(new ArrayList<>(), s.zrange("key", 5, 10, false));
+        assertEquals(new ArrayList<>(), s.zrange("key", 3, 2, false));
+    }
+
+    @Test
+    public void zRangeWithNegativeIndexes() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), s.zrange("key", 0, -1, false));
+        assertEquals(Arrays.asList("d", "e"), s.zrange("key", -2, -1, false));
+        assertEquals(Arrays.asList("a", "b"), s.zrange("key", -100, 1, false));
+        assertEquals(new ArrayList<>(), s.zrange("key", 0, -6, false));
+    }
+
+    @Test
+    public void zRangeWithScores() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("d", 4.0, "e", 5.0), s.zrange("key", -2, -1, true));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                              TESTS ZRANGEBYSCORE                                               */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void zRangeByScoreOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(new ArrayList<>(), s.zrangebyscore("key", 0.0, 1.0, false, 0, -1));
+    }
+
+    @Test
+    public void zRangeByScoreNotASortedSet() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertNull(s.zrangebyscore("key", 0.0, 1.0, false, 0, -1));
+    }
+
+    @Test
+    public void zRangeByScoreInclusiveBounds() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("b", "c", "d"), s.zrangebyscore("key", 2.0, 4.0, false, 0, -1));
+        assertEquals(Arrays.asList("b", "c"), s.zrangebyscore("key", 1.5, 3.5, false, 0, -1));
+        assertEquals(Collections.singletonList("c"), s.zrangebyscore("key", 3.0, 3.0, false, 0, -1));
+        assertEquals(new ArrayList<>(), s.zrangebyscore("key", 4.0, 2.0, false, 0, -1));
+        assertEquals(new ArrayList<>(), s.zrangebyscore("key", 6.0, 10.0, false, 0, -1));
+    }
+
+    @Test
+    public void zRangeByScoreInfiniteBounds() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"),
+                     s.zrangebyscore("key", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, 0, -1));
+        assertEquals(Arrays.asList("a", "b"), s.zrangebyscore("key", Double.NEGATIVE_INFINITY, 2.0, false, 0, -1));
+    }
+
+    @Test
+    public void zRangeByScoreWithLimit() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("b", "c"), s.zrangebyscore("key", 1.0, 5.0, false, 1, 2));
+        assertEquals(Arrays.asList("d", "e"), s.zrangebyscore("key", 1.0, 5.0, false, 3, -1));
+        assertEquals(new ArrayList<>(), s.zrangebyscore("key", 1.0, 5.0, false, 5, 2));
+        assertEquals(new ArrayList<>(), s.zrangebyscore("key", 1.0, 5.0, false, 0, 0));
+    }
+
+    @Test
+    public void zRangeByScoreWithScores() {
+        Storage s = createZSetHelper();
+        assertEquals(Arrays.asList("a", 1.0, "b", 2.0), s.zrangebyscore("key", 0.0, 2.0, true, 0, -1));
+    }
+
+    @Test
+    public void zRangeByScoreNegativeOffset() {
+        Storage s = createZSetHelper();
+        thrown.expect(IllegalArgumentException.class);
+        s.zrangebyscore("key", 0.0, 2.0, false, -1, 1);
+    }
+
+    @Test
+    public void zRangeByScoreNotANumber() {
+        Storage s = createZSetHelper();
+        thrown.expect(IllegalArgumentException.class);
+        s.zrangebyscore("key", Double.NaN, 2.0, false, 0, -1);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS HSET                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hSetOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(1, s.hset("key", "field", "value"));
+        assertEquals("value", s.hget("key", "field"));
+        assertEquals(1, s.hlen("key"));
+    }
+
+    @Test
+    public void hSetReplacesTheValue() {
+        Storage s = new Storage();
+        s.hset("key", "field", "value");
+        assertEquals(0, s.hset("key", "field", "other"));
+        assertEquals("other", s.hget("key", "field"));
+        assertEquals(1, s.hlen("key"));
+    }
+
+    @Test
+    public void hSetNotAHash() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(-1, s.hset("key", "field", "value"));
+        assertEquals(-1, s.hset("key", new Object[]{"field"}, new Object[]{"value"}));
+    }
+
+    @Test
+    public void hSetSeveralFields() {
+        Storage s = new Storage();
+        assertEquals(2, s.hset("key", new Object[]{"a", "b"}, new Object[]{"1", "2"}));
+        assertEquals(1, s.hset("key", new Object[]{"b", "c"}, new Object[]{"3", "4"}));
+        assertEquals(Arrays.asList("1", "3", "4"), s.hmget("key", new Object[]{"a", "b", "c"}));
+    }
+
+    @Test
+    public void hSetNoFieldDoesNotCreateTheKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.hset("key", new Object[0], new Object[0]));
+        assertEquals("none", s.type("key"));
+    }
+
+    @Test
+    public void hSetOneValuePerField() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.hset("key", new Object[]{"a", "b"}, new Object[]{"1"});
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS HGET                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hGetOnNonExistingKey() {
+        Storage s = new Storage();
+        assertNull(s.hget("key", "field"));
+    }
+
+    @Test
+    public void hGetNotAHash() {
+        Storage s = new Storage();
+        s.sadd("key", "field");
+        assertNull(s.hget("key", "field"));
+    }
+
+    @Test
+    public void hGetMissingField() {
+        Storage s = new Storage();
+        s.hset("key", "field", "value");
+        assertNull(s.hget("key", "other"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS HMGET                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hMGetOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(Arrays.asList(null, null), s.hmget("key", new Object[]{"a", "b"}));
+    }
+
+    @Test
+    public void hMGetNotAHash() {
+        Storage s = new Storage();
+        s.rPush("key", "a");
+        assertNull(s.hmget("key", new Object[]{"a"}));
+    }
+
+    @Test
+    public void hMGetWithMissingFields() {
+        Storage s = new Storage();
+        s.hset("key", new Object[]{"a", "c"}, new Object[]{"1", "3"});
+        assertEquals(Arrays.asList("1", null, "3"), s.hmget("key", new Object[]{"a", "b", "c"}));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                 TESTS HINCRBY                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hIncrByOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(Long.valueOf(5L), s.hincrby("key", "field", 5L));
+        assertEquals(5L, s.hget("key", "field"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void hIncrByMissingField() {
+        Storage s = new Storage();
+        s.hset("key", "other", "value");
+        assertEquals(Long.valueOf(-3L), s.hincrby("key", "field", -3L));
+        assertEquals(2, s.hlen("key"));
+    }
+
+    @Test
+    public void hIncrByStringHoldingAnInteger() {
+        Storage s = new Storage();
+        s.hset("key", "field", "41");
+        assertEquals(Long.valueOf(42L), s.hincrby("key", "field", 1L));
+        assertEquals(Long.valueOf(40L), s.hincrby("key", "field", -2L));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void hIncrByNotAHash() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "42");
+        assertNull(s.hincrby("key", "field", 1L));
+    }
+
+    @Test
+    public void hIncrByNotAnInteger() {
+        Storage s = new Storage();
+        s.hset("key", "field", "value");
+        thrown.expect(ArithmeticException.class);
+        thrown.expectMessage(HashValue.ERROR_NOT_INTEGER);
+        s.hincrby("key", "field", 1L);
+    }
+
+    @Test
+    public void hIncrByOverflow() {
+        Storage s = new Storage();
+        s.hset("key", "field", Long.toString(Long.MAX_VALUE));
+        try {
+            s.hincrby("key", "field", 1L);
+            fail("An ArithmeticException should have been thrown.");
+        } catch (ArithmeticException e) {
+            assertEquals(Long.toString(Long.MAX_VALUE), s.hget("key", "field"));
+        }
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS HDEL                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hDelOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.hdel("key", new Object[]{"field"}));
+    }
+
+    @Test
+    public void hDelNotAHash() {
+        Storage s = new Storage();
+        s.zadd("key", 1.0, "field");
+        assertEquals(-1, s.hdel("key", new Object[]{"field"}));
+    }
+
+    @Test
+    public void hDelFields() {
+        Storage s = new Storage();
+        s.hset("key", new Object[]{"a", "b", "c"}, new Object[]{"1", "2", "3"});
+        assertEquals(2, s.hdel("key", new Object[]{"a", "c", "d"}));
+        assertEquals(1, s.hlen("key"));
+        assertNull(s.hget("key", "a"));
+        assertEquals("2", s.hget("key", "b"));
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                   TESTS HLEN                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void hLenOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.hlen("key"));
+    }
+
+    @Test
+    public void hLenNotAHash() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(-1, s.hlen("key"));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                              TESTS HASH ENCODING                                               */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private boolean isPackedHashHelper(Storage s, String key) {
+        return ((HashValue) s.valueOf(key)).isPacked();
+    }
+
+    @Test
+    public void smallHashesArePacked() {
+        Storage s = new Storage();
+        for (int i = 0; i < HashValue.DEFAULT_MAX_PACK_ENTRIES; i++) {
+            s.hset("key", "field" + i, "value" + i);
+        }
+        assertTrue(isPackedHashHelper(s, "key"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void hashIsConvertedOverTheMaxEntries() {
+        Storage s = new Storage();
+        for (int i = 0; i <= HashValue.DEFAULT_MAX_PACK_ENTRIES; i++) {
+            s.hset("key", "field" + i, "value" + i);
+        }
+        assertFalse(isPackedHashHelper(s, "key"));
+        assertEquals(HashValue.DEFAULT_MAX_PACK_ENTRIES + 1, s.hlen("key"));
+        for (int i = 0; i <= HashValue.DEFAULT_MAX_PACK_ENTRIES; i++) {
+            assertEquals("value" + i, s.hget("key", "field" + i));
+        }
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void bigHsetStartsConverted() {
+        Storage s = new Storage();
+        s.setHashPackMaxEntries(2);
+        assertEquals(3, s.hset("key", new Object[]{"a", "b", "c"}, new Object[]{"1", "2", "3"}));
+        assertFalse(isPackedHashHelper(s, "key"));
+        assertEquals(Arrays.asList("1", "2", "3"), s.hmget("key", new Object[]{"a", "b", "c"}));
+    }
+
+    @Test
+    public void hashesAreNotPackedWithoutLimit() {
+        Storage s = new Storage();
+        s.setHashPackMaxEntries(0);
+        s.hset("key", "field", "value");
+        assertFalse(isPackedHashHelper(s, "key"));
+        assertEquals("value", s.hget("key", "field"));
+    }
+
+    @Test
+    public void invalidHashPackLimit() {
+        thrown.expect(IllegalArgumentException.class);
+        new Storage().setHashPackMaxEntries(-1);
+    }
+
+    @Test
+    public void packedHashesWeighLess() {
+        Storage packed = new Storage();
+        Storage unpacked = new Storage();
+        unpacked.setHashPackMaxEntries(0);
+        for (int i = 0; i < 100; i++) {
+            packed.hset("key", "field" + i, "value" + i);
+            unpacked.hset("key", "field" + i, "value" + i);
+        }
+        assertTrue(packed.getUsedMemory() < unpacked.getUsedMemory());
+    }
+
+    @Test
+    public void packedHashOperations() {
+        Storage s = new Storage();
+        s.hset("key", new Object[]{"a", "b", "c", "d"}, new Object[]{"1", "2", "3", "4"});
+        assertEquals(2, s.hdel("key", new Object[]{"a", "c"}));
+        assertEquals(Long.valueOf(12L), s.hincrby("key", "d", 8L));
+        assertEquals(1, s.hset("key", "e", "5"));
+        assertEquals(Arrays.asList(null, "2", 12L, "5"), s.hmget("key", new Object[]{"a", "b", "d", "e"}));
+        assertTrue(isPackedHashHelper(s, "key"));
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS SETBIT                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void setBitCreatesTheBitmap() throws KeyException {
+        Storage s = new Storage();
+        assertEquals(0, s.setbit("key", 7, 1));
+        assertEquals("bitmap", s.type("key"));
+        assertArrayEquals(new byte[]{1}, s.getBytes("key"));
+    }
+
+    @Test
+    public void setBitReturnsThePreviousBit() {
+        Storage s = new Storage();
+        s.setbit("key", 100, 1);
+        assertEquals(1, s.setbit("key", 100, 1));
+        assertEquals(1, s.setbit("key", 100, 0));
+        assertEquals(0, s.setbit("key", 100, 0));
+    }
+
+    @Test
+    public void setBitGrowsTheBitmapToTheOffset() throws KeyException {
+        Storage s = new Storage();
+        s.setbit("key", 0, 1);
+        s.setbit("key", 1000, 0);
+        assertEquals(126, s.getBytes("key").length);
+        assertEquals(1, s.bitcount("key"));
+    }
+
+    @Test
+    public void setBitLastOffset() {
+        Storage s = new Storage();
+        assertEquals(0, s.setbit("key", BitmapValue.MAX_OFFSET, 1));
+        assertEquals(1, s.getbit("key", BitmapValue.MAX_OFFSET));
+        assertEquals(Long.valueOf(BitmapValue.MAX_OFFSET), s.bitpos("key", 1));
+    }
+
+    @Test
+    public void setBitNotABitmap() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(-1, s.setbit("key", 0, 1));
+    }
+
+    @Test
+    public void setBitNegativeOffset() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.setbit("key", -1, 1);
+    }
+
+    @Test
+    public void setBitOffsetTooLarge() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.setbit("key", BitmapValue.MAX_OFFSET + 1, 1);
+    }
+
+    @Test
+    public void setBitInvalidBit() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.setbit("key", 0, 2);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS GETBIT                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void getBitOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.getbit("key", 42));
+    }
+
+    @Test
+    public void getBitFollowsTheOrderOfTheBytes() throws KeyException {
+        Storage s = new Storage();
+        s.set("string", new byte[]{(byte) 0x80, 0x01});
+        s.setbit("key", 0, 1);
+        s.setbit("key", 15, 1);
+        assertArrayEquals(s.getBytes("string"), s.getBytes("key"));
+        assertEquals(1, s.getbit("key", 0));
+        assertEquals(0, s.getbit("key", 1));
+        assertEquals(1, s.getbit("key", 15));
+    }
+
+    @Test
+    public void getBitPastTheEnd() {
+        Storage s = new Storage();
+        s.setbit("key", 3, 1);
+        assertEquals(0, s.getbit("key", 64));
+        assertEquals(0, s.getbit("key", BitmapValue.MAX_OFFSET));
+    }
+
+    @Test
+    public void getBitNotABitmap() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(-1, s.getbit("key", 0));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                 TESTS BITCOUNT                                                 */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private Storage bitmapHelper(String key, long... offsets) {
+        Storage s = new Storage();
+        for (long offset : offsets) {
+            s.setbit(key, offset, 1);
+        }
+        return s;
+    }
+
+    @Test
+    public void bitCountOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(0, s.bitcount("key"));
+        assertEquals(0, s.bitcount("key", 0, -1));
+    }
+
+    @Test
+    public void bitCountWholeBitmap() {
+        Storage s = new Storage();
+        for (int i = 0; i < 1000; i += 3) {
+            s.setbit("key", i, 1);
+        }
+        assertEquals(334, s.bitcount("key"));
+    }
+
+    @Test
+    public void bitCountRangeOfBytes() {
+        // bytes 0: 2 bits, 1: 1 bit, 8: 1 bit, 9: 3 bits
+        Storage s = bitmapHelper("key", 0, 7, 8, 64, 72, 73, 79);
+        assertEquals(7, s.bitcount("key", 0, 9));
+        assertEquals(2, s.bitcount("key", 0, 0));
+        assertEquals(2, s.bitcount("key", 1, 8));
+        assertEquals(4, s.bitcount("key", 8, 9));
+        assertEquals(3, s.bitcount("key", 9, 9));
+    }
+
+    @Test
+    public void bitCountNegativeIndexes() {
+        Storage s = bitmapHelper("key", 0, 7, 8, 64, 72, 73, 79);
+        assertEquals(3, s.bitcount("key", -1, -1));
+        assertEquals(4, s.bitcount("key", -2, -1));
+        assertEquals(7, s.bitcount("key", -100, 100));
+    }
+
+    @Test
+    public void bitCountEmptyRange() {
+        Storage s = bitmapHelper("key", 0, 7, 8, 64, 72, 73, 79);
+        assertEquals(0, s.bitcount("key", 5, 2));
+        assertEquals(0, s.bitcount("key", 10, 20));
+        assertEquals(0, s.bitcount("key", -100, -50));
+    }
+
+    @Test
+    public void bitCountNotABitmap() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertEquals(-1, s.bitcount("key"));
+        assertEquals(-1, s.bitcount("key", 0, 1));
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS BITPOS                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void bitPosOnNonExistingKey() {
+        Storage s = new Storage();
+        assertEquals(Long.valueOf(-1), s.bitpos("key", 1));
+        assertEquals(Long.valueOf(0), s.bitpos("key", 0));
+    }
+
+    @Test
+    public void bitPosFirstBitSet() {
+        Storage s = bitmapHelper("key", 200, 1000);
+        assertEquals(Long.valueOf(200), s.bitpos("key", 1));
+        assertEquals(Long.valueOf(1000), s.bitpos("key", 1, 26, -1));
+        assertEquals(Long.valueOf(-1), s.bitpos("key", 1, 26, 100));
+    }
+
+    @Test
+    public void bitPosFirstBitCleared() {
+        Storage s = bitmapHelper("key", 0, 1, 2, 3, 4, 5, 6, 7, 8, 10);
+        assertEquals(Long.valueOf(9), s.bitpos("key", 0));
+        assertEquals(Long.valueOf(9), s.bitpos("key", 0, -1, -1));
+        assertEquals(Long.valueOf(-1), s.bitpos("key", 0, 0, 0));
+    }
+
+    @Test
+    public void bitPosNoBitClearedInAFullBitmap() {
+        Storage s = new Storage();
+        for (int i = 0; i < 24; i++) {
+            s.setbit("key", i, 1);
+        }
+        assertEquals(Long.valueOf(24), s.bitpos("key", 0));
+        assertEquals(Long.valueOf(-1), s.bitpos("key", 0, 0, -1));
+    }
+
+    @Test
+    public void bitPosNotABitmap() {
+        Storage s = new Storage();
+        s.sadd("key", "a");
+        assertNull(s.bitpos("key", 1));
+        assertNull(s.bitpos("key", 1, 0, -1));
+    }
+
+    @Test
+    public void bitPosInvalidBit() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.bitpos("key", 2);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS BITOP                                                   */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    private void bitmapOfBytesHelper(Storage s, String key, int... bytes) {
+        for (int i = 0; i < 8 * bytes.length; i++) {
+            s.setbit(key, i, bytes[i / 8] >> (7 - i % 8) & 1);
+        }
+    }
+
+    @Test
+    public void bitOpAndOrXor() throws KeyException {
+        Storage s = new Storage();
+        bitmapOfBytesHelper(s, "a", 0xF0, 0x0F, 0xFF);
+        bitmapOfBytesHelper(s, "b", 0x3C, 0xFF);
+        assertEquals(3, s.bitop("AND", new String[]{"dest", "a", "b"}));
+        assertArrayEquals(new byte[]{0x30, 0x0F, 0x00}, s.getBytes("dest"));
+        assertEquals(3, s.bitop("or", new String[]{"dest", "a", "b"}));
+        assertArrayEquals(new byte[]{(byte) 0xFC, (byte) 0xFF, (byte) 0xFF}, s.getBytes("dest"));
+        assertEquals(3, s.bitop("Xor", new String[]{"dest", "a", "b"}));
+        assertArrayEquals(new byte[]{(byte) 0xCC, (byte) 0xF0, (byte) 0xFF}, s.getBytes("dest"));
+    }
+
+    @Test
+    public void bitOpNotStaysInTheLength() throws KeyException {
+        Storage s = bitmapHelper("key", 0, 9);
+        assertEquals(2, s.bitop("NOT", new String[]{"dest", "key"}));
+        assertArrayEquals(new byte[]{0x7F, (byte) 0xBF}, s.getBytes("dest"));
+        // the bits of the word past the length are still 0 once the bitmap grows
+        s.setbit("dest", 63, 1);
+        assertEquals(15, s.bitcount("dest"));
+    }
+
+    @Test
+    public void bitOpMissingKeysAreEmpty() {
+        Storage s = bitmapHelper("key", 3, 100);
+        assertEquals(13, s.bitop("AND", new String[]{"dest", "key", "missing"}));
+        assertEquals(0, s.bitcount("dest"));
+        assertEquals(13, s.bitop("OR", new String[]{"dest", "missing", "key"}));
+        assertEquals(2, s.bitcount("dest"));
+    }
+
+    @Test
+    public void bitOpEmptyResultDeletesTheDestination() {
+        Storage s = bitmapHelper("dest", 3);
+        assertEquals(0, s.bitop("OR", new String[]{"dest", "missing", "other"}));
+        assertEquals("none", s.type("dest"));
+        assertEquals(0, s.bitop("NOT", new String[]{"dest", "missing"}));
+        assertEquals("none", s.type("dest"));
+    }
+
+    @Test
+    public void bitOpReplacesTheDestination() {
+        Storage s = bitmapHelper("key", 3);
+        s.sadd("dest", "a");
+        assertEquals(1, s.bitop("OR", new String[]{"dest", "key"}));
+        assertEquals("bitmap", s.type("dest"));
+        assertEquals(1, s.getbit("dest", 3));
+    }
+
+    @Test
+    public void bitOpDestinationAmongTheSources() {
+        Storage s = bitmapHelper("key", 3, 4);
+        s.setbit("other", 4, 1);
+        assertEquals(1, s.bitop("AND", new String[]{"key", "key", "other"}));
+        assertEquals(1, s.bitcount("key"));
+        assertEquals(1, s.getbit("key", 4));
+    }
+
+    @Test
+    public void bitOpLargeBitmapsInParallel() {
+        Storage s = new Storage();
+        long bits = 64L * BitmapValue.PARALLEL_THRESHOLD * 4;
+        for (long i = 0; i < bits; i += 3) {
+            s.setbit("three", i, 1);
+        }
+        for (long i = 0; i < bits; i += 5) {
+            s.setbit("five", i, 1);
+        }
+        assertEquals(bits / 8, s.bitop("AND", new String[]{"dest", "three", "five"}));
+        assertEquals((bits - 1) / 15 + 1, s.bitcount("dest"));
+        s.bitop("OR", new String[]{"dest", "three", "five"});
+        assertEquals(s.bitcount("three") + s.bitcount("five") - ((bits - 1) / 15 + 1), s.bitcount("dest"));
+        s.bitop("XOR", new String[]{"dest", "three", "three"});
+        assertEquals(0, s.bitcount("dest"));
+        s.bitop("NOT", new String[]{"dest", "three"});
+        assertEquals(bits - s.bitcount("three"), s.bitcount("dest"));
+    }
+
+    @Test
+    public void bitOpNotABitmap() {
+        Storage s = bitmapHelper("key", 3);
+        s.sadd("set", "a");
+        assertEquals(-1, s.bitop("OR", new String[]{"dest", "key", "set"}));
+        assertEquals("none", s.type("dest"));
+    }
+
+    @Test
+    public void bitOpUnknownOperation() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.bitop("NAND", new String[]{"dest", "key"});
+    }
+
+    @Test
+    public void bitOpNoSource() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.bitop("OR", new String[]{"dest"});
+    }
+
+    @Test
+    public void bitOpNotOfSeveralKeys() {
+        Storage s = new Storage();
+        thrown.expect(IllegalArgumentException.class);
+        s.bitop("NOT", new String[]{"dest", "a", "b"});
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                  TESTS MEMORY                                                  */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void storageWithNulMaxMemory() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        Storage.withMaxMemory(0L);
+    }
+
+    @Test
+    public void storageWithMaxMemory() {
+        Storage s = Storage.withMaxMemory(1024L);
+        assertEquals(1024L, s.getMaxMemory());
+        assertEquals(0L, s.getUsedMemory());
+    }
+
+    @Test
+    public void storageBoundedBySizeHasNoMaxMemory() {
+        assertEquals(0L, new Storage().getMaxMemory());
+    }
+
+    @Test
+    public void usedMemoryAfterStoreAndRemove() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(SizeEstimator.sizeOfEntry("key", "value"), s.getUsedMemory());
+        s.remove("key");
+        assertEquals(0L, s.getUsedMemory());
+    }
+
+    @Test
+    public void usedMemoryAfterReplace() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.replace("key", "a much longer value than the previous one");
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void usedMemoryFollowsSortedSets() {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.zadd("key", i, "member" + i);
+        }
+        usedMemoryHelper(s);
+        s.zadd("key", new double[]{-1.0, 1000.0}, new Object[]{"member5", "other"});
+        usedMemoryHelper(s);
+        s.zrem("key", new Object[]{"member1", "member2", "absent"});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void usedMemoryFollowsHashes() {
+        Storage s = new Storage();
+        for (int i = 0; i < 200; i++) {
+            s.hset("key", "field" + i, "value" + i);
+        }
+        usedMemoryHelper(s);
+        s.hset("key", new Object[]{"field5", "other"}, new Object[]{"a much longer value than the previous one", "1"});
+        usedMemoryHelper(s);
+        s.hincrby("key", "other", 41L);
+        s.hdel("key", new Object[]{"field1", "field2", "absent"});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void usedMemoryFollowsBitmaps() {
+        Storage s = new Storage();
+        for (int i = 0; i < 5000; i += 7) {
+            s.setbit("key", i, 1);
+            s.setbit("other", 2 * i, 1);
+        }
+        usedMemoryHelper(s);
+        s.bitop("XOR", new String[]{"dest", "key", "other"});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void usedMemoryFollowsListsGrowingAndShrinking() {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.lPush("key", "value" + i);
+            s.rPush("key", i);
+        }
+        usedMemoryHelper(s);
+        long full = s.getUsedMemory();
+        s.lPop("key");
+        s.rPop("key");
+        s.lset("key", 3, "a much longer value than the previous one");
+        s.lrem("key", 0, 42);
+        s.lrem("key", 1, "value50");
+        usedMemoryHelper(s);
+        s.ltrim("key", 0, 9);
+        usedMemoryHelper(s);
+        assertTrue(s.getUsedMemory() < full);
+    }
+
+    @Test
+    public void usedMemoryFollowsSetsGrowingAndShrinking() {
+        Storage s = new Storage();
+        for (int i = 0; i < 100; i++) {
+            s.sadd("key", i);
+            s.sadd("key2", "member" + i);
+        }
+        s.sadd("key", 0);
+        usedMemoryHelper(s);
+        s.srem("key", 0);
+        s.spop("key");
+        s.smove("key", "key2", 50);
+        usedMemoryHelper(s);
+        s.sinterstore(new String[]{"key3", "key", "key2"});
+        s.sunionstore(new String[]{"key4", "key", "key2"});
+        s.sdiffstore(new String[]{"key4", "key", "key2"});
+        usedMemoryHelper(s);
+        s.sadd("key5", 1);
+        s.sadd("key5", 2);
+        s.sinter(new String[]{"key5", "key"});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void usedMemoryAfterEvictionBySize() throws DuplicatedKeyException {
+        Storage s = createAndStoreHelper(3L);
+        s.store("key4", "object4");
+        containsHelper(s, new boolean[]{false, true, true, true});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void maxMemoryEvictsLeastRecentlyUsedKeys() throws DuplicatedKeyException {
+        Storage s = Storage.withMaxMemory(3L * SizeEstimator.sizeOfEntry("key1", "object1"));
+        for (int i = 1; i <= 4; i++) {
+            s.store("key" + i, "object" + i);
+        }
+        containsHelper(s, new boolean[]{false, true, true, true});
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void maxMemoryEvictsWhenAListGrows() throws DuplicatedKeyException {
+        Storage s = Storage.withMaxMemory(4096L);
+        s.store("key1", "object1");
+        for (int i = 0; i < 1000; i++) {
+            s.lPush("key2", "value" + i);
+        }
+        assertTrue(s.getUsedMemory() <= 4096L);
+        assertFalse(s.getCache().containsKey("key1"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void maxMemoryEvictsWhenASetGrows() throws DuplicatedKeyException {
+        Storage s = Storage.withMaxMemory(4096L);
+        s.store("key1", "object1");
+        for (int i = 0; i < 100; i++) {
+            s.sadd("key2", "member" + i);
+        }
+        assertTrue(s.getUsedMemory() <= 4096L);
+        assertFalse(s.getCache().containsKey("key1"));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void bigStringsWeighMoreThanSmallOnes() throws DuplicatedKeyException {
+        Storage s = Storage.withMaxMemory(4096L);
+        for (int i = 0; i < 10; i++) {
+            s.store("small" + i, "x");
+        }
+        char[] big = new char[1000];
+        Arrays.fill(big, 'x');
+        s.store("big", new String(big));
+        assertTrue(s.getCache().size() < 11);
+        usedMemoryHelper(s);
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                 TESTS EVICTION                                                 */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void defaultPolicyIsLru() {
+        assertEquals(LruPolicy.NAME, new Storage().getPolicy().getName());
+        assertEquals(LruPolicy.NAME, Storage.withMaxMemory(1024L).getPolicy().getName());
+    }
+
+    @Test
+    public void storageWithNullPolicy() throws NullPointerException {
+        thrown.expect(NullPointerException.class);
+        new Storage(10L, null);
+    }
+
+    @Test
+    public void hitsAndMisses() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.get("key");
+        s.lPush("key", "value");
+        s.srem("nokey", "member");
+        assertEquals(2L, s.getHits());
+        assertEquals(1L, s.getMisses());
+    }
+
+    @Test
+    public void evictionsAreCounted() throws DuplicatedKeyException {
+        Storage s = createAndStoreHelper(3L);
+        assertEquals(0L, s.getEvictions());
+        s.store("key4", "object4");
+        s.store("key5", "object5");
+        assertEquals(2L, s.getEvictions());
+        assertEquals(3, s.getCache().size());
+    }
+
+    @Test
+    public void setMaxSizeEvictsOnNextStore() throws DuplicatedKeyException {
+        Storage s = createAndStoreHelper(3L);
+        s.setMaxSize(1L);
+        s.store("key4", "object4");
+        assertEquals(1, s.getCache().size());
+        assertTrue(s.getCache().containsKey("key4"));
+    }
+
+    @Test
+    public void lruKeepsRecentlyReadKeys() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = createAndStoreHelper(3L);
+        s.get("key1");
+        s.store("key4", "object4");
+        containsHelper(s, new boolean[]{true, false, true, true});
+    }
+
+    @Test
+    public void lfuKeepsFrequentlyReadKeys() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage(3L, new LfuPolicy(5, 0L));
+        s.store("key1", "object1");
+        s.store("key2", "object2");
+        s.store("key3", "object3");
+        for (int i = 0; i < 100; i++) {
+            s.get("key1");
+            s.get("key3");
+        }
+        s.store("key4", "object4");
+        containsHelper(s, new boolean[]{true, false, true, true});
+    }
+
+    @Test
+    public void evictionKeepsUsedMemoryConsistent() {
+        for (String policy : new String[]{"lru", "lfu", "w-tinylfu", "random", "volatile-ttl"}) {
+            Storage s = Storage.withMaxMemory(16L * 1024L, EvictionPolicy.forName(policy));
+            for (int i = 0; i < 500; i++) {
+                s.lPush("list" + (i % 50), "value" + i);
+                s.sadd("set" + (i % 30), i);
+            }
+            assertTrue(policy, s.getUsedMemory() <= 16L * 1024L);
+            assertTrue(policy, s.getEvictions() > 0L);
+            usedMemoryHelper(s);
+        }
+    }
+
+    @Test
+    public void tinyLfuEvictsEverythingWhenTheBudgetIsTiny() throws DuplicatedKeyException {
+        Storage s = Storage.withMaxMemory(1L, new TinyLfuPolicy());
+        s.store("key1", "object1");
+        s.store("key2", "object2");
+        assertEquals(0, s.getCache().size());
+        assertEquals(0L, s.getUsedMemory());
+    }
+
+    /*----------------------------------------------------------------------------------------------------------------*/
+    /*                                                                                                                */
+    /*                                                TESTS EXPIRATION                                                */
+    /*                                                                                                                */
+    /*----------------------------------------------------------------------------------------------------------------*/
+
+    @Test
+    public void pttlOfNonExistentKey() {
+        assertEquals(-2L, new Storage().pttl("key"));
+    }
+
+    @Test
+    public void pttlOfPersistentKey() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertEquals(-1L, s.pttl("key"));
+    }
+
+    @Test
+    public void expireAtNonExistentKey() {
+        Storage s = new Storage();
+        assertFalse(s.expireAt("key", System.currentTimeMillis() + 10000L));
+        assertEquals(0, s.getVolatileKeys());
+    }
+
+    @Test
+    public void expireAtSetsTheTimeToLive() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertTrue(s.expireAt("key", System.currentTimeMillis() + 10000L));
+        long pttl = s.pttl("key");
+        assertTrue(pttl > 9000L && pttl <= 10000L);
+        assertEquals(1, s.getVolatileKeys());
+    }
+
+    @Test
+    public void expireAtInThePastRemovesTheKey() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertTrue(s.expireAt("key", System.currentTimeMillis() - 1L));
+        assertFalse(s.getCache().containsKey("key"));
+        assertEquals(1L, s.getExpirations());
+        assertEquals(0L, s.getUsedMemory());
+    }
+
+    @Test
+    public void expiredKeysAreRemovedOnAccess() throws DuplicatedKeyException, InterruptedException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.expireAt("key", System.currentTimeMillis() + 20L);
+        Thread.sleep(40L);
+        assertTrue(s.getCache().containsKey("key"));
+        assertEquals(0, s.llen("key"));
+        assertFalse(s.getCache().containsKey("key"));
+        assertEquals(1L, s.getExpirations());
+        assertEquals(0, s.getVolatileKeys());
+        s.store("key", "value");
+        assertEquals(-1L, s.pttl("key"));
+    }
+
+    @Test
+    public void expireCycleRemovesExpiredKeys() throws DuplicatedKeyException, InterruptedException {
+        Storage s = Storage.withMaxMemory(1024L * 1024L);
+        for (int i = 0; i < 100; i++) {
+            s.store("key" + i, "value");
+            s.expireAt("key" + i, System.currentTimeMillis() + (i % 2 == 0 ? 20L : 100000L));
+        }
+        Thread.sleep(40L);
+        int removed = 0;
+        for (int i = 0; i < 100 && removed < 50; i++) {
+            removed += s.expireCycle(10);
+        }
+        assertEquals(50, removed);
+        assertEquals(50, s.getCache().size());
+        assertEquals(50, s.getVolatileKeys());
+        assertEquals(0, s.expireCycle(1000));
+        usedMemoryHelper(s);
+    }
+
+    @Test
+    public void persistRemovesTheTimeToLive() throws DuplicatedKeyException, InterruptedException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        assertFalse(s.persist("key"));
+        s.expireAt("key", System.currentTimeMillis() + 20L);
+        assertTrue(s.persist("key"));
+        assertEquals(-1L, s.pttl("key"));
+        assertEquals(0, s.getVolatileKeys());
+        Thread.sleep(40L);
+        assertEquals(0, s.expireCycle(1000));
+        assertTrue(s.getCache().containsKey("key"));
+    }
+
+    @Test
+    public void persistNonExistentKey() {
+        assertFalse(new Storage().persist("key"));
+    }
+
+    @Test
+    public void timeToLiveSurvivesInPlaceModifications() {
+        Storage s = new Storage();
+        s.lPush("list", "a");
+        s.lPush("list", "b");
+        s.expireAt("list", System.currentTimeMillis() + 10000L);
+        s.lPush("list", "c");
+        s.lset("list", 0, "d");
+        s.ltrim("list", 0, 1);
+        assertTrue(s.pttl("list") > 0L);
+        s.sadd("set", "a");
+        s.expireAt("set", System.currentTimeMillis() + 10000L);
+        s.sadd("set", "b");
+        s.srem("set", "a");
+        assertTrue(s.pttl("set") > 0L);
+    }
+
+    @Test
+    public void timeToLiveIsClearedWhenOverwritten() throws DuplicatedKeyException {
+        Storage s = new Storage();
+        s.store("key", "value");
+        s.expireAt("key", System.currentTimeMillis() + 10000L);
+        s.replace("key", "other value");
+        assertEquals(-1L, s.pttl("key"));
+        assertEquals(0, s.getVolatileKeys());
+    }
+
+    @Test
+    public void removedKeysLeaveTheWheel() throws DuplicatedKeyException, NonExistentKeyException {
+        Storage s = new Storage(2L);
+        s.store("key1", "value");
+        s.expireAt("key1", System.currentTimeMillis() + 10000L);
+        s.store("key2", "value");
+        s.expireAt("key2", System.currentTimeMillis() + 10000L);
+        s.remove("key1");
+        assertEquals(1, s.getVolatileKeys());
+        s.store("key3", "value");
+        s.store("key4", "value");
+        assertEquals(0, s.getVolatileKeys());
+    }
+}
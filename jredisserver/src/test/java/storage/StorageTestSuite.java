@@ -2,11 +2,28 @@ package storage;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import storage.eviction.EvictionStorageTestSuite;
 import storage.exceptions.ExceptionsStorageTestSuite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         StorageTest.class,
+        SizeEstimatorTest.class,
+        SlabAllocatorTest.class,
+        QuickListTest.class,
+        ListPackTest.class,
+        RingBufferTest.class,
+        IndexedSetTest.class,
+        IntSetTest.class,
+        KeySpaceTest.class,
+        GlobTest.class,
+        RoaringSetTest.class,
+        SetAlgebraTest.class,
+        SkipListTest.class,
+        IndexedMapTest.class,
+        StorageConcurrencyTest.class,
+        ShardedStorageTest.class,
+        EvictionStorageTestSuite.class,
         ExceptionsStorageTestSuite.class
 })
 public class StorageTestSuite {}
@@ -0,0 +1,37 @@
+package storage.eviction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+public class EvictionPolicyTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void forNameOfEveryPolicy() {
+        assertTrue(EvictionPolicy.forName("lru") instanceof LruPolicy);
+        assertTrue(EvictionPolicy.forName("lfu") instanceof LfuPolicy);
+        assertTrue(EvictionPolicy.forName("w-tinylfu") instanceof TinyLfuPolicy);
+        assertTrue(EvictionPolicy.forName("random") instanceof RandomPolicy);
+        assertTrue(EvictionPolicy.forName("volatile-ttl") instanceof VolatileTtlPolicy);
+    }
+
+    @Test
+    public void forNameIsCaseInsensitive() {
+        assertEquals(LruPolicy.NAME, EvictionPolicy.forName("LRU").getName());
+    }
+
+    @Test
+    public void forNameGivesNewInstances() {
+        assertNotSame(EvictionPolicy.forName("lru"), EvictionPolicy.forName("lru"));
+    }
+
+    @Test
+    public void forUnknownName() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        EvictionPolicy.forName("mru");
+    }
+}
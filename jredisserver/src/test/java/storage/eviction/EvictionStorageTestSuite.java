@@ -0,0 +1,17 @@
+package storage.eviction;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+        EvictionPolicyTest.class,
+        FrequencySketchTest.class,
+        LfuPolicyTest.class,
+        LruPolicyTest.class,
+        RandomPolicyTest.class,
+        TimingWheelTest.class,
+        TinyLfuPolicyTest.class,
+        VolatileTtlPolicyTest.class
+})
+public class EvictionStorageTestSuite {}
@@ -0,0 +1,52 @@
+package storage.eviction;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrequencySketchTest {
+    @Test
+    public void unknownKey() {
+        assertEquals(0, new FrequencySketch().frequency("key"));
+    }
+
+    @Test
+    public void incrementedKey() {
+        FrequencySketch sketch = new FrequencySketch();
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(5, sketch.frequency("key"));
+    }
+
+    @Test
+    public void frequencyIsCapped() {
+        FrequencySketch sketch = new FrequencySketch();
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(15, sketch.frequency("key"));
+    }
+
+    @Test
+    public void frequenciesAreHalvedWhenAging() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("key");
+        }
+        // 20 keys seen up to 15 times, enough to reach 10 times the capacity
+        for (int i = 0; i < 300; i++) {
+            sketch.increment("other" + (i % 20));
+        }
+        assertTrue(sketch.frequency("key") < 8);
+    }
+
+    @Test
+    public void ensureCapacityForgets() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.increment("key");
+        sketch.ensureCapacity(1000);
+        assertEquals(0, sketch.frequency("key"));
+    }
+}
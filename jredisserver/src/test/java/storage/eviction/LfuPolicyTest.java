@@ -0,0 +1,78 @@
+package storage.eviction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+public class LfuPolicyTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void invalidDecayPeriod() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        new LfuPolicy(5, -1L);
+    }
+
+    @Test
+    public void newKeysStartAtInitCounter() {
+        LfuPolicy policy = new LfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        assertEquals(LfuPolicy.INIT_COUNTER, policy.frequency(node));
+    }
+
+    @Test
+    public void counterGrowsLogarithmically() {
+        LfuPolicy policy = new LfuPolicy(5, 0L);
+        Node node = new Node("key");
+        policy.onInsert(node);
+        for (int i = 0; i < 1000; i++) {
+            policy.onAccess(node);
+        }
+        int frequency = policy.frequency(node);
+        assertTrue(frequency > LfuPolicy.INIT_COUNTER);
+        assertTrue(frequency < 100);
+    }
+
+    @Test
+    public void counterIsCapped() {
+        LfuPolicy policy = new LfuPolicy(5, 0L);
+        Node node = new Node("key");
+        policy.onInsert(node);
+        node.counter = LfuPolicy.MAX_COUNTER;
+        policy.onAccess(node);
+        assertEquals(LfuPolicy.MAX_COUNTER, policy.frequency(node));
+    }
+
+    @Test
+    public void counterDecays() throws InterruptedException {
+        LfuPolicy policy = new LfuPolicy(5, 1L);
+        Node node = new Node("key");
+        policy.onInsert(node);
+        Thread.sleep(20);
+        assertEquals(0, policy.frequency(node));
+    }
+
+    @Test
+    public void evictsLeastFrequentlyUsed() {
+        LfuPolicy policy = new LfuPolicy(5, 0L);
+        Node frequent = new Node("frequent");
+        Node rare = new Node("rare");
+        policy.onInsert(rare);
+        policy.onInsert(frequent);
+        for (int i = 0; i < 100; i++) {
+            policy.onAccess(frequent);
+        }
+        assertSame(rare, policy.selectVictim());
+    }
+
+    @Test
+    public void tiesAreBrokenByRecency() throws InterruptedException {
+        LfuPolicy policy = new LfuPolicy(5, 0L);
+        Node[] nodes = LruPolicyTest.insertHelper(policy, 3);
+        assertSame(nodes[0], policy.selectVictim());
+    }
+}
@@ -0,0 +1,97 @@
+package storage.eviction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LruPolicyTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * Insert nodes named "0", "1", ... in this order, making sure they get different access times.
+     *
+     * @param policy The policy.
+     * @param nb The number of nodes.
+     * @return The nodes.
+     */
+    static Node[] insertHelper(EvictionPolicy policy, int nb) throws InterruptedException {
+        Node[] nodes = new Node[nb];
+        for (int i = 0; i < nb; i++) {
+            nodes[i] = new Node("" + i);
+            policy.onInsert(nodes[i]);
+            Thread.sleep(1);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void invalidSamples() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        new LruPolicy(0);
+    }
+
+    @Test
+    public void defaultSamples() {
+        assertEquals(SampledEvictionPolicy.DEFAULT_SAMPLES, new LruPolicy().getSamples());
+    }
+
+    @Test
+    public void noVictimWhenEmpty() {
+        assertNull(new LruPolicy().selectVictim());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws InterruptedException {
+        LruPolicy policy = new LruPolicy();
+        Node[] nodes = insertHelper(policy, 3);
+        assertSame(nodes[0], policy.selectVictim());
+        policy.onAccess(nodes[0]);
+        assertSame(nodes[1], policy.selectVictim());
+    }
+
+    @Test
+    public void removedNodesAreForgotten() throws InterruptedException {
+        LruPolicy policy = new LruPolicy();
+        Node[] nodes = insertHelper(policy, 3);
+        policy.onRemove(nodes[0]);
+        policy.onRemove(nodes[0]);
+        assertEquals(2, policy.size());
+        assertSame(nodes[1], policy.selectVictim());
+        policy.onRemove(nodes[1]);
+        policy.onRemove(nodes[2]);
+        assertEquals(0, policy.size());
+        assertNull(policy.selectVictim());
+    }
+
+    @Test
+    public void sampledVictimIsAmongTheOldest() throws InterruptedException {
+        LruPolicy policy = new LruPolicy(10);
+        insertHelper(policy, 100);
+        int old = 0;
+        for (int i = 0; i < 100; i++) {
+            if (Integer.parseInt(policy.selectVictim().getKey()) < 50) {
+                old++;
+            }
+        }
+        assertTrue(old > 90);
+    }
+
+    @Test
+    public void everyNodeCanBeEvicted() throws InterruptedException {
+        LruPolicy policy = new LruPolicy();
+        insertHelper(policy, 50);
+        Set<String> evicted = new HashSet<>();
+        Node victim;
+        while ((victim = policy.selectVictim()) != null) {
+            assertTrue(evicted.add(victim.getKey()));
+            policy.onRemove(victim);
+        }
+        assertEquals(50, evicted.size());
+    }
+}
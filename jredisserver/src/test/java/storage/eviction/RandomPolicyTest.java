@@ -0,0 +1,28 @@
+package storage.eviction;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RandomPolicyTest {
+    @Test
+    public void evictsAnyKey() {
+        RandomPolicy policy = new RandomPolicy();
+        for (int i = 0; i < 10; i++) {
+            policy.onInsert(new Node("" + i));
+        }
+        Set<String> victims = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            victims.add(policy.selectVictim().getKey());
+        }
+        assertTrue(victims.size() > 1);
+    }
+
+    @Test
+    public void noVictimWhenEmpty() {
+        assertNull(new RandomPolicy().selectVictim());
+    }
+}
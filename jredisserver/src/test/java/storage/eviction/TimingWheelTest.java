@@ -0,0 +1,145 @@
+package storage.eviction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * Create a node expiring at the given time and schedule it.
+     */
+    private Node scheduleHelper(TimingWheel wheel, String key, long expiresAt) {
+        Node node = new Node(key);
+        node.setExpiresAt(expiresAt);
+        wheel.schedule(node);
+        return node;
+    }
+
+    @Test
+    public void invalidTick() throws IllegalArgumentException {
+        thrown.expect(IllegalArgumentException.class);
+        new TimingWheel(0L, 0L);
+    }
+
+    @Test
+    public void nothingExpiresBeforeItsTime() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        scheduleHelper(wheel, "key", 1000L);
+        assertTrue(wheel.advance(999L, 1000).isEmpty());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void expiresAtItsTime() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        Node node = scheduleHelper(wheel, "key", 1005L);
+        assertTrue(wheel.advance(1004L, 1000).isEmpty());
+        List<Node> expired = wheel.advance(1010L, 1000);
+        assertEquals(1, expired.size());
+        assertSame(node, expired.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void lateNodesExpireOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(10L, 1000L);
+        scheduleHelper(wheel, "key", 500L);
+        assertEquals(1, wheel.advance(1000L, 1000).size());
+    }
+
+    @Test
+    public void cancelledNodesDoNotExpire() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        Node node = scheduleHelper(wheel, "key", 100L);
+        wheel.cancel(node);
+        wheel.cancel(node);
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(200L, 1000).isEmpty());
+    }
+
+    @Test
+    public void rescheduledNodesExpireAtTheirNewTime() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        Node node = scheduleHelper(wheel, "key", 100L);
+        node.setExpiresAt(5000L);
+        wheel.schedule(node);
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(200L, 1000).isEmpty());
+        assertEquals(1, wheel.advance(5000L, 10000).size());
+    }
+
+    @Test
+    public void nodesWithoutExpirationAreNotScheduled() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        scheduleHelper(wheel, "key", 0L);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nodesCascadeThroughEveryLevel() {
+        TimingWheel wheel = new TimingWheel(1L, 0L);
+        long[] times = {1L, 63L, 64L, 65L, 4095L, 4096L, 4097L, 300_000L, 20_000_000L, 2_000_000_000L};
+        for (long t : times) {
+            scheduleHelper(wheel, "key" + t, t);
+        }
+        long now = 0L;
+        List<Long> expired = new ArrayList<>();
+        while (expired.size() < times.length) {
+            now += 997L;
+            for (Node n : wheel.advance(now, Integer.MAX_VALUE)) {
+                assertTrue(n.getExpiresAt() <= now);
+                // expired at the latest during the advance following its expiration
+                assertTrue(n.getExpiresAt() > now - 997L);
+                expired.add(n.getExpiresAt());
+            }
+            if (now > 3_000_000_000L) {
+                fail("Some nodes never expired: " + expired);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nodesBeyondTheWheelExpireToo() {
+        TimingWheel wheel = new TimingWheel(1L, 0L);
+        Node node = scheduleHelper(wheel, "key", Long.MAX_VALUE);
+        assertTrue(wheel.advance(1L << 40, Integer.MAX_VALUE).isEmpty());
+        assertEquals(1, wheel.size());
+        // parked at the top level instead of being looked at on every tick
+        assertTrue(node.wheelSlot >= (TimingWheel.LEVELS - 1) * TimingWheel.SLOTS);
+    }
+
+    @Test
+    public void advanceDoesBoundedWork() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        for (int i = 0; i < 1000; i++) {
+            scheduleHelper(wheel, "key" + i, 100L);
+        }
+        int total = 0;
+        int calls = 0;
+        while (total < 1000) {
+            List<Node> expired = wheel.advance(200L, 100);
+            assertTrue(expired.size() <= 100);
+            total += expired.size();
+            calls++;
+        }
+        assertTrue(calls >= 10);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void idleWheelCatchesUpAtOnce() {
+        TimingWheel wheel = new TimingWheel(10L, 0L);
+        wheel.advance(1_000_000_000L, 1);
+        scheduleHelper(wheel, "key", 1_000_000_050L);
+        assertEquals(1, wheel.advance(1_000_000_050L, 100).size());
+    }
+}
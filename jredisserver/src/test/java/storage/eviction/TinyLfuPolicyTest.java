@@ -0,0 +1,127 @@
+package storage.eviction;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TinyLfuPolicyTest {
+    @Test
+    public void newKeysGoToTheWindow() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        assertEquals(1, policy.getWindowSize());
+        assertEquals(1, policy.frequency(node));
+        policy.onRemove(node);
+        assertEquals(0, policy.getWindowSize());
+        assertEquals(0, policy.size());
+    }
+
+    @Test
+    public void onlyVictimIsTheWindow() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        assertSame(node, policy.selectVictim());
+    }
+
+    @Test
+    public void accessesAreCounted() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        policy.onAccess(node);
+        policy.onAccess(node);
+        assertEquals(3, policy.frequency(node));
+    }
+
+    @Test
+    public void accessesFromOtherThreadsAreCounted() throws InterruptedException {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 7; j++) {
+                    policy.onAccess(node);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(15, policy.frequency(node));
+    }
+
+    @Test
+    public void accessToRemovedNodeIsIgnored() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Node node = new Node("key");
+        policy.onInsert(node);
+        policy.onRemove(node);
+        policy.onAccess(node);
+        assertEquals(0, policy.getWindowSize());
+    }
+
+    @Test
+    public void windowOverflowsIntoMain() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        for (int i = 0; i < 10; i++) {
+            policy.onInsert(new Node("" + i));
+        }
+        assertEquals(1, policy.getWindowSize());
+        assertEquals(10, policy.size());
+    }
+
+    @Test
+    public void frequentKeysAreNotFlushedByAScan() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        Set<Node> hot = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Node node = new Node("hot" + i);
+            policy.onInsert(node);
+            hot.add(node);
+        }
+        for (int j = 0; j < 10; j++) {
+            for (Node node : hot) {
+                policy.onAccess(node);
+            }
+        }
+        // A scan of keys seen once while the hot keys are still used, keeping 100 keys
+        Node[] hotNodes = hot.toArray(new Node[0]);
+        for (int i = 0; i < 1000; i++) {
+            policy.onInsert(new Node("scan" + i));
+            policy.onRemove(policy.selectVictim());
+            if (hotNodes[i % 100].index >= 0) {
+                policy.onAccess(hotNodes[i % 100]);
+            }
+        }
+        int kept = 0;
+        for (Node node : hot) {
+            if (node.index >= 0) {
+                kept++;
+            }
+        }
+        assertTrue(kept >= 95);
+    }
+
+    @Test
+    public void everyNodeCanBeEvicted() {
+        TinyLfuPolicy policy = new TinyLfuPolicy();
+        for (int i = 0; i < 50; i++) {
+            policy.onInsert(new Node("" + i));
+        }
+        Set<String> evicted = new HashSet<>();
+        Node victim;
+        while ((victim = policy.selectVictim()) != null) {
+            assertTrue(evicted.add(victim.getKey()));
+            policy.onRemove(victim);
+        }
+        assertEquals(50, evicted.size());
+    }
+}
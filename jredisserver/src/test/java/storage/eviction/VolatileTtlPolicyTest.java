@@ -0,0 +1,26 @@
+package storage.eviction;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VolatileTtlPolicyTest {
+    @Test
+    public void evictsKeysExpiringFirst() throws InterruptedException {
+        VolatileTtlPolicy policy = new VolatileTtlPolicy();
+        Node[] nodes = LruPolicyTest.insertHelper(policy, 3);
+        nodes[1].setExpiresAt(2000L);
+        nodes[2].setExpiresAt(1000L);
+        assertSame(nodes[2], policy.selectVictim());
+    }
+
+    @Test
+    public void keysWithoutExpirationComeLast() throws InterruptedException {
+        VolatileTtlPolicy policy = new VolatileTtlPolicy();
+        Node[] nodes = LruPolicyTest.insertHelper(policy, 3);
+        nodes[2].setExpiresAt(1000L);
+        assertSame(nodes[2], policy.selectVictim());
+        policy.onRemove(nodes[2]);
+        assertSame(nodes[0], policy.selectVictim());
+    }
+}